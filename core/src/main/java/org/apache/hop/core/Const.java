@@ -677,6 +677,17 @@ public class Const {
           "The maximum number of logging registry entries kept in memory for logging purposes. This is the number of logging objects, a logging object can be a pipeline/workflow/transform/action or a couple of system-level loggers.")
   public static final String HOP_MAX_LOGGING_REGISTRY_SIZE = "HOP_MAX_LOGGING_REGISTRY_SIZE";
 
+  /**
+   * A variable to configure the maximum number of parsed pipeline and workflow files kept in memory
+   * by the metadata file cache.
+   */
+  @Variable(
+      scope = VariableScope.APPLICATION,
+      value = "100",
+      description =
+          "The maximum number of parsed pipeline and workflow files kept in memory to speed up loading them again, for example by mapping or pipeline/workflow executor transforms. Set to 0 to disable the cache.")
+  public static final String HOP_METADATA_FILE_CACHE_SIZE = "HOP_METADATA_FILE_CACHE_SIZE";
+
   /** A variable to configure the hop log tab refresh delay. */
   @Variable(
       scope = VariableScope.APPLICATION,
@@ -22,15 +22,30 @@ import java.util.concurrent.atomic.AtomicInteger;
 public class BufferLine {
   private static AtomicInteger sequence = new AtomicInteger(0);
 
-  private int nr;
+  private long nr;
   private HopLoggingEvent event;
+  private LoggingBuffer.ChannelLines channel;
 
   public BufferLine(HopLoggingEvent event) {
     this.event = event;
     this.nr = sequence.incrementAndGet();
   }
 
+  /** A line numbered by the {@link LoggingBuffer} it's stored in. */
+  BufferLine(HopLoggingEvent event, long nr, LoggingBuffer.ChannelLines channel) {
+    this.event = event;
+    this.nr = nr;
+    this.channel = channel;
+  }
+
+  /**
+   * @return the lower 32 bits of the line number
+   */
   public int getNr() {
+    return (int) nr;
+  }
+
+  long getLineNr() {
     return nr;
   }
 
@@ -38,6 +53,10 @@ public class BufferLine {
     return event;
   }
 
+  LoggingBuffer.ChannelLines getChannel() {
+    return channel;
+  }
+
   @Override
   public String toString() {
     return event.toString();
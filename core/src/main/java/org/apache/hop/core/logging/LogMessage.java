@@ -30,6 +30,7 @@ public class LogMessage implements ILogMessage {
   private String message;
   private String subject;
   private Object[] arguments;
+  private volatile String formattedMessage;
   private LogLevel level;
   private String copy;
   private boolean simplified;
@@ -139,32 +140,43 @@ public class LogMessage implements ILogMessage {
   }
 
   /**
-   * @return The formatted message.
+   * @return The formatted message. The message is only formatted the first time it's asked for, a
+   *     line in the log buffer which is never read is never formatted either.
    */
   @Override
   public String getMessage() {
-    String formatted = message;
     // Skip MessageFormat when there are no substitution arguments
-    if (arguments != null && arguments.length > 0) {
-      // get all "tokens" enclosed by curly brackets within the message
-      final List<String> tokens = new ArrayList<>();
-      StringUtil.getUsedVariables(formatted, "{", "}", tokens, true);
-      // perform MessageFormat.format( ... ) on each token, if we get an exception, we'll know that
-      // we have a
-      // segment that isn't parsable by MessageFormat, likely a pdi variable name (${foo}) - in this
-      // case, we need to
-      // escape the curly brackets in the message, so that MessageFormat does not complain
-      for (final String token : tokens) {
-        try {
-          MessageFormat.format("{" + token + "}", arguments);
-        } catch (final IllegalArgumentException iar) {
-          formatted = formatted.replaceAll("\\{" + token + "\\}", "\\'{'" + token + "\\'}'");
-        }
+    if (arguments == null || arguments.length == 0) {
+      return message;
+    }
+    String formatted = formattedMessage;
+    if (formatted == null) {
+      formatted = formatMessage();
+      formattedMessage = formatted;
+    }
+    return formatted;
+  }
+
+  private String formatMessage() {
+    String formatted = message;
+    // get all "tokens" enclosed by curly brackets within the message
+    final List<String> tokens = new ArrayList<>();
+    StringUtil.getUsedVariables(formatted, "{", "}", tokens, true);
+    // perform MessageFormat.format( ... ) on each token, if we get an exception, we'll know that
+    // we have a
+    // segment that isn't parsable by MessageFormat, likely a pdi variable name (${foo}) - in this
+    // case, we need to
+    // escape the curly brackets in the message, so that MessageFormat does not complain
+    for (final String token : tokens) {
+      try {
+        MessageFormat.format("{" + token + "}", arguments);
+      } catch (final IllegalArgumentException iar) {
+        formatted = formatted.replaceAll("\\{" + token + "\\}", "\\'{'" + token + "\\'}'");
       }
-      // now that we have escaped curly brackets in all invalid tokens, we can attempt to format the
-      // entire message
-      formatted = MessageFormat.format(formatted, arguments);
     }
+    // now that we have escaped curly brackets in all invalid tokens, we can attempt to format the
+    // entire message
+    formatted = MessageFormat.format(formatted, arguments);
     return formatted;
   }
 
@@ -20,24 +20,47 @@ package org.apache.hop.core.logging;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import lombok.Getter;
 import lombok.Setter;
 import org.apache.hop.core.Const;
 
-/** This class keeps the last N lines in a buffer */
+/**
+ * This class keeps the last N lines in a buffer.
+ *
+ * <p>Every line gets a number, 1..N in the order in which the lines were added. The lines are kept
+ * in chunks of slots indexed by that number so a range of lines can be found without looking at the
+ * lines before it. Adding a line doesn't take a lock: the number is claimed with a counter and the
+ * line is stored in its own slot. The lines are published in order: {@link #getLastBufferLineNr()}
+ * only moves past a line once all the lines before it are stored as well, so a reader asking for
+ * the lines after the last one it saw never misses a line.
+ *
+ * <p>Internally the numbers are longs so they never run out. The methods of this class take and
+ * return the lower 32 bits of them: numbers which are handed back are matched with the closest line
+ * number, which works as long as a reader doesn't fall more than 2^31 lines behind.
+ *
+ * <p>The buffer also keeps an index per log channel with the range of its line numbers and whether
+ * the channel is a general one. Looking up the lines of a pipeline or workflow only scans the range
+ * of the channels involved and never needs the locks of the {@link LoggingRegistry}.
+ */
 public class LoggingBuffer {
-  @Getter @Setter private String name;
+  private static final int CHUNK_SHIFT = 10;
+  private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+  private static final int CHUNK_MASK = CHUNK_SIZE - 1;
 
-  private List<BufferLine> buffer;
-  private ReadWriteLock lock = new ReentrantReadWriteLock();
+  /** The key in the channel index for messages without a log channel */
+  private static final String NO_CHANNEL = "";
 
-  private int bufferSize;
+  @Getter @Setter private String name;
+
+  private volatile int bufferSize;
 
   @Getter @Setter private HopLogLayout layout;
 
@@ -45,31 +68,55 @@ public class LoggingBuffer {
 
   private LoggingRegistry loggingRegistry = LoggingRegistry.getInstance();
 
+  /** The number of the last line which was handed out */
+  private final AtomicLong lastClaimedNr;
+
+  /** The number of the last line for which all the lines up to it are stored */
+  private final AtomicLong lastPublishedNr;
+
+  /** The number of the oldest line which can still be in the buffer */
+  private final AtomicLong firstNr;
+
+  private final AtomicInteger nrLines;
+
+  /** The oldest chunk still in use, the chunks are linked to the next ones */
+  private final AtomicReference<Chunk> head;
+
+  /** The most recent chunk, to quickly find the slot of a new line */
+  private volatile Chunk tail;
+
+  private final Map<String, ChannelLines> channels;
+
   public LoggingBuffer(int bufferSize) {
+    this(bufferSize, 1L);
+  }
+
+  /**
+   * @param bufferSize the maximum number of lines, 0 or lower means: no limit
+   * @param firstLineNr the number of the first line which is added
+   */
+  LoggingBuffer(int bufferSize, long firstLineNr) {
     this.bufferSize = bufferSize;
-    // The buffer overflow protection allows it to be overflowed for 1 item within a single thread.
-    // Considering a possible high contention, let's set it's max overflow size to be 10%.
-    // Anyway, even an overflow goes higher than 10%, it wouldn't cost us too much.
-    buffer = new ArrayList<>((int) (bufferSize * 1.1));
     layout = new HopLogLayout(true);
     eventListeners = new CopyOnWriteArrayList<>();
+    lastClaimedNr = new AtomicLong(firstLineNr - 1);
+    lastPublishedNr = new AtomicLong(firstLineNr - 1);
+    firstNr = new AtomicLong(firstLineNr);
+    nrLines = new AtomicInteger(0);
+    channels = new ConcurrentHashMap<>();
+    tail = new Chunk(firstLineNr >>> CHUNK_SHIFT);
+    head = new AtomicReference<>(tail);
   }
 
   /**
-   * @return the number (sequence, 1..N) of the last log line. If no records are present in the
-   *     buffer, 0 is returned.
+   * @return the number (sequence, 1..N) of the last log line, the lower 32 bits of it. If no
+   *     records are present in the buffer, 0 is returned.
    */
   public int getLastBufferLineNr() {
-    lock.readLock().lock();
-    try {
-      if (!buffer.isEmpty()) {
-        return buffer.get(buffer.size() - 1).getNr();
-      } else {
-        return 0;
-      }
-    } finally {
-      lock.readLock().unlock();
+    if (nrLines.get() <= 0) {
+      return 0;
     }
+    return (int) lastPublishedNr.get();
   }
 
   /**
@@ -81,24 +128,23 @@ public class LoggingBuffer {
    */
   public List<HopLoggingEvent> getLogBufferFromTo(
       List<String> channelId, boolean includeGeneral, int from, int to) {
-    lock.readLock().lock();
-    try {
-      Stream<BufferLine> bufferStream =
-          buffer.stream().filter(line -> line.getNr() > from && line.getNr() <= to);
-      if (channelId != null) {
-        bufferStream =
-            bufferStream.filter(
-                line -> {
-                  String logChannelId = getLogChId(line);
-                  return includeGeneral
-                      ? isGeneral(logChannelId) || channelId.contains(logChannelId)
-                      : channelId.contains(logChannelId);
-                });
+    if (channelId == null) {
+      return getLines(null, from, to);
+    }
+    Set<String> selected = new HashSet<>();
+    for (String id : channelId) {
+      if (id != null && channels.containsKey(id)) {
+        selected.add(id);
       }
-      return bufferStream.map(BufferLine::getEvent).collect(Collectors.toList());
-    } finally {
-      lock.readLock().unlock();
     }
+    if (includeGeneral) {
+      for (ChannelLines channel : channels.values()) {
+        if (isGeneral(channel)) {
+          selected.add(channel.key);
+        }
+      }
+    }
+    return getLines(selected, from, to);
   }
 
   /**
@@ -110,14 +156,22 @@ public class LoggingBuffer {
    */
   public List<HopLoggingEvent> getLogBufferFromTo(
       String parentLogChannelId, boolean includeGeneral, int from, int to) {
+    if (parentLogChannelId == null) {
+      return getLines(null, from, to);
+    }
 
     // Typically, the log channel id is the one from the pipeline or workflow running currently.
     // However, we also want to see the details of the transforms etc.
-    // So we need to look at the parents all the way up if needed...
+    // So we look for the channels which have it as a parent, all the way up if needed...
     //
-    List<String> childIds = loggingRegistry.getLogChannelChildren(parentLogChannelId);
-
-    return getLogBufferFromTo(childIds, includeGeneral, from, to);
+    Set<String> selected = new HashSet<>();
+    for (ChannelLines channel : channels.values()) {
+      if (channel.descendsFrom(parentLogChannelId, loggingRegistry)
+          || (includeGeneral && isGeneral(channel))) {
+        selected.add(channel.key);
+      }
+    }
+    return getLines(selected, from, to);
   }
 
   public StringBuffer getBuffer(
@@ -151,15 +205,30 @@ public class LoggingBuffer {
   }
 
   public void doAppend(HopLoggingEvent event) {
-    if (event.getMessage() instanceof LogMessage) {
-      lock.writeLock().lock();
-      try {
-        buffer.add(new BufferLine(event));
-        while (bufferSize > 0 && buffer.size() > bufferSize) {
-          buffer.remove(0);
-        }
-      } finally {
-        lock.writeLock().unlock();
+    if (!(event.getMessage() instanceof LogMessage logMessage)) {
+      return;
+    }
+    long nr = lastClaimedNr.incrementAndGet();
+    ChannelLines channel = getChannel(logMessage.getLogChannelId());
+    BufferLine line = new BufferLine(event, nr, channel);
+
+    channel.add(nr);
+    nrLines.incrementAndGet();
+    findChunk(nr, true).lines.set(slot(nr), line);
+    publish();
+
+    // A channel which was dropped from the index in the meantime comes back
+    //
+    if (channels.get(channel.key) != channel) {
+      ChannelLines current = channels.putIfAbsent(channel.key, channel);
+      if (current != null && current != channel) {
+        current.include(nr);
+      }
+    }
+
+    while (bufferSize > 0 && nrLines.get() > bufferSize) {
+      if (!removeOldestLine()) {
+        break;
       }
     }
   }
@@ -169,12 +238,12 @@ public class LoggingBuffer {
   }
 
   public void clear() {
-    lock.writeLock().lock();
-    try {
-      buffer.clear();
-    } finally {
-      lock.writeLock().unlock();
+    long last = lastPublishedNr.get();
+    for (long nr = firstNr.get(); nr <= last; nr++) {
+      removeLine(nr, null);
     }
+    advanceFirstLine();
+    channels.values().removeIf(ChannelLines::isEmpty);
   }
 
   /**
@@ -196,7 +265,7 @@ public class LoggingBuffer {
    * @return the nrLines
    */
   public int getNrLines() {
-    return buffer.size();
+    return nrLines.get();
   }
 
   /**
@@ -205,48 +274,54 @@ public class LoggingBuffer {
    * @param id the id of the logging channel to remove
    */
   public void removeChannelFromBuffer(String id) {
-    lock.writeLock().lock();
-    try {
-      buffer.removeIf(line -> id.equals(getLogChId(line)));
-    } finally {
-      lock.writeLock().unlock();
+    ChannelLines channel = channels.remove(id == null ? NO_CHANNEL : id);
+    if (channel == null) {
+      return;
+    }
+    long last = Math.min(channel.lastNr.get(), lastPublishedNr.get());
+    for (long nr = Math.max(channel.firstNr.get(), firstNr.get()); nr <= last; nr++) {
+      removeLine(nr, channel);
     }
+    advanceFirstLine();
   }
 
   public int size() {
-    return buffer.size();
+    return nrLines.get();
+  }
+
+  /**
+   * @return the number of log channels in the index
+   */
+  int getNrChannels() {
+    return channels.size();
   }
 
   public void removeGeneralMessages() {
-    lock.writeLock().lock();
-    try {
-      buffer.removeIf(line -> isGeneral(getLogChId(line)));
-    } finally {
-      lock.writeLock().unlock();
+    for (ChannelLines channel : channels.values()) {
+      if (isGeneral(channel)) {
+        removeChannelFromBuffer(channel.id);
+      }
     }
   }
 
   public void removeBufferLinesBefore(long minTimeBoundary) {
-    // Using HashSet even though BufferLine does not implement hashcode and equals,
-    // we just need to remove the exact objects we have found and put in the set.
-    Set<BufferLine> linesToRemove = new HashSet<>();
-    lock.writeLock().lock();
-    try {
-      for (BufferLine bufferLine : buffer) {
-        if (bufferLine.getEvent().timeStamp < minTimeBoundary) {
-          linesToRemove.add(bufferLine);
-        } else {
-          break;
-        }
+    long last = lastPublishedNr.get();
+    for (long nr = firstNr.get(); nr <= last; nr++) {
+      BufferLine line = getLine(nr);
+      if (line == null) {
+        continue;
+      }
+      if (line.getEvent().timeStamp >= minTimeBoundary) {
+        break;
       }
-      // removeAll should run fast against a HashSet,
-      // since ArrayList.batchRemove check for each element of a collection given if it is in the
-      // ArrayList.
-      // Thus, removeAll should run in a linear time.
-      buffer.removeAll(linesToRemove);
-    } finally {
-      lock.writeLock().unlock();
+      removeLine(nr, null);
     }
+    advanceFirstLine();
+
+    // Forget about the channels without lines
+    //
+    long first = firstNr.get();
+    channels.values().removeIf(channel -> channel.isEmpty() && channel.lastNr.get() < first);
   }
 
   public void addLogggingEvent(HopLoggingEvent loggingEvent) {
@@ -262,12 +337,299 @@ public class LoggingBuffer {
     eventListeners.remove(listener);
   }
 
-  private boolean isGeneral(String logChannelId) {
-    ILoggingObject loggingObject = loggingRegistry.getLoggingObject(logChannelId);
-    return loggingObject != null && LoggingObjectType.GENERAL.equals(loggingObject.getObjectType());
+  private boolean isGeneral(ChannelLines channel) {
+    return channel.isGeneral(loggingRegistry);
+  }
+
+  private ChannelLines getChannel(String logChannelId) {
+    String key = logChannelId == null ? NO_CHANNEL : logChannelId;
+    ChannelLines channel = channels.get(key);
+    if (channel == null) {
+      channel = channels.computeIfAbsent(key, k -> new ChannelLines(logChannelId));
+    }
+    return channel;
+  }
+
+  /**
+   * Collect the events of the lines numbered from (exclusive) to (inclusive).
+   *
+   * @param selected The keys of the channels to collect the lines of, null for all the lines
+   */
+  private List<HopLoggingEvent> getLines(Set<String> selected, int from, int to) {
+    long low = Math.max(toLineNr(from) + 1, firstNr.get());
+    long high = Math.min(toLineNr(to), lastPublishedNr.get());
+    if (selected != null) {
+      // Only look at the range of lines of the selected channels
+      //
+      long channelsLow = Long.MAX_VALUE;
+      long channelsHigh = 0;
+      for (String key : selected) {
+        ChannelLines channel = channels.get(key);
+        if (channel != null) {
+          channelsLow = Math.min(channelsLow, channel.firstNr.get());
+          channelsHigh = Math.max(channelsHigh, channel.lastNr.get());
+        }
+      }
+      low = Math.max(low, channelsLow);
+      high = Math.min(high, channelsHigh);
+    }
+
+    List<HopLoggingEvent> events = new ArrayList<>();
+    Chunk chunk = null;
+    for (long nr = low; nr <= high; nr++) {
+      long chunkIndex = nr >>> CHUNK_SHIFT;
+      if (chunk == null || chunk.index != chunkIndex) {
+        chunk = findChunk(nr, false);
+        if (chunk == null) {
+          // Dropped while we were looking
+          //
+          continue;
+        }
+      }
+      BufferLine line = chunk.lines.get(slot(nr));
+      if (line != null && (selected == null || selected.contains(line.getChannel().key))) {
+        events.add(line.getEvent());
+      }
+    }
+    return events;
+  }
+
+  /**
+   * The line number with the given lower 32 bits which is closest to the last published line. 0
+   * always means: before the first line.
+   *
+   * @param nr a line number as handed out by this class
+   * @return the full line number
+   */
+  private long toLineNr(int nr) {
+    if (nr == 0) {
+      // The start of the buffer, also what getLastBufferLineNr() gives when there are no lines
+      //
+      return 0L;
+    }
+    long last = lastPublishedNr.get();
+    return last + (nr - (int) last);
+  }
+
+  private static int slot(long nr) {
+    return (int) (nr & CHUNK_MASK);
+  }
+
+  private BufferLine getLine(long nr) {
+    Chunk chunk = findChunk(nr, false);
+    return chunk == null ? null : chunk.lines.get(slot(nr));
+  }
+
+  /**
+   * Remove a line from the buffer.
+   *
+   * @param nr The number of the line
+   * @param channel Only remove the line if it belongs to this channel, null for any channel
+   * @return true if the line was removed by this call
+   */
+  private boolean removeLine(long nr, ChannelLines channel) {
+    Chunk chunk = findChunk(nr, false);
+    if (chunk == null) {
+      return false;
+    }
+    int slot = slot(nr);
+    BufferLine line = chunk.lines.get(slot);
+    if (line == null || (channel != null && !channel.key.equals(line.getChannel().key))) {
+      return false;
+    }
+    if (chunk.lines.compareAndSet(slot, line, null)) {
+      nrLines.decrementAndGet();
+      ChannelLines lineChannel = line.getChannel();
+      lineChannel.remove();
+
+      // Forget the channels without lines, a channel which gets a new line in the meantime is
+      // added again by doAppend()
+      //
+      if (lineChannel.isEmpty()) {
+        channels.remove(lineChannel.key, lineChannel);
+      }
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Remove the oldest line to stay within the maximum number of lines.
+   *
+   * @return false if there are no lines left to remove
+   */
+  private boolean removeOldestLine() {
+    while (true) {
+      long first = firstNr.get();
+      if (first > lastPublishedNr.get()) {
+        return false;
+      }
+      if (firstNr.compareAndSet(first, first + 1)) {
+        boolean removed = removeLine(first, null);
+        dropUnusedChunks();
+        if (removed) {
+          return true;
+        }
+      }
+    }
+  }
+
+  /** Skip over the lines at the start of the buffer which were removed. */
+  private void advanceFirstLine() {
+    long first;
+    while ((first = firstNr.get()) <= lastPublishedNr.get() && getLine(first) == null) {
+      firstNr.compareAndSet(first, first + 1);
+    }
+    dropUnusedChunks();
   }
 
-  private static String getLogChId(BufferLine bufferLine) {
-    return ((LogMessage) bufferLine.getEvent().getMessage()).getLogChannelId();
+  /** Move the number of the last published line past the lines which are stored. */
+  private void publish() {
+    long published;
+    while ((published = lastPublishedNr.get()) < lastClaimedNr.get()) {
+      BufferLine next = getLine(published + 1);
+      if (next == null || next.getLineNr() != published + 1) {
+        // Still being stored, the thread storing it publishes it
+        //
+        return;
+      }
+      lastPublishedNr.compareAndSet(published, published + 1);
+    }
+  }
+
+  private void dropUnusedChunks() {
+    // The chunk before the one of the first line is kept for the removals still going on
+    //
+    long keepChunkIndex = (firstNr.get() >>> CHUNK_SHIFT) - 1;
+    Chunk chunk;
+    while ((chunk = head.get()).index < keepChunkIndex && chunk.next.get() != null) {
+      head.compareAndSet(chunk, chunk.next.get());
+    }
+  }
+
+  /**
+   * Find the chunk holding the slot of a line.
+   *
+   * @param nr The number of the line
+   * @param create Add the chunk if it doesn't exist yet
+   * @return The chunk or null if it doesn't exist (anymore)
+   */
+  private Chunk findChunk(long nr, boolean create) {
+    long index = nr >>> CHUNK_SHIFT;
+    Chunk chunk = tail;
+    if (chunk.index > index) {
+      chunk = head.get();
+    }
+    if (chunk.index > index) {
+      return null;
+    }
+    while (chunk.index < index) {
+      Chunk next = chunk.next.get();
+      if (next == null) {
+        if (!create) {
+          return null;
+        }
+        chunk.next.compareAndSet(null, new Chunk(chunk.index + 1));
+        next = chunk.next.get();
+      }
+      chunk = next;
+    }
+    if (create && tail.index < index) {
+      tail = chunk;
+    }
+    return chunk;
+  }
+
+  /** A fixed number of consecutive line slots */
+  private static final class Chunk {
+    private final long index;
+    private final AtomicReferenceArray<BufferLine> lines;
+    private final AtomicReference<Chunk> next;
+
+    private Chunk(long index) {
+      this.index = index;
+      this.lines = new AtomicReferenceArray<>(CHUNK_SIZE);
+      this.next = new AtomicReference<>();
+    }
+  }
+
+  /** The index of the lines of one log channel */
+  static final class ChannelLines {
+    private final String id;
+    private final String key;
+    private final AtomicInteger nrLines;
+    private final AtomicLong firstNr;
+    private final AtomicLong lastNr;
+    private volatile Boolean general;
+    private volatile Set<String> ancestors;
+
+    private ChannelLines(String id) {
+      this.id = id;
+      this.key = id == null ? NO_CHANNEL : id;
+      this.nrLines = new AtomicInteger(0);
+      this.firstNr = new AtomicLong(Long.MAX_VALUE);
+      this.lastNr = new AtomicLong(0);
+    }
+
+    private void add(long nr) {
+      include(nr);
+      nrLines.incrementAndGet();
+    }
+
+    /** Widen the range of line numbers to include the given one */
+    private void include(long nr) {
+      firstNr.accumulateAndGet(nr, Math::min);
+      lastNr.accumulateAndGet(nr, Math::max);
+    }
+
+    private void remove() {
+      nrLines.decrementAndGet();
+    }
+
+    private boolean isEmpty() {
+      return nrLines.get() <= 0;
+    }
+
+    private boolean isGeneral(LoggingRegistry loggingRegistry) {
+      Boolean isGeneral = general;
+      if (isGeneral == null) {
+        ILoggingObject loggingObject = id == null ? null : loggingRegistry.getLoggingObject(id);
+        if (loggingObject == null) {
+          // Maybe it's registered later on
+          //
+          return false;
+        }
+        isGeneral = LoggingObjectType.GENERAL.equals(loggingObject.getObjectType());
+        general = isGeneral;
+      }
+      return isGeneral;
+    }
+
+    /**
+     * See if this channel is the given one or a child of it, at any depth. The parents of a channel
+     * don't change so they are only looked up once.
+     */
+    private boolean descendsFrom(String parentLogChannelId, LoggingRegistry loggingRegistry) {
+      if (parentLogChannelId.equals(id)) {
+        return true;
+      }
+      Set<String> parents = ancestors;
+      if (parents == null) {
+        if (id == null || loggingRegistry.getLoggingObject(id) == null) {
+          return false;
+        }
+        parents = new HashSet<>();
+        ILoggingObject loggingObject = loggingRegistry.getLoggingObject(id);
+        while (loggingObject != null && loggingObject.getParent() != null) {
+          String parentId = loggingObject.getParent().getLogChannelId();
+          if (parentId == null || !parents.add(parentId)) {
+            break;
+          }
+          loggingObject = loggingRegistry.getLoggingObject(parentId);
+        }
+        ancestors = parents;
+      }
+      return parents.contains(parentLogChannelId);
+    }
   }
 }
@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.state;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An append-only file of key-value records. Every record is a header with the key length and the
+ * value length, followed by the key and the value. A value length of -1 marks a deleted key.
+ * Records are buffered before they're written, reads of buffered records write the buffer first.
+ */
+class StateLog implements AutoCloseable {
+
+  static final int HEADER_SIZE = 8;
+  static final int DELETED = -1;
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  /** Receives the records of the log while it's read */
+  interface IRecordHandler {
+    void record(long position, byte[] key, int valueLength);
+  }
+
+  private final Path path;
+  private final FileChannel channel;
+  private final ByteBuffer buffer;
+  private long writtenLength;
+  private long length;
+
+  StateLog(Path path) throws IOException {
+    this.path = path;
+    this.channel =
+        FileChannel.open(
+            path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    this.writtenLength = channel.size();
+    this.length = writtenLength;
+  }
+
+  /**
+   * Appends a record.
+   *
+   * @param key the key
+   * @param value the value or null to mark the key as deleted
+   * @return the position of the record
+   */
+  long append(byte[] key, byte[] value) throws IOException {
+    int valueLength = value == null ? DELETED : value.length;
+    int recordSize = recordSize(key.length, valueLength);
+    if (recordSize > buffer.remaining()) {
+      flush();
+    }
+    ByteBuffer target = recordSize > buffer.capacity() ? ByteBuffer.allocate(recordSize) : buffer;
+    target.putInt(key.length).putInt(valueLength).put(key);
+    if (value != null) {
+      target.put(value);
+    }
+    if (target != buffer) {
+      target.flip();
+      writeFully(target, writtenLength);
+      writtenLength += recordSize;
+    }
+
+    long position = length;
+    length += recordSize;
+    return position;
+  }
+
+  /** Reads bytes which were appended before. */
+  byte[] read(long position, int size) throws IOException {
+    if (position + size > writtenLength) {
+      flush();
+    }
+    ByteBuffer target = ByteBuffer.allocate(size);
+    while (target.hasRemaining()) {
+      if (channel.read(target, position + target.position()) < 0) {
+        throw new EOFException("Unexpected end of state log " + path);
+      }
+    }
+    return target.array();
+  }
+
+  /** Reads all records up to the given length, in the order they were appended. */
+  void readRecords(long upTo, IRecordHandler handler) throws IOException {
+    flush();
+    DataInputStream in =
+        new DataInputStream(
+            new BufferedInputStream(Channels.newInputStream(channel.position(0)), BUFFER_SIZE));
+    long position = 0;
+    while (position < upTo) {
+      int keyLength = in.readInt();
+      int valueLength = in.readInt();
+      byte[] key = new byte[keyLength];
+      in.readFully(key);
+      if (valueLength > 0) {
+        in.skipNBytes(valueLength);
+      }
+      handler.record(position, key, valueLength);
+      position += recordSize(keyLength, valueLength);
+    }
+  }
+
+  /** Writes the buffered records to the file. */
+  void flush() throws IOException {
+    if (buffer.position() == 0) {
+      return;
+    }
+    buffer.flip();
+    int size = buffer.remaining();
+    writeFully(buffer, writtenLength);
+    writtenLength += size;
+    buffer.clear();
+  }
+
+  /** Writes the buffered records and makes sure they're on disk. */
+  void sync() throws IOException {
+    flush();
+    channel.force(false);
+  }
+
+  /** Drops everything after the given length. */
+  void truncate(long newLength) throws IOException {
+    flush();
+    channel.truncate(newLength);
+    writtenLength = Math.min(writtenLength, newLength);
+    length = writtenLength;
+  }
+
+  long length() {
+    return length;
+  }
+
+  Path getPath() {
+    return path;
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  static int recordSize(int keyLength, int valueLength) {
+    return HEADER_SIZE + keyLength + Math.max(0, valueLength);
+  }
+
+  private void writeFully(ByteBuffer source, long position) throws IOException {
+    long offset = position;
+    while (source.hasRemaining()) {
+      offset += channel.write(source, offset);
+    }
+  }
+}
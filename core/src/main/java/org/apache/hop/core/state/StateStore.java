@@ -0,0 +1,413 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.state;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import org.apache.hop.core.exception.HopException;
+
+/**
+ * A key-value store on disk for transforms which keep state across batches or runs, for example the
+ * aggregates of a streaming pipeline. The values live in an append-only log, only the keys and the
+ * positions of their values are kept in memory together with a small cache of recent values.
+ *
+ * <p>Changes become durable with a {@link #checkpoint(Map)}. A checkpoint carries metadata, for
+ * example the Kafka offsets up to which the state is complete. When the store is opened again it
+ * returns to the last checkpoint, changes made after it are dropped. When more than half of the log
+ * is taken by overwritten or deleted values the live values are copied to a new log during a
+ * checkpoint.
+ *
+ * <p>A directory can only be used by one store at a time. A store is not thread-safe.
+ */
+public class StateStore implements AutoCloseable {
+
+  /** The number of values which are cached in memory by default */
+  public static final int DEFAULT_CACHE_SIZE = 10_000;
+
+  private static final String LOCK_FILE = "state.lock";
+  private static final String CHECKPOINT_FILE = "checkpoint";
+  private static final String CHECKPOINT_TEMP_FILE = "checkpoint.tmp";
+  private static final String LOG_PREFIX = "data-";
+  private static final String LOG_EXTENSION = ".log";
+  private static final String PROPERTY_GENERATION = "generation";
+  private static final String PROPERTY_LENGTH = "length";
+  private static final String METADATA_PREFIX = "metadata.";
+
+  /** Logs smaller than this are never compacted */
+  private static final long MIN_COMPACTION_LENGTH = 4L * 1024 * 1024;
+
+  private record Location(long position, int valueLength) {}
+
+  private final Path directory;
+  private final FileChannel lockChannel;
+  private final FileLock lock;
+  private final Map<ByteBuffer, Location> index;
+  private final Map<ByteBuffer, byte[]> cache;
+
+  private StateLog log;
+  private long generation;
+  private long liveBytes;
+  private Map<String, String> checkpointMetadata;
+  private boolean open;
+
+  /**
+   * Open the store in a directory, it's created when it doesn't exist.
+   *
+   * @param directory the directory of the store
+   * @throws HopException when the directory is used by another store or can't be read
+   */
+  public StateStore(Path directory) throws HopException {
+    this(directory, DEFAULT_CACHE_SIZE);
+  }
+
+  /**
+   * Open the store in a directory, it's created when it doesn't exist.
+   *
+   * @param directory the directory of the store
+   * @param cacheSize the number of values to cache in memory
+   * @throws HopException when the directory is used by another store or can't be read
+   */
+  public StateStore(Path directory, int cacheSize) throws HopException {
+    this.directory = directory;
+    this.index = new HashMap<>();
+    this.cache =
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<ByteBuffer, byte[]> eldest) {
+            return size() > cacheSize;
+          }
+        };
+
+    try {
+      Files.createDirectories(directory);
+      lockChannel =
+          FileChannel.open(
+              directory.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    } catch (IOException e) {
+      throw new HopException("Unable to open state store in " + directory, e);
+    }
+    try {
+      lock = lockChannel.tryLock();
+    } catch (OverlappingFileLockException e) {
+      closeQuietly(lockChannel);
+      throw new HopException(
+          "State store in " + directory + " is used by another transform in this process", e);
+    } catch (IOException e) {
+      closeQuietly(lockChannel);
+      throw new HopException("Unable to lock state store in " + directory, e);
+    }
+    if (lock == null) {
+      closeQuietly(lockChannel);
+      throw new HopException("State store in " + directory + " is used by another process");
+    }
+
+    try {
+      recover();
+      open = true;
+    } catch (IOException e) {
+      closeQuietly(log);
+      closeQuietly(lockChannel);
+      throw new HopException("Unable to recover state store in " + directory, e);
+    }
+  }
+
+  /**
+   * Get a value. The returned array is shared with the cache and must not be modified.
+   *
+   * @param key the key
+   * @return the value or null if the key has no value
+   */
+  public byte[] get(byte[] key) throws HopException {
+    checkOpen();
+    ByteBuffer wrappedKey = ByteBuffer.wrap(key);
+    byte[] value = cache.get(wrappedKey);
+    if (value != null) {
+      return value;
+    }
+    Location location = index.get(wrappedKey);
+    if (location == null) {
+      return null;
+    }
+    try {
+      value =
+          log.read(location.position() + StateLog.HEADER_SIZE + key.length, location.valueLength());
+    } catch (IOException e) {
+      throw new HopException("Unable to read from state store in " + directory, e);
+    }
+    cache.put(ByteBuffer.wrap(key.clone()), value);
+    return value;
+  }
+
+  /**
+   * Set the value of a key.
+   *
+   * @param key the key
+   * @param value the value
+   */
+  public void put(byte[] key, byte[] value) throws HopException {
+    checkOpen();
+    ByteBuffer storedKey = ByteBuffer.wrap(key.clone());
+    long position = append(key, value);
+    forget(index.put(storedKey, new Location(position, value.length)), key.length);
+    liveBytes += StateLog.recordSize(key.length, value.length);
+    cache.put(storedKey, value.clone());
+  }
+
+  /**
+   * Remove the value of a key.
+   *
+   * @param key the key
+   */
+  public void delete(byte[] key) throws HopException {
+    checkOpen();
+    ByteBuffer wrappedKey = ByteBuffer.wrap(key);
+    Location location = index.remove(wrappedKey);
+    if (location != null) {
+      append(key, null);
+      forget(location, key.length);
+      cache.remove(wrappedKey);
+    }
+  }
+
+  /**
+   * Gets the number of keys with a value
+   *
+   * @return the number of keys
+   */
+  public int size() {
+    return index.size();
+  }
+
+  /**
+   * Make all changes durable together with the given metadata. The metadata of the last checkpoint
+   * is returned by {@link #getCheckpointMetadata()}, also after the store is opened again.
+   *
+   * @param metadata the metadata of the checkpoint
+   */
+  public void checkpoint(Map<String, String> metadata) throws HopException {
+    checkOpen();
+    try {
+      log.sync();
+      StateLog previousLog = null;
+      if (log.length() >= MIN_COMPACTION_LENGTH && log.length() - liveBytes > liveBytes) {
+        previousLog = compact();
+      }
+      writeCheckpoint(metadata);
+      if (previousLog != null) {
+        previousLog.close();
+        Files.deleteIfExists(previousLog.getPath());
+      }
+    } catch (IOException e) {
+      throw new HopException("Unable to checkpoint state store in " + directory, e);
+    }
+    checkpointMetadata = Collections.unmodifiableMap(new TreeMap<>(metadata));
+  }
+
+  /**
+   * Gets the metadata of the last checkpoint
+   *
+   * @return the metadata, empty when there was no checkpoint yet
+   */
+  public Map<String, String> getCheckpointMetadata() {
+    return checkpointMetadata;
+  }
+
+  /**
+   * Gets directory
+   *
+   * @return the directory of the store
+   */
+  public Path getDirectory() {
+    return directory;
+  }
+
+  /** Close the store, changes after the last checkpoint are dropped when it's opened again. */
+  @Override
+  public void close() throws HopException {
+    if (!open) {
+      return;
+    }
+    open = false;
+    index.clear();
+    cache.clear();
+    try {
+      log.close();
+      lock.release();
+      lockChannel.close();
+    } catch (IOException e) {
+      throw new HopException("Unable to close state store in " + directory, e);
+    }
+  }
+
+  private void recover() throws IOException {
+    Properties checkpoint = new Properties();
+    Path checkpointPath = directory.resolve(CHECKPOINT_FILE);
+    if (Files.exists(checkpointPath)) {
+      try (InputStream in = Files.newInputStream(checkpointPath)) {
+        checkpoint.load(in);
+      }
+    }
+    generation = Long.parseLong(checkpoint.getProperty(PROPERTY_GENERATION, "0"));
+    long length = Long.parseLong(checkpoint.getProperty(PROPERTY_LENGTH, "0"));
+    Map<String, String> metadata = new TreeMap<>();
+    for (String name : checkpoint.stringPropertyNames()) {
+      if (name.startsWith(METADATA_PREFIX)) {
+        metadata.put(name.substring(METADATA_PREFIX.length()), checkpoint.getProperty(name));
+      }
+    }
+    checkpointMetadata = Collections.unmodifiableMap(metadata);
+
+    // Logs of other generations are left behind by an interrupted compaction or checkpoint
+    //
+    Path logPath = logPath(generation);
+    try (DirectoryStream<Path> logs =
+        Files.newDirectoryStream(directory, LOG_PREFIX + "*" + LOG_EXTENSION)) {
+      for (Path path : logs) {
+        if (!path.getFileName().equals(logPath.getFileName())) {
+          Files.delete(path);
+        }
+      }
+    }
+
+    log = new StateLog(logPath);
+    if (log.length() < length) {
+      throw new IOException(
+          "State log " + logPath + " is shorter than its last checkpoint, it can't be recovered");
+    }
+    log.truncate(length);
+    log.readRecords(
+        length,
+        (position, key, valueLength) -> {
+          ByteBuffer wrappedKey = ByteBuffer.wrap(key);
+          Location previous;
+          if (valueLength == StateLog.DELETED) {
+            previous = index.remove(wrappedKey);
+          } else {
+            previous = index.put(wrappedKey, new Location(position, valueLength));
+            liveBytes += StateLog.recordSize(key.length, valueLength);
+          }
+          forget(previous, key.length);
+        });
+  }
+
+  /** Copy the live values to the log of the next generation, returns the previous log. */
+  private StateLog compact() throws IOException {
+    StateLog compacted = new StateLog(logPath(generation + 1));
+    Map<ByteBuffer, Location> compactedIndex = new HashMap<>();
+    try {
+      compacted.truncate(0);
+      for (Map.Entry<ByteBuffer, Location> entry : index.entrySet()) {
+        byte[] key = entry.getKey().array();
+        Location location = entry.getValue();
+        byte[] value =
+            log.read(
+                location.position() + StateLog.HEADER_SIZE + key.length, location.valueLength());
+        compactedIndex.put(
+            entry.getKey(), new Location(compacted.append(key, value), value.length));
+      }
+      compacted.sync();
+    } catch (IOException e) {
+      // Keep the current log, the next store which opens the directory removes the new one
+      //
+      compacted.close();
+      throw e;
+    }
+    index.putAll(compactedIndex);
+    liveBytes = compacted.length();
+    StateLog previousLog = log;
+    log = compacted;
+    generation++;
+    return previousLog;
+  }
+
+  private void writeCheckpoint(Map<String, String> metadata) throws IOException {
+    Properties checkpoint = new Properties();
+    checkpoint.setProperty(PROPERTY_GENERATION, Long.toString(generation));
+    checkpoint.setProperty(PROPERTY_LENGTH, Long.toString(log.length()));
+    metadata.forEach((name, value) -> checkpoint.setProperty(METADATA_PREFIX + name, value));
+
+    // Write a new file and move it in place so there's always a complete checkpoint
+    //
+    Path tempPath = directory.resolve(CHECKPOINT_TEMP_FILE);
+    try (FileOutputStream out = new FileOutputStream(tempPath.toFile());
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+      checkpoint.store(writer, null);
+      writer.flush();
+      out.getFD().sync();
+    }
+    Files.move(
+        tempPath,
+        directory.resolve(CHECKPOINT_FILE),
+        StandardCopyOption.ATOMIC_MOVE,
+        StandardCopyOption.REPLACE_EXISTING);
+  }
+
+  private long append(byte[] key, byte[] value) throws HopException {
+    try {
+      return log.append(key, value);
+    } catch (IOException e) {
+      throw new HopException("Unable to write to state store in " + directory, e);
+    }
+  }
+
+  private void forget(Location previous, int keyLength) {
+    if (previous != null) {
+      liveBytes -= StateLog.recordSize(keyLength, previous.valueLength());
+    }
+  }
+
+  private Path logPath(long logGeneration) {
+    return directory.resolve(LOG_PREFIX + logGeneration + LOG_EXTENSION);
+  }
+
+  private void checkOpen() throws HopException {
+    if (!open) {
+      throw new HopException("State store in " + directory + " is closed");
+    }
+  }
+
+  private static void closeQuietly(AutoCloseable closeable) {
+    if (closeable == null) {
+      return;
+    }
+    try {
+      closeable.close();
+    } catch (Exception e) {
+      // Already failing
+    }
+  }
+}
@@ -21,6 +21,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -217,4 +218,165 @@ class LoggingBufferTest {
     loggingBuffer.removeChannelFromBuffer(logChannelId);
     assertEquals(10, loggingBuffer.size());
   }
+
+  /** The lines of a pipeline include the ones of its transforms, but not those of others. */
+  @Test
+  void linesOfAParentIncludeTheLinesOfItsChildren() {
+    LoggingRegistry registry = LoggingRegistry.getInstance();
+    SimpleLoggingObject pipeline =
+        new SimpleLoggingObject("pipeline", LoggingObjectType.PIPELINE, null);
+    String pipelineId = registry.registerLoggingSource(pipeline, true);
+    pipeline.setLogChannelId(pipelineId);
+    SimpleLoggingObject transform =
+        new SimpleLoggingObject("transform", LoggingObjectType.TRANSFORM, pipeline);
+    String transformId = registry.registerLoggingSource(transform, true);
+    SimpleLoggingObject other = new SimpleLoggingObject("other", LoggingObjectType.PIPELINE, null);
+    String otherId = registry.registerLoggingSource(other, true);
+
+    LoggingBuffer loggingBuffer = new LoggingBuffer(0);
+    loggingBuffer.addLogggingEvent(event("pipeline 1", pipelineId));
+    loggingBuffer.addLogggingEvent(event("other 1", otherId));
+    loggingBuffer.addLogggingEvent(event("transform 1", transformId));
+    loggingBuffer.addLogggingEvent(event("pipeline 2", pipelineId));
+
+    assertEquals(
+        List.of("pipeline 1", "transform 1", "pipeline 2"),
+        messages(
+            loggingBuffer.getLogBufferFromTo(
+                pipelineId, false, 0, loggingBuffer.getLastBufferLineNr())));
+    assertEquals(
+        List.of("transform 1", "pipeline 2"),
+        messages(loggingBuffer.getLogBufferFromTo(pipelineId, false, 1, 4)));
+    assertEquals(
+        List.of("other 1"),
+        messages(loggingBuffer.getLogBufferFromTo(List.of(otherId), false, 0, 4)));
+
+    registry.removeIncludingChildren(pipelineId);
+    registry.removeIncludingChildren(otherId);
+  }
+
+  /**
+   * A reader asking for the lines after the last one it saw never misses a line, even when lines
+   * are added by many threads at the same time.
+   */
+  @Test
+  void readerNeverMissesLinesAddedConcurrently() throws Exception {
+    int nrThreads = 4;
+    int nrLinesPerThread = 5000;
+    LoggingBuffer loggingBuffer = new LoggingBuffer(0);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < nrThreads; t++) {
+      String channelId = "channel-" + t;
+      Thread thread =
+          new Thread(
+              () -> {
+                try {
+                  start.await();
+                } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+                }
+                for (int i = 0; i < nrLinesPerThread; i++) {
+                  loggingBuffer.addLogggingEvent(event("line " + i, channelId));
+                }
+              });
+      thread.start();
+      threads.add(thread);
+    }
+
+    start.countDown();
+    int lastNr = 0;
+    int nrRead = 0;
+    while (nrRead < nrThreads * nrLinesPerThread) {
+      int to = loggingBuffer.getLastBufferLineNr();
+      List<HopLoggingEvent> events =
+          loggingBuffer.getLogBufferFromTo((List<String>) null, true, lastNr, to);
+      assertEquals(to - lastNr, events.size(), "Every published line is there");
+      nrRead += events.size();
+      lastNr = to;
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    assertEquals(nrThreads * nrLinesPerThread, loggingBuffer.size());
+    assertEquals(
+        nrLinesPerThread,
+        loggingBuffer.getLogBufferFromTo(List.of("channel-2"), false, 0, lastNr).size());
+  }
+
+  /** Dropping the oldest lines works across the chunks the lines are stored in. */
+  @Test
+  void maxNrLinesIsKeptOverManyLines() {
+    LoggingBuffer loggingBuffer = new LoggingBuffer(1500);
+    for (int i = 0; i < 5000; i++) {
+      loggingBuffer.addLogggingEvent(event("line " + i, i));
+    }
+
+    assertEquals(1500, loggingBuffer.size());
+    List<String> kept = messagesOf(loggingBuffer);
+    assertEquals(1500, kept.size());
+    assertEquals("line 3500", kept.get(0));
+    assertEquals("line 4999", kept.get(kept.size() - 1));
+
+    loggingBuffer.clear();
+    assertEquals(0, loggingBuffer.size());
+    assertEquals(0, loggingBuffer.getLastBufferLineNr());
+    loggingBuffer.addLogggingEvent(event("after clear", 0));
+    assertEquals(List.of("after clear"), messagesOf(loggingBuffer));
+  }
+
+  /** The line numbers keep counting up past the range of an int, reading incrementally. */
+  @Test
+  void lineNumbersGoPastTheRangeOfAnInt() {
+    readIncrementallyFrom(Integer.MAX_VALUE - 100L);
+    readIncrementallyFrom(0xFFFFFFFFL - 100L);
+  }
+
+  private static void readIncrementallyFrom(long firstLineNr) {
+    LoggingBuffer loggingBuffer = new LoggingBuffer(50, firstLineNr);
+    int lastNr = 0;
+    for (int i = 0; i < 3000; i++) {
+      loggingBuffer.addLogggingEvent(event("line " + i, "a-log-channel"));
+      if (i % 7 == 0) {
+        List<HopLoggingEvent> events =
+            loggingBuffer.getLogBufferFromTo(
+                (List<String>) null, true, lastNr, loggingBuffer.getLastBufferLineNr());
+        assertEquals(i == 0 ? 1 : 7, events.size(), "The new lines after line " + lastNr);
+        assertEquals("line " + i, messages(events).get(events.size() - 1));
+        lastNr = loggingBuffer.getLastBufferLineNr();
+      }
+      assertTrue(loggingBuffer.size() <= 50);
+    }
+    assertEquals((int) (firstLineNr + 2999), loggingBuffer.getLastBufferLineNr());
+    assertEquals(
+        50,
+        loggingBuffer
+            .getLogBufferFromTo("a-log-channel", false, 0, loggingBuffer.getLastBufferLineNr())
+            .size());
+  }
+
+  /** The channels of the lines which were dropped are no longer kept in the index. */
+  @Test
+  void channelsOfDroppedLinesAreForgotten() {
+    LoggingBuffer loggingBuffer = new LoggingBuffer(10);
+    for (int i = 0; i < 1000; i++) {
+      loggingBuffer.addLogggingEvent(event("line " + i, "channel-" + i));
+    }
+    assertEquals(10, loggingBuffer.size());
+    assertEquals(10, loggingBuffer.getNrChannels());
+  }
+
+  private static HopLoggingEvent event(String message, String logChannelId) {
+    return new HopLoggingEvent(
+        new LogMessage(message, logChannelId, LogLevel.BASIC),
+        System.currentTimeMillis(),
+        LogLevel.BASIC);
+  }
+
+  private static List<String> messages(List<HopLoggingEvent> events) {
+    return events.stream()
+        .map(event -> ((LogMessage) event.getMessage()).getMessage())
+        .collect(Collectors.toList());
+  }
 }
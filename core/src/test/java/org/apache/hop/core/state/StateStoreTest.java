@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.state;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.apache.hop.core.exception.HopException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class StateStoreTest {
+
+  @TempDir Path directory;
+
+  private static byte[] bytes(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Test
+  void testPutGetDelete() throws Exception {
+    try (StateStore store = new StateStore(directory)) {
+      assertNull(store.get(bytes("a")));
+
+      store.put(bytes("a"), bytes("1"));
+      store.put(bytes("b"), bytes("2"));
+      store.put(bytes("a"), bytes("3"));
+      assertArrayEquals(bytes("3"), store.get(bytes("a")));
+      assertArrayEquals(bytes("2"), store.get(bytes("b")));
+      assertEquals(2, store.size());
+
+      store.delete(bytes("b"));
+      store.delete(bytes("c"));
+      assertNull(store.get(bytes("b")));
+      assertEquals(1, store.size());
+    }
+  }
+
+  @Test
+  void testReadFromLogWithoutCache() throws Exception {
+    try (StateStore store = new StateStore(directory, 1)) {
+      byte[] large = new byte[100_000];
+      Arrays.fill(large, (byte) 7);
+      store.put(bytes("large"), large);
+      for (int i = 0; i < 10; i++) {
+        store.put(bytes("key" + i), bytes("value" + i));
+      }
+      assertArrayEquals(large, store.get(bytes("large")));
+      for (int i = 0; i < 10; i++) {
+        assertArrayEquals(bytes("value" + i), store.get(bytes("key" + i)));
+      }
+    }
+  }
+
+  @Test
+  void testRecoverLastCheckpoint() throws Exception {
+    try (StateStore store = new StateStore(directory)) {
+      assertTrue(store.getCheckpointMetadata().isEmpty());
+      store.put(bytes("a"), bytes("1"));
+      store.put(bytes("b"), bytes("2"));
+      store.delete(bytes("b"));
+      store.checkpoint(Map.of("offset", "10"));
+
+      store.put(bytes("a"), bytes("lost"));
+      store.put(bytes("c"), bytes("lost"));
+    }
+
+    try (StateStore store = new StateStore(directory)) {
+      assertEquals(Map.of("offset", "10"), store.getCheckpointMetadata());
+      assertEquals(1, store.size());
+      assertArrayEquals(bytes("1"), store.get(bytes("a")));
+      assertNull(store.get(bytes("b")));
+      assertNull(store.get(bytes("c")));
+
+      // Writing continues after the last checkpoint
+      //
+      store.put(bytes("c"), bytes("3"));
+      store.checkpoint(Map.of("offset", "20"));
+    }
+
+    try (StateStore store = new StateStore(directory)) {
+      assertEquals(Map.of("offset", "20"), store.getCheckpointMetadata());
+      assertArrayEquals(bytes("1"), store.get(bytes("a")));
+      assertArrayEquals(bytes("3"), store.get(bytes("c")));
+    }
+  }
+
+  @Test
+  void testCompaction() throws Exception {
+    byte[] value = new byte[1000];
+    try (StateStore store = new StateStore(directory)) {
+      for (int round = 0; round < 50; round++) {
+        for (int i = 0; i < 100; i++) {
+          value[0] = (byte) round;
+          store.put(bytes("key" + i), value);
+        }
+      }
+      store.checkpoint(Map.of());
+    }
+
+    try (Stream<Path> files = Files.list(directory)) {
+      Path[] logs =
+          files.filter(path -> path.getFileName().toString().endsWith(".log")).toArray(Path[]::new);
+      assertEquals(1, logs.length);
+      assertEquals("data-1.log", logs[0].getFileName().toString());
+      assertTrue(Files.size(logs[0]) < 200_000);
+    }
+
+    try (StateStore store = new StateStore(directory)) {
+      assertEquals(100, store.size());
+      for (int i = 0; i < 100; i++) {
+        assertEquals(49, store.get(bytes("key" + i))[0]);
+      }
+    }
+  }
+
+  @Test
+  void testDirectoryIsLocked() throws Exception {
+    try (StateStore store = new StateStore(directory)) {
+      assertThrows(HopException.class, () -> new StateStore(directory));
+    }
+    new StateStore(directory).close();
+  }
+
+  @Test
+  void testClosedStore() throws Exception {
+    StateStore store = new StateStore(directory);
+    store.close();
+    assertThrows(HopException.class, () -> store.get(bytes("a")));
+  }
+}
@@ -0,0 +1,314 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.hop.base;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.vfs2.FileContent;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.NotePadMeta;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.extension.ExtensionPointHandler;
+import org.apache.hop.core.extension.HopExtensionPoint;
+import org.apache.hop.core.logging.ILogChannel;
+import org.apache.hop.core.logging.LogChannel;
+import org.apache.hop.core.parameters.NamedParameters;
+import org.apache.hop.core.util.EnvUtil;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.core.vfs.HopVfs;
+import org.apache.hop.metadata.api.IHopMetadataProvider;
+import org.apache.hop.metadata.util.HopMetadataCopyUtil;
+import org.apache.hop.pipeline.PipelineHopMeta;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.PipelineMetaInfo;
+import org.apache.hop.pipeline.transform.TransformErrorMeta;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transform.copy.CopyContext;
+import org.apache.hop.pipeline.transform.copy.DefaultTransformMetaCopyFactory;
+import org.apache.hop.workflow.WorkflowHopMeta;
+import org.apache.hop.workflow.WorkflowMeta;
+import org.apache.hop.workflow.WorkflowMetaInfo;
+import org.apache.hop.workflow.action.ActionMeta;
+import org.apache.hop.workflow.action.copy.DefaultActionCopyFactory;
+
+/**
+ * A JVM wide cache of parsed pipeline and workflow files.
+ *
+ * <p>Transforms and actions like the mapping, the pipeline and workflow executors or the pipeline
+ * and workflow actions load the same file over and over again, sometimes once for every row they
+ * process. Parsing the XML and instantiating all the transform plugins is expensive so the parsed
+ * metadata is kept here, keyed by filename and metadata provider. An entry is only used for as long
+ * as the modification time and the size of the file are unchanged. Files without a known
+ * modification time are never cached.
+ *
+ * <p>The cached objects are never handed out. Every caller receives its own copy, built with the
+ * transform and action copy factories, since running pipelines and workflows keep state in their
+ * metadata. The {@code PipelineMetaLoaded} and {@code WorkflowMetaLoaded} extension points are
+ * called for every copy, just like when the file would be parsed.
+ *
+ * <p>The number of files kept in memory is limited by variable {@link
+ * Const#HOP_METADATA_FILE_CACHE_SIZE}. Setting it to 0 disables the cache.
+ */
+public final class MetaFileCache {
+
+  private static final ILogChannel log = new LogChannel("MetaFileCache");
+
+  private static final int DEFAULT_CACHE_SIZE = 100;
+
+  private static final Map<CacheKey, CacheEntry> cache = new LinkedHashMap<>(16, 0.75f, true);
+
+  private MetaFileCache() {
+    // Utility class
+  }
+
+  /**
+   * Load a pipeline from a file or take a copy of the already parsed version of that file.
+   *
+   * @param filename The resolved name of the pipeline file
+   * @param metadataProvider The metadata provider to reference external metadata with
+   * @param variables The variables passed to the {@code PipelineMetaLoaded} extension point
+   * @return A new pipeline metadata object, owned by the caller
+   * @throws HopException In case the file couldn't be read or parsed
+   */
+  public static PipelineMeta loadPipelineMeta(
+      String filename, IHopMetadataProvider metadataProvider, IVariables variables)
+      throws HopException {
+    FileVersion version = getFileVersion(filename);
+    if (version == null) {
+      return new PipelineMeta(filename, metadataProvider, variables);
+    }
+
+    CacheKey key = new CacheKey(PipelineMeta.class, filename, metadataProvider);
+    AbstractMeta cached = lookup(key, version);
+    if (cached != null) {
+      PipelineMeta pipelineMeta = copyPipelineMeta((PipelineMeta) cached);
+      ExtensionPointHandler.callExtensionPoint(
+          log, variables, HopExtensionPoint.PipelineMetaLoaded.id, pipelineMeta);
+      return pipelineMeta;
+    }
+
+    // Parse the file outside the lock, the caller gets this version.
+    //
+    PipelineMeta pipelineMeta = new PipelineMeta(filename, metadataProvider, variables);
+    store(key, version, copyPipelineMeta(pipelineMeta));
+    return pipelineMeta;
+  }
+
+  /**
+   * Load a workflow from a file or take a copy of the already parsed version of that file.
+   *
+   * @param filename The resolved name of the workflow file
+   * @param metadataProvider The metadata provider to reference external metadata with
+   * @param variables The variables passed to the {@code WorkflowMetaLoaded} extension point
+   * @return A new workflow metadata object, owned by the caller
+   * @throws HopException In case the file couldn't be read or parsed
+   */
+  public static WorkflowMeta loadWorkflowMeta(
+      String filename, IHopMetadataProvider metadataProvider, IVariables variables)
+      throws HopException {
+    FileVersion version = getFileVersion(filename);
+    if (version == null) {
+      return new WorkflowMeta(variables, filename, metadataProvider);
+    }
+
+    CacheKey key = new CacheKey(WorkflowMeta.class, filename, metadataProvider);
+    AbstractMeta cached = lookup(key, version);
+    if (cached != null) {
+      WorkflowMeta workflowMeta = copyWorkflowMeta((WorkflowMeta) cached);
+      ExtensionPointHandler.callExtensionPoint(
+          log, variables, HopExtensionPoint.WorkflowMetaLoaded.id, workflowMeta);
+      return workflowMeta;
+    }
+
+    WorkflowMeta workflowMeta = new WorkflowMeta(variables, filename, metadataProvider);
+    store(key, version, copyWorkflowMeta(workflowMeta));
+    return workflowMeta;
+  }
+
+  /**
+   * Create an independent copy of a pipeline. The transforms are copied with the default transform
+   * copy factory and the hops and error handling are pointed to the copied transforms.
+   *
+   * @param source The pipeline to copy
+   * @return The copy
+   */
+  public static PipelineMeta copyPipelineMeta(PipelineMeta source) {
+    PipelineMeta copy = new PipelineMeta();
+    copy.setMetadataProvider(source.getMetadataProvider());
+    copy.setFilename(source.getFilename());
+    copy.setInfo((PipelineMetaInfo) HopMetadataCopyUtil.copyValue(source.getInfo()));
+    copyCommonProperties(source, copy);
+
+    Map<TransformMeta, TransformMeta> transformCopies = new IdentityHashMap<>();
+    for (TransformMeta transformMeta : source.getTransforms()) {
+      TransformMeta transformCopy =
+          DefaultTransformMetaCopyFactory.getInstance().copy(transformMeta, CopyContext.DEFAULT);
+      transformCopies.put(transformMeta, transformCopy);
+      copy.getTransforms().add(transformCopy);
+    }
+    for (TransformMeta transformCopy : copy.getTransforms()) {
+      TransformErrorMeta errorMeta = transformCopy.getTransformErrorMeta();
+      if (errorMeta != null) {
+        errorMeta.setSourceTransform(transformCopies.get(errorMeta.getSourceTransform()));
+        errorMeta.setTargetTransform(transformCopies.get(errorMeta.getTargetTransform()));
+      }
+    }
+    for (PipelineHopMeta hop : source.getHops()) {
+      PipelineHopMeta hopCopy = new PipelineHopMeta(hop);
+      hopCopy.setFromTransform(transformCopies.get(hop.getFromTransform()));
+      hopCopy.setToTransform(transformCopies.get(hop.getToTransform()));
+      copy.getHops().add(hopCopy);
+    }
+
+    copy.lookupReferencesAfterLoading();
+    copy.clearChanged();
+    return copy;
+  }
+
+  /**
+   * Create an independent copy of a workflow. The actions are copied with the default action copy
+   * factory and the hops are pointed to the copied actions.
+   *
+   * @param source The workflow to copy
+   * @return The copy
+   */
+  public static WorkflowMeta copyWorkflowMeta(WorkflowMeta source) {
+    WorkflowMeta copy = new WorkflowMeta();
+    copy.setMetadataProvider(source.getMetadataProvider());
+    copy.setFilename(source.getFilename());
+    copy.setInfo((WorkflowMetaInfo) HopMetadataCopyUtil.copyValue(source.getInfo()));
+    copy.setWorkflowVersion(source.getWorkflowVersion());
+    copy.setNamedParameters(
+        (NamedParameters) HopMetadataCopyUtil.copyValue(source.getNamedParameters()));
+    copyCommonProperties(source, copy);
+
+    Map<ActionMeta, ActionMeta> actionCopies = new IdentityHashMap<>();
+    for (ActionMeta actionMeta : source.getWorkflowActions()) {
+      ActionMeta actionCopy =
+          DefaultActionCopyFactory.getInstance().copy(actionMeta, CopyContext.DEFAULT);
+      actionCopies.put(actionMeta, actionCopy);
+      copy.getWorkflowActions().add(actionCopy);
+    }
+    for (WorkflowHopMeta hop : source.getWorkflowHops()) {
+      WorkflowHopMeta hopCopy = new WorkflowHopMeta(hop);
+      hopCopy.setFromAction(actionCopies.get(hop.getFromAction()));
+      hopCopy.setToAction(actionCopies.get(hop.getToAction()));
+      copy.getWorkflowHops().add(hopCopy);
+    }
+
+    copy.lookupReferencesAfterLoading();
+    copy.clearChanged();
+    return copy;
+  }
+
+  /** Remove all parsed files from the cache. */
+  public static void clear() {
+    synchronized (cache) {
+      cache.clear();
+    }
+  }
+
+  /**
+   * @return The number of parsed files currently in the cache
+   */
+  public static int size() {
+    synchronized (cache) {
+      return cache.size();
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static void copyCommonProperties(AbstractMeta source, AbstractMeta copy) {
+    copy.notes = (List<NotePadMeta>) HopMetadataCopyUtil.copyValue(source.notes);
+    if (copy.notes == null) {
+      copy.notes = new ArrayList<>();
+    }
+    copy.attributesMap =
+        (Map<String, Map<String, String>>) HopMetadataCopyUtil.copyValue(source.attributesMap);
+  }
+
+  private static AbstractMeta lookup(CacheKey key, FileVersion version) {
+    synchronized (cache) {
+      CacheEntry entry = cache.get(key);
+      if (entry == null) {
+        return null;
+      }
+      if (!entry.version().equals(version)) {
+        cache.remove(key);
+        return null;
+      }
+      return entry.meta();
+    }
+  }
+
+  private static void store(CacheKey key, FileVersion version, AbstractMeta meta) {
+    int maxSize = getMaxSize();
+    synchronized (cache) {
+      cache.put(key, new CacheEntry(version, meta));
+      while (cache.size() > maxSize) {
+        CacheKey eldest = cache.keySet().iterator().next();
+        cache.remove(eldest);
+      }
+    }
+  }
+
+  private static int getMaxSize() {
+    return Const.toInt(
+        EnvUtil.getSystemProperty(Const.HOP_METADATA_FILE_CACHE_SIZE), DEFAULT_CACHE_SIZE);
+  }
+
+  /**
+   * Get the modification time and size of a file.
+   *
+   * @return The version of the file or null if the file can't be cached.
+   */
+  private static FileVersion getFileVersion(String filename) {
+    if (getMaxSize() <= 0 || filename == null) {
+      return null;
+    }
+    try {
+      FileObject fileObject = HopVfs.getFileObject(filename);
+      if (!fileObject.exists()) {
+        // Let the regular loading code report the problem
+        return null;
+      }
+      FileContent content = fileObject.getContent();
+      long lastModified = content.getLastModifiedTime();
+      if (lastModified <= 0) {
+        return null;
+      }
+      return new FileVersion(lastModified, content.getSize());
+    } catch (Exception e) {
+      if (log.isDebug()) {
+        log.logDebug("Unable to determine the version of file " + filename, e);
+      }
+      return null;
+    }
+  }
+
+  private record CacheKey(Class<?> type, String filename, IHopMetadataProvider metadataProvider) {}
+
+  private record FileVersion(long lastModified, long size) {}
+
+  private record CacheEntry(FileVersion version, AbstractMeta meta) {}
+}
@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.compress;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Future;
+import org.apache.hop.core.util.ExecutorUtil;
+
+/**
+ * Reads another stream on a background thread, ahead of the reads of this stream. This is used to
+ * decompress a file while the rows of the part decompressed so far are parsed.
+ *
+ * <p>The background thread fills a small pool of buffers. A buffer which is read completely goes
+ * back to the background thread to be filled again, so no new buffers are allocated while reading.
+ */
+public class ReadAheadInputStream extends InputStream {
+
+  /** The default size of a buffer: 256kB */
+  public static final int DEFAULT_BUFFER_SIZE = 256 * 1024;
+
+  /** The default number of buffers */
+  public static final int DEFAULT_NR_BUFFERS = 4;
+
+  /** A buffer filled by the background thread */
+  private record Chunk(byte[] buffer, int length, IOException exception) {
+    boolean isEnd() {
+      return buffer == null;
+    }
+  }
+
+  private static final Chunk END = new Chunk(null, 0, null);
+
+  private final InputStream in;
+  private final BlockingQueue<byte[]> freeBuffers;
+  private final BlockingQueue<Chunk> filledChunks;
+  private final Future<?> filler;
+
+  private Chunk chunk;
+  private int position;
+  private boolean done;
+  private volatile boolean closed;
+
+  public ReadAheadInputStream(InputStream in) {
+    this(in, DEFAULT_BUFFER_SIZE, DEFAULT_NR_BUFFERS);
+  }
+
+  /**
+   * @param in the stream to read ahead of
+   * @param bufferSize the size of a buffer
+   * @param nrBuffers the number of buffers, at least 2
+   */
+  public ReadAheadInputStream(InputStream in, int bufferSize, int nrBuffers) {
+    this.in = in;
+    int buffers = Math.max(2, nrBuffers);
+    this.freeBuffers = new ArrayBlockingQueue<>(buffers);
+    this.filledChunks = new ArrayBlockingQueue<>(buffers + 1);
+    for (int i = 0; i < buffers; i++) {
+      freeBuffers.add(new byte[Math.max(1, bufferSize)]);
+    }
+    this.filler = ExecutorUtil.getExecutor().submit(this::fill);
+  }
+
+  /** Runs on the background thread: fill the free buffers until the end of the stream. */
+  private void fill() {
+    try {
+      while (!closed) {
+        byte[] buffer = freeBuffers.take();
+        int length = 0;
+        int n = 0;
+        while (length < buffer.length
+            && (n = in.read(buffer, length, buffer.length - length)) >= 0) {
+          length += n;
+        }
+        if (length > 0) {
+          filledChunks.put(new Chunk(buffer, length, null));
+        }
+        if (n < 0) {
+          filledChunks.put(END);
+          return;
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (IOException e) {
+      if (!closed) {
+        filledChunks.offer(new Chunk(null, 0, e));
+      }
+    } catch (RuntimeException e) {
+      if (!closed) {
+        filledChunks.offer(new Chunk(null, 0, new IOException(e)));
+      }
+    }
+  }
+
+  /**
+   * Make sure there are bytes left to read in the current chunk.
+   *
+   * @return false at the end of the stream
+   */
+  private boolean nextChunk() throws IOException {
+    if (closed) {
+      throw new IOException("Stream closed");
+    }
+    if (done) {
+      return false;
+    }
+    if (chunk != null && position < chunk.length) {
+      return true;
+    }
+    if (chunk != null) {
+      freeBuffers.add(chunk.buffer);
+      chunk = null;
+    }
+    Chunk next;
+    try {
+      next = filledChunks.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for data to read");
+    }
+    if (next.exception != null) {
+      done = true;
+      throw next.exception;
+    }
+    if (next.isEnd()) {
+      done = true;
+      return false;
+    }
+    chunk = next;
+    position = 0;
+    return true;
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (!nextChunk()) {
+      return -1;
+    }
+    return chunk.buffer[position++] & 0xFF;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+    if (!nextChunk()) {
+      return -1;
+    }
+    int n = Math.min(len, chunk.length - position);
+    System.arraycopy(chunk.buffer, position, b, off, n);
+    position += n;
+    return n;
+  }
+
+  @Override
+  public int available() {
+    return chunk == null ? 0 : chunk.length - position;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    filler.cancel(true);
+    filledChunks.clear();
+    in.close();
+  }
+}
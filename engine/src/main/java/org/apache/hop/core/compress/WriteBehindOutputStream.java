@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.compress;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import org.apache.hop.core.util.ExecutorUtil;
+
+/**
+ * Writes to another stream on a background thread, behind the writes to this stream. This is used
+ * to compress a file while the next rows are formatted.
+ *
+ * <p>Two buffers are used: one is filled by the writer while the other one is written to the
+ * wrapped stream in the background. Flushing waits until everything written so far is passed on.
+ */
+public class WriteBehindOutputStream extends OutputStream {
+
+  /** The default size of a buffer: 256kB */
+  public static final int DEFAULT_BUFFER_SIZE = 256 * 1024;
+
+  private final OutputStream out;
+
+  private byte[] buffer;
+  private byte[] spare;
+  private int count;
+  private Future<?> pending;
+  private boolean closed;
+
+  public WriteBehindOutputStream(OutputStream out) {
+    this(out, DEFAULT_BUFFER_SIZE);
+  }
+
+  /**
+   * @param out the stream to write to in the background
+   * @param bufferSize the size of a buffer
+   */
+  public WriteBehindOutputStream(OutputStream out, int bufferSize) {
+    this.out = out;
+    this.buffer = new byte[Math.max(1, bufferSize)];
+    this.spare = new byte[buffer.length];
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    if (count == buffer.length) {
+      writeBehind();
+    }
+    buffer[count++] = (byte) b;
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    while (len > 0) {
+      if (count == buffer.length) {
+        writeBehind();
+      }
+      int n = Math.min(len, buffer.length - count);
+      System.arraycopy(b, off, buffer, count, n);
+      count += n;
+      off += n;
+      len -= n;
+    }
+  }
+
+  /** Hand the filled buffer to the background thread and continue with the other buffer. */
+  private void writeBehind() throws IOException {
+    if (closed) {
+      throw new IOException("Stream closed");
+    }
+    waitForPending();
+    if (count == 0) {
+      return;
+    }
+    byte[] filled = buffer;
+    int length = count;
+    pending = ExecutorUtil.getExecutor().submit(() -> write(filled, length));
+    buffer = spare;
+    spare = filled;
+    count = 0;
+  }
+
+  /** Runs on the background thread */
+  private Void write(byte[] filled, int length) throws IOException {
+    out.write(filled, 0, length);
+    return null;
+  }
+
+  /** Wait for the background write to finish and pass on its error, if any. */
+  private void waitForPending() throws IOException {
+    if (pending == null) {
+      return;
+    }
+    try {
+      pending.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for data to be written");
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException ioException) {
+        throw ioException;
+      }
+      throw new IOException(e.getCause());
+    } finally {
+      pending = null;
+    }
+  }
+
+  @Override
+  public void flush() throws IOException {
+    writeBehind();
+    waitForPending();
+    out.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    try {
+      flush();
+    } finally {
+      closed = true;
+      out.close();
+    }
+  }
+}
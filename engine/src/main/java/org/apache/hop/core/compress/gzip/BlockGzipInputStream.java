@@ -0,0 +1,260 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.compress.gzip;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+import org.apache.hop.core.util.ExecutorUtil;
+
+/**
+ * Decompresses a blocked gzip (BGZF) file, as written by bgzip, on several threads.
+ *
+ * <p>Such a file is a series of gzip members of at most 64kB. The header of every member holds the
+ * size of the compressed block, so the blocks can be read one after the other without inflating
+ * them. The blocks are inflated in parallel and returned in the order of the file.
+ */
+public class BlockGzipInputStream extends InputStream {
+
+  /** The number of bytes needed to recognize a blocked gzip file */
+  public static final int HEADER_SIZE = 18;
+
+  private static final int FEXTRA = 4;
+  private static final int BLOCK_HEADER_SIZE = 12;
+  private static final int BLOCK_TRAILER_SIZE = 8;
+  private static final int MAX_BLOCK_SIZE = 65536;
+
+  private final InputStream in;
+  private final int nrThreads;
+  private final Deque<Future<byte[]>> blocks = new ArrayDeque<>();
+
+  private byte[] block;
+  private int position;
+  private boolean endOfInput;
+
+  /**
+   * @param in the compressed stream, positioned at the start of the file
+   * @param nrThreads the number of blocks to inflate at the same time
+   */
+  public BlockGzipInputStream(InputStream in, int nrThreads) {
+    this.in = in;
+    this.nrThreads = Math.max(1, nrThreads);
+  }
+
+  /**
+   * See if the start of a file is the header of a blocked gzip file: a gzip member with a "BC"
+   * extra field.
+   *
+   * @param header the first bytes of the file
+   * @param length the number of bytes in the header
+   * @return true if the file is a blocked gzip file
+   */
+  public static boolean isBlockGzip(byte[] header, int length) {
+    if (length < HEADER_SIZE
+        || (header[0] & 0xFF) != 0x1f
+        || (header[1] & 0xFF) != 0x8b
+        || header[2] != 8
+        || (header[3] & FEXTRA) == 0) {
+      return false;
+    }
+    return getBlockSize(header, 0, length) > 0;
+  }
+
+  /**
+   * Find the size of a block in the BC extra field of its header.
+   *
+   * @return the size of the complete block or -1 if there is no BC field
+   */
+  private static int getBlockSize(byte[] header, int offset, int length) {
+    int extraLength = unsignedShort(header, offset + 10);
+    int i = offset + BLOCK_HEADER_SIZE;
+    int end = Math.min(offset + length, i + extraLength);
+    while (i + 4 <= end) {
+      int subfieldLength = unsignedShort(header, i + 2);
+      if (header[i] == 'B' && header[i + 1] == 'C' && subfieldLength == 2 && i + 6 <= end) {
+        return unsignedShort(header, i + 4) + 1;
+      }
+      i += 4 + subfieldLength;
+    }
+    return -1;
+  }
+
+  private static int unsignedShort(byte[] bytes, int offset) {
+    return (bytes[offset] & 0xFF) | ((bytes[offset + 1] & 0xFF) << 8);
+  }
+
+  private static int unsignedInt(byte[] bytes, int offset) {
+    return unsignedShort(bytes, offset) | (unsignedShort(bytes, offset + 2) << 16);
+  }
+
+  /** Read compressed blocks and start inflating them until enough blocks are in progress. */
+  private void readBlocks() throws IOException {
+    while (!endOfInput && blocks.size() < nrThreads * 2) {
+      byte[] compressed = readCompressedBlock();
+      if (compressed == null) {
+        endOfInput = true;
+      } else {
+        blocks.add(ExecutorUtil.getExecutor().submit(() -> inflate(compressed)));
+      }
+    }
+  }
+
+  /**
+   * @return the next complete compressed block or null at the end of the file
+   */
+  private byte[] readCompressedBlock() throws IOException {
+    byte[] header = new byte[HEADER_SIZE];
+    int n = in.readNBytes(header, 0, HEADER_SIZE);
+    if (n == 0) {
+      return null;
+    }
+    if (!isBlockGzip(header, n)) {
+      throw new ZipException("Not a blocked gzip (BGZF) block");
+    }
+    int extraLength = unsignedShort(header, 10);
+    byte[] extra = new byte[BLOCK_HEADER_SIZE + extraLength];
+    System.arraycopy(header, 0, extra, 0, HEADER_SIZE);
+    readFully(extra, HEADER_SIZE, extra.length - HEADER_SIZE);
+    int blockSize = getBlockSize(extra, 0, extra.length);
+    if (blockSize < extra.length + BLOCK_TRAILER_SIZE) {
+      throw new ZipException("Invalid blocked gzip (BGZF) block size " + blockSize);
+    }
+    byte[] compressed = new byte[blockSize];
+    System.arraycopy(extra, 0, compressed, 0, extra.length);
+    readFully(compressed, extra.length, blockSize - extra.length);
+    return compressed;
+  }
+
+  private void readFully(byte[] buffer, int offset, int length) throws IOException {
+    if (in.readNBytes(buffer, offset, length) < length) {
+      throw new EOFException("Unexpected end of blocked gzip (BGZF) file");
+    }
+  }
+
+  /** Runs on a pool thread: inflate one block and check its size and checksum. */
+  private static byte[] inflate(byte[] compressed) throws IOException {
+    int dataStart = BLOCK_HEADER_SIZE + unsignedShort(compressed, 10);
+    int trailer = compressed.length - BLOCK_TRAILER_SIZE;
+    int expectedCrc = unsignedInt(compressed, trailer);
+    int size = unsignedInt(compressed, trailer + 4);
+    if (size < 0 || size > MAX_BLOCK_SIZE) {
+      throw new ZipException("Invalid blocked gzip (BGZF) data size " + size);
+    }
+
+    byte[] data = new byte[size];
+    Inflater inflater = new Inflater(true);
+    try {
+      inflater.setInput(compressed, dataStart, trailer - dataStart);
+      int length = 0;
+      while (length < size && !inflater.finished()) {
+        int n = inflater.inflate(data, length, size - length);
+        if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          break;
+        }
+        length += n;
+      }
+      if (length != size) {
+        throw new ZipException("Corrupt blocked gzip (BGZF) block: wrong size");
+      }
+    } catch (DataFormatException e) {
+      throw new ZipException("Corrupt blocked gzip (BGZF) block: " + e.getMessage());
+    } finally {
+      inflater.end();
+    }
+
+    CRC32 crc = new CRC32();
+    crc.update(data, 0, size);
+    if ((int) crc.getValue() != expectedCrc) {
+      throw new ZipException("Corrupt blocked gzip (BGZF) block: wrong checksum");
+    }
+    return data;
+  }
+
+  /**
+   * Make sure there are bytes left to read in the current block.
+   *
+   * @return false at the end of the file
+   */
+  private boolean nextBlock() throws IOException {
+    while (block == null || position >= block.length) {
+      readBlocks();
+      Future<byte[]> next = blocks.poll();
+      if (next == null) {
+        return false;
+      }
+      try {
+        block = next.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while inflating a block");
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof IOException ioException) {
+          throw ioException;
+        }
+        throw new IOException(e.getCause());
+      }
+      position = 0;
+    }
+    return true;
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (!nextBlock()) {
+      return -1;
+    }
+    return block[position++] & 0xFF;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+    if (!nextBlock()) {
+      return -1;
+    }
+    int n = Math.min(len, block.length - position);
+    System.arraycopy(block, position, b, off, n);
+    position += n;
+    return n;
+  }
+
+  @Override
+  public int available() {
+    return block == null ? 0 : block.length - position;
+  }
+
+  @Override
+  public void close() throws IOException {
+    for (Future<byte[]> future : blocks) {
+      future.cancel(true);
+    }
+    blocks.clear();
+    in.close();
+  }
+}
@@ -17,6 +17,7 @@
 
 package org.apache.hop.core.compress.gzip;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.zip.GZIPInputStream;
@@ -30,25 +31,32 @@ public class GzipCompressionInputStream extends CompressionInputStream {
     super(getDelegate(in), provider);
   }
 
-  protected static GZIPInputStream getDelegate(InputStream in) throws IOException {
-    GZIPInputStream delegate = null;
-    if (in instanceof GZIPInputStream gzipInputStream) {
-      delegate = gzipInputStream;
-    } else {
-      delegate = new GZIPInputStream(in);
+  /**
+   * Blocked gzip (BGZF) files are inflated on several threads, other gzip files with a {@link
+   * GZIPInputStream}.
+   */
+  protected static InputStream getDelegate(InputStream in) throws IOException {
+    if (in instanceof GZIPInputStream || in instanceof BlockGzipInputStream) {
+      return in;
     }
-    return delegate;
+    BufferedInputStream buffered = new BufferedInputStream(in);
+    byte[] header = new byte[BlockGzipInputStream.HEADER_SIZE];
+    buffered.mark(header.length);
+    int length = buffered.readNBytes(header, 0, header.length);
+    buffered.reset();
+    if (BlockGzipInputStream.isBlockGzip(header, length)) {
+      return new BlockGzipInputStream(buffered, Runtime.getRuntime().availableProcessors());
+    }
+    return new GZIPInputStream(buffered);
   }
 
   @Override
   public void close() throws IOException {
-    GZIPInputStream gis = (GZIPInputStream) delegate;
-    gis.close();
+    delegate.close();
   }
 
   @Override
   public int read() throws IOException {
-    GZIPInputStream gis = (GZIPInputStream) delegate;
-    return gis.read();
+    return delegate.read();
   }
 }
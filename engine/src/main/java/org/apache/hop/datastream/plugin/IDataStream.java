@@ -18,6 +18,9 @@
 
 package org.apache.hop.datastream.plugin;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.plugins.IPlugin;
 import org.apache.hop.core.plugins.PluginRegistry;
@@ -48,7 +51,19 @@ public interface IDataStream extends Cloneable {
       throws HopException;
 
   /**
-   * Gracefully finish working with this data stream.
+   * Tell the data stream how to find out that the transform using it was stopped. Data streams
+   * which wait for the other side, for example for room to write rows, stop waiting when this
+   * returns true. It's ignored by default.
+   *
+   * @param stopCheck Returns true once the transform using the data stream was stopped
+   */
+  default void setStopCheck(BooleanSupplier stopCheck) {
+    // Nothing to wait for
+  }
+
+  /**
+   * Gracefully finish working with this data stream. Closing a data stream which is written to
+   * before {@link #setOutputDone()} was called means that the writer failed or was stopped.
    *
    * @throws HopException In case there was an error closing up shop.
    */
@@ -81,6 +96,19 @@ public interface IDataStream extends Cloneable {
    */
   void writeRow(Object[] rowData) throws HopException;
 
+  /**
+   * Write a batch of rows to the data stream. Data streams which transport rows in batches can
+   * override this to handle the rows of the batch together instead of one at a time.
+   *
+   * @param rows The rows of data to be written
+   * @throws HopException In case there was an error writing the rows.
+   */
+  default void writeRows(List<Object[]> rows) throws HopException {
+    for (Object[] row : rows) {
+      writeRow(row);
+    }
+  }
+
   /**
    * Call this method when you're done writing
    *
@@ -97,6 +125,28 @@ public interface IDataStream extends Cloneable {
    */
   Object[] readRow() throws HopException;
 
+  /**
+   * Read a batch of rows from the data stream. This operation will block until rows become
+   * available or null is returned. By default rows are read one at a time until the maximum is
+   * reached or the data stream ends. Data streams which transport rows in batches return the rows
+   * of a batch which are already received.
+   *
+   * @param maxRows The maximum number of rows to read
+   * @return A batch of rows from the data stream or null if no more rows are to be received.
+   * @throws HopException In case there was an error reading rows from the data stream.
+   */
+  default List<Object[]> readRows(int maxRows) throws HopException {
+    List<Object[]> rows = new ArrayList<>();
+    while (rows.size() < maxRows) {
+      Object[] row = readRow();
+      if (row == null) {
+        break;
+      }
+      rows.add(row);
+    }
+    return rows.isEmpty() ? null : rows;
+  }
+
   /**
    * @return the plugin id of this datastream plugin
    */
@@ -147,6 +147,7 @@ public abstract class Pipeline
   public static final String METRIC_NAME_BUFFER_IN = "buffer_in";
   public static final String METRIC_NAME_BUFFER_OUT = "buffer_out";
   public static final String METRIC_NAME_FLUSH_BUFFER = "flush_buffer";
+  public static final String METRIC_NAME_BATCH_SIZE = "batch_size";
   public static final String METRIC_NAME_INIT = "init";
   public static final String METRIC_NAME_DATA_VOLUME = "data_volume";
   public static final String METRIC_NAME_DATA_VOLUME_IN = "data_volume_in";
@@ -3347,6 +3348,13 @@ public abstract class Pipeline
           "The number of times a buffer flush occurred on a ",
           "100",
           true);
+  public static final IEngineMetric METRIC_BATCH_SIZE =
+      new EngineMetric(
+          METRIC_NAME_BATCH_SIZE,
+          "Batch size",
+          "The average number of rows handed to a batching transform at once",
+          "101",
+          true);
   public static final IEngineMetric METRIC_DATA_VOLUME =
       new EngineMetric(
           METRIC_NAME_DATA_VOLUME,
@@ -3416,6 +3424,11 @@ public abstract class Pipeline
                 combi.transform, METRIC_DATA_VOLUME_IN, combi.transform.getDataVolumeIn());
             metrics.setComponentMetric(
                 combi.transform, METRIC_DATA_VOLUME_OUT, combi.transform.getDataVolumeOut());
+            combi
+                .transform
+                .getTransformMetrics()
+                .forEach(
+                    (metric, value) -> metrics.setComponentMetric(combi.transform, metric, value));
 
             long inputBufferSize = 0;
             for (IRowSet rowSet : transform.getInputRowSets()) {
@@ -28,6 +28,7 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import org.apache.commons.lang3.ArrayUtils;
+import org.apache.hop.base.MetaFileCache;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.logging.LogChannel;
@@ -141,7 +142,8 @@ public abstract class TransformWithMappingMeta<Main extends ITransform, Data ext
       // OK, load the meta-data from file...
       // Don't set internal variables: they belong to the parent thread!
       if (mappingPipelineMeta == null) {
-        mappingPipelineMeta = new PipelineMeta(realFilename, metadataProvider, tmpSpace);
+        mappingPipelineMeta =
+            MetaFileCache.loadPipelineMeta(realFilename, metadataProvider, tmpSpace);
         LogChannel.GENERAL.logDetailed(
             "Loading pipeline", "Pipeline was loaded from XML file [" + realFilename + "]");
       }
@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.engine;
+
+import java.util.Set;
+
+/**
+ * The transforms which only work on the current row. Engines which run a pipeline outside of the
+ * local engine, like Beam and Spark, run a straight line of these transforms in the same
+ * partition-local Hop pipeline as the transform they follow instead of one by one.
+ */
+public final class FusableTransforms {
+
+  /** The plugin ids of the transforms which only work on the current row */
+  public static final Set<String> PLUGIN_IDS =
+      Set.of(
+          "Calculator",
+          "CheckSum",
+          "Coalesce",
+          "ConcatFields",
+          "Constant",
+          "Dummy",
+          "FieldSplitter",
+          "FilterRows",
+          "Formula",
+          "IfNull",
+          "Janino",
+          "JavaFilter",
+          "NullIf",
+          "NumberRange",
+          "RegexEval",
+          "ReplaceString",
+          "SelectValues",
+          "SetValueConstant",
+          "SetValueField",
+          "StringCut",
+          "StringOperations",
+          "SwitchCase",
+          "ValueMapper");
+
+  private FusableTransforms() {}
+
+  /**
+   * @param pluginId the plugin id of a transform
+   * @return true if the transform only works on the current row
+   */
+  public static boolean isFusable(String pluginId) {
+    return PLUGIN_IDS.contains(pluginId);
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.engine;
+
+import java.math.BigDecimal;
+import java.text.DateFormat;
+import java.text.ParseException;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.util.Utils;
+
+/**
+ * How the Stream Lookup transform matches keys and parses the defaults of its return values. The
+ * transform parses its defaults here and engines which run the lookup as a native join, like Beam
+ * and Spark, use the same rules so that they give the same rows.
+ */
+public final class StreamLookupRules {
+
+  private StreamLookupRules() {}
+
+  /**
+   * The transform compares keys with their value metadata. A native join compares the values
+   * themselves, which gives the same result only for these types with normal storage. Case
+   * insensitive strings, for example, are left to the transform.
+   *
+   * @param valueMeta the metadata of a key field
+   * @return true if two keys of this field match exactly when their values are equal
+   */
+  public static boolean isExactKey(IValueMeta valueMeta) {
+    if (!valueMeta.isStorageNormal()) {
+      return false;
+    }
+    return switch (valueMeta.getType()) {
+      case IValueMeta.TYPE_STRING ->
+          valueMeta.isCollatorDisabled()
+              && !valueMeta.isCaseInsensitive()
+              && !valueMeta.isIgnoreWhitespace();
+      case IValueMeta.TYPE_INTEGER,
+              IValueMeta.TYPE_NUMBER,
+              IValueMeta.TYPE_BOOLEAN,
+              IValueMeta.TYPE_DATE,
+              IValueMeta.TYPE_TIMESTAMP ->
+          true;
+      default -> false;
+    };
+  }
+
+  /**
+   * Parse the default of a return value, the value for rows without a match. A default which
+   * doesn't parse is ignored.
+   *
+   * @param value the default with the variables resolved
+   * @param type the type of the default, a negative type is a string
+   * @return the default or null if there is none
+   * @throws HopException when a default is given for a type which can't be parsed
+   */
+  public static Object parseDefault(String value, int type) throws HopException {
+    int defaultType = type < 0 ? IValueMeta.TYPE_STRING : type;
+    if (defaultType != IValueMeta.TYPE_BOOLEAN && Utils.isEmpty(value)) {
+      return null;
+    }
+    try {
+      return switch (defaultType) {
+        case IValueMeta.TYPE_STRING -> value;
+        case IValueMeta.TYPE_DATE -> DateFormat.getInstance().parse(value);
+        case IValueMeta.TYPE_NUMBER -> Double.parseDouble(value);
+        case IValueMeta.TYPE_INTEGER -> Long.parseLong(value);
+        case IValueMeta.TYPE_BOOLEAN ->
+            "TRUE".equalsIgnoreCase(value) || "Y".equalsIgnoreCase(value);
+        case IValueMeta.TYPE_BIGNUMBER -> new BigDecimal(value);
+        default -> {
+          if (!value.trim().isEmpty()) {
+            throw new HopException("No conversion is implemented for a default of type " + type);
+          }
+          yield null;
+        }
+      };
+    } catch (NumberFormatException | ParseException e) {
+      return null;
+    }
+  }
+
+  /**
+   * The default of a return value for an engine which puts it in the field of the value. The
+   * transform passes on a default of another type as is, an engine can't.
+   *
+   * @param value the default with the variables resolved
+   * @param type the type of the default, a negative type is a string
+   * @param valueMeta the metadata of the value field
+   * @return the default or null if there is none
+   * @throws HopException when the default doesn't fit in the value field
+   */
+  public static Object fieldDefault(String value, int type, IValueMeta valueMeta)
+      throws HopException {
+    Object defaultValue = parseDefault(value, type);
+    if (defaultValue != null && (type < 0 ? IValueMeta.TYPE_STRING : type) != valueMeta.getType()) {
+      throw new HopException(
+          "The default of field '" + valueMeta.getName() + "' isn't of the type of the field");
+    }
+    return defaultValue;
+  }
+}
@@ -0,0 +1,474 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.engines.partitioned;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopTransformException;
+import org.apache.hop.core.logging.ILoggingObject;
+import org.apache.hop.core.metadata.SerializableMetadataProvider;
+import org.apache.hop.core.parameters.INamedParameters;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.metadata.api.IHopMetadataProvider;
+import org.apache.hop.partition.PartitionSchema;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.config.IPipelineEngineRunConfiguration;
+import org.apache.hop.pipeline.config.PipelineRunConfiguration;
+import org.apache.hop.pipeline.engine.PipelineEnginePlugin;
+import org.apache.hop.pipeline.engines.local.LocalPipelineEngine;
+import org.apache.hop.pipeline.engines.remote.RemotePipelineEngine;
+import org.apache.hop.pipeline.engines.remote.RemotePipelineRunConfiguration;
+import org.apache.hop.pipeline.transform.RowAdapter;
+import org.apache.hop.pipeline.transform.TransformMetaDataCombi;
+import org.apache.hop.pipeline.transform.TransformPartitioningMeta;
+import org.apache.hop.pipeline.transforms.socketreader.SocketReaderMeta;
+import org.apache.hop.pipeline.transforms.socketreader.SocketRowWriter;
+import org.apache.hop.server.HopServerMeta;
+import org.apache.hop.www.AllocateServerSocketServlet;
+import org.apache.hop.www.RemoteHopServer;
+import org.apache.hop.www.WebResult;
+
+/**
+ * Runs the partitions of a partitioned transform on several Hop servers.
+ *
+ * <p>The pipeline is split up as described in {@link PartitionedPipelinePlan}. For every server a
+ * port is allocated, the server part of the pipeline is started on it with a remote pipeline engine
+ * and a connection is made to its socket reader. The socket reader only listens on the host name of
+ * the server and only accepts the rows after the secret token of the run. The rest of the pipeline
+ * runs locally: every row written by a feeder transform is sent to the server running the partition
+ * of the row. With more partitions than servers, partition n runs on server n modulo the number of
+ * servers.
+ */
+@PipelineEnginePlugin(
+    id = "Partitioned",
+    name = "Hop partitioned pipeline engine",
+    description = "Runs the partitions of a partitioned transform on several Hop servers")
+public class PartitionedPipelineEngine extends LocalPipelineEngine {
+
+  private static final String REMOTE_ENGINE_PLUGIN_ID = "Remote";
+
+  private final List<PartitionWorker> workers = new ArrayList<>();
+  private PartitionedPipelinePlan plan;
+  private String clusterRunId;
+  private String token;
+
+  public PartitionedPipelineEngine() {
+    super();
+  }
+
+  public PartitionedPipelineEngine(PipelineMeta pipelineMeta) {
+    super(pipelineMeta);
+  }
+
+  public PartitionedPipelineEngine(
+      PipelineMeta pipelineMeta, IVariables variables, ILoggingObject parent) {
+    super(pipelineMeta, variables, parent);
+  }
+
+  public <Parent extends IVariables & INamedParameters> PartitionedPipelineEngine(
+      Parent parent, String name, String filename, IHopMetadataProvider metadataProvider)
+      throws HopException {
+    super(parent, name, filename, metadataProvider);
+  }
+
+  @Override
+  public IPipelineEngineRunConfiguration createDefaultPipelineEngineRunConfiguration() {
+    return new PartitionedPipelineRunConfiguration();
+  }
+
+  @Override
+  public void prepareExecution() throws HopException {
+    if (!(pipelineRunConfiguration.getEngineRunConfiguration()
+        instanceof PartitionedPipelineRunConfiguration config)) {
+      throw new HopException(
+          "A partitioned pipeline execution expects a partitioned pipeline configuration, not an"
+              + " instance of class "
+              + pipelineRunConfiguration.getEngineRunConfiguration().getClass().getName());
+    }
+
+    List<String> serverNames = config.resolveHopServerNames(this);
+    if (serverNames.isEmpty()) {
+      throw new HopException("No Hop servers were specified to run the partitions on");
+    }
+    String remoteRunConfigurationName = resolve(config.getRunConfigurationName());
+    validateRemoteRunConfiguration(remoteRunConfigurationName);
+
+    PipelineMeta originalMeta = getPipelineMeta();
+    plan =
+        PartitionedPipelinePlan.create(originalMeta, resolve(config.getPartitionedTransformName()));
+    int nrPartitions = plan.getNrPartitions(originalMeta, this);
+    int nrWorkers = Math.min(nrPartitions, serverNames.size());
+    IRowMeta inputRowMeta =
+        originalMeta.getPrevTransformFields(this, plan.getPartitionedTransformName());
+    TransformPartitioningMeta partitioningMeta =
+        originalMeta
+            .findTransform(plan.getPartitionedTransformName())
+            .getTransformPartitioningMeta();
+    int portRangeStart =
+        Const.toInt(
+            resolve(config.getPortRangeStart()),
+            Integer.parseInt(PartitionedPipelineRunConfiguration.DEFAULT_PORT_RANGE_START));
+    long connectTimeoutMs =
+        Const.toLong(
+            resolve(config.getConnectTimeoutMs()),
+            Long.parseLong(PartitionedPipelineRunConfiguration.DEFAULT_CONNECT_TIMEOUT_MS));
+    clusterRunId = UUID.randomUUID().toString();
+    token = createToken();
+
+    getLogChannel()
+        .logBasic(
+            "Running the "
+                + nrPartitions
+                + " partitions of transform '"
+                + plan.getPartitionedTransformName()
+                + "' on Hop servers "
+                + String.join(", ", serverNames.subList(0, nrWorkers)));
+
+    setPipelineMeta(plan.createLocalPipelineMeta(originalMeta));
+    try {
+      for (int i = 0; i < nrWorkers; i++) {
+        startWorker(
+            originalMeta,
+            serverNames.get(i),
+            PartitionedPipelinePlan.getServerPartitionNrs(nrPartitions, nrWorkers, i),
+            remoteRunConfigurationName,
+            inputRowMeta,
+            portRangeStart,
+            Long.toString(connectTimeoutMs),
+            connectTimeoutMs);
+      }
+
+      super.prepareExecution();
+
+      addFeederListeners(partitioningMeta);
+    } catch (Exception e) {
+      abortWorkers();
+      releasePorts();
+      throw new HopException("Error preparing the partitioned execution of the pipeline", e);
+    }
+
+    // The servers only see the end of the rows once every local transform is done.
+    //
+    addExecutionFinishedListener(pipeline -> finishWorkers());
+  }
+
+  private void validateRemoteRunConfiguration(String remoteRunConfigurationName)
+      throws HopException {
+    if (StringUtils.isEmpty(remoteRunConfigurationName)) {
+      throw new HopException("No run configuration was specified to run the partitions with");
+    }
+    if (remoteRunConfigurationName.equals(pipelineRunConfiguration.getName())) {
+      throw new HopException(
+          "The partitions can't be executed with run configuration '"
+              + remoteRunConfigurationName
+              + "' itself");
+    }
+    PipelineRunConfiguration remoteRunConfiguration =
+        getMetadataProvider()
+            .getSerializer(PipelineRunConfiguration.class)
+            .load(remoteRunConfigurationName);
+    if (remoteRunConfiguration != null
+        && remoteRunConfiguration.getEngineRunConfiguration()
+            instanceof PartitionedPipelineRunConfiguration) {
+      throw new HopException(
+          "The partitions can't be executed with partitioned run configuration '"
+              + remoteRunConfigurationName
+              + "', please use a local run configuration on the servers");
+    }
+  }
+
+  private void startWorker(
+      PipelineMeta originalMeta,
+      String serverName,
+      List<Integer> partitionNrs,
+      String remoteRunConfigurationName,
+      IRowMeta inputRowMeta,
+      int portRangeStart,
+      String acceptTimeout,
+      long connectTimeoutMs)
+      throws Exception {
+    HopServerMeta hopServerMeta =
+        getMetadataProvider().getSerializer(HopServerMeta.class).load(serverName);
+    if (hopServerMeta == null) {
+      throw new HopException("Hop server '" + serverName + "' could not be found");
+    }
+    RemoteHopServer hopServer = new RemoteHopServer(hopServerMeta);
+    PartitionWorker worker = new PartitionWorker(serverName, hopServer);
+    workers.add(worker);
+
+    // The socket reader only listens on the address we connect to. Each of its copies receives
+    // the rows of one partition on a port of its own.
+    //
+    String hostname = resolve(hopServerMeta.getHostname());
+    List<Integer> ports = new ArrayList<>();
+    for (int copyNr = 0; copyNr < partitionNrs.size(); copyNr++) {
+      ports.add(allocatePort(hopServer, serverName, hostname, portRangeStart, copyNr));
+    }
+    SocketReaderMeta socketReaderMeta = new SocketReaderMeta();
+    socketReaderMeta.setHostname(hostname);
+    socketReaderMeta.setPort(StringUtils.join(ports, ","));
+    socketReaderMeta.setToken(token);
+    socketReaderMeta.setAcceptTimeout(acceptTimeout);
+    socketReaderMeta.setFields(inputRowMeta);
+    PartitionSchema serverPartitionSchema =
+        plan.createServerPartitionSchema(originalMeta, this, serverName, partitionNrs);
+    PipelineMeta remoteMeta =
+        plan.createRemotePipelineMeta(originalMeta, serverPartitionSchema, socketReaderMeta);
+
+    // The server finds the partition schema of the pipeline in the metadata we send along
+    //
+    SerializableMetadataProvider serverMetadataProvider =
+        new SerializableMetadataProvider(getMetadataProvider());
+    serverMetadataProvider.getSerializer(PartitionSchema.class).save(serverPartitionSchema);
+
+    RemotePipelineRunConfiguration remoteConfig = new RemotePipelineRunConfiguration();
+    remoteConfig.setEnginePluginId(REMOTE_ENGINE_PLUGIN_ID);
+    remoteConfig.setHopServerName(serverName);
+    remoteConfig.setRunConfigurationName(remoteRunConfigurationName);
+
+    RemotePipelineEngine engine = new RemotePipelineEngine(remoteMeta);
+    engine.initializeFrom(this);
+    engine.copyParametersFromDefinitions(remoteMeta);
+    engine.setParent(this);
+    engine.setMetadataProvider(serverMetadataProvider);
+    engine.setLogLevel(getLogLevel());
+    engine.setPipelineRunConfiguration(
+        new PipelineRunConfiguration(
+            pipelineRunConfiguration.getName() + " - " + serverName,
+            "",
+            "",
+            new ArrayList<>(),
+            remoteConfig,
+            null,
+            false));
+    worker.engine = engine;
+
+    engine.prepareExecution();
+    engine.startThreads();
+
+    for (int port : ports) {
+      worker.writers.add(
+          SocketRowWriter.connect(hostname, port, token, connectTimeoutMs, this::isStopped));
+    }
+    getLogChannel()
+        .logDetailed(
+            "Connected to partitions "
+                + serverPartitionSchema.getPartitionIDs()
+                + " on Hop server '"
+                + serverName
+                + "'");
+  }
+
+  /** The secret a socket reader expects before it accepts rows, unique for every run */
+  private static String createToken() {
+    byte[] bytes = new byte[32];
+    new SecureRandom().nextBytes(bytes);
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+  }
+
+  private int allocatePort(
+      RemoteHopServer hopServer,
+      String serverName,
+      String hostname,
+      int portRangeStart,
+      int targetCopyNr)
+      throws Exception {
+    String service =
+        AllocateServerSocketServlet.CONTEXT_PATH
+            + "/?xml=Y"
+            + parameter(AllocateServerSocketServlet.PARAM_RANGE_START, portRangeStart)
+            + parameter(AllocateServerSocketServlet.PARAM_HOSTNAME, hostname)
+            + parameter(AllocateServerSocketServlet.PARAM_ID, clusterRunId)
+            + parameter(AllocateServerSocketServlet.PARAM_NAME, getPipelineMeta().getName())
+            + parameter(AllocateServerSocketServlet.PARAM_SOURCE_SERVER, Const.getHostname())
+            + parameter(
+                AllocateServerSocketServlet.PARAM_SOURCE_TRANSFORM,
+                String.join(",", plan.getFeederNames()))
+            + parameter(AllocateServerSocketServlet.PARAM_SOURCE_COPY, 0)
+            + parameter(AllocateServerSocketServlet.PARAM_TARGET_SERVER, serverName)
+            + parameter(
+                AllocateServerSocketServlet.PARAM_TARGET_TRANSFORM,
+                plan.getPartitionedTransformName())
+            + parameter(AllocateServerSocketServlet.PARAM_TARGET_COPY, targetCopyNr);
+    WebResult webResult = WebResult.fromXmlString(hopServer.execService(this, service));
+    if (!WebResult.STRING_OK.equals(webResult.getResult())) {
+      throw new HopException(
+          "Unable to allocate a port on Hop server '"
+              + serverName
+              + "' : "
+              + webResult.getMessage());
+    }
+    return Integer.parseInt(webResult.getId());
+  }
+
+  private static String parameter(String name, Object value) {
+    return "&" + name + "=" + URLEncoder.encode(String.valueOf(value), StandardCharsets.UTF_8);
+  }
+
+  private void addFeederListeners(TransformPartitioningMeta partitioningMeta) {
+    int nrWorkers = workers.size();
+    for (TransformMetaDataCombi combi : getTransforms()) {
+      if (!plan.getFeederNames().contains(combi.transformName)) {
+        continue;
+      }
+      // Partitioners keep state, every transform copy gets its own.
+      //
+      TransformPartitioningMeta copyPartitioningMeta = partitioningMeta.clone();
+      IVariables variables = combi.transform;
+      combi.transform.addRowListener(
+          new RowAdapter() {
+            @Override
+            public void rowWrittenEvent(IRowMeta rowMeta, Object[] row)
+                throws HopTransformException {
+              try {
+                int partitionNr = copyPartitioningMeta.getPartition(variables, rowMeta, row);
+                workers
+                    .get(partitionNr % nrWorkers)
+                    .writers
+                    .get(partitionNr / nrWorkers)
+                    .writeRow(rowMeta, row);
+              } catch (HopException e) {
+                throw new HopTransformException(
+                    "Unable to send a row to the partitions on the Hop servers", e);
+              }
+            }
+          });
+    }
+  }
+
+  /** Tell the servers that all rows were sent or, when something went wrong, make them fail. */
+  private void finishWorkers() {
+    boolean failed = super.getErrors() > 0 || isStopped();
+    for (PartitionWorker worker : workers) {
+      for (SocketRowWriter writer : worker.writers) {
+        if (failed) {
+          writer.abort();
+        } else {
+          try {
+            writer.close();
+          } catch (HopException e) {
+            getLogChannel()
+                .logError(
+                    "Error sending the end of the rows to Hop server '" + worker.serverName + "'",
+                    e);
+          }
+        }
+      }
+    }
+  }
+
+  private void abortWorkers() {
+    for (PartitionWorker worker : workers) {
+      for (SocketRowWriter writer : worker.writers) {
+        writer.abort();
+      }
+      if (worker.engine != null && worker.engine.isReadyToStart()) {
+        try {
+          worker.engine.stopAll();
+        } catch (Exception e) {
+          getLogChannel()
+              .logError(
+                  "Error stopping the partitions on Hop server '" + worker.serverName + "'", e);
+        }
+      }
+    }
+  }
+
+  private void releasePorts() {
+    if (clusterRunId == null) {
+      return;
+    }
+    for (PartitionWorker worker : workers) {
+      try {
+        worker.hopServer.execService(
+            this,
+            AllocateServerSocketServlet.CONTEXT_PATH
+                + "/?xml=Y"
+                + parameter(AllocateServerSocketServlet.PARAM_ID, clusterRunId)
+                + parameter(AllocateServerSocketServlet.PARAM_RELEASE, "Y"));
+      } catch (Exception e) {
+        getLogChannel()
+            .logError(
+                "Error releasing the port allocated on Hop server '" + worker.serverName + "'", e);
+      }
+    }
+  }
+
+  @Override
+  public void waitUntilFinished() {
+    super.waitUntilFinished();
+    for (PartitionWorker worker : workers) {
+      if (worker.engine != null) {
+        worker.engine.waitUntilFinished();
+      }
+    }
+    releasePorts();
+  }
+
+  @Override
+  public int getErrors() {
+    int nrErrors = super.getErrors();
+    for (PartitionWorker worker : workers) {
+      if (worker.engine != null) {
+        nrErrors += worker.engine.getErrors();
+      }
+    }
+    return nrErrors;
+  }
+
+  @Override
+  public boolean isFinished() {
+    if (!super.isFinished()) {
+      return false;
+    }
+    for (PartitionWorker worker : workers) {
+      if (worker.engine != null && !worker.engine.isFinished() && !worker.engine.isStopped()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void stopAll() {
+    super.stopAll();
+    abortWorkers();
+  }
+
+  /** The partitions running on one Hop server, with a connection for every partition */
+  private static final class PartitionWorker {
+    private final String serverName;
+    private final RemoteHopServer hopServer;
+    private final List<SocketRowWriter> writers = new ArrayList<>();
+    private RemotePipelineEngine engine;
+
+    private PartitionWorker(String serverName, RemoteHopServer hopServer) {
+      this.serverName = serverName;
+      this.hopServer = hopServer;
+    }
+  }
+}
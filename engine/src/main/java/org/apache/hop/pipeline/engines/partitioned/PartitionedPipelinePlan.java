@@ -0,0 +1,395 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.engines.partitioned;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import lombok.Getter;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.hop.base.MetaFileCache;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.partition.PartitionSchema;
+import org.apache.hop.pipeline.PipelineHopMeta;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.transform.TransformErrorMeta;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transform.TransformPartitioningMeta;
+import org.apache.hop.pipeline.transforms.socketreader.SocketReaderMeta;
+
+/**
+ * Describes how a pipeline is split up to run the partitions of a partitioned transform on several
+ * Hop servers.
+ *
+ * <p>The partitioned transform and every transform after it run on the servers. The other
+ * transforms run locally. The transforms sending rows to the partitioned transform, the feeders,
+ * have their rows sent over a socket to the server running the partition of the row. On the server
+ * a socket reader transform takes the place of the feeders. Every server only runs its own
+ * partitions.
+ *
+ * <p>This only works when the partitioned transform is the only way into the part of the pipeline
+ * running on the servers: no other transform on the servers can read rows from a local transform.
+ * Rows don't come back from the servers either, the servers take care of the output.
+ */
+@Getter
+public class PartitionedPipelinePlan {
+
+  public static final String SOCKET_READER_NAME = "Socket reader";
+
+  /** The partitioned transform */
+  private final String partitionedTransformName;
+
+  /** The local transforms sending rows to the partitioned transform */
+  private final List<String> feederNames;
+
+  /** The transforms running on the servers: the partitioned transform and everything after it */
+  private final Set<String> remoteTransformNames;
+
+  private PartitionedPipelinePlan(
+      String partitionedTransformName, List<String> feederNames, Set<String> remoteTransformNames) {
+    this.partitionedTransformName = partitionedTransformName;
+    this.feederNames = Collections.unmodifiableList(feederNames);
+    this.remoteTransformNames = Collections.unmodifiableSet(remoteTransformNames);
+  }
+
+  /**
+   * Work out how to split a pipeline.
+   *
+   * @param pipelineMeta The pipeline to split
+   * @param transformName The name of the partitioned transform or empty to look for the one
+   *     partitioned transform which doesn't come after another one.
+   * @return The plan
+   * @throws HopException In case the pipeline can't be split
+   */
+  public static PartitionedPipelinePlan create(PipelineMeta pipelineMeta, String transformName)
+      throws HopException {
+    TransformMeta partitioned = findPartitionedTransform(pipelineMeta, transformName);
+    if (partitioned.getTransformPartitioningMeta().isMethodMirror()) {
+      throw new HopException(
+          "Transform '"
+              + partitioned.getName()
+              + "' mirrors its rows to all partitions, only partitioning methods that send a row to"
+              + " one partition are supported");
+    }
+
+    // Everything after the partitioned transform runs on the servers
+    //
+    Set<String> remote = new LinkedHashSet<>();
+    List<TransformMeta> todo = new ArrayList<>();
+    todo.add(partitioned);
+    while (!todo.isEmpty()) {
+      TransformMeta transformMeta = todo.remove(todo.size() - 1);
+      if (remote.add(transformMeta.getName())) {
+        todo.addAll(pipelineMeta.findNextTransforms(transformMeta));
+      }
+    }
+
+    List<TransformMeta> mainInputs = pipelineMeta.findPreviousTransforms(partitioned, false);
+    List<String> feeders = new ArrayList<>();
+    for (int i = 0; i < pipelineMeta.nrPipelineHops(); i++) {
+      PipelineHopMeta hop = pipelineMeta.getPipelineHop(i);
+      if (!hop.isEnabled()
+          || remote.contains(hop.getFromTransform().getName())
+          || !remote.contains(hop.getToTransform().getName())) {
+        continue;
+      }
+      TransformMeta from = hop.getFromTransform();
+      TransformMeta to = hop.getToTransform();
+      if (to != partitioned) {
+        throw new HopException(
+            "Transform '"
+                + to.getName()
+                + "' comes after partitioned transform '"
+                + partitioned.getName()
+                + "' and runs on the Hop servers but it also reads from local transform '"
+                + from.getName()
+                + "'");
+      }
+      if (!mainInputs.contains(from)) {
+        throw new HopException(
+            "Partitioned transform '"
+                + partitioned.getName()
+                + "' reads information from transform '"
+                + from.getName()
+                + "', this isn't supported when the partitions run on Hop servers");
+      }
+      validateFeeder(pipelineMeta, from, partitioned);
+      if (!feeders.contains(from.getName())) {
+        feeders.add(from.getName());
+      }
+    }
+    if (feeders.isEmpty()) {
+      throw new HopException(
+          "Partitioned transform '"
+              + partitioned.getName()
+              + "' doesn't receive rows from the rest of the pipeline");
+    }
+
+    return new PartitionedPipelinePlan(partitioned.getName(), feeders, remote);
+  }
+
+  private static TransformMeta findPartitionedTransform(
+      PipelineMeta pipelineMeta, String transformName) throws HopException {
+    if (StringUtils.isNotEmpty(transformName)) {
+      TransformMeta transformMeta = pipelineMeta.findTransform(transformName);
+      if (transformMeta == null) {
+        throw new HopException(
+            "Transform '"
+                + transformName
+                + "' can't be found in pipeline "
+                + pipelineMeta.getName());
+      }
+      if (!transformMeta.isPartitioned()) {
+        throw new HopException("Transform '" + transformName + "' isn't partitioned");
+      }
+      return transformMeta;
+    }
+
+    List<TransformMeta> candidates = new ArrayList<>();
+    for (TransformMeta transformMeta : pipelineMeta.getTransforms()) {
+      if (transformMeta.isPartitioned()) {
+        boolean first = true;
+        for (TransformMeta other : pipelineMeta.getTransforms()) {
+          if (other != transformMeta
+              && other.isPartitioned()
+              && pipelineMeta.findPrevious(transformMeta, other)) {
+            first = false;
+            break;
+          }
+        }
+        if (first) {
+          candidates.add(transformMeta);
+        }
+      }
+    }
+    if (candidates.isEmpty()) {
+      throw new HopException(
+          "Pipeline " + pipelineMeta.getName() + " has no partitioned transform");
+    }
+    if (candidates.size() > 1) {
+      List<String> names = new ArrayList<>();
+      candidates.forEach(candidate -> names.add(candidate.getName()));
+      throw new HopException(
+          "Pipeline "
+              + pipelineMeta.getName()
+              + " has several partitioned transforms to start from, please specify one of: "
+              + String.join(", ", names));
+    }
+    return candidates.get(0);
+  }
+
+  private static void validateFeeder(
+      PipelineMeta pipelineMeta, TransformMeta feeder, TransformMeta partitioned)
+      throws HopException {
+    // We see every row the feeder writes, not only the rows going to the partitioned transform.
+    //
+    for (TransformMeta next : pipelineMeta.findNextTransforms(feeder)) {
+      if (next != partitioned) {
+        throw new HopException(
+            "Transform '"
+                + feeder.getName()
+                + "' sends rows to partitioned transform '"
+                + partitioned.getName()
+                + "' and to transform '"
+                + next.getName()
+                + "'. Please send the rows to the partitioned transform only.");
+      }
+    }
+    TransformErrorMeta errorMeta = feeder.getTransformErrorMeta();
+    if (errorMeta != null
+        && errorMeta.isEnabled()
+        && errorMeta.getTargetTransform() == partitioned) {
+      throw new HopException(
+          "Transform '"
+              + feeder.getName()
+              + "' sends its error rows to partitioned transform '"
+              + partitioned.getName()
+              + "', this isn't supported when the partitions run on Hop servers");
+    }
+  }
+
+  /**
+   * Calculate the partition IDs of the partitioned transform.
+   *
+   * @param pipelineMeta The pipeline
+   * @param variables The variables to resolve the partition schema with
+   * @return The partition IDs
+   * @throws HopException In case the partition schema is missing or has no partitions
+   */
+  public List<String> getPartitionIds(PipelineMeta pipelineMeta, IVariables variables)
+      throws HopException {
+    TransformMeta partitioned = pipelineMeta.findTransform(partitionedTransformName);
+    PartitionSchema partitionSchema =
+        partitioned.getTransformPartitioningMeta().getPartitionSchema();
+    if (partitionSchema == null) {
+      throw new HopException(
+          "Partitioned transform '" + partitionedTransformName + "' has no partition schema");
+    }
+    List<String> partitionIds = partitionSchema.calculatePartitionIds(variables);
+    if (partitionIds == null || partitionIds.isEmpty()) {
+      throw new HopException(
+          "The partition schema of transform '" + partitionedTransformName + "' has no partitions");
+    }
+    return partitionIds;
+  }
+
+  /**
+   * Calculate the number of partitions of the partitioned transform.
+   *
+   * @param pipelineMeta The pipeline
+   * @param variables The variables to resolve the partition schema with
+   * @return The number of partitions
+   * @throws HopException In case the partition schema is missing
+   */
+  public int getNrPartitions(PipelineMeta pipelineMeta, IVariables variables) throws HopException {
+    return getPartitionIds(pipelineMeta, variables).size();
+  }
+
+  /**
+   * Find the partitions which run on a server: partition n runs on server n modulo the number of
+   * servers.
+   *
+   * @param nrPartitions The number of partitions
+   * @param nrServers The number of servers
+   * @param serverNr The server, starting at 0
+   * @return The numbers of the partitions of the server, in order
+   */
+  public static List<Integer> getServerPartitionNrs(int nrPartitions, int nrServers, int serverNr) {
+    List<Integer> partitionNrs = new ArrayList<>();
+    for (int partitionNr = serverNr; partitionNr < nrPartitions; partitionNr += nrServers) {
+      partitionNrs.add(partitionNr);
+    }
+    return partitionNrs;
+  }
+
+  /**
+   * Create the partition schema used on a server. It only has the partitions which run on the
+   * server, with the IDs they have in the partition schema of the partitioned transform.
+   *
+   * @param pipelineMeta The complete pipeline
+   * @param variables The variables to resolve the partition schema with
+   * @param serverName The name of the server, it is added to the name of the schema
+   * @param partitionNrs The numbers of the partitions of the server
+   * @return The partition schema of the server
+   * @throws HopException In case the partition schema is missing or has no partitions
+   */
+  public PartitionSchema createServerPartitionSchema(
+      PipelineMeta pipelineMeta,
+      IVariables variables,
+      String serverName,
+      List<Integer> partitionNrs)
+      throws HopException {
+    List<String> partitionIds = getPartitionIds(pipelineMeta, variables);
+    List<String> serverPartitionIds = new ArrayList<>();
+    for (int partitionNr : partitionNrs) {
+      serverPartitionIds.add(partitionIds.get(partitionNr));
+    }
+    PartitionSchema partitionSchema =
+        pipelineMeta
+            .findTransform(partitionedTransformName)
+            .getTransformPartitioningMeta()
+            .getPartitionSchema();
+    return new PartitionSchema(partitionSchema.getName() + " - " + serverName, serverPartitionIds);
+  }
+
+  /**
+   * Create the part of the pipeline which runs locally.
+   *
+   * @param pipelineMeta The complete pipeline
+   * @return A copy of the pipeline without the transforms running on the servers
+   */
+  public PipelineMeta createLocalPipelineMeta(PipelineMeta pipelineMeta) {
+    PipelineMeta localMeta = MetaFileCache.copyPipelineMeta(pipelineMeta);
+    removeTransforms(localMeta, remoteTransformNames);
+    return localMeta;
+  }
+
+  /**
+   * Create the part of the pipeline which runs on a server. The partitioned transform, and the
+   * transforms on the server partitioned with the same schema, only get the partitions of the
+   * server. The socket reader is partitioned the same way so that each of its copies passes the
+   * rows of one partition to the copy of the partitioned transform running that partition.
+   *
+   * @param pipelineMeta The complete pipeline
+   * @param serverPartitionSchema The partitions which run on the server
+   * @param socketReaderMeta The socket reader which receives the rows of the feeders
+   * @return A copy of the pipeline with the local transforms replaced by a socket reader
+   */
+  public PipelineMeta createRemotePipelineMeta(
+      PipelineMeta pipelineMeta,
+      PartitionSchema serverPartitionSchema,
+      SocketReaderMeta socketReaderMeta) {
+    PipelineMeta remoteMeta = MetaFileCache.copyPipelineMeta(pipelineMeta);
+    Set<String> localNames = new HashSet<>();
+    for (TransformMeta transformMeta : remoteMeta.getTransforms()) {
+      if (!remoteTransformNames.contains(transformMeta.getName())) {
+        localNames.add(transformMeta.getName());
+      }
+    }
+    removeTransforms(remoteMeta, localNames);
+
+    TransformMeta partitioned = remoteMeta.findTransform(partitionedTransformName);
+    String schemaName = partitioned.getTransformPartitioningMeta().getPartitionSchema().getName();
+    for (TransformMeta transformMeta : remoteMeta.getTransforms()) {
+      if (transformMeta.isPartitioned()
+          && transformMeta.getTransformPartitioningMeta().getPartitionSchema() != null
+          && Objects.equals(
+              schemaName,
+              transformMeta.getTransformPartitioningMeta().getPartitionSchema().getName())) {
+        TransformPartitioningMeta partitioningMeta =
+            transformMeta.getTransformPartitioningMeta().clone();
+        partitioningMeta.setPartitionSchema(serverPartitionSchema);
+        transformMeta.setTransformPartitioningMeta(partitioningMeta);
+      }
+    }
+
+    String name = SOCKET_READER_NAME;
+    for (int i = 2; remoteMeta.findTransform(name) != null; i++) {
+      name = SOCKET_READER_NAME + " " + i;
+    }
+    TransformMeta socketReader = new TransformMeta(name, socketReaderMeta);
+    socketReader.setTransformPartitioningMeta(partitioned.getTransformPartitioningMeta().clone());
+    if (partitioned.getLocation() != null) {
+      socketReader.setLocation(
+          Math.max(0, partitioned.getLocation().x - 150), partitioned.getLocation().y);
+    }
+    remoteMeta.addTransform(socketReader);
+    remoteMeta.addPipelineHop(new PipelineHopMeta(socketReader, partitioned));
+    return remoteMeta;
+  }
+
+  private static void removeTransforms(PipelineMeta pipelineMeta, Set<String> names) {
+    for (int i = pipelineMeta.nrPipelineHops() - 1; i >= 0; i--) {
+      PipelineHopMeta hop = pipelineMeta.getPipelineHop(i);
+      if (names.contains(hop.getFromTransform().getName())
+          || names.contains(hop.getToTransform().getName())) {
+        pipelineMeta.removePipelineHop(i);
+      }
+    }
+    for (int i = pipelineMeta.nrTransforms() - 1; i >= 0; i--) {
+      if (names.contains(pipelineMeta.getTransform(i).getName())) {
+        pipelineMeta.removeTransform(i);
+      }
+    }
+  }
+}
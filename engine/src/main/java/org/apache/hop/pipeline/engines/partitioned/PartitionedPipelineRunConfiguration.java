@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.engines.partitioned;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.hop.core.gui.plugin.GuiElementType;
+import org.apache.hop.core.gui.plugin.GuiPlugin;
+import org.apache.hop.core.gui.plugin.GuiWidgetElement;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.metadata.api.HopMetadataProperty;
+import org.apache.hop.metadata.api.HopMetadataPropertyType;
+import org.apache.hop.pipeline.config.IPipelineEngineRunConfiguration;
+import org.apache.hop.pipeline.config.PipelineRunConfiguration;
+import org.apache.hop.pipeline.engines.local.LocalPipelineRunConfiguration;
+
+/**
+ * The part of the pipeline before the partitioned transform runs locally so this configuration has
+ * all the local options as well.
+ */
+@GuiPlugin(description = "Partitioned pipeline run configuration widgets")
+@Getter
+@Setter
+public class PartitionedPipelineRunConfiguration extends LocalPipelineRunConfiguration
+    implements IPipelineEngineRunConfiguration {
+
+  public static final String DEFAULT_PORT_RANGE_START = "40000";
+  public static final String DEFAULT_CONNECT_TIMEOUT_MS = "60000";
+
+  @GuiWidgetElement(
+      id = "partitionedHopServers",
+      order = "200",
+      parentId = PipelineRunConfiguration.GUI_PLUGIN_ELEMENT_PARENT_ID,
+      type = GuiElementType.TEXT,
+      label =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.PartitionedHopServers.Label",
+      toolTip =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.PartitionedHopServers.ToolTip")
+  @HopMetadataProperty(key = "hop_servers")
+  protected String hopServers;
+
+  @GuiWidgetElement(
+      id = "partitionedRunConfiguration",
+      order = "210",
+      parentId = PipelineRunConfiguration.GUI_PLUGIN_ELEMENT_PARENT_ID,
+      type = GuiElementType.METADATA,
+      label =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.PartitionedRunConfiguration.Label",
+      toolTip =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.PartitionedRunConfiguration.ToolTip",
+      metadata = PipelineRunConfiguration.class)
+  @HopMetadataProperty(
+      key = "run_config",
+      hopMetadataPropertyType = HopMetadataPropertyType.PIPELINE_RUN_CONFIG)
+  protected String runConfigurationName;
+
+  @GuiWidgetElement(
+      id = "partitionedTransform",
+      order = "220",
+      parentId = PipelineRunConfiguration.GUI_PLUGIN_ELEMENT_PARENT_ID,
+      type = GuiElementType.TEXT,
+      label =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.PartitionedTransform.Label",
+      toolTip =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.PartitionedTransform.ToolTip")
+  @HopMetadataProperty(key = "partitioned_transform")
+  protected String partitionedTransformName;
+
+  @GuiWidgetElement(
+      id = "partitionedPortRangeStart",
+      order = "230",
+      parentId = PipelineRunConfiguration.GUI_PLUGIN_ELEMENT_PARENT_ID,
+      type = GuiElementType.TEXT,
+      label =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.PartitionedPortRangeStart.Label",
+      toolTip =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.PartitionedPortRangeStart.ToolTip")
+  @HopMetadataProperty(key = "port_range_start")
+  protected String portRangeStart;
+
+  @GuiWidgetElement(
+      id = "partitionedConnectTimeout",
+      order = "240",
+      parentId = PipelineRunConfiguration.GUI_PLUGIN_ELEMENT_PARENT_ID,
+      type = GuiElementType.TEXT,
+      label =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.PartitionedConnectTimeout.Label",
+      toolTip =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.PartitionedConnectTimeout.ToolTip")
+  @HopMetadataProperty(key = "connect_timeout_ms")
+  protected String connectTimeoutMs;
+
+  public PartitionedPipelineRunConfiguration() {
+    super();
+    this.portRangeStart = DEFAULT_PORT_RANGE_START;
+    this.connectTimeoutMs = DEFAULT_CONNECT_TIMEOUT_MS;
+  }
+
+  public PartitionedPipelineRunConfiguration(PartitionedPipelineRunConfiguration config) {
+    super(config);
+    this.hopServers = config.hopServers;
+    this.runConfigurationName = config.runConfigurationName;
+    this.partitionedTransformName = config.partitionedTransformName;
+    this.portRangeStart = config.portRangeStart;
+    this.connectTimeoutMs = config.connectTimeoutMs;
+  }
+
+  @Override
+  public PartitionedPipelineRunConfiguration clone() {
+    return new PartitionedPipelineRunConfiguration(this);
+  }
+
+  /**
+   * @param variables The variables to resolve the list of servers with
+   * @return The names of the Hop servers to run the partitions on
+   */
+  public List<String> resolveHopServerNames(IVariables variables) {
+    List<String> names = new ArrayList<>();
+    for (String name :
+        StringUtils.split(StringUtils.defaultString(variables.resolve(hopServers)), ',')) {
+      if (StringUtils.isNotBlank(name) && !names.contains(name.trim())) {
+        names.add(name.trim());
+      }
+    }
+    return names;
+  }
+}
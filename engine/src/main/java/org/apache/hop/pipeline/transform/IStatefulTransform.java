@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transform;
+
+import java.util.Map;
+import org.apache.hop.core.exception.HopException;
+
+/**
+ * A transform which keeps its state across batches in a durable store, for example in a {@link
+ * org.apache.hop.core.state.StateStore}. The transform which feeds the pipeline, like a Kafka
+ * consumer, checkpoints the state after every batch together with the position up to which the
+ * input was processed. When the pipeline starts again it continues reading from the position of the
+ * last checkpoint, the state of later batches isn't kept.
+ */
+public interface IStatefulTransform {
+
+  /**
+   * @return true if the transform keeps its state in this run
+   */
+  boolean isStateful();
+
+  /**
+   * @return the metadata of the last checkpoint, empty when there was none
+   */
+  Map<String, String> getCheckpointMetadata();
+
+  /**
+   * Make the state of all processed rows durable.
+   *
+   * @param metadata the position of the input up to which the rows were processed
+   * @throws HopException In case the state can't be written
+   */
+  void checkpoint(Map<String, String> metadata) throws HopException;
+}
@@ -35,6 +35,7 @@ import org.apache.hop.metadata.api.IHopMetadataProvider;
 import org.apache.hop.pipeline.PipelineMeta;
 import org.apache.hop.pipeline.engine.EngineComponent.ComponentExecutionStatus;
 import org.apache.hop.pipeline.engine.IEngineComponent;
+import org.apache.hop.pipeline.engine.IEngineMetric;
 import org.apache.hop.pipeline.engine.IPipelineEngine;
 
 /**
@@ -444,6 +445,17 @@ public interface ITransform extends IVariables, IHasLogChannel, IEngineComponent
     return Collections.emptyList();
   }
 
+  /**
+   * Metrics which only make sense for this type of transform, reported next to the row counters.
+   * The values are read while the transform runs so they need to be safe to read from another
+   * thread.
+   *
+   * @return the current value of every transform specific metric
+   */
+  default Map<IEngineMetric, Long> getTransformMetrics() {
+    return Collections.emptyMap();
+  }
+
   default void addRowSetToInputRowSets(IRowSet rowSet) {
     getInputRowSets().add(rowSet);
   }
@@ -0,0 +1,232 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.socketreader;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.i18n.BaseMessages;
+import org.apache.hop.pipeline.Pipeline;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.transform.BaseTransform;
+import org.apache.hop.pipeline.transform.TransformMeta;
+
+/**
+ * Reads the rows sent to a port on this server by a {@link SocketRowWriter}. The port is opened
+ * when the transform is initialized so the sender can connect as soon as the pipeline is prepared.
+ * It only listens on the configured address and a connection is only accepted once the sender has
+ * sent the token of the transform. Other connections are closed and the transform keeps waiting.
+ */
+public class SocketReader extends BaseTransform<SocketReaderMeta, SocketReaderData> {
+
+  private static final Class<?> PKG = SocketReaderMeta.class;
+
+  /** How long a single wait for the connection takes so that we can react to a stop request. */
+  private static final int ACCEPT_POLL_MS = 500;
+
+  /** How long a sender gets to send the token once it is connected */
+  private static final int TOKEN_TIMEOUT_MS = 10000;
+
+  public SocketReader(
+      TransformMeta transformMeta,
+      SocketReaderMeta meta,
+      SocketReaderData data,
+      int copyNr,
+      PipelineMeta pipelineMeta,
+      Pipeline pipeline) {
+    super(transformMeta, meta, data, copyNr, pipelineMeta, pipeline);
+  }
+
+  @Override
+  public boolean init() {
+    if (!super.init()) {
+      return false;
+    }
+
+    // Every copy of a partitioned reader listens on a port of its own
+    //
+    String portString = resolve(meta.getPort());
+    String[] ports = Const.NVL(portString, "").split(",");
+    data.port = getCopy() < ports.length ? Const.toInt(ports[getCopy()].trim(), -1) : -1;
+    if (data.port <= 0 || data.port > 65535) {
+      logError(BaseMessages.getString(PKG, "SocketReader.Error.InvalidPort", portString));
+      return false;
+    }
+    data.token = resolve(meta.getToken());
+    if (StringUtils.isEmpty(data.token)) {
+      logError(BaseMessages.getString(PKG, "SocketReader.Error.NoToken"));
+      return false;
+    }
+
+    String hostname = resolve(meta.getHostname());
+    try {
+      InetAddress address =
+          StringUtils.isEmpty(hostname)
+              ? InetAddress.getLoopbackAddress()
+              : InetAddress.getByName(hostname);
+      data.serverSocket = new ServerSocket();
+      data.serverSocket.setReuseAddress(true);
+      data.serverSocket.setSoTimeout(ACCEPT_POLL_MS);
+      data.serverSocket.bind(new InetSocketAddress(address, data.port));
+    } catch (IOException e) {
+      logError(BaseMessages.getString(PKG, "SocketReader.Error.UnableToListen", data.port), e);
+      closeQuietly();
+      return false;
+    }
+    if (isBasic()) {
+      logBasic(
+          BaseMessages.getString(
+              PKG, "SocketReader.Log.Listening", data.serverSocket.getLocalSocketAddress()));
+    }
+    return true;
+  }
+
+  @Override
+  public boolean processRow() throws HopException {
+    if (first) {
+      first = false;
+      if (!acceptConnection()) {
+        // Stopped while waiting for the sender
+        //
+        setOutputDone();
+        return false;
+      }
+    }
+
+    try {
+      if (!data.inputStream.readBoolean()) {
+        // The sender sent all its rows
+        //
+        setOutputDone();
+        return false;
+      }
+      if (data.rowMeta == null) {
+        data.rowMeta = new RowMeta(data.inputStream);
+      }
+      Object[] row = data.rowMeta.readData(data.inputStream);
+      incrementLinesInput();
+      putRow(data.rowMeta, row);
+    } catch (IOException | HopException e) {
+      if (isStopped()) {
+        setOutputDone();
+        return false;
+      }
+      throw new HopException(
+          BaseMessages.getString(PKG, "SocketReader.Error.ConnectionLost", data.port), e);
+    }
+
+    if (checkFeedback(getLinesInput()) && isBasic()) {
+      logBasic(BaseMessages.getString(PKG, "SocketReader.Log.LineNumber", getLinesInput()));
+    }
+    return true;
+  }
+
+  private boolean acceptConnection() throws HopException {
+    long timeout =
+        Const.toLong(
+            resolve(meta.getAcceptTimeout()),
+            Long.parseLong(SocketReaderMeta.DEFAULT_ACCEPT_TIMEOUT_MS));
+    long deadline = System.currentTimeMillis() + timeout;
+    while (!isStopped()) {
+      if (System.currentTimeMillis() > deadline) {
+        throw new HopException(
+            BaseMessages.getString(PKG, "SocketReader.Error.NoConnection", data.port, timeout));
+      }
+      try {
+        Socket socket = data.serverSocket.accept();
+        DataInputStream inputStream =
+            new DataInputStream(
+                new BufferedInputStream(socket.getInputStream(), SocketRowWriter.BUFFER_SIZE));
+        if (!isTokenReceived(socket, inputStream)) {
+          logError(
+              BaseMessages.getString(
+                  PKG, "SocketReader.Error.InvalidToken", socket.getRemoteSocketAddress()));
+          socket.close();
+          continue;
+        }
+        data.socket = socket;
+        data.inputStream = inputStream;
+        if (isBasic()) {
+          logBasic(
+              BaseMessages.getString(
+                  PKG, "SocketReader.Log.Connected", data.socket.getRemoteSocketAddress()));
+        }
+        return true;
+      } catch (SocketTimeoutException e) {
+        // Look at the deadline and the stop request again
+      } catch (IOException e) {
+        if (isStopped()) {
+          break;
+        }
+        throw new HopException(
+            BaseMessages.getString(PKG, "SocketReader.Error.UnableToListen", data.port), e);
+      }
+    }
+    return false;
+  }
+
+  /** The sender starts with the token, a sender which doesn't know it doesn't get to send rows. */
+  private boolean isTokenReceived(Socket socket, DataInputStream inputStream) {
+    try {
+      socket.setSoTimeout(TOKEN_TIMEOUT_MS);
+      String received = inputStream.readUTF();
+      socket.setSoTimeout(0);
+      return MessageDigest.isEqual(
+          data.token.getBytes(StandardCharsets.UTF_8), received.getBytes(StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  @Override
+  public void stopRunning() throws HopException {
+    // Unblock a read on the connection
+    //
+    closeQuietly();
+  }
+
+  @Override
+  public void dispose() {
+    closeQuietly();
+    super.dispose();
+  }
+
+  private void closeQuietly() {
+    try {
+      if (data.socket != null) {
+        data.socket.close();
+      }
+      if (data.serverSocket != null) {
+        data.serverSocket.close();
+      }
+    } catch (IOException e) {
+      // Nothing to do about it at this point
+    }
+  }
+}
@@ -0,0 +1,202 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.socketreader;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.hop.core.CheckResult;
+import org.apache.hop.core.ICheckResult;
+import org.apache.hop.core.annotations.Transform;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopTransformException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.value.ValueMetaFactory;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.i18n.BaseMessages;
+import org.apache.hop.metadata.api.HopMetadataProperty;
+import org.apache.hop.metadata.api.IHopMetadataProvider;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.transform.BaseTransformMeta;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transforms.injector.InjectorField;
+
+/**
+ * Listens on a port for rows sent by another Hop server with a {@link SocketRowWriter}. The
+ * partitioned pipeline engine uses this transform to feed the part of a pipeline it runs on a Hop
+ * server. The fields describe the rows for the transforms that follow, the actual layout of the
+ * rows is sent along with the rows themselves. Only a sender which knows the token can send rows.
+ */
+@Transform(
+    id = "SocketReader",
+    image = "org/apache/hop/images/injector.svg",
+    name = "i18n:org.apache.hop.pipeline.transform:BaseTransform.TypeLongDesc.SocketReader",
+    description =
+        "i18n:org.apache.hop.pipeline.transform:BaseTransform.TypeTooltipDesc.SocketReader",
+    categoryDescription = "i18n:org.apache.hop.pipeline.transform:BaseTransform.Category.Inline",
+    keywords = "i18n::SocketReaderMeta.keyword",
+    documentationUrl = "/pipeline/transforms/socketreader.html")
+public class SocketReaderMeta extends BaseTransformMeta<SocketReader, SocketReaderData> {
+
+  private static final Class<?> PKG = SocketReaderMeta.class;
+
+  public static final String DEFAULT_ACCEPT_TIMEOUT_MS = "300000";
+
+  /** The host name or IP address to listen on, the loopback address when empty */
+  @HopMetadataProperty(key = "hostname")
+  private String hostname;
+
+  /** The port to listen on, or a comma separated list with a port for every transform copy */
+  @HopMetadataProperty(key = "port")
+  private String port;
+
+  /** The secret a sender has to send before any of its rows are accepted */
+  @HopMetadataProperty(key = "token", password = true)
+  private String token;
+
+  /** The time in milliseconds to wait for the sender to connect */
+  @HopMetadataProperty(key = "accept_timeout")
+  private String acceptTimeout;
+
+  @HopMetadataProperty(groupKey = "fields", key = "field")
+  private List<InjectorField> fields;
+
+  public SocketReaderMeta() {
+    fields = new ArrayList<>();
+    acceptTimeout = DEFAULT_ACCEPT_TIMEOUT_MS;
+  }
+
+  public SocketReaderMeta(SocketReaderMeta m) {
+    this();
+    this.hostname = m.hostname;
+    this.port = m.port;
+    this.token = m.token;
+    this.acceptTimeout = m.acceptTimeout;
+    for (InjectorField field : m.fields) {
+      this.fields.add(new InjectorField(field));
+    }
+  }
+
+  @Override
+  public SocketReaderMeta clone() {
+    return new SocketReaderMeta(this);
+  }
+
+  /**
+   * Describe the rows this transform receives with the given row layout.
+   *
+   * @param rowMeta The layout of the rows sent to this transform
+   */
+  public void setFields(IRowMeta rowMeta) {
+    fields = new ArrayList<>();
+    for (IValueMeta valueMeta : rowMeta.getValueMetaList()) {
+      fields.add(
+          new InjectorField(
+              valueMeta.getName(),
+              ValueMetaFactory.getValueMetaName(valueMeta.getType()),
+              Integer.toString(valueMeta.getLength()),
+              Integer.toString(valueMeta.getPrecision())));
+    }
+  }
+
+  @Override
+  public void getFields(
+      IRowMeta inputRowMeta,
+      String name,
+      IRowMeta[] info,
+      TransformMeta nextTransform,
+      IVariables variables,
+      IHopMetadataProvider metadataProvider)
+      throws HopTransformException {
+    for (InjectorField field : fields) {
+      try {
+        IValueMeta valueMeta = field.createValueMeta(variables);
+        valueMeta.setOrigin(name);
+        inputRowMeta.addValueMeta(valueMeta);
+      } catch (HopException e) {
+        throw new HopTransformException(e);
+      }
+    }
+  }
+
+  @Override
+  public void check(
+      List<ICheckResult> remarks,
+      PipelineMeta pipelineMeta,
+      TransformMeta transformMeta,
+      IRowMeta prev,
+      String[] input,
+      String[] output,
+      IRowMeta info,
+      IVariables variables,
+      IHopMetadataProvider metadataProvider) {
+    if (input.length > 0) {
+      remarks.add(
+          new CheckResult(
+              ICheckResult.TYPE_RESULT_ERROR,
+              BaseMessages.getString(PKG, "SocketReaderMeta.CheckResult.NoInputExpected"),
+              transformMeta));
+    } else {
+      remarks.add(
+          new CheckResult(
+              ICheckResult.TYPE_RESULT_OK,
+              BaseMessages.getString(PKG, "SocketReaderMeta.CheckResult.NoInputOk"),
+              transformMeta));
+    }
+  }
+
+  public String getHostname() {
+    return hostname;
+  }
+
+  public void setHostname(String hostname) {
+    this.hostname = hostname;
+  }
+
+  public String getPort() {
+    return port;
+  }
+
+  public void setPort(String port) {
+    this.port = port;
+  }
+
+  public String getToken() {
+    return token;
+  }
+
+  public void setToken(String token) {
+    this.token = token;
+  }
+
+  public String getAcceptTimeout() {
+    return acceptTimeout;
+  }
+
+  public void setAcceptTimeout(String acceptTimeout) {
+    this.acceptTimeout = acceptTimeout;
+  }
+
+  public List<InjectorField> getFields() {
+    return fields;
+  }
+
+  public void setFields(List<InjectorField> fields) {
+    this.fields = fields;
+  }
+}
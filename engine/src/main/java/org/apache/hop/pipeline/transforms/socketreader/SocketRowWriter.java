@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.socketreader;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.function.BooleanSupplier;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+
+/**
+ * Sends rows to a {@link SocketReader} transform listening on another server.
+ *
+ * <p>The writer starts with the token of the reader, the reader closes the connection of a writer
+ * which sends the wrong token. Every row is preceded by <code>true</code>, the first row also by
+ * the row layout. The end of the rows is marked with <code>false</code>. When the connection is
+ * closed without that marker the reader fails, which is how an error on the sending side is passed
+ * on.
+ *
+ * <p>Several transform copies can share a writer, the rows are written one at a time.
+ */
+public class SocketRowWriter implements AutoCloseable {
+
+  public static final int BUFFER_SIZE = 65536;
+
+  /** How long a single connection attempt can take */
+  private static final int CONNECT_ATTEMPT_MS = 5000;
+
+  /** The time to wait before trying to connect again */
+  private static final long CONNECT_RETRY_DELAY_MS = 250L;
+
+  private final Socket socket;
+  private final DataOutputStream outputStream;
+  private boolean rowMetaWritten;
+  private volatile boolean closed;
+
+  public SocketRowWriter(Socket socket, String token) throws IOException {
+    this.socket = socket;
+    this.outputStream =
+        new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE));
+    outputStream.writeUTF(token);
+    outputStream.flush();
+  }
+
+  /**
+   * Connect to a socket reader. The reader might not be listening yet so connecting is retried
+   * until it succeeds or until the timeout is reached.
+   *
+   * @param hostname The host the reader runs on
+   * @param port The port the reader listens on
+   * @param token The token the reader expects
+   * @param timeoutMs The maximum time in milliseconds to keep trying
+   * @param stopped Tells us to give up early
+   * @return The connected writer
+   * @throws HopException In case no connection could be made
+   */
+  public static SocketRowWriter connect(
+      String hostname, int port, String token, long timeoutMs, BooleanSupplier stopped)
+      throws HopException {
+    long deadline = System.currentTimeMillis() + timeoutMs;
+    IOException lastError;
+    do {
+      Socket socket = new Socket();
+      try {
+        socket.connect(new InetSocketAddress(hostname, port), CONNECT_ATTEMPT_MS);
+        return new SocketRowWriter(socket, token);
+      } catch (IOException e) {
+        lastError = e;
+        try {
+          socket.close();
+        } catch (IOException ignored) {
+          // Never connected
+        }
+      }
+      try {
+        Thread.sleep(CONNECT_RETRY_DELAY_MS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    } while (System.currentTimeMillis() < deadline && !stopped.getAsBoolean());
+
+    throw new HopException(
+        "Unable to connect to " + hostname + ":" + port + " within " + timeoutMs + " ms",
+        lastError);
+  }
+
+  /**
+   * Send a row.
+   *
+   * @param rowMeta The layout of the row
+   * @param row The row data
+   * @throws HopException In case the row couldn't be sent
+   */
+  public synchronized void writeRow(IRowMeta rowMeta, Object[] row) throws HopException {
+    if (closed) {
+      throw new HopException("Unable to send a row over a closed connection");
+    }
+    try {
+      outputStream.writeBoolean(true);
+      if (!rowMetaWritten) {
+        rowMeta.writeMeta(outputStream);
+        rowMetaWritten = true;
+      }
+      rowMeta.writeData(outputStream, row);
+    } catch (IOException | HopException e) {
+      throw new HopException("Unable to send a row to " + socket.getRemoteSocketAddress(), e);
+    }
+  }
+
+  /**
+   * Mark the end of the rows and close the connection.
+   *
+   * @throws HopException In case the end of the rows couldn't be sent
+   */
+  @Override
+  public synchronized void close() throws HopException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      outputStream.writeBoolean(false);
+      outputStream.flush();
+    } catch (IOException e) {
+      throw new HopException(
+          "Unable to send the end of the rows to " + socket.getRemoteSocketAddress(), e);
+    } finally {
+      closeSocket();
+    }
+  }
+
+  /**
+   * Close the connection without marking the end of the rows so the reader fails. This doesn't wait
+   * for a row being written, closing the socket interrupts that write.
+   */
+  public void abort() {
+    closed = true;
+    closeSocket();
+  }
+
+  public boolean isClosed() {
+    return closed;
+  }
+
+  private void closeSocket() {
+    try {
+      socket.close();
+    } catch (IOException e) {
+      // Nothing left to do
+    }
+  }
+}
@@ -109,6 +109,12 @@ public final class HopServerProbe {
     snapshot.setMemoryTotal(status.getMemoryTotal());
     snapshot.setCpuCores(status.getCpuCores());
     snapshot.setCpuProcessTime(status.getCpuProcessTime());
+    if (status.getRunningTransformThreads() >= 0) {
+      snapshot.setRunningTransformThreads(status.getRunningTransformThreads());
+    }
+    if (status.getRowsPerSecond() >= 0) {
+      snapshot.setRowsPerSecond(status.getRowsPerSecond());
+    }
     snapshot.setOsName(status.getOsName());
     snapshot.setOsVersion(status.getOsVersion());
     snapshot.setOsArchitecture(status.getOsArchitecture());
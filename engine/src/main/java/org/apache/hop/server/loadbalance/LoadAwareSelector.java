@@ -0,0 +1,241 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.server.loadbalance;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+
+/**
+ * Picks a server for {@link LoadBalancingAlgorithm#LOAD_AWARE}.
+ *
+ * <p>Every eligible server gets a load score between 0 (idle) and 1 (saturated). The score combines
+ * the CPU load per core, the used heap, the running transform threads per core, the rows per second
+ * per core compared to the rest of the group and the occupied execution slots. Since everything
+ * except the slots is measured per core, a big server only scores as busy as a small one when it
+ * does proportionally more work.
+ *
+ * <p>A single probe is a noisy measurement so the machine metrics are smoothed per server with an
+ * exponentially decayed average: a sample loses half of its weight every {@link
+ * #DEFAULT_HALF_LIFE_MS} milliseconds. The history of a server which wasn't probed for {@link
+ * #HISTORY_HALF_LIVES} half-lives is dropped: its old samples would have no weight left anyway.
+ *
+ * <p>Instead of always taking the server with the lowest score, two random eligible servers are
+ * compared and the least loaded one wins (the "power of two choices"). Concurrent clients looking
+ * at the same probe results then don't all pile onto the same server, while a busy server still
+ * almost never gets picked.
+ */
+final class LoadAwareSelector {
+
+  static final long DEFAULT_HALF_LIFE_MS = 30000L;
+
+  /** After 10 half-lives a sample has less than 0.1% of its weight left. */
+  static final int HISTORY_HALF_LIVES = 10;
+
+  /** A load of 2 per core counts as a saturated CPU. */
+  static final double CPU_LOAD_SATURATION = 2.0;
+
+  /** 4 running transform threads per core counts as saturated. */
+  static final double TRANSFORM_THREADS_SATURATION = 4.0;
+
+  static final double CPU_WEIGHT = 0.3;
+  static final double MEMORY_WEIGHT = 0.2;
+  static final double THREADS_WEIGHT = 0.2;
+  static final double THROUGHPUT_WEIGHT = 0.1;
+  static final double SLOTS_WEIGHT = 0.2;
+
+  private static final LoadAwareSelector instance =
+      new LoadAwareSelector(System::currentTimeMillis, null, DEFAULT_HALF_LIFE_MS);
+
+  private final Map<String, DecayedLoad> history;
+  private final LongSupplier clock;
+  private final Random random;
+  private final long halfLifeMs;
+
+  /**
+   * @param clock The clock in milliseconds, used to decay the history
+   * @param random The random generator to use, null for {@link ThreadLocalRandom}
+   * @param halfLifeMs The time in milliseconds after which a sample lost half of its weight
+   */
+  LoadAwareSelector(LongSupplier clock, Random random, long halfLifeMs) {
+    this.history = new ConcurrentHashMap<>();
+    this.clock = clock;
+    this.random = random;
+    this.halfLifeMs = Math.max(1L, halfLifeMs);
+  }
+
+  static LoadAwareSelector getInstance() {
+    return instance;
+  }
+
+  /**
+   * Select one of the eligible servers.
+   *
+   * @param eligible The eligible servers, at least one
+   * @return The selected server
+   */
+  ServerHealthSnapshot select(List<ServerHealthSnapshot> eligible) {
+    Map<ServerHealthSnapshot, DecayedLoad> loads = new HashMap<>();
+    long now = clock.getAsLong();
+    pruneHistory(now);
+    double maxRowsPerSecondPerCore = 0.0;
+    for (ServerHealthSnapshot snapshot : eligible) {
+      DecayedLoad load = record(snapshot, now);
+      loads.put(snapshot, load);
+      maxRowsPerSecondPerCore = Math.max(maxRowsPerSecondPerCore, load.getRowsPerSecondPerCore());
+    }
+    if (eligible.size() == 1) {
+      return eligible.get(0);
+    }
+
+    int first = nextInt(eligible.size());
+    int second = nextInt(eligible.size() - 1);
+    if (second >= first) {
+      second++;
+    }
+    ServerHealthSnapshot a = eligible.get(first);
+    ServerHealthSnapshot b = eligible.get(second);
+    double scoreA = score(a, loads.get(a), maxRowsPerSecondPerCore);
+    double scoreB = score(b, loads.get(b), maxRowsPerSecondPerCore);
+    if (scoreA != scoreB) {
+      return scoreA < scoreB ? a : b;
+    }
+    return LoadBalancingSelector.evenLoadOrder().compare(a, b) <= 0 ? a : b;
+  }
+
+  /**
+   * Calculate the load score of a server.
+   *
+   * @param snapshot The latest probe of the server
+   * @param load The decayed machine metrics of the server
+   * @param maxRowsPerSecondPerCore The highest decayed throughput per core in the group
+   * @return A score between 0 (idle) and 1 (saturated)
+   */
+  static double score(
+      ServerHealthSnapshot snapshot, DecayedLoad load, double maxRowsPerSecondPerCore) {
+    double cpu = Math.min(load.getLoadPerCore(), CPU_LOAD_SATURATION) / CPU_LOAD_SATURATION;
+    double threads =
+        Math.min(load.getTransformThreadsPerCore(), TRANSFORM_THREADS_SATURATION)
+            / TRANSFORM_THREADS_SATURATION;
+    double throughput =
+        maxRowsPerSecondPerCore <= 0.0
+            ? 0.0
+            : load.getRowsPerSecondPerCore() / maxRowsPerSecondPerCore;
+    double slots = Math.min(snapshot.utilization(), 1.0);
+    return CPU_WEIGHT * cpu
+        + MEMORY_WEIGHT * load.getUsedMemoryRatio()
+        + THREADS_WEIGHT * threads
+        + THROUGHPUT_WEIGHT * throughput
+        + SLOTS_WEIGHT * slots;
+  }
+
+  /** Add the metrics of a probe to the decayed history of the server. */
+  DecayedLoad record(ServerHealthSnapshot snapshot, long now) {
+    String key = snapshot.getHopServerName() == null ? "" : snapshot.getHopServerName();
+    DecayedLoad load = history.computeIfAbsent(key, k -> new DecayedLoad());
+    load.update(
+        now,
+        halfLifeMs,
+        Math.max(0.0, snapshot.loadPerCore()),
+        snapshot.usedMemoryRatio(),
+        snapshot.transformThreadsPerCore(),
+        snapshot.rowsPerSecondPerCore());
+    return load;
+  }
+
+  /** Forget the servers which weren't probed for a long time, removed servers for example. */
+  void pruneHistory(long now) {
+    long maxAgeMs = HISTORY_HALF_LIVES * halfLifeMs;
+    // A new entry without a sample yet is being recorded by another thread
+    //
+    history
+        .values()
+        .removeIf(load -> load.getLastUpdateMs() >= 0 && now - load.getLastUpdateMs() > maxAgeMs);
+  }
+
+  int getHistorySize() {
+    return history.size();
+  }
+
+  void clearHistory() {
+    history.clear();
+  }
+
+  private int nextInt(int bound) {
+    return random == null ? ThreadLocalRandom.current().nextInt(bound) : random.nextInt(bound);
+  }
+
+  /** Exponentially decayed machine metrics of one server. */
+  static final class DecayedLoad {
+    private long lastUpdateMs = -1L;
+    private double loadPerCore;
+    private double usedMemoryRatio;
+    private double transformThreadsPerCore;
+    private double rowsPerSecondPerCore;
+
+    synchronized void update(
+        long now,
+        long halfLifeMs,
+        double loadPerCore,
+        double usedMemoryRatio,
+        double transformThreadsPerCore,
+        double rowsPerSecondPerCore) {
+      if (lastUpdateMs < 0) {
+        this.loadPerCore = loadPerCore;
+        this.usedMemoryRatio = usedMemoryRatio;
+        this.transformThreadsPerCore = transformThreadsPerCore;
+        this.rowsPerSecondPerCore = rowsPerSecondPerCore;
+      } else {
+        // The weight of the new sample grows with the time since the previous one.
+        //
+        long elapsed = Math.max(0L, now - lastUpdateMs);
+        double weight = 1.0 - Math.pow(0.5, (double) elapsed / halfLifeMs);
+        this.loadPerCore += weight * (loadPerCore - this.loadPerCore);
+        this.usedMemoryRatio += weight * (usedMemoryRatio - this.usedMemoryRatio);
+        this.transformThreadsPerCore +=
+            weight * (transformThreadsPerCore - this.transformThreadsPerCore);
+        this.rowsPerSecondPerCore += weight * (rowsPerSecondPerCore - this.rowsPerSecondPerCore);
+      }
+      lastUpdateMs = Math.max(lastUpdateMs, now);
+    }
+
+    synchronized long getLastUpdateMs() {
+      return lastUpdateMs;
+    }
+
+    synchronized double getLoadPerCore() {
+      return loadPerCore;
+    }
+
+    synchronized double getUsedMemoryRatio() {
+      return usedMemoryRatio;
+    }
+
+    synchronized double getTransformThreadsPerCore() {
+      return transformThreadsPerCore;
+    }
+
+    synchronized double getRowsPerSecondPerCore() {
+      return rowsPerSecondPerCore;
+    }
+  }
+}
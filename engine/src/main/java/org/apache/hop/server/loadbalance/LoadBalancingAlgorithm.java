@@ -22,7 +22,8 @@ import org.apache.hop.metadata.api.IEnumHasCodeAndDescription;
 /** How a load-balancing engine picks an eligible Hop Server. */
 public enum LoadBalancingAlgorithm implements IEnumHasCodeAndDescription {
   EVEN_LOAD("even-load", "Even load"),
-  PACK("pack", "Keep as few servers busy as possible");
+  PACK("pack", "Keep as few servers busy as possible"),
+  LOAD_AWARE("load-aware", "Load aware");
 
   private final String code;
   private final String description;
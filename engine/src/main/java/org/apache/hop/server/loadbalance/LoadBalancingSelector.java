@@ -42,6 +42,9 @@ public final class LoadBalancingSelector {
     }
     LoadBalancingAlgorithm resolved =
         algorithm == null ? LoadBalancingAlgorithm.EVEN_LOAD : algorithm;
+    if (resolved == LoadBalancingAlgorithm.LOAD_AWARE) {
+      return Optional.of(LoadAwareSelector.getInstance().select(eligible));
+    }
     Comparator<ServerHealthSnapshot> comparator =
         resolved == LoadBalancingAlgorithm.PACK ? packOrder() : evenLoadOrder();
     eligible.sort(comparator);
@@ -37,6 +37,8 @@ public class ServerHealthSnapshot {
   private Long memoryTotal;
   private Integer cpuCores;
   private Long cpuProcessTime;
+  private Integer runningTransformThreads;
+  private Double rowsPerSecond;
   private String osName;
   private String osVersion;
   private String osArchitecture;
@@ -79,6 +81,28 @@ public class ServerHealthSnapshot {
     return load / cores;
   }
 
+  /**
+   * @return The fraction of the allocated heap that is in use, 0 if the server didn't report it
+   */
+  public double usedMemoryRatio() {
+    if (memoryTotal == null || memoryFree == null || memoryTotal <= 0) {
+      return 0.0;
+    }
+    return Math.max(0.0, Math.min(1.0, 1.0 - (double) memoryFree / (double) memoryTotal));
+  }
+
+  public double transformThreadsPerCore() {
+    int cores = cpuCores == null || cpuCores <= 0 ? 1 : cpuCores;
+    int threads = runningTransformThreads == null ? 0 : Math.max(0, runningTransformThreads);
+    return (double) threads / cores;
+  }
+
+  public double rowsPerSecondPerCore() {
+    int cores = cpuCores == null || cpuCores <= 0 ? 1 : cpuCores;
+    double rows = rowsPerSecond == null ? 0.0 : Math.max(0.0, rowsPerSecond);
+    return rows / cores;
+  }
+
   public String skipReason() {
     if (!enabled) {
       return "disabled";
@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hop.www;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Serial;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.annotations.HopServerServlet;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.util.Utils;
+import org.apache.hop.core.xml.XmlHandler;
+import org.owasp.encoder.Encode;
+
+/**
+ * Allocates a port on this server for a transform that receives rows over a socket from another
+ * server. The port has to be free on the given host name, the address the transform listens on. The
+ * port is returned as the ID of the web result. Passing <code>release=Y</code> releases all the
+ * ports allocated for the given cluster run ID.
+ */
+@HopServerServlet(id = "allocateSocket", name = "Allocate a server socket port")
+public class AllocateServerSocketServlet extends BaseHttpServlet implements IHopServerPlugin {
+  @Serial private static final long serialVersionUID = 3634806745372015720L;
+
+  public static final String CONTEXT_PATH = "/hop/allocateSocket";
+
+  public static final String PARAM_RANGE_START = "rangeStart";
+  public static final String PARAM_HOSTNAME = "hostname";
+  public static final String PARAM_ID = "id";
+  public static final String PARAM_NAME = "name";
+  public static final String PARAM_SOURCE_SERVER = "sourceServer";
+  public static final String PARAM_SOURCE_TRANSFORM = "sourceTransform";
+  public static final String PARAM_SOURCE_COPY = "sourceCopy";
+  public static final String PARAM_TARGET_SERVER = "targetServer";
+  public static final String PARAM_TARGET_TRANSFORM = "targetTransform";
+  public static final String PARAM_TARGET_COPY = "targetCopy";
+  public static final String PARAM_RELEASE = "release";
+
+  public AllocateServerSocketServlet() {}
+
+  public AllocateServerSocketServlet(PipelineMap pipelineMap) {
+    super(pipelineMap);
+  }
+
+  @Override
+  public void doGet(HttpServletRequest request, HttpServletResponse response)
+      throws ServletException, IOException {
+    if (isJettyMode() && !request.getContextPath().startsWith(CONTEXT_PATH)) {
+      return;
+    }
+
+    String clusterRunId = request.getParameter(PARAM_ID);
+    boolean release = "Y".equalsIgnoreCase(request.getParameter(PARAM_RELEASE));
+    boolean useXML = "Y".equalsIgnoreCase(request.getParameter("xml"));
+    boolean useJson = isJsonRequest(request);
+
+    setResponseFormat(response, useXML, useJson);
+    PrintWriter out = getSafeWriter(response);
+    if (out == null) {
+      return;
+    }
+
+    WebResult webResult;
+    if (Utils.isEmpty(clusterRunId)) {
+      response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+      webResult = new WebResult(WebResult.STRING_ERROR, "Please specify the cluster run ID");
+    } else if (release) {
+      response.setStatus(HttpServletResponse.SC_OK);
+      int released = getPipelineMap().deallocateServerSocketPorts(clusterRunId);
+      webResult =
+          new WebResult(
+              WebResult.STRING_OK,
+              "Released " + released + " port(s) of cluster run " + clusterRunId,
+              clusterRunId);
+    } else {
+      int rangeStart = Const.toInt(request.getParameter(PARAM_RANGE_START), -1);
+      if (rangeStart <= 0 || rangeStart > 65535) {
+        response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+        webResult =
+            new WebResult(WebResult.STRING_ERROR, "Please specify a valid start of the port range");
+      } else {
+        try {
+          SocketPortAllocation allocation =
+              getPipelineMap()
+                  .allocateServerSocketPort(
+                      rangeStart,
+                      request.getParameter(PARAM_HOSTNAME),
+                      clusterRunId,
+                      request.getParameter(PARAM_NAME),
+                      request.getParameter(PARAM_SOURCE_SERVER),
+                      request.getParameter(PARAM_SOURCE_TRANSFORM),
+                      request.getParameter(PARAM_SOURCE_COPY),
+                      request.getParameter(PARAM_TARGET_SERVER),
+                      request.getParameter(PARAM_TARGET_TRANSFORM),
+                      request.getParameter(PARAM_TARGET_COPY));
+          response.setStatus(HttpServletResponse.SC_OK);
+          webResult =
+              new WebResult(
+                  WebResult.STRING_OK,
+                  "Allocated port " + allocation.getPort(),
+                  Integer.toString(allocation.getPort()));
+        } catch (HopException e) {
+          response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+          webResult = new WebResult(WebResult.STRING_ERROR, e.getMessage());
+        }
+      }
+    }
+
+    if (useXML) {
+      out.print(XmlHandler.getXmlHeader(Const.UTF_8));
+      out.print(webResult.getXml());
+    } else if (useJson) {
+      out.println(webResult.getJson());
+    } else {
+      out.println(Encode.forHtml(webResult.getMessage()));
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "Allocate server socket servlet";
+  }
+
+  @Override
+  public String getService() {
+    return CONTEXT_PATH + " (" + toString() + ")";
+  }
+
+  @Override
+  public String getContextPath() {
+    return CONTEXT_PATH;
+  }
+}
@@ -26,6 +26,7 @@ import java.io.Serial;
 import java.util.Enumeration;
 import java.util.UUID;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.hop.base.MetaFileCache;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.annotations.HopServerServlet;
 import org.apache.hop.core.exception.HopException;
@@ -139,9 +140,9 @@ public class ExecPipelineServlet extends BaseHttpServlet implements IHopServerPl
       // Resolve variables in the pipeline path (e.g., ${PROJECT_HOME})
       String resolvedPipelinePath = variables.resolve(pipelineOption);
 
-      // Load pipeline from file
+      // Load pipeline from file, or take a copy of the already parsed file
       PipelineMeta pipelineMeta =
-          new PipelineMeta(resolvedPipelinePath, metadataProvider, variables);
+          MetaFileCache.loadPipelineMeta(resolvedPipelinePath, metadataProvider, variables);
 
       // Set the servlet parameters as variables/parameters in the pipeline
       String[] parameters = pipelineMeta.listParameters();
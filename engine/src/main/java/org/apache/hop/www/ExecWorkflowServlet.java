@@ -26,6 +26,7 @@ import java.io.Serial;
 import java.util.Enumeration;
 import java.util.UUID;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.hop.base.MetaFileCache;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.Result;
 import org.apache.hop.core.annotations.HopServerServlet;
@@ -139,9 +140,9 @@ public class ExecWorkflowServlet extends BaseHttpServlet implements IHopServerPl
       // Resolve variables in the workflow path (e.g., ${PROJECT_HOME})
       String resolvedWorkflowPath = variables.resolve(workflowOption);
 
-      // Load workflow from file
+      // Load workflow from file, or take a copy of the already parsed file
       WorkflowMeta workflowMeta =
-          new WorkflowMeta(variables, resolvedWorkflowPath, metadataProvider);
+          MetaFileCache.loadWorkflowMeta(resolvedWorkflowPath, metadataProvider, variables);
 
       // Set the servlet parameters as variables/parameters in the workflow
       String[] parameters = workflowMeta.listParameters();
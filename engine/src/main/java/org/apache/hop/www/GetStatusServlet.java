@@ -30,7 +30,9 @@ import java.lang.management.ThreadMXBean;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.annotations.HopServerServlet;
 import org.apache.hop.core.exception.HopException;
@@ -39,6 +41,7 @@ import org.apache.hop.core.logging.HopLogStore;
 import org.apache.hop.core.xml.XmlHandler;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.engine.IEngineComponent;
 import org.apache.hop.pipeline.engine.IPipelineEngine;
 import org.apache.hop.workflow.WorkflowMeta;
 import org.apache.hop.workflow.engine.IWorkflowEngine;
@@ -80,6 +83,9 @@ public class GetStatusServlet extends BaseHttpServlet implements IHopServerPlugi
   private static final String CONST_CLOSE_BRACKET = "}";
   private static final String CONST_SINGLE_QUOTE = "'";
 
+  /** The recent throughput of the running transforms, shared by all status requests */
+  private static final TransformRowRates rowRates = new TransformRowRates();
+
   public GetStatusServlet() {}
 
   public GetStatusServlet(PipelineMap pipelineMap, WorkflowMap workflowMap) {
@@ -121,10 +127,28 @@ public class GetStatusServlet extends BaseHttpServlet implements IHopServerPlugi
 
         getSystemInfo(serverStatus);
 
+        int runningTransformThreads = 0;
+        double rowsPerSecond = 0.0;
+        Set<String> runningTransforms = new HashSet<>();
+        long now = System.currentTimeMillis();
         for (HopServerObjectEntry entry : pipelineEntries) {
           IPipelineEngine<PipelineMeta> pipeline = getPipelineMap().getPipeline(entry);
           String statusDescription = pipeline.getStatusDescription();
 
+          if (pipeline.isRunning() && pipeline.getComponents() != null) {
+            for (IEngineComponent component : pipeline.getComponents()) {
+              if (component.isRunning()) {
+                runningTransformThreads++;
+                String key =
+                    entry.getId() + "/" + component.getName() + "." + component.getCopyNr();
+                runningTransforms.add(key);
+                rowsPerSecond +=
+                    rowRates.rowsPerSecond(
+                        key, component.getLinesWritten(), component.getExecutionDuration(), now);
+              }
+            }
+          }
+
           HopServerPipelineStatus pipelineStatus =
               new HopServerPipelineStatus(entry.getName(), entry.getId(), statusDescription);
           pipelineStatus.setLogDate(new Date());
@@ -134,6 +158,10 @@ public class GetStatusServlet extends BaseHttpServlet implements IHopServerPlugi
           serverStatus.getPipelineStatusList().add(pipelineStatus);
         }
 
+        rowRates.retain(runningTransforms);
+        serverStatus.setRunningTransformThreads(runningTransformThreads);
+        serverStatus.setRowsPerSecond(rowsPerSecond);
+
         for (HopServerObjectEntry entry : actions) {
           IWorkflowEngine<WorkflowMeta> workflow = getWorkflowMap().getWorkflow(entry);
           String status = workflow.getStatusDescription();
@@ -47,6 +47,13 @@ public class HopServerStatus {
   @Getter @Setter private long uptime;
   @Getter @Setter private int threadCount;
   @Getter @Setter private double loadAvg;
+
+  /** The number of transform copies currently running in all pipelines on the server. */
+  @Getter @Setter private int runningTransformThreads;
+
+  /** The combined number of rows per second written by the running transforms on the server. */
+  @Getter @Setter private double rowsPerSecond;
+
   @Getter @Setter private String osName;
   @Getter @Setter private String osVersion;
   @Getter @Setter private String osArchitecture;
@@ -93,6 +100,8 @@ public class HopServerStatus {
     xml.append(XmlHandler.addTagValue("thread_count", threadCount));
 
     xml.append(XmlHandler.addTagValue("load_avg", loadAvg));
+    xml.append(XmlHandler.addTagValue("running_transform_threads", runningTransformThreads));
+    xml.append(XmlHandler.addTagValue("rows_per_second", rowsPerSecond));
 
     xml.append(XmlHandler.addTagValue("os_name", osName));
     xml.append(XmlHandler.addTagValue("os_version", osVersion));
@@ -131,6 +140,9 @@ public class HopServerStatus {
     uptime = Const.toLong(XmlHandler.getTagValue(statusNode, "uptime"), -1);
     threadCount = Const.toInt(XmlHandler.getTagValue(statusNode, "thread_count"), -1);
     loadAvg = Const.toDouble(XmlHandler.getTagValue(statusNode, "load_avg"), -1.0);
+    runningTransformThreads =
+        Const.toInt(XmlHandler.getTagValue(statusNode, "running_transform_threads"), -1);
+    rowsPerSecond = Const.toDouble(XmlHandler.getTagValue(statusNode, "rows_per_second"), -1.0);
 
     osName = XmlHandler.getTagValue(statusNode, "os_name");
     osVersion = XmlHandler.getTagValue(statusNode, "os_version");
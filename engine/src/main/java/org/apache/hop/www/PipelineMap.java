@@ -17,24 +17,43 @@
 
 package org.apache.hop.www;
 
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.UnknownHostException;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.util.Utils;
 import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineConfiguration;
 import org.apache.hop.pipeline.PipelineMeta;
 import org.apache.hop.pipeline.engine.IPipelineEngine;
+import org.apache.hop.www.service.WebServicePipelinePool;
 
 /** This is a map between the pipeline name and the (running/waiting/finished) pipeline. */
 public class PipelineMap {
+  /** The highest TCP port number */
+  private static final int MAX_PORT = 65535;
+
   private final Map<HopServerObjectEntry, PipelineData> pipelineMap;
 
+  private final Map<String, WebServicePipelinePool> webServicePools;
+
+  private final List<SocketPortAllocation> serverSocketPortAllocations;
+
   private HopServerConfig hopServerConfig;
 
   public PipelineMap() {
     pipelineMap = new ConcurrentHashMap<>();
+    webServicePools = new ConcurrentHashMap<>();
+    serverSocketPortAllocations = new ArrayList<>();
   }
 
   /**
@@ -133,6 +152,189 @@ public class PipelineMap {
     return null;
   }
 
+  /**
+   * Get the pool of prepared pipelines for a pooled web service. A new pool is created if there
+   * isn't one yet or if the web service settings changed since the pool was created.
+   *
+   * @param serviceName The name of the web service
+   * @param filename The resolved pipeline filename
+   * @param runConfigurationName The resolved run configuration name
+   * @param size The number of prepared pipelines to keep around
+   * @return The pool for the web service
+   */
+  public WebServicePipelinePool getWebServicePool(
+      String serviceName, String filename, String runConfigurationName, int size) {
+    synchronized (webServicePools) {
+      WebServicePipelinePool pool = webServicePools.get(serviceName);
+      if (pool == null || !pool.matches(filename, runConfigurationName, size)) {
+        if (pool != null) {
+          pool.close();
+        }
+        pool =
+            new WebServicePipelinePool(
+                serviceName,
+                filename,
+                runConfigurationName,
+                size,
+                hopServerConfig.getVariables(),
+                hopServerConfig.getMetadataProvider());
+        webServicePools.put(serviceName, pool);
+      }
+      return pool;
+    }
+  }
+
+  /** Release the prepared pipelines of all pooled web services. */
+  public void closeWebServicePools() {
+    synchronized (webServicePools) {
+      for (WebServicePipelinePool pool : webServicePools.values()) {
+        pool.close();
+      }
+      webServicePools.clear();
+    }
+  }
+
+  /**
+   * Allocate a server socket port on this server for a pipeline that streams rows between servers.
+   * Asking again for the same source and target in the same cluster run returns the same port. A
+   * new allocation gets the lowest port, starting at the given start of the port range, which isn't
+   * allocated yet and which isn't used by another program on the given address of this server.
+   *
+   * @param portRangeStart The first port to consider
+   * @param hostname The host name or address the port is opened on, the loopback address when empty
+   * @param clusterRunId The unique ID of the execution the port is used in
+   * @param pipelineName The name of the pipeline that listens on the port
+   * @param sourceServerName The name of the server sending the rows
+   * @param sourceTransformName The name of the transform sending the rows
+   * @param sourceTransformCopy The copy of the transform sending the rows
+   * @param targetServerName The name of the server receiving the rows, this one
+   * @param targetTransformName The name of the transform receiving the rows
+   * @param targetTransformCopy The copy of the transform receiving the rows
+   * @return The port allocation
+   * @throws HopException when all the ports from the start of the port range are in use or when the
+   *     host name is unknown
+   */
+  public SocketPortAllocation allocateServerSocketPort(
+      int portRangeStart,
+      String hostname,
+      String clusterRunId,
+      String pipelineName,
+      String sourceServerName,
+      String sourceTransformName,
+      String sourceTransformCopy,
+      String targetServerName,
+      String targetTransformName,
+      String targetTransformCopy)
+      throws HopException {
+    synchronized (serverSocketPortAllocations) {
+      for (SocketPortAllocation allocation : serverSocketPortAllocations) {
+        if (allocation.isAllocated()
+            && Objects.equals(allocation.getClusterRunId(), clusterRunId)
+            && Objects.equals(allocation.getSourceServerName(), sourceServerName)
+            && Objects.equals(allocation.getSourceTransformName(), sourceTransformName)
+            && Objects.equals(allocation.getSourceTransformCopy(), sourceTransformCopy)
+            && Objects.equals(allocation.getTargetServerName(), targetServerName)
+            && Objects.equals(allocation.getTargetTransformName(), targetTransformName)
+            && Objects.equals(allocation.getTargetTransformCopy(), targetTransformCopy)) {
+          allocation.setLastRequested(new Date());
+          return allocation;
+        }
+      }
+
+      InetAddress address = getAddress(hostname);
+      int port = portRangeStart;
+      while (port <= MAX_PORT
+          && (isServerSocketPortAllocated(port) || !isPortFree(address, port))) {
+        port++;
+      }
+      if (port > MAX_PORT) {
+        throw new HopException(
+            "Unable to allocate a server socket port: all ports from "
+                + portRangeStart
+                + " up to "
+                + MAX_PORT
+                + " are in use");
+      }
+      SocketPortAllocation allocation =
+          new SocketPortAllocation(
+              port,
+              new Date(),
+              clusterRunId,
+              pipelineName,
+              sourceServerName,
+              sourceTransformName,
+              sourceTransformCopy,
+              targetServerName,
+              targetTransformName,
+              targetTransformCopy);
+      // Replace a released allocation of the same port, allocations are equal by port
+      //
+      serverSocketPortAllocations.remove(allocation);
+      serverSocketPortAllocations.add(allocation);
+      return allocation;
+    }
+  }
+
+  /**
+   * Release all the server socket ports allocated for a cluster run.
+   *
+   * @param clusterRunId The unique ID of the execution
+   * @return The number of released ports
+   */
+  public int deallocateServerSocketPorts(String clusterRunId) {
+    int released = 0;
+    synchronized (serverSocketPortAllocations) {
+      for (SocketPortAllocation allocation : serverSocketPortAllocations) {
+        if (allocation.isAllocated()
+            && Objects.equals(allocation.getClusterRunId(), clusterRunId)) {
+          allocation.setAllocated(false);
+          released++;
+        }
+      }
+    }
+    return released;
+  }
+
+  /**
+   * @return A copy of the list of server socket port allocations
+   */
+  public List<SocketPortAllocation> getServerSocketPortAllocations() {
+    synchronized (serverSocketPortAllocations) {
+      return new ArrayList<>(serverSocketPortAllocations);
+    }
+  }
+
+  private boolean isServerSocketPortAllocated(int port) {
+    for (SocketPortAllocation allocation : serverSocketPortAllocations) {
+      if (allocation.getPort() == port && allocation.isAllocated()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static InetAddress getAddress(String hostname) throws HopException {
+    if (Utils.isEmpty(hostname)) {
+      return InetAddress.getLoopbackAddress();
+    }
+    try {
+      return InetAddress.getByName(hostname);
+    } catch (UnknownHostException e) {
+      throw new HopException(
+          "Unable to allocate a server socket port on unknown host " + hostname, e);
+    }
+  }
+
+  /** See if nothing listens on a port by binding a server socket to it for a moment */
+  private static boolean isPortFree(InetAddress address, int port) {
+    try (ServerSocket serverSocket = new ServerSocket()) {
+      serverSocket.bind(new InetSocketAddress(address, port));
+      return true;
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
   /**
    * @return the hopServerConfig
    */
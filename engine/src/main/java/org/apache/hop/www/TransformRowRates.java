@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.www;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The rate at which running transforms write rows, measured over the time since an earlier status
+ * request instead of since the start of the transform. A transform which was busy for an hour and
+ * is idle now then counts as idle. The first time a transform is seen there is no earlier sample
+ * and its average since the start is used.
+ */
+final class TransformRowRates {
+
+  /** Samples closer together than this are too noisy, the rate is measured over a longer window */
+  static final long MIN_WINDOW_MS = 1000L;
+
+  private final Map<String, Sample> samples = new HashMap<>();
+
+  /**
+   * @param key Identifies a transform copy of a pipeline
+   * @param linesWritten The rows the transform copy wrote so far
+   * @param durationMs The time the transform copy is running
+   * @param now The current time in milliseconds
+   * @return The rows per second written since an earlier sample
+   */
+  synchronized double rowsPerSecond(String key, long linesWritten, long durationMs, long now) {
+    Sample sample = samples.get(key);
+    if (sample == null || linesWritten < sample.linesWritten() || now < sample.timeMs()) {
+      double rate = durationMs <= 0 ? 0.0 : linesWritten * 1000.0 / durationMs;
+      samples.put(key, new Sample(linesWritten, now, rate));
+      return rate;
+    }
+    long elapsed = now - sample.timeMs();
+    if (elapsed < MIN_WINDOW_MS) {
+      return sample.rowsPerSecond();
+    }
+    double rate = (linesWritten - sample.linesWritten()) * 1000.0 / elapsed;
+    samples.put(key, new Sample(linesWritten, now, rate));
+    return rate;
+  }
+
+  /**
+   * Forget the transforms which are no longer running.
+   *
+   * @param runningKeys The keys of the transform copies which are still running
+   */
+  synchronized void retain(Set<String> runningKeys) {
+    samples.keySet().retainAll(runningKeys);
+  }
+
+  synchronized int size() {
+    return samples.size();
+  }
+
+  private record Sample(long linesWritten, long timeMs, double rowsPerSecond) {}
+}
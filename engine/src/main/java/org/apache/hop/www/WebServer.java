@@ -286,6 +286,9 @@ public class WebServer {
       // Stop the server...
       //
       server.stop();
+      if (pipelineMap != null) {
+        pipelineMap.closeWebServicePools();
+      }
       HopEnvironment.shutdown();
     } catch (Exception e) {
       log.logError(
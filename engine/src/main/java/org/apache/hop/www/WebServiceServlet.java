@@ -28,9 +28,12 @@ import java.io.OutputStream;
 import java.io.Serial;
 import java.nio.charset.StandardCharsets;
 import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.UUID;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.hop.base.MetaFileCache;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.annotations.HopServerServlet;
 import org.apache.hop.core.exception.HopException;
@@ -45,6 +48,7 @@ import org.apache.hop.core.variables.IVariables;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.metadata.api.IHopMetadataProvider;
 import org.apache.hop.metadata.api.IHopMetadataSerializer;
+import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineConfiguration;
 import org.apache.hop.pipeline.PipelineExecutionConfiguration;
 import org.apache.hop.pipeline.PipelineMeta;
@@ -54,6 +58,7 @@ import org.apache.hop.pipeline.engine.PipelineEngineFactory;
 import org.apache.hop.pipeline.engines.local.LocalPipelineEngine;
 import org.apache.hop.pipeline.transform.RowAdapter;
 import org.apache.hop.www.service.WebService;
+import org.apache.hop.www.service.WebServicePipelinePool;
 
 @HopServerServlet(id = "webService", name = "Output the content of a field in a transform")
 public class WebServiceServlet extends BaseHttpServlet implements IHopServerPlugin {
@@ -63,6 +68,8 @@ public class WebServiceServlet extends BaseHttpServlet implements IHopServerPlug
 
   public static final String CONTEXT_PATH = "/hop/webService";
 
+  private static final int DEFAULT_POOL_SIZE = 4;
+
   public WebServiceServlet() {}
 
   public WebServiceServlet(PipelineMap pipelineMap) {
@@ -110,6 +117,11 @@ public class WebServiceServlet extends BaseHttpServlet implements IHopServerPlug
 
     String runConfigurationName = request.getParameter("runConfig");
 
+    // A pipeline borrowed from a pool which isn't started is given back for disposal
+    //
+    WebServicePipelinePool pool = null;
+    Pipeline pooledPipeline = null;
+    boolean started = false;
     try {
       IHopMetadataSerializer<WebService> serializer =
           metadataProvider.getSerializer(WebService.class);
@@ -169,49 +181,56 @@ public class WebServiceServlet extends BaseHttpServlet implements IHopServerPlug
       }
       response.setCharacterEncoding(Const.UTF_8);
 
-      String serverObjectId = UUID.randomUUID().toString();
-      SimpleLoggingObject servletLoggingObject =
-          new SimpleLoggingObject(CONTEXT_PATH, LoggingObjectType.HOP_SERVER, null);
-      servletLoggingObject.setContainerObjectId(serverObjectId);
-
-      // Load and start the pipeline
-      // Output the data to the response output stream...
-      //
-      PipelineMeta pipelineMeta = new PipelineMeta(filename, metadataProvider, variables);
       IPipelineEngine<PipelineMeta> pipeline;
-      if (StringUtils.isEmpty(runConfigurationName)) {
-        pipeline = new LocalPipelineEngine(pipelineMeta, variables, servletLoggingObject);
+      PipelineMeta pipelineMeta;
+      if (webService.isPooled()) {
+        // Take a prepared pipeline from the pool and pass the request variables along
+        //
+        int poolSize = Const.toInt(variables.resolve(webService.getPoolSize()), DEFAULT_POOL_SIZE);
+        pool =
+            getPipelineMap()
+                .getWebServicePool(webServiceName, filename, runConfigurationName, poolSize);
+        pooledPipeline = pool.borrowPipeline();
+        WebServicePipelinePool.applyRequestVariables(
+            pooledPipeline,
+            getRequestVariables(
+                request, bodyContentVariable, bodyContent, headerContentVariable, headerContent));
+        pipeline = pooledPipeline;
+        pipelineMeta = pooledPipeline.getPipelineMeta();
       } else {
-        pipeline =
-            PipelineEngineFactory.createPipelineEngine(
-                variables, runConfigurationName, metadataProvider, pipelineMeta);
-      }
-      pipeline.setContainerId(serverObjectId);
-
-      if (StringUtils.isNotEmpty(bodyContentVariable)) {
-        pipeline.setVariable(bodyContentVariable, Const.NVL(bodyContent, ""));
-      }
-
-      if (StringUtils.isNotEmpty(headerContentVariable)) {
-        pipeline.setVariable(headerContentVariable, Const.NVL(headerContent, ""));
-      }
-
-      // Set all the other parameters as variables/parameters...
-      //
-      String[] pipelineParameters = pipelineMeta.listParameters();
-      pipeline.copyParametersFromDefinitions(pipelineMeta);
-      for (String requestParameter : request.getParameterMap().keySet()) {
-        if ("service".equals(requestParameter)) {
-          continue;
-        }
-        String requestParameterValue = request.getParameter(requestParameter);
-        if (Const.indexOfString(requestParameter, pipelineParameters) < 0) {
-          pipeline.setVariable(requestParameter, Const.NVL(requestParameterValue, ""));
+        String serverObjectId = UUID.randomUUID().toString();
+        SimpleLoggingObject servletLoggingObject =
+            new SimpleLoggingObject(CONTEXT_PATH, LoggingObjectType.HOP_SERVER, null);
+        servletLoggingObject.setContainerObjectId(serverObjectId);
+
+        // Load the pipeline
+        //
+        pipelineMeta = MetaFileCache.loadPipelineMeta(filename, metadataProvider, variables);
+        if (StringUtils.isEmpty(runConfigurationName)) {
+          pipeline = new LocalPipelineEngine(pipelineMeta, variables, servletLoggingObject);
         } else {
-          pipeline.setParameterValue(requestParameter, Const.NVL(requestParameterValue, ""));
+          pipeline =
+              PipelineEngineFactory.createPipelineEngine(
+                  variables, runConfigurationName, metadataProvider, pipelineMeta);
         }
+        pipeline.setContainerId(serverObjectId);
+
+        // Set the body and header content, and all the other parameters as variables/parameters...
+        //
+        String[] pipelineParameters = pipelineMeta.listParameters();
+        pipeline.copyParametersFromDefinitions(pipelineMeta);
+        Map<String, String> requestVariables =
+            getRequestVariables(
+                request, bodyContentVariable, bodyContent, headerContentVariable, headerContent);
+        for (Map.Entry<String, String> entry : requestVariables.entrySet()) {
+          if (Const.indexOfString(entry.getKey(), pipelineParameters) < 0) {
+            pipeline.setVariable(entry.getKey(), entry.getValue());
+          } else {
+            pipeline.setParameterValue(entry.getKey(), entry.getValue());
+          }
+        }
+        pipeline.activateParameters(pipeline);
       }
-      pipeline.activateParameters(pipeline);
 
       // See if we need to add this to the status map...
       //
@@ -224,11 +243,15 @@ public class WebServiceServlet extends BaseHttpServlet implements IHopServerPlug
                 pipelineExecutionConfiguration,
                 new SerializableMetadataProvider(metadataProvider));
         getPipelineMap()
-            .addPipeline(pipelineMeta.getName(), serverObjectId, pipeline, pipelineConfiguration);
+            .addPipeline(
+                pipelineMeta.getName(), pipeline.getContainerId(), pipeline, pipelineConfiguration);
       }
 
-      // Allocate the threads...
-      pipeline.prepareExecution();
+      // Allocate the threads, a pooled pipeline was already prepared...
+      //
+      if (!webService.isPooled()) {
+        pipeline.prepareExecution();
+      }
 
       final OutputStream outputStream = response.getOutputStream();
 
@@ -236,6 +259,16 @@ public class WebServiceServlet extends BaseHttpServlet implements IHopServerPlug
       // TODO: add to all copies
       //
       IEngineComponent component = pipeline.findComponent(transformName, 0);
+      if (component == null) {
+        throw new HopException(
+            "Unable to find transform '"
+                + transformName
+                + "' in pipeline '"
+                + pipelineMeta.getName()
+                + "' of web service '"
+                + webServiceName
+                + "'");
+      }
       component.addRowListener(
           new RowAdapter() {
             @Override
@@ -281,6 +314,7 @@ public class WebServiceServlet extends BaseHttpServlet implements IHopServerPlug
             }
           });
 
+      started = true;
       pipeline.startThreads();
       pipeline.waitUntilFinished();
 
@@ -290,7 +324,37 @@ public class WebServiceServlet extends BaseHttpServlet implements IHopServerPlug
           response,
           HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
           "Error producing web service output.");
+    } finally {
+      if (pooledPipeline != null && !started) {
+        pool.discardPipeline(pooledPipeline);
+      }
+    }
+  }
+
+  /**
+   * Collect the variables to pass to the pipeline for a web service request: the body and header
+   * content as well as all the request parameters except for the service name.
+   */
+  private Map<String, String> getRequestVariables(
+      HttpServletRequest request,
+      String bodyContentVariable,
+      String bodyContent,
+      String headerContentVariable,
+      String headerContent) {
+    Map<String, String> requestVariables = new LinkedHashMap<>();
+    if (StringUtils.isNotEmpty(bodyContentVariable)) {
+      requestVariables.put(bodyContentVariable, Const.NVL(bodyContent, ""));
+    }
+    if (StringUtils.isNotEmpty(headerContentVariable)) {
+      requestVariables.put(headerContentVariable, Const.NVL(headerContent, ""));
+    }
+    for (String requestParameter : request.getParameterMap().keySet()) {
+      if ("service".equals(requestParameter)) {
+        continue;
+      }
+      requestVariables.put(requestParameter, Const.NVL(request.getParameter(requestParameter), ""));
     }
+    return requestVariables;
   }
 
   public String toString() {
@@ -56,6 +56,12 @@ public class WebService extends HopMetadataBase implements IHopMetadata {
 
   @HopMetadataProperty private String headerContentVariable;
 
+  /** Keep prepared pipelines around to answer requests instead of preparing one per request. */
+  @HopMetadataProperty private boolean pooled;
+
+  /** The number of prepared pipelines to keep around in pooled mode. */
+  @HopMetadataProperty private String poolSize;
+
   public WebService() {}
 
   public WebService(
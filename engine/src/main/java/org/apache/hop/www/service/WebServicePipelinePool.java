@@ -0,0 +1,338 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.hop.www.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.Getter;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILogChannel;
+import org.apache.hop.core.logging.LogChannel;
+import org.apache.hop.core.logging.LoggingObjectType;
+import org.apache.hop.core.logging.SimpleLoggingObject;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.core.vfs.HopVfs;
+import org.apache.hop.core.xml.XmlHandler;
+import org.apache.hop.metadata.api.IHopMetadataProvider;
+import org.apache.hop.pipeline.Pipeline;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.engine.IPipelineEngine;
+import org.apache.hop.pipeline.engine.PipelineEngineFactory;
+import org.apache.hop.pipeline.engines.local.LocalPipelineEngine;
+import org.apache.hop.pipeline.transform.TransformMetaDataCombi;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+
+/**
+ * A pool of prepared pipelines for a web service running in pooled mode.
+ *
+ * <p>The parsed pipeline definition is kept around for as long as the pipeline file keeps the same
+ * modification time. A number of pipelines are created from it and prepared for execution up front:
+ * transforms are initialized and database connections are opened. A request borrows one of these
+ * warm pipelines, applies its variables and parameter values and runs it. A pipeline can only be
+ * executed once, so after every borrow a replacement is prepared on a background thread, outside of
+ * the request.
+ *
+ * <p>Since the transforms of a warm pipeline are initialized before the request arrives, the
+ * variables and parameter values of a request are only visible to the transforms while they process
+ * rows. While they initialize they see the default values of the parameters.
+ */
+public class WebServicePipelinePool {
+
+  private static final String CONTEXT_PATH = "/hop/webService";
+
+  private final ILogChannel log;
+  @Getter private final String serviceName;
+  @Getter private final String filename;
+  @Getter private final String runConfigurationName;
+  @Getter private final int size;
+
+  private final IVariables variables;
+  private final IHopMetadataProvider metadataProvider;
+
+  private final BlockingQueue<WarmPipeline> warmPipelines;
+  private final AtomicInteger pendingRefills;
+  private final ExecutorService refillExecutor;
+
+  private long fileVersion;
+  private Node pipelineNode;
+  private volatile boolean closed;
+
+  public WebServicePipelinePool(
+      String serviceName,
+      String filename,
+      String runConfigurationName,
+      int size,
+      IVariables variables,
+      IHopMetadataProvider metadataProvider) {
+    this.serviceName = serviceName;
+    this.filename = filename;
+    this.runConfigurationName = runConfigurationName;
+    this.size = Math.max(1, size);
+    this.variables = variables;
+    this.metadataProvider = metadataProvider;
+    this.log = new LogChannel("Web service pool " + serviceName);
+    this.warmPipelines = new LinkedBlockingQueue<>();
+    this.pendingRefills = new AtomicInteger(0);
+    this.fileVersion = -1L;
+    this.refillExecutor =
+        Executors.newSingleThreadExecutor(
+            r -> {
+              Thread thread = new Thread(r, "Hop-WebServicePool-" + serviceName);
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  /**
+   * See if this pool was created for the same (resolved) web service settings.
+   *
+   * @param filename The resolved pipeline filename
+   * @param runConfigurationName The resolved run configuration name
+   * @param size The pool size
+   * @return true if the pool can be used for these settings
+   */
+  public boolean matches(String filename, String runConfigurationName, int size) {
+    return Objects.equals(this.filename, filename)
+        && Objects.equals(this.runConfigurationName, runConfigurationName)
+        && this.size == Math.max(1, size);
+  }
+
+  /** Fill the pool with prepared pipelines in the background. */
+  public void warmUp() {
+    for (int i = warmPipelines.size() + pendingRefills.get(); i < size; i++) {
+      scheduleRefill();
+    }
+  }
+
+  /**
+   * Take a prepared pipeline out of the pool. If no warm pipeline is available one is prepared on
+   * the calling thread. In both cases a replacement is prepared in the background.
+   *
+   * @return A pipeline ready to have its threads started.
+   * @throws HopException In case the pipeline couldn't be loaded or prepared.
+   */
+  public Pipeline borrowPipeline() throws HopException {
+    long currentVersion = getCurrentFileVersion();
+
+    Pipeline pipeline = null;
+    WarmPipeline warmPipeline;
+    while (pipeline == null && (warmPipeline = warmPipelines.poll()) != null) {
+      if (warmPipeline.version() == currentVersion) {
+        pipeline = warmPipeline.pipeline();
+      } else {
+        // The pipeline file changed since this one was prepared.
+        //
+        dispose(warmPipeline.pipeline());
+      }
+    }
+    if (pipeline == null) {
+      pipeline = createPreparedPipeline(currentVersion).pipeline();
+    }
+    warmUp();
+    return pipeline;
+  }
+
+  /**
+   * Pass the variables and parameter values of a request to a prepared pipeline, like a pipeline
+   * which isn't pooled gets them: values of pipeline parameters are set as parameter values, the
+   * others as variables, and the parameters are activated again. The transforms already received
+   * their own copy of the pipeline variables during initialization so we set the resulting values
+   * on every transform as well.
+   *
+   * @param pipeline The prepared pipeline
+   * @param requestVariables The variables and parameter values to set
+   * @throws HopException In case a parameter value can't be set
+   */
+  public static void applyRequestVariables(Pipeline pipeline, Map<String, String> requestVariables)
+      throws HopException {
+    String[] parameters = pipeline.listParameters();
+    Map<String, String> values = new HashMap<>();
+    for (Map.Entry<String, String> entry : requestVariables.entrySet()) {
+      if (Const.indexOfString(entry.getKey(), parameters) < 0) {
+        pipeline.setVariable(entry.getKey(), entry.getValue());
+        values.put(entry.getKey(), entry.getValue());
+      } else {
+        pipeline.setParameterValue(entry.getKey(), entry.getValue());
+      }
+    }
+    pipeline.activateParameters(pipeline);
+    for (String parameter : parameters) {
+      values.put(parameter, pipeline.getVariable(parameter));
+    }
+
+    if (pipeline.getTransforms() == null) {
+      return;
+    }
+    for (TransformMetaDataCombi combi : pipeline.getTransforms()) {
+      for (Map.Entry<String, String> entry : values.entrySet()) {
+        combi.transform.setVariable(entry.getKey(), entry.getValue());
+      }
+    }
+  }
+
+  /**
+   * Release the resources of a borrowed pipeline which couldn't be started.
+   *
+   * @param pipeline The borrowed pipeline
+   */
+  public void discardPipeline(Pipeline pipeline) {
+    dispose(pipeline);
+  }
+
+  /** Stop preparing pipelines and release the resources held by the warm ones. */
+  public void close() {
+    closed = true;
+    refillExecutor.shutdownNow();
+    WarmPipeline warmPipeline;
+    while ((warmPipeline = warmPipelines.poll()) != null) {
+      dispose(warmPipeline.pipeline());
+    }
+  }
+
+  /**
+   * @return The number of prepared pipelines currently waiting in the pool
+   */
+  public int getNrWarmPipelines() {
+    return warmPipelines.size();
+  }
+
+  private void scheduleRefill() {
+    if (closed) {
+      return;
+    }
+    pendingRefills.incrementAndGet();
+    try {
+      refillExecutor.execute(this::refill);
+    } catch (RejectedExecutionException e) {
+      pendingRefills.decrementAndGet();
+    }
+  }
+
+  private void refill() {
+    try {
+      if (closed || warmPipelines.size() >= size) {
+        return;
+      }
+      WarmPipeline warmPipeline = createPreparedPipeline(getCurrentFileVersion());
+      if (closed) {
+        dispose(warmPipeline.pipeline());
+      } else {
+        warmPipelines.add(warmPipeline);
+      }
+    } catch (Exception e) {
+      log.logError("Error preparing a pipeline for web service '" + serviceName + "'", e);
+    } finally {
+      pendingRefills.decrementAndGet();
+    }
+  }
+
+  private WarmPipeline createPreparedPipeline(long version) throws HopException {
+    PipelineMeta pipelineMeta = loadPipelineMeta(version);
+
+    String serverObjectId = UUID.randomUUID().toString();
+    SimpleLoggingObject servletLoggingObject =
+        new SimpleLoggingObject(CONTEXT_PATH, LoggingObjectType.HOP_SERVER, null);
+    servletLoggingObject.setContainerObjectId(serverObjectId);
+
+    Pipeline pipeline;
+    if (StringUtils.isEmpty(runConfigurationName)) {
+      pipeline = new LocalPipelineEngine(pipelineMeta, variables, servletLoggingObject);
+      pipeline.setMetadataProvider(metadataProvider);
+    } else {
+      IPipelineEngine<PipelineMeta> engine =
+          PipelineEngineFactory.createPipelineEngine(
+              variables, runConfigurationName, metadataProvider, pipelineMeta);
+      if (!(engine instanceof Pipeline localPipeline)) {
+        throw new HopException(
+            "Web service '"
+                + serviceName
+                + "' can only be pooled with a local run configuration, not with '"
+                + runConfigurationName
+                + "'");
+      }
+      pipeline = localPipeline;
+      pipeline.setParent(servletLoggingObject);
+    }
+    pipeline.setContainerId(serverObjectId);
+    // The transforms are initialized with the default parameter values, a request sets its own
+    //
+    pipeline.copyParametersFromDefinitions(pipelineMeta);
+    pipeline.activateParameters(pipeline);
+    pipeline.prepareExecution();
+
+    return new WarmPipeline(version, pipeline);
+  }
+
+  /**
+   * Build a new pipeline metadata object from the cached XML. The XML is only parsed again if the
+   * modification time of the file changed. Every pipeline gets its own metadata object since
+   * running pipelines keep state in there.
+   */
+  private synchronized PipelineMeta loadPipelineMeta(long version) throws HopException {
+    if (pipelineNode == null || version != fileVersion) {
+      Document document = XmlHandler.loadXmlFile(HopVfs.getFileObject(filename));
+      pipelineNode = XmlHandler.getSubNode(document, PipelineMeta.XML_TAG);
+      if (pipelineNode == null) {
+        throw new HopException(
+            "File '" + filename + "' of web service '" + serviceName + "' is not a pipeline");
+      }
+      fileVersion = version;
+    }
+    PipelineMeta pipelineMeta = new PipelineMeta();
+    pipelineMeta.loadXml(pipelineNode, filename, metadataProvider, variables);
+    return pipelineMeta;
+  }
+
+  private long getCurrentFileVersion() throws HopException {
+    try {
+      FileObject fileObject = HopVfs.getFileObject(filename);
+      if (!fileObject.exists()) {
+        throw new HopException(
+            "Pipeline file '" + filename + "' of web service '" + serviceName + "' doesn't exist");
+      }
+      return fileObject.getContent().getLastModifiedTime();
+    } catch (HopException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new HopException("Unable to check the modification time of file " + filename, e);
+    }
+  }
+
+  private void dispose(Pipeline pipeline) {
+    try {
+      pipeline.disposeInitializedTransforms();
+    } catch (Exception e) {
+      log.logError("Error releasing a prepared pipeline of web service '" + serviceName + "'", e);
+    }
+  }
+
+  private record WarmPipeline(long version, Pipeline pipeline) {}
+}
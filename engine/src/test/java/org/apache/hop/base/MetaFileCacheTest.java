@@ -0,0 +1,211 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.hop.base;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.NotePadMeta;
+import org.apache.hop.core.annotations.Action;
+import org.apache.hop.core.annotations.Transform;
+import org.apache.hop.core.plugins.ActionPluginType;
+import org.apache.hop.core.plugins.PluginRegistry;
+import org.apache.hop.core.plugins.TransformPluginType;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.core.variables.Variables;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironmentExtension;
+import org.apache.hop.metadata.api.IHopMetadataProvider;
+import org.apache.hop.metadata.serializer.memory.MemoryMetadataProvider;
+import org.apache.hop.pipeline.PipelineHopMeta;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transforms.dummy.DummyMeta;
+import org.apache.hop.workflow.WorkflowHopMeta;
+import org.apache.hop.workflow.WorkflowMeta;
+import org.apache.hop.workflow.action.ActionMeta;
+import org.apache.hop.workflow.actions.dummy.ActionDummy;
+import org.apache.hop.workflow.actions.start.ActionStart;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+@ExtendWith(RestoreHopEngineEnvironmentExtension.class)
+class MetaFileCacheTest {
+
+  @TempDir Path tempDir;
+
+  private IVariables variables;
+  private IHopMetadataProvider metadataProvider;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    PluginRegistry registry = PluginRegistry.getInstance();
+    registry.registerPluginClass(
+        DummyMeta.class.getName(), TransformPluginType.class, Transform.class);
+    registry.registerPluginClass(ActionStart.class.getName(), ActionPluginType.class, Action.class);
+    registry.registerPluginClass(ActionDummy.class.getName(), ActionPluginType.class, Action.class);
+
+    variables = new Variables();
+    metadataProvider = new MemoryMetadataProvider();
+    MetaFileCache.clear();
+  }
+
+  @AfterEach
+  void tearDown() {
+    MetaFileCache.clear();
+    System.clearProperty(Const.HOP_METADATA_FILE_CACHE_SIZE);
+  }
+
+  @Test
+  void pipelineCopiesAreIndependent() throws Exception {
+    String filename = writePipeline("pipeline.hpl", "Original description");
+
+    PipelineMeta first = MetaFileCache.loadPipelineMeta(filename, metadataProvider, variables);
+    PipelineMeta second = MetaFileCache.loadPipelineMeta(filename, metadataProvider, variables);
+
+    assertEquals(1, MetaFileCache.size());
+    assertNotSame(first, second);
+    assertEquals(filename, second.getFilename());
+    assertSame(metadataProvider, second.getMetadataProvider());
+    assertEquals("Original description", second.getDescription());
+    assertEquals("default", second.getParameterDefault("PARAM"));
+    assertEquals(1, second.nrNotes());
+    assertEquals(2, second.nrTransforms());
+    assertFalse(second.hasChanged());
+
+    TransformMeta one = second.findTransform("one");
+    TransformMeta two = second.findTransform("two");
+    assertNotSame(first.findTransform("one"), one);
+    assertNotSame(first.findTransform("one").getTransform(), one.getTransform());
+    assertSame(second, one.getParentPipelineMeta());
+
+    PipelineHopMeta hop = second.getPipelineHop(0);
+    assertSame(one, hop.getFromTransform());
+    assertSame(two, hop.getToTransform());
+
+    // Changing one copy doesn't affect the next one handed out.
+    //
+    first.findTransform("one").setName("renamed");
+    first.getNote(0).setNote("changed");
+    PipelineMeta third = MetaFileCache.loadPipelineMeta(filename, metadataProvider, variables);
+    assertEquals("one", third.getTransform(0).getName());
+    assertEquals("Test note", third.getNote(0).getNote());
+  }
+
+  @Test
+  void pipelineIsReloadedWhenTheFileChanges() throws Exception {
+    String filename = writePipeline("pipeline.hpl", "Original description");
+    PipelineMeta first = MetaFileCache.loadPipelineMeta(filename, metadataProvider, variables);
+    assertEquals("Original description", first.getDescription());
+
+    writePipeline("pipeline.hpl", "Updated description");
+    File file = new File(filename);
+    file.setLastModified(file.lastModified() + 10000L);
+
+    PipelineMeta second = MetaFileCache.loadPipelineMeta(filename, metadataProvider, variables);
+    assertEquals("Updated description", second.getDescription());
+    assertEquals(1, MetaFileCache.size());
+  }
+
+  @Test
+  void cacheCanBeDisabled() throws Exception {
+    System.setProperty(Const.HOP_METADATA_FILE_CACHE_SIZE, "0");
+    String filename = writePipeline("pipeline.hpl", "Original description");
+
+    PipelineMeta pipelineMeta =
+        MetaFileCache.loadPipelineMeta(filename, metadataProvider, variables);
+
+    assertEquals(2, pipelineMeta.nrTransforms());
+    assertEquals(0, MetaFileCache.size());
+  }
+
+  @Test
+  void leastRecentlyUsedFilesAreEvicted() throws Exception {
+    System.setProperty(Const.HOP_METADATA_FILE_CACHE_SIZE, "2");
+    String one = writePipeline("one.hpl", "one");
+    String two = writePipeline("two.hpl", "two");
+    String three = writePipeline("three.hpl", "three");
+
+    MetaFileCache.loadPipelineMeta(one, metadataProvider, variables);
+    MetaFileCache.loadPipelineMeta(two, metadataProvider, variables);
+    MetaFileCache.loadPipelineMeta(three, metadataProvider, variables);
+
+    assertEquals(2, MetaFileCache.size());
+  }
+
+  @Test
+  void workflowCopiesAreIndependent() throws Exception {
+    WorkflowMeta workflowMeta = new WorkflowMeta();
+    workflowMeta.setName("cached-workflow");
+    workflowMeta.addParameterDefinition("PARAM", "default", "A parameter");
+    ActionMeta start = new ActionMeta(new ActionStart("Start"));
+    ActionMeta dummy = new ActionMeta(new ActionDummy("Dummy"));
+    workflowMeta.addAction(start);
+    workflowMeta.addAction(dummy);
+    workflowMeta.addWorkflowHop(new WorkflowHopMeta(start, dummy));
+    Path path = tempDir.resolve("workflow.hwf");
+    Files.writeString(path, workflowMeta.getXml(variables), StandardCharsets.UTF_8);
+    String filename = path.toString();
+
+    WorkflowMeta first = MetaFileCache.loadWorkflowMeta(filename, metadataProvider, variables);
+    WorkflowMeta second = MetaFileCache.loadWorkflowMeta(filename, metadataProvider, variables);
+
+    assertNotSame(first, second);
+    assertEquals(first.getName(), second.getName());
+    assertEquals("default", second.getParameterDefault("PARAM"));
+    assertEquals(2, second.nrActions());
+    assertNotSame(first.findAction("Dummy"), second.findAction("Dummy"));
+    assertNotSame(first.findAction("Dummy").getAction(), second.findAction("Dummy").getAction());
+    assertSame(second, second.findAction("Dummy").getAction().getParentWorkflowMeta());
+
+    WorkflowHopMeta hop = second.getWorkflowHop(0);
+    assertSame(second.findAction("Start"), hop.getFromAction());
+    assertSame(second.findAction("Dummy"), hop.getToAction());
+    assertFalse(second.hasChanged());
+  }
+
+  private String writePipeline(String name, String description) throws Exception {
+    PipelineMeta pipelineMeta = new PipelineMeta();
+    pipelineMeta.setName("cached-pipeline");
+    pipelineMeta.setDescription(description);
+    pipelineMeta.addParameterDefinition("PARAM", "default", "A parameter");
+    pipelineMeta.addNote(new NotePadMeta("Test note", 50, 50, 300, 20));
+
+    TransformMeta one = new TransformMeta("one", new DummyMeta());
+    one.setLocation(100, 200);
+    TransformMeta two = new TransformMeta("two", new DummyMeta());
+    two.setLocation(200, 200);
+    pipelineMeta.addTransform(one);
+    pipelineMeta.addTransform(two);
+    pipelineMeta.addPipelineHop(new PipelineHopMeta(one, two));
+
+    Path path = tempDir.resolve(name);
+    Files.writeString(path, pipelineMeta.getXml(variables), StandardCharsets.UTF_8);
+    return path.toString();
+  }
+}
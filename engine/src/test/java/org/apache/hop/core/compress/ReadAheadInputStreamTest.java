@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.compress;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.Test;
+
+class ReadAheadInputStreamTest {
+
+  @Test
+  void allBytesAreReadInOrder() throws Exception {
+    byte[] data = new byte[100_000];
+    new Random(1).nextBytes(data);
+
+    try (ReadAheadInputStream in =
+        new ReadAheadInputStream(new ByteArrayInputStream(data), 1000, 3)) {
+      assertArrayEquals(data, in.readAllBytes());
+      assertEquals(-1, in.read());
+    }
+  }
+
+  @Test
+  void singleBytesAndBlocksCanBeMixed() throws Exception {
+    byte[] data = "0123456789".repeat(10).getBytes();
+
+    try (ReadAheadInputStream in = new ReadAheadInputStream(new ByteArrayInputStream(data), 7, 2)) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      byte[] buffer = new byte[5];
+      int b;
+      while ((b = in.read()) >= 0) {
+        out.write(b);
+        int n = in.read(buffer, 0, buffer.length);
+        if (n > 0) {
+          out.write(buffer, 0, n);
+        }
+      }
+      assertArrayEquals(data, out.toByteArray());
+    }
+  }
+
+  @Test
+  void decompressedDataIsReadAhead() throws Exception {
+    String text = "line of text to compress\n".repeat(50_000);
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+      out.write(text.getBytes());
+    }
+
+    try (InputStream in =
+        new ReadAheadInputStream(
+            new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray())))) {
+      assertEquals(text, new String(in.readAllBytes()));
+    }
+  }
+
+  @Test
+  void errorsAreThrownByTheReader() {
+    InputStream failing =
+        new InputStream() {
+          private int count;
+
+          @Override
+          public int read() throws IOException {
+            if (count++ < 10) {
+              return 'x';
+            }
+            throw new IOException("Broken");
+          }
+        };
+
+    IOException e =
+        assertThrows(
+            IOException.class, () -> new ReadAheadInputStream(failing, 4, 2).readAllBytes());
+    assertEquals("Broken", e.getMessage());
+  }
+
+  @Test
+  void closingStopsReading() throws Exception {
+    boolean[] closed = {false};
+    InputStream endless =
+        new InputStream() {
+          @Override
+          public int read() {
+            return 'x';
+          }
+
+          @Override
+          public void close() {
+            closed[0] = true;
+          }
+        };
+
+    ReadAheadInputStream in = new ReadAheadInputStream(endless, 16, 2);
+    assertEquals('x', in.read());
+    in.close();
+
+    assertTrue(closed[0]);
+    assertThrows(IOException.class, () -> in.read(new byte[100], 0, 100));
+  }
+}
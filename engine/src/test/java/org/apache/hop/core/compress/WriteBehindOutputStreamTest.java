@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.compress;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.Test;
+
+class WriteBehindOutputStreamTest {
+
+  @Test
+  void allBytesAreWrittenInOrder() throws Exception {
+    byte[] data = new byte[100_000];
+    new Random(1).nextBytes(data);
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (WriteBehindOutputStream stream = new WriteBehindOutputStream(out, 1000)) {
+      stream.write(data, 0, 12_345);
+      for (int i = 12_345; i < 20_000; i++) {
+        stream.write(data[i]);
+      }
+      stream.write(data, 20_000, data.length - 20_000);
+    }
+    assertArrayEquals(data, out.toByteArray());
+  }
+
+  @Test
+  void flushPassesEverythingOn() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    WriteBehindOutputStream stream = new WriteBehindOutputStream(out, 16);
+    stream.write("0123456789".repeat(5).getBytes());
+    stream.flush();
+
+    assertEquals("0123456789".repeat(5), out.toString());
+    stream.close();
+  }
+
+  @Test
+  void dataIsCompressedBehind() throws Exception {
+    String text = "line of text to compress\n".repeat(50_000);
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    try (OutputStream out = new WriteBehindOutputStream(new GZIPOutputStream(compressed))) {
+      out.write(text.getBytes());
+    }
+
+    try (GZIPInputStream in =
+        new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray()))) {
+      assertEquals(text, new String(in.readAllBytes()));
+    }
+  }
+
+  @Test
+  void errorsAreThrownToTheWriter() {
+    OutputStream failing =
+        new OutputStream() {
+          @Override
+          public void write(int b) throws IOException {
+            throw new IOException("Broken");
+          }
+        };
+
+    WriteBehindOutputStream stream = new WriteBehindOutputStream(failing, 4);
+    IOException e =
+        assertThrows(
+            IOException.class,
+            () -> {
+              stream.write(new byte[100]);
+              stream.flush();
+            });
+    assertEquals("Broken", e.getMessage());
+  }
+
+  @Test
+  void closingClosesTheWrappedStream() throws Exception {
+    boolean[] closed = {false};
+    ByteArrayOutputStream data = new ByteArrayOutputStream();
+    OutputStream out =
+        new OutputStream() {
+          @Override
+          public void write(int b) {
+            data.write(b);
+          }
+
+          @Override
+          public void close() {
+            closed[0] = true;
+          }
+        };
+
+    WriteBehindOutputStream stream = new WriteBehindOutputStream(out, 8);
+    stream.write("abc".getBytes());
+    stream.close();
+
+    assertTrue(closed[0]);
+    assertEquals("abc", data.toString());
+    assertThrows(IOException.class, () -> stream.write(new byte[100]));
+  }
+}
@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.compress.gzip;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+import org.junit.jupiter.api.Test;
+
+class BlockGzipInputStreamTest {
+
+  private static final byte[] DATA =
+      "a line of text which is repeated quite a few times\n".repeat(20_000).getBytes();
+
+  @Test
+  void blocksAreInflatedInOrder() throws Exception {
+    byte[] file = blockGzip(DATA, 10_000);
+
+    try (InputStream in = new BlockGzipInputStream(new ByteArrayInputStream(file), 4)) {
+      assertArrayEquals(DATA, in.readAllBytes());
+    }
+  }
+
+  @Test
+  void blockedGzipFilesAreRegularGzipFiles() throws Exception {
+    byte[] file = blockGzip(DATA, 10_000);
+
+    try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(file))) {
+      assertArrayEquals(DATA, in.readAllBytes());
+    }
+  }
+
+  @Test
+  void onlyBlockedGzipFilesAreRecognized() throws Exception {
+    byte[] blocked = blockGzip(DATA, 10_000);
+    ByteArrayOutputStream regular = new ByteArrayOutputStream();
+    try (GZIPOutputStream out = new GZIPOutputStream(regular)) {
+      out.write(DATA);
+    }
+
+    assertTrue(BlockGzipInputStream.isBlockGzip(blocked, blocked.length));
+    assertFalse(BlockGzipInputStream.isBlockGzip(regular.toByteArray(), regular.size()));
+    assertFalse(BlockGzipInputStream.isBlockGzip(blocked, 10));
+  }
+
+  @Test
+  void gzipCompressionInputStreamInflatesBlocksInParallel() throws Exception {
+    byte[] file = blockGzip(DATA, 10_000);
+
+    try (GzipCompressionInputStream in =
+        new GzipCompressionInputStream(new ByteArrayInputStream(file), null)) {
+      assertArrayEquals(DATA, in.readAllBytes());
+    }
+    assertInstanceOf(
+        BlockGzipInputStream.class,
+        GzipCompressionInputStream.getDelegate(new ByteArrayInputStream(file)));
+  }
+
+  @Test
+  void corruptBlocksAreReported() throws Exception {
+    byte[] file = blockGzip(DATA, 10_000);
+    // Change a byte of the compressed data of the second block
+    //
+    int secondBlock = ((file[16] & 0xFF) | ((file[17] & 0xFF) << 8)) + 1;
+    file[secondBlock + 30] ^= 0x55;
+
+    try (InputStream in = new BlockGzipInputStream(new ByteArrayInputStream(file), 2)) {
+      assertThrows(ZipException.class, in::readAllBytes);
+    }
+  }
+
+  @Test
+  void truncatedFilesAreReported() throws Exception {
+    byte[] file = blockGzip(DATA, 10_000);
+
+    try (InputStream in =
+        new BlockGzipInputStream(
+            new ByteArrayInputStream(Arrays.copyOf(file, file.length - 100)), 2)) {
+      assertThrows(EOFException.class, in::readAllBytes);
+    }
+  }
+
+  @Test
+  void emptyFileIsEmpty() throws Exception {
+    try (InputStream in = new BlockGzipInputStream(new ByteArrayInputStream(new byte[0]), 2)) {
+      assertEquals(-1, in.read());
+    }
+  }
+
+  /** Write the data as a blocked gzip file, the way bgzip does, followed by the empty EOF block. */
+  private static byte[] blockGzip(byte[] data, int blockSize) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (int start = 0; start < data.length; start += blockSize) {
+      writeBlock(out, data, start, Math.min(blockSize, data.length - start));
+    }
+    writeBlock(out, data, 0, 0);
+    return out.toByteArray();
+  }
+
+  private static void writeBlock(ByteArrayOutputStream out, byte[] data, int start, int length) {
+    Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    deflater.setInput(data, start, length);
+    deflater.finish();
+    byte[] compressed = new byte[length + 1024];
+    int compressedLength = deflater.deflate(compressed);
+    deflater.end();
+
+    CRC32 crc = new CRC32();
+    crc.update(data, start, length);
+
+    int totalSize = 18 + compressedLength + 8;
+    out.writeBytes(new byte[] {0x1f, (byte) 0x8b, 8, 4, 0, 0, 0, 0, 0, (byte) 0xff, 6, 0});
+    out.writeBytes(new byte[] {'B', 'C', 2, 0});
+    writeShort(out, totalSize - 1);
+    out.write(compressed, 0, compressedLength);
+    writeInt(out, (int) crc.getValue());
+    writeInt(out, length);
+  }
+
+  private static void writeShort(ByteArrayOutputStream out, int value) {
+    out.write(value & 0xFF);
+    out.write((value >>> 8) & 0xFF);
+  }
+
+  private static void writeInt(ByteArrayOutputStream out, int value) {
+    writeShort(out, value & 0xFFFF);
+    writeShort(out, value >>> 16);
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.datastream.plugin;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+
+import java.util.List;
+import org.apache.hop.core.exception.HopException;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+/** Unit test for the default methods of {@link IDataStream} */
+class IDataStreamTest {
+
+  @Test
+  void testReadRowsUntilTheMaximum() throws HopException {
+    Object[] row1 = new Object[] {1L};
+    Object[] row2 = new Object[] {2L};
+    Object[] row3 = new Object[] {3L};
+    IDataStream dataStream = mock(IDataStream.class, CALLS_REAL_METHODS);
+    doReturn(row1, row2, row3, null).when(dataStream).readRow();
+
+    List<Object[]> rows = dataStream.readRows(2);
+    assertEquals(2, rows.size());
+    assertSame(row1, rows.get(0));
+    assertSame(row2, rows.get(1));
+
+    rows = dataStream.readRows(2);
+    assertEquals(1, rows.size());
+    assertSame(row3, rows.get(0));
+
+    assertNull(dataStream.readRows(2));
+  }
+
+  @Test
+  void testWriteRowsOneAtATime() throws HopException {
+    Object[] row1 = new Object[] {1L};
+    Object[] row2 = new Object[] {2L};
+    IDataStream dataStream = mock(IDataStream.class, CALLS_REAL_METHODS);
+    doNothing().when(dataStream).writeRow(any());
+
+    dataStream.writeRows(List.of(row1, row2));
+
+    InOrder order = inOrder(dataStream);
+    order.verify(dataStream).writeRow(row1);
+    order.verify(dataStream).writeRow(row2);
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.value.ValueMetaBigNumber;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.junit.jupiter.api.Test;
+
+class StreamLookupRulesTest {
+
+  @Test
+  void testExactKeys() {
+    assertTrue(StreamLookupRules.isExactKey(new ValueMetaInteger("id")));
+    assertTrue(StreamLookupRules.isExactKey(new ValueMetaString("name")));
+    assertFalse(StreamLookupRules.isExactKey(new ValueMetaBigNumber("amount")));
+
+    IValueMeta caseInsensitive = new ValueMetaString("name");
+    caseInsensitive.setCaseInsensitive(true);
+    assertFalse(StreamLookupRules.isExactKey(caseInsensitive));
+
+    IValueMeta binary = new ValueMetaString("name");
+    binary.setStorageType(IValueMeta.STORAGE_TYPE_BINARY_STRING);
+    assertFalse(StreamLookupRules.isExactKey(binary));
+  }
+
+  @Test
+  void testDefaultsAreParsedLikeTheTransform() throws Exception {
+    assertEquals("x", StreamLookupRules.parseDefault("x", -1));
+    assertNull(StreamLookupRules.parseDefault("", IValueMeta.TYPE_STRING));
+    assertEquals(12L, StreamLookupRules.parseDefault("12", IValueMeta.TYPE_INTEGER));
+    assertEquals(1.5, StreamLookupRules.parseDefault("1.5", IValueMeta.TYPE_NUMBER));
+    assertEquals(
+        new BigDecimal("1.50"), StreamLookupRules.parseDefault("1.50", IValueMeta.TYPE_BIGNUMBER));
+    assertEquals(true, StreamLookupRules.parseDefault("Y", IValueMeta.TYPE_BOOLEAN));
+    assertEquals(false, StreamLookupRules.parseDefault(null, IValueMeta.TYPE_BOOLEAN));
+
+    // A default which doesn't parse is ignored
+    //
+    assertNull(StreamLookupRules.parseDefault("twelve", IValueMeta.TYPE_INTEGER));
+    assertNull(StreamLookupRules.parseDefault("not a date", IValueMeta.TYPE_DATE));
+
+    assertNull(StreamLookupRules.parseDefault(" ", IValueMeta.TYPE_BINARY));
+    assertThrows(
+        HopException.class, () -> StreamLookupRules.parseDefault("x", IValueMeta.TYPE_BINARY));
+  }
+
+  @Test
+  void testFieldDefaultHasTheTypeOfTheField() throws Exception {
+    IValueMeta id = new ValueMetaInteger("id");
+    assertEquals(12L, StreamLookupRules.fieldDefault("12", IValueMeta.TYPE_INTEGER, id));
+    assertNull(StreamLookupRules.fieldDefault("", -1, id));
+    assertThrows(HopException.class, () -> StreamLookupRules.fieldDefault("12", -1, id));
+  }
+}
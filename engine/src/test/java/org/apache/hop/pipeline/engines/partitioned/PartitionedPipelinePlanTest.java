@@ -0,0 +1,205 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.engines.partitioned;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+import org.apache.hop.core.annotations.Transform;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.plugins.PluginRegistry;
+import org.apache.hop.core.plugins.TransformPluginType;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.variables.Variables;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironmentExtension;
+import org.apache.hop.partition.PartitionSchema;
+import org.apache.hop.pipeline.PipelineHopMeta;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transform.TransformPartitioningMeta;
+import org.apache.hop.pipeline.transforms.dummy.DummyMeta;
+import org.apache.hop.pipeline.transforms.socketreader.SocketReaderMeta;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(RestoreHopEngineEnvironmentExtension.class)
+class PartitionedPipelinePlanTest {
+
+  private PipelineMeta pipelineMeta;
+  private TransformMeta input;
+  private TransformMeta partitioned;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    PluginRegistry registry = PluginRegistry.getInstance();
+    registry.registerPluginClass(
+        DummyMeta.class.getName(), TransformPluginType.class, Transform.class);
+    registry.registerPluginClass(
+        SocketReaderMeta.class.getName(), TransformPluginType.class, Transform.class);
+
+    PartitionSchema four = new PartitionSchema();
+    four.setName("four");
+    four.setDynamicallyDefined(true);
+    four.setNumberOfPartitions("4");
+
+    pipelineMeta = new PipelineMeta();
+    pipelineMeta.setName("partitioned");
+    input = addDummy("input", 100);
+    partitioned = addDummy("partitioned", 300);
+    TransformPartitioningMeta partitioningMeta =
+        new TransformPartitioningMeta("ModPartitioner", four);
+    partitioningMeta.setMethodType(TransformPartitioningMeta.PARTITIONING_METHOD_SPECIAL);
+    partitioned.setTransformPartitioningMeta(partitioningMeta);
+    TransformMeta output = addDummy("output", 500);
+    pipelineMeta.addPipelineHop(new PipelineHopMeta(input, partitioned));
+    pipelineMeta.addPipelineHop(new PipelineHopMeta(partitioned, output));
+  }
+
+  @Test
+  void pipelineIsSplitAtThePartitionedTransform() throws Exception {
+    PartitionedPipelinePlan plan = PartitionedPipelinePlan.create(pipelineMeta, null);
+
+    assertEquals("partitioned", plan.getPartitionedTransformName());
+    assertEquals(List.of("input"), plan.getFeederNames());
+    assertEquals(Set.of("partitioned", "output"), plan.getRemoteTransformNames());
+    assertEquals(4, plan.getNrPartitions(pipelineMeta, new Variables()));
+
+    PipelineMeta localMeta = plan.createLocalPipelineMeta(pipelineMeta);
+    assertEquals(1, localMeta.nrTransforms());
+    assertNotNull(localMeta.findTransform("input"));
+    assertEquals(0, localMeta.nrPipelineHops());
+
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    SocketReaderMeta readerMeta = new SocketReaderMeta();
+    readerMeta.setPort("40000,40001,40002,40003");
+    readerMeta.setFields(rowMeta);
+    PartitionSchema serverSchema =
+        plan.createServerPartitionSchema(
+            pipelineMeta, new Variables(), "server1", List.of(0, 1, 2, 3));
+    PipelineMeta remoteMeta = plan.createRemotePipelineMeta(pipelineMeta, serverSchema, readerMeta);
+    assertEquals(3, remoteMeta.nrTransforms());
+    assertNull(remoteMeta.findTransform("input"));
+    TransformMeta socketReader =
+        remoteMeta.findTransform(PartitionedPipelinePlan.SOCKET_READER_NAME);
+    SocketReaderMeta socketReaderMeta = (SocketReaderMeta) socketReader.getTransform();
+    assertEquals("40000,40001,40002,40003", socketReaderMeta.getPort());
+    assertEquals("id", socketReaderMeta.getFields().get(0).getName());
+    assertEquals(
+        List.of(remoteMeta.findTransform("partitioned")),
+        remoteMeta.findNextTransforms(socketReader));
+    assertTrue(remoteMeta.findTransform("partitioned").isPartitioned());
+
+    // The original pipeline is left alone
+    //
+    assertEquals(3, pipelineMeta.nrTransforms());
+    assertEquals(2, pipelineMeta.nrPipelineHops());
+  }
+
+  @Test
+  void everyServerOnlyRunsItsOwnPartitions() throws Exception {
+    PartitionSchema eight = new PartitionSchema();
+    eight.setName("eight");
+    eight.setDynamicallyDefined(true);
+    eight.setNumberOfPartitions("8");
+    partitioned.getTransformPartitioningMeta().setPartitionSchema(eight);
+    TransformMeta output = pipelineMeta.findTransform("output");
+    output.setTransformPartitioningMeta(partitioned.getTransformPartitioningMeta().clone());
+    PartitionedPipelinePlan plan = PartitionedPipelinePlan.create(pipelineMeta, null);
+    Variables variables = new Variables();
+
+    assertEquals(List.of(1, 5), PartitionedPipelinePlan.getServerPartitionNrs(8, 4, 1));
+    assertEquals(List.of(3, 7), PartitionedPipelinePlan.getServerPartitionNrs(8, 4, 3));
+    assertEquals(List.of(2), PartitionedPipelinePlan.getServerPartitionNrs(3, 3, 2));
+
+    // With 8 partitions and 4 servers, the second server runs partitions 2 and 6
+    //
+    PartitionSchema serverSchema =
+        plan.createServerPartitionSchema(
+            pipelineMeta,
+            variables,
+            "server2",
+            PartitionedPipelinePlan.getServerPartitionNrs(8, 4, 1));
+    assertEquals("eight - server2", serverSchema.getName());
+    assertEquals(
+        List.of("Partition-2", "Partition-6"), serverSchema.calculatePartitionIds(variables));
+
+    SocketReaderMeta readerMeta = new SocketReaderMeta();
+    readerMeta.setPort("40000,40001");
+    PipelineMeta remoteMeta = plan.createRemotePipelineMeta(pipelineMeta, serverSchema, readerMeta);
+    TransformMeta remotePartitioned = remoteMeta.findTransform("partitioned");
+    TransformMeta remoteOutput = remoteMeta.findTransform("output");
+    TransformMeta socketReader =
+        remoteMeta.findTransform(PartitionedPipelinePlan.SOCKET_READER_NAME);
+    for (TransformMeta transformMeta : List.of(remotePartitioned, remoteOutput, socketReader)) {
+      assertTrue(transformMeta.isPartitioned());
+      assertEquals(
+          "eight - server2",
+          transformMeta.getTransformPartitioningMeta().getPartitionSchema().getName());
+      assertEquals(2, transformMeta.getCopies(variables));
+    }
+
+    // The socket reader copies pass their rows straight to the partitioned transform copies
+    //
+    assertEquals(
+        remotePartitioned.getTransformPartitioningMeta(),
+        socketReader.getTransformPartitioningMeta());
+
+    // The original pipeline keeps all its partitions
+    //
+    assertEquals(8, partitioned.getCopies(variables));
+    assertEquals("eight", output.getTransformPartitioningMeta().getPartitionSchema().getName());
+  }
+
+  @Test
+  void feedersCanOnlySendToThePartitionedTransform() {
+    TransformMeta other = addDummy("other", 300);
+    pipelineMeta.addPipelineHop(new PipelineHopMeta(input, other));
+
+    assertThrows(HopException.class, () -> PartitionedPipelinePlan.create(pipelineMeta, ""));
+  }
+
+  @Test
+  void serverTransformsCanOnlyReadFromThePartitionedTransform() {
+    TransformMeta other = addDummy("other", 300);
+    pipelineMeta.addPipelineHop(new PipelineHopMeta(other, pipelineMeta.findTransform("output")));
+
+    assertThrows(HopException.class, () -> PartitionedPipelinePlan.create(pipelineMeta, ""));
+  }
+
+  @Test
+  void transformMustBePartitioned() {
+    assertThrows(HopException.class, () -> PartitionedPipelinePlan.create(pipelineMeta, "output"));
+    assertThrows(HopException.class, () -> PartitionedPipelinePlan.create(pipelineMeta, "missing"));
+  }
+
+  private TransformMeta addDummy(String name, int x) {
+    TransformMeta transformMeta = new TransformMeta(name, new DummyMeta());
+    transformMeta.setLocation(x, 100);
+    pipelineMeta.addTransform(transformMeta);
+    return transformMeta;
+  }
+}
@@ -0,0 +1,245 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.socketreader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.apache.hop.core.annotations.Transform;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.plugins.PluginRegistry;
+import org.apache.hop.core.plugins.TransformPluginType;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaPlugin;
+import org.apache.hop.core.row.value.ValueMetaPluginType;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironmentExtension;
+import org.apache.hop.partition.PartitionSchema;
+import org.apache.hop.pipeline.PipelineHopMeta;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.engines.local.LocalPipelineEngine;
+import org.apache.hop.pipeline.transform.ITransform;
+import org.apache.hop.pipeline.transform.RowAdapter;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transform.TransformPartitioningMeta;
+import org.apache.hop.pipeline.transforms.dummy.DummyMeta;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(RestoreHopEngineEnvironmentExtension.class)
+class SocketReaderTest {
+
+  private static final String TOKEN = "secret";
+
+  private IRowMeta rowMeta;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    PluginRegistry registry = PluginRegistry.getInstance();
+    registry.registerPluginClass(
+        DummyMeta.class.getName(), TransformPluginType.class, Transform.class);
+    registry.registerPluginClass(
+        SocketReaderMeta.class.getName(), TransformPluginType.class, Transform.class);
+    // The reader creates the value metadata of the rows it receives
+    //
+    registry.registerPluginClass(
+        ValueMetaInteger.class.getName(), ValueMetaPluginType.class, ValueMetaPlugin.class);
+    registry.registerPluginClass(
+        ValueMetaString.class.getName(), ValueMetaPluginType.class, ValueMetaPlugin.class);
+
+    rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    rowMeta.addValueMeta(new ValueMetaString("name"));
+  }
+
+  @Test
+  void rowsSentByTheWriterAreRead() throws Exception {
+    int port = findFreePort();
+    LocalPipelineEngine pipeline = createPipeline(port);
+    List<Object[]> rows = Collections.synchronizedList(new ArrayList<>());
+    pipeline.prepareExecution();
+    pipeline
+        .getTransform("output", 0)
+        .addRowListener(
+            new RowAdapter() {
+              @Override
+              public void rowWrittenEvent(IRowMeta rowMeta, Object[] row) {
+                rows.add(row);
+              }
+            });
+    pipeline.startThreads();
+
+    try (SocketRowWriter writer =
+        SocketRowWriter.connect("localhost", port, TOKEN, 10000L, () -> false)) {
+      for (long i = 1; i <= 3; i++) {
+        writer.writeRow(rowMeta, new Object[] {i, "row " + i});
+      }
+    }
+    pipeline.waitUntilFinished();
+
+    assertEquals(0, pipeline.getErrors());
+    assertEquals(3, rows.size());
+    assertEquals(3L, rows.get(2)[0]);
+    assertEquals("row 3", rows.get(2)[1]);
+  }
+
+  @Test
+  void abortedWriterFailsTheReader() throws Exception {
+    int port = findFreePort();
+    LocalPipelineEngine pipeline = createPipeline(port);
+    pipeline.prepareExecution();
+    pipeline.startThreads();
+
+    SocketRowWriter writer = SocketRowWriter.connect("localhost", port, TOKEN, 10000L, () -> false);
+    writer.writeRow(rowMeta, new Object[] {1L, "row 1"});
+    writer.abort();
+    pipeline.waitUntilFinished();
+
+    assertTrue(writer.isClosed());
+    assertTrue(pipeline.getErrors() > 0);
+  }
+
+  @Test
+  void writerWithTheWrongTokenIsRefused() throws Exception {
+    int port = findFreePort();
+    LocalPipelineEngine pipeline = createPipeline(port);
+    List<Object[]> rows = Collections.synchronizedList(new ArrayList<>());
+    pipeline.prepareExecution();
+    pipeline
+        .getTransform("output", 0)
+        .addRowListener(
+            new RowAdapter() {
+              @Override
+              public void rowWrittenEvent(IRowMeta rowMeta, Object[] row) {
+                rows.add(row);
+              }
+            });
+    pipeline.startThreads();
+
+    // The reader closes the connection, the rows never make it
+    //
+    SocketRowWriter intruder =
+        SocketRowWriter.connect("localhost", port, "guess", 10000L, () -> false);
+    try {
+      for (long i = 1; i <= 1000; i++) {
+        intruder.writeRow(rowMeta, new Object[] {i, "intruder " + i});
+      }
+      intruder.close();
+    } catch (HopException e) {
+      // Refused before all the rows were written
+    }
+
+    // The reader keeps waiting for the real sender
+    //
+    try (SocketRowWriter writer =
+        SocketRowWriter.connect("localhost", port, TOKEN, 10000L, () -> false)) {
+      writer.writeRow(rowMeta, new Object[] {1L, "row 1"});
+    }
+    pipeline.waitUntilFinished();
+
+    assertEquals(0, pipeline.getErrors());
+    assertEquals(1, rows.size());
+    assertEquals("row 1", rows.get(0)[1]);
+  }
+
+  @Test
+  void everyCopyOfAPartitionedReaderReceivesItsOwnPartition() throws Exception {
+    int port1 = findFreePort();
+    int port2 = findFreePort();
+    LocalPipelineEngine pipeline = createPipeline(port1 + "," + port2);
+    PartitionSchema two = new PartitionSchema("two", List.of("P1", "P2"));
+    TransformPartitioningMeta partitioningMeta =
+        new TransformPartitioningMeta("ModPartitioner", two);
+    partitioningMeta.setMethodType(TransformPartitioningMeta.PARTITIONING_METHOD_SPECIAL);
+    PipelineMeta pipelineMeta = pipeline.getPipelineMeta();
+    pipelineMeta.findTransform("reader").setTransformPartitioningMeta(partitioningMeta);
+    pipelineMeta.findTransform("output").setTransformPartitioningMeta(partitioningMeta.clone());
+
+    List<String> received = Collections.synchronizedList(new ArrayList<>());
+    pipeline.prepareExecution();
+    for (int copy = 0; copy < 2; copy++) {
+      ITransform output = pipeline.getTransform("output", copy);
+      output.addRowListener(
+          new RowAdapter() {
+            @Override
+            public void rowWrittenEvent(IRowMeta rowMeta, Object[] row) {
+              received.add(output.getPartitionId() + "=" + row[1]);
+            }
+          });
+    }
+    pipeline.startThreads();
+
+    try (SocketRowWriter writer1 =
+            SocketRowWriter.connect("localhost", port1, TOKEN, 10000L, () -> false);
+        SocketRowWriter writer2 =
+            SocketRowWriter.connect("localhost", port2, TOKEN, 10000L, () -> false)) {
+      writer1.writeRow(rowMeta, new Object[] {1L, "first"});
+      writer2.writeRow(rowMeta, new Object[] {2L, "second"});
+    }
+    pipeline.waitUntilFinished();
+
+    assertEquals(0, pipeline.getErrors());
+    assertEquals(2, received.size());
+    assertTrue(received.containsAll(List.of("P1=first", "P2=second")));
+  }
+
+  @Test
+  void readerWithoutTokenDoesNotStart() throws Exception {
+    LocalPipelineEngine pipeline = createPipeline(findFreePort());
+    ((SocketReaderMeta) pipeline.getPipelineMeta().findTransform("reader").getTransform())
+        .setToken(null);
+
+    assertThrows(HopException.class, pipeline::prepareExecution);
+  }
+
+  private LocalPipelineEngine createPipeline(int port) {
+    return createPipeline(Integer.toString(port));
+  }
+
+  private LocalPipelineEngine createPipeline(String ports) {
+    SocketReaderMeta socketReaderMeta = new SocketReaderMeta();
+    socketReaderMeta.setHostname("localhost");
+    socketReaderMeta.setPort(ports);
+    socketReaderMeta.setToken(TOKEN);
+    socketReaderMeta.setAcceptTimeout("10000");
+    socketReaderMeta.setFields(rowMeta);
+
+    PipelineMeta pipelineMeta = new PipelineMeta();
+    pipelineMeta.setName("socket-reader");
+    TransformMeta reader = new TransformMeta("reader", socketReaderMeta);
+    TransformMeta output = new TransformMeta("output", new DummyMeta());
+    pipelineMeta.addTransform(reader);
+    pipelineMeta.addTransform(output);
+    pipelineMeta.addPipelineHop(new PipelineHopMeta(reader, output));
+    return new LocalPipelineEngine(pipelineMeta);
+  }
+
+  private static int findFreePort() throws Exception {
+    try (ServerSocket serverSocket = new ServerSocket(0)) {
+      return serverSocket.getLocalPort();
+    }
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.server.loadbalance;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class LoadAwareSelectorTest {
+
+  @Test
+  void bigIdleServerWinsFromSmallBusyServer() {
+    // Both servers run the same number of transforms but the small one has 2 cores instead of 32
+    ServerHealthSnapshot small = eligible("small", 2, 1, 8, 1.9, 0.8);
+    ServerHealthSnapshot big = eligible("big", 32, 1, 8, 3.0, 0.3);
+    LoadAwareSelector selector =
+        new LoadAwareSelector(() -> 0L, new Random(1), LoadAwareSelector.DEFAULT_HALF_LIFE_MS);
+
+    for (int i = 0; i < 20; i++) {
+      assertEquals("big", selector.select(List.of(small, big)).getHopServerName());
+    }
+  }
+
+  @Test
+  void mostLoadedServerIsNeverPicked() {
+    ServerHealthSnapshot idle = eligible("idle", 4, 0, 0, 0.1, 0.2);
+    ServerHealthSnapshot medium = eligible("medium", 4, 1, 4, 1.0, 0.4);
+    ServerHealthSnapshot busy = eligible("busy", 4, 3, 16, 7.5, 0.9);
+    LoadAwareSelector selector =
+        new LoadAwareSelector(() -> 0L, new Random(42), LoadAwareSelector.DEFAULT_HALF_LIFE_MS);
+
+    Set<String> picked = new HashSet<>();
+    for (int i = 0; i < 100; i++) {
+      picked.add(selector.select(List.of(idle, medium, busy)).getHopServerName());
+    }
+    // Power of two choices: the idle server doesn't get all the work, the busy one gets none
+    assertEquals(Set.of("idle", "medium"), picked);
+  }
+
+  @Test
+  void historyDecaysWithTheHalfLife() {
+    AtomicLong now = new AtomicLong(0L);
+    LoadAwareSelector selector = new LoadAwareSelector(now::get, new Random(1), 1000L);
+
+    ServerHealthSnapshot server = eligible("server", 1, 0, 0, 2.0, 0.5);
+    selector.record(server, now.get());
+
+    server.setLoadAvg(0.0);
+    now.set(1000L);
+    LoadAwareSelector.DecayedLoad load = selector.record(server, now.get());
+    assertEquals(1.0, load.getLoadPerCore(), 0.0001);
+
+    // A probe right after the previous one barely moves the average
+    load = selector.record(server, now.get());
+    assertEquals(1.0, load.getLoadPerCore(), 0.0001);
+  }
+
+  @Test
+  void historyOfServersWhichAreNoLongerProbedIsDropped() {
+    AtomicLong now = new AtomicLong(0L);
+    LoadAwareSelector selector = new LoadAwareSelector(now::get, new Random(1), 1000L);
+    ServerHealthSnapshot removed = eligible("removed", 4, 0, 0, 0.5, 0.5);
+    ServerHealthSnapshot kept = eligible("kept", 4, 0, 0, 0.5, 0.5);
+    selector.select(List.of(removed, kept));
+    assertEquals(2, selector.getHistorySize());
+
+    now.set(LoadAwareSelector.HISTORY_HALF_LIVES * 1000L);
+    selector.select(List.of(kept));
+    assertEquals(2, selector.getHistorySize());
+
+    now.set(LoadAwareSelector.HISTORY_HALF_LIVES * 1000L + 1L);
+    selector.select(List.of(kept));
+    assertEquals(1, selector.getHistorySize());
+  }
+
+  @Test
+  void scoreStaysBetweenZeroAndOne() {
+    ServerHealthSnapshot saturated = eligible("saturated", 1, 4, 100, 50.0, 1.0);
+    saturated.setRowsPerSecond(1000000.0);
+    LoadAwareSelector selector =
+        new LoadAwareSelector(() -> 0L, new Random(1), LoadAwareSelector.DEFAULT_HALF_LIFE_MS);
+    LoadAwareSelector.DecayedLoad load = selector.record(saturated, 0L);
+
+    double score = LoadAwareSelector.score(saturated, load, load.getRowsPerSecondPerCore());
+    assertEquals(1.0, score, 0.0001);
+
+    ServerHealthSnapshot idle = eligible("idle", 1, 0, 0, 0.0, 0.0);
+    assertEquals(0.0, LoadAwareSelector.score(idle, selector.record(idle, 0L), 0.0), 0.0001);
+  }
+
+  @Test
+  void selectorSupportsTheLoadAwareAlgorithm() {
+    assertEquals(
+        LoadBalancingAlgorithm.LOAD_AWARE,
+        LoadBalancingAlgorithm.fromCodeOrDescription("load-aware"));
+    Optional<ServerHealthSnapshot> selected =
+        LoadBalancingSelector.select(
+            LoadBalancingAlgorithm.LOAD_AWARE,
+            List.of(
+                ServerHealthSnapshot.unavailable("down", true, 4, "timeout"),
+                eligible("only", 4, 0, 0, 0.5, 0.5)));
+    assertTrue(selected.isPresent());
+    assertEquals("only", selected.get().getHopServerName());
+  }
+
+  private static ServerHealthSnapshot eligible(
+      String name,
+      int cores,
+      int occupying,
+      int transformThreads,
+      double loadAvg,
+      double usedMemoryRatio) {
+    ServerHealthSnapshot snapshot = new ServerHealthSnapshot();
+    snapshot.setHopServerName(name);
+    snapshot.setEnabled(true);
+    snapshot.setAvailable(true);
+    snapshot.setOccupyingSlots(occupying);
+    snapshot.setMaxConcurrent(4);
+    snapshot.setCpuCores(cores);
+    snapshot.setLoadAvg(loadAvg);
+    snapshot.setMemoryTotal(1000L);
+    snapshot.setMemoryFree(Math.round(1000L * (1.0 - usedMemoryRatio)));
+    snapshot.setRunningTransformThreads(transformThreads);
+    snapshot.setRowsPerSecond(1000.0 * transformThreads);
+    return snapshot;
+  }
+}
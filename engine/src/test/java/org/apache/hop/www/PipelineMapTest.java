@@ -19,16 +19,23 @@ package org.apache.hop.www;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.util.ArrayList;
 import java.util.List;
+import org.apache.hop.core.exception.HopException;
 import org.apache.hop.pipeline.PipelineConfiguration;
 import org.apache.hop.pipeline.PipelineMeta;
 import org.apache.hop.pipeline.engine.IPipelineEngine;
+import org.apache.hop.www.service.WebServicePipelinePool;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -79,4 +86,117 @@ class PipelineMapTest {
     map.setHopServerConfig(cfg);
     assertSame(cfg, map.getHopServerConfig());
   }
+
+  @Test
+  void webServicePoolIsReusedUntilSettingsChange() {
+    HopServerConfig cfg = mock(HopServerConfig.class);
+    map.setHopServerConfig(cfg);
+
+    WebServicePipelinePool pool = map.getWebServicePool("svc", "/tmp/svc.hpl", null, 2);
+    assertSame(pool, map.getWebServicePool("svc", "/tmp/svc.hpl", null, 2));
+
+    WebServicePipelinePool resized = map.getWebServicePool("svc", "/tmp/svc.hpl", null, 3);
+    assertNotSame(pool, resized);
+    assertEquals(3, resized.getSize());
+    assertNotSame(resized, map.getWebServicePool("svc", "/tmp/other.hpl", null, 3));
+
+    map.closeWebServicePools();
+    assertNotSame(resized, map.getWebServicePool("svc", "/tmp/other.hpl", null, 3));
+    map.closeWebServicePools();
+  }
+
+  @Test
+  void serverSocketPortsAreAllocatedAndReleased() throws Exception {
+    int rangeStart = findFreePort();
+    SocketPortAllocation first =
+        map.allocateServerSocketPort(
+            rangeStart, null, "run-1", "P1", "master", "input", "0", "server1", "partitioned", "0");
+    SocketPortAllocation second =
+        map.allocateServerSocketPort(
+            rangeStart, null, "run-1", "P1", "master", "input", "0", "server1", "output", "0");
+    assertTrue(first.getPort() >= rangeStart);
+    assertTrue(second.getPort() > first.getPort());
+
+    // Asking again for the same connection gives the same port
+    //
+    assertSame(
+        first,
+        map.allocateServerSocketPort(
+            rangeStart,
+            null,
+            "run-1",
+            "P1",
+            "master",
+            "input",
+            "0",
+            "server1",
+            "partitioned",
+            "0"));
+
+    assertEquals(2, map.deallocateServerSocketPorts("run-1"));
+    assertEquals(0, map.deallocateServerSocketPorts("run-1"));
+
+    SocketPortAllocation reused =
+        map.allocateServerSocketPort(
+            first.getPort(),
+            null,
+            "run-2",
+            "P1",
+            "master",
+            "input",
+            "0",
+            "server1",
+            "partitioned",
+            "0");
+    assertEquals(first.getPort(), reused.getPort());
+    assertTrue(reused.isAllocated());
+    assertEquals(2, map.getServerSocketPortAllocations().size());
+  }
+
+  @Test
+  void serverSocketPortsInUseAreSkipped() throws Exception {
+    try (ServerSocket serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+      int used = serverSocket.getLocalPort();
+      SocketPortAllocation allocation =
+          map.allocateServerSocketPort(
+              used, null, "run-1", "P1", "master", "input", "0", "server1", "partitioned", "0");
+      assertTrue(allocation.getPort() > used);
+    }
+  }
+
+  @Test
+  void serverSocketPortsEndAtTheHighestPort() {
+    // Some of the last ports might be in use on this host, all we know is that we run out
+    //
+    List<Integer> ports = new ArrayList<>();
+    assertThrows(
+        HopException.class,
+        () -> {
+          for (int copy = 0; copy <= 10; copy++) {
+            ports.add(
+                map.allocateServerSocketPort(
+                        65530,
+                        null,
+                        "run-1",
+                        "P1",
+                        "master",
+                        "input",
+                        "0",
+                        "server1",
+                        "partitioned",
+                        Integer.toString(copy))
+                    .getPort());
+          }
+        });
+    assertTrue(ports.size() <= 6);
+    for (int port : ports) {
+      assertTrue(port >= 65530 && port <= 65535);
+    }
+  }
+
+  private static int findFreePort() throws Exception {
+    try (ServerSocket serverSocket = new ServerSocket(0)) {
+      return serverSocket.getLocalPort();
+    }
+  }
 }
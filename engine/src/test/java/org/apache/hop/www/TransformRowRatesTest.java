@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.www;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class TransformRowRatesTest {
+
+  @Test
+  void rateIsMeasuredSinceThePreviousSample() {
+    TransformRowRates rates = new TransformRowRates();
+
+    // Busy for 100 seconds: 1000 rows per second since the start
+    assertEquals(1000.0, rates.rowsPerSecond("t", 100000L, 100000L, 0L), 0.001);
+
+    // Idle now: the average since the start would still be 500 rows per second
+    assertEquals(0.0, rates.rowsPerSecond("t", 100000L, 200000L, 100000L), 0.001);
+
+    assertEquals(10.0, rates.rowsPerSecond("t", 100100L, 210000L, 110000L), 0.001);
+  }
+
+  @Test
+  void samplesCloseTogetherKeepThePreviousRate() {
+    TransformRowRates rates = new TransformRowRates();
+    rates.rowsPerSecond("t", 0L, 1000L, 0L);
+    assertEquals(50.0, rates.rowsPerSecond("t", 100L, 3000L, 2000L), 0.001);
+    assertEquals(50.0, rates.rowsPerSecond("t", 100L, 3010L, 2010L), 0.001);
+  }
+
+  @Test
+  void finishedTransformsAreForgotten() {
+    TransformRowRates rates = new TransformRowRates();
+    rates.rowsPerSecond("a", 10L, 1000L, 0L);
+    rates.rowsPerSecond("b", 10L, 1000L, 0L);
+    rates.retain(Set.of("b"));
+    assertEquals(1, rates.size());
+  }
+}
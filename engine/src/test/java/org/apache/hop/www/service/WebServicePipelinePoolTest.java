@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.www.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import org.apache.hop.core.annotations.Transform;
+import org.apache.hop.core.plugins.PluginRegistry;
+import org.apache.hop.core.plugins.TransformPluginType;
+import org.apache.hop.core.variables.Variables;
+import org.apache.hop.core.xml.XmlHandler;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironmentExtension;
+import org.apache.hop.metadata.serializer.memory.MemoryMetadataProvider;
+import org.apache.hop.pipeline.Pipeline;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transforms.dummy.DummyMeta;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+@ExtendWith(RestoreHopEngineEnvironmentExtension.class)
+class WebServicePipelinePoolTest {
+
+  @TempDir Path folder;
+
+  private WebServicePipelinePool pool;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    PluginRegistry.getInstance()
+        .registerPluginClass(DummyMeta.class.getName(), TransformPluginType.class, Transform.class);
+
+    PipelineMeta pipelineMeta = new PipelineMeta();
+    pipelineMeta.setName("service");
+    pipelineMeta.addParameterDefinition("PARAM", "default", "");
+    pipelineMeta.addTransform(new TransformMeta("output", new DummyMeta()));
+    Path file = folder.resolve("service.hpl");
+    Files.writeString(
+        file,
+        XmlHandler.getXmlHeader() + pipelineMeta.getXml(new Variables()),
+        StandardCharsets.UTF_8);
+
+    pool =
+        new WebServicePipelinePool(
+            "service", file.toString(), null, 1, new Variables(), new MemoryMetadataProvider());
+  }
+
+  @AfterEach
+  void tearDown() {
+    pool.close();
+  }
+
+  @Test
+  void everyRequestGetsItsOwnParameterValues() throws Exception {
+    Pipeline first = pool.borrowPipeline();
+    WebServicePipelinePool.applyRequestVariables(first, Map.of("PARAM", "one", "OTHER", "x"));
+    assertValue(first, "PARAM", "one");
+    assertValue(first, "OTHER", "x");
+    run(first);
+
+    Pipeline second = pool.borrowPipeline();
+    assertNotSame(first, second);
+    WebServicePipelinePool.applyRequestVariables(second, Map.of("PARAM", "two"));
+    assertValue(second, "PARAM", "two");
+    run(second);
+  }
+
+  @Test
+  void parameterWithoutValueGetsTheDefault() throws Exception {
+    Pipeline pipeline = pool.borrowPipeline();
+    WebServicePipelinePool.applyRequestVariables(pipeline, Map.of());
+    assertValue(pipeline, "PARAM", "default");
+    run(pipeline);
+  }
+
+  /** The transforms were initialized before the request, they need the value as well */
+  private static void assertValue(Pipeline pipeline, String name, String expected) {
+    assertEquals(expected, pipeline.getVariable(name));
+    assertEquals(expected, pipeline.getTransform("output", 0).getVariable(name));
+  }
+
+  private static void run(Pipeline pipeline) throws Exception {
+    pipeline.startThreads();
+    pipeline.waitUntilFinished();
+    assertEquals(0, pipeline.getErrors());
+  }
+}
@@ -39,6 +39,8 @@ class WebServiceTest {
     ws.setBodyContentVariable("bodyVar");
     ws.setRunConfigurationName("local");
     ws.setHeaderContentVariable("hdrVar");
+    ws.setPooled(true);
+    ws.setPoolSize("8");
 
     assertEquals("svc1", ws.getName());
     assertTrue(ws.isEnabled());
@@ -51,6 +53,8 @@ class WebServiceTest {
     assertEquals("bodyVar", ws.getBodyContentVariable());
     assertEquals("local", ws.getRunConfigurationName());
     assertEquals("hdrVar", ws.getHeaderContentVariable());
+    assertTrue(ws.isPooled());
+    assertEquals("8", ws.getPoolSize());
   }
 
   @Test
@@ -62,5 +66,6 @@ class WebServiceTest {
     assertFalse(ws.isEnabled());
     assertEquals("file.hpl", ws.getFilename());
     assertEquals("h", ws.getHeaderContentVariable());
+    assertFalse(ws.isPooled());
   }
 }
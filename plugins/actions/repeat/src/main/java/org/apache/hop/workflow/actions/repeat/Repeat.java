@@ -28,6 +28,7 @@ import lombok.Getter;
 import lombok.Setter;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.hop.base.AbstractMeta;
+import org.apache.hop.base.MetaFileCache;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.Result;
 import org.apache.hop.core.annotations.Action;
@@ -576,13 +577,13 @@ public class Repeat extends ActionBase implements IAction, Cloneable {
   private PipelineMeta loadPipeline(
       String realFilename, IHopMetadataProvider metadataProvider, IVariables variables)
       throws HopException {
-    return new PipelineMeta(realFilename, metadataProvider, variables);
+    return MetaFileCache.loadPipelineMeta(realFilename, metadataProvider, variables);
   }
 
   private WorkflowMeta loadWorkflow(
       String realFilename, IHopMetadataProvider metadataProvider, IVariables variables)
       throws HopException {
-    return new WorkflowMeta(variables, realFilename, metadataProvider);
+    return MetaFileCache.loadWorkflowMeta(realFilename, metadataProvider, variables);
   }
 
   @Override
@@ -24,6 +24,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import org.apache.commons.vfs2.FileObject;
+import org.apache.hop.base.MetaFileCache;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.ICheckResult;
 import org.apache.hop.core.Result;
@@ -732,7 +733,7 @@ public class ActionWorkflow extends ActionBase implements Cloneable, IAction {
       IVariables tmpSpace = r.resolveCurrentDirectory(variables, parentWorkflow, getFilename());
 
       String realFilename = tmpSpace.resolve(getFilename());
-      workflowMeta = new WorkflowMeta(tmpSpace, realFilename, metadataProvider);
+      workflowMeta = MetaFileCache.loadWorkflowMeta(realFilename, metadataProvider, tmpSpace);
       if (workflowMeta != null) {
         workflowMeta.setMetadataProvider(metadataProvider);
       }
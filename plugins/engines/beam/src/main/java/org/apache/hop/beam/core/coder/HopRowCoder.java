@@ -6,7 +6,7 @@
  * (the "License"); you may not use this file except in compliance with
  * the License.  You may obtain a copy of the License at
  *
- *       http://www.apache.org/licenses/LICENSE-2.0
+ *      http://www.apache.org/licenses/LICENSE-2.0
  *
  * Unless required by applicable law or agreed to in writing, software
  * distributed under the License is distributed on an "AS IS" BASIS,
@@ -19,82 +19,134 @@ package org.apache.hop.beam.core.coder;
 
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.net.InetAddress;
 import java.nio.charset.StandardCharsets;
 import java.sql.Timestamp;
+import java.util.Arrays;
 import java.util.Date;
 import org.apache.avro.Schema;
 import org.apache.avro.generic.GenericRecord;
-import org.apache.beam.sdk.coders.AtomicCoder;
 import org.apache.beam.sdk.coders.CoderException;
+import org.apache.beam.sdk.coders.CustomCoder;
 import org.apache.hop.beam.core.HopRow;
+import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.row.value.ValueMetaAvroRecord;
 
-public class HopRowCoder extends AtomicCoder<HopRow> {
+/**
+ * Encodes Hop rows for Beam. A row is written as its length, a bitmap of the null values and the
+ * values which aren't null. Integers and dates are written as variable length numbers and strings
+ * are written as UTF-8 straight into the output.
+ *
+ * <p>Created with the row metadata of a PCollection the coder knows the data type of every field,
+ * so only the values are written. Values which don't match the data type of their field and the
+ * values of a coder without row metadata are written with their data type.
+ */
+public class HopRowCoder extends CustomCoder<HopRow> {
 
-  @Override
-  public void encode(HopRow hopRow, OutputStream outStream) throws IOException {
+  private static final int INITIAL_BUFFER_SIZE = 1024;
+  private static final int MAX_REUSED_BUFFER_SIZE = 1024 * 1024;
 
-    Object[] row = hopRow.getRow();
-    ObjectOutputStream out = new ObjectOutputStream(outStream);
+  /** Rows are encoded in a buffer per thread and handed to the output stream in one go */
+  private static final ThreadLocal<RowBuffer> BUFFERS = ThreadLocal.withInitial(RowBuffer::new);
+
+  /** The data types of the fields or null if they're not known */
+  private final int[] types;
+
+  /** A coder which writes the data type with every value */
+  public HopRowCoder() {
+    this.types = null;
+  }
 
-    // Length
-    //
-    if (row == null) {
-      out.writeInt(-1);
-      return; // all done
-    } else {
-      out.writeInt(hopRow.length());
+  /**
+   * A coder for rows with the given layout
+   *
+   * @param rowMeta the layout of the rows to encode
+   */
+  public HopRowCoder(IRowMeta rowMeta) {
+    this.types = new int[rowMeta.size()];
+    for (int i = 0; i < types.length; i++) {
+      types[i] = rowMeta.getValueMeta(i).getType();
     }
+  }
+
+  @Override
+  public void encode(HopRow hopRow, OutputStream outStream) throws IOException {
+    RowBuffer out = BUFFERS.get();
+    out.reset();
+    try {
+      Object[] row = hopRow.getRow();
 
-    // The values
-    //
-    for (int i = 0; i < hopRow.length(); i++) {
-      Object object = row[i];
-      // Null?
+      // Length, 0 for no row
       //
-      out.writeBoolean(object == null);
+      if (row == null) {
+        out.writeVarLong(0);
+      } else {
+        int length = hopRow.length();
+        out.writeVarLong(length + 1L);
 
-      if (object != null) {
-        // Type?
+        // The null values and the values written with their type, a bit per field
         //
-        int objectType = getObjectType(object);
-        out.writeInt(objectType);
+        int bitmapSize = (length + 7) / 8;
+        int nullsOffset = out.reserve(bitmapSize);
+        int typedOffset = types == null ? -1 : out.reserve(bitmapSize);
 
-        // The object itself
-        //
-        write(out, objectType, object);
+        for (int i = 0; i < length; i++) {
+          Object object = row[i];
+          if (object == null) {
+            out.setBit(nullsOffset, i);
+            continue;
+          }
+          int objectType;
+          if (types != null && i < types.length && matches(types[i], object)) {
+            objectType = types[i];
+          } else {
+            objectType = getObjectType(object);
+            if (typedOffset >= 0) {
+              out.setBit(typedOffset, i);
+            }
+            out.write(objectType);
+          }
+          write(out, objectType, object);
+        }
+      }
+      outStream.write(out.bytes, 0, out.size);
+    } finally {
+      if (out.bytes.length > MAX_REUSED_BUFFER_SIZE) {
+        BUFFERS.remove();
       }
     }
-    out.flush();
   }
 
   @Override
   public HopRow decode(InputStream inStream) throws IOException {
-
-    ObjectInputStream in = new ObjectInputStream(inStream);
-
-    Object[] row = null;
-    int length = in.readInt();
+    int length = (int) readVarLong(inStream) - 1;
     if (length < 0) {
-      return new HopRow(row);
+      return new HopRow();
     }
-    row = new Object[length];
+    Object[] row = new Object[length];
+
+    int bitmapSize = (length + 7) / 8;
+    byte[] nulls = readBytes(inStream, bitmapSize);
+    byte[] typed = types == null ? null : readBytes(inStream, bitmapSize);
+
     for (int i = 0; i < length; i++) {
-      // Null?
-      boolean isNull = in.readBoolean();
-      if (!isNull) {
-        int objectType = in.readInt();
-        Object object = read(in, objectType);
-        row[i] = object;
+      if (isBitSet(nulls, i)) {
+        continue;
+      }
+      int objectType;
+      if (typed == null || isBitSet(typed, i)) {
+        objectType = readByte(inStream);
+      } else {
+        objectType = types[i];
       }
+      row[i] = read(inStream, objectType);
     }
 
     return new HopRow(row, length);
@@ -105,65 +157,71 @@ public class HopRowCoder extends AtomicCoder<HopRow> {
     // Sure
   }
 
-  private void write(ObjectOutputStream out, int objectType, Object object) throws IOException {
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof HopRowCoder hopRowCoder && Arrays.equals(types, hopRowCoder.types);
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(types);
+  }
+
+  private static boolean matches(int type, Object object) {
+    return switch (type) {
+      case IValueMeta.TYPE_STRING -> object instanceof String;
+      case IValueMeta.TYPE_INTEGER -> object instanceof Long;
+      case IValueMeta.TYPE_NUMBER -> object instanceof Double;
+      case IValueMeta.TYPE_BOOLEAN -> object instanceof Boolean;
+      case IValueMeta.TYPE_DATE -> object instanceof Date && !(object instanceof Timestamp);
+      case IValueMeta.TYPE_TIMESTAMP -> object instanceof Timestamp;
+      case IValueMeta.TYPE_BIGNUMBER -> object instanceof BigDecimal;
+      case IValueMeta.TYPE_BINARY -> object instanceof byte[];
+      case IValueMeta.TYPE_INET -> object instanceof InetAddress;
+      case IValueMeta.TYPE_AVRO -> object instanceof GenericRecord;
+      default -> false;
+    };
+  }
+
+  private void write(RowBuffer out, int objectType, Object object) throws IOException {
     switch (objectType) {
       case IValueMeta.TYPE_STRING:
-        {
-          String string = (String) object;
-          byte[] data = string.getBytes(StandardCharsets.UTF_8);
-          out.writeInt(data.length);
-          out.write(data);
-        }
+        out.writeUtf8((String) object);
         break;
       case IValueMeta.TYPE_INTEGER:
-        {
-          Long lng = (Long) object;
-          out.writeLong(lng);
-        }
+        out.writeVarLong(zigZag((Long) object));
         break;
       case IValueMeta.TYPE_TIMESTAMP:
         {
-          out.writeLong(((Timestamp) object).getTime());
-          out.writeInt(((Timestamp) object).getNanos());
+          Timestamp timestamp = (Timestamp) object;
+          out.writeVarLong(zigZag(timestamp.getTime()));
+          out.writeVarLong(timestamp.getNanos());
         }
         break;
       case IValueMeta.TYPE_DATE:
-        {
-          long lng = ((Date) object).getTime();
-          out.writeLong(lng);
-        }
+        out.writeVarLong(zigZag(((Date) object).getTime()));
         break;
       case IValueMeta.TYPE_BOOLEAN:
-        {
-          boolean b = (Boolean) object;
-          out.writeBoolean(b);
-        }
+        out.write((Boolean) object ? 1 : 0);
         break;
       case IValueMeta.TYPE_NUMBER:
-        {
-          Double dbl = (Double) object;
-          out.writeDouble(dbl);
-        }
+        out.writeLong(Double.doubleToRawLongBits((Double) object));
         break;
       case IValueMeta.TYPE_BIGNUMBER:
         {
           BigDecimal bd = (BigDecimal) object;
-          out.writeUTF(bd.toString());
+          out.writeVarLong(zigZag(bd.scale()));
+          out.writeBytes(bd.unscaledValue().toByteArray());
         }
         break;
       case IValueMeta.TYPE_BINARY:
-        {
-          byte[] bytes = (byte[]) object;
-          out.write(bytes.length);
-          out.write(bytes);
-        }
+        out.writeBytes((byte[]) object);
         break;
       case IValueMeta.TYPE_INET:
         {
           InetAddress inetAddress = (InetAddress) object;
-          write(out, IValueMeta.TYPE_STRING, inetAddress.getHostName());
-          out.writeInt(inetAddress.getAddress().length == 4 ? 1 : 2);
-          out.write(inetAddress.getAddress());
+          out.writeUtf8(inetAddress.getHostName());
+          out.writeBytes(inetAddress.getAddress());
         }
         break;
       case IValueMeta.TYPE_AVRO:
@@ -176,7 +234,7 @@ public class HopRowCoder extends AtomicCoder<HopRow> {
           try {
             // Write the schema as a JSON string...
             //
-            out.writeUTF(genericRecord.getSchema().toString(false));
+            out.writeUtf8(genericRecord.getSchema().toString(false));
 
             // Now we perform the binary serialization of the data
             //
@@ -196,67 +254,49 @@ public class HopRowCoder extends AtomicCoder<HopRow> {
     }
   }
 
-  private Object read(ObjectInputStream in, int objectType) throws IOException {
+  private Object read(InputStream in, int objectType) throws IOException {
     switch (objectType) {
       case IValueMeta.TYPE_STRING:
-        {
-          int length = in.readInt();
-          byte[] data = new byte[length];
-          in.readFully(data);
-          return new String(data, StandardCharsets.UTF_8);
-        }
+        return readUtf8(in);
 
       case IValueMeta.TYPE_INTEGER:
-        {
-          return in.readLong();
-        }
+        return unZigZag(readVarLong(in));
 
       case IValueMeta.TYPE_TIMESTAMP:
         {
-          Timestamp timestamp = new Timestamp(in.readLong());
-          timestamp.setNanos(in.readInt());
+          Timestamp timestamp = new Timestamp(unZigZag(readVarLong(in)));
+          timestamp.setNanos((int) readVarLong(in));
           return timestamp;
         }
 
       case IValueMeta.TYPE_DATE:
-        {
-          return new Date(in.readLong());
-        }
+        return new Date(unZigZag(readVarLong(in)));
 
       case IValueMeta.TYPE_BOOLEAN:
-        {
-          return in.readBoolean();
-        }
+        return readByte(in) != 0;
 
       case IValueMeta.TYPE_NUMBER:
-        {
-          return in.readDouble();
-        }
+        return Double.longBitsToDouble(readLong(in));
 
       case IValueMeta.TYPE_BIGNUMBER:
         {
-          return new BigDecimal(in.readUTF());
+          int scale = (int) unZigZag(readVarLong(in));
+          return new BigDecimal(new BigInteger(readBytes(in)), scale);
         }
 
       case IValueMeta.TYPE_BINARY:
-        {
-          byte[] bytes = new byte[in.readInt()];
-          in.read(bytes);
-          return bytes;
-        }
+        return readBytes(in);
 
       case IValueMeta.TYPE_INET:
         {
-          String hostname = (String) read(in, IValueMeta.TYPE_STRING);
-          byte[] addr = new byte[in.readInt() == 1 ? 4 : 16];
-          in.read(addr);
-          return InetAddress.getByAddress(hostname, addr);
+          String hostname = readUtf8(in);
+          return InetAddress.getByAddress(hostname, readBytes(in));
         }
 
       case IValueMeta.TYPE_AVRO:
         {
           try {
-            String schemaJson = in.readUTF();
+            String schemaJson = readUtf8(in);
             Schema schema = new Schema.Parser().parse(schemaJson);
             ValueMetaAvroRecord valueMeta = new ValueMetaAvroRecord("read", schema);
             DataInputStream dataInputStream = new DataInputStream(in);
@@ -306,4 +346,173 @@ public class HopRowCoder extends AtomicCoder<HopRow> {
     throw new CoderException(
         "Data type for object class " + object.getClass().getName() + " isn't supported yet");
   }
+
+  private static long zigZag(long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+
+  private static long unZigZag(long value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  private static boolean isBitSet(byte[] bitmap, int index) {
+    return (bitmap[index >>> 3] & (1 << (index & 7))) != 0;
+  }
+
+  private static int readByte(InputStream in) throws IOException {
+    int b = in.read();
+    if (b < 0) {
+      throw new EOFException("Unexpected end of encoded Hop row");
+    }
+    return b;
+  }
+
+  private static long readVarLong(InputStream in) throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      int b = readByte(in);
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new CoderException("Invalid variable length number in encoded Hop row");
+  }
+
+  private static long readLong(InputStream in) throws IOException {
+    long value = 0;
+    for (int i = 0; i < 8; i++) {
+      value = (value << 8) | readByte(in);
+    }
+    return value;
+  }
+
+  private static byte[] readBytes(InputStream in) throws IOException {
+    return readBytes(in, (int) readVarLong(in));
+  }
+
+  private static byte[] readBytes(InputStream in, int length) throws IOException {
+    byte[] bytes = new byte[length];
+    if (in.readNBytes(bytes, 0, length) != length) {
+      throw new EOFException("Unexpected end of encoded Hop row");
+    }
+    return bytes;
+  }
+
+  private static String readUtf8(InputStream in) throws IOException {
+    return new String(readBytes(in), StandardCharsets.UTF_8);
+  }
+
+  /** A growing byte array to encode a row in */
+  private static final class RowBuffer extends OutputStream {
+    private byte[] bytes = new byte[INITIAL_BUFFER_SIZE];
+    private int size;
+
+    private void reset() {
+      size = 0;
+    }
+
+    private void ensureCapacity(int extra) {
+      if (size + extra > bytes.length) {
+        bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+      }
+    }
+
+    @Override
+    public void write(int b) {
+      ensureCapacity(1);
+      bytes[size++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      ensureCapacity(len);
+      System.arraycopy(b, off, bytes, size, len);
+      size += len;
+    }
+
+    /** Reserve a number of zero bytes and return their offset */
+    private int reserve(int length) {
+      ensureCapacity(length);
+      Arrays.fill(bytes, size, size + length, (byte) 0);
+      int offset = size;
+      size += length;
+      return offset;
+    }
+
+    private void setBit(int offset, int index) {
+      bytes[offset + (index >>> 3)] |= (byte) (1 << (index & 7));
+    }
+
+    private void writeVarLong(long value) {
+      ensureCapacity(10);
+      while ((value & ~0x7FL) != 0) {
+        bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+        value >>>= 7;
+      }
+      bytes[size++] = (byte) value;
+    }
+
+    private void writeLong(long value) {
+      ensureCapacity(8);
+      for (int shift = 56; shift >= 0; shift -= 8) {
+        bytes[size++] = (byte) (value >>> shift);
+      }
+    }
+
+    private void writeBytes(byte[] data) {
+      writeVarLong(data.length);
+      write(data, 0, data.length);
+    }
+
+    /** Write the length in bytes and the characters encoded as UTF-8, like String.getBytes() */
+    private void writeUtf8(String string) {
+      int length = string.length();
+      int utf8Length = 0;
+      for (int i = 0; i < length; i++) {
+        char c = string.charAt(i);
+        if (c < 0x80) {
+          utf8Length++;
+        } else if (c < 0x800) {
+          utf8Length += 2;
+        } else if (Character.isHighSurrogate(c)
+            && i + 1 < length
+            && Character.isLowSurrogate(string.charAt(i + 1))) {
+          utf8Length += 4;
+          i++;
+        } else if (Character.isSurrogate(c)) {
+          // An unpaired surrogate is replaced with '?'
+          utf8Length++;
+        } else {
+          utf8Length += 3;
+        }
+      }
+      writeVarLong(utf8Length);
+      ensureCapacity(utf8Length);
+
+      for (int i = 0; i < length; i++) {
+        char c = string.charAt(i);
+        if (c < 0x80) {
+          bytes[size++] = (byte) c;
+        } else if (c < 0x800) {
+          bytes[size++] = (byte) (0xC0 | (c >> 6));
+          bytes[size++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isHighSurrogate(c)
+            && i + 1 < length
+            && Character.isLowSurrogate(string.charAt(i + 1))) {
+          int codePoint = Character.toCodePoint(c, string.charAt(++i));
+          bytes[size++] = (byte) (0xF0 | (codePoint >> 18));
+          bytes[size++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+          bytes[size++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+          bytes[size++] = (byte) (0x80 | (codePoint & 0x3F));
+        } else if (Character.isSurrogate(c)) {
+          bytes[size++] = (byte) '?';
+        } else {
+          bytes[size++] = (byte) (0xE0 | (c >> 12));
+          bytes[size++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+          bytes[size++] = (byte) (0x80 | (c & 0x3F));
+        }
+      }
+    }
+  }
 }
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.beam.core.fn;
+
+import org.apache.beam.sdk.metrics.Counter;
+import org.apache.beam.sdk.metrics.Metrics;
+import org.apache.beam.sdk.transforms.DoFn;
+import org.apache.beam.sdk.values.TupleTag;
+import org.apache.hop.beam.core.BeamHop;
+import org.apache.hop.beam.core.HopRow;
+import org.apache.hop.core.Condition;
+import org.apache.hop.core.exception.HopRuntimeException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.JsonRowMeta;
+import org.apache.hop.pipeline.Pipeline;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Evaluate the condition of a Filter Rows transform. Rows for which the condition is true go to the
+ * main output, the other rows go to the output with the false tag. The condition is parsed once per
+ * instance instead of initializing the transform for every bundle.
+ */
+public class FilterRowsFn extends DoFn<HopRow, HopRow> {
+
+  private static final Logger LOG = LoggerFactory.getLogger(FilterRowsFn.class);
+
+  private String inputRowMetaJson;
+  private String conditionXml;
+  private TupleTag<HopRow> falseTag;
+  private String counterName;
+
+  private transient IRowMeta inputRowMeta;
+  private transient Condition condition;
+
+  private transient Counter readCounter;
+  private transient Counter writtenCounter;
+  private transient Counter errorCounter;
+
+  public FilterRowsFn() {}
+
+  /**
+   * @param inputRowMetaJson the fields of the input rows
+   * @param conditionXml the condition with the variables resolved
+   * @param falseTag the output for the rows which don't meet the condition
+   * @param counterName the name of the transform for the metrics
+   */
+  public FilterRowsFn(
+      String inputRowMetaJson, String conditionXml, TupleTag<HopRow> falseTag, String counterName) {
+    this.inputRowMetaJson = inputRowMetaJson;
+    this.conditionXml = conditionXml;
+    this.falseTag = falseTag;
+    this.counterName = counterName;
+  }
+
+  @Setup
+  public void setUp() {
+    try {
+      readCounter = Metrics.counter(Pipeline.METRIC_NAME_READ, counterName);
+      writtenCounter = Metrics.counter(Pipeline.METRIC_NAME_WRITTEN, counterName);
+      errorCounter = Metrics.counter(Pipeline.METRIC_NAME_ERROR, counterName);
+
+      // Initialize Hop Beam
+      //
+      BeamHop.init();
+      inputRowMeta = JsonRowMeta.fromJson(inputRowMetaJson);
+      condition = new Condition(conditionXml);
+
+      Metrics.counter(Pipeline.METRIC_NAME_INIT, counterName).inc();
+    } catch (Exception e) {
+      errorCounter.inc();
+      LOG.error("Error setting up the filter condition", e);
+      throw new HopRuntimeException("Unable to set up the filter condition", e);
+    }
+  }
+
+  @ProcessElement
+  public void processElement(ProcessContext processContext) {
+    HopRow inputRow = processContext.element();
+    readCounter.inc();
+    try {
+      if (condition.evaluate(inputRowMeta, inputRow.getRow())) {
+        processContext.output(inputRow);
+        writtenCounter.inc();
+      } else {
+        processContext.output(falseTag, inputRow);
+      }
+    } catch (Exception e) {
+      errorCounter.inc();
+      LOG.error("Error evaluating the filter condition", e);
+      throw new HopRuntimeException("Unable to evaluate the filter condition", e);
+    }
+  }
+}
@@ -0,0 +1,371 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.beam.core.fn;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import org.apache.beam.sdk.coders.Coder;
+import org.apache.beam.sdk.coders.CoderRegistry;
+import org.apache.beam.sdk.coders.CustomCoder;
+import org.apache.beam.sdk.metrics.Counter;
+import org.apache.beam.sdk.metrics.Metrics;
+import org.apache.beam.sdk.transforms.Combine;
+import org.apache.hop.beam.core.BeamHop;
+import org.apache.hop.beam.core.HopRow;
+import org.apache.hop.beam.core.coder.HopRowCoder;
+import org.apache.hop.beam.core.shared.AggregationType;
+import org.apache.hop.beam.core.shared.DistinctCountSketch;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopRuntimeException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.JsonRowMeta;
+import org.apache.hop.pipeline.Pipeline;
+
+/**
+ * Aggregates the subject rows of a group. Beam runs this combine on every worker before the
+ * shuffle, so only one partial aggregate per group and worker is sent over the network instead of
+ * every row.
+ */
+public class GroupByCombineFn
+    extends Combine.CombineFn<HopRow, GroupByCombineFn.Accumulator, HopRow> {
+
+  private String counterName;
+  private String subjectRowMetaJson; // The data types of the subject fields
+  private String[] aggregations; // The aggregation types
+
+  private transient IRowMeta subjectRowMeta;
+  private transient AggregationType[] aggregationTypes;
+  private transient Counter readCounter;
+
+  public GroupByCombineFn() {}
+
+  public GroupByCombineFn(String counterName, String subjectRowMetaJson, String[] aggregations) {
+    this.counterName = counterName;
+    this.subjectRowMetaJson = subjectRowMetaJson;
+    this.aggregations = aggregations;
+  }
+
+  /** The partial aggregation of the subjects of a group */
+  public static class Accumulator {
+    private final Object[] results;
+    private final long[] counts;
+    private final DistinctCountSketch[] sketches;
+
+    public Accumulator(int size) {
+      this.results = new Object[size];
+      this.counts = new long[size];
+      this.sketches = new DistinctCountSketch[size];
+    }
+  }
+
+  private void init() {
+    if (aggregationTypes != null) {
+      return;
+    }
+    try {
+      BeamHop.init();
+      subjectRowMeta = JsonRowMeta.fromJson(subjectRowMetaJson);
+      readCounter = Metrics.counter(Pipeline.METRIC_NAME_READ, counterName);
+      AggregationType[] types = new AggregationType[aggregations.length];
+      for (int i = 0; i < types.length; i++) {
+        types[i] = AggregationType.getTypeFromName(aggregations[i]);
+      }
+      aggregationTypes = types;
+    } catch (Exception e) {
+      throw new HopRuntimeException("Unable setup of group by ", e);
+    }
+  }
+
+  @Override
+  public Accumulator createAccumulator() {
+    init();
+    return new Accumulator(aggregationTypes.length);
+  }
+
+  @Override
+  public Accumulator addInput(Accumulator accumulator, HopRow input) {
+    init();
+    readCounter.inc();
+    Object[] subjectRow = input.getRow();
+    try {
+      for (int i = 0; i < aggregationTypes.length; i++) {
+        IValueMeta subjectValueMeta = subjectRowMeta.getValueMeta(i);
+        Object subject = subjectRow[i];
+        boolean isNull = subjectValueMeta.isNull(subject);
+        Object result = accumulator.results[i];
+
+        switch (aggregationTypes[i]) {
+          case AVERAGE:
+            if (!isNull) {
+              accumulator.counts[i]++;
+              result = add(subjectValueMeta, result, subject);
+            }
+            break;
+          case SUM:
+            if (!isNull) {
+              result = add(subjectValueMeta, result, subject);
+            }
+            break;
+          case COUNT_ALL:
+            if (subject != null) {
+              result = result == null ? 1L : (Long) result + 1L;
+            }
+            break;
+          case COUNT_DISTINCT:
+            if (!isNull) {
+              if (accumulator.sketches[i] == null) {
+                accumulator.sketches[i] = new DistinctCountSketch();
+              }
+              accumulator.sketches[i].add(subjectValueMeta.convertToNormalStorageType(subject));
+            }
+            break;
+          case MIN:
+            if (!isNull && (result == null || subjectValueMeta.compare(subject, result) < 0)) {
+              result = subject;
+            }
+            break;
+          case MAX:
+            if (!isNull && (result == null || subjectValueMeta.compare(subject, result) > 0)) {
+              result = subject;
+            }
+            break;
+          case FIRST_INCL_NULL:
+            if (accumulator.counts[i] == 0) {
+              accumulator.counts[i] = 1;
+              result = subject;
+            }
+            break;
+          case LAST_INCL_NULL:
+            accumulator.counts[i] = 1;
+            result = subject;
+            break;
+          case FIRST:
+            if (!isNull && accumulator.counts[i] == 0) {
+              accumulator.counts[i] = 1;
+              result = subject;
+            }
+            break;
+          case LAST:
+            if (!isNull) {
+              accumulator.counts[i] = 1;
+              result = subject;
+            }
+            break;
+          default:
+            throw new HopException(
+                "Sorry, aggregation type yet: "
+                    + aggregationTypes[i].name()
+                    + " isn't implemented yet");
+        }
+        accumulator.results[i] = result;
+      }
+    } catch (HopException e) {
+      throw new HopRuntimeException("Error aggregating subjects of group", e);
+    }
+    return accumulator;
+  }
+
+  @Override
+  public Accumulator mergeAccumulators(Iterable<Accumulator> accumulators) {
+    init();
+    Accumulator merged = createAccumulator();
+    try {
+      for (Accumulator accumulator : accumulators) {
+        for (int i = 0; i < aggregationTypes.length; i++) {
+          IValueMeta subjectValueMeta = subjectRowMeta.getValueMeta(i);
+          Object result = merged.results[i];
+          Object other = accumulator.results[i];
+          long otherCount = accumulator.counts[i];
+
+          switch (aggregationTypes[i]) {
+            case AVERAGE, SUM:
+              merged.counts[i] += otherCount;
+              if (other != null) {
+                result = add(subjectValueMeta, result, other);
+              }
+              break;
+            case COUNT_ALL:
+              if (other != null) {
+                result = result == null ? other : (Long) result + (Long) other;
+              }
+              break;
+            case COUNT_DISTINCT:
+              if (accumulator.sketches[i] != null) {
+                if (merged.sketches[i] == null) {
+                  merged.sketches[i] = new DistinctCountSketch();
+                }
+                merged.sketches[i].merge(accumulator.sketches[i]);
+              }
+              break;
+            case MIN:
+              if (other != null
+                  && (result == null || subjectValueMeta.compare(other, result) < 0)) {
+                result = other;
+              }
+              break;
+            case MAX:
+              if (other != null
+                  && (result == null || subjectValueMeta.compare(other, result) > 0)) {
+                result = other;
+              }
+              break;
+            case FIRST_INCL_NULL, FIRST:
+              if (merged.counts[i] == 0 && otherCount > 0) {
+                merged.counts[i] = 1;
+                result = other;
+              }
+              break;
+            case LAST_INCL_NULL, LAST:
+              if (otherCount > 0) {
+                merged.counts[i] = 1;
+                result = other;
+              }
+              break;
+            default:
+              throw new HopException(
+                  "Sorry, aggregation type yet: "
+                      + aggregationTypes[i].name()
+                      + " isn't implemented yet");
+          }
+          merged.results[i] = result;
+        }
+      }
+    } catch (HopException e) {
+      throw new HopRuntimeException("Error merging aggregated subjects of group", e);
+    }
+    return merged;
+  }
+
+  @Override
+  public HopRow extractOutput(Accumulator accumulator) {
+    init();
+    Object[] results = accumulator.results.clone();
+    try {
+      for (int i = 0; i < results.length; i++) {
+        switch (aggregationTypes[i]) {
+          case AVERAGE:
+            results[i] = average(subjectRowMeta.getValueMeta(i), results[i], accumulator.counts[i]);
+            break;
+          case COUNT_DISTINCT:
+            results[i] = accumulator.sketches[i] == null ? 0L : accumulator.sketches[i].getCount();
+            break;
+          default:
+            break;
+        }
+      }
+    } catch (HopException e) {
+      throw new HopRuntimeException("Error calculating aggregation results of group", e);
+    }
+    return new HopRow(results);
+  }
+
+  @Override
+  public Coder<Accumulator> getAccumulatorCoder(CoderRegistry registry, Coder<HopRow> inputCoder) {
+    return new AccumulatorCoder();
+  }
+
+  @Override
+  public Coder<HopRow> getDefaultOutputCoder(CoderRegistry registry, Coder<HopRow> inputCoder) {
+    return new HopRowCoder();
+  }
+
+  private static Object add(IValueMeta valueMeta, Object result, Object subject)
+      throws HopException {
+    if (result == null) {
+      return subject;
+    }
+    return switch (valueMeta.getType()) {
+      case IValueMeta.TYPE_INTEGER -> (Long) result + (Long) subject;
+      case IValueMeta.TYPE_NUMBER -> (Double) result + (Double) subject;
+      case IValueMeta.TYPE_BIGNUMBER -> ((BigDecimal) result).add((BigDecimal) subject);
+      default ->
+          throw new HopException(
+              "SUM aggregation not yet implemented for field and data type : "
+                  + valueMeta.toString());
+    };
+  }
+
+  private static Object average(IValueMeta valueMeta, Object sum, long count) throws HopException {
+    if (sum == null || count == 0) {
+      return sum;
+    }
+    return switch (valueMeta.getType()) {
+      case IValueMeta.TYPE_NUMBER -> (Double) sum / count;
+      case IValueMeta.TYPE_INTEGER -> (Long) sum / count;
+      case IValueMeta.TYPE_BIGNUMBER ->
+          ((BigDecimal) sum).divide(BigDecimal.valueOf(count), MathContext.DECIMAL128);
+      default ->
+          throw new HopException(
+              "Unable to calculate average on data type : " + valueMeta.getTypeDesc());
+    };
+  }
+
+  /** Encodes the results, counts and distinct count sketches of an accumulator as one row */
+  public static class AccumulatorCoder extends CustomCoder<Accumulator> {
+    private static final HopRowCoder ROW_CODER = new HopRowCoder();
+
+    @Override
+    public void encode(Accumulator accumulator, OutputStream outStream) throws IOException {
+      int size = accumulator.results.length;
+      Object[] row = new Object[size * 3];
+      for (int i = 0; i < size; i++) {
+        row[i] = accumulator.results[i];
+        row[size + i] = accumulator.counts[i];
+        if (accumulator.sketches[i] != null) {
+          row[2 * size + i] = accumulator.sketches[i].toBytes();
+        }
+      }
+      ROW_CODER.encode(new HopRow(row), outStream);
+    }
+
+    @Override
+    public Accumulator decode(InputStream inStream) throws IOException {
+      Object[] row = ROW_CODER.decode(inStream).getRow();
+      int size = row.length / 3;
+      Accumulator accumulator = new Accumulator(size);
+      for (int i = 0; i < size; i++) {
+        accumulator.results[i] = row[i];
+        accumulator.counts[i] = (Long) row[size + i];
+        if (row[2 * size + i] != null) {
+          accumulator.sketches[i] = DistinctCountSketch.fromBytes((byte[]) row[2 * size + i]);
+        }
+      }
+      return accumulator;
+    }
+  }
+
+  /**
+   * Gets aggregations
+   *
+   * @return value of aggregations
+   */
+  public String[] getAggregations() {
+    return aggregations;
+  }
+
+  /**
+   * @param aggregations The aggregations to set
+   */
+  public void setAggregations(String[] aggregations) {
+    this.aggregations = aggregations;
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.beam.core.fn;
+
+import org.apache.beam.sdk.metrics.Counter;
+import org.apache.beam.sdk.metrics.Metrics;
+import org.apache.beam.sdk.transforms.DoFn;
+import org.apache.beam.sdk.values.KV;
+import org.apache.hop.beam.core.HopRow;
+import org.apache.hop.beam.core.util.SortKeyEncoder;
+import org.apache.hop.pipeline.Pipeline;
+
+/**
+ * Put all rows under one key with their encoded sort fields, so that Beam can sort the values of
+ * that key.
+ */
+public class SortKeyFn extends DoFn<HopRow, KV<Integer, KV<byte[], HopRow>>> {
+
+  /** The key of all rows, the sort is over the whole stream like in the Hop transform */
+  public static final Integer KEY = 0;
+
+  private SortKeyEncoder encoder;
+  private String counterName;
+
+  private transient Counter readCounter;
+
+  public SortKeyFn() {}
+
+  public SortKeyFn(SortKeyEncoder encoder, String counterName) {
+    this.encoder = encoder;
+    this.counterName = counterName;
+  }
+
+  @Setup
+  public void setUp() {
+    readCounter = Metrics.counter(Pipeline.METRIC_NAME_READ, counterName);
+  }
+
+  @ProcessElement
+  public void processElement(ProcessContext processContext) {
+    HopRow inputRow = processContext.element();
+    readCounter.inc();
+    processContext.output(KV.of(KEY, KV.of(encoder.encode(inputRow.getRow()), inputRow)));
+  }
+}
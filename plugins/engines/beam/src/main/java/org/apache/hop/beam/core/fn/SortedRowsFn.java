@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.beam.core.fn;
+
+import java.util.Arrays;
+import org.apache.beam.sdk.metrics.Counter;
+import org.apache.beam.sdk.metrics.Metrics;
+import org.apache.beam.sdk.transforms.DoFn;
+import org.apache.beam.sdk.values.KV;
+import org.apache.hop.beam.core.HopRow;
+import org.apache.hop.pipeline.Pipeline;
+
+/**
+ * Emit the rows sorted by {@link SortKeyFn} in order. Rows with the same sort fields as the row
+ * before them can be left out, like the "only pass unique rows" option of Sort Rows does.
+ */
+public class SortedRowsFn extends DoFn<KV<Integer, Iterable<KV<byte[], HopRow>>>, HopRow> {
+
+  private boolean onlyUniqueRows;
+  private String counterName;
+
+  private transient Counter writtenCounter;
+
+  public SortedRowsFn() {}
+
+  public SortedRowsFn(boolean onlyUniqueRows, String counterName) {
+    this.onlyUniqueRows = onlyUniqueRows;
+    this.counterName = counterName;
+  }
+
+  @Setup
+  public void setUp() {
+    writtenCounter = Metrics.counter(Pipeline.METRIC_NAME_WRITTEN, counterName);
+  }
+
+  @ProcessElement
+  public void processElement(ProcessContext processContext) {
+    byte[] previousKey = null;
+    for (KV<byte[], HopRow> sortedRow : processContext.element().getValue()) {
+      if (onlyUniqueRows && previousKey != null && Arrays.equals(previousKey, sortedRow.getKey())) {
+        continue;
+      }
+      previousKey = sortedRow.getKey();
+      processContext.output(sortedRow.getValue());
+      writtenCounter.inc();
+    }
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.beam.core.fn;
+
+import java.util.Iterator;
+import java.util.Map;
+import org.apache.beam.sdk.metrics.Counter;
+import org.apache.beam.sdk.metrics.Metrics;
+import org.apache.beam.sdk.transforms.DoFn;
+import org.apache.beam.sdk.values.PCollectionView;
+import org.apache.hop.beam.core.HopRow;
+import org.apache.hop.pipeline.Pipeline;
+
+/**
+ * Stream Lookup against a side input which maps the keys of the lookup rows to their return values.
+ * Rows without a match get the default values.
+ */
+public class StreamLookupFn extends DoFn<HopRow, HopRow> {
+
+  private PCollectionView<Map<HopRow, Iterable<HopRow>>> lookupView;
+  private int[] keyIndexes;
+  private boolean[] emptyKeyIsNull;
+  private int inputSize;
+  private Object[] defaults;
+  private String counterName;
+
+  private transient Counter writtenCounter;
+
+  public StreamLookupFn() {}
+
+  /**
+   * @param lookupView the return values per key of the lookup rows
+   * @param keyIndexes the indexes of the key fields in the input row
+   * @param emptyKeyIsNull per key field, true to use null for an empty string
+   * @param inputSize the number of fields in the input row
+   * @param defaults the values for rows without a match
+   * @param counterName the name of the transform for the metrics
+   */
+  public StreamLookupFn(
+      PCollectionView<Map<HopRow, Iterable<HopRow>>> lookupView,
+      int[] keyIndexes,
+      boolean[] emptyKeyIsNull,
+      int inputSize,
+      Object[] defaults,
+      String counterName) {
+    this.lookupView = lookupView;
+    this.keyIndexes = keyIndexes;
+    this.emptyKeyIsNull = emptyKeyIsNull;
+    this.inputSize = inputSize;
+    this.defaults = defaults;
+    this.counterName = counterName;
+  }
+
+  @Setup
+  public void setUp() {
+    writtenCounter = Metrics.counter(Pipeline.METRIC_NAME_WRITTEN, counterName);
+  }
+
+  @ProcessElement
+  public void processElement(ProcessContext processContext) {
+    Object[] row = processContext.element().getRow();
+    HopRow key = StreamLookupKeyFn.key(row, keyIndexes, emptyKeyIsNull);
+
+    Object[] values = defaults;
+    Iterable<HopRow> found = processContext.sideInput(lookupView).get(key);
+    if (found != null) {
+      Iterator<HopRow> iterator = found.iterator();
+      if (iterator.hasNext()) {
+        values = iterator.next().getRow();
+      }
+    }
+    processContext.output(StreamLookupKeyFn.addValues(row, inputSize, values, defaults.length));
+    writtenCounter.inc();
+  }
+}
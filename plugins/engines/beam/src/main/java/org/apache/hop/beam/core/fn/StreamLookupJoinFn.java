@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.beam.core.fn;
+
+import java.util.Iterator;
+import org.apache.beam.sdk.metrics.Counter;
+import org.apache.beam.sdk.metrics.Metrics;
+import org.apache.beam.sdk.transforms.DoFn;
+import org.apache.beam.sdk.transforms.join.CoGbkResult;
+import org.apache.beam.sdk.values.KV;
+import org.apache.beam.sdk.values.TupleTag;
+import org.apache.hop.beam.core.HopRow;
+import org.apache.hop.pipeline.Pipeline;
+
+/**
+ * Stream Lookup on the result of a CoGroupByKey of the input rows and the return values of the
+ * lookup rows. Every input row of a key gets the values of one lookup row of that key or the
+ * default values.
+ */
+public class StreamLookupJoinFn extends DoFn<KV<HopRow, CoGbkResult>, HopRow> {
+
+  private TupleTag<HopRow> inputTag;
+  private TupleTag<HopRow> lookupTag;
+  private int inputSize;
+  private Object[] defaults;
+  private String counterName;
+
+  private transient Counter writtenCounter;
+
+  public StreamLookupJoinFn() {}
+
+  /**
+   * @param inputTag the tag of the input rows in the join result
+   * @param lookupTag the tag of the return values in the join result
+   * @param inputSize the number of fields in the input row
+   * @param defaults the values for rows without a match
+   * @param counterName the name of the transform for the metrics
+   */
+  public StreamLookupJoinFn(
+      TupleTag<HopRow> inputTag,
+      TupleTag<HopRow> lookupTag,
+      int inputSize,
+      Object[] defaults,
+      String counterName) {
+    this.inputTag = inputTag;
+    this.lookupTag = lookupTag;
+    this.inputSize = inputSize;
+    this.defaults = defaults;
+    this.counterName = counterName;
+  }
+
+  @Setup
+  public void setUp() {
+    writtenCounter = Metrics.counter(Pipeline.METRIC_NAME_WRITTEN, counterName);
+  }
+
+  @ProcessElement
+  public void processElement(ProcessContext processContext) {
+    CoGbkResult result = processContext.element().getValue();
+
+    Object[] values = defaults;
+    Iterator<HopRow> found = result.getAll(lookupTag).iterator();
+    if (found.hasNext()) {
+      values = found.next().getRow();
+    }
+    for (HopRow inputRow : result.getAll(inputTag)) {
+      processContext.output(
+          StreamLookupKeyFn.addValues(inputRow.getRow(), inputSize, values, defaults.length));
+      writtenCounter.inc();
+    }
+  }
+}
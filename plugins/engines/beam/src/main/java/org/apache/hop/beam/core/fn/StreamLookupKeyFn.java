@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.beam.core.fn;
+
+import org.apache.beam.sdk.metrics.Counter;
+import org.apache.beam.sdk.metrics.Metrics;
+import org.apache.beam.sdk.transforms.DoFn;
+import org.apache.beam.sdk.values.KV;
+import org.apache.hop.beam.core.HopRow;
+import org.apache.hop.pipeline.Pipeline;
+
+/**
+ * Key the rows of a Stream Lookup on the match keys. The value is the row itself or, for the lookup
+ * rows, only the return values. Empty string keys can be made null so they match the way they do in
+ * the hash table of the transform.
+ */
+public class StreamLookupKeyFn extends DoFn<HopRow, KV<HopRow, HopRow>> {
+
+  private int[] keyIndexes;
+  private boolean[] emptyKeyIsNull;
+  private int[] valueIndexes;
+  private String counterName;
+
+  private transient Counter readCounter;
+
+  public StreamLookupKeyFn() {}
+
+  /**
+   * @param keyIndexes the indexes of the key fields in the row
+   * @param emptyKeyIsNull per key field, true to use null for an empty string
+   * @param valueIndexes the indexes of the values to keep, null to keep the whole row
+   * @param counterName the name of the transform for the metrics
+   */
+  public StreamLookupKeyFn(
+      int[] keyIndexes, boolean[] emptyKeyIsNull, int[] valueIndexes, String counterName) {
+    this.keyIndexes = keyIndexes;
+    this.emptyKeyIsNull = emptyKeyIsNull;
+    this.valueIndexes = valueIndexes;
+    this.counterName = counterName;
+  }
+
+  @Setup
+  public void setUp() {
+    readCounter = Metrics.counter(Pipeline.METRIC_NAME_READ, counterName);
+  }
+
+  @ProcessElement
+  public void processElement(ProcessContext processContext) {
+    HopRow inputRow = processContext.element();
+    readCounter.inc();
+
+    HopRow value = inputRow;
+    if (valueIndexes != null) {
+      Object[] values = new Object[valueIndexes.length];
+      for (int i = 0; i < valueIndexes.length; i++) {
+        values[i] = inputRow.getRow()[valueIndexes[i]];
+      }
+      value = new HopRow(values);
+    }
+    processContext.output(KV.of(key(inputRow.getRow(), keyIndexes, emptyKeyIsNull), value));
+  }
+
+  /** Extract the key fields of a row, the way both sides of the lookup have to do it. */
+  public static HopRow key(Object[] row, int[] keyIndexes, boolean[] emptyKeyIsNull) {
+    Object[] key = new Object[keyIndexes.length];
+    for (int i = 0; i < keyIndexes.length; i++) {
+      Object value = row[keyIndexes[i]];
+      key[i] = emptyKeyIsNull[i] && "".equals(value) ? null : value;
+    }
+    return new HopRow(key);
+  }
+
+  /** The input row followed by the values found for it. */
+  public static HopRow addValues(Object[] row, int inputSize, Object[] values, int valueCount) {
+    Object[] outputRow = new Object[inputSize + valueCount];
+    System.arraycopy(row, 0, outputRow, 0, Math.min(row.length, inputSize));
+    System.arraycopy(values, 0, outputRow, inputSize, Math.min(values.length, valueCount));
+    return new HopRow(outputRow);
+  }
+}
@@ -29,6 +29,7 @@ public enum AggregationType {
   LAST_INCL_NULL,
   FIRST,
   LAST,
+  COUNT_DISTINCT,
   ;
 
   public static final AggregationType getTypeFromName(String name) throws HopException {
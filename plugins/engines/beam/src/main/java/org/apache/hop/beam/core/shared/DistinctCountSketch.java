@@ -0,0 +1,202 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.beam.core.shared;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Counts the distinct values of a group in a way which can be merged across workers. Up to {@link
+ * #EXACT_LIMIT} values the 64-bit hashes of the values are kept so the count is exact. Beyond that
+ * the hashes are folded into a HyperLogLog sketch of {@link #REGISTERS} registers, which uses 4KB
+ * and estimates the count with a standard error of about 1.6%.
+ */
+public class DistinctCountSketch {
+  public static final int EXACT_LIMIT = 1000;
+
+  private static final int PRECISION = 12;
+  public static final int REGISTERS = 1 << PRECISION;
+
+  private Set<Long> hashes = new HashSet<>();
+  private byte[] registers;
+
+  /**
+   * Add a value, null values aren't counted.
+   *
+   * @param value the value to add
+   */
+  public void add(Object value) {
+    if (value != null) {
+      addHash(hash(value));
+    }
+  }
+
+  private void addHash(long hash) {
+    if (registers != null) {
+      addToRegisters(hash);
+      return;
+    }
+    hashes.add(hash);
+    if (hashes.size() > EXACT_LIMIT) {
+      registers = new byte[REGISTERS];
+      for (long h : hashes) {
+        addToRegisters(h);
+      }
+      hashes = null;
+    }
+  }
+
+  private void addToRegisters(long hash) {
+    int index = (int) (hash >>> (64 - PRECISION));
+    int rank = Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1;
+    if (rank > registers[index]) {
+      registers[index] = (byte) rank;
+    }
+  }
+
+  /**
+   * Add the values counted by another sketch
+   *
+   * @param other the sketch to merge into this one
+   */
+  public void merge(DistinctCountSketch other) {
+    if (other.registers == null) {
+      for (long hash : other.hashes) {
+        addHash(hash);
+      }
+      return;
+    }
+    if (registers == null) {
+      registers = new byte[REGISTERS];
+      for (long hash : hashes) {
+        addToRegisters(hash);
+      }
+      hashes = null;
+    }
+    for (int i = 0; i < REGISTERS; i++) {
+      if (other.registers[i] > registers[i]) {
+        registers[i] = other.registers[i];
+      }
+    }
+  }
+
+  /**
+   * @return the number of distinct values, estimated when there are more than {@link #EXACT_LIMIT}
+   */
+  public long getCount() {
+    if (registers == null) {
+      return hashes.size();
+    }
+    double sum = 0;
+    int zeros = 0;
+    for (byte register : registers) {
+      sum += 1.0 / (1L << register);
+      if (register == 0) {
+        zeros++;
+      }
+    }
+    double alpha = 0.7213 / (1 + 1.079 / REGISTERS);
+    double estimate = alpha * REGISTERS * REGISTERS / sum;
+    if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+      // Linear counting is more accurate for small numbers
+      estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+    }
+    return Math.round(estimate);
+  }
+
+  public byte[] toBytes() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    if (registers == null) {
+      out.writeBoolean(false);
+      out.writeInt(hashes.size());
+      for (long hash : hashes) {
+        out.writeLong(hash);
+      }
+    } else {
+      out.writeBoolean(true);
+      out.write(registers);
+    }
+    out.flush();
+    return bytes.toByteArray();
+  }
+
+  public static DistinctCountSketch fromBytes(byte[] bytes) throws IOException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+    DistinctCountSketch sketch = new DistinctCountSketch();
+    if (in.readBoolean()) {
+      sketch.hashes = null;
+      sketch.registers = new byte[REGISTERS];
+      in.readFully(sketch.registers);
+    } else {
+      int size = in.readInt();
+      for (int i = 0; i < size; i++) {
+        sketch.hashes.add(in.readLong());
+      }
+    }
+    return sketch;
+  }
+
+  /**
+   * A 64-bit hash which is the same in every JVM, unlike the hash code of most objects. Equal
+   * numbers with a different scale get the same hash.
+   */
+  static long hash(Object value) {
+    long hash;
+    if (value instanceof String string) {
+      hash = 0xcbf29ce484222325L;
+      for (int i = 0; i < string.length(); i++) {
+        hash = (hash ^ string.charAt(i)) * 0x100000001b3L;
+      }
+    } else if (value instanceof byte[] bytes) {
+      hash = 0xcbf29ce484222325L;
+      for (byte b : bytes) {
+        hash = (hash ^ (b & 0xFF)) * 0x100000001b3L;
+      }
+    } else if (value instanceof Long lng) {
+      hash = lng;
+    } else if (value instanceof Double dbl) {
+      hash = Double.doubleToLongBits(dbl);
+    } else if (value instanceof Timestamp timestamp) {
+      hash = timestamp.getTime() * 1_000_003L + timestamp.getNanos();
+    } else if (value instanceof Date date) {
+      hash = date.getTime();
+    } else if (value instanceof BigDecimal bigDecimal) {
+      hash = bigDecimal.stripTrailingZeros().hashCode();
+    } else {
+      hash = value.hashCode();
+    }
+
+    // Spread the bits, the finalizer of MurmurHash3
+    //
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+}
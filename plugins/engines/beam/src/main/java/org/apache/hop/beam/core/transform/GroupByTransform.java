@@ -17,15 +17,18 @@
 
 package org.apache.hop.beam.core.transform;
 
+import org.apache.beam.sdk.coders.KvCoder;
 import org.apache.beam.sdk.metrics.Counter;
 import org.apache.beam.sdk.metrics.Metrics;
-import org.apache.beam.sdk.transforms.GroupByKey;
+import org.apache.beam.sdk.transforms.Combine;
 import org.apache.beam.sdk.transforms.PTransform;
 import org.apache.beam.sdk.transforms.ParDo;
 import org.apache.beam.sdk.values.KV;
 import org.apache.beam.sdk.values.PCollection;
 import org.apache.hop.beam.core.BeamHop;
 import org.apache.hop.beam.core.HopRow;
+import org.apache.hop.beam.core.coder.HopRowCoder;
+import org.apache.hop.beam.core.fn.GroupByCombineFn;
 import org.apache.hop.beam.core.fn.GroupByFn;
 import org.apache.hop.beam.core.fn.HopKeyValueFn;
 import org.apache.hop.core.exception.HopRuntimeException;
@@ -92,28 +95,25 @@ public class GroupByTransform extends PTransform<PCollection<HopRow>, PCollectio
       // Split the HopRow into GroupFields-HopRow and SubjectFields-HopRow
       //
       PCollection<KV<HopRow, HopRow>> groupSubjects =
-          input.apply(
-              ParDo.of(new HopKeyValueFn(rowMetaJson, groupFields, subjects, transformName)));
-
-      // Now we need to aggregate the groups with a Combine
-      GroupByKey<HopRow, HopRow> byKey = GroupByKey.<HopRow, HopRow>create();
-      PCollection<KV<HopRow, Iterable<HopRow>>> grouped = groupSubjects.apply(byKey);
-
-      // Aggregate the rows in the grouped PCollection
-      //   Input: KV<HopRow>, Iterable<HopRow>>
-      //   This means that The group rows is in HopRow.  For every one of these, you get a list of
-      // subject rows.
-      //   We need to calculate the aggregation of these subject lists
-      //   Then we output group values with result values behind it.
+          input
+              .apply(ParDo.of(new HopKeyValueFn(rowMetaJson, groupFields, subjects, transformName)))
+              .setCoder(KvCoder.of(new HopRowCoder(groupRowMeta), new HopRowCoder(subjectRowMeta)));
+
+      // Aggregate the subjects per group with a Combine.
+      // The runner aggregates the rows of a group on every worker before the shuffle, so only the
+      // partial aggregates are sent over the network.
       //
       String counterName = transformName + " AGG";
-      return grouped.apply(
+      String subjectRowMetaJson = JsonRowMeta.toJson(subjectRowMeta);
+      PCollection<KV<HopRow, HopRow>> aggregated =
+          groupSubjects.apply(
+              Combine.perKey(new GroupByCombineFn(counterName, subjectRowMetaJson, aggregations)));
+
+      // Then we output group values with result values behind it.
+      //
+      return aggregated.apply(
           ParDo.of(
-              new GroupByFn(
-                  counterName,
-                  JsonRowMeta.toJson(groupRowMeta),
-                  JsonRowMeta.toJson(subjectRowMeta),
-                  aggregations)));
+              new GroupByFn(counterName, JsonRowMeta.toJson(groupRowMeta), subjectRowMetaJson)));
     } catch (Exception e) {
       numErrors.inc();
       LOG.error("Error in group by transform", e);
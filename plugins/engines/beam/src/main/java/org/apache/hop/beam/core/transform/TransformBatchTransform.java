@@ -27,6 +27,7 @@ import java.util.TimerTask;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicLong;
 import org.apache.beam.sdk.metrics.Counter;
+import org.apache.beam.sdk.metrics.Distribution;
 import org.apache.beam.sdk.metrics.Metrics;
 import org.apache.beam.sdk.transforms.ParDo;
 import org.apache.beam.sdk.transforms.windowing.BoundedWindow;
@@ -39,6 +40,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.hop.beam.core.BeamHop;
 import org.apache.hop.beam.core.HopRow;
 import org.apache.hop.beam.core.shared.VariableValue;
+import org.apache.hop.beam.core.util.AdaptiveBatchSize;
 import org.apache.hop.beam.core.util.HopBeamUtil;
 import org.apache.hop.beam.engines.HopPipelineExecutionOptions;
 import org.apache.hop.core.exception.HopException;
@@ -78,6 +80,8 @@ import org.apache.hop.pipeline.transforms.injector.InjectorMeta;
 
 public class TransformBatchTransform extends TransformTransform {
 
+  protected boolean adaptiveBatching;
+
   public TransformBatchTransform() {
     super();
   }
@@ -87,6 +91,7 @@ public class TransformBatchTransform extends TransformTransform {
       String metastoreJson,
       int batchSize,
       int flushIntervalMs,
+      boolean adaptiveBatching,
       String transformName,
       String transformPluginId,
       String transformMetaInterfaceXml,
@@ -116,6 +121,7 @@ public class TransformBatchTransform extends TransformTransform {
         runConfigName,
         dataSamplersJson,
         parentLogChannelId);
+    this.adaptiveBatching = adaptiveBatching;
   }
 
   @Override
@@ -235,6 +241,9 @@ public class TransformBatchTransform extends TransformTransform {
     private transient Counter readCounter;
     private transient Counter writtenCounter;
     private transient Counter flushBufferCounter;
+    private transient Distribution batchSizeDistribution;
+
+    private transient AdaptiveBatchSize adaptiveBatchSize;
 
     private transient SingleThreadedPipelineExecutor executor;
 
@@ -593,6 +602,14 @@ public class TransformBatchTransform extends TransformTransform {
           readCounter = Metrics.counter(Pipeline.METRIC_NAME_READ, transformName);
           writtenCounter = Metrics.counter(Pipeline.METRIC_NAME_WRITTEN, transformName);
           flushBufferCounter = Metrics.counter(Pipeline.METRIC_NAME_FLUSH_BUFFER, transformName);
+          batchSizeDistribution =
+              Metrics.distribution(Pipeline.METRIC_NAME_BATCH_SIZE, transformName);
+
+          // Without adaptive batching the transform always gets the configured number of rows
+          //
+          if (adaptiveBatching) {
+            adaptiveBatchSize = new AdaptiveBatchSize(batchSize, flushIntervalMs);
+          }
 
           initCounter.inc();
 
@@ -647,7 +664,7 @@ public class TransformBatchTransform extends TransformTransform {
                       long difference = System.currentTimeMillis() - lastTimerCheck.get();
                       if (lastTimerCheck.get() <= 0 || difference > flushIntervalMs) {
                         try {
-                          emptyRowBuffer(new TransformProcessContext(context));
+                          emptyRowBuffer(new TransformProcessContext(context), false);
                         } catch (Exception e) {
                           throw new HopRuntimeException(
                               "Unable to flush row buffer when it got stale after "
@@ -684,8 +701,8 @@ public class TransformBatchTransform extends TransformTransform {
           batchWindow = window;
 
           synchronized (rowBuffer) {
-            if (rowBuffer.size() >= batchSize) {
-              emptyRowBuffer(new TransformProcessContext(context));
+            if (rowBuffer.size() >= currentBatchSize()) {
+              emptyRowBuffer(new TransformProcessContext(context), true);
             }
           }
         }
@@ -701,7 +718,7 @@ public class TransformBatchTransform extends TransformTransform {
       try {
         synchronized (rowBuffer) {
           if (!rowBuffer.isEmpty()) {
-            emptyRowBuffer(new TransformFinishBundleContext(context, batchWindow));
+            emptyRowBuffer(new TransformFinishBundleContext(context, batchWindow), false);
           }
         }
       } catch (Exception e) {
@@ -712,16 +729,19 @@ public class TransformBatchTransform extends TransformTransform {
       }
     }
 
-    private transient int maxInputBufferSize = 0;
-    private transient int minInputBufferSize = Integer.MAX_VALUE;
+    /** The number of rows after which the buffer is passed to the transform */
+    private int currentBatchSize() {
+      return adaptiveBatchSize == null ? batchSize : adaptiveBatchSize.getSize();
+    }
 
     /**
      * Attempt to empty the row buffer
      *
      * @param context
+     * @param full true if the buffer is emptied because it reached the batch size
      * @throws HopException
      */
-    private synchronized void emptyRowBuffer(TupleOutputContext<HopRow> context)
+    private synchronized void emptyRowBuffer(TupleOutputContext<HopRow> context, boolean full)
         throws HopException {
       synchronized (rowBuffer) {
         List<HopRow> buffer = new ArrayList<>();
@@ -754,19 +774,7 @@ public class TransformBatchTransform extends TransformTransform {
         // Pass the rows in the rowBuffer to the input RowSet
         //
         if (!inputTransform) {
-          int bufferSize = buffer.size();
-          if (maxInputBufferSize < bufferSize) {
-            Metrics.counter("maxInputSize", transformName).inc(bufferSize - maxInputBufferSize);
-            maxInputBufferSize = bufferSize;
-          }
-          if (minInputBufferSize > bufferSize) {
-            if (minInputBufferSize == Integer.MAX_VALUE) {
-              Metrics.counter("minInputSize", transformName).inc(bufferSize);
-            } else {
-              Metrics.counter("minInputSize", transformName).dec(bufferSize - minInputBufferSize);
-            }
-            minInputBufferSize = bufferSize;
-          }
+          batchSizeDistribution.update(buffer.size());
 
           for (HopRow inputRow : buffer) {
             rowProducer.putRow(inputRowMeta, inputRow.getRow());
@@ -775,7 +783,11 @@ public class TransformBatchTransform extends TransformTransform {
 
         // Execute all transforms in the transformation
         //
+        long startNanos = System.nanoTime();
         executor.oneIteration();
+        if (adaptiveBatchSize != null) {
+          adaptiveBatchSize.update(buffer.size(), System.nanoTime() - startNanos, full);
+        }
 
         // Evaluate the results...
         //
@@ -80,6 +80,9 @@ public class TransformFn extends TransformBaseFn {
   protected List<String> targetTransforms;
   protected List<String> infoTransforms;
   protected List<String> infoRowMetaJsons;
+  protected List<String> fusedTransforms;
+  protected List<String> fusedTransformPluginIds;
+  protected List<String> fusedTransformXmls;
   protected boolean inputTransform;
   protected boolean initialize;
 
@@ -126,6 +129,49 @@ public class TransformFn extends TransformBaseFn {
       String runConfigName,
       String parentLogChannelId,
       List<PCollectionView<List<HopRow>>> infoCollectionViews) {
+    this(
+        variableValues,
+        metastoreJson,
+        transformName,
+        transformPluginId,
+        transformMetaInterfaceXml,
+        inputRowMetaJson,
+        inputTransform,
+        targetTransforms,
+        infoTransforms,
+        infoRowMetaJsons,
+        new ArrayList<>(),
+        new ArrayList<>(),
+        new ArrayList<>(),
+        dataSamplersJson,
+        runConfigName,
+        parentLogChannelId,
+        infoCollectionViews);
+  }
+
+  /**
+   * The fused transforms are row-local transforms which follow the main transform in a straight
+   * line. They run in the same single threaded pipeline so rows only leave this function after the
+   * last of them.
+   */
+  public TransformFn(
+      List<VariableValue> variableValues,
+      String metastoreJson,
+      String transformName,
+      String transformPluginId,
+      String transformMetaInterfaceXml,
+      String inputRowMetaJson,
+      boolean inputTransform,
+      List<String> targetTransforms,
+      List<String> infoTransforms,
+      List<String> infoRowMetaJsons,
+      List<String> fusedTransforms,
+      List<String> fusedTransformPluginIds,
+      List<String> fusedTransformXmls,
+      String dataSamplersJson,
+      String runConfigName,
+      String parentLogChannelId,
+      List<PCollectionView<List<HopRow>>> infoCollectionViews) {
     super(parentLogChannelId, runConfigName, dataSamplersJson);
     this.variableValues = variableValues;
     this.metastoreJson = metastoreJson;
@@ -137,6 +183,9 @@ public class TransformFn extends TransformBaseFn {
     this.targetTransforms = targetTransforms;
     this.infoTransforms = infoTransforms;
     this.infoRowMetaJsons = infoRowMetaJsons;
+    this.fusedTransforms = fusedTransforms;
+    this.fusedTransformPluginIds = fusedTransformPluginIds;
+    this.fusedTransformXmls = fusedTransformXmls;
     this.dataSamplersJson = dataSamplersJson;
     this.infoCollectionViews = infoCollectionViews;
     this.initialize = true;
@@ -245,7 +294,7 @@ public class TransformFn extends TransformBaseFn {
           createInjectorTransform(pipelineMeta, INJECTOR_TRANSFORM_NAME, inputRowMeta, 200, 200);
     }
 
-    // Our main transform writes to a bunch of targets
+    // Our main transform (or the last fused transform) writes to a bunch of targets
     // Add a dummy transform for each one so the transform can target them
     //
     int targetLocationY = 200;
@@ -253,7 +302,7 @@ public class TransformFn extends TransformBaseFn {
     for (String targetTransform : targetTransforms) {
       DummyMeta dummyMeta = new DummyMeta();
       TransformMeta targetTransformMeta = new TransformMeta(targetTransform, dummyMeta);
-      targetTransformMeta.setLocation(600, targetLocationY);
+      targetTransformMeta.setLocation(600 + 200 * fusedTransforms.size(), targetLocationY);
       targetLocationY += 150;
 
       targetTransformMetas.add(targetTransformMeta);
@@ -288,33 +337,31 @@ public class TransformFn extends TransformBaseFn {
 
     // The main transform inflated from XML metadata...
     //
-    PluginRegistry registry = PluginRegistry.getInstance();
-    ITransformMeta iTransformMeta =
-        registry.loadClass(TransformPluginType.class, transformPluginId, ITransformMeta.class);
-    if (iTransformMeta == null) {
-      throw new HopException(
-          "Unable to load transform plugin with ID "
-              + transformPluginId
-              + ", this plugin isn't in the plugin registry or classpath");
-    }
-
-    HopBeamUtil.loadTransformMetadataFromXml(
-        transformName,
-        iTransformMeta,
-        transformMetaInterfaceXml,
-        pipelineMeta.getMetadataProvider());
-
-    transformMeta = new TransformMeta(transformName, iTransformMeta);
-    transformMeta.setTransformPluginId(transformPluginId);
+    transformMeta = loadTransformMeta(transformName, transformPluginId, transformMetaInterfaceXml);
+    ITransformMeta iTransformMeta = transformMeta.getTransform();
     transformMeta.setLocation(400, 200);
     pipelineMeta.addTransform(transformMeta);
     if (!inputTransform) {
       pipelineMeta.addPipelineHop(new PipelineHopMeta(mainInjectorTransformMeta, transformMeta));
     }
+
+    // The fused transforms follow the main transform one after the other
+    //
+    TransformMeta outputTransformMeta = transformMeta;
+    for (int i = 0; i < fusedTransforms.size(); i++) {
+      TransformMeta fusedTransformMeta =
+          loadTransformMeta(
+              fusedTransforms.get(i), fusedTransformPluginIds.get(i), fusedTransformXmls.get(i));
+      fusedTransformMeta.setLocation(600 + 200 * i, 200);
+      pipelineMeta.addTransform(fusedTransformMeta);
+      pipelineMeta.addPipelineHop(new PipelineHopMeta(outputTransformMeta, fusedTransformMeta));
+      outputTransformMeta = fusedTransformMeta;
+    }
+
     // The target hops as well
     //
     for (TransformMeta targetTransformMeta : targetTransformMetas) {
-      pipelineMeta.addPipelineHop(new PipelineHopMeta(transformMeta, targetTransformMeta));
+      pipelineMeta.addPipelineHop(new PipelineHopMeta(outputTransformMeta, targetTransformMeta));
     }
 
     // And the info hops...
@@ -331,6 +378,11 @@ public class TransformFn extends TransformBaseFn {
     lookupExecutionInformation(variables, metadataProvider);
 
     iTransformMeta.searchInfoAndTargetTransforms(pipelineMeta.getTransforms());
+    if (outputTransformMeta != transformMeta) {
+      outputTransformMeta
+          .getTransform()
+          .searchInfoAndTargetTransforms(pipelineMeta.getTransforms());
+    }
 
     // Create the transformation...
     //
@@ -380,6 +432,12 @@ public class TransformFn extends TransformBaseFn {
     TransformMetaDataCombi transformCombi = findCombi(pipeline, transformName);
     transformCombis.add(transformCombi);
 
+    TransformMetaDataCombi outputCombi = transformCombi;
+    for (String fusedTransform : fusedTransforms) {
+      outputCombi = findCombi(pipeline, fusedTransform);
+      transformCombis.add(outputCombi);
+    }
+
     if (targetTransforms.isEmpty()) {
       IRowListener rowListener =
           new RowAdapter() {
@@ -389,7 +447,7 @@ public class TransformFn extends TransformBaseFn {
               resultRows.add(new HopRow(row, rowMeta.size()));
             }
           };
-      transformCombi.transform.addRowListener(rowListener);
+      outputCombi.transform.addRowListener(rowListener);
     }
 
     // Create a list of TupleTag to direct the target rows
@@ -406,7 +464,8 @@ public class TransformFn extends TransformBaseFn {
       TransformMetaDataCombi targetCombi = findCombi(pipeline, targetTransform);
       transformCombis.add(targetCombi);
 
-      String tupleId = HopBeamUtil.createTargetTupleId(transformName, targetTransform);
+      String tupleId =
+          HopBeamUtil.createTargetTupleId(outputTransformMeta.getName(), targetTransform);
       TupleTag<HopRow> tupleTag = new TupleTag<>(tupleId) {};
       tupleTagList.add(tupleTag);
       final List<Object[]> targetResultRows = new ArrayList<>();
@@ -447,10 +506,40 @@ public class TransformFn extends TransformBaseFn {
 
     Counter initCounter = Metrics.counter(Pipeline.METRIC_NAME_INIT, transformName);
     readCounter = Metrics.counter(Pipeline.METRIC_NAME_READ, transformName);
-    writtenCounter = Metrics.counter(Pipeline.METRIC_NAME_WRITTEN, transformName);
+    writtenCounter = Metrics.counter(Pipeline.METRIC_NAME_WRITTEN, outputTransformMeta.getName());
 
     initCounter.inc();
 
+    // The rows passed between fused transforms never leave this function.
+    // Count them on the transforms themselves.
+    //
+    String previousTransform = transformName;
+    for (String fusedTransform : fusedTransforms) {
+      Metrics.counter(Pipeline.METRIC_NAME_INIT, fusedTransform).inc();
+      Counter previousWrittenCounter =
+          Metrics.counter(Pipeline.METRIC_NAME_WRITTEN, previousTransform);
+      Counter fusedReadCounter = Metrics.counter(Pipeline.METRIC_NAME_READ, fusedTransform);
+      findCombi(pipeline, previousTransform)
+          .transform
+          .addRowListener(
+              new RowAdapter() {
+                @Override
+                public void rowWrittenEvent(IRowMeta rowMeta, Object[] row) {
+                  previousWrittenCounter.inc();
+                }
+              });
+      findCombi(pipeline, fusedTransform)
+          .transform
+          .addRowListener(
+              new RowAdapter() {
+                @Override
+                public void rowReadEvent(IRowMeta rowMeta, Object[] row) {
+                  fusedReadCounter.inc();
+                }
+              });
+      previousTransform = fusedTransform;
+    }
+
     // Doesn't really start the threads in single threaded mode
     // Just sets some flags all over the place
     //
@@ -541,6 +630,26 @@ public class TransformFn extends TransformBaseFn {
     }
   }
 
+  private TransformMeta loadTransformMeta(String name, String pluginId, String xml)
+      throws HopException {
+    PluginRegistry registry = PluginRegistry.getInstance();
+    ITransformMeta iTransformMeta =
+        registry.loadClass(TransformPluginType.class, pluginId, ITransformMeta.class);
+    if (iTransformMeta == null) {
+      throw new HopException(
+          "Unable to load transform plugin with ID "
+              + pluginId
+              + ", this plugin isn't in the plugin registry or classpath");
+    }
+
+    HopBeamUtil.loadTransformMetadataFromXml(
+        name, iTransformMeta, xml, pipelineMeta.getMetadataProvider());
+
+    TransformMeta loadedTransformMeta = new TransformMeta(name, iTransformMeta);
+    loadedTransformMeta.setTransformPluginId(pluginId);
+    return loadedTransformMeta;
+  }
+
   private TransformMeta createInjectorTransform(
       PipelineMeta pipelineMeta,
       String injectorTransformName,
@@ -49,6 +49,9 @@ public class TransformTransform extends PTransform<PCollection<HopRow>, PCollect
   protected List<String> targetTransforms;
   protected List<String> infoTransforms;
   protected List<String> infoRowMetaJsons;
+  protected List<String> fusedTransforms;
+  protected List<String> fusedTransformPluginIds;
+  protected List<String> fusedTransformXmls;
   protected int flushIntervalMs;
 
   // Execution information vectors
@@ -66,6 +69,9 @@ public class TransformTransform extends PTransform<PCollection<HopRow>, PCollect
 
   public TransformTransform() {
     variableValues = new ArrayList<>();
+    fusedTransforms = new ArrayList<>();
+    fusedTransformPluginIds = new ArrayList<>();
+    fusedTransformXmls = new ArrayList<>();
   }
 
   public TransformTransform(
@@ -85,6 +91,52 @@ public class TransformTransform extends PTransform<PCollection<HopRow>, PCollect
       String runConfigName,
       String dataSamplersJson,
       String parentLogChannelId) {
+    this(
+        variableValues,
+        metastoreJson,
+        batchSize,
+        flushIntervalMs,
+        transformName,
+        transformPluginId,
+        transformMetaInterfaceXml,
+        inputRowMetaJson,
+        inputTransform,
+        targetTransforms,
+        infoTransforms,
+        infoRowMetaJsons,
+        infoCollectionViews,
+        new ArrayList<>(),
+        new ArrayList<>(),
+        new ArrayList<>(),
+        runConfigName,
+        dataSamplersJson,
+        parentLogChannelId);
+  }
+
+  /**
+   * Run the transform together with the row-local transforms which follow it in a single DoFn. The
+   * main output and the target outputs are then those of the last fused transform.
+   */
+  public TransformTransform(
+      List<VariableValue> variableValues,
+      String metastoreJson,
+      int batchSize,
+      int flushIntervalMs,
+      String transformName,
+      String transformPluginId,
+      String transformMetaInterfaceXml,
+      String inputRowMetaJson,
+      boolean inputTransform,
+      List<String> targetTransforms,
+      List<String> infoTransforms,
+      List<String> infoRowMetaJsons,
+      List<PCollectionView<List<HopRow>>> infoCollectionViews,
+      List<String> fusedTransforms,
+      List<String> fusedTransformPluginIds,
+      List<String> fusedTransformXmls,
+      String runConfigName,
+      String dataSamplersJson,
+      String parentLogChannelId) {
     this.variableValues = variableValues;
     this.metastoreJson = metastoreJson;
     this.batchSize = batchSize;
@@ -98,6 +150,9 @@ public class TransformTransform extends PTransform<PCollection<HopRow>, PCollect
     this.infoTransforms = infoTransforms;
     this.infoRowMetaJsons = infoRowMetaJsons;
     this.infoCollectionViews = infoCollectionViews;
+    this.fusedTransforms = fusedTransforms;
+    this.fusedTransformPluginIds = fusedTransformPluginIds;
+    this.fusedTransformXmls = fusedTransformXmls;
     this.runConfigName = runConfigName;
     this.dataSamplersJson = dataSamplersJson;
     this.parentLogChannelId = parentLogChannelId;
@@ -114,9 +169,13 @@ public class TransformTransform extends PTransform<PCollection<HopRow>, PCollect
       //
       TupleTag<HopRow> mainOutputTupleTag =
           new TupleTag<>(HopBeamUtil.createMainOutputTupleId(transformName)) {};
+      String outputTransformName =
+          fusedTransforms.isEmpty()
+              ? transformName
+              : fusedTransforms.get(fusedTransforms.size() - 1);
       TupleTagList targetTupleTagList = null;
       for (String targetTransform : targetTransforms) {
-        String tupleId = HopBeamUtil.createTargetTupleId(transformName, targetTransform);
+        String tupleId = HopBeamUtil.createTargetTupleId(outputTransformName, targetTransform);
         TupleTag<HopRow> tupleTag = new TupleTag<>(tupleId) {};
         if (targetTupleTagList == null) {
           targetTupleTagList = TupleTagList.of(tupleTag);
@@ -142,6 +201,9 @@ public class TransformTransform extends PTransform<PCollection<HopRow>, PCollect
               targetTransforms,
               infoTransforms,
               infoRowMetaJsons,
+              fusedTransforms,
+              fusedTransformPluginIds,
+              fusedTransformXmls,
               dataSamplersJson,
               runConfigName,
               parentLogChannelId,
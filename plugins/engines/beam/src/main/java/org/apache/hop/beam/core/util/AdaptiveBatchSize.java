@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.beam.core.util;
+
+/**
+ * The number of rows a batching transform gets at once, based on how long it took to process the
+ * previous batches. A batch should take about the target duration: transforms which spend little
+ * time per row get larger batches, up to the maximum size, transforms which wait on a database or a
+ * web service get smaller ones. The size only grows after a full batch, when bundles end before the
+ * batch is full a larger size wouldn't give larger batches.
+ */
+public class AdaptiveBatchSize {
+
+  /** The size of the first batch, before anything is known about the transform */
+  public static final int INITIAL_SIZE = 50;
+
+  /** How long processing a batch should take without a flush interval */
+  public static final long DEFAULT_TARGET_MS = 1000L;
+
+  /** The weight of the last batch in the average time per row */
+  private static final double WEIGHT = 0.3;
+
+  private final int maximumSize;
+  private final long targetNanos;
+
+  private int size;
+  private double nanosPerRow;
+
+  /**
+   * @param maximumSize the largest number of rows in a batch
+   * @param targetMs how long processing a batch should take, the default is used when this isn't
+   *     positive
+   */
+  public AdaptiveBatchSize(int maximumSize, long targetMs) {
+    this.maximumSize = Math.max(1, maximumSize);
+    this.targetNanos = (targetMs > 0 ? targetMs : DEFAULT_TARGET_MS) * 1_000_000L;
+    this.size = Math.min(this.maximumSize, INITIAL_SIZE);
+    this.nanosPerRow = -1;
+  }
+
+  /**
+   * Learn from a processed batch.
+   *
+   * @param rows the number of rows in the batch
+   * @param nanos the time it took to process the batch
+   * @param full true if the batch was processed because it reached the size
+   */
+  public void update(int rows, long nanos, boolean full) {
+    if (rows <= 0) {
+      return;
+    }
+    double lastNanosPerRow = Math.max(0L, nanos) / (double) rows;
+    if (nanosPerRow < 0) {
+      nanosPerRow = lastNanosPerRow;
+    } else {
+      nanosPerRow = WEIGHT * lastNanosPerRow + (1 - WEIGHT) * nanosPerRow;
+    }
+
+    int fittingSize =
+        nanosPerRow < 1
+            ? maximumSize
+            : (int) Math.max(1, Math.min(maximumSize, targetNanos / nanosPerRow));
+    if (fittingSize < size) {
+      size = fittingSize;
+    } else if (full) {
+      // Grow gradually, a single fast batch shouldn't give a huge next one
+      //
+      size = (int) Math.min(fittingSize, 2L * size);
+    }
+  }
+
+  /**
+   * Gets size
+   *
+   * @return the number of rows the next batch should have
+   */
+  public int getSize() {
+    return size;
+  }
+}
@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.beam.core.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Serializable;
+import java.util.Date;
+import org.apache.hop.core.row.IValueMeta;
+
+/**
+ * Encodes the sort fields of a row into bytes which sort, compared unsigned and lexicographically,
+ * in the order {@code IRowMeta.compare()} gives the rows. Beam sorts values within a key on such
+ * bytes. Every field is encoded so that no value is the prefix of another one, a descending field
+ * has its bytes inverted. Like Hop, null values come first in ascending order.
+ */
+public class SortKeyEncoder implements Serializable {
+
+  private static final byte NULL = 0x00;
+  private static final byte NOT_NULL = 0x01;
+  private static final byte STRING_END = 0x00;
+  private static final byte STRING_CHAR = 0x01;
+
+  private final int[] fieldIndexes;
+  private final int[] types;
+  private final boolean[] descending;
+  private final boolean[] caseInsensitive;
+  private final boolean emptyStringIsNull;
+
+  /**
+   * @param fieldIndexes the indexes of the sort fields in the row
+   * @param valueMetas the metadata of the sort fields with the sort order, see {@link
+   *     #canEncode(IValueMeta)}
+   * @param emptyStringIsNull true if empty strings sort like null values
+   */
+  public SortKeyEncoder(int[] fieldIndexes, IValueMeta[] valueMetas, boolean emptyStringIsNull) {
+    this.fieldIndexes = fieldIndexes;
+    this.types = new int[valueMetas.length];
+    this.descending = new boolean[valueMetas.length];
+    this.caseInsensitive = new boolean[valueMetas.length];
+    for (int i = 0; i < valueMetas.length; i++) {
+      types[i] = valueMetas[i].getType();
+      descending[i] = valueMetas[i].isSortedDescending();
+      caseInsensitive[i] = valueMetas[i].isCaseInsensitive();
+    }
+    this.emptyStringIsNull = emptyStringIsNull;
+  }
+
+  /**
+   * See if the values of a field compare in Hop the way they are encoded: normal storage, no
+   * collator and no trimming of strings.
+   */
+  public static boolean canEncode(IValueMeta valueMeta) {
+    if (!valueMeta.isStorageNormal()) {
+      return false;
+    }
+    return switch (valueMeta.getType()) {
+      case IValueMeta.TYPE_STRING ->
+          valueMeta.isCollatorDisabled()
+              && !valueMeta.isIgnoreWhitespace()
+              && valueMeta.getTrimType() == IValueMeta.TRIM_TYPE_NONE;
+      case IValueMeta.TYPE_INTEGER,
+              IValueMeta.TYPE_NUMBER,
+              IValueMeta.TYPE_DATE,
+              IValueMeta.TYPE_BOOLEAN ->
+          true;
+      default -> false;
+    };
+  }
+
+  public byte[] encode(Object[] row) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(fieldIndexes.length * 10);
+    for (int i = 0; i < fieldIndexes.length; i++) {
+      int start = out.size();
+      Object value = row[fieldIndexes[i]];
+      if (value == null || (emptyStringIsNull && "".equals(value))) {
+        out.write(NULL);
+      } else {
+        out.write(NOT_NULL);
+        writeValue(out, i, value);
+      }
+      if (descending[i]) {
+        invert(out, start);
+      }
+    }
+    return out.toByteArray();
+  }
+
+  private void writeValue(ByteArrayOutputStream out, int field, Object value) {
+    switch (types[field]) {
+      case IValueMeta.TYPE_STRING -> {
+        String string = (String) value;
+        for (int i = 0; i < string.length(); i++) {
+          char c = string.charAt(i);
+          if (caseInsensitive[field]) {
+            // The characters String.compareToIgnoreCase() compares
+            c = Character.toLowerCase(Character.toUpperCase(c));
+          }
+          out.write(STRING_CHAR);
+          out.write(c >>> 8);
+          out.write(c);
+        }
+        out.write(STRING_END);
+      }
+      case IValueMeta.TYPE_INTEGER -> writeLong(out, ((Long) value) ^ Long.MIN_VALUE);
+      case IValueMeta.TYPE_NUMBER -> {
+        // The order of Double.compare(), also for -0.0 and NaN
+        long bits = Double.doubleToLongBits((Double) value);
+        writeLong(out, bits < 0 ? ~bits : bits ^ Long.MIN_VALUE);
+      }
+      case IValueMeta.TYPE_DATE -> writeLong(out, ((Date) value).getTime() ^ Long.MIN_VALUE);
+      case IValueMeta.TYPE_BOOLEAN -> out.write(Boolean.TRUE.equals(value) ? 1 : 0);
+      default ->
+          throw new IllegalArgumentException("Values of type " + types[field] + " can't be sorted");
+    }
+  }
+
+  private static void writeLong(ByteArrayOutputStream out, long value) {
+    for (int shift = 56; shift >= 0; shift -= 8) {
+      out.write((int) (value >>> shift));
+    }
+  }
+
+  /** Invert the bytes written since the start position, this reverses their order. */
+  private static void invert(ByteArrayOutputStream out, int start) {
+    byte[] bytes = out.toByteArray();
+    out.reset();
+    out.write(bytes, 0, start);
+    for (int i = start; i < bytes.length; i++) {
+      out.write(~bytes[i]);
+    }
+  }
+}
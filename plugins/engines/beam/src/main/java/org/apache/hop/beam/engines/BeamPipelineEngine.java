@@ -37,6 +37,7 @@ import org.apache.beam.runners.flink.FlinkRunner;
 import org.apache.beam.runners.spark.SparkRunner;
 import org.apache.beam.sdk.PipelineResult;
 import org.apache.beam.sdk.io.FileSystems;
+import org.apache.beam.sdk.metrics.DistributionResult;
 import org.apache.beam.sdk.metrics.MetricQueryResults;
 import org.apache.beam.sdk.metrics.MetricResult;
 import org.apache.beam.sdk.metrics.MetricResults;
@@ -537,6 +538,21 @@ public abstract class BeamPipelineEngine extends Variables
           }
         }
 
+        // The average number of rows batching transforms got at once
+        //
+        for (MetricResult<DistributionResult> result : allResults.getDistributions()) {
+          EngineComponent engineComponent = componentsMap.get(result.getName().getName());
+          DistributionResult distribution = result.getAttempted();
+          if (engineComponent != null
+              && distribution != null
+              && distribution.getCount() > 0
+              && Pipeline.METRIC_NAME_BATCH_SIZE.equalsIgnoreCase(
+                  result.getName().getNamespace())) {
+            em.setComponentMetric(
+                engineComponent, Pipeline.METRIC_BATCH_SIZE, Math.round(distribution.getMean()));
+          }
+        }
+
         em.getComponents().clear();
         em.getComponents().addAll(componentsMap.values());
       }
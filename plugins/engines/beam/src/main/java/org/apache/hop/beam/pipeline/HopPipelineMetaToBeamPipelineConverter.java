@@ -21,6 +21,7 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -42,10 +43,14 @@ import org.apache.hop.beam.engines.HopPipelineExecutionOptions;
 import org.apache.hop.beam.engines.IBeamPipelineEngineRunConfiguration;
 import org.apache.hop.beam.engines.dataflow.BeamDataFlowPipelineRunConfiguration;
 import org.apache.hop.beam.metadata.RunnerType;
+import org.apache.hop.beam.pipeline.handler.BeamFilterRowsTransformHandler;
 import org.apache.hop.beam.pipeline.handler.BeamGenericTransformHandler;
 import org.apache.hop.beam.pipeline.handler.BeamMemoryGroupByTransformHandler;
 import org.apache.hop.beam.pipeline.handler.BeamMergeJoinTransformHandler;
+import org.apache.hop.beam.pipeline.handler.BeamNativeTransformHandler;
 import org.apache.hop.beam.pipeline.handler.BeamRowGeneratorTransformHandler;
+import org.apache.hop.beam.pipeline.handler.BeamSortRowsTransformHandler;
+import org.apache.hop.beam.pipeline.handler.BeamStreamLookupTransformHandler;
 import org.apache.hop.beam.util.BeamConst;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.exception.HopException;
@@ -63,8 +68,10 @@ import org.apache.hop.execution.sampler.IExecutionDataSamplerStore;
 import org.apache.hop.metadata.api.IHopMetadataProvider;
 import org.apache.hop.pipeline.PipelineMeta;
 import org.apache.hop.pipeline.config.PipelineRunConfiguration;
+import org.apache.hop.pipeline.engine.FusableTransforms;
 import org.apache.hop.pipeline.transform.ITransformMeta;
 import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transform.stream.IStream;
 import org.apache.hop.pipeline.transforms.groupby.GroupByMeta;
 import org.apache.hop.pipeline.transforms.uniquerows.UniqueRowsMeta;
 import org.jboss.jandex.AnnotationInstance;
@@ -107,6 +114,7 @@ public class HopPipelineMetaToBeamPipelineConverter {
   protected SerializableMetadataProvider metadataProvider;
   protected String metaStoreJson;
   protected Map<String, IBeamPipelineTransformHandler> transformHandlers;
+  protected Map<String, BeamNativeTransformHandler> nativeTransformHandlers;
   protected IBeamPipelineTransformHandler genericTransformHandler;
   protected IBeamPipelineEngineRunConfiguration pipelineRunConfiguration;
   protected final String dataSamplersJson;
@@ -122,6 +130,7 @@ public class HopPipelineMetaToBeamPipelineConverter {
       String parentLogChannelId)
       throws HopException {
     this.transformHandlers = new HashMap<>();
+    this.nativeTransformHandlers = new HashMap<>();
 
     // Serialize the data samplers to JSON
     this.dataSamplersJson = serializeDataSamplers(dataSamplers);
@@ -173,6 +182,7 @@ public class HopPipelineMetaToBeamPipelineConverter {
       String parentLogChannelId)
       throws HopException {
     this.transformHandlers = new HashMap<>();
+    this.nativeTransformHandlers = new HashMap<>();
 
     // Serialize the data samplers to JSON
     this.dataSamplersJson = serializeDataSamplers(dataSamplers);
@@ -239,6 +249,15 @@ public class HopPipelineMetaToBeamPipelineConverter {
         BeamConst.STRING_BEAM_ROW_GENERATOR_PLUGIN_ID, new BeamRowGeneratorTransformHandler());
     transformHandlers.put(
         BeamConst.STRING_MEMORY_GROUP_BY_PLUGIN_ID, new BeamMemoryGroupByTransformHandler());
+
+    // Transforms which are expressed with Beam transforms when their settings allow it
+    //
+    nativeTransformHandlers.put(
+        BeamConst.STRING_FILTER_ROWS_PLUGIN_ID, new BeamFilterRowsTransformHandler());
+    nativeTransformHandlers.put(
+        BeamConst.STRING_STREAM_LOOKUP_PLUGIN_ID, new BeamStreamLookupTransformHandler());
+    nativeTransformHandlers.put(
+        BeamConst.STRING_SORT_ROWS_PLUGIN_ID, new BeamSortRowsTransformHandler());
     genericTransformHandler = new BeamGenericTransformHandler();
   }
 
@@ -408,6 +427,8 @@ public class HopPipelineMetaToBeamPipelineConverter {
           null,
           null,
           parentLogChannelId);
+
+      setRowCoders(transformMeta, transformCollectionMap);
     }
   }
 
@@ -493,7 +514,14 @@ public class HopPipelineMetaToBeamPipelineConverter {
     //
     List<TransformMeta> transforms = getSortedTransformsList();
 
+    // The transforms which were fused into the DoFn of a transform before them
+    //
+    Set<TransformMeta> fusedTransforms = new HashSet<>();
+
     for (TransformMeta transformMeta : transforms) {
+      if (fusedTransforms.contains(transformMeta)) {
+        continue;
+      }
 
       // Input and output transforms are handled else where.
       //
@@ -604,6 +632,67 @@ public class HopPipelineMetaToBeamPipelineConverter {
           }
         }
 
+        if (transformHandler == null && input != null) {
+          BeamNativeTransformHandler nativeHandler =
+              findNativeTransformHandler(transformMeta, rowMeta);
+          if (nativeHandler != null) {
+            nativeHandler.handleTransform(
+                log,
+                variables,
+                runConfigName,
+                pipelineRunConfiguration,
+                dataSamplersJson,
+                metadataProvider,
+                pipelineMeta,
+                transformMeta,
+                transformCollectionMap,
+                pipeline,
+                rowMeta,
+                previousTransforms,
+                input,
+                parentLogChannelId);
+            setRowCoders(transformMeta, transformCollectionMap);
+            continue;
+          }
+        }
+
+        if (transformHandler == null
+            && genericTransformHandler instanceof BeamGenericTransformHandler genericHandler) {
+          // Run the row-local transforms which follow in the same DoFn
+          //
+          List<TransformMeta> fusedTransformMetas =
+              findFusedTransforms(
+                  variables, pipelineMeta, transformMeta, transformHandlers.keySet());
+          for (TransformMeta fusedTransformMeta : fusedTransformMetas) {
+            validateTransformBeamUsage(fusedTransformMeta.getTransform());
+          }
+          fusedTransforms.addAll(fusedTransformMetas);
+
+          genericHandler.handleTransform(
+              log,
+              variables,
+              runConfigName,
+              pipelineRunConfiguration,
+              dataSamplersJson,
+              metadataProvider,
+              pipelineMeta,
+              transformMeta,
+              transformCollectionMap,
+              pipeline,
+              rowMeta,
+              previousTransforms,
+              input,
+              parentLogChannelId,
+              fusedTransformMetas);
+
+          setRowCoders(
+              fusedTransformMetas.isEmpty()
+                  ? transformMeta
+                  : fusedTransformMetas.get(fusedTransformMetas.size() - 1),
+              transformCollectionMap);
+          continue;
+        }
+
         if (transformHandler == null) {
           transformHandler = genericTransformHandler;
         }
@@ -623,10 +712,134 @@ public class HopPipelineMetaToBeamPipelineConverter {
             previousTransforms,
             input,
             parentLogChannelId);
+
+        setRowCoders(transformMeta, transformCollectionMap);
+      }
+    }
+  }
+
+  /**
+   * Find the handler which expresses the transform with Beam transforms. A transform which is fused
+   * into the DoFn of the transform before it never gets here.
+   *
+   * @param transformMeta the transform to handle
+   * @param inputRowMeta the fields of the main input of the transform
+   * @return the handler or null if the transform runs on the generic path
+   * @throws HopException in case the metadata of the transform can't be read
+   */
+  private BeamNativeTransformHandler findNativeTransformHandler(
+      TransformMeta transformMeta, IRowMeta inputRowMeta) throws HopException {
+    BeamNativeTransformHandler handler =
+        nativeTransformHandlers.get(transformMeta.getTransformPluginId());
+    if (handler == null
+        || !Const.toBoolean(
+            Const.NVL(variables.getVariable(BeamConst.STRING_VARIABLE_NATIVE_TRANSFORMS), "Y"))) {
+      return null;
+    }
+    if (!handler.canHandle(
+        variables, pipelineMeta, transformMeta, metadataProvider, inputRowMeta)) {
+      LogChannel.GENERAL.logBasic(
+          CONST_TRANSFORM
+              + transformMeta.getName()
+              + " can't be expressed with Beam transforms, it runs as a generic transform");
+      return null;
+    }
+    return handler;
+  }
+
+  /**
+   * Let the collections of rows produced by a transform use a coder which knows the layout of the
+   * rows. This way the data types don't need to be written with every value during a shuffle.
+   *
+   * @param transformMeta the transform which was just handled
+   * @param transformCollectionMap the collections per transform and target
+   * @throws HopException in case the output fields of the transform can't be determined
+   */
+  private void setRowCoders(
+      TransformMeta transformMeta, Map<String, PCollection<HopRow>> transformCollectionMap)
+      throws HopException {
+    HopRowCoder coder = new HopRowCoder(pipelineMeta.getTransformFields(variables, transformMeta));
+    String targetPrefix = HopBeamUtil.createTargetTupleId(transformMeta.getName(), "");
+    for (Map.Entry<String, PCollection<HopRow>> entry : transformCollectionMap.entrySet()) {
+      if (entry.getKey().equals(transformMeta.getName())
+          || entry.getKey().startsWith(targetPrefix)) {
+        try {
+          entry.getValue().setCoder(coder);
+        } catch (IllegalStateException e) {
+          // The collection is already used by another transform, keep the generic coder
+        }
       }
     }
   }
 
+  /**
+   * Find the transforms to run in the same DoFn as the given generic transform. These are the
+   * row-local transforms in {@link FusableTransforms#PLUGIN_IDS} which follow it in a straight
+   * line: every transform in the chain has a single hop to the next one, which only reads from that
+   * hop. Only the last transform in the chain can have target streams. Rows are then converted and
+   * handed over to Beam once for the whole chain instead of once per transform.
+   *
+   * @param variables the variables to resolve the Beam flags of the transforms with
+   * @param pipelineMeta the pipeline to convert
+   * @param transformMeta the generic transform to start from
+   * @param handledPluginIds the plugin ids of the transforms with their own handler, never fused
+   * @return the transforms to fuse in order, empty when fusion is disabled with {@link
+   *     BeamConst#STRING_VARIABLE_FUSE_TRANSFORMS} or nothing follows
+   */
+  public static List<TransformMeta> findFusedTransforms(
+      IVariables variables,
+      PipelineMeta pipelineMeta,
+      TransformMeta transformMeta,
+      Set<String> handledPluginIds) {
+    List<TransformMeta> fusedTransformMetas = new ArrayList<>();
+    if (!Const.toBoolean(
+            Const.NVL(variables.getVariable(BeamConst.STRING_VARIABLE_FUSE_TRANSFORMS), "Y"))
+        || BeamGenericTransformHandler.needsBatching(variables, transformMeta)) {
+      return fusedTransformMetas;
+    }
+    TransformMeta current = transformMeta;
+    while (!current.isDoingErrorHandling() && !hasTargetTransforms(current)) {
+      List<TransformMeta> nextTransforms = pipelineMeta.findNextTransforms(current);
+      if (nextTransforms.size() != 1) {
+        break;
+      }
+      TransformMeta next = nextTransforms.get(0);
+      if (!isFusable(variables, next, handledPluginIds)
+          || pipelineMeta.findPreviousTransforms(next, true).size() != 1) {
+        break;
+      }
+      fusedTransformMetas.add(next);
+      current = next;
+    }
+    return fusedTransformMetas;
+  }
+
+  /**
+   * @param variables the variables to resolve the Beam flags of the transform with
+   * @param transformMeta the transform to check
+   * @param handledPluginIds the plugin ids of the transforms with their own handler
+   * @return true if the transform can run in the DoFn of the transform before it
+   */
+  public static boolean isFusable(
+      IVariables variables, TransformMeta transformMeta, Set<String> handledPluginIds) {
+    return FusableTransforms.isFusable(transformMeta.getTransformPluginId())
+        && !handledPluginIds.contains(transformMeta.getTransformPluginId())
+        && !(transformMeta.getTransform() instanceof IBeamPipelineTransformHandler)
+        && !BeamGenericTransformHandler.needsBatching(variables, transformMeta)
+        && !BeamGenericTransformHandler.needsSingleThreading(transformMeta)
+        && !BeamGenericTransformHandler.checkTransformCopiesForReducedParallelism(transformMeta);
+  }
+
+  private static boolean hasTargetTransforms(TransformMeta transformMeta) {
+    for (IStream targetStream :
+        transformMeta.getTransform().getTransformIOMeta().getTargetStreams()) {
+      if (targetStream.getTransformMeta() != null) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   private void validateTransformBeamUsage(ITransformMeta meta) throws HopException {
     if (meta == null) {
       return;
@@ -834,6 +1047,23 @@ public class HopPipelineMetaToBeamPipelineConverter {
     this.transformHandlers = transformHandlers;
   }
 
+  /**
+   * Gets nativeTransformHandlers
+   *
+   * @return value of nativeTransformHandlers
+   */
+  public Map<String, BeamNativeTransformHandler> getNativeTransformHandlers() {
+    return nativeTransformHandlers;
+  }
+
+  /**
+   * @param nativeTransformHandlers The nativeTransformHandlers to set
+   */
+  public void setNativeTransformHandlers(
+      Map<String, BeamNativeTransformHandler> nativeTransformHandlers) {
+    this.nativeTransformHandlers = nativeTransformHandlers;
+  }
+
   /**
    * Gets genericTransformHandler
    *
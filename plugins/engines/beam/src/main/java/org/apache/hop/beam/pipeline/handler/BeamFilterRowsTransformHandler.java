@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.beam.pipeline.handler;
+
+import java.util.List;
+import java.util.Map;
+import org.apache.beam.sdk.Pipeline;
+import org.apache.beam.sdk.transforms.ParDo;
+import org.apache.beam.sdk.values.PCollection;
+import org.apache.beam.sdk.values.PCollectionTuple;
+import org.apache.beam.sdk.values.TupleTag;
+import org.apache.beam.sdk.values.TupleTagList;
+import org.apache.hop.beam.core.HopRow;
+import org.apache.hop.beam.core.fn.FilterRowsFn;
+import org.apache.hop.beam.core.util.HopBeamUtil;
+import org.apache.hop.beam.engines.IBeamPipelineEngineRunConfiguration;
+import org.apache.hop.core.Condition;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILogChannel;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.JsonRowMeta;
+import org.apache.hop.core.util.Utils;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.metadata.api.IHopMetadataProvider;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transform.stream.IStream;
+import org.apache.hop.pipeline.transforms.filterrows.FilterRowsMeta;
+
+/**
+ * Filter Rows as a ParDo which evaluates the condition. The rows for which the condition is true go
+ * to the true target or to all next transforms, the other rows go to the false target or nowhere.
+ */
+public class BeamFilterRowsTransformHandler extends BeamNativeTransformHandler {
+
+  @Override
+  protected boolean canHandleTransform(
+      IVariables variables,
+      PipelineMeta pipelineMeta,
+      TransformMeta transformMeta,
+      IHopMetadataProvider metadataProvider,
+      IRowMeta inputRowMeta)
+      throws HopException {
+    FilterRowsMeta meta = new FilterRowsMeta();
+    loadTransformMetadata(meta, transformMeta, metadataProvider, pipelineMeta);
+
+    // The transform stops with an error on unknown fields, the generic path gives that error
+    return meta.getCondition() != null
+        && Utils.isEmpty(meta.getOrphanFields(meta.getCondition(), inputRowMeta));
+  }
+
+  @Override
+  public void handleTransform(
+      ILogChannel log,
+      IVariables variables,
+      String runConfigurationName,
+      IBeamPipelineEngineRunConfiguration runConfiguration,
+      String dataSamplersJson,
+      IHopMetadataProvider metadataProvider,
+      PipelineMeta pipelineMeta,
+      TransformMeta transformMeta,
+      Map<String, PCollection<HopRow>> transformCollectionMap,
+      Pipeline pipeline,
+      IRowMeta rowMeta,
+      List<TransformMeta> previousTransforms,
+      PCollection<HopRow> input,
+      String parentLogChannelId)
+      throws HopException {
+
+    // Don't simply cast but serialize/de-serialize the metadata to prevent classloader exceptions
+    //
+    FilterRowsMeta meta = new FilterRowsMeta();
+    loadTransformMetadata(meta, transformMeta, metadataProvider, pipelineMeta);
+
+    // Resolve the variables in the constants like the transform does in init()
+    //
+    Condition condition = meta.getCondition().clone();
+    resolveVariables(variables, condition);
+    condition.clearFieldPositions();
+
+    String transformName = transformMeta.getName();
+    TupleTag<HopRow> trueTag = new TupleTag<>(HopBeamUtil.createMainOutputTupleId(transformName));
+    TupleTag<HopRow> falseTag = new TupleTag<>(transformName + " - FALSE");
+
+    FilterRowsFn filterRowsFn =
+        new FilterRowsFn(JsonRowMeta.toJson(rowMeta), condition.getXml(), falseTag, transformName);
+    PCollectionTuple tuple =
+        input.apply(
+            transformName,
+            ParDo.of(filterRowsFn).withOutputTags(trueTag, TupleTagList.of(falseTag)));
+
+    List<IStream> targetStreams = meta.getTransformIOMeta().getTargetStreams();
+    TransformMeta trueTransformMeta = targetStreams.get(0).getTransformMeta();
+    TransformMeta falseTransformMeta = targetStreams.get(1).getTransformMeta();
+    if (trueTransformMeta == null && falseTransformMeta == null) {
+      transformCollectionMap.put(transformName, tuple.get(trueTag));
+    } else {
+      if (trueTransformMeta != null) {
+        transformCollectionMap.put(
+            HopBeamUtil.createTargetTupleId(transformName, trueTransformMeta.getName()),
+            tuple.get(trueTag));
+      }
+      if (falseTransformMeta != null) {
+        transformCollectionMap.put(
+            HopBeamUtil.createTargetTupleId(transformName, falseTransformMeta.getName()),
+            tuple.get(falseTag));
+      }
+    }
+
+    log.logBasic(
+        "Handled Filter Rows (TRANSFORM) : "
+            + transformName
+            + ", gets data from "
+            + previousTransforms.size()
+            + " previous transform(s)");
+  }
+
+  private static void resolveVariables(IVariables variables, Condition condition) {
+    if (condition.isAtomic()) {
+      Condition.CValue rightValue = condition.getRightValue();
+      if (rightValue != null && rightValue.getText() != null) {
+        rightValue.setText(variables.resolve(rightValue.getText()));
+      }
+    } else {
+      for (int i = 0; i < condition.nrConditions(); i++) {
+        resolveVariables(variables, condition.getCondition(i));
+      }
+    }
+  }
+}
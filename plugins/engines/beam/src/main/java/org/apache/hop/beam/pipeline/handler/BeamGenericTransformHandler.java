@@ -89,6 +89,49 @@ public class BeamGenericTransformHandler extends BeamBaseTransformHandler
       PCollection<HopRow> input,
       String parentLogChannelId)
       throws HopException {
+    handleTransform(
+        log,
+        variables,
+        runConfigurationName,
+        runConfiguration,
+        dataSamplersJson,
+        metadataProvider,
+        pipelineMeta,
+        transformMeta,
+        transformCollectionMap,
+        pipeline,
+        rowMeta,
+        previousTransforms,
+        input,
+        parentLogChannelId,
+        List.of());
+  }
+
+  /**
+   * Handle a generic transform together with the row-local transforms which follow it. These fused
+   * transforms run in the same DoFn, so their rows are passed on within a single single-threaded
+   * pipeline instead of being handed to Beam after every transform. The collections are stored
+   * under the name of the last fused transform.
+   *
+   * @param fusedTransformMetas the transforms to run after the transform, in order
+   */
+  public void handleTransform(
+      ILogChannel log,
+      IVariables variables,
+      String runConfigurationName,
+      IBeamPipelineEngineRunConfiguration runConfiguration,
+      String dataSamplersJson,
+      IHopMetadataProvider metadataProvider,
+      PipelineMeta pipelineMeta,
+      TransformMeta transformMeta,
+      Map<String, PCollection<HopRow>> transformCollectionMap,
+      Pipeline pipeline,
+      IRowMeta rowMeta,
+      List<TransformMeta> previousTransforms,
+      PCollection<HopRow> input,
+      String parentLogChannelId,
+      List<TransformMeta> fusedTransformMetas)
+      throws HopException {
 
     // If we have no previous transform, it's an input transform.  We need to start from pipeline
     //
@@ -129,9 +172,25 @@ public class BeamGenericTransformHandler extends BeamBaseTransformHandler
     //
     List<VariableValue> variableValues = getVariableValues(variables);
 
-    // Find out all the target transforms for this transform...
+    // The fused transforms are passed along as XML as well
+    //
+    List<String> fusedTransforms = new ArrayList<>();
+    List<String> fusedTransformPluginIds = new ArrayList<>();
+    List<String> fusedTransformXmls = new ArrayList<>();
+    TransformMeta outputTransformMeta = transformMeta;
+    for (TransformMeta fusedTransformMeta : fusedTransformMetas) {
+      fusedTransforms.add(fusedTransformMeta.getName());
+      fusedTransformPluginIds.add(fusedTransformMeta.getTransformPluginId());
+      fusedTransformXmls.add(
+          XmlHandler.openTag(TransformMeta.XML_TAG)
+              + fusedTransformMeta.getTransform().getXml()
+              + XmlHandler.closeTag(TransformMeta.XML_TAG));
+      outputTransformMeta = fusedTransformMeta;
+    }
+
+    // Find out all the target transforms for this transform (or the last fused one)...
     //
-    ITransformIOMeta ioMeta = transformMeta.getTransform().getTransformIOMeta();
+    ITransformIOMeta ioMeta = outputTransformMeta.getTransform().getTransformIOMeta();
     List<String> targetTransforms = new ArrayList<>();
     for (IStream targetStream : ioMeta.getTargetStreams()) {
       if (targetStream.getTransformMeta() != null) {
@@ -162,6 +221,9 @@ public class BeamGenericTransformHandler extends BeamBaseTransformHandler
               metaStoreJson,
               sizeRowSet,
               flushIntervalMs,
+              Const.toBoolean(
+                  Const.NVL(
+                      variables.getVariable(BeamConst.STRING_VARIABLE_ADAPTIVE_BATCHING), "Y")),
               transformMeta.getName(),
               transformMeta.getTransformPluginId(),
               transformMetaInterfaceXml,
@@ -190,6 +252,9 @@ public class BeamGenericTransformHandler extends BeamBaseTransformHandler
               infoTransforms,
               infoRowMetaJsons,
               infoCollectionViews,
+              fusedTransforms,
+              fusedTransformPluginIds,
+              fusedTransformXmls,
               runConfigurationName,
               dataSamplersJson,
               parentLogChannelId);
@@ -247,12 +312,13 @@ public class BeamGenericTransformHandler extends BeamBaseTransformHandler
 
     // Save this in the map
     //
-    transformCollectionMap.put(transformMeta.getName(), mainPCollection);
+    transformCollectionMap.put(outputTransformMeta.getName(), mainPCollection);
 
     // Were there any targeted transforms in this transform?
     //
     for (String targetTransform : targetTransforms) {
-      String tupleId = HopBeamUtil.createTargetTupleId(transformMeta.getName(), targetTransform);
+      String tupleId =
+          HopBeamUtil.createTargetTupleId(outputTransformMeta.getName(), targetTransform);
       PCollection<HopRow> targetPCollection = tuple.get(new TupleTag<>(tupleId));
 
       // Store this in the map as well
@@ -268,7 +334,8 @@ public class BeamGenericTransformHandler extends BeamBaseTransformHandler
             + " previous transform(s), targets="
             + targetTransforms.size()
             + ", infos="
-            + infoTransforms.size());
+            + infoTransforms.size()
+            + (fusedTransforms.isEmpty() ? "" : ", fused with " + fusedTransforms));
   }
 
   public static boolean needsBatching(IVariables variables, TransformMeta transformMeta) {
@@ -291,7 +358,7 @@ public class BeamGenericTransformHandler extends BeamBaseTransformHandler
     return Const.toBoolean(value);
   }
 
-  private boolean checkTransformCopiesForReducedParallelism(TransformMeta transformMeta) {
+  public static boolean checkTransformCopiesForReducedParallelism(TransformMeta transformMeta) {
     if (transformMeta.getCopiesString() == null) {
       return false;
     }
@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.beam.pipeline.handler;
+
+import java.util.Map;
+import org.apache.beam.sdk.values.PCollection;
+import org.apache.hop.beam.core.HopRow;
+import org.apache.hop.beam.core.util.HopBeamUtil;
+import org.apache.hop.beam.pipeline.IBeamPipelineTransformHandler;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.metadata.api.IHopMetadataProvider;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.transform.TransformMeta;
+
+/**
+ * A transform which is expressed with Beam transforms instead of running the Hop transform in a
+ * DoFn. The converter only uses the handler if {@link #canHandle} says the result is the same as
+ * the one of the Hop transform, otherwise the transform runs on the generic path.
+ */
+public abstract class BeamNativeTransformHandler extends BeamBaseTransformHandler
+    implements IBeamPipelineTransformHandler {
+
+  @Override
+  public boolean isInput() {
+    return false;
+  }
+
+  @Override
+  public boolean isOutput() {
+    return false;
+  }
+
+  /**
+   * See if the transform can be expressed with Beam transforms. Transforms with error handling
+   * always run on the generic path.
+   *
+   * @param inputRowMeta the fields of the main input
+   * @return true if this handler can be used for the transform
+   * @throws HopException in case the metadata of the transform can't be read
+   */
+  public boolean canHandle(
+      IVariables variables,
+      PipelineMeta pipelineMeta,
+      TransformMeta transformMeta,
+      IHopMetadataProvider metadataProvider,
+      IRowMeta inputRowMeta)
+      throws HopException {
+    if (transformMeta.isDoingErrorHandling()) {
+      return false;
+    }
+    return canHandleTransform(
+        variables, pipelineMeta, transformMeta, metadataProvider, inputRowMeta);
+  }
+
+  /** See {@link #canHandle}, the checks of a particular transform. */
+  protected abstract boolean canHandleTransform(
+      IVariables variables,
+      PipelineMeta pipelineMeta,
+      TransformMeta transformMeta,
+      IHopMetadataProvider metadataProvider,
+      IRowMeta inputRowMeta)
+      throws HopException;
+
+  /**
+   * The rows coming from an info transform, also when that transform sends them to targets.
+   *
+   * @throws HopException if the rows of the info transform aren't in the map
+   */
+  protected static PCollection<HopRow> findInfoCollection(
+      Map<String, PCollection<HopRow>> transformCollectionMap,
+      TransformMeta infoTransformMeta,
+      TransformMeta transformMeta)
+      throws HopException {
+    PCollection<HopRow> collection =
+        transformCollectionMap.get(
+            HopBeamUtil.createTargetTupleId(infoTransformMeta.getName(), transformMeta.getName()));
+    if (collection == null) {
+      collection = transformCollectionMap.get(infoTransformMeta.getName());
+    }
+    if (collection == null) {
+      throw new HopException(
+          "Info transform "
+              + infoTransformMeta.getName()
+              + " providing info for '"
+              + transformMeta.getName()
+              + "' wasn't found");
+    }
+    return collection;
+  }
+
+  /** True if empty strings are null in Hop, this decides how values are compared. */
+  protected static boolean emptyStringIsNull() {
+    return !Const.toBoolean(
+        Const.NVL(System.getProperty(Const.HOP_EMPTY_STRING_DIFFERS_FROM_NULL, "N"), "N"));
+  }
+}
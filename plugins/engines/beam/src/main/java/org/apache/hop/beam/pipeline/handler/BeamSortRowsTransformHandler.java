@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.beam.pipeline.handler;
+
+import java.util.List;
+import java.util.Map;
+import org.apache.beam.sdk.Pipeline;
+import org.apache.beam.sdk.coders.ByteArrayCoder;
+import org.apache.beam.sdk.coders.KvCoder;
+import org.apache.beam.sdk.coders.VarIntCoder;
+import org.apache.beam.sdk.extensions.sorter.BufferedExternalSorter;
+import org.apache.beam.sdk.extensions.sorter.ExternalSorter;
+import org.apache.beam.sdk.extensions.sorter.SortValues;
+import org.apache.beam.sdk.transforms.GroupByKey;
+import org.apache.beam.sdk.transforms.ParDo;
+import org.apache.beam.sdk.values.KV;
+import org.apache.beam.sdk.values.PCollection;
+import org.apache.hop.beam.core.HopRow;
+import org.apache.hop.beam.core.coder.HopRowCoder;
+import org.apache.hop.beam.core.fn.SortKeyFn;
+import org.apache.hop.beam.core.fn.SortedRowsFn;
+import org.apache.hop.beam.core.util.SortKeyEncoder;
+import org.apache.hop.beam.engines.IBeamPipelineEngineRunConfiguration;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILogChannel;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.metadata.api.IHopMetadataProvider;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transforms.sort.SortRowsField;
+import org.apache.hop.pipeline.transforms.sort.SortRowsMeta;
+
+/**
+ * Sort Rows over the whole stream: all rows are grouped under one key and Beam sorts the values of
+ * that key on the encoded sort fields, spilling to disk when they don't fit in memory. The sorted
+ * rows come out of a single worker, in order for the transforms which directly follow.
+ */
+public class BeamSortRowsTransformHandler extends BeamNativeTransformHandler {
+
+  @Override
+  protected boolean canHandleTransform(
+      IVariables variables,
+      PipelineMeta pipelineMeta,
+      TransformMeta transformMeta,
+      IHopMetadataProvider metadataProvider,
+      IRowMeta inputRowMeta)
+      throws HopException {
+    SortRowsMeta meta = new SortRowsMeta();
+    loadTransformMetadata(meta, transformMeta, metadataProvider, pipelineMeta);
+    if (meta.getSortFields().isEmpty()) {
+      return false;
+    }
+    for (SortRowsField field : meta.getSortFields()) {
+      IValueMeta valueMeta = inputRowMeta.searchValueMeta(field.getFieldName());
+      if (valueMeta == null || !valueMeta.isStorageNormal()) {
+        return false;
+      }
+    }
+    for (IValueMeta valueMeta : sortValueMetas(meta, inputRowMeta)) {
+      if (!SortKeyEncoder.canEncode(valueMeta)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void handleTransform(
+      ILogChannel log,
+      IVariables variables,
+      String runConfigurationName,
+      IBeamPipelineEngineRunConfiguration runConfiguration,
+      String dataSamplersJson,
+      IHopMetadataProvider metadataProvider,
+      PipelineMeta pipelineMeta,
+      TransformMeta transformMeta,
+      Map<String, PCollection<HopRow>> transformCollectionMap,
+      Pipeline pipeline,
+      IRowMeta rowMeta,
+      List<TransformMeta> previousTransforms,
+      PCollection<HopRow> input,
+      String parentLogChannelId)
+      throws HopException {
+
+    // Don't simply cast but serialize/de-serialize the metadata to prevent classloader exceptions
+    //
+    SortRowsMeta meta = new SortRowsMeta();
+    loadTransformMetadata(meta, transformMeta, metadataProvider, pipelineMeta);
+    String transformName = transformMeta.getName();
+
+    IValueMeta[] valueMetas = sortValueMetas(meta, rowMeta);
+    int[] fieldIndexes = new int[valueMetas.length];
+    for (int i = 0; i < valueMetas.length; i++) {
+      fieldIndexes[i] = rowMeta.indexOfValue(valueMetas[i].getName());
+    }
+    SortKeyEncoder encoder = new SortKeyEncoder(fieldIndexes, valueMetas, emptyStringIsNull());
+
+    PCollection<HopRow> output =
+        input
+            .apply(transformName + " Sort keys", ParDo.of(new SortKeyFn(encoder, transformName)))
+            .setCoder(
+                KvCoder.of(
+                    VarIntCoder.of(), KvCoder.of(ByteArrayCoder.of(), new HopRowCoder(rowMeta))))
+            .apply(transformName + " Group", GroupByKey.<Integer, KV<byte[], HopRow>>create())
+            .apply(
+                transformName + " Sort",
+                SortValues.<Integer, byte[], HopRow>create(
+                    BufferedExternalSorter.options()
+                        .withExternalSorterType(ExternalSorter.Options.SorterType.NATIVE)))
+            .apply(
+                transformName,
+                ParDo.of(new SortedRowsFn(meta.isOnlyPassingUniqueRows(), transformName)));
+
+    transformCollectionMap.put(transformName, output);
+    log.logBasic(
+        "Handled Sort Rows (TRANSFORM) : "
+            + transformName
+            + ", gets data from "
+            + previousTransforms.size()
+            + " previous transform(s)");
+  }
+
+  /** The sort fields with the sort order of the transform, in the order of the transform. */
+  private static IValueMeta[] sortValueMetas(SortRowsMeta meta, IRowMeta inputRowMeta) {
+    IRowMeta sortRowMeta = inputRowMeta.clone();
+    meta.assignSortingCriteria(sortRowMeta);
+    IValueMeta[] valueMetas = new IValueMeta[meta.getSortFields().size()];
+    for (int i = 0; i < valueMetas.length; i++) {
+      valueMetas[i] = sortRowMeta.searchValueMeta(meta.getSortFields().get(i).getFieldName());
+    }
+    return valueMetas;
+  }
+}
@@ -0,0 +1,222 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.beam.pipeline.handler;
+
+import java.util.List;
+import java.util.Map;
+import org.apache.beam.sdk.Pipeline;
+import org.apache.beam.sdk.transforms.ParDo;
+import org.apache.beam.sdk.transforms.View;
+import org.apache.beam.sdk.transforms.join.CoGroupByKey;
+import org.apache.beam.sdk.transforms.join.KeyedPCollectionTuple;
+import org.apache.beam.sdk.values.KV;
+import org.apache.beam.sdk.values.PCollection;
+import org.apache.beam.sdk.values.PCollectionView;
+import org.apache.beam.sdk.values.TupleTag;
+import org.apache.hop.beam.core.HopRow;
+import org.apache.hop.beam.core.fn.StreamLookupFn;
+import org.apache.hop.beam.core.fn.StreamLookupJoinFn;
+import org.apache.hop.beam.core.fn.StreamLookupKeyFn;
+import org.apache.hop.beam.engines.IBeamPipelineEngineRunConfiguration;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILogChannel;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.util.Utils;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.metadata.api.IHopMetadataProvider;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.engine.StreamLookupRules;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transforms.streamlookup.StreamLookupMeta;
+import org.apache.hop.pipeline.transforms.streamlookup.StreamLookupMeta.MatchKey;
+import org.apache.hop.pipeline.transforms.streamlookup.StreamLookupMeta.ReturnValue;
+
+/**
+ * Stream Lookup with the lookup rows keyed on the match keys. By default the lookup rows are handed
+ * to every worker as a multimap side input, like the hash table the transform builds. With the
+ * "preserve memory" option the lookup rows are joined with the input rows through a CoGroupByKey
+ * instead, so that a large lookup stream doesn't have to fit in the memory of a worker. When the
+ * lookup stream holds the same key more than once the transform keeps the last row it reads, Beam
+ * uses any one of them.
+ */
+public class BeamStreamLookupTransformHandler extends BeamNativeTransformHandler {
+
+  @Override
+  protected boolean canHandleTransform(
+      IVariables variables,
+      PipelineMeta pipelineMeta,
+      TransformMeta transformMeta,
+      IHopMetadataProvider metadataProvider,
+      IRowMeta inputRowMeta)
+      throws HopException {
+    StreamLookupMeta meta = new StreamLookupMeta();
+    loadTransformMetadata(meta, transformMeta, metadataProvider, pipelineMeta);
+    TransformMeta infoTransformMeta = infoTransformMeta(meta);
+    if (infoTransformMeta == null || meta.getLookup().getMatchKeys().isEmpty()) {
+      return false;
+    }
+    IRowMeta infoRowMeta = pipelineMeta.getTransformFields(variables, infoTransformMeta);
+    for (MatchKey matchKey : meta.getLookup().getMatchKeys()) {
+      IValueMeta streamMeta = searchValueMeta(inputRowMeta, matchKey.getKeyStream());
+      IValueMeta lookupMeta = searchValueMeta(infoRowMeta, matchKey.getKeyLookup());
+      // The transform converts the stream key to the lookup key type, a join can't
+      if (streamMeta == null
+          || lookupMeta == null
+          || streamMeta.getType() != lookupMeta.getType()
+          || !StreamLookupRules.isExactKey(streamMeta)
+          || !StreamLookupRules.isExactKey(lookupMeta)) {
+        return false;
+      }
+    }
+    for (ReturnValue returnValue : meta.getLookup().getReturnValues()) {
+      IValueMeta valueMeta = searchValueMeta(infoRowMeta, returnValue.getValue());
+      if (valueMeta == null || Utils.isEmpty(returnValue.getValueName())) {
+        return false;
+      }
+      try {
+        defaultValue(variables, returnValue, valueMeta);
+      } catch (HopException e) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void handleTransform(
+      ILogChannel log,
+      IVariables variables,
+      String runConfigurationName,
+      IBeamPipelineEngineRunConfiguration runConfiguration,
+      String dataSamplersJson,
+      IHopMetadataProvider metadataProvider,
+      PipelineMeta pipelineMeta,
+      TransformMeta transformMeta,
+      Map<String, PCollection<HopRow>> transformCollectionMap,
+      Pipeline pipeline,
+      IRowMeta rowMeta,
+      List<TransformMeta> previousTransforms,
+      PCollection<HopRow> input,
+      String parentLogChannelId)
+      throws HopException {
+
+    // Don't simply cast but serialize/de-serialize the metadata to prevent classloader exceptions
+    //
+    StreamLookupMeta meta = new StreamLookupMeta();
+    loadTransformMetadata(meta, transformMeta, metadataProvider, pipelineMeta);
+    String transformName = transformMeta.getName();
+
+    TransformMeta infoTransformMeta = infoTransformMeta(meta);
+    PCollection<HopRow> lookupCollection =
+        findInfoCollection(transformCollectionMap, infoTransformMeta, transformMeta);
+    IRowMeta infoRowMeta = pipelineMeta.getTransformFields(variables, infoTransformMeta);
+
+    List<MatchKey> matchKeys = meta.getLookup().getMatchKeys();
+    int[] inputKeyIndexes = new int[matchKeys.size()];
+    int[] lookupKeyIndexes = new int[matchKeys.size()];
+    boolean[] emptyKeyIsNull = new boolean[matchKeys.size()];
+    for (int i = 0; i < matchKeys.size(); i++) {
+      IValueMeta streamMeta = searchValueMeta(rowMeta, matchKeys.get(i).getKeyStream());
+      IValueMeta lookupMeta = searchValueMeta(infoRowMeta, matchKeys.get(i).getKeyLookup());
+      inputKeyIndexes[i] = rowMeta.indexOfValue(streamMeta.getName());
+      lookupKeyIndexes[i] = infoRowMeta.indexOfValue(lookupMeta.getName());
+      emptyKeyIsNull[i] = streamMeta.isString() && emptyStringIsNull();
+    }
+
+    List<ReturnValue> returnValues = meta.getLookup().getReturnValues();
+    int[] valueIndexes = new int[returnValues.size()];
+    Object[] defaults = new Object[returnValues.size()];
+    for (int i = 0; i < returnValues.size(); i++) {
+      IValueMeta valueMeta = searchValueMeta(infoRowMeta, returnValues.get(i).getValue());
+      valueIndexes[i] = infoRowMeta.indexOfValue(valueMeta.getName());
+      defaults[i] = defaultValue(variables, returnValues.get(i), valueMeta);
+    }
+
+    PCollection<KV<HopRow, HopRow>> lookupKeyValues =
+        lookupCollection.apply(
+            transformName + " Lookup keys",
+            ParDo.of(
+                new StreamLookupKeyFn(
+                    lookupKeyIndexes, emptyKeyIsNull, valueIndexes, transformName)));
+
+    PCollection<HopRow> output;
+    if (meta.isMemoryPreservationActive()) {
+      PCollection<KV<HopRow, HopRow>> inputKeyValues =
+          input.apply(
+              transformName + " Input keys",
+              ParDo.of(
+                  new StreamLookupKeyFn(inputKeyIndexes, emptyKeyIsNull, null, transformName)));
+      TupleTag<HopRow> inputTag = new TupleTag<>(transformName + " - INPUT");
+      TupleTag<HopRow> lookupTag = new TupleTag<>(transformName + " - LOOKUP");
+      output =
+          KeyedPCollectionTuple.of(inputTag, inputKeyValues)
+              .and(lookupTag, lookupKeyValues)
+              .apply(transformName + " Join", CoGroupByKey.<HopRow>create())
+              .apply(
+                  transformName,
+                  ParDo.of(
+                      new StreamLookupJoinFn(
+                          inputTag, lookupTag, rowMeta.size(), defaults, transformName)));
+    } else {
+      PCollectionView<Map<HopRow, Iterable<HopRow>>> lookupView =
+          lookupKeyValues.apply(transformName + " Lookup view", View.asMultimap());
+      output =
+          input.apply(
+              transformName,
+              ParDo.of(
+                      new StreamLookupFn(
+                          lookupView,
+                          inputKeyIndexes,
+                          emptyKeyIsNull,
+                          rowMeta.size(),
+                          defaults,
+                          transformName))
+                  .withSideInputs(lookupView));
+    }
+
+    transformCollectionMap.put(transformName, output);
+    log.logBasic(
+        "Handled Stream Lookup (TRANSFORM) : "
+            + transformName
+            + (meta.isMemoryPreservationActive() ? " as a join" : " with a side input")
+            + ", looking up in "
+            + infoTransformMeta.getName());
+  }
+
+  private static TransformMeta infoTransformMeta(StreamLookupMeta meta) {
+    return meta.getTransformIOMeta().getInfoStreams().get(0).getTransformMeta();
+  }
+
+  private static IValueMeta searchValueMeta(IRowMeta rowMeta, String name) {
+    return Utils.isEmpty(name) ? null : rowMeta.searchValueMeta(name);
+  }
+
+  /**
+   * The value for rows without a match.
+   *
+   * @throws HopException when the default doesn't fit in the value field
+   */
+  private static Object defaultValue(
+      IVariables variables, ReturnValue returnValue, IValueMeta valueMeta) throws HopException {
+    return StreamLookupRules.fieldDefault(
+        variables.resolve(returnValue.getValueDefault()),
+        returnValue.getValueDefaultType(),
+        valueMeta);
+  }
+}
@@ -44,6 +44,9 @@ public class BeamConst {
   public static final String STRING_BEAM_KAFKA_CONSUME_PLUGIN_ID = "BeamKafkaConsume";
   public static final String STRING_BEAM_KAFKA_PRODUCE_PLUGIN_ID = "BeamKafkaProduce";
   public static final String STRING_BEAM_ROW_GENERATOR_PLUGIN_ID = "RowGenerator";
+  public static final String STRING_FILTER_ROWS_PLUGIN_ID = "FilterRows";
+  public static final String STRING_STREAM_LOOKUP_PLUGIN_ID = "StreamLookup";
+  public static final String STRING_SORT_ROWS_PLUGIN_ID = "SortRows";
 
   public static final String STRING_HOP_BEAM = "Hop Beam";
 
@@ -51,6 +54,19 @@ public class BeamConst {
   public static final String STRING_TRANSFORM_FLAG_SINGLE_THREADED = "SingleThreaded";
   public static final String STRING_LOCAL_PIPELINE_FLAG_LOG_LEVEL = "LogLevel";
 
+  /** Set this variable to N to run every generic transform in a DoFn of its own */
+  public static final String STRING_VARIABLE_FUSE_TRANSFORMS = "HOP_BEAM_FUSE_TRANSFORMS";
+
+  /**
+   * Set this variable to N to run Filter Rows, Stream Lookup and Sort Rows as generic transforms
+   */
+  public static final String STRING_VARIABLE_NATIVE_TRANSFORMS = "HOP_BEAM_NATIVE_TRANSFORMS";
+
+  /**
+   * Set this variable to N to always hand the configured buffer size of rows to batching transforms
+   */
+  public static final String STRING_VARIABLE_ADAPTIVE_BATCHING = "HOP_BEAM_ADAPTIVE_BATCHING";
+
   private static List<String[]> gcpWorkerCodeDescriptions =
       Arrays.asList(
           new String[] {
@@ -17,12 +17,16 @@
 
 package org.apache.hop.beam.core.coder;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetAddress;
 import java.sql.Timestamp;
 import java.util.Date;
 import org.apache.avro.Schema;
@@ -30,6 +34,16 @@ import org.apache.avro.generic.GenericData;
 import org.apache.avro.generic.GenericRecord;
 import org.apache.avro.util.Utf8;
 import org.apache.hop.beam.core.HopRow;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaBigNumber;
+import org.apache.hop.core.row.value.ValueMetaBinary;
+import org.apache.hop.core.row.value.ValueMetaBoolean;
+import org.apache.hop.core.row.value.ValueMetaDate;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.core.row.value.ValueMetaTimestamp;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -155,4 +169,96 @@ class HopRowCoderTest {
       assertEquals(genericRecord.get(key), verify.get(key));
     }
   }
+
+  private static IRowMeta createRowMeta() {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("name"));
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    rowMeta.addValueMeta(new ValueMetaNumber("amount"));
+    rowMeta.addValueMeta(new ValueMetaDate("day"));
+    rowMeta.addValueMeta(new ValueMetaTimestamp("moment"));
+    rowMeta.addValueMeta(new ValueMetaBoolean("flag"));
+    rowMeta.addValueMeta(new ValueMetaBigNumber("total"));
+    rowMeta.addValueMeta(new ValueMetaBinary("data"));
+    return rowMeta;
+  }
+
+  private static HopRow roundTrip(HopRowCoder coder, HopRow row) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    coder.encode(row, out);
+    return coder.decode(new ByteArrayInputStream(out.toByteArray()));
+  }
+
+  private static int encodedSize(HopRowCoder coder, HopRow row) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    coder.encode(row, out);
+    return out.size();
+  }
+
+  @Test
+  void testEncodeDecodeWithRowMeta() throws IOException {
+    Timestamp moment = new Timestamp(1_600_000_000_123L);
+    moment.setNanos(123_456_789);
+    Object[] values = {
+      "h\u00e9llo w\u00f6rld \u20ac \ud83d\ude00",
+      -123_456_789L,
+      1.234,
+      new Date(876876868),
+      moment,
+      true,
+      new BigDecimal("-12345678901234567890.123456789"),
+      new byte[] {0, 1, 2, (byte) 255}
+    };
+    HopRowCoder coder = new HopRowCoder(createRowMeta());
+
+    HopRow decoded = roundTrip(coder, new HopRow(values));
+    for (int i = 0; i < values.length - 1; i++) {
+      assertEquals(values[i], decoded.getRow()[i]);
+    }
+    assertArrayEquals((byte[]) values[7], (byte[]) decoded.getRow()[7]);
+    assertEquals(moment.getNanos(), ((Timestamp) decoded.getRow()[4]).getNanos());
+
+    // Nulls and a shorter row
+    //
+    HopRow withNulls = new HopRow(new Object[] {null, 5L, null, null, null, false});
+    assertEquals(withNulls, roundTrip(coder, withNulls));
+  }
+
+  @Test
+  void testValuesNotMatchingTheRowMeta() throws IOException {
+    HopRowCoder coder = new HopRowCoder(createRowMeta());
+
+    // A value of another type and more values than fields are written with their type
+    //
+    HopRow row =
+        new HopRow(
+            new Object[] {
+              12L, "not a number", null, new Timestamp(5000), null, null, null, null, "extra"
+            });
+    HopRow decoded = roundTrip(coder, row);
+    assertEquals(row, decoded);
+    assertEquals(Timestamp.class, decoded.getRow()[3].getClass());
+  }
+
+  @Test
+  void testRowMetaMakesRowsSmaller() throws IOException {
+    HopRow row =
+        new HopRow(new Object[] {"Apache Hop", 42L, 1.5, new Date(0), null, true, null, null});
+    int generic = encodedSize(new HopRowCoder(), row);
+    int typed = encodedSize(new HopRowCoder(createRowMeta()), row);
+    assertTrue(typed < generic);
+    assertEquals(row, roundTrip(new HopRowCoder(), row));
+  }
+
+  @Test
+  void testInetAndEquality() throws IOException {
+    HopRowCoder coder = new HopRowCoder();
+    InetAddress address = InetAddress.getByAddress("localhost", new byte[] {127, 0, 0, 1});
+    HopRow decoded = roundTrip(coder, new HopRow(new Object[] {address}));
+    assertEquals(address, decoded.getRow()[0]);
+    assertEquals("localhost", ((InetAddress) decoded.getRow()[0]).getHostName());
+
+    assertEquals(new HopRowCoder(createRowMeta()), new HopRowCoder(createRowMeta()));
+    assertNotEquals(new HopRowCoder(), new HopRowCoder(createRowMeta()));
+  }
 }
@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.beam.core.fn;
+
+import org.apache.beam.sdk.testing.PAssert;
+import org.apache.beam.sdk.testing.TestPipeline;
+import org.apache.beam.sdk.transforms.Create;
+import org.apache.beam.sdk.transforms.ParDo;
+import org.apache.beam.sdk.values.PCollectionTuple;
+import org.apache.beam.sdk.values.TupleTag;
+import org.apache.beam.sdk.values.TupleTagList;
+import org.apache.hop.beam.core.HopRow;
+import org.apache.hop.beam.core.coder.HopRowCoder;
+import org.apache.hop.core.Condition;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.JsonRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.ValueMetaAndData;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.junit.jupiter.api.Test;
+
+class FilterRowsFnTest {
+
+  @Test
+  void testRowsAreSplitOnTheCondition() throws Exception {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    rowMeta.addValueMeta(new ValueMetaString("name"));
+    Condition condition =
+        new Condition(
+            "id",
+            Condition.Function.LARGER,
+            null,
+            new ValueMetaAndData(new ValueMetaInteger("constant"), 2L));
+
+    TestPipeline pipeline = TestPipeline.create().enableAbandonedNodeEnforcement(false);
+    pipeline.getCoderRegistry().registerCoderForClass(HopRow.class, new HopRowCoder(rowMeta));
+
+    TupleTag<HopRow> trueTag = new TupleTag<>("true");
+    TupleTag<HopRow> falseTag = new TupleTag<>("false");
+    PCollectionTuple tuple =
+        pipeline
+            .apply(
+                Create.of(row(1L, "a"), row(2L, "b"), row(3L, "c"), row(4L, "d"), row(null, "e")))
+            .apply(
+                ParDo.of(
+                        new FilterRowsFn(
+                            JsonRowMeta.toJson(rowMeta), condition.getXml(), falseTag, "filter"))
+                    .withOutputTags(trueTag, TupleTagList.of(falseTag)));
+
+    // Like in Hop a null value is smaller than any other value
+    //
+    PAssert.that(tuple.get(trueTag)).containsInAnyOrder(row(3L, "c"), row(4L, "d"));
+    PAssert.that(tuple.get(falseTag).setCoder(new HopRowCoder(rowMeta)))
+        .containsInAnyOrder(row(1L, "a"), row(2L, "b"), row(null, "e"));
+
+    pipeline.run().waitUntilFinish();
+  }
+
+  private static HopRow row(Long id, String name) {
+    return new HopRow(new Object[] {id, name});
+  }
+}
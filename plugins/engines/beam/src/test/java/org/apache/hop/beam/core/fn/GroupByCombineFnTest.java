@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.beam.core.fn;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import org.apache.hop.beam.core.HopRow;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.JsonRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.junit.jupiter.api.Test;
+
+class GroupByCombineFnTest {
+
+  private static final String[] AGGREGATIONS = {
+    "SUM", "AVERAGE", "COUNT_ALL", "MIN", "MAX", "COUNT_DISTINCT", "LAST"
+  };
+
+  private static GroupByCombineFn createCombineFn() {
+    IRowMeta subjectRowMeta = new RowMeta();
+    subjectRowMeta.addValueMeta(new ValueMetaInteger("sum"));
+    subjectRowMeta.addValueMeta(new ValueMetaNumber("avg"));
+    subjectRowMeta.addValueMeta(new ValueMetaString("count"));
+    subjectRowMeta.addValueMeta(new ValueMetaInteger("min"));
+    subjectRowMeta.addValueMeta(new ValueMetaString("max"));
+    subjectRowMeta.addValueMeta(new ValueMetaString("distinct"));
+    subjectRowMeta.addValueMeta(new ValueMetaString("last"));
+    return new GroupByCombineFn("test", JsonRowMeta.toJson(subjectRowMeta), AGGREGATIONS);
+  }
+
+  private static HopRow subject(long i) {
+    return new HopRow(
+        new Object[] {
+          i, (double) i, i % 3 == 0 ? null : "x", i, "v" + i, "d" + (i % 7), i == 5 ? null : "l" + i
+        });
+  }
+
+  @Test
+  void testPartialAggregatesAreMerged() throws Exception {
+    GroupByCombineFn fn = createCombineFn();
+
+    // Two workers aggregate part of the rows, the accumulators are shuffled and merged
+    //
+    GroupByCombineFn.Accumulator first = fn.createAccumulator();
+    for (long i = 1; i <= 6; i++) {
+      first = fn.addInput(first, subject(i));
+    }
+    GroupByCombineFn.Accumulator second = fn.createAccumulator();
+    for (long i = 7; i <= 10; i++) {
+      second = fn.addInput(second, subject(i));
+    }
+
+    GroupByCombineFn.AccumulatorCoder coder = new GroupByCombineFn.AccumulatorCoder();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    coder.encode(second, out);
+    second = coder.decode(new ByteArrayInputStream(out.toByteArray()));
+
+    Object[] results =
+        fn.extractOutput(fn.mergeAccumulators(List.of(fn.createAccumulator(), first, second)))
+            .getRow();
+
+    assertEquals(55L, results[0]);
+    assertEquals(5.5, results[1]);
+    assertEquals(7L, results[2]);
+    assertEquals(1L, results[3]);
+    assertEquals("v9", results[4]);
+    assertEquals(7L, results[5]);
+    assertEquals("l10", results[6]);
+  }
+
+  @Test
+  void testEmptyGroup() {
+    GroupByCombineFn fn = createCombineFn();
+    Object[] results = fn.extractOutput(fn.createAccumulator()).getRow();
+    assertEquals(null, results[0]);
+    assertEquals(0L, results[5]);
+  }
+}
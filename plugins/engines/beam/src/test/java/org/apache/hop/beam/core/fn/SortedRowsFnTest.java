@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.beam.core.fn;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import org.apache.beam.sdk.coders.ByteArrayCoder;
+import org.apache.beam.sdk.coders.KvCoder;
+import org.apache.beam.sdk.coders.VarIntCoder;
+import org.apache.beam.sdk.extensions.sorter.BufferedExternalSorter;
+import org.apache.beam.sdk.extensions.sorter.SortValues;
+import org.apache.beam.sdk.testing.PAssert;
+import org.apache.beam.sdk.testing.TestPipeline;
+import org.apache.beam.sdk.transforms.Create;
+import org.apache.beam.sdk.transforms.GroupByKey;
+import org.apache.beam.sdk.transforms.ParDo;
+import org.apache.beam.sdk.values.KV;
+import org.apache.beam.sdk.values.PCollection;
+import org.apache.hop.beam.core.HopRow;
+import org.apache.hop.beam.core.coder.HopRowCoder;
+import org.apache.hop.beam.core.util.SortKeyEncoder;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.junit.jupiter.api.Test;
+
+/** Sort Rows on the Beam engine: sort on the name descending, rows are (name, id) */
+class SortedRowsFnTest {
+
+  private static final IRowMeta ROW_META = createRowMeta();
+
+  @Test
+  void testRowsAreSorted() {
+    TestPipeline pipeline = createPipeline();
+    PCollection<KV<Integer, Iterable<KV<byte[], HopRow>>>> sorted = sort(pipeline);
+
+    PAssert.thatSingleton(sorted)
+        .satisfies(
+            group -> {
+              List<Object> names = new ArrayList<>();
+              for (KV<byte[], HopRow> sortedRow : group.getValue()) {
+                names.add(sortedRow.getValue().getRow()[0]);
+              }
+              assertEquals(Arrays.asList("c", "b", "b", "a", null), names);
+              return null;
+            });
+    PAssert.that(sorted.apply(ParDo.of(new SortedRowsFn(false, "sort"))))
+        .containsInAnyOrder(row("b", 1L), row("a", 2L), row("c", 3L), row(null, 4L), row("b", 5L));
+
+    pipeline.run().waitUntilFinish();
+  }
+
+  @Test
+  void testOnlyUniqueRows() {
+    TestPipeline pipeline = createPipeline();
+    PCollection<HopRow> output = sort(pipeline).apply(ParDo.of(new SortedRowsFn(true, "sort")));
+
+    // Of the rows with the same name only the first one is kept, the id isn't a sort field
+    //
+    PAssert.that(output)
+        .satisfies(
+            rows -> {
+              List<String> names = new ArrayList<>();
+              for (HopRow row : rows) {
+                names.add((String) row.getRow()[0]);
+              }
+              names.sort(Comparator.nullsFirst(Comparator.naturalOrder()));
+              assertEquals(Arrays.asList(null, "a", "b", "c"), names);
+              return null;
+            });
+
+    pipeline.run().waitUntilFinish();
+  }
+
+  private static IRowMeta createRowMeta() {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("name"));
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    return rowMeta;
+  }
+
+  private static TestPipeline createPipeline() {
+    TestPipeline pipeline = TestPipeline.create().enableAbandonedNodeEnforcement(false);
+    pipeline.getCoderRegistry().registerCoderForClass(HopRow.class, new HopRowCoder(ROW_META));
+    return pipeline;
+  }
+
+  /** The same transforms as the Sort Rows handler */
+  private static PCollection<KV<Integer, Iterable<KV<byte[], HopRow>>>> sort(
+      TestPipeline pipeline) {
+    IValueMeta sortMeta = ROW_META.getValueMeta(0).clone();
+    sortMeta.setSortedDescending(true);
+    SortKeyEncoder encoder = new SortKeyEncoder(new int[] {0}, new IValueMeta[] {sortMeta}, true);
+
+    return pipeline
+        .apply(Create.of(row("b", 1L), row("a", 2L), row("c", 3L), row(null, 4L), row("b", 5L)))
+        .apply(ParDo.of(new SortKeyFn(encoder, "sort")))
+        .setCoder(
+            KvCoder.of(
+                VarIntCoder.of(), KvCoder.of(ByteArrayCoder.of(), new HopRowCoder(ROW_META))))
+        .apply(GroupByKey.create())
+        .apply(SortValues.create(BufferedExternalSorter.options()));
+  }
+
+  private static HopRow row(String name, Long id) {
+    return new HopRow(new Object[] {name, id});
+  }
+}
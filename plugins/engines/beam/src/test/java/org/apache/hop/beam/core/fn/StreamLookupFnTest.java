@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.beam.core.fn;
+
+import java.util.Map;
+import org.apache.beam.sdk.testing.PAssert;
+import org.apache.beam.sdk.testing.TestPipeline;
+import org.apache.beam.sdk.transforms.Create;
+import org.apache.beam.sdk.transforms.ParDo;
+import org.apache.beam.sdk.transforms.View;
+import org.apache.beam.sdk.transforms.join.CoGroupByKey;
+import org.apache.beam.sdk.transforms.join.KeyedPCollectionTuple;
+import org.apache.beam.sdk.values.KV;
+import org.apache.beam.sdk.values.PCollection;
+import org.apache.beam.sdk.values.PCollectionView;
+import org.apache.beam.sdk.values.TupleTag;
+import org.apache.hop.beam.core.HopRow;
+import org.apache.hop.beam.core.coder.HopRowCoder;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The Stream Lookup of the Beam engine, with the lookup rows as a side input and joined with the
+ * input rows. Input rows are (key, id), lookup rows are (value, key).
+ */
+class StreamLookupFnTest {
+
+  private static final int[] INPUT_KEYS = {0};
+  private static final int[] LOOKUP_KEYS = {1};
+  private static final int[] LOOKUP_VALUES = {0};
+  private static final boolean[] EMPTY_KEY_IS_NULL = {true};
+  private static final Object[] DEFAULTS = {-1L};
+
+  @Test
+  void testLookupWithSideInput() {
+    TestPipeline pipeline = createPipeline();
+    PCollection<KV<HopRow, HopRow>> lookupKeyValues = lookupKeyValues(pipeline);
+    PCollectionView<Map<HopRow, Iterable<HopRow>>> lookupView =
+        lookupKeyValues.apply(View.asMultimap());
+
+    PCollection<HopRow> output =
+        input(pipeline)
+            .apply(
+                ParDo.of(
+                        new StreamLookupFn(
+                            lookupView, INPUT_KEYS, EMPTY_KEY_IS_NULL, 2, DEFAULTS, "lookup"))
+                    .withSideInputs(lookupView));
+
+    assertLookedUp(output);
+    pipeline.run().waitUntilFinish();
+  }
+
+  @Test
+  void testLookupWithJoin() {
+    TestPipeline pipeline = createPipeline();
+    PCollection<KV<HopRow, HopRow>> lookupKeyValues = lookupKeyValues(pipeline);
+    PCollection<KV<HopRow, HopRow>> inputKeyValues =
+        input(pipeline)
+            .apply(
+                "Input keys",
+                ParDo.of(new StreamLookupKeyFn(INPUT_KEYS, EMPTY_KEY_IS_NULL, null, "lookup")));
+
+    TupleTag<HopRow> inputTag = new TupleTag<>("input");
+    TupleTag<HopRow> lookupTag = new TupleTag<>("lookup");
+    PCollection<HopRow> output =
+        KeyedPCollectionTuple.of(inputTag, inputKeyValues)
+            .and(lookupTag, lookupKeyValues)
+            .apply(CoGroupByKey.create())
+            .apply(ParDo.of(new StreamLookupJoinFn(inputTag, lookupTag, 2, DEFAULTS, "lookup")));
+
+    assertLookedUp(output);
+    pipeline.run().waitUntilFinish();
+  }
+
+  private static TestPipeline createPipeline() {
+    TestPipeline pipeline = TestPipeline.create().enableAbandonedNodeEnforcement(false);
+    pipeline.getCoderRegistry().registerCoderForClass(HopRow.class, new HopRowCoder());
+    return pipeline;
+  }
+
+  private static PCollection<HopRow> input(TestPipeline pipeline) {
+    return pipeline.apply(
+        "Input", Create.of(row("a", 1L), row("b", 2L), row("a", 3L), row("x", 4L), row("", 5L)));
+  }
+
+  private static PCollection<KV<HopRow, HopRow>> lookupKeyValues(TestPipeline pipeline) {
+    return pipeline
+        .apply("Lookup", Create.of(row(10L, "a"), row(20L, "b"), row(30L, null)))
+        .apply(
+            "Lookup keys",
+            ParDo.of(
+                new StreamLookupKeyFn(LOOKUP_KEYS, EMPTY_KEY_IS_NULL, LOOKUP_VALUES, "lookup")));
+  }
+
+  /** Every input row is passed on once, with the value of its key or the default */
+  private static void assertLookedUp(PCollection<HopRow> output) {
+    PAssert.that(output)
+        .containsInAnyOrder(
+            row("a", 1L, 10L),
+            row("b", 2L, 20L),
+            row("a", 3L, 10L),
+            row("x", 4L, -1L),
+            row("", 5L, 30L));
+  }
+
+  private static HopRow row(Object... values) {
+    return new HopRow(values);
+  }
+}
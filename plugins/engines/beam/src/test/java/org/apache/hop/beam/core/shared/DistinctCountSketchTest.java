@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.beam.core.shared;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import org.junit.jupiter.api.Test;
+
+class DistinctCountSketchTest {
+
+  @Test
+  void testExactCount() throws Exception {
+    DistinctCountSketch sketch = new DistinctCountSketch();
+    for (int i = 0; i < 500; i++) {
+      sketch.add("value-" + (i % 100));
+      sketch.add(null);
+    }
+    sketch.add(new BigDecimal("1.0"));
+    sketch.add(new BigDecimal("1.00"));
+    assertEquals(101, sketch.getCount());
+
+    DistinctCountSketch copy = DistinctCountSketch.fromBytes(sketch.toBytes());
+    assertEquals(101, copy.getCount());
+  }
+
+  @Test
+  void testMergedEstimate() throws Exception {
+    // Two overlapping halves, merged after a round trip through bytes
+    //
+    DistinctCountSketch first = new DistinctCountSketch();
+    DistinctCountSketch second = new DistinctCountSketch();
+    for (long i = 0; i < 60_000; i++) {
+      first.add(i);
+    }
+    for (long i = 40_000; i < 100_000; i++) {
+      second.add(i);
+    }
+    first.merge(DistinctCountSketch.fromBytes(second.toBytes()));
+
+    long count = first.getCount();
+    assertTrue(Math.abs(count - 100_000) < 5_000, "Estimate too far off: " + count);
+  }
+
+  @Test
+  void testMergeExactIntoSketch() {
+    DistinctCountSketch small = new DistinctCountSketch();
+    small.add("a");
+    small.add("b");
+    DistinctCountSketch large = new DistinctCountSketch();
+    for (int i = 0; i < 2 * DistinctCountSketch.EXACT_LIMIT; i++) {
+      large.add("value-" + i);
+    }
+    small.merge(large);
+    long count = small.getCount();
+    assertTrue(Math.abs(count - 2002) < 100, "Estimate too far off: " + count);
+  }
+}
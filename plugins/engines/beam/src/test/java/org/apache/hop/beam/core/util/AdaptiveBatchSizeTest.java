@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.beam.core.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class AdaptiveBatchSizeTest {
+
+  private static final long MS = 1_000_000L;
+
+  @Test
+  void testCheapTransformGrowsToMaximum() {
+    AdaptiveBatchSize batchSize = new AdaptiveBatchSize(500, 1000);
+    assertEquals(AdaptiveBatchSize.INITIAL_SIZE, batchSize.getSize());
+
+    // 10 microseconds per row: doubles after every full batch until the maximum
+    //
+    int[] expected = {100, 200, 400, 500, 500};
+    for (int size : expected) {
+      batchSize.update(batchSize.getSize(), batchSize.getSize() * 10_000L, true);
+      assertEquals(size, batchSize.getSize());
+    }
+  }
+
+  @Test
+  void testSlowTransformShrinks() {
+    AdaptiveBatchSize batchSize = new AdaptiveBatchSize(500, 1000);
+
+    // 100 ms per row: 10 rows take the target second
+    //
+    batchSize.update(50, 50 * 100 * MS, true);
+    assertEquals(10, batchSize.getSize());
+  }
+
+  @Test
+  void testNoGrowthWithoutFullBatches() {
+    AdaptiveBatchSize batchSize = new AdaptiveBatchSize(500, 1000);
+
+    // Bundles of 20 rows end before the batch is full
+    //
+    for (int i = 0; i < 10; i++) {
+      batchSize.update(20, 20 * 10_000L, false);
+    }
+    assertEquals(AdaptiveBatchSize.INITIAL_SIZE, batchSize.getSize());
+  }
+
+  @Test
+  void testAverageCostPerRow() {
+    AdaptiveBatchSize batchSize = new AdaptiveBatchSize(1000, 100);
+
+    // 1 ms per row, then a single batch of 11 ms per row: 30% of the last batch counts
+    //
+    batchSize.update(50, 50 * MS, true);
+    assertEquals(100, batchSize.getSize());
+    batchSize.update(100, 100 * 11 * MS, true);
+    assertEquals(25, batchSize.getSize());
+  }
+
+  @Test
+  void testAtLeastOneRow() {
+    AdaptiveBatchSize batchSize = new AdaptiveBatchSize(500, 10);
+    batchSize.update(5, 5 * 1000 * MS, true);
+    assertEquals(1, batchSize.getSize());
+  }
+
+  @Test
+  void testDefaultTarget() {
+    AdaptiveBatchSize batchSize = new AdaptiveBatchSize(500, -1);
+    batchSize.update(50, 50 * 10 * MS, true);
+    assertEquals(100, batchSize.getSize());
+  }
+}
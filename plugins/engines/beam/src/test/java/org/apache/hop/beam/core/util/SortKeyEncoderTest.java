@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.beam.core.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Date;
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaBigNumber;
+import org.apache.hop.core.row.value.ValueMetaBoolean;
+import org.apache.hop.core.row.value.ValueMetaDate;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.junit.jupiter.api.Test;
+
+class SortKeyEncoderTest {
+
+  private static final Object[][] ROWS = {
+    {"b", 2L, 1.5, new Date(2000L), true},
+    {"a", 2L, -0.0, new Date(1000L), false},
+    {"ab", null, 0.0, null, true},
+    {null, -5L, -1.5, new Date(-1000L), null},
+    {"B", Long.MAX_VALUE, Double.MAX_VALUE, new Date(0L), false},
+    {"a", Long.MIN_VALUE, -Double.MAX_VALUE, new Date(1000L), true},
+    {"", 0L, null, new Date(2000L), false},
+    {"b\u0000", 7L, 1.0E-300, new Date(5000L), true},
+  };
+
+  @Test
+  void testAscending() throws Exception {
+    assertSameOrder(rowMeta(false, false));
+  }
+
+  @Test
+  void testDescending() throws Exception {
+    assertSameOrder(rowMeta(true, false));
+  }
+
+  @Test
+  void testCaseInsensitive() throws Exception {
+    IRowMeta rowMeta = rowMeta(false, true);
+    assertSameOrder(rowMeta);
+
+    SortKeyEncoder encoder = encoder(rowMeta, 0);
+    assertArrayEquals(
+        encoder.encode(new Object[] {"AbC", null, null, null, null}),
+        encoder.encode(new Object[] {"aBc", null, null, null, null}));
+  }
+
+  @Test
+  void testPrefixSortsFirst() {
+    SortKeyEncoder encoder = encoder(rowMeta(false, false), 0);
+    byte[] a = encoder.encode(new Object[] {"a", null, null, null, null});
+    byte[] ab = encoder.encode(new Object[] {"ab", null, null, null, null});
+    assertTrue(Arrays.compareUnsigned(a, ab) < 0);
+  }
+
+  @Test
+  void testCanEncode() {
+    assertTrue(SortKeyEncoder.canEncode(new ValueMetaInteger("i")));
+    assertFalse(SortKeyEncoder.canEncode(new ValueMetaBigNumber("b")));
+
+    ValueMetaString collated = new ValueMetaString("s");
+    collated.setCollatorDisabled(false);
+    assertFalse(SortKeyEncoder.canEncode(collated));
+
+    ValueMetaString trimmed = new ValueMetaString("s");
+    trimmed.setTrimType(IValueMeta.TRIM_TYPE_BOTH);
+    assertFalse(SortKeyEncoder.canEncode(trimmed));
+  }
+
+  private static IRowMeta rowMeta(boolean descending, boolean caseInsensitive) {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("string"));
+    rowMeta.addValueMeta(new ValueMetaInteger("integer"));
+    rowMeta.addValueMeta(new ValueMetaNumber("number"));
+    rowMeta.addValueMeta(new ValueMetaDate("date"));
+    rowMeta.addValueMeta(new ValueMetaBoolean("boolean"));
+    for (IValueMeta valueMeta : rowMeta.getValueMetaList()) {
+      valueMeta.setSortedDescending(descending);
+      valueMeta.setCaseInsensitive(caseInsensitive);
+    }
+    return rowMeta;
+  }
+
+  private static SortKeyEncoder encoder(IRowMeta rowMeta, int... fieldIndexes) {
+    IValueMeta[] valueMetas = new IValueMeta[fieldIndexes.length];
+    for (int i = 0; i < fieldIndexes.length; i++) {
+      valueMetas[i] = rowMeta.getValueMeta(fieldIndexes[i]);
+    }
+    return new SortKeyEncoder(fieldIndexes, valueMetas, true);
+  }
+
+  /** Every single field and the combination of all fields compare like the row metadata does. */
+  private static void assertSameOrder(IRowMeta rowMeta) throws HopValueException {
+    for (int field = 0; field < rowMeta.size(); field++) {
+      assertSameOrder(rowMeta, field);
+    }
+    assertSameOrder(rowMeta, 0, 1, 2, 3, 4);
+    assertSameOrder(rowMeta, 4, 3, 1);
+  }
+
+  private static void assertSameOrder(IRowMeta rowMeta, int... fieldIndexes)
+      throws HopValueException {
+    SortKeyEncoder encoder = encoder(rowMeta, fieldIndexes);
+    for (Object[] row1 : ROWS) {
+      for (Object[] row2 : ROWS) {
+        int expected = Integer.signum(rowMeta.compare(row1, row2, fieldIndexes));
+        int actual =
+            Integer.signum(Arrays.compareUnsigned(encoder.encode(row1), encoder.encode(row2)));
+        assertEquals(
+            expected,
+            actual,
+            "Comparing "
+                + Arrays.toString(row1)
+                + " with "
+                + Arrays.toString(row2)
+                + " on "
+                + Arrays.toString(fieldIndexes));
+      }
+    }
+  }
+}
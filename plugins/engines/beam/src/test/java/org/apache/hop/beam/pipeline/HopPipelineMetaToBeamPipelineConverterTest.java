@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.beam.pipeline;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+import org.apache.hop.beam.util.BeamConst;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.core.variables.Variables;
+import org.apache.hop.pipeline.PipelineHopMeta;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.transform.ITransformMeta;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transforms.dummy.DummyMeta;
+import org.apache.hop.pipeline.transforms.streamlookup.StreamLookupMeta;
+import org.junit.jupiter.api.Test;
+
+/** Which generic transforms are fused into the DoFn of the transform before them */
+class HopPipelineMetaToBeamPipelineConverterTest {
+
+  private static final Set<String> NO_HANDLERS = Set.of();
+
+  @Test
+  void findFusedTransformsFollowsStraightLineOfRowLocalTransforms() {
+    PipelineMeta pm = new PipelineMeta();
+    TransformMeta input = addTransform(pm, "Input", "TableInput");
+    TransformMeta calc = addTransform(pm, "Calc", "Calculator");
+    TransformMeta select = addTransform(pm, "Select", "SelectValues");
+    TransformMeta sort = addTransform(pm, "Sort", "SortRows");
+    TransformMeta strings = addTransform(pm, "Strings", "StringOperations");
+    pm.addPipelineHop(new PipelineHopMeta(input, calc));
+    pm.addPipelineHop(new PipelineHopMeta(calc, select));
+    pm.addPipelineHop(new PipelineHopMeta(select, sort));
+    pm.addPipelineHop(new PipelineHopMeta(sort, strings));
+
+    IVariables variables = new Variables();
+    assertEquals(
+        List.of(calc, select),
+        HopPipelineMetaToBeamPipelineConverter.findFusedTransforms(
+            variables, pm, input, NO_HANDLERS));
+    assertTrue(
+        HopPipelineMetaToBeamPipelineConverter.findFusedTransforms(
+                variables, pm, strings, NO_HANDLERS)
+            .isEmpty());
+
+    // A transform with its own handler is never fused
+    //
+    assertEquals(
+        List.of(calc),
+        HopPipelineMetaToBeamPipelineConverter.findFusedTransforms(
+            variables, pm, input, Set.of("SelectValues")));
+
+    variables.setVariable(BeamConst.STRING_VARIABLE_FUSE_TRANSFORMS, "N");
+    assertTrue(
+        HopPipelineMetaToBeamPipelineConverter.findFusedTransforms(
+                variables, pm, input, NO_HANDLERS)
+            .isEmpty());
+  }
+
+  @Test
+  void findFusedTransformsStopsAtBranches() {
+    PipelineMeta pm = new PipelineMeta();
+    TransformMeta input = addTransform(pm, "Input", "TableInput");
+    TransformMeta calc = addTransform(pm, "Calc", "Calculator");
+    TransformMeta select = addTransform(pm, "Select", "SelectValues");
+    TransformMeta other = addTransform(pm, "Other", "Dummy");
+    pm.addPipelineHop(new PipelineHopMeta(input, calc));
+    pm.addPipelineHop(new PipelineHopMeta(calc, select));
+    pm.addPipelineHop(new PipelineHopMeta(calc, other));
+
+    // The transform which splits the rows is the last one in the chain
+    //
+    IVariables variables = new Variables();
+    assertEquals(
+        List.of(calc),
+        HopPipelineMetaToBeamPipelineConverter.findFusedTransforms(
+            variables, pm, input, NO_HANDLERS));
+
+    // A transform which also reads from another transform isn't fused
+    //
+    TransformMeta merge = addTransform(pm, "Merge", "Dummy");
+    pm.addPipelineHop(new PipelineHopMeta(select, merge));
+    pm.addPipelineHop(new PipelineHopMeta(other, merge));
+    pm.clearCaches();
+    assertTrue(
+        HopPipelineMetaToBeamPipelineConverter.findFusedTransforms(variables, pm, calc, NO_HANDLERS)
+            .isEmpty());
+    assertTrue(
+        HopPipelineMetaToBeamPipelineConverter.findFusedTransforms(
+                variables, pm, select, NO_HANDLERS)
+            .isEmpty());
+  }
+
+  @Test
+  void findFusedTransformsStopsAtInfoStreams() {
+    PipelineMeta pm = new PipelineMeta();
+    TransformMeta input = addTransform(pm, "Input", "TableInput");
+    TransformMeta calc = addTransform(pm, "Calc", "Calculator");
+    TransformMeta lookupSource = addTransform(pm, "Lookup source", "TableInput");
+
+    // Only the info stream keeps this transform out of the chain, its plugin id is row-local
+    //
+    StreamLookupMeta streamLookup = new StreamLookupMeta();
+    streamLookup.setSourceTransformName(lookupSource.getName());
+    TransformMeta lookup = addTransform(pm, "Lookup", "Dummy", streamLookup);
+    pm.addPipelineHop(new PipelineHopMeta(input, calc));
+    pm.addPipelineHop(new PipelineHopMeta(calc, lookup));
+    pm.addPipelineHop(new PipelineHopMeta(lookupSource, lookup));
+    streamLookup.searchInfoAndTargetTransforms(pm.getTransforms());
+
+    assertEquals(1, pm.findPreviousTransforms(lookup, false).size());
+    assertEquals(
+        List.of(calc),
+        HopPipelineMetaToBeamPipelineConverter.findFusedTransforms(
+            new Variables(), pm, input, NO_HANDLERS));
+  }
+
+  @Test
+  void findFusedTransformsStopsAtBatchingTransforms() {
+    PipelineMeta pm = new PipelineMeta();
+    TransformMeta input = addTransform(pm, "Input", "TableInput");
+    TransformMeta calc = addTransform(pm, "Calc", "Calculator");
+    TransformMeta select = addTransform(pm, "Select", "SelectValues");
+    TransformMeta strings = addTransform(pm, "Strings", "StringOperations");
+    pm.addPipelineHop(new PipelineHopMeta(input, calc));
+    pm.addPipelineHop(new PipelineHopMeta(calc, select));
+    pm.addPipelineHop(new PipelineHopMeta(select, strings));
+
+    IVariables variables = new Variables();
+    select.setAttribute(BeamConst.STRING_HOP_BEAM, BeamConst.STRING_TRANSFORM_FLAG_BATCH, "true");
+    assertFalse(HopPipelineMetaToBeamPipelineConverter.isFusable(variables, select, NO_HANDLERS));
+    assertEquals(
+        List.of(calc),
+        HopPipelineMetaToBeamPipelineConverter.findFusedTransforms(
+            variables, pm, input, NO_HANDLERS));
+
+    // A batching transform doesn't take others into its DoFn either
+    //
+    assertTrue(
+        HopPipelineMetaToBeamPipelineConverter.findFusedTransforms(
+                variables, pm, select, NO_HANDLERS)
+            .isEmpty());
+
+    // Transforms with fewer copies or a single thread keep their own DoFn too
+    //
+    strings.setCopiesString("BEAM_SINGLE");
+    assertFalse(HopPipelineMetaToBeamPipelineConverter.isFusable(variables, strings, NO_HANDLERS));
+    calc.setAttribute(
+        BeamConst.STRING_HOP_BEAM, BeamConst.STRING_TRANSFORM_FLAG_SINGLE_THREADED, "true");
+    assertFalse(HopPipelineMetaToBeamPipelineConverter.isFusable(variables, calc, NO_HANDLERS));
+  }
+
+  private static TransformMeta addTransform(PipelineMeta pm, String name, String pluginId) {
+    return addTransform(pm, name, pluginId, new DummyMeta());
+  }
+
+  private static TransformMeta addTransform(
+      PipelineMeta pm, String name, String pluginId, ITransformMeta meta) {
+    TransformMeta transformMeta = new TransformMeta(name, meta);
+    transformMeta.setTransformPluginId(pluginId);
+    pm.addTransform(transformMeta);
+    return transformMeta;
+  }
+}
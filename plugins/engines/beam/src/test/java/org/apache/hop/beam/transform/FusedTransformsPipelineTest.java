@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.beam.transform;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.hop.beam.util.BeamPipelineMetaUtil;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.junit.jupiter.api.Test;
+
+/** The Constant transforms run in the DoFn of the Dummy before them */
+class FusedTransformsPipelineTest extends PipelineTestBase {
+
+  @Test
+  void testFusedTransformsPipeline() throws Exception {
+    File outputFolder = new File("/tmp/customers/output");
+    for (File file : outputFiles(outputFolder)) {
+      Files.delete(file.toPath());
+    }
+
+    PipelineMeta pipelineMeta =
+        BeamPipelineMetaUtil.generateFusedTransformsPipelineMeta(
+            "io-fused-output", "INPUT", "OUTPUT", metadataProvider);
+
+    createRunPipeline(variables, pipelineMeta);
+
+    // Every row went through both fused transforms, in order
+    //
+    List<String> lines = new ArrayList<>();
+    for (File file : outputFiles(outputFolder)) {
+      lines.addAll(Files.readAllLines(file.toPath(), StandardCharsets.UTF_8));
+    }
+    assertEquals(100, lines.size());
+    for (String line : lines) {
+      assertTrue(line.endsWith(",FIRST,SECOND"), line);
+    }
+  }
+
+  private static File[] outputFiles(File outputFolder) {
+    File[] files = outputFolder.listFiles((dir, name) -> name.startsWith("fused"));
+    return files == null ? new File[0] : files;
+  }
+}
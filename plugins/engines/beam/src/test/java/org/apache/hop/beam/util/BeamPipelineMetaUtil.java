@@ -93,6 +93,73 @@ public class BeamPipelineMetaUtil {
     return pipelineMeta;
   }
 
+  /**
+   * Input, a generic Dummy and two row-local Constant transforms which are fused into the DoFn of
+   * the Dummy, then the output. The constants are added in the order of the transforms.
+   */
+  public static PipelineMeta generateFusedTransformsPipelineMeta(
+      String pipelineName,
+      String inputTransformName,
+      String outputTransformName,
+      IHopMetadataProvider metadataProvider)
+      throws Exception {
+
+    IHopMetadataSerializer<FileDefinition> serializer =
+        metadataProvider.getSerializer(FileDefinition.class);
+    FileDefinition customerFileDefinition = createCustomersInputFileDefinition();
+    serializer.save(customerFileDefinition);
+
+    PipelineMeta pipelineMeta = new PipelineMeta();
+    pipelineMeta.setName(pipelineName);
+    pipelineMeta.setMetadataProvider(metadataProvider);
+
+    // Add the io transform
+    //
+    BeamInputMeta beamInputMeta = new BeamInputMeta();
+    beamInputMeta.setInputLocation(PipelineTestBase.INPUT_CUSTOMERS_FILE);
+    beamInputMeta.setFileDefinitionName(customerFileDefinition.getName());
+    TransformMeta beamInputTransformMeta = new TransformMeta(inputTransformName, beamInputMeta);
+    beamInputTransformMeta.setTransformPluginId(BeamConst.STRING_BEAM_INPUT_PLUGIN_ID);
+    pipelineMeta.addTransform(beamInputTransformMeta);
+
+    // The generic transform which runs the others
+    //
+    TransformMeta dummyTransformMeta = new TransformMeta("Dummy", new DummyMeta());
+    dummyTransformMeta.setTransformPluginId("Dummy");
+    pipelineMeta.addTransform(dummyTransformMeta);
+    pipelineMeta.addPipelineHop(new PipelineHopMeta(beamInputTransformMeta, dummyTransformMeta));
+
+    // The fused transforms
+    //
+    TransformMeta previousTransformMeta = dummyTransformMeta;
+    for (String name : new String[] {"first", "second"}) {
+      ConstantMeta constant = new ConstantMeta();
+      constant.getFields().add(new ConstantField(name, "String", name.toUpperCase()));
+      TransformMeta constantTransformMeta = new TransformMeta("Constant " + name, constant);
+      constantTransformMeta.setTransformPluginId("Constant");
+      pipelineMeta.addTransform(constantTransformMeta);
+      pipelineMeta.addPipelineHop(
+          new PipelineHopMeta(previousTransformMeta, constantTransformMeta));
+      previousTransformMeta = constantTransformMeta;
+    }
+
+    // Add the output transform
+    //
+    BeamOutputMeta beamOutputMeta = new BeamOutputMeta();
+    beamOutputMeta.setOutputLocation("/tmp/customers/output/");
+    beamOutputMeta.setFileDefinitionName(null);
+    beamOutputMeta.setFilePrefix("fused");
+    beamOutputMeta.setFileSuffix(".csv");
+    beamOutputMeta.setWindowed(false); // Not yet supported
+    TransformMeta beamOutputTransformMeta = new TransformMeta(outputTransformName, beamOutputMeta);
+    beamOutputTransformMeta.setTransformPluginId("BeamOutput");
+    pipelineMeta.addTransform(beamOutputTransformMeta);
+    pipelineMeta.addPipelineHop(
+        new PipelineHopMeta(previousTransformMeta, beamOutputTransformMeta));
+
+    return pipelineMeta;
+  }
+
   public static PipelineMeta generateBeamGroupByPipelineMeta(
       String transname,
       String inputTransformName,
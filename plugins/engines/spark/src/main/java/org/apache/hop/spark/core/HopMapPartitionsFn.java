@@ -20,12 +20,16 @@ package org.apache.hop.spark.core;
 import java.io.File;
 import java.io.Serializable;
 import java.net.InetAddress;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.hop.core.Const;
+import org.apache.hop.core.IRowSet;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopRuntimeException;
 import org.apache.hop.core.exception.HopTransformException;
@@ -46,6 +50,7 @@ import org.apache.hop.pipeline.PipelineMeta;
 import org.apache.hop.pipeline.RowProducer;
 import org.apache.hop.pipeline.SingleThreadedPipelineExecutor;
 import org.apache.hop.pipeline.TransformWithMappingMeta;
+import org.apache.hop.pipeline.engine.IEngineComponent;
 import org.apache.hop.pipeline.engines.local.LocalPipelineEngine;
 import org.apache.hop.pipeline.transform.BaseTransform;
 import org.apache.hop.pipeline.transform.ITransform;
@@ -64,6 +69,7 @@ import org.apache.spark.TaskContext;
 import org.apache.spark.api.java.function.MapPartitionsFunction;
 import org.apache.spark.broadcast.Broadcast;
 import org.apache.spark.sql.Row;
+import org.apache.spark.util.TaskCompletionListener;
 
 /**
  * Executes a single Hop transform once per Spark partition via {@link
@@ -71,7 +77,7 @@ import org.apache.spark.sql.Row;
  * executors never receive live Hop graph objects.
  */
 public class HopMapPartitionsFn implements MapPartitionsFunction<Row, Row>, Serializable {
-  private static final long serialVersionUID = 4L;
+  private static final long serialVersionUID = 5L;
 
   /** Publish progress at least every this many input rows. */
   private static final int METRICS_ROW_INTERVAL = 1000;
@@ -98,6 +104,18 @@ public class HopMapPartitionsFn implements MapPartitionsFunction<Row, Row>, Seri
   /** Parallel to {@link #infoTransforms}: broadcast Hop rows for each info stream. */
   private final List<Broadcast<List<Object[]>>> infoBroadcasts;
 
+  /**
+   * Row-local transforms which follow the main transform in a straight line. They run in the same
+   * mini-pipeline so rows are only converted back to Spark after the last one.
+   */
+  private final List<String> fusedTransforms;
+
+  /** Parallel to {@link #fusedTransforms}: the plugin id of each fused transform. */
+  private final List<String> fusedTransformPluginIds;
+
+  /** Parallel to {@link #fusedTransforms}: the metadata XML of each fused transform. */
+  private final List<String> fusedTransformXmls;
+
   private final SparkTransformMetricsAccumulator metricsAccumulator;
   private final SparkExecutionDataAccumulator sampleDataAccumulator;
   private final String runConfigName;
@@ -252,6 +270,50 @@ public class HopMapPartitionsFn implements MapPartitionsFunction<Row, Row>, Seri
       String runConfigName,
       String parentLogChannelId,
       String dataSamplersJson) {
+    this(
+        variableValues,
+        metastoreJson,
+        transformName,
+        transformPluginId,
+        transformMetaInterfaceXml,
+        inputRowMetaJson,
+        outputRowMetaJson,
+        inputTransform,
+        targetTransforms,
+        infoTransforms,
+        infoRowMetaJsons,
+        infoBroadcasts,
+        null,
+        null,
+        null,
+        metricsAccumulator,
+        sampleDataAccumulator,
+        runConfigName,
+        parentLogChannelId,
+        dataSamplersJson);
+  }
+
+  public HopMapPartitionsFn(
+      List<SparkVariableValue> variableValues,
+      String metastoreJson,
+      String transformName,
+      String transformPluginId,
+      String transformMetaInterfaceXml,
+      String inputRowMetaJson,
+      String outputRowMetaJson,
+      boolean inputTransform,
+      List<String> targetTransforms,
+      List<String> infoTransforms,
+      List<String> infoRowMetaJsons,
+      List<Broadcast<List<Object[]>>> infoBroadcasts,
+      List<String> fusedTransforms,
+      List<String> fusedTransformPluginIds,
+      List<String> fusedTransformXmls,
+      SparkTransformMetricsAccumulator metricsAccumulator,
+      SparkExecutionDataAccumulator sampleDataAccumulator,
+      String runConfigName,
+      String parentLogChannelId,
+      String dataSamplersJson) {
     this.variableValues = variableValues != null ? variableValues : List.of();
     this.metastoreJson = metastoreJson;
     this.transformName = transformName;
@@ -264,6 +326,10 @@ public class HopMapPartitionsFn implements MapPartitionsFunction<Row, Row>, Seri
     this.infoTransforms = infoTransforms != null ? infoTransforms : List.of();
     this.infoRowMetaJsons = infoRowMetaJsons != null ? infoRowMetaJsons : List.of();
     this.infoBroadcasts = infoBroadcasts != null ? infoBroadcasts : List.of();
+    this.fusedTransforms = fusedTransforms != null ? fusedTransforms : List.of();
+    this.fusedTransformPluginIds =
+        fusedTransformPluginIds != null ? fusedTransformPluginIds : List.of();
+    this.fusedTransformXmls = fusedTransformXmls != null ? fusedTransformXmls : List.of();
     this.metricsAccumulator = metricsAccumulator;
     this.sampleDataAccumulator = sampleDataAccumulator;
     this.runConfigName = runConfigName;
@@ -347,24 +413,15 @@ public class HopMapPartitionsFn implements MapPartitionsFunction<Row, Row>, Seri
       for (String targetTransform : targetTransforms) {
         DummyMeta dummyMeta = new DummyMeta();
         TransformMeta targetTransformMeta = new TransformMeta(targetTransform, dummyMeta);
-        targetTransformMeta.setLocation(600, targetLocationY);
+        targetTransformMeta.setLocation(600 + 200 * fusedTransforms.size(), targetLocationY);
         targetLocationY += 150;
         targetTransformMetas.add(targetTransformMeta);
         pipelineMeta.addTransform(targetTransformMeta);
       }
 
-      PluginRegistry registry = PluginRegistry.getInstance();
       ITransformMeta iTransformMeta =
-          registry.loadClass(TransformPluginType.class, transformPluginId, ITransformMeta.class);
-      if (iTransformMeta == null) {
-        throw new HopException(
-            "Unable to load transform plugin with ID "
-                + transformPluginId
-                + ", this plugin isn't in the plugin registry or classpath");
-      }
-
-      HopSparkUtil.loadTransformMetadataFromXml(
-          transformName, iTransformMeta, transformMetaInterfaceXml, metadataProvider);
+          loadTransformMeta(
+              transformName, transformPluginId, transformMetaInterfaceXml, metadataProvider);
 
       // Resolve ${PROJECT_HOME}/… mapping/executor filenames on this JVM after package materialize
       // so Simple Mapping / Pipeline Executor open the child .hpl from the local extract.
@@ -394,12 +451,34 @@ public class HopMapPartitionsFn implements MapPartitionsFunction<Row, Row>, Seri
       for (TransformMeta infoTransformMeta : infoTransformMetas) {
         pipelineMeta.addPipelineHop(new PipelineHopMeta(infoTransformMeta, transformMeta));
       }
+
+      // Fused row-local transforms follow the main transform; the last one feeds the targets
+      TransformMeta outputTransformMeta = transformMeta;
+      for (int i = 0; i < fusedTransforms.size(); i++) {
+        ITransformMeta fusedMeta =
+            loadTransformMeta(
+                fusedTransforms.get(i),
+                fusedTransformPluginIds.get(i),
+                fusedTransformXmls.get(i),
+                metadataProvider);
+        TransformMeta fusedTransformMeta = new TransformMeta(fusedTransforms.get(i), fusedMeta);
+        fusedTransformMeta.setTransformPluginId(fusedTransformPluginIds.get(i));
+        fusedTransformMeta.setLocation(600 + 200 * i, 200);
+        pipelineMeta.addTransform(fusedTransformMeta);
+        pipelineMeta.addPipelineHop(new PipelineHopMeta(outputTransformMeta, fusedTransformMeta));
+        outputTransformMeta = fusedTransformMeta;
+      }
       for (TransformMeta targetTransformMeta : targetTransformMetas) {
-        pipelineMeta.addPipelineHop(new PipelineHopMeta(transformMeta, targetTransformMeta));
+        pipelineMeta.addPipelineHop(new PipelineHopMeta(outputTransformMeta, targetTransformMeta));
       }
 
       // After injectors exist so Stream Lookup "from" can bind to the info injector by name
       iTransformMeta.searchInfoAndTargetTransforms(pipelineMeta.getTransforms());
+      if (outputTransformMeta != transformMeta) {
+        outputTransformMeta
+            .getTransform()
+            .searchInfoAndTargetTransforms(pipelineMeta.getTransforms());
+      }
 
       LocalPipelineEngine pipeline =
           new LocalPipelineEngine(
@@ -448,6 +527,7 @@ public class HopMapPartitionsFn implements MapPartitionsFunction<Row, Row>, Seri
 
       TransformMetaDataCombi transformCombi = findCombi(pipeline, transformName);
       mainTransform = transformCombi.transform;
+      TransformMetaDataCombi outputCombi = findCombi(pipeline, outputTransformMeta.getName());
       publishMetrics(mainTransform, copyNr, host, partitionStartMs, true, false);
 
       // Execution data sampling → driver accumulator + optional local registerData
@@ -479,7 +559,7 @@ public class HopMapPartitionsFn implements MapPartitionsFunction<Row, Row>, Seri
       List<List<Object[]>> targetResultRowsList = new ArrayList<>();
       final boolean multiTarget = !targetTransforms.isEmpty();
       if (!multiTarget) {
-        transformCombi.transform.addRowListener(
+        outputCombi.transform.addRowListener(
             new RowAdapter() {
               @Override
               public void rowWrittenEvent(IRowMeta rowMeta, Object[] row)
@@ -533,129 +613,34 @@ public class HopMapPartitionsFn implements MapPartitionsFunction<Row, Row>, Seri
         infoCombi.transform.processRow();
       }
 
-      List<Row> output = new ArrayList<>();
-      MetricsThrottle throttle = new MetricsThrottle();
-      final SparkTransformExecutionSampling samplingRef = sampling;
-
-      if (inputTransform) {
-        // Source transform: drive until finished with no external input
-        driveUntilDone(
-            pipeline,
-            executor,
-            output,
-            outputRowMeta,
-            multiTarget,
-            resultRows,
-            targetTransforms,
-            targetResultRowsList,
-            throttle,
-            mainTransform,
-            copyNr,
-            host,
-            partitionStartMs,
-            samplingRef);
-      } else if (acceptFilenamesFromMain) {
-        // Accept-filenames (Text File Input, Excel, …):
-        // 1) Pre-load every partition row (filenames) into the main injector and mark finished.
-        // 2) Drive the file reader with processRow() directly until it returns false.
-        //
-        // We cannot use SingleThreadedPipelineExecutor.oneIteration() after filenames are
-        // drained: with a non-empty input rowset list it only calls processRow once per
-        // remaining hop size. After the first processRow consumes all filenames, size is 0
-        // and further oneIteration() calls never advance the reader (infinite stall after
-        // openNextFile/createReader — the log line users see just before hang).
-        long rowsSeen = 0;
-        while (input.hasNext()) {
-          Row sparkRow = input.next();
-          Object[] hopRow = HopSparkRowConverter.toHopRow(inputRowMeta, sparkRow);
-          rowProducer.putRow(inputRowMeta, hopRow, false);
-          if (mainInjectorCombi != null) {
-            mainInjectorCombi.transform.processRow();
-          }
-          rowsSeen++;
-        }
-        if (rowProducer != null) {
-          rowProducer.finished();
-          if (mainInjectorCombi != null) {
-            mainInjectorCombi.transform.processRow();
-          }
-        }
-        if (rowsSeen > 0 || throttle.shouldPublish(0)) {
-          publishMetrics(mainTransform, copyNr, host, partitionStartMs, true, false);
-        }
-        driveAcceptFilenamesUntilDone(
-            pipeline,
-            mainTransform,
-            output,
-            outputRowMeta,
-            multiTarget,
-            resultRows,
-            targetTransforms,
-            targetResultRowsList,
-            throttle,
-            copyNr,
-            host,
-            partitionStartMs,
-            samplingRef);
-      } else {
-        long rowsSeen = 0;
-        while (input.hasNext()) {
-          Row sparkRow = input.next();
-          Object[] hopRow = HopSparkRowConverter.toHopRow(inputRowMeta, sparkRow);
-          clearCapture(resultRows, targetResultRowsList);
-          rowProducer.putRow(inputRowMeta, hopRow, false);
-          // Forward the main row onto the hop before Stream Lookup's info-first processRow
-          // calls getRow() for the main stream (same timing Beam gets from topo order +
-          // non-blocking handler).
-          if (mainInjectorCombi != null) {
-            mainInjectorCombi.transform.processRow();
-          }
-          executor.oneIteration();
-          appendCapturedRows(
-              output,
+      // Rows are pulled through the mini-pipeline as Spark consumes the iterator: only the output
+      // of one input row (or one iteration of a source transform) is buffered at any time.
+      PartitionIterator output =
+          new PartitionIterator(
+              input,
+              pipeline,
+              executor,
+              rowProducer,
+              mainInjectorCombi,
+              mainTransform,
+              inputRowMeta,
               outputRowMeta,
-              multiTarget,
+              acceptFilenamesFromMain,
               resultRows,
-              targetTransforms,
-              targetResultRowsList);
-          rowsSeen++;
-          if (throttle.shouldPublish(1) || rowsSeen % METRICS_ROW_INTERVAL == 0) {
-            publishMetrics(mainTransform, copyNr, host, partitionStartMs, true, false);
-            flushSamplesQuietly(samplingRef, false);
-          }
-        }
-        if (rowProducer != null) {
-          rowProducer.finished();
-          if (mainInjectorCombi != null) {
-            mainInjectorCombi.transform.processRow();
-          }
-          clearCapture(resultRows, targetResultRowsList);
-          executor.oneIteration();
-          appendCapturedRows(
-              output,
-              outputRowMeta,
-              multiTarget,
-              resultRows,
-              targetTransforms,
-              targetResultRowsList);
-        }
-      }
+              targetResultRowsList,
+              copyNr,
+              host,
+              partitionStartMs,
+              sampling);
+      sampling = null;
 
-      if (pipeline.getErrors() > 0) {
-        publishMetrics(mainTransform, copyNr, host, partitionStartMs, false, true);
-        throw new HopException(
-            "Errors detected while executing transform '"
-                + transformName
-                + "' on a Spark partition");
+      // Spark stops pulling rows early for a limit or a failing downstream operator: still
+      // dispose the mini-pipeline and publish the final metrics when the task completes.
+      TaskContext taskContext = TaskContext.get();
+      if (taskContext != null) {
+        taskContext.addTaskCompletionListener((TaskCompletionListener) context -> output.close());
       }
-
-      executor.dispose();
-      publishMetrics(mainTransform, copyNr, host, partitionStartMs, false, true);
-      if (sampling != null) {
-        sampling.close();
-        sampling = null;
-      }
-      return output.iterator();
+      return output;
     } catch (Exception e) {
       if (mainTransform != null) {
         try {
@@ -666,18 +651,22 @@ public class HopMapPartitionsFn implements MapPartitionsFunction<Row, Row>, Seri
       } else {
         publishErrorSlice(copyNr, host, partitionStartMs);
       }
-      if (sampling != null) {
-        try {
-          sampling.close();
-        } catch (Exception ignored) {
-          // best-effort
-        }
-      }
+      closeSamplingQuietly(sampling);
       throw new HopRuntimeException(
           "Error executing Hop transform '" + transformName + "' in Spark mapPartitions", e);
     }
   }
 
+  private static void closeSamplingQuietly(SparkTransformExecutionSampling sampling) {
+    if (sampling != null) {
+      try {
+        sampling.close();
+      } catch (Exception ignored) {
+        // best-effort
+      }
+    }
+  }
+
   private static void flushSamplesQuietly(
       SparkTransformExecutionSampling sampling, boolean finished) {
     if (sampling == null || !sampling.isActive()) {
@@ -691,6 +680,23 @@ public class HopMapPartitionsFn implements MapPartitionsFunction<Row, Row>, Seri
     }
   }
 
+  /**
+   * Let the fused transforms process the rows the main transform wrote outside of {@link
+   * SingleThreadedPipelineExecutor#oneIteration()}. One processRow() call per waiting row.
+   */
+  private void processFusedTransforms(LocalPipelineEngine pipeline) throws HopException {
+    for (String fusedTransform : fusedTransforms) {
+      ITransform transform = findCombi(pipeline, fusedTransform).transform;
+      int nrRows = 0;
+      for (IRowSet rowSet : transform.getInputRowSets()) {
+        nrRows += rowSet.size();
+      }
+      for (int i = 0; i < nrRows; i++) {
+        transform.processRow();
+      }
+    }
+  }
+
   private void publishMetrics(
       ITransform transform,
       int copyNr,
@@ -701,10 +707,29 @@ public class HopMapPartitionsFn implements MapPartitionsFunction<Row, Row>, Seri
     if (metricsAccumulator == null || transform == null) {
       return;
     }
+    publishMetrics(transformName, transform, copyNr, host, startTimeMs, running, finished);
+
+    // The fused transforms run in the same mini-pipeline, report them under their own names
+    for (String fusedTransform : fusedTransforms) {
+      List<IEngineComponent> copies = transform.getPipeline().getComponentCopies(fusedTransform);
+      if (copies != null && !copies.isEmpty()) {
+        publishMetrics(fusedTransform, copies.get(0), copyNr, host, startTimeMs, running, finished);
+      }
+    }
+  }
+
+  private void publishMetrics(
+      String name,
+      IEngineComponent transform,
+      int copyNr,
+      String host,
+      long startTimeMs,
+      boolean running,
+      boolean finished) {
     long endTimeMs = finished ? System.currentTimeMillis() : 0L;
     metricsAccumulator.add(
         new SparkTransformMetricSlice(
-            transformName,
+            name,
             copyNr,
             host,
             transform.getLinesRead(),
@@ -742,6 +767,22 @@ public class HopMapPartitionsFn implements MapPartitionsFunction<Row, Row>, Seri
     }
   }
 
+  private static ITransformMeta loadTransformMeta(
+      String name, String pluginId, String xml, IHopMetadataProvider metadataProvider)
+      throws HopException {
+    PluginRegistry registry = PluginRegistry.getInstance();
+    ITransformMeta iTransformMeta =
+        registry.loadClass(TransformPluginType.class, pluginId, ITransformMeta.class);
+    if (iTransformMeta == null) {
+      throw new HopException(
+          "Unable to load transform plugin with ID "
+              + pluginId
+              + ", this plugin isn't in the plugin registry or classpath");
+    }
+    HopSparkUtil.loadTransformMetadataFromXml(name, iTransformMeta, xml, metadataProvider);
+    return iTransformMeta;
+  }
+
   private static TransformMeta createInjectorTransform(
       PipelineMeta pipelineMeta,
       String injectorTransformName,
@@ -993,73 +1034,239 @@ public class HopMapPartitionsFn implements MapPartitionsFunction<Row, Row>, Seri
   }
 
   /**
-   * Drive the single-threaded mini-pipeline until it finishes (source transforms with no main input
-   * hop — Row Generator, Get File Names, etc.).
+   * Lazily drives the single-threaded mini-pipeline of a partition. Every {@link #hasNext()} on an
+   * empty buffer advances the pipeline by one step: one input row for a regular transform, one
+   * iteration for a source transform (Row Generator, Get File Names, etc.) or one {@code
+   * processRow()} for a transform reading the filenames of the main input. Once the pipeline is
+   * done the executor is disposed and the final metrics are published.
    */
-  private void driveUntilDone(
-      LocalPipelineEngine pipeline,
-      SingleThreadedPipelineExecutor executor,
-      List<Row> output,
-      IRowMeta outputRowMeta,
-      boolean multiTarget,
-      List<Object[]> resultRows,
-      List<String> targetTransforms,
-      List<List<Object[]>> targetResultRowsList,
-      MetricsThrottle throttle,
-      ITransform mainTransform,
-      int copyNr,
-      String host,
-      long partitionStartMs,
-      SparkTransformExecutionSampling samplingRef)
-      throws HopException {
-    boolean more = true;
-    while (more && !pipeline.isFinished() && pipeline.getErrors() == 0) {
+  private final class PartitionIterator implements Iterator<Row> {
+    private final Iterator<Row> input;
+    private final LocalPipelineEngine pipeline;
+    private final SingleThreadedPipelineExecutor executor;
+    private final RowProducer rowProducer;
+    private final TransformMetaDataCombi mainInjectorCombi;
+    private final ITransform mainTransform;
+    private final IRowMeta inputRowMeta;
+    private final IRowMeta outputRowMeta;
+    private final boolean acceptFilenamesFromMain;
+    private final boolean multiTarget;
+    private final List<Object[]> resultRows;
+    private final List<List<Object[]>> targetResultRowsList;
+    private final int copyNr;
+    private final String host;
+    private final long partitionStartMs;
+    private SparkTransformExecutionSampling sampling;
+
+    private final ArrayDeque<Row> buffer = new ArrayDeque<>();
+    private final MetricsThrottle throttle = new MetricsThrottle();
+    private boolean inputFinished;
+    private boolean more = true;
+    private long rowsSeen;
+    private boolean closed;
+
+    PartitionIterator(
+        Iterator<Row> input,
+        LocalPipelineEngine pipeline,
+        SingleThreadedPipelineExecutor executor,
+        RowProducer rowProducer,
+        TransformMetaDataCombi mainInjectorCombi,
+        ITransform mainTransform,
+        IRowMeta inputRowMeta,
+        IRowMeta outputRowMeta,
+        boolean acceptFilenamesFromMain,
+        List<Object[]> resultRows,
+        List<List<Object[]>> targetResultRowsList,
+        int copyNr,
+        String host,
+        long partitionStartMs,
+        SparkTransformExecutionSampling sampling) {
+      this.input = input;
+      this.pipeline = pipeline;
+      this.executor = executor;
+      this.rowProducer = rowProducer;
+      this.mainInjectorCombi = mainInjectorCombi;
+      this.mainTransform = mainTransform;
+      this.inputRowMeta = inputRowMeta;
+      this.outputRowMeta = outputRowMeta;
+      this.acceptFilenamesFromMain = acceptFilenamesFromMain;
+      this.multiTarget = !targetTransforms.isEmpty();
+      this.resultRows = resultRows;
+      this.targetResultRowsList = targetResultRowsList;
+      this.copyNr = copyNr;
+      this.host = host;
+      this.partitionStartMs = partitionStartMs;
+      this.sampling = sampling;
+    }
+
+    @Override
+    public boolean hasNext() {
+      try {
+        while (buffer.isEmpty() && !closed) {
+          if (!step()) {
+            finish();
+          }
+        }
+      } catch (Exception e) {
+        fail(e);
+      }
+      return !buffer.isEmpty();
+    }
+
+    @Override
+    public Row next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return buffer.poll();
+    }
+
+    /**
+     * Advance the mini-pipeline by one step, adding the rows it produced to the buffer.
+     *
+     * @return false if there is nothing left to do
+     */
+    private boolean step() throws HopException {
+      if (inputTransform) {
+        return stepSource();
+      }
+      if (acceptFilenamesFromMain) {
+        return stepAcceptFilenames();
+      }
+      if (input.hasNext()) {
+        Object[] hopRow = HopSparkRowConverter.toHopRow(inputRowMeta, input.next());
+        clearCapture(resultRows, targetResultRowsList);
+        rowProducer.putRow(inputRowMeta, hopRow, false);
+        // Forward the main row onto the hop before Stream Lookup's info-first processRow
+        // calls getRow() for the main stream (same timing Beam gets from topo order +
+        // non-blocking handler).
+        mainInjectorCombi.transform.processRow();
+        executor.oneIteration();
+        appendCaptured();
+        rowsSeen++;
+        if (throttle.shouldPublish(1) || rowsSeen % METRICS_ROW_INTERVAL == 0) {
+          publishMetrics(mainTransform, copyNr, host, partitionStartMs, true, false);
+          flushSamplesQuietly(sampling, false);
+        }
+        return true;
+      }
+      if (!inputFinished) {
+        inputFinished = true;
+        rowProducer.finished();
+        mainInjectorCombi.transform.processRow();
+        clearCapture(resultRows, targetResultRowsList);
+        executor.oneIteration();
+        appendCaptured();
+        return true;
+      }
+      return false;
+    }
+
+    /** Source transforms with no main input hop run until the pipeline finishes. */
+    private boolean stepSource() throws HopException {
+      if (!more || pipeline.isFinished() || pipeline.getErrors() > 0) {
+        return false;
+      }
       clearCapture(resultRows, targetResultRowsList);
       more = executor.oneIteration();
-      appendCapturedRows(
-          output, outputRowMeta, multiTarget, resultRows, targetTransforms, targetResultRowsList);
+      appendCaptured();
       if (throttle.shouldPublish(resultRows.size())) {
         publishMetrics(mainTransform, copyNr, host, partitionStartMs, true, false);
-        flushSamplesQuietly(samplingRef, false);
+        flushSamplesQuietly(sampling, false);
       }
+      return true;
     }
-  }
 
-  /**
-   * After filename rows are pre-loaded onto the main injector, call {@code processRow()} on the
-   * file-input transform until it finishes reading content.
-   *
-   * <p>{@link SingleThreadedPipelineExecutor#oneIteration()} only schedules {@code processRow} once
-   * per remaining input-rowset size when the transform has input hops. After accept-filenames
-   * drains those rows, size is 0 and further iterations never advance the reader.
-   */
-  private void driveAcceptFilenamesUntilDone(
-      LocalPipelineEngine pipeline,
-      ITransform mainTransform,
-      List<Row> output,
-      IRowMeta outputRowMeta,
-      boolean multiTarget,
-      List<Object[]> resultRows,
-      List<String> targetTransforms,
-      List<List<Object[]>> targetResultRowsList,
-      MetricsThrottle throttle,
-      int copyNr,
-      String host,
-      long partitionStartMs,
-      SparkTransformExecutionSampling samplingRef)
-      throws HopException {
-    boolean more = true;
-    long contentRows = 0;
-    while (more && !pipeline.isFinished() && pipeline.getErrors() == 0) {
+    /**
+     * Accept-filenames (Text File Input, Excel, …): the first step pre-loads every partition row
+     * (filenames) into the main injector and marks it finished. Every next step calls {@code
+     * processRow()} on the file reader directly until it returns false.
+     *
+     * <p>We cannot use {@link SingleThreadedPipelineExecutor#oneIteration()} after filenames are
+     * drained: with a non-empty input rowset list it only calls processRow once per remaining hop
+     * size. After the first processRow consumes all filenames, size is 0 and further oneIteration()
+     * calls never advance the reader.
+     */
+    private boolean stepAcceptFilenames() throws HopException {
+      if (!inputFinished) {
+        inputFinished = true;
+        long filenames = 0;
+        while (input.hasNext()) {
+          Object[] hopRow = HopSparkRowConverter.toHopRow(inputRowMeta, input.next());
+          rowProducer.putRow(inputRowMeta, hopRow, false);
+          mainInjectorCombi.transform.processRow();
+          filenames++;
+        }
+        rowProducer.finished();
+        mainInjectorCombi.transform.processRow();
+        if (filenames > 0 || throttle.shouldPublish(0)) {
+          publishMetrics(mainTransform, copyNr, host, partitionStartMs, true, false);
+        }
+        return true;
+      }
+      if (!more || pipeline.isFinished() || pipeline.getErrors() > 0) {
+        return false;
+      }
       clearCapture(resultRows, targetResultRowsList);
       more = mainTransform.processRow();
-      appendCapturedRows(
-          output, outputRowMeta, multiTarget, resultRows, targetTransforms, targetResultRowsList);
-      contentRows += resultRows.size();
-      if (throttle.shouldPublish(resultRows.size()) || contentRows % METRICS_ROW_INTERVAL == 0) {
+      processFusedTransforms(pipeline);
+      appendCaptured();
+      rowsSeen += resultRows.size();
+      if (throttle.shouldPublish(resultRows.size()) || rowsSeen % METRICS_ROW_INTERVAL == 0) {
         publishMetrics(mainTransform, copyNr, host, partitionStartMs, true, false);
-        flushSamplesQuietly(samplingRef, false);
+        flushSamplesQuietly(sampling, false);
+      }
+      return true;
+    }
+
+    private void appendCaptured() throws HopException {
+      appendCapturedRows(
+          buffer, outputRowMeta, multiTarget, resultRows, targetTransforms, targetResultRowsList);
+    }
+
+    private void finish() throws HopException {
+      if (pipeline.getErrors() > 0) {
+        throw new HopException(
+            "Errors detected while executing transform '"
+                + transformName
+                + "' on a Spark partition");
       }
+      close();
+    }
+
+    /** Dispose the mini-pipeline and publish the final metrics, only the first call counts. */
+    void close() {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      try {
+        executor.dispose();
+        publishMetrics(mainTransform, copyNr, host, partitionStartMs, false, true);
+        if (sampling != null) {
+          sampling.close();
+          sampling = null;
+        }
+      } catch (Exception e) {
+        fail(e);
+      }
+    }
+
+    private void fail(Exception e) {
+      closed = true;
+      buffer.clear();
+      try {
+        publishMetrics(mainTransform, copyNr, host, partitionStartMs, false, true);
+      } catch (Exception ignored) {
+        // best-effort metrics on failure
+      }
+      closeSamplingQuietly(sampling);
+      sampling = null;
+      if (e instanceof HopRuntimeException hopRuntimeException) {
+        throw hopRuntimeException;
+      }
+      throw new HopRuntimeException(
+          "Error executing Hop transform '" + transformName + "' in Spark mapPartitions", e);
     }
   }
 
@@ -1072,7 +1279,7 @@ public class HopMapPartitionsFn implements MapPartitionsFunction<Row, Row>, Seri
   }
 
   private static void appendCapturedRows(
-      List<Row> output,
+      Collection<Row> output,
       IRowMeta outputRowMeta,
       boolean multiTarget,
       List<Object[]> resultRows,
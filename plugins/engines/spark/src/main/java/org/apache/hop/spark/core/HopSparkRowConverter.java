@@ -129,7 +129,7 @@ public final class HopSparkRowConverter {
     return hopRow;
   }
 
-  static Object toSparkValue(IValueMeta valueMeta, Object hopValue) throws HopException {
+  public static Object toSparkValue(IValueMeta valueMeta, Object hopValue) throws HopException {
     if (hopValue == null) {
       return null;
     }
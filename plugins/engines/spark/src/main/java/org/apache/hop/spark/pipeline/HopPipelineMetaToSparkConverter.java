@@ -24,6 +24,8 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Predicate;
+import org.apache.hop.core.Const;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopRowException;
 import org.apache.hop.core.logging.ILogChannel;
@@ -35,6 +37,7 @@ import org.apache.hop.metadata.api.IHopMetadataProvider;
 import org.apache.hop.pipeline.PipelineHopMeta;
 import org.apache.hop.pipeline.PipelineMeta;
 import org.apache.hop.pipeline.config.PipelineRunConfiguration;
+import org.apache.hop.pipeline.engine.FusableTransforms;
 import org.apache.hop.pipeline.transform.BaseTransform;
 import org.apache.hop.pipeline.transform.TransformMeta;
 import org.apache.hop.spark.core.HopSparkUtil;
@@ -42,19 +45,29 @@ import org.apache.hop.spark.core.SparkExecutionDataAccumulator;
 import org.apache.hop.spark.core.SparkTransformMetricsAccumulator;
 import org.apache.hop.spark.engines.ISparkPipelineEngineRunConfiguration;
 import org.apache.hop.spark.pipeline.handler.SparkBaseTransformHandler;
+import org.apache.hop.spark.pipeline.handler.SparkCalculatorHandler;
+import org.apache.hop.spark.pipeline.handler.SparkConstantHandler;
+import org.apache.hop.spark.pipeline.handler.SparkExpressionTransformHandler;
 import org.apache.hop.spark.pipeline.handler.SparkFileInputHandler;
 import org.apache.hop.spark.pipeline.handler.SparkFileOutputHandler;
+import org.apache.hop.spark.pipeline.handler.SparkFilterRowsHandler;
 import org.apache.hop.spark.pipeline.handler.SparkGenericTransformHandler;
+import org.apache.hop.spark.pipeline.handler.SparkIfNullHandler;
 import org.apache.hop.spark.pipeline.handler.SparkLakeTableInputHandler;
 import org.apache.hop.spark.pipeline.handler.SparkLakeTableMaintenanceHandler;
 import org.apache.hop.spark.pipeline.handler.SparkLakeTableMergeHandler;
 import org.apache.hop.spark.pipeline.handler.SparkLakeTableOutputHandler;
 import org.apache.hop.spark.pipeline.handler.SparkMemoryGroupByHandler;
 import org.apache.hop.spark.pipeline.handler.SparkMergeJoinHandler;
+import org.apache.hop.spark.pipeline.handler.SparkSelectValuesHandler;
 import org.apache.hop.spark.pipeline.handler.SparkSortRowsHandler;
 import org.apache.hop.spark.pipeline.handler.SparkSqlHandler;
+import org.apache.hop.spark.pipeline.handler.SparkStreamLookupHandler;
+import org.apache.hop.spark.pipeline.handler.SparkStringOperationsHandler;
 import org.apache.hop.spark.pipeline.handler.SparkUniqueRowsHandler;
+import org.apache.hop.spark.pipeline.handler.SparkValueMapperHandler;
 import org.apache.hop.spark.util.SparkConst;
+import org.apache.hop.spark.util.SparkRunMode;
 import org.apache.spark.sql.Dataset;
 import org.apache.spark.sql.Row;
 import org.apache.spark.sql.SparkSession;
@@ -100,6 +113,7 @@ public class HopPipelineMetaToSparkConverter {
   private final String runConfigName;
   private final ISparkPipelineEngineRunConfiguration sparkRunConfiguration;
   private final Map<String, ISparkPipelineTransformHandler> transformHandlers;
+  private final Map<String, SparkExpressionTransformHandler> expressionHandlers;
   private final SparkGenericTransformHandler genericTransformHandler;
   private SparkTransformMetricsAccumulator metricsAccumulator;
   private SparkExecutionDataAccumulator sampleDataAccumulator;
@@ -132,6 +146,7 @@ public class HopPipelineMetaToSparkConverter {
     }
     this.sparkRunConfiguration = sparkConfig;
     this.transformHandlers = new HashMap<>();
+    this.expressionHandlers = new HashMap<>();
     this.genericTransformHandler = new SparkGenericTransformHandler();
     addDefaultTransformHandlers();
   }
@@ -153,6 +168,7 @@ public class HopPipelineMetaToSparkConverter {
     this.runConfigName = runConfigName;
     this.sparkRunConfiguration = sparkRunConfiguration;
     this.transformHandlers = new HashMap<>();
+    this.expressionHandlers = new HashMap<>();
     this.genericTransformHandler = new SparkGenericTransformHandler();
     addDefaultTransformHandlers();
   }
@@ -173,6 +189,50 @@ public class HopPipelineMetaToSparkConverter {
     transformHandlers.put(
         SparkConst.SPARK_LAKE_TABLE_MAINTENANCE_PLUGIN_ID, new SparkLakeTableMaintenanceHandler());
     transformHandlers.put(SparkConst.SPARK_SQL_PLUGIN_ID, new SparkSqlHandler());
+
+    // Only used when the settings of the transform can be translated, see findExpressionHandler()
+    expressionHandlers.put(SparkConst.FILTER_ROWS_PLUGIN_ID, new SparkFilterRowsHandler());
+    expressionHandlers.put(SparkConst.SELECT_VALUES_PLUGIN_ID, new SparkSelectValuesHandler());
+    expressionHandlers.put(SparkConst.CALCULATOR_PLUGIN_ID, new SparkCalculatorHandler());
+    expressionHandlers.put(SparkConst.CONSTANT_PLUGIN_ID, new SparkConstantHandler());
+    expressionHandlers.put(
+        SparkConst.STRING_OPERATIONS_PLUGIN_ID, new SparkStringOperationsHandler());
+    expressionHandlers.put(SparkConst.VALUE_MAPPER_PLUGIN_ID, new SparkValueMapperHandler());
+    expressionHandlers.put(SparkConst.IF_NULL_PLUGIN_ID, new SparkIfNullHandler());
+    expressionHandlers.put(SparkConst.STREAM_LOOKUP_PLUGIN_ID, new SparkStreamLookupHandler());
+  }
+
+  /**
+   * Find the handler which translates a transform to Dataset expressions.
+   *
+   * @return the handler or null when the transform runs on the generic path: native expressions are
+   *     disabled with {@link SparkConst#VAR_NATIVE_EXPRESSIONS} or the settings of the transform
+   *     can't be translated exactly
+   */
+  private SparkExpressionTransformHandler findExpressionHandler(
+      ILogChannel log, TransformMeta transformMeta) {
+    if (!Const.toBoolean(
+        Const.NVL(variables.getVariable(SparkConst.VAR_NATIVE_EXPRESSIONS), "Y"))) {
+      return null;
+    }
+    SparkExpressionTransformHandler handler =
+        expressionHandlers.get(transformMeta.getTransformPluginId());
+    if (handler == null) {
+      return null;
+    }
+    try {
+      if (handler.canHandle(
+          variables, sparkRunConfiguration, pipelineMeta, transformMeta, metadataProvider)) {
+        return handler;
+      }
+    } catch (Exception e) {
+      log.logDetailed(
+          "Transform '"
+              + transformMeta.getName()
+              + "' can't be translated to Spark expressions, using the generic path: "
+              + e.getMessage());
+    }
+    return null;
   }
 
   public void validatePipeline() throws HopException {
@@ -203,12 +263,19 @@ public class HopPipelineMetaToSparkConverter {
 
       Map<String, Dataset<Row>> transformDatasetMap = new HashMap<>();
       List<TransformMeta> transforms = getSortedTransformsList();
+      Set<TransformMeta> fusedTransforms = new HashSet<>();
 
       for (TransformMeta transformMeta : transforms) {
+        if (fusedTransforms.contains(transformMeta)) {
+          // Already executed in the mapPartitions call of a previous transform
+          continue;
+        }
         String pluginId = transformMeta.getTransformPluginId();
         ISparkPipelineTransformHandler handler =
             transformHandlers.getOrDefault(pluginId, genericTransformHandler);
         boolean nativeHandler = transformHandlers.containsKey(pluginId);
+        SparkExpressionTransformHandler expressionHandler =
+            nativeHandler ? null : findExpressionHandler(log, transformMeta);
 
         List<TransformMeta> previousTransforms =
             pipelineMeta.findPreviousTransforms(transformMeta, false);
@@ -248,6 +315,52 @@ public class HopPipelineMetaToSparkConverter {
           }
         }
 
+        if (expressionHandler != null) {
+          expressionHandler.handleTransform(
+              log,
+              variables,
+              runConfigName,
+              sparkRunConfiguration,
+              metadataProvider,
+              metaStoreJson,
+              pipelineMeta,
+              transformMeta,
+              transformDatasetMap,
+              spark,
+              rowMeta,
+              previousTransforms,
+              input);
+          continue;
+        }
+
+        if (!nativeHandler) {
+          // Don't pull transforms into the mapPartitions call which run better as expressions
+          List<TransformMeta> fusedTransformMetas =
+              findFusedTransforms(
+                  variables,
+                  pipelineMeta,
+                  transformMeta,
+                  sparkRunConfiguration,
+                  next -> findExpressionHandler(log, next) == null);
+          fusedTransforms.addAll(fusedTransformMetas);
+          genericTransformHandler.handleTransform(
+              log,
+              variables,
+              runConfigName,
+              sparkRunConfiguration,
+              metadataProvider,
+              metaStoreJson,
+              pipelineMeta,
+              transformMeta,
+              transformDatasetMap,
+              spark,
+              rowMeta,
+              previousTransforms,
+              input,
+              fusedTransformMetas);
+          continue;
+        }
+
         handler.handleTransform(
             log,
             variables,
@@ -289,6 +402,64 @@ public class HopPipelineMetaToSparkConverter {
     }
   }
 
+  /**
+   * Find the transforms to run in the same mapPartitions call as a generic transform: the
+   * transforms in {@link FusableTransforms#PLUGIN_IDS} which follow it in a straight line. Every
+   * transform in the chain has a single enabled hop to the next one, which reads only from that hop
+   * and uses the same {@link SparkRunMode}. Only the last transform in the chain can have target
+   * streams or more than one next transform.
+   *
+   * @return the transforms to fuse in order, empty when fusion is disabled with {@link
+   *     SparkConst#VAR_FUSE_TRANSFORMS} or nothing follows
+   */
+  public static List<TransformMeta> findFusedTransforms(
+      IVariables variables,
+      PipelineMeta pipelineMeta,
+      TransformMeta transformMeta,
+      ISparkPipelineEngineRunConfiguration runConfiguration) {
+    return findFusedTransforms(
+        variables, pipelineMeta, transformMeta, runConfiguration, next -> true);
+  }
+
+  /**
+   * Find the transforms to fuse with a generic transform, see {@link
+   * #findFusedTransforms(IVariables, PipelineMeta, TransformMeta,
+   * ISparkPipelineEngineRunConfiguration)}.
+   *
+   * @param fusable the chain stops at the first transform this doesn't accept
+   */
+  public static List<TransformMeta> findFusedTransforms(
+      IVariables variables,
+      PipelineMeta pipelineMeta,
+      TransformMeta transformMeta,
+      ISparkPipelineEngineRunConfiguration runConfiguration,
+      Predicate<TransformMeta> fusable) {
+    List<TransformMeta> fusedTransformMetas = new ArrayList<>();
+    if (!Const.toBoolean(Const.NVL(variables.getVariable(SparkConst.VAR_FUSE_TRANSFORMS), "Y"))) {
+      return fusedTransformMetas;
+    }
+    SparkRunMode runMode = SparkRunMode.resolve(transformMeta, runConfiguration);
+    TransformMeta current = transformMeta;
+    while (!current.isDoingErrorHandling()
+        && SparkGenericTransformHandler.resolveTargetTransformNames(current).isEmpty()) {
+      List<TransformMeta> nextTransforms = pipelineMeta.findNextTransforms(current);
+      if (nextTransforms.size() != 1) {
+        break;
+      }
+      TransformMeta next = nextTransforms.get(0);
+      if (!FusableTransforms.isFusable(next.getTransformPluginId())
+          || EXPLICIT_HANDLER_PLUGIN_IDS.contains(next.getTransformPluginId())
+          || SparkRunMode.resolve(next, runConfiguration) != runMode
+          || pipelineMeta.findPreviousTransforms(next, true).size() != 1
+          || !fusable.test(next)) {
+        break;
+      }
+      fusedTransformMetas.add(next);
+      current = next;
+    }
+    return fusedTransformMetas;
+  }
+
   /**
    * Resolve Datasets for all main previous transforms (preferring target-stream keys), verify that
    * Hop row layouts match, and {@code union} them. Matches Beam Flatten / Hop multi-hop merge.
@@ -490,6 +661,9 @@ public class HopPipelineMetaToSparkConverter {
         baseHandler.setMetricsAccumulator(metricsAccumulator);
       }
     }
+    for (SparkExpressionTransformHandler handler : expressionHandlers.values()) {
+      handler.setMetricsAccumulator(metricsAccumulator);
+    }
   }
 
   public SparkTransformMetricsAccumulator getMetricsAccumulator() {
@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.spark.pipeline.handler;
+
+import java.util.Map;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.value.ValueMetaFactory;
+import org.apache.hop.core.util.Utils;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.metadata.api.IHopMetadataProvider;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transforms.calculator.CalculatorMeta;
+import org.apache.hop.pipeline.transforms.calculator.CalculatorMetaFunction;
+import org.apache.spark.sql.Column;
+import org.apache.spark.sql.Dataset;
+import org.apache.spark.sql.Row;
+
+/**
+ * Calculator as arithmetic columns. Copies of fields and A + B, A - B and A * B on two Integer or
+ * two Number fields into a field of the same type are translated, every other calculation runs on
+ * the generic path. Spark checks Integer overflow in ANSI mode where Java wraps around.
+ */
+public class SparkCalculatorHandler extends SparkExpressionTransformHandler {
+
+  @Override
+  protected boolean canTranslate(
+      IVariables variables,
+      PipelineMeta pipelineMeta,
+      TransformMeta transformMeta,
+      IHopMetadataProvider metadataProvider,
+      IRowMeta inputRowMeta)
+      throws HopException {
+    CalculatorMeta meta = new CalculatorMeta();
+    loadTransformMetadata(meta, transformMeta, metadataProvider, pipelineMeta);
+
+    // Calculations can use the results of the calculations before them
+    IRowMeta calcRowMeta = inputRowMeta.clone();
+    for (CalculatorMetaFunction function : meta.getFunctions()) {
+      if (Utils.isEmpty(function.getFieldName())) {
+        continue;
+      }
+      if (function.getCalcType() == null
+          || calcRowMeta.indexOfValue(function.getFieldName()) >= 0) {
+        return false;
+      }
+      int targetType = ValueMetaFactory.getIdForValueMeta(function.getValueType());
+      IValueMeta metaA = searchValueMeta(calcRowMeta, function.getFieldA());
+      if (metaA == null
+          || (metaA.getType() != IValueMeta.TYPE_INTEGER
+              && metaA.getType() != IValueMeta.TYPE_NUMBER)
+          || targetType != metaA.getType()) {
+        return false;
+      }
+      switch (function.getCalcType()) {
+        case COPY_OF_FIELD:
+          break;
+        case ADD, SUBTRACT, MULTIPLY:
+          IValueMeta metaB = searchValueMeta(calcRowMeta, function.getFieldB());
+          if (metaB == null || metaB.getType() != metaA.getType()) {
+            return false;
+          }
+          break;
+        default:
+          return false;
+      }
+      calcRowMeta.addValueMeta(
+          ValueMetaFactory.createValueMeta(function.getFieldName(), targetType));
+    }
+    return true;
+  }
+
+  @Override
+  protected Dataset<Row> transform(
+      IVariables variables,
+      PipelineMeta pipelineMeta,
+      TransformMeta transformMeta,
+      IHopMetadataProvider metadataProvider,
+      Map<String, Dataset<Row>> transformDatasetMap,
+      IRowMeta inputRowMeta,
+      Dataset<Row> input)
+      throws HopException {
+    CalculatorMeta meta = new CalculatorMeta();
+    loadTransformMetadata(meta, transformMeta, metadataProvider, pipelineMeta);
+
+    // Temporary fields are left out when the result is conformed to the output row
+    Dataset<Row> output = input;
+    IRowMeta calcRowMeta = inputRowMeta.clone();
+    for (CalculatorMetaFunction function : meta.getFunctions()) {
+      if (Utils.isEmpty(function.getFieldName())) {
+        continue;
+      }
+      IValueMeta metaA = searchValueMeta(calcRowMeta, function.getFieldA());
+      Column a = column(metaA.getName());
+      Column result =
+          switch (function.getCalcType()) {
+            case COPY_OF_FIELD -> a;
+            case ADD ->
+                a.plus(column(searchValueMeta(calcRowMeta, function.getFieldB()).getName()));
+            case SUBTRACT ->
+                a.minus(column(searchValueMeta(calcRowMeta, function.getFieldB()).getName()));
+            case MULTIPLY ->
+                a.multiply(column(searchValueMeta(calcRowMeta, function.getFieldB()).getName()));
+            default ->
+                throw new HopException(
+                    "Calculation " + function.getCalcType() + " can't be translated for Spark");
+          };
+      output = output.withColumn(function.getFieldName(), result);
+      calcRowMeta.addValueMeta(
+          ValueMetaFactory.createValueMeta(function.getFieldName(), metaA.getType()));
+    }
+    return output;
+  }
+
+  private static IValueMeta searchValueMeta(IRowMeta rowMeta, String name) {
+    return Utils.isEmpty(name) ? null : rowMeta.searchValueMeta(name);
+  }
+}
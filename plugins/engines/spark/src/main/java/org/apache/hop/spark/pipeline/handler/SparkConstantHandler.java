@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.spark.pipeline.handler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.apache.hop.core.ICheckResult;
+import org.apache.hop.core.RowMetaAndData;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.metadata.api.IHopMetadataProvider;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transforms.constant.Constant;
+import org.apache.hop.pipeline.transforms.constant.ConstantData;
+import org.apache.hop.pipeline.transforms.constant.ConstantMeta;
+import org.apache.spark.sql.Dataset;
+import org.apache.spark.sql.Row;
+
+/**
+ * Add Constants as literal columns. The constants are parsed on the driver exactly like the
+ * transform does, a constant which can't be parsed leaves the error to the generic path.
+ */
+public class SparkConstantHandler extends SparkExpressionTransformHandler {
+
+  @Override
+  protected boolean canTranslate(
+      IVariables variables,
+      PipelineMeta pipelineMeta,
+      TransformMeta transformMeta,
+      IHopMetadataProvider metadataProvider,
+      IRowMeta inputRowMeta)
+      throws HopException {
+    ConstantMeta meta = new ConstantMeta();
+    loadTransformMetadata(meta, transformMeta, metadataProvider, pipelineMeta);
+    List<ICheckResult> remarks = new ArrayList<>();
+    RowMetaAndData constants = Constant.buildRow(meta, new ConstantData(), remarks);
+    for (ICheckResult remark : remarks) {
+      if (remark.getType() == ICheckResult.TYPE_RESULT_ERROR) {
+        return false;
+      }
+    }
+    for (IValueMeta valueMeta : constants.getRowMeta().getValueMetaList()) {
+      switch (valueMeta.getType()) {
+        case IValueMeta.TYPE_STRING,
+            IValueMeta.TYPE_INTEGER,
+            IValueMeta.TYPE_NUMBER,
+            IValueMeta.TYPE_BIGNUMBER,
+            IValueMeta.TYPE_BOOLEAN,
+            IValueMeta.TYPE_DATE,
+            IValueMeta.TYPE_TIMESTAMP,
+            IValueMeta.TYPE_BINARY:
+          break;
+        default:
+          return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  protected Dataset<Row> transform(
+      IVariables variables,
+      PipelineMeta pipelineMeta,
+      TransformMeta transformMeta,
+      IHopMetadataProvider metadataProvider,
+      Map<String, Dataset<Row>> transformDatasetMap,
+      IRowMeta inputRowMeta,
+      Dataset<Row> input)
+      throws HopException {
+    ConstantMeta meta = new ConstantMeta();
+    loadTransformMetadata(meta, transformMeta, metadataProvider, pipelineMeta);
+    RowMetaAndData constants = Constant.buildRow(meta, new ConstantData(), new ArrayList<>());
+
+    Dataset<Row> output = input;
+    IRowMeta constantsRowMeta = constants.getRowMeta();
+    for (int i = 0; i < constantsRowMeta.size(); i++) {
+      IValueMeta valueMeta = constantsRowMeta.getValueMeta(i);
+      output = output.withColumn(valueMeta.getName(), literal(valueMeta, constants.getData()[i]));
+    }
+    return output;
+  }
+}
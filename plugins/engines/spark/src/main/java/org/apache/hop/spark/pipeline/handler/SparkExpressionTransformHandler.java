@@ -0,0 +1,249 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.spark.pipeline.handler;
+
+import static org.apache.spark.sql.functions.col;
+import static org.apache.spark.sql.functions.lit;
+import static org.apache.spark.sql.functions.when;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILogChannel;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.metadata.api.IHopMetadataProvider;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.spark.core.HopSparkRowConverter;
+import org.apache.hop.spark.engines.ISparkPipelineEngineRunConfiguration;
+import org.apache.hop.spark.util.SparkRunMode;
+import org.apache.spark.sql.Column;
+import org.apache.spark.sql.Dataset;
+import org.apache.spark.sql.Row;
+import org.apache.spark.sql.SparkSession;
+
+/**
+ * Base class for row-local transforms which are translated to Dataset expressions instead of
+ * running in a Hop mini-pipeline. Catalyst can then optimise, code-generate and prune columns
+ * through them.
+ *
+ * <p>A translation has to give the same rows as the Hop transform, so {@link #canHandle} only
+ * accepts the settings it can express exactly. Every other configuration runs on the generic
+ * mapPartitions path like before. The result columns are put in the order and with the types of the
+ * Hop output row, the next generic transform reads them by position.
+ *
+ * <p>Rows aren't counted per transform: that needs an RDD round trip which would hide the
+ * expressions from Catalyst.
+ */
+public abstract class SparkExpressionTransformHandler extends SparkBaseTransformHandler {
+
+  /**
+   * See if the transform can be translated to Dataset expressions. Only transforms with a main
+   * input, without error handling, which run distributed and don't distribute rows over several
+   * next transforms are passed to {@link #canTranslate}.
+   *
+   * @return true if the transform can be handled natively
+   */
+  public boolean canHandle(
+      IVariables variables,
+      ISparkPipelineEngineRunConfiguration runConfiguration,
+      PipelineMeta pipelineMeta,
+      TransformMeta transformMeta,
+      IHopMetadataProvider metadataProvider)
+      throws HopException {
+    List<TransformMeta> previousTransforms =
+        pipelineMeta.findPreviousTransforms(transformMeta, false);
+    if (transformMeta.isDoingErrorHandling()
+        || SparkRunMode.resolve(transformMeta, runConfiguration) != SparkRunMode.DISTRIBUTED
+        || previousTransforms.isEmpty()) {
+      return false;
+    }
+    if (pipelineMeta.findNextTransforms(transformMeta).size() > 1
+        && SparkGenericTransformHandler.resolveTargetTransformNames(transformMeta).isEmpty()) {
+      return false;
+    }
+    // The main input only, info streams are read by the transform itself
+    IRowMeta inputRowMeta =
+        pipelineMeta.getTransformFields(variables, previousTransforms.get(0), transformMeta, null);
+    if (!hasUniqueNames(inputRowMeta)
+        || !hasUniqueNames(pipelineMeta.getTransformFields(variables, transformMeta))) {
+      return false;
+    }
+    return canTranslate(variables, pipelineMeta, transformMeta, metadataProvider, inputRowMeta);
+  }
+
+  /**
+   * See if the settings of the transform can be expressed exactly with Dataset expressions.
+   *
+   * @param inputRowMeta the fields of the main input
+   * @return true if the transform can be translated
+   */
+  protected abstract boolean canTranslate(
+      IVariables variables,
+      PipelineMeta pipelineMeta,
+      TransformMeta transformMeta,
+      IHopMetadataProvider metadataProvider,
+      IRowMeta inputRowMeta)
+      throws HopException;
+
+  /**
+   * Apply the expressions of the transform to the input. Transforms with target streams put the
+   * branches in the map themselves.
+   *
+   * @return the output, the columns are conformed to the Hop output row afterward
+   */
+  protected abstract Dataset<Row> transform(
+      IVariables variables,
+      PipelineMeta pipelineMeta,
+      TransformMeta transformMeta,
+      IHopMetadataProvider metadataProvider,
+      Map<String, Dataset<Row>> transformDatasetMap,
+      IRowMeta inputRowMeta,
+      Dataset<Row> input)
+      throws HopException;
+
+  @Override
+  public void handleTransform(
+      ILogChannel log,
+      IVariables variables,
+      String runConfigurationName,
+      ISparkPipelineEngineRunConfiguration runConfiguration,
+      IHopMetadataProvider metadataProvider,
+      String metastoreJson,
+      PipelineMeta pipelineMeta,
+      TransformMeta transformMeta,
+      Map<String, Dataset<Row>> transformDatasetMap,
+      SparkSession spark,
+      IRowMeta rowMeta,
+      List<TransformMeta> previousTransforms,
+      Dataset<Row> input)
+      throws HopException {
+    if (input == null) {
+      throw new HopException("Transform '" + transformMeta.getName() + "' has no input Dataset");
+    }
+    Dataset<Row> output =
+        transform(
+            variables,
+            pipelineMeta,
+            transformMeta,
+            metadataProvider,
+            transformDatasetMap,
+            rowMeta,
+            input);
+    output = conform(output, pipelineMeta.getTransformFields(variables, transformMeta));
+    transformDatasetMap.put(transformMeta.getName(), output);
+    log.logBasic(
+        "Handled transform '"
+            + transformMeta.getName()
+            + "' with native Spark expressions (plugin id="
+            + transformMeta.getTransformPluginId()
+            + ")");
+  }
+
+  /**
+   * Select the fields of the Hop row in order, cast to the Spark type of their Hop type.
+   *
+   * @param dataset the result of the expressions
+   * @param rowMeta the Hop output row
+   * @return the conformed Dataset
+   */
+  public static Dataset<Row> conform(Dataset<Row> dataset, IRowMeta rowMeta) throws HopException {
+    List<Column> columns = new ArrayList<>();
+    for (IValueMeta valueMeta : rowMeta.getValueMetaList()) {
+      columns.add(
+          column(valueMeta.getName())
+              .cast(HopSparkRowConverter.toDataType(valueMeta))
+              .as(valueMeta.getName()));
+    }
+    return dataset.select(columns.toArray(new Column[0]));
+  }
+
+  /** A column by name, quoted so dots and spaces in Hop field names aren't interpreted. */
+  public static Column column(String name) {
+    return col("`" + name.replace("`", "``") + "`");
+  }
+
+  /**
+   * A literal of the Spark type of a Hop value.
+   *
+   * @param valueMeta the Hop type of the value
+   * @param value the Hop value, null gives a typed null
+   */
+  public static Column literal(IValueMeta valueMeta, Object value) throws HopException {
+    return lit(HopSparkRowConverter.toSparkValue(valueMeta, value))
+        .cast(HopSparkRowConverter.toDataType(valueMeta));
+  }
+
+  /** Hop considers an empty string to be null unless HOP_EMPTY_STRING_DIFFERS_FROM_NULL is set */
+  public static boolean emptyStringIsNull() {
+    return !Const.toBoolean(
+        Const.NVL(System.getProperty(Const.HOP_EMPTY_STRING_DIFFERS_FROM_NULL, "N"), "N"));
+  }
+
+  /** The value of a column the way Hop sees it: empty strings are null. */
+  public static Column hopValue(Column column, IValueMeta valueMeta) {
+    if (valueMeta.isString() && emptyStringIsNull()) {
+      return when(column.equalTo(""), lit(null).cast("string")).otherwise(column);
+    }
+    return column;
+  }
+
+  /** True if the value of the column is null for Hop, never null itself. */
+  public static Column hopIsNull(Column column, IValueMeta valueMeta) {
+    return hopValue(column, valueMeta).isNull();
+  }
+
+  /**
+   * See if values of this type compare the same way in Spark as in Hop: no collation, case
+   * insensitivity, whitespace trimming or descending order.
+   */
+  public static boolean isComparable(IValueMeta valueMeta) {
+    return switch (valueMeta.getType()) {
+      case IValueMeta.TYPE_STRING ->
+          valueMeta.isCollatorDisabled()
+              && !valueMeta.isCaseInsensitive()
+              && !valueMeta.isIgnoreWhitespace()
+              && !valueMeta.isSortedDescending();
+      case IValueMeta.TYPE_INTEGER,
+              IValueMeta.TYPE_NUMBER,
+              IValueMeta.TYPE_BIGNUMBER,
+              IValueMeta.TYPE_BOOLEAN,
+              IValueMeta.TYPE_DATE,
+              IValueMeta.TYPE_TIMESTAMP ->
+          !valueMeta.isSortedDescending();
+      default -> false;
+    };
+  }
+
+  /** True if every field name of the row occurs once, Spark resolves columns by name. */
+  public static boolean hasUniqueNames(IRowMeta rowMeta) {
+    Set<String> names = new HashSet<>();
+    for (IValueMeta valueMeta : rowMeta.getValueMetaList()) {
+      if (!names.add(valueMeta.getName().toLowerCase())) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
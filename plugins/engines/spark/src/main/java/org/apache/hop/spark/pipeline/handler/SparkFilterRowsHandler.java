@@ -0,0 +1,260 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.spark.pipeline.handler;
+
+import static org.apache.spark.sql.functions.coalesce;
+import static org.apache.spark.sql.functions.lit;
+import static org.apache.spark.sql.functions.not;
+import static org.apache.spark.sql.functions.when;
+
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.hop.core.Condition;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.metadata.api.IHopMetadataProvider;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transform.stream.IStream;
+import org.apache.hop.pipeline.transforms.filterrows.FilterRowsMeta;
+import org.apache.hop.spark.core.HopSparkUtil;
+import org.apache.spark.sql.Column;
+import org.apache.spark.sql.Dataset;
+import org.apache.spark.sql.Row;
+
+/**
+ * Filter Rows as a Dataset filter. The condition is translated to a boolean column with the null
+ * semantics of {@link Condition#evaluate}: a null sorts before any other value and empty strings
+ * are null. Conditions with regular expressions, LIKE, IN LIST or values which Hop compares
+ * differently than Spark (collation, case insensitivity, ...) run on the generic path.
+ */
+public class SparkFilterRowsHandler extends SparkExpressionTransformHandler {
+
+  @Override
+  protected boolean canTranslate(
+      IVariables variables,
+      PipelineMeta pipelineMeta,
+      TransformMeta transformMeta,
+      IHopMetadataProvider metadataProvider,
+      IRowMeta inputRowMeta)
+      throws HopException {
+    FilterRowsMeta meta = new FilterRowsMeta();
+    loadTransformMetadata(meta, transformMeta, metadataProvider, pipelineMeta);
+    Condition condition = meta.getCondition();
+    return condition != null && canTranslate(variables, condition, inputRowMeta);
+  }
+
+  private boolean canTranslate(IVariables variables, Condition condition, IRowMeta inputRowMeta)
+      throws HopException {
+    if (condition.isComposite()) {
+      for (int i = 0; i < condition.nrConditions(); i++) {
+        if (!canTranslate(variables, condition.getCondition(i), inputRowMeta)) {
+          return false;
+        }
+      }
+      return true;
+    }
+    switch (condition.getFunction()) {
+      case TRUE:
+        return true;
+      case EQUAL,
+          NOT_EQUAL,
+          SMALLER,
+          SMALLER_EQUAL,
+          LARGER,
+          LARGER_EQUAL,
+          NULL,
+          NOT_NULL,
+          CONTAINS,
+          STARTS_WITH:
+        break;
+      default:
+        return false;
+    }
+    IValueMeta leftMeta = leftValueMeta(condition, inputRowMeta);
+    if (leftMeta == null) {
+      // Hop evaluates a condition on a missing field as false
+      return true;
+    }
+    leftMeta = leftMeta.clone();
+    leftMeta.setSortedDescending(false);
+    if (!isComparable(leftMeta)) {
+      return false;
+    }
+    Condition.Function function = condition.getFunction();
+    if (function == Condition.Function.NULL || function == Condition.Function.NOT_NULL) {
+      return true;
+    }
+    if ((function == Condition.Function.CONTAINS || function == Condition.Function.STARTS_WITH)
+        && !leftMeta.isString()) {
+      return false;
+    }
+    if (StringUtils.isNotEmpty(condition.getRightValueName())) {
+      IValueMeta rightMeta = inputRowMeta.searchValueMeta(condition.getRightValueName());
+      return rightMeta != null
+          && rightMeta.getType() == leftMeta.getType()
+          && (!rightMeta.isString() || isComparable(rightMeta));
+    }
+    if (condition.getRightValue() == null) {
+      return false;
+    }
+    // The constant has to convert to the type of the left field
+    try {
+      rightConstant(variables, condition, leftMeta);
+      return true;
+    } catch (Exception e) {
+      return false;
+    }
+  }
+
+  @Override
+  protected Dataset<Row> transform(
+      IVariables variables,
+      PipelineMeta pipelineMeta,
+      TransformMeta transformMeta,
+      IHopMetadataProvider metadataProvider,
+      Map<String, Dataset<Row>> transformDatasetMap,
+      IRowMeta inputRowMeta,
+      Dataset<Row> input)
+      throws HopException {
+    FilterRowsMeta meta = new FilterRowsMeta();
+    loadTransformMetadata(meta, transformMeta, metadataProvider, pipelineMeta);
+    Column keep = toColumn(variables, meta.getCondition(), inputRowMeta);
+
+    List<IStream> targetStreams = meta.getTransformIOMeta().getTargetStreams();
+    TransformMeta trueTransform = targetStreams.get(0).getTransformMeta();
+    TransformMeta falseTransform = targetStreams.get(1).getTransformMeta();
+    if (trueTransform == null && falseTransform == null) {
+      return input.filter(keep);
+    }
+
+    IRowMeta outputRowMeta = pipelineMeta.getTransformFields(variables, transformMeta);
+    if (trueTransform != null) {
+      transformDatasetMap.put(
+          HopSparkUtil.createTargetTupleId(transformMeta.getName(), trueTransform.getName()),
+          conform(input.filter(keep), outputRowMeta));
+    }
+    if (falseTransform != null) {
+      transformDatasetMap.put(
+          HopSparkUtil.createTargetTupleId(transformMeta.getName(), falseTransform.getName()),
+          conform(input.filter(not(keep)), outputRowMeta));
+    }
+    // All rows are routed to the targets
+    return input.filter(lit(false));
+  }
+
+  /**
+   * Translate a condition to a boolean column which is never null.
+   *
+   * @param condition the condition to translate
+   * @param rowMeta the fields of the input
+   * @return the boolean column
+   */
+  Column toColumn(IVariables variables, Condition condition, IRowMeta rowMeta) throws HopException {
+    Column evaluation;
+    if (condition.isComposite()) {
+      evaluation = toColumn(variables, condition.getCondition(0), rowMeta);
+      for (int i = 1; i < condition.nrConditions(); i++) {
+        Condition child = condition.getCondition(i);
+        Column other = toColumn(variables, child, rowMeta);
+        evaluation =
+            switch (child.getOperator()) {
+              case OR -> evaluation.or(other);
+              case AND -> evaluation.and(other);
+              case OR_NOT -> evaluation.or(not(other));
+              case AND_NOT -> evaluation.and(not(other));
+              case XOR -> evaluation.notEqual(other);
+              default -> evaluation;
+            };
+      }
+    } else if (condition.getFunction() != Condition.Function.TRUE
+        && leftValueMeta(condition, rowMeta) == null) {
+      // Not negated, Hop stops evaluating when the field is missing
+      return lit(false);
+    } else {
+      evaluation = toAtomicColumn(variables, condition, rowMeta);
+    }
+    return condition.isNegated() ? not(evaluation) : evaluation;
+  }
+
+  private Column toAtomicColumn(IVariables variables, Condition condition, IRowMeta rowMeta)
+      throws HopException {
+    if (condition.getFunction() == Condition.Function.TRUE) {
+      return lit(true);
+    }
+    IValueMeta leftMeta = leftValueMeta(condition, rowMeta);
+    Column rawLeft = column(leftMeta.getName());
+    Column left = hopValue(rawLeft, leftMeta);
+    switch (condition.getFunction()) {
+      case NULL:
+        return left.isNull();
+      case NOT_NULL:
+        return left.isNotNull();
+      default:
+        break;
+    }
+
+    Column rawRight;
+    if (StringUtils.isNotEmpty(condition.getRightValueName())) {
+      rawRight = column(rowMeta.searchValueMeta(condition.getRightValueName()).getName());
+    } else {
+      rawRight = literal(leftMeta, rightConstant(variables, condition, leftMeta));
+    }
+    Column right = hopValue(rawRight, leftMeta);
+
+    return switch (condition.getFunction()) {
+      case EQUAL -> left.eqNullSafe(right);
+      case NOT_EQUAL -> not(left.eqNullSafe(right));
+      case SMALLER -> coalesce(left.lt(right), lit(false));
+      case SMALLER_EQUAL -> coalesce(left.leq(right), lit(false));
+        // A value is larger than null
+      case LARGER ->
+          when(left.isNotNull().and(right.isNull()), lit(true))
+              .otherwise(coalesce(left.gt(right), lit(false)));
+      case LARGER_EQUAL -> coalesce(left.geq(right), right.isNull());
+        // Like Hop, an empty string contains and starts with an empty string
+      case CONTAINS -> coalesce(rawLeft.contains(rawRight), lit(false));
+      case STARTS_WITH -> coalesce(rawLeft.startsWith(rawRight), lit(false));
+      default ->
+          throw new HopException(
+              "Condition function " + condition.getFunction() + " can't be translated for Spark");
+    };
+  }
+
+  private static IValueMeta leftValueMeta(Condition condition, IRowMeta rowMeta) {
+    if (StringUtils.isEmpty(condition.getLeftValueName())) {
+      return null;
+    }
+    return rowMeta.searchValueMeta(condition.getLeftValueName());
+  }
+
+  /** The constant of the condition, converted to the type of the left field like Hop does. */
+  private static Object rightConstant(
+      IVariables variables, Condition condition, IValueMeta leftMeta) throws HopException {
+    Condition.CValue rightValue = new Condition.CValue(condition.getRightValue());
+    if (rightValue.getText() != null) {
+      rightValue.setText(variables.resolve(rightValue.getText()));
+    }
+    IValueMeta rightMeta = rightValue.createValueMeta();
+    Object data = rightValue.createValueData();
+    return leftMeta.convertData(rightMeta, data);
+  }
+}
@@ -109,24 +109,80 @@ public class SparkGenericTransformHandler implements ISparkPipelineTransformHand
       List<TransformMeta> previousTransforms,
       Dataset<Row> input)
       throws HopException {
+    handleTransform(
+        log,
+        variables,
+        runConfigurationName,
+        runConfiguration,
+        metadataProvider,
+        metastoreJson,
+        pipelineMeta,
+        transformMeta,
+        transformDatasetMap,
+        spark,
+        rowMeta,
+        previousTransforms,
+        input,
+        List.of());
+  }
+
+  /**
+   * Same as {@link #handleTransform(ILogChannel, IVariables, String,
+   * ISparkPipelineEngineRunConfiguration, IHopMetadataProvider, String, PipelineMeta,
+   * TransformMeta, Map, SparkSession, IRowMeta, List, Dataset)} but also runs the given row-local
+   * transforms after this one in the same mapPartitions call. Rows are then only converted between
+   * Spark and Hop once for the whole chain. The resulting Datasets are stored under the name of the
+   * last fused transform.
+   */
+  public void handleTransform(
+      ILogChannel log,
+      IVariables variables,
+      String runConfigurationName,
+      ISparkPipelineEngineRunConfiguration runConfiguration,
+      IHopMetadataProvider metadataProvider,
+      String metastoreJson,
+      PipelineMeta pipelineMeta,
+      TransformMeta transformMeta,
+      Map<String, Dataset<Row>> transformDatasetMap,
+      SparkSession spark,
+      IRowMeta rowMeta,
+      List<TransformMeta> previousTransforms,
+      Dataset<Row> input,
+      List<TransformMeta> fusedTransformMetas)
+      throws HopException {
 
     boolean inputTransform = input == null;
     // previousTransforms are main predecessors only (converter uses findPreviousTransforms(...,
     // false)). Multiple main predecessors are already unioned by HopPipelineMetaToSparkConverter
     // when row layouts match.
 
+    // The rows leave the mini-pipeline after the last fused transform (if any)
+    List<String> fusedNames = new ArrayList<>();
+    List<String> fusedPluginIds = new ArrayList<>();
+    List<String> fusedXmls = new ArrayList<>();
+    TransformMeta outputTransformMeta = transformMeta;
+    for (TransformMeta fusedTransformMeta : fusedTransformMetas) {
+      fusedNames.add(fusedTransformMeta.getName());
+      fusedPluginIds.add(fusedTransformMeta.getTransformPluginId());
+      fusedXmls.add(
+          XmlHandler.openTag(TransformMeta.XML_TAG)
+              + fusedTransformMeta.getTransform().getXml()
+              + XmlHandler.closeTag(TransformMeta.XML_TAG));
+      outputTransformMeta = fusedTransformMeta;
+    }
+
     // Ensure target stream subjects are bound (pipeline load usually does this already)
-    transformMeta.getTransform().searchInfoAndTargetTransforms(pipelineMeta.getTransforms());
-    List<String> targetNames = resolveTargetTransformNames(transformMeta);
+    outputTransformMeta.getTransform().searchInfoAndTargetTransforms(pipelineMeta.getTransforms());
+    List<String> targetNames = resolveTargetTransformNames(outputTransformMeta);
 
-    List<TransformMeta> nextTransforms = pipelineMeta.findNextTransforms(transformMeta);
+    List<TransformMeta> nextTransforms = pipelineMeta.findNextTransforms(outputTransformMeta);
     if (nextTransforms.size() > 1 && targetNames.isEmpty()) {
       throw new HopException(
           "Multiple outgoing hops from transform '"
-              + transformMeta.getName()
+              + outputTransformMeta.getName()
               + "' are not supported on the native Spark engine unless they are declared as"
               + " target streams (e.g. Filter Rows true/false, Switch/Case). plugin id="
-              + transformMeta.getTransformPluginId());
+              + outputTransformMeta.getTransformPluginId());
     }
 
     // Info/side streams: all previous including informational minus main previous
@@ -161,7 +217,7 @@ public class SparkGenericTransformHandler implements ISparkPipelineTransformHand
               + broadcast.value().size());
     }
 
-    IRowMeta outputRowMeta = pipelineMeta.getTransformFields(variables, transformMeta);
+    IRowMeta outputRowMeta = pipelineMeta.getTransformFields(variables, outputTransformMeta);
     // Workflow Executor / Pipeline Executor only emit on named TARGET streams.
     // getFields(next=null): WE clears the row; PE keeps the *input* layout (e.g. country_name).
     // Prefer a non-empty target-stream layout so Dummy "results" gets ExecutionTime/… and the
@@ -174,14 +230,14 @@ public class SparkGenericTransformHandler implements ISparkPipelineTransformHand
           continue;
         }
         IRowMeta targetFields =
-            pipelineMeta.getTransformFields(variables, transformMeta, targetMeta, null);
+            pipelineMeta.getTransformFields(variables, outputTransformMeta, targetMeta, null);
         if (targetFields != null && !targetFields.isEmpty()) {
           if (outputRowMeta == null
               || outputRowMeta.isEmpty()
               || !sameFieldLayout(outputRowMeta, targetFields)) {
             log.logBasic(
                 "Transform '"
-                    + transformMeta.getName()
+                    + outputTransformMeta.getName()
                     + "' using target stream '"
                     + targetName
                     + "' layout ("
@@ -228,6 +284,9 @@ public class SparkGenericTransformHandler implements ISparkPipelineTransformHand
             infoNames,
             infoRowMetaJsons,
             infoBroadcasts,
+            fusedNames,
+            fusedPluginIds,
+            fusedXmls,
             metricsAccumulator,
             sampleDataAccumulator,
             runConfigName != null ? runConfigName : runConfigurationName,
@@ -269,7 +328,7 @@ public class SparkGenericTransformHandler implements ISparkPipelineTransformHand
     }
 
     if (!multiTarget) {
-      transformDatasetMap.put(transformMeta.getName(), taggedOrPlain);
+      transformDatasetMap.put(outputTransformMeta.getName(), taggedOrPlain);
     } else {
       // Main key may be empty when all rows are routed to named targets (Filter/Switch)
       Dataset<Row> mainBranch =
@@ -279,17 +338,18 @@ public class SparkGenericTransformHandler implements ISparkPipelineTransformHand
                       .col(HopSparkUtil.TARGET_TAG_COLUMN)
                       .equalTo(HopSparkUtil.MAIN_TARGET_TAG))
               .drop(HopSparkUtil.TARGET_TAG_COLUMN);
-      transformDatasetMap.put(transformMeta.getName(), mainBranch);
+      transformDatasetMap.put(outputTransformMeta.getName(), mainBranch);
       for (String targetName : targetNames) {
         Dataset<Row> branch =
             taggedOrPlain
                 .filter(taggedOrPlain.col(HopSparkUtil.TARGET_TAG_COLUMN).equalTo(targetName))
                 .drop(HopSparkUtil.TARGET_TAG_COLUMN);
-        String tupleId = HopSparkUtil.createTargetTupleId(transformMeta.getName(), targetName);
+        String tupleId =
+            HopSparkUtil.createTargetTupleId(outputTransformMeta.getName(), targetName);
         transformDatasetMap.put(tupleId, branch);
         log.logBasic(
             "Target stream '"
-                + transformMeta.getName()
+                + outputTransformMeta.getName()
                 + "' → '"
                 + targetName
                 + "' key="
@@ -305,6 +365,7 @@ public class SparkGenericTransformHandler implements ISparkPipelineTransformHand
             + transformMeta.getTransformPluginId()
             + (infoNames.isEmpty() ? "" : ", infoStreams=" + infoNames)
             + (targetNames.isEmpty() ? "" : ", targets=" + targetNames)
+            + (fusedNames.isEmpty() ? "" : ", fused=" + fusedNames)
             + ")");
   }
 
@@ -413,7 +474,7 @@ public class SparkGenericTransformHandler implements ISparkPipelineTransformHand
    * Switch/Case cases, Pipeline/Workflow Executor result hops, …). Empty when the transform only
    * has a default main hop.
    */
-  static List<String> resolveTargetTransformNames(TransformMeta transformMeta) {
+  public static List<String> resolveTargetTransformNames(TransformMeta transformMeta) {
     if (transformMeta == null || transformMeta.getTransform() == null) {
       return List.of();
     }
@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.spark.pipeline.handler;
+
+import static org.apache.spark.sql.functions.when;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.util.Utils;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.metadata.api.IHopMetadataProvider;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transforms.ifnull.Field;
+import org.apache.hop.pipeline.transforms.ifnull.IfNullMeta;
+import org.apache.hop.pipeline.transforms.ifnull.ValueType;
+import org.apache.spark.sql.Dataset;
+import org.apache.spark.sql.Row;
+
+/**
+ * If Null as conditional columns. The replacement values are converted on the driver the same way
+ * the transform converts them, a value which doesn't convert leaves the error to the generic path.
+ */
+public class SparkIfNullHandler extends SparkExpressionTransformHandler {
+
+  @Override
+  protected boolean canTranslate(
+      IVariables variables,
+      PipelineMeta pipelineMeta,
+      TransformMeta transformMeta,
+      IHopMetadataProvider metadataProvider,
+      IRowMeta inputRowMeta)
+      throws HopException {
+    IfNullMeta meta = new IfNullMeta();
+    loadTransformMetadata(meta, transformMeta, metadataProvider, pipelineMeta);
+    try {
+      IRowMeta outputRowMeta = pipelineMeta.getTransformFields(variables, transformMeta);
+      for (int index : replacements(variables, meta, outputRowMeta).keySet()) {
+        IValueMeta valueMeta = outputRowMeta.getValueMeta(index);
+        if (valueMeta.getType() == IValueMeta.TYPE_NONE
+            || valueMeta.getType() == IValueMeta.TYPE_SERIALIZABLE) {
+          return false;
+        }
+      }
+      return true;
+    } catch (HopException e) {
+      return false;
+    }
+  }
+
+  @Override
+  protected Dataset<Row> transform(
+      IVariables variables,
+      PipelineMeta pipelineMeta,
+      TransformMeta transformMeta,
+      IHopMetadataProvider metadataProvider,
+      Map<String, Dataset<Row>> transformDatasetMap,
+      IRowMeta inputRowMeta,
+      Dataset<Row> input)
+      throws HopException {
+    IfNullMeta meta = new IfNullMeta();
+    loadTransformMetadata(meta, transformMeta, metadataProvider, pipelineMeta);
+    IRowMeta outputRowMeta = pipelineMeta.getTransformFields(variables, transformMeta);
+
+    Dataset<Row> output = input;
+    for (Map.Entry<Integer, Object> entry :
+        replacements(variables, meta, outputRowMeta).entrySet()) {
+      IValueMeta valueMeta = outputRowMeta.getValueMeta(entry.getKey());
+      output =
+          output.withColumn(
+              valueMeta.getName(),
+              when(
+                      hopIsNull(column(valueMeta.getName()), valueMeta),
+                      literal(valueMeta, entry.getValue()))
+                  .otherwise(column(valueMeta.getName())));
+    }
+    return output;
+  }
+
+  /**
+   * Work out the value which replaces null in each field, like {@code IfNull.replaceNull} does.
+   *
+   * @return the replacement value per index of an output field
+   * @throws HopException when the transform would fail: a missing field or a value which doesn't
+   *     convert
+   */
+  private static Map<Integer, Object> replacements(
+      IVariables variables, IfNullMeta meta, IRowMeta outputRowMeta) throws HopException {
+    IRowMeta convertRowMeta = outputRowMeta.cloneToType(IValueMeta.TYPE_STRING);
+    Map<Integer, Object> replacements = new LinkedHashMap<>();
+
+    if (meta.isSelectFields()) {
+      if (Utils.isEmpty(meta.getFields())) {
+        throw new HopException("No fields selected");
+      }
+      for (Field field : meta.getFields()) {
+        int index = outputRowMeta.indexOfValue(field.getName());
+        if (index < 0) {
+          throw new HopException("Field '" + field.getName() + "' not found");
+        }
+        // The first selection of a field wins, after that the value isn't null anymore
+        replacements.putIfAbsent(
+            index,
+            replacement(
+                variables,
+                outputRowMeta.getValueMeta(index),
+                convertRowMeta.getValueMeta(index),
+                field.getValue(),
+                field.getMask(),
+                field.isSetEmptyString()));
+      }
+    } else if (meta.isSelectValuesType()) {
+      if (Utils.isEmpty(meta.getValueTypes())) {
+        throw new HopException("No value types selected");
+      }
+      Map<String, ValueType> valueTypes = new HashMap<>();
+      for (ValueType valueType : meta.getValueTypes()) {
+        valueTypes.put(valueType.getName(), valueType);
+      }
+      for (int i = 0; i < outputRowMeta.size(); i++) {
+        IValueMeta valueMeta = outputRowMeta.getValueMeta(i);
+        ValueType valueType = valueTypes.get(valueMeta.getTypeDesc());
+        if (valueType != null) {
+          replacements.put(
+              i,
+              replacement(
+                  variables,
+                  valueMeta,
+                  convertRowMeta.getValueMeta(i),
+                  valueType.getValue(),
+                  valueType.getMask(),
+                  valueType.isSetEmptyString()));
+        }
+      }
+    } else {
+      for (int i = 0; i < outputRowMeta.size(); i++) {
+        IValueMeta valueMeta = outputRowMeta.getValueMeta(i);
+        // The mask only applies to dates and empty strings don't replace dates
+        boolean date = valueMeta.isDate();
+        replacements.put(
+            i,
+            replacement(
+                variables,
+                valueMeta,
+                convertRowMeta.getValueMeta(i),
+                meta.getReplaceAllByValue(),
+                date ? meta.getReplaceAllMask() : null,
+                !date && meta.isSetEmptyStringAll()));
+      }
+    }
+    return replacements;
+  }
+
+  private static Object replacement(
+      IVariables variables,
+      IValueMeta targetValueMeta,
+      IValueMeta sourceValueMeta,
+      String value,
+      String mask,
+      boolean setEmptyString)
+      throws HopException {
+    if (setEmptyString) {
+      // Hop puts an empty string in fields of any type, only strings can hold it
+      if (!targetValueMeta.isString()) {
+        throw new HopException(
+            "An empty string can't replace null in field '" + targetValueMeta.getName() + "'");
+      }
+      return "";
+    }
+    String realMask = variables.resolve(mask);
+    if (!Utils.isEmpty(realMask)) {
+      sourceValueMeta.setConversionMask(realMask);
+    }
+    return targetValueMeta.convertData(sourceValueMeta, variables.resolve(value));
+  }
+}
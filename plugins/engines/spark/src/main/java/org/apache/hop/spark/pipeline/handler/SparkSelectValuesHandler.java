@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.spark.pipeline.handler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.util.Utils;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.metadata.api.IHopMetadataProvider;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transforms.selectvalues.DeleteField;
+import org.apache.hop.pipeline.transforms.selectvalues.SelectField;
+import org.apache.hop.pipeline.transforms.selectvalues.SelectValuesMeta;
+import org.apache.spark.sql.Column;
+import org.apache.spark.sql.Dataset;
+import org.apache.spark.sql.Row;
+
+/**
+ * Select Values as a projection: selecting, renaming and removing fields. Changes on the Meta-data
+ * tab convert values and run on the generic path.
+ */
+public class SparkSelectValuesHandler extends SparkExpressionTransformHandler {
+
+  @Override
+  protected boolean canTranslate(
+      IVariables variables,
+      PipelineMeta pipelineMeta,
+      TransformMeta transformMeta,
+      IHopMetadataProvider metadataProvider,
+      IRowMeta inputRowMeta)
+      throws HopException {
+    SelectValuesMeta meta = new SelectValuesMeta();
+    loadTransformMetadata(meta, transformMeta, metadataProvider, pipelineMeta);
+    if (!Utils.isEmpty(meta.getSelectOption().getMeta())) {
+      return false;
+    }
+    // Hop stops the pipeline when a field is missing, leave that to the transform
+    for (SelectField field : meta.getSelectOption().getSelectFields()) {
+      if (inputRowMeta.searchValueMeta(field.getName()) == null) {
+        return false;
+      }
+    }
+    IRowMeta selectRowMeta = inputRowMeta.clone();
+    meta.getSelectFields(selectRowMeta, transformMeta.getName());
+    if (!hasUniqueNames(selectRowMeta)) {
+      return false;
+    }
+    for (DeleteField field :
+        Objects.requireNonNullElse(
+            meta.getSelectOption().getDeleteName(), List.<DeleteField>of())) {
+      if (selectRowMeta.searchValueMeta(field.getName()) == null) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  protected Dataset<Row> transform(
+      IVariables variables,
+      PipelineMeta pipelineMeta,
+      TransformMeta transformMeta,
+      IHopMetadataProvider metadataProvider,
+      Map<String, Dataset<Row>> transformDatasetMap,
+      IRowMeta inputRowMeta,
+      Dataset<Row> input)
+      throws HopException {
+    SelectValuesMeta meta = new SelectValuesMeta();
+    loadTransformMetadata(meta, transformMeta, metadataProvider, pipelineMeta);
+
+    Dataset<Row> output = input;
+    List<SelectField> selectFields = meta.getSelectOption().getSelectFields();
+    if (!Utils.isEmpty(selectFields)) {
+      List<Column> columns = new ArrayList<>();
+      for (SelectField field : selectFields) {
+        IValueMeta valueMeta = inputRowMeta.searchValueMeta(field.getName());
+        String name = Utils.isEmpty(field.getRename()) ? valueMeta.getName() : field.getRename();
+        columns.add(column(valueMeta.getName()).as(name));
+      }
+      if (meta.getSelectOption().isSelectingAndSortingUnspecifiedFields()) {
+        List<String> extra = new ArrayList<>();
+        for (IValueMeta valueMeta : inputRowMeta.getValueMetaList()) {
+          if (Const.indexOfString(valueMeta.getName(), meta.getSelectName()) < 0) {
+            extra.add(valueMeta.getName());
+          }
+        }
+        Collections.sort(extra);
+        for (String name : extra) {
+          columns.add(column(name));
+        }
+      }
+      output = output.select(columns.toArray(new Column[0]));
+    }
+
+    IRowMeta selectRowMeta = inputRowMeta.clone();
+    meta.getSelectFields(selectRowMeta, transformMeta.getName());
+    for (DeleteField field :
+        Objects.requireNonNullElse(
+            meta.getSelectOption().getDeleteName(), List.<DeleteField>of())) {
+      output = output.drop(column(selectRowMeta.searchValueMeta(field.getName()).getName()));
+    }
+    return output;
+  }
+}
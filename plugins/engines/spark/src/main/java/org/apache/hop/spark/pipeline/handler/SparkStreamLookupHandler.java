@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.spark.pipeline.handler;
+
+import static org.apache.spark.sql.functions.broadcast;
+import static org.apache.spark.sql.functions.lit;
+import static org.apache.spark.sql.functions.monotonically_increasing_id;
+import static org.apache.spark.sql.functions.row_number;
+import static org.apache.spark.sql.functions.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.util.Utils;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.metadata.api.IHopMetadataProvider;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.engine.StreamLookupRules;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transforms.streamlookup.StreamLookupMeta;
+import org.apache.hop.pipeline.transforms.streamlookup.StreamLookupMeta.MatchKey;
+import org.apache.hop.pipeline.transforms.streamlookup.StreamLookupMeta.ReturnValue;
+import org.apache.hop.spark.pipeline.HopPipelineMetaToSparkConverter;
+import org.apache.spark.sql.Column;
+import org.apache.spark.sql.Dataset;
+import org.apache.spark.sql.Row;
+import org.apache.spark.sql.expressions.Window;
+
+/**
+ * Stream Lookup as a broadcast left join. The lookup stream is reduced to one row per key, like the
+ * hash table of the transform. When the lookup stream holds the same key more than once the
+ * transform keeps the last row it reads, here the last row in the order of the lookup dataset is
+ * kept. Keys are matched with the null semantics of Hop: null equals null and empty strings are
+ * null.
+ */
+public class SparkStreamLookupHandler extends SparkExpressionTransformHandler {
+
+  private static final String TEMP_PREFIX = "__hop_lk_";
+  private static final String MATCH_COLUMN = TEMP_PREFIX + "match";
+  private static final String ORDER_COLUMN = TEMP_PREFIX + "order";
+  private static final String ROW_NUMBER_COLUMN = TEMP_PREFIX + "row_number";
+
+  @Override
+  protected boolean canTranslate(
+      IVariables variables,
+      PipelineMeta pipelineMeta,
+      TransformMeta transformMeta,
+      IHopMetadataProvider metadataProvider,
+      IRowMeta inputRowMeta)
+      throws HopException {
+    StreamLookupMeta meta = new StreamLookupMeta();
+    loadTransformMetadata(meta, transformMeta, metadataProvider, pipelineMeta);
+    TransformMeta infoTransformMeta = infoTransformMeta(meta);
+    if (infoTransformMeta == null || meta.getLookup().getMatchKeys().isEmpty()) {
+      return false;
+    }
+    IRowMeta infoRowMeta =
+        pipelineMeta.getTransformFields(variables, infoTransformMeta, transformMeta, null);
+    if (!hasUniqueNames(infoRowMeta)) {
+      return false;
+    }
+    for (MatchKey matchKey : meta.getLookup().getMatchKeys()) {
+      IValueMeta streamMeta = searchValueMeta(inputRowMeta, matchKey.getKeyStream());
+      IValueMeta lookupMeta = searchValueMeta(infoRowMeta, matchKey.getKeyLookup());
+      // The transform converts the stream key to the lookup key type, a join can't
+      if (streamMeta == null
+          || lookupMeta == null
+          || streamMeta.getType() != lookupMeta.getType()
+          || !StreamLookupRules.isExactKey(streamMeta)
+          || !StreamLookupRules.isExactKey(lookupMeta)) {
+        return false;
+      }
+    }
+    for (ReturnValue returnValue : meta.getLookup().getReturnValues()) {
+      IValueMeta valueMeta = searchValueMeta(infoRowMeta, returnValue.getValue());
+      if (valueMeta == null || Utils.isEmpty(returnValue.getValueName())) {
+        return false;
+      }
+      try {
+        defaultValue(variables, returnValue, valueMeta);
+      } catch (HopException e) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  protected Dataset<Row> transform(
+      IVariables variables,
+      PipelineMeta pipelineMeta,
+      TransformMeta transformMeta,
+      IHopMetadataProvider metadataProvider,
+      Map<String, Dataset<Row>> transformDatasetMap,
+      IRowMeta inputRowMeta,
+      Dataset<Row> input)
+      throws HopException {
+    StreamLookupMeta meta = new StreamLookupMeta();
+    loadTransformMetadata(meta, transformMeta, metadataProvider, pipelineMeta);
+    TransformMeta infoTransformMeta = infoTransformMeta(meta);
+    Dataset<Row> info =
+        HopPipelineMetaToSparkConverter.lookupPreviousDataset(
+            transformDatasetMap, infoTransformMeta, transformMeta, null);
+    if (info == null) {
+      throw new HopException(
+          "Stream Lookup '"
+              + transformMeta.getName()
+              + "': Dataset of lookup transform '"
+              + infoTransformMeta.getName()
+              + "' not found");
+    }
+    IRowMeta infoRowMeta =
+        pipelineMeta.getTransformFields(variables, infoTransformMeta, transformMeta, null);
+
+    // The lookup side: normalized keys, the values and a flag which marks a match
+    List<MatchKey> matchKeys = meta.getLookup().getMatchKeys();
+    List<ReturnValue> returnValues = meta.getLookup().getReturnValues();
+    List<Column> lookupColumns = new ArrayList<>();
+    List<String> keyColumnNames = new ArrayList<>();
+    Column joinCondition = null;
+    for (int i = 0; i < matchKeys.size(); i++) {
+      IValueMeta lookupMeta = searchValueMeta(infoRowMeta, matchKeys.get(i).getKeyLookup());
+      IValueMeta streamMeta = searchValueMeta(inputRowMeta, matchKeys.get(i).getKeyStream());
+      String keyColumnName = TEMP_PREFIX + "key_" + i;
+      keyColumnNames.add(keyColumnName);
+      lookupColumns.add(hopValue(column(lookupMeta.getName()), lookupMeta).as(keyColumnName));
+      Column condition =
+          hopValue(column(streamMeta.getName()), streamMeta).eqNullSafe(column(keyColumnName));
+      joinCondition = joinCondition == null ? condition : joinCondition.and(condition);
+    }
+    for (int i = 0; i < returnValues.size(); i++) {
+      IValueMeta valueMeta = searchValueMeta(infoRowMeta, returnValues.get(i).getValue());
+      lookupColumns.add(column(valueMeta.getName()).as(TEMP_PREFIX + "value_" + i));
+    }
+    lookupColumns.add(lit(true).as(MATCH_COLUMN));
+    lookupColumns.add(monotonically_increasing_id().as(ORDER_COLUMN));
+
+    // Keep the last row of every key, dropDuplicates() would keep any one of them
+    Column[] keyColumns =
+        keyColumnNames.stream().map(SparkExpressionTransformHandler::column).toArray(Column[]::new);
+    Dataset<Row> lookup =
+        info.select(lookupColumns.toArray(new Column[0]))
+            .withColumn(
+                ROW_NUMBER_COLUMN,
+                row_number()
+                    .over(Window.partitionBy(keyColumns).orderBy(column(ORDER_COLUMN).desc())))
+            .where(column(ROW_NUMBER_COLUMN).equalTo(1))
+            .drop(ORDER_COLUMN, ROW_NUMBER_COLUMN);
+
+    Dataset<Row> output = input.join(broadcast(lookup), joinCondition, "left");
+    for (int i = 0; i < returnValues.size(); i++) {
+      ReturnValue returnValue = returnValues.get(i);
+      IValueMeta valueMeta = searchValueMeta(infoRowMeta, returnValue.getValue());
+      output =
+          output.withColumn(
+              returnValue.getValueName(),
+              when(
+                      column(MATCH_COLUMN).isNull(),
+                      literal(valueMeta, defaultValue(variables, returnValue, valueMeta)))
+                  .otherwise(column(TEMP_PREFIX + "value_" + i)));
+    }
+    return output;
+  }
+
+  private static TransformMeta infoTransformMeta(StreamLookupMeta meta) {
+    return meta.getTransformIOMeta().getInfoStreams().get(0).getTransformMeta();
+  }
+
+  private static IValueMeta searchValueMeta(IRowMeta rowMeta, String name) {
+    return Utils.isEmpty(name) ? null : rowMeta.searchValueMeta(name);
+  }
+
+  /**
+   * The value for rows without a match.
+   *
+   * @throws HopException when the default doesn't fit in the value field
+   */
+  private static Object defaultValue(
+      IVariables variables, ReturnValue returnValue, IValueMeta valueMeta) throws HopException {
+    return StreamLookupRules.fieldDefault(
+        variables.resolve(returnValue.getValueDefault()),
+        returnValue.getValueDefaultType(),
+        valueMeta);
+  }
+}
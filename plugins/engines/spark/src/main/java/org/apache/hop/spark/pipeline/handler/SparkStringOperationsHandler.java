@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.spark.pipeline.handler;
+
+import static org.apache.spark.sql.functions.length;
+import static org.apache.spark.sql.functions.lower;
+import static org.apache.spark.sql.functions.lpad;
+import static org.apache.spark.sql.functions.regexp_replace;
+import static org.apache.spark.sql.functions.rpad;
+import static org.apache.spark.sql.functions.translate;
+import static org.apache.spark.sql.functions.upper;
+import static org.apache.spark.sql.functions.when;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.UnaryOperator;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.util.Utils;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.metadata.api.IHopMetadataProvider;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transforms.stringoperations.StringOperationsMeta;
+import org.apache.hop.pipeline.transforms.stringoperations.StringOperationsMeta.StringOperation;
+import org.apache.spark.sql.Column;
+import org.apache.spark.sql.Dataset;
+import org.apache.spark.sql.Row;
+
+/**
+ * String Operations as string functions. Trimming, lower and upper case, padding with one
+ * character, digits and removing special characters are translated. Init cap and the XML, HTML and
+ * SQL masks run on the generic path.
+ */
+public class SparkStringOperationsHandler extends SparkExpressionTransformHandler {
+
+  /** Character.isWhitespace(), which Hop uses to trim */
+  private static final String WHITESPACE = "\\p{javaWhitespace}+";
+
+  @Override
+  protected boolean canTranslate(
+      IVariables variables,
+      PipelineMeta pipelineMeta,
+      TransformMeta transformMeta,
+      IHopMetadataProvider metadataProvider,
+      IRowMeta inputRowMeta)
+      throws HopException {
+    StringOperationsMeta meta = new StringOperationsMeta();
+    loadTransformMetadata(meta, transformMeta, metadataProvider, pipelineMeta);
+    for (StringOperation operation : meta.getOperations()) {
+      IValueMeta valueMeta = inputRowMeta.searchValueMeta(operation.getFieldInStream());
+      // The transform reads the value with getString(), which trims it as the field says
+      if (valueMeta == null
+          || !valueMeta.isString()
+          || valueMeta.getTrimType() != IValueMeta.TRIM_TYPE_NONE) {
+        return false;
+      }
+      if (operation.getInitCap() == StringOperationsMeta.InitCap.YES
+          || (operation.getMaskXml() != null
+              && operation.getMaskXml() != StringOperationsMeta.MaskXml.NONE)) {
+        return false;
+      }
+      // Spark pads with a repeated string in another way than Hop, single characters are the same
+      if (isPadding(operation) && operation.getPadChar().length() != 1) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  protected Dataset<Row> transform(
+      IVariables variables,
+      PipelineMeta pipelineMeta,
+      TransformMeta transformMeta,
+      IHopMetadataProvider metadataProvider,
+      Map<String, Dataset<Row>> transformDatasetMap,
+      IRowMeta inputRowMeta,
+      Dataset<Row> input)
+      throws HopException {
+    StringOperationsMeta meta = new StringOperationsMeta();
+    loadTransformMetadata(meta, transformMeta, metadataProvider, pipelineMeta);
+
+    // Every operation reads the input value, also when a previous one changed the field
+    Map<String, Column> changedFields = new HashMap<>();
+    List<Column> newFields = new ArrayList<>();
+    for (StringOperation operation : meta.getOperations()) {
+      IValueMeta valueMeta = inputRowMeta.searchValueMeta(operation.getFieldInStream());
+      Column value = toColumn(operation, column(valueMeta.getName()));
+      if (Utils.isEmpty(operation.getFieldOutStream())) {
+        changedFields.put(valueMeta.getName(), value);
+      } else {
+        newFields.add(value.as(variables.resolve(operation.getFieldOutStream())));
+      }
+    }
+
+    List<Column> columns = new ArrayList<>();
+    for (IValueMeta valueMeta : inputRowMeta.getValueMetaList()) {
+      Column changed = changedFields.get(valueMeta.getName());
+      columns.add(changed == null ? column(valueMeta.getName()) : changed.as(valueMeta.getName()));
+    }
+    columns.addAll(newFields);
+    return input.select(columns.toArray(new Column[0]));
+  }
+
+  /** Apply the operations in the order of {@code StringOperations.processString}. */
+  private static Column toColumn(StringOperation operation, Column value) {
+    value =
+        switch (Objects.requireNonNullElse(
+            operation.getTrimType(), StringOperationsMeta.TrimType.NONE)) {
+          case LEFT -> apply(value, v -> regexp_replace(v, "^" + WHITESPACE, ""));
+          case RIGHT -> apply(value, v -> regexp_replace(v, WHITESPACE + "$", ""));
+          case BOTH ->
+              apply(value, v -> regexp_replace(v, "^" + WHITESPACE + "|" + WHITESPACE + "$", ""));
+          case NONE -> value;
+        };
+    value =
+        switch (Objects.requireNonNullElse(
+            operation.getLowerUpper(), StringOperationsMeta.LowerUpper.NONE)) {
+          case LOWER -> apply(value, v -> lower(v));
+          case UPPER -> apply(value, v -> upper(v));
+          case NONE -> value;
+        };
+    if (isPadding(operation)) {
+      int padLen = Const.toInt(operation.getPadLen(), -1);
+      String padChar = operation.getPadChar();
+      // Hop doesn't cut values which are longer than the padding length
+      value =
+          switch (operation.getPaddingType()) {
+            case LEFT ->
+                apply(
+                    value, v -> when(length(v).geq(padLen), v).otherwise(lpad(v, padLen, padChar)));
+            case RIGHT ->
+                apply(
+                    value, v -> when(length(v).geq(padLen), v).otherwise(rpad(v, padLen, padChar)));
+            case NONE -> value;
+          };
+    }
+    value =
+        switch (Objects.requireNonNullElse(
+            operation.getDigits(), StringOperationsMeta.Digits.NONE)) {
+          case DIGITS_ONLY -> apply(value, v -> regexp_replace(v, "\\P{Nd}", ""));
+          case DIGITS_REMOVE -> apply(value, v -> regexp_replace(v, "\\p{Nd}", ""));
+          case NONE -> value;
+        };
+    value =
+        switch (Objects.requireNonNullElse(
+            operation.getRemoveSpecialChars(), StringOperationsMeta.RemoveSpecialChars.NONE)) {
+          case CR -> apply(value, v -> translate(v, "\r", ""));
+          case LF -> apply(value, v -> translate(v, "\n", ""));
+          case CRLF -> apply(value, v -> translate(v, "\r\n", ""));
+          case TAB -> apply(value, v -> translate(v, "\t", ""));
+          case SPACE -> apply(value, v -> translate(v, " ", ""));
+          case NONE -> value;
+        };
+    return value;
+  }
+
+  /** Like the transform, an operation leaves null and empty strings alone */
+  private static Column apply(Column value, UnaryOperator<Column> operation) {
+    return when(value.isNull().or(value.equalTo("")), value).otherwise(operation.apply(value));
+  }
+
+  /** True if the operation pads to a positive length with a non-empty filler */
+  private static boolean isPadding(StringOperation operation) {
+    return (operation.getPaddingType() == StringOperationsMeta.Padding.LEFT
+            || operation.getPaddingType() == StringOperationsMeta.Padding.RIGHT)
+        && Const.toInt(operation.getPadLen(), -1) > 0
+        && !Utils.isEmpty(operation.getPadChar());
+  }
+}
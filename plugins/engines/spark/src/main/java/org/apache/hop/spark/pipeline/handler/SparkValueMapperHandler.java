@@ -0,0 +1,217 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.spark.pipeline.handler;
+
+import static org.apache.spark.sql.functions.map;
+import static org.apache.spark.sql.functions.when;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.value.ValueMetaFactory;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.core.util.Utils;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.metadata.api.IHopMetadataProvider;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transforms.valuemapper.ValueMapperMeta;
+import org.apache.hop.pipeline.transforms.valuemapper.Values;
+import org.apache.spark.sql.Column;
+import org.apache.spark.sql.Dataset;
+import org.apache.spark.sql.Row;
+
+/**
+ * Value Mapper as a lookup in a literal map. The mapping is built on the driver the same way the
+ * transform builds it. Only String and Integer source fields are translated, their keys compare the
+ * same in Spark as in the HashMap of the transform.
+ */
+public class SparkValueMapperHandler extends SparkExpressionTransformHandler {
+
+  /** The mapping of a Value Mapper transform with the keys and values converted. */
+  private record Mapping(
+      IValueMeta targetValueMeta,
+      Map<Object, Object> values,
+      boolean emptyMappingDefined,
+      Object emptyValue,
+      boolean nonMatchActivated,
+      Object nonMatchDefault) {}
+
+  @Override
+  protected boolean canTranslate(
+      IVariables variables,
+      PipelineMeta pipelineMeta,
+      TransformMeta transformMeta,
+      IHopMetadataProvider metadataProvider,
+      IRowMeta inputRowMeta)
+      throws HopException {
+    ValueMapperMeta meta = new ValueMapperMeta();
+    loadTransformMetadata(meta, transformMeta, metadataProvider, pipelineMeta);
+    IValueMeta sourceValueMeta = sourceValueMeta(meta, inputRowMeta);
+    if (sourceValueMeta == null || (!sourceValueMeta.isString() && !sourceValueMeta.isInteger())) {
+      return false;
+    }
+    Mapping mapping;
+    try {
+      mapping = buildMapping(variables, meta, sourceValueMeta);
+    } catch (HopException e) {
+      return false;
+    }
+    switch (mapping.targetValueMeta().getType()) {
+      case IValueMeta.TYPE_STRING,
+          IValueMeta.TYPE_INTEGER,
+          IValueMeta.TYPE_NUMBER,
+          IValueMeta.TYPE_BIGNUMBER,
+          IValueMeta.TYPE_BOOLEAN,
+          IValueMeta.TYPE_DATE,
+          IValueMeta.TYPE_TIMESTAMP:
+        break;
+      default:
+        return false;
+    }
+    // The output field has to hold the mapped values and, when kept, the original values as is
+    IRowMeta outputRowMeta = pipelineMeta.getTransformFields(variables, transformMeta);
+    IValueMeta outputValueMeta = outputRowMeta.searchValueMeta(outputName(meta, sourceValueMeta));
+    return outputValueMeta != null
+        && outputValueMeta.getType() == mapping.targetValueMeta().getType()
+        && (!meta.isKeepOriginalValueOnNonMatch()
+            || outputValueMeta.getType() == sourceValueMeta.getType());
+  }
+
+  @Override
+  protected Dataset<Row> transform(
+      IVariables variables,
+      PipelineMeta pipelineMeta,
+      TransformMeta transformMeta,
+      IHopMetadataProvider metadataProvider,
+      Map<String, Dataset<Row>> transformDatasetMap,
+      IRowMeta inputRowMeta,
+      Dataset<Row> input)
+      throws HopException {
+    ValueMapperMeta meta = new ValueMapperMeta();
+    loadTransformMetadata(meta, transformMeta, metadataProvider, pipelineMeta);
+    IValueMeta sourceValueMeta = sourceValueMeta(meta, inputRowMeta);
+    Mapping mapping = buildMapping(variables, meta, sourceValueMeta);
+    IValueMeta targetValueMeta = mapping.targetValueMeta();
+
+    Column source = column(sourceValueMeta.getName());
+    Column typedNull = literal(targetValueMeta, null);
+    Column unmatched = meta.isKeepOriginalValueOnNonMatch() ? source : typedNull;
+    if (mapping.nonMatchActivated()) {
+      unmatched =
+          when(source.isNotNull(), literal(targetValueMeta, mapping.nonMatchDefault()))
+              .otherwise(unmatched);
+    }
+
+    Column mapped = unmatched;
+    if (!mapping.values().isEmpty()) {
+      List<Column> entries = new ArrayList<>();
+      List<Object> keys = new ArrayList<>();
+      for (Map.Entry<Object, Object> entry : mapping.values().entrySet()) {
+        entries.add(literal(sourceValueMeta, entry.getKey()));
+        entries.add(literal(targetValueMeta, entry.getValue()));
+        keys.add(entry.getKey());
+      }
+      mapped =
+          when(source.isin(keys.toArray()), map(entries.toArray(new Column[0])).getItem(source))
+              .otherwise(unmatched);
+    }
+    if (mapping.emptyMappingDefined()) {
+      mapped =
+          when(source.isNull(), literal(targetValueMeta, mapping.emptyValue())).otherwise(mapped);
+    }
+    return input.withColumn(outputName(meta, sourceValueMeta), mapped);
+  }
+
+  /** The source field with the normal storage type of the values in a Spark row */
+  private static IValueMeta sourceValueMeta(ValueMapperMeta meta, IRowMeta inputRowMeta) {
+    IValueMeta valueMeta = inputRowMeta.searchValueMeta(meta.getFieldToUse());
+    if (valueMeta == null) {
+      return null;
+    }
+    valueMeta = valueMeta.clone();
+    valueMeta.setStorageType(IValueMeta.STORAGE_TYPE_NORMAL);
+    return valueMeta;
+  }
+
+  private static String outputName(ValueMapperMeta meta, IValueMeta sourceValueMeta) {
+    return Utils.isEmpty(meta.getTargetField()) ? sourceValueMeta.getName() : meta.getTargetField();
+  }
+
+  /** Build the mapping like {@code ValueMapper.builMapValues}. */
+  private static Mapping buildMapping(
+      IVariables variables, ValueMapperMeta meta, IValueMeta sourceValueMeta) throws HopException {
+    String targetTypeName = meta.getTargetType();
+    int targetTypeId =
+        Utils.isEmpty(targetTypeName)
+            ? IValueMeta.TYPE_NONE
+            : ValueMetaFactory.getIdForValueMeta(targetTypeName);
+    if (targetTypeId == IValueMeta.TYPE_NONE) {
+      targetTypeName = "String";
+      targetTypeId = IValueMeta.TYPE_STRING;
+    }
+    IValueMeta targetValueMeta = ValueMetaFactory.createValueMeta(targetTypeName, targetTypeId);
+    IValueMeta stringValueMeta = new ValueMetaString("String");
+
+    boolean nonMatchActivated = false;
+    Object nonMatchDefault = null;
+    if (!meta.isKeepOriginalValueOnNonMatch() && !Utils.isEmpty(meta.getNonMatchDefault())) {
+      nonMatchActivated = true;
+      nonMatchDefault =
+          convert(targetValueMeta, stringValueMeta, variables.resolve(meta.getNonMatchDefault()));
+    }
+
+    Map<Object, Object> values = new LinkedHashMap<>();
+    boolean emptyMappingDefined = false;
+    Object emptyValue = null;
+    for (Values value : meta.getValues()) {
+      String target = variables.resolve(value.getTarget());
+      Object targetValue =
+          value.isEmptyStringEqualsNull() && Utils.isEmpty(target)
+              ? null
+              : convert(targetValueMeta, stringValueMeta, target);
+      Object sourceValue = convert(sourceValueMeta, stringValueMeta, value.getSource());
+      if (sourceValue != null) {
+        values.put(sourceValue, targetValue);
+      }
+      if (Utils.isEmpty(value.getSource())) {
+        if (emptyMappingDefined) {
+          throw new HopException("Only one empty mapping is allowed");
+        }
+        emptyMappingDefined = true;
+        emptyValue = targetValue;
+      }
+    }
+    return new Mapping(
+        targetValueMeta,
+        values,
+        emptyMappingDefined,
+        emptyValue,
+        nonMatchActivated,
+        nonMatchDefault);
+  }
+
+  private static Object convert(IValueMeta valueMeta, IValueMeta stringValueMeta, String value)
+      throws HopException {
+    return valueMeta.convertToNormalStorageType(valueMeta.convertData(stringValueMeta, value));
+  }
+}
@@ -38,6 +38,17 @@ public final class SparkConst {
   public static final String SORT_ROWS_PLUGIN_ID = "SortRows";
   public static final String GROUP_BY_PLUGIN_ID = "GroupBy";
 
+  /** Row-local transforms translated to Dataset expressions when their settings allow it. */
+  public static final String FILTER_ROWS_PLUGIN_ID = "FilterRows";
+
+  public static final String SELECT_VALUES_PLUGIN_ID = "SelectValues";
+  public static final String CALCULATOR_PLUGIN_ID = "Calculator";
+  public static final String CONSTANT_PLUGIN_ID = "Constant";
+  public static final String STRING_OPERATIONS_PLUGIN_ID = "StringOperations";
+  public static final String VALUE_MAPPER_PLUGIN_ID = "ValueMapper";
+  public static final String IF_NULL_PLUGIN_ID = "IfNull";
+  public static final String STREAM_LOOKUP_PLUGIN_ID = "StreamLookup";
+
   public static final String SPARK_FILE_INPUT_PLUGIN_ID = "SparkFileInput";
   public static final String SPARK_FILE_OUTPUT_PLUGIN_ID = "SparkFileOutput";
 
@@ -53,5 +64,17 @@ public final class SparkConst {
   /** Spark SQL over the Datasets of the incoming transforms — native Spark only. */
   public static final String SPARK_SQL_PLUGIN_ID = "SparkSql";
 
+  /**
+   * Set this variable to N to run every generic transform in its own mapPartitions call instead of
+   * fusing chains of row-local transforms.
+   */
+  public static final String VAR_FUSE_TRANSFORMS = "HOP_SPARK_FUSE_TRANSFORMS";
+
+  /**
+   * Set this variable to N to run Filter Rows, Select Values, Calculator and the other row-local
+   * transforms with a native expression handler in a Hop mini-pipeline instead.
+   */
+  public static final String VAR_NATIVE_EXPRESSIONS = "HOP_SPARK_NATIVE_EXPRESSIONS";
+
   private SparkConst() {}
 }
@@ -33,6 +33,8 @@ import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.plugins.EngineCompatibility;
 import org.apache.hop.core.plugins.EngineCompatibilityResolver;
 import org.apache.hop.core.plugins.IPlugin;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.core.variables.Variables;
 import org.apache.hop.pipeline.PipelineHopMeta;
 import org.apache.hop.pipeline.PipelineMeta;
 import org.apache.hop.pipeline.transform.TransformMeta;
@@ -153,6 +155,47 @@ class HopPipelineMetaToSparkConverterTest {
             SparkConst.SPARK_LAKE_TABLE_MAINTENANCE_PLUGIN_ID));
   }
 
+  @Test
+  void findFusedTransformsFollowsStraightLineOfRowLocalTransforms() {
+    PipelineMeta pm = new PipelineMeta();
+    TransformMeta input = addDummy(pm, "Input", "TableInput");
+    TransformMeta calc = addDummy(pm, "Calc", "Calculator");
+    TransformMeta select = addDummy(pm, "Select", "SelectValues");
+    TransformMeta sort = addDummy(pm, "Sort", SparkConst.SORT_ROWS_PLUGIN_ID);
+    TransformMeta strings = addDummy(pm, "Strings", "StringOperations");
+    pm.addPipelineHop(new PipelineHopMeta(input, calc));
+    pm.addPipelineHop(new PipelineHopMeta(calc, select));
+    pm.addPipelineHop(new PipelineHopMeta(select, sort));
+    pm.addPipelineHop(new PipelineHopMeta(sort, strings));
+
+    IVariables variables = new Variables();
+    assertEquals(
+        List.of(calc, select),
+        HopPipelineMetaToSparkConverter.findFusedTransforms(variables, pm, input, null));
+    assertTrue(
+        HopPipelineMetaToSparkConverter.findFusedTransforms(variables, pm, strings, null)
+            .isEmpty());
+
+    // A second hop out of the chain ends it before the branch
+    TransformMeta other = addDummy(pm, "Other", "Dummy");
+    pm.addPipelineHop(new PipelineHopMeta(calc, other));
+    pm.clearCaches();
+    assertEquals(
+        List.of(calc),
+        HopPipelineMetaToSparkConverter.findFusedTransforms(variables, pm, input, null));
+
+    variables.setVariable(SparkConst.VAR_FUSE_TRANSFORMS, "N");
+    assertTrue(
+        HopPipelineMetaToSparkConverter.findFusedTransforms(variables, pm, input, null).isEmpty());
+  }
+
+  private static TransformMeta addDummy(PipelineMeta pm, String name, String pluginId) {
+    TransformMeta transformMeta = new TransformMeta(name, new DummyMeta());
+    transformMeta.setTransformPluginId(pluginId);
+    pm.addTransform(transformMeta);
+    return transformMeta;
+  }
+
   /**
    * Every plugin id in {@link HopPipelineMetaToSparkConverter#HARD_BANNED_PLUGIN_IDS} must declare
    * Native Spark on {@code @Transform.excludedEngines} (value of {@link SparkConst#PLUGIN_ID}).
@@ -0,0 +1,566 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.spark.pipeline.handler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import org.apache.hop.core.Condition;
+import org.apache.hop.core.HopEnvironment;
+import org.apache.hop.core.logging.HopLogStore;
+import org.apache.hop.core.logging.LogChannel;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.ValueMetaAndData;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.core.variables.Variables;
+import org.apache.hop.metadata.serializer.memory.MemoryMetadataProvider;
+import org.apache.hop.pipeline.PipelineHopMeta;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.RowProducer;
+import org.apache.hop.pipeline.engines.local.LocalPipelineEngine;
+import org.apache.hop.pipeline.transform.RowAdapter;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transforms.calculator.CalculationType;
+import org.apache.hop.pipeline.transforms.calculator.CalculatorMeta;
+import org.apache.hop.pipeline.transforms.calculator.CalculatorMetaFunction;
+import org.apache.hop.pipeline.transforms.constant.ConstantField;
+import org.apache.hop.pipeline.transforms.constant.ConstantMeta;
+import org.apache.hop.pipeline.transforms.filterrows.FilterRowsMeta;
+import org.apache.hop.pipeline.transforms.ifnull.Field;
+import org.apache.hop.pipeline.transforms.ifnull.IfNullMeta;
+import org.apache.hop.pipeline.transforms.injector.InjectorMeta;
+import org.apache.hop.pipeline.transforms.selectvalues.SelectField;
+import org.apache.hop.pipeline.transforms.selectvalues.SelectValuesMeta;
+import org.apache.hop.pipeline.transforms.streamlookup.StreamLookupMeta;
+import org.apache.hop.pipeline.transforms.streamlookup.StreamLookupMeta.Lookup;
+import org.apache.hop.pipeline.transforms.streamlookup.StreamLookupMeta.MatchKey;
+import org.apache.hop.pipeline.transforms.streamlookup.StreamLookupMeta.ReturnValue;
+import org.apache.hop.pipeline.transforms.stringoperations.StringOperationsMeta;
+import org.apache.hop.pipeline.transforms.stringoperations.StringOperationsMeta.StringOperation;
+import org.apache.hop.pipeline.transforms.valuemapper.ValueMapperMeta;
+import org.apache.hop.pipeline.transforms.valuemapper.Values;
+import org.apache.hop.spark.engines.SparkPipelineRunConfiguration;
+import org.apache.hop.spark.util.SparkConst;
+import org.apache.spark.sql.Dataset;
+import org.apache.spark.sql.Row;
+import org.apache.spark.sql.RowFactory;
+import org.apache.spark.sql.SparkSession;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.types.StructField;
+import org.apache.spark.sql.types.StructType;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for transforms translated to Dataset expressions on a local Spark session. The results
+ * have to be the rows the Hop transform gives, including the null handling.
+ */
+class SparkExpressionHandlersTest {
+
+  private static SparkSession spark;
+
+  @BeforeAll
+  static void startSpark() throws Exception {
+    HopEnvironment.init();
+    HopLogStore.init();
+    spark =
+        SparkSession.builder()
+            .appName("hop-spark-expression-handlers-test")
+            .master("local[2]")
+            .config("spark.ui.enabled", "false")
+            .config("spark.ui.showConsoleProgress", "false")
+            .config("spark.metrics.staticSources.enabled", "false")
+            .config("spark.sql.shuffle.partitions", "4")
+            .config("spark.driver.host", "localhost")
+            .getOrCreate();
+  }
+
+  @AfterAll
+  static void stopSpark() {
+    if (spark != null) {
+      spark.stop();
+      spark = null;
+    }
+  }
+
+  /** A source transform with the fields of the test rows: code (String) and amount (Integer) */
+  private static TransformMeta source(String name) {
+    ConstantMeta meta = new ConstantMeta();
+    meta.getFields().add(new ConstantField("code", "String", null));
+    meta.getFields().add(new ConstantField("amount", "Integer", null));
+    TransformMeta transformMeta = new TransformMeta(name, meta);
+    transformMeta.setTransformPluginId(SparkConst.CONSTANT_PLUGIN_ID);
+    return transformMeta;
+  }
+
+  private static Dataset<Row> rows(Object[]... rows) {
+    StructType schema =
+        new StructType(
+            new StructField[] {
+              DataTypes.createStructField("code", DataTypes.StringType, true),
+              DataTypes.createStructField("amount", DataTypes.LongType, true)
+            });
+    return spark
+        .createDataFrame(Arrays.stream(rows).map(RowFactory::create).toList(), schema)
+        .repartition(2);
+  }
+
+  /** The rows in the order of the list, without a shuffle */
+  private static Dataset<Row> orderedRows(Object[]... rows) {
+    StructType schema =
+        new StructType(
+            new StructField[] {
+              DataTypes.createStructField("code", DataTypes.StringType, true),
+              DataTypes.createStructField("amount", DataTypes.LongType, true)
+            });
+    return spark.createDataFrame(Arrays.stream(rows).map(RowFactory::create).toList(), schema);
+  }
+
+  private static PipelineMeta pipeline(TransformMeta... transforms) {
+    PipelineMeta pipelineMeta = new PipelineMeta();
+    for (TransformMeta transformMeta : transforms) {
+      pipelineMeta.addTransform(transformMeta);
+    }
+    for (int i = 1; i < transforms.length; i++) {
+      pipelineMeta.addPipelineHop(new PipelineHopMeta(transforms[i - 1], transforms[i]));
+    }
+    return pipelineMeta;
+  }
+
+  private static Dataset<Row> handle(
+      SparkExpressionTransformHandler handler,
+      IVariables variables,
+      PipelineMeta pipelineMeta,
+      TransformMeta transformMeta,
+      Map<String, Dataset<Row>> map,
+      Dataset<Row> input)
+      throws Exception {
+    SparkPipelineRunConfiguration runConfiguration = new SparkPipelineRunConfiguration();
+    MemoryMetadataProvider metadataProvider = new MemoryMetadataProvider();
+    assertTrue(
+        handler.canHandle(
+            variables, runConfiguration, pipelineMeta, transformMeta, metadataProvider));
+    TransformMeta previous = pipelineMeta.findPreviousTransforms(transformMeta, false).get(0);
+    IRowMeta inputRowMeta =
+        pipelineMeta.getTransformFields(variables, previous, transformMeta, null);
+    handler.handleTransform(
+        LogChannel.GENERAL,
+        variables,
+        "spark",
+        runConfiguration,
+        metadataProvider,
+        "{}",
+        pipelineMeta,
+        transformMeta,
+        map,
+        spark,
+        inputRowMeta,
+        List.of(previous),
+        input);
+    return map.get(transformMeta.getName());
+  }
+
+  /**
+   * Run the transform of a test on the local Hop engine, after an Injector which gives it the test
+   * rows.
+   *
+   * @return The rows the Hop transform writes
+   */
+  private static List<Object[]> hopRows(TransformMeta transformMeta, Object[]... rows)
+      throws Exception {
+    TransformMeta injector = new TransformMeta("injector", new InjectorMeta());
+    TransformMeta transform =
+        new TransformMeta(
+            transformMeta.getTransformPluginId(),
+            transformMeta.getName(),
+            transformMeta.getTransform());
+    LocalPipelineEngine pipeline = new LocalPipelineEngine(pipeline(injector, transform));
+    pipeline.prepareExecution();
+    List<Object[]> output = Collections.synchronizedList(new ArrayList<>());
+    pipeline
+        .getTransform(transform.getName(), 0)
+        .addRowListener(
+            new RowAdapter() {
+              @Override
+              public void rowWrittenEvent(IRowMeta rowMeta, Object[] row) {
+                output.add(row);
+              }
+            });
+    RowProducer producer = pipeline.addRowProducer(injector.getName(), 0);
+    pipeline.startThreads();
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("code"));
+    rowMeta.addValueMeta(new ValueMetaInteger("amount"));
+    for (Object[] row : rows) {
+      producer.putRow(rowMeta, row.clone());
+    }
+    producer.finished();
+    pipeline.waitUntilFinished();
+    assertEquals(0, pipeline.getResult().getNrErrors());
+    return output;
+  }
+
+  /** Compare the rows in any order, the rows of Hop can have room for more values */
+  private static void assertSameRows(List<Object[]> hopRows, Dataset<Row> output) {
+    int size = output.columns().length;
+    List<String> expected =
+        hopRows.stream()
+            .map(row -> Arrays.asList(Arrays.copyOf(row, size)).toString())
+            .sorted()
+            .toList();
+    List<String> actual =
+        output.collectAsList().stream()
+            .map(row -> IntStream.range(0, size).mapToObj(row::get).toList().toString())
+            .sorted()
+            .toList();
+    assertEquals(expected, actual);
+  }
+
+  @Test
+  void filterRowsTreatsNullLikeHop() throws Exception {
+    FilterRowsMeta meta = new FilterRowsMeta();
+    meta.setCondition(
+        new Condition(
+            "amount",
+            Condition.Function.LARGER,
+            null,
+            new ValueMetaAndData(new ValueMetaInteger("constant"), 5L)));
+    TransformMeta filter = new TransformMeta("filter", meta);
+    filter.setTransformPluginId(SparkConst.FILTER_ROWS_PLUGIN_ID);
+    TransformMeta source = source("source");
+    PipelineMeta pipelineMeta = pipeline(source, filter);
+
+    Dataset<Row> output =
+        handle(
+            new SparkFilterRowsHandler(),
+            new Variables(),
+            pipelineMeta,
+            filter,
+            new HashMap<>(),
+            rows(
+                new Object[] {"a", 10L},
+                new Object[] {"b", 5L},
+                new Object[] {"c", null},
+                new Object[] {"d", 6L}));
+
+    List<String> codes =
+        output.orderBy("code").collectAsList().stream().map(row -> row.getString(0)).toList();
+    assertEquals(List.of("a", "d"), codes);
+  }
+
+  @Test
+  void calculatorAddsIntegers() throws Exception {
+    CalculatorMeta meta = new CalculatorMeta();
+    CalculatorMetaFunction function = new CalculatorMetaFunction();
+    function.setFieldName("doubled");
+    function.setCalcType(CalculationType.ADD);
+    function.setFieldA("amount");
+    function.setFieldB("amount");
+    function.setValueType("Integer");
+    meta.getFunctions().add(function);
+    TransformMeta calculator = new TransformMeta("calculator", meta);
+    calculator.setTransformPluginId(SparkConst.CALCULATOR_PLUGIN_ID);
+    TransformMeta source = source("source");
+    PipelineMeta pipelineMeta = pipeline(source, calculator);
+
+    Dataset<Row> output =
+        handle(
+            new SparkCalculatorHandler(),
+            new Variables(),
+            pipelineMeta,
+            calculator,
+            new HashMap<>(),
+            rows(new Object[] {"a", 21L}, new Object[] {"b", null}));
+
+    assertEquals(List.of("code", "amount", "doubled"), Arrays.asList(output.columns()));
+    List<Row> result = output.orderBy("code").collectAsList();
+    assertEquals(42L, result.get(0).getLong(2));
+    assertTrue(result.get(1).isNullAt(2));
+  }
+
+  @Test
+  void calculatorFallsBackForOtherCalculations() throws Exception {
+    CalculatorMeta meta = new CalculatorMeta();
+    CalculatorMetaFunction function = new CalculatorMetaFunction();
+    function.setFieldName("ratio");
+    function.setCalcType(CalculationType.DIVIDE);
+    function.setFieldA("amount");
+    function.setFieldB("amount");
+    function.setValueType("Integer");
+    meta.getFunctions().add(function);
+    TransformMeta calculator = new TransformMeta("calculator", meta);
+    calculator.setTransformPluginId(SparkConst.CALCULATOR_PLUGIN_ID);
+    PipelineMeta pipelineMeta = pipeline(source("source"), calculator);
+
+    assertFalse(
+        new SparkCalculatorHandler()
+            .canHandle(
+                new Variables(),
+                new SparkPipelineRunConfiguration(),
+                pipelineMeta,
+                calculator,
+                new MemoryMetadataProvider()));
+  }
+
+  @Test
+  void streamLookupJoinsWithDefault() throws Exception {
+    TransformMeta mainSource = source("main");
+    TransformMeta infoSource = source("info");
+
+    StreamLookupMeta meta = new StreamLookupMeta();
+    meta.setSourceTransformName("info");
+    Lookup lookup = new Lookup();
+    MatchKey matchKey = new MatchKey();
+    matchKey.setKeyStream("code");
+    matchKey.setKeyLookup("code");
+    lookup.getMatchKeys().add(matchKey);
+    ReturnValue returnValue = new ReturnValue();
+    returnValue.setValue("amount");
+    returnValue.setValueName("found");
+    returnValue.setValueDefault("-1");
+    returnValue.setValueDefaultType(IValueMeta.TYPE_INTEGER);
+    lookup.getReturnValues().add(returnValue);
+    meta.setLookup(lookup);
+    TransformMeta streamLookup = new TransformMeta("lookup", meta);
+    streamLookup.setTransformPluginId(SparkConst.STREAM_LOOKUP_PLUGIN_ID);
+
+    PipelineMeta pipelineMeta = pipeline(mainSource, streamLookup);
+    pipelineMeta.addTransform(infoSource);
+    pipelineMeta.addPipelineHop(new PipelineHopMeta(infoSource, streamLookup));
+    meta.searchInfoAndTargetTransforms(pipelineMeta.getTransforms());
+
+    Map<String, Dataset<Row>> map = new HashMap<>();
+    map.put("info", rows(new Object[] {"a", 100L}, new Object[] {null, 200L}));
+    Dataset<Row> output =
+        handle(
+            new SparkStreamLookupHandler(),
+            new Variables(),
+            pipelineMeta,
+            streamLookup,
+            map,
+            rows(new Object[] {"a", 1L}, new Object[] {"b", 2L}, new Object[] {null, 3L}));
+
+    assertEquals(List.of("code", "amount", "found"), Arrays.asList(output.columns()));
+    List<Row> result = output.orderBy("amount").collectAsList();
+    assertEquals(100L, result.get(0).getLong(2));
+    assertEquals(-1L, result.get(1).getLong(2));
+    // Hop matches null keys
+    assertNull(result.get(2).getString(0));
+    assertEquals(200L, result.get(2).getLong(2));
+  }
+
+  @Test
+  void selectValuesRenamesAndReordersLikeHop() throws Exception {
+    SelectValuesMeta meta = new SelectValuesMeta();
+    SelectField amount = new SelectField();
+    amount.setName("amount");
+    amount.setRename("total");
+    SelectField code = new SelectField();
+    code.setName("code");
+    meta.getSelectOption().getSelectFields().add(amount);
+    meta.getSelectOption().getSelectFields().add(code);
+    TransformMeta selectValues = new TransformMeta("select", meta);
+    selectValues.setTransformPluginId(SparkConst.SELECT_VALUES_PLUGIN_ID);
+    PipelineMeta pipelineMeta = pipeline(source("source"), selectValues);
+    Object[][] rows = {{"a", 1L}, {null, 2L}, {"c", null}};
+
+    Dataset<Row> output =
+        handle(
+            new SparkSelectValuesHandler(),
+            new Variables(),
+            pipelineMeta,
+            selectValues,
+            new HashMap<>(),
+            rows(rows));
+
+    assertEquals(List.of("total", "code"), Arrays.asList(output.columns()));
+    assertSameRows(hopRows(selectValues, rows), output);
+  }
+
+  @Test
+  void stringOperationsTrimCaseAndPadLikeHop() throws Exception {
+    StringOperationsMeta meta = new StringOperationsMeta();
+    StringOperation operation = new StringOperation();
+    operation.setFieldInStream("code");
+    operation.setFieldOutStream("padded");
+    operation.setTrimType(StringOperationsMeta.TrimType.BOTH);
+    operation.setLowerUpper(StringOperationsMeta.LowerUpper.UPPER);
+    operation.setPaddingType(StringOperationsMeta.Padding.LEFT);
+    operation.setPadLen("5");
+    operation.setPadChar("*");
+    meta.getOperations().add(operation);
+    TransformMeta stringOperations = new TransformMeta("strings", meta);
+    stringOperations.setTransformPluginId(SparkConst.STRING_OPERATIONS_PLUGIN_ID);
+    PipelineMeta pipelineMeta = pipeline(source("source"), stringOperations);
+    Object[][] rows = {{" ab ", 1L}, {"abcdefg", 2L}, {null, 3L}};
+
+    Dataset<Row> output =
+        handle(
+            new SparkStringOperationsHandler(),
+            new Variables(),
+            pipelineMeta,
+            stringOperations,
+            new HashMap<>(),
+            rows(rows));
+
+    assertEquals(List.of("code", "amount", "padded"), Arrays.asList(output.columns()));
+    assertSameRows(hopRows(stringOperations, rows), output);
+  }
+
+  @Test
+  void valueMapperMapsLikeHop() throws Exception {
+    ValueMapperMeta meta = new ValueMapperMeta();
+    meta.setFieldToUse("code");
+    meta.setTargetField("name");
+    meta.setNonMatchDefault("other");
+    meta.getValues().add(new Values("a", "Alpha"));
+    meta.getValues().add(new Values("b", "Beta"));
+    meta.getValues().add(new Values(null, "none"));
+    TransformMeta valueMapper = new TransformMeta("mapper", meta);
+    valueMapper.setTransformPluginId(SparkConst.VALUE_MAPPER_PLUGIN_ID);
+    PipelineMeta pipelineMeta = pipeline(source("source"), valueMapper);
+    Object[][] rows = {{"a", 1L}, {"b", 2L}, {"c", 3L}, {null, 4L}};
+
+    Dataset<Row> output =
+        handle(
+            new SparkValueMapperHandler(),
+            new Variables(),
+            pipelineMeta,
+            valueMapper,
+            new HashMap<>(),
+            rows(rows));
+
+    assertEquals(List.of("code", "amount", "name"), Arrays.asList(output.columns()));
+    assertSameRows(hopRows(valueMapper, rows), output);
+  }
+
+  @Test
+  void ifNullReplacesNullLikeHop() throws Exception {
+    IfNullMeta meta = new IfNullMeta();
+    meta.setSelectFields(true);
+    Field code = new Field();
+    code.setName("code");
+    code.setValue("unknown");
+    Field amount = new Field();
+    amount.setName("amount");
+    amount.setValue("0");
+    meta.getFields().add(code);
+    meta.getFields().add(amount);
+    TransformMeta ifNull = new TransformMeta("ifnull", meta);
+    ifNull.setTransformPluginId(SparkConst.IF_NULL_PLUGIN_ID);
+    PipelineMeta pipelineMeta = pipeline(source("source"), ifNull);
+    Object[][] rows = {{"a", 1L}, {null, null}, {"", 3L}};
+
+    Dataset<Row> output =
+        handle(
+            new SparkIfNullHandler(),
+            new Variables(),
+            pipelineMeta,
+            ifNull,
+            new HashMap<>(),
+            rows(rows));
+
+    assertEquals(List.of("code", "amount"), Arrays.asList(output.columns()));
+    assertSameRows(hopRows(ifNull, rows), output);
+  }
+
+  @Test
+  void constantAddsValuesLikeHop() throws Exception {
+    ConstantMeta meta = new ConstantMeta();
+    meta.getFields().add(new ConstantField("label", "String", "fixed"));
+    meta.getFields().add(new ConstantField("count", "Integer", "7"));
+    TransformMeta constant = new TransformMeta("constant", meta);
+    constant.setTransformPluginId(SparkConst.CONSTANT_PLUGIN_ID);
+    PipelineMeta pipelineMeta = pipeline(source("source"), constant);
+    Object[][] rows = {{"a", 1L}, {null, null}};
+
+    Dataset<Row> output =
+        handle(
+            new SparkConstantHandler(),
+            new Variables(),
+            pipelineMeta,
+            constant,
+            new HashMap<>(),
+            rows(rows));
+
+    assertEquals(List.of("code", "amount", "label", "count"), Arrays.asList(output.columns()));
+    assertSameRows(hopRows(constant, rows), output);
+  }
+
+  @Test
+  void streamLookupKeepsTheLastRowOfAKey() throws Exception {
+    TransformMeta mainSource = source("main");
+    TransformMeta infoSource = source("info");
+
+    StreamLookupMeta meta = new StreamLookupMeta();
+    meta.setSourceTransformName("info");
+    Lookup lookup = new Lookup();
+    MatchKey matchKey = new MatchKey();
+    matchKey.setKeyStream("code");
+    matchKey.setKeyLookup("code");
+    lookup.getMatchKeys().add(matchKey);
+    ReturnValue returnValue = new ReturnValue();
+    returnValue.setValue("amount");
+    returnValue.setValueName("found");
+    lookup.getReturnValues().add(returnValue);
+    meta.setLookup(lookup);
+    TransformMeta streamLookup = new TransformMeta("lookup", meta);
+    streamLookup.setTransformPluginId(SparkConst.STREAM_LOOKUP_PLUGIN_ID);
+
+    PipelineMeta pipelineMeta = pipeline(mainSource, streamLookup);
+    pipelineMeta.addTransform(infoSource);
+    pipelineMeta.addPipelineHop(new PipelineHopMeta(infoSource, streamLookup));
+    meta.searchInfoAndTargetTransforms(pipelineMeta.getTransforms());
+
+    // Like the hash table of the transform, a later row of a key replaces an earlier one
+    Map<String, Dataset<Row>> map = new HashMap<>();
+    map.put(
+        "info",
+        orderedRows(
+            new Object[] {"a", 100L},
+            new Object[] {"b", 200L},
+            new Object[] {"a", 150L},
+            new Object[] {"a", 175L}));
+    Dataset<Row> output =
+        handle(
+            new SparkStreamLookupHandler(),
+            new Variables(),
+            pipelineMeta,
+            streamLookup,
+            map,
+            rows(new Object[] {"a", 1L}, new Object[] {"b", 2L}));
+
+    List<Row> result = output.orderBy("amount").collectAsList();
+    assertEquals(175L, result.get(0).getLong(2));
+    assertEquals(200L, result.get(1).getLong(2));
+  }
+}
@@ -23,10 +23,8 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.List;
 import lombok.Getter;
 import lombok.Setter;
-import org.apache.arrow.vector.FieldVector;
 import org.apache.arrow.vector.VectorSchemaRoot;
 import org.apache.arrow.vector.ipc.ArrowFileReader;
 import org.apache.arrow.vector.ipc.ArrowFileWriter;
@@ -75,10 +73,7 @@ public class ArrowFileDataStream extends ArrowBaseDataStream {
 
   private ArrowFileWriter arrowFileWriter;
   private ArrowFileReader arrowFileReader;
-  private VectorSchemaRoot readRootSchema;
   private Schema readSchema;
-  private int readRowIndex;
-  private List<FieldVector> readFieldVectors;
   private int batchReads;
 
   public ArrowFileDataStream() {
@@ -224,8 +219,8 @@ public class ArrowFileDataStream extends ArrowBaseDataStream {
 
     fileInputStream = new FileInputStream(realFilename);
     arrowFileReader = new ArrowFileReader(fileInputStream.getChannel(), rootAllocator);
-    readRootSchema = arrowFileReader.getVectorSchemaRoot();
-    readSchema = readRootSchema.getSchema();
+    readRoot = arrowFileReader.getVectorSchemaRoot();
+    readSchema = readRoot.getSchema();
 
     this.rowMeta = buildRowMeta(readSchema);
   }
@@ -238,19 +233,16 @@ public class ArrowFileDataStream extends ArrowBaseDataStream {
     }
   }
 
-  private void emptyBuffer() throws HopException {
+  @Override
+  protected void emptyBuffer() throws HopException {
     try {
-      vectorSchemaRoot.setRowCount(rowBuffer.size());
-
       // Set the data in the field vectors for the rows in the buffer
       //
-      for (int rowIndex = 0; rowIndex < rowBuffer.size(); rowIndex++) {
-        convertHopRowToFieldVectorIndex(
-            vectorSchemaRoot, rowMeta, rowIndex, rowBuffer.get(rowIndex));
-      }
+      convertHopRowsToFieldVectors(vectorSchemaRoot, rowMeta, rowBuffer);
+
       // With values set on all field vectors, we can now write the batch.
       //
-      arrowFileWriter.writeBatch();
+      writeVectorSchemaRoot();
     } catch (Exception e) {
       throw new HopException(
           "Error writing row to Arrow random access file data stream" + filename, e);
@@ -261,43 +253,16 @@ public class ArrowFileDataStream extends ArrowBaseDataStream {
   }
 
   @Override
-  public Object[] readRow() throws HopException {
-    if (writing) {
-      throw new HopException("When writing data you can't read rows from the same data stream.");
-    }
-
-    try {
-      // See if there are more rows to populate.
-      //
-      int schemaBatchSize = readRootSchema.getRowCount();
-
-      // If needed, read another batch
-      //
-      if (readRowIndex < schemaBatchSize || readNextBatch()) {
-        return convertFieldVectorsToHopRow(readFieldVectors, rowMeta, readRowIndex++);
-      } else {
-        // No more data to be expected
-        return null;
-      }
-    } catch (Exception e) {
-      throw new HopException(
-          "Error while reading a batch of rows from an Arrow random access file data stream", e);
-    }
+  protected void writeVectorSchemaRoot() throws IOException {
+    arrowFileWriter.writeBatch();
   }
 
+  @Override
   protected boolean readNextBatch() throws IOException {
     boolean readNext = arrowFileReader.loadNextBatch();
     batchReads++;
-    readRootSchema = arrowFileReader.getVectorSchemaRoot();
-
-    // This loop is for the rare cases where the batches contain 0 rows each.
-    //
-    while (readRootSchema.getRowCount() == 0 && readNext) {
-      readNext = arrowFileReader.loadNextBatch();
-      batchReads++;
-      readRootSchema = arrowFileReader.getVectorSchemaRoot();
-    }
-    readFieldVectors = readRootSchema.getFieldVectors();
+    readRoot = arrowFileReader.getVectorSchemaRoot();
+    readFieldVectors = readRoot.getFieldVectors();
     readRowIndex = 0;
 
     return readNext;
@@ -19,7 +19,6 @@
 package org.apache.hop.arrow.datastream.flight;
 
 import java.util.ArrayList;
-import java.util.List;
 import lombok.Getter;
 import lombok.Setter;
 import org.apache.arrow.flight.AsyncPutListener;
@@ -29,7 +28,6 @@ import org.apache.arrow.flight.FlightDescriptor;
 import org.apache.arrow.flight.FlightInfo;
 import org.apache.arrow.flight.FlightStream;
 import org.apache.arrow.flight.Location;
-import org.apache.arrow.vector.FieldVector;
 import org.apache.arrow.vector.VectorSchemaRoot;
 import org.apache.arrow.vector.types.pojo.Schema;
 import org.apache.hop.arrow.datastream.shared.ArrowBaseDataStream;
@@ -114,11 +112,7 @@ public class ArrowFlightDataStream extends ArrowBaseDataStream {
   private ClientStreamListener clientStreamListener;
   private FlightInfo readFlightInfo;
   private FlightStream readFlightStream;
-  private VectorSchemaRoot readVectorSchemaRoot;
   private Schema readSchema;
-  private int readRowIndex;
-  private List<FieldVector> readFieldVectors;
-  private boolean firstRead;
 
   public ArrowFlightDataStream() {
     DataStreamPlugin annotation = getClass().getAnnotation(DataStreamPlugin.class);
@@ -165,7 +159,6 @@ public class ArrowFlightDataStream extends ArrowBaseDataStream {
     }
     realHostname = variables.resolve(hostname);
     realPort = Const.toInt(variables.resolve(port), 33333);
-    firstRead = true;
   }
 
   @Override
@@ -209,8 +202,8 @@ public class ArrowFlightDataStream extends ArrowBaseDataStream {
 
   @Override
   public void close() {
-    if (readVectorSchemaRoot != null) {
-      readVectorSchemaRoot.close();
+    if (readRoot != null) {
+      readRoot.close();
     }
     if (vectorSchemaRoot != null) {
       vectorSchemaRoot.close();
@@ -243,19 +236,16 @@ public class ArrowFlightDataStream extends ArrowBaseDataStream {
     }
   }
 
-  private void emptyBuffer() throws HopException {
+  @Override
+  protected void emptyBuffer() throws HopException {
     try {
-      vectorSchemaRoot.setRowCount(rowBuffer.size());
-
       // Set the data in the field vectors for the rows in the buffer
       //
-      for (int rowIndex = 0; rowIndex < rowBuffer.size(); rowIndex++) {
-        convertHopRowToFieldVectorIndex(
-            vectorSchemaRoot, rowMeta, rowIndex, rowBuffer.get(rowIndex));
-      }
+      convertHopRowsToFieldVectors(vectorSchemaRoot, rowMeta, rowBuffer);
+
       // With values set on all field vectors, we can now write the batch.
       //
-      clientStreamListener.putNext();
+      writeVectorSchemaRoot();
     } catch (Exception e) {
       throw new HopException("Error writing row to Apache Arrow Flight server", e);
     } finally {
@@ -302,54 +292,21 @@ public class ArrowFlightDataStream extends ArrowBaseDataStream {
           "No endpoint tickets found in flight server matching " + dataStreamMeta.getName());
     }
     readFlightStream = flightClient.getStream(readFlightInfo.getEndpoints().get(0).getTicket());
-    readVectorSchemaRoot = readFlightStream.getRoot();
-    readSchema = readVectorSchemaRoot.getSchema();
+    readRoot = readFlightStream.getRoot();
+    readSchema = readRoot.getSchema();
     this.rowMeta = buildRowMeta(readSchema);
   }
 
   @Override
-  public Object[] readRow() throws HopException {
-    if (writing) {
-      throw new HopException("When writing data you can't read rows from the same data stream.");
-    }
-    try {
-      if (firstRead) {
-        firstRead = false;
-        // Read a first batch
-        if (!readNextBatch()) {
-          return null;
-        }
-      }
-
-      // See if there are more rows to populate.
-      //
-      int schemaBatchSize = readVectorSchemaRoot.getRowCount();
-
-      // If needed, read another batch
-      //
-      if (readRowIndex < schemaBatchSize || readNextBatch()) {
-        return convertFieldVectorsToHopRow(readFieldVectors, rowMeta, readRowIndex++);
-      } else {
-        // No more data to be expected
-        return null;
-      }
-    } catch (Exception e) {
-      throw new HopException(
-          "Error while reading a batch of rows from an Apache Arrow Flight stream", e);
-    }
+  protected void writeVectorSchemaRoot() {
+    clientStreamListener.putNext();
   }
 
+  @Override
   protected boolean readNextBatch() {
     boolean readNext = readFlightStream.next();
-    readVectorSchemaRoot = readFlightStream.getRoot();
-
-    // This loop is for the rare cases where the batches contain 0 rows each.
-    //
-    while (readVectorSchemaRoot.getRowCount() == 0 && readNext) {
-      readNext = readFlightStream.next();
-      readVectorSchemaRoot = readFlightStream.getRoot();
-    }
-    readFieldVectors = readVectorSchemaRoot.getFieldVectors();
+    readRoot = readFlightStream.getRoot();
+    readFieldVectors = readRoot.getFieldVectors();
     readRowIndex = 0;
 
     return readNext;
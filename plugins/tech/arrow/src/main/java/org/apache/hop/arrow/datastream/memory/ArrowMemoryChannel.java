@@ -0,0 +1,297 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.hop.arrow.datastream.memory;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BooleanSupplier;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+/**
+ * Hands over batches of Apache Arrow vectors from a writing pipeline to a reading pipeline in the
+ * same JVM. The buffers of the batches are moved to the allocator of the channel, the data is never
+ * copied or serialized.
+ *
+ * <p>A channel connects one writer with one reader of a data stream. Both attach to the channel and
+ * the channel and its allocator are released once both are closed. A writer which finishes before
+ * the reader attached keeps the channel around for a while so the reader can still pick up the
+ * batches, after that the channel is released. A writer or reader attaching to a channel which
+ * already has one starts a new channel for the data stream.
+ */
+public class ArrowMemoryChannel {
+
+  /** All channels share this allocator so that buffers can move between them without copies */
+  private static final BufferAllocator ROOT_ALLOCATOR = new RootAllocator();
+
+  /** The channels by data stream name, also the lock for attaching to and releasing channels */
+  private static final Map<String, ArrowMemoryChannel> CHANNELS = new HashMap<>();
+
+  /** Marks the end of the batches in the queue */
+  private static final VectorSchemaRoot END =
+      new VectorSchemaRoot(Collections.<FieldVector>emptyList());
+
+  /** Tells the reader that the writer failed or was stopped before it wrote all batches */
+  private static final VectorSchemaRoot ERROR =
+      new VectorSchemaRoot(Collections.<FieldVector>emptyList());
+
+  /** How often a writer waiting for room in the queue checks if the reader or writer stopped */
+  private static final long PUT_WAIT_MS = 100L;
+
+  private final String name;
+  private final BufferAllocator allocator;
+  private final BlockingQueue<VectorSchemaRoot> batches;
+  private final CompletableFuture<Schema> schema;
+
+  /** The number of attached writers and readers which weren't released yet */
+  private int references;
+
+  private boolean writerAttached;
+  private boolean readerAttached;
+  private volatile boolean readerClosed;
+
+  private ArrowMemoryChannel(String name, int capacity) {
+    this.name = name;
+    this.allocator = ROOT_ALLOCATOR.newChildAllocator("channel-" + name, 0, Long.MAX_VALUE);
+    this.batches = new ArrayBlockingQueue<>(capacity);
+    this.schema = new CompletableFuture<>();
+  }
+
+  /**
+   * Attach a writer or reader to the channel of a data stream. The first one creates the channel.
+   * Every attached writer or reader needs to close its end of the channel.
+   *
+   * @param name The name of the data stream
+   * @param capacity The number of batches which can wait to be read
+   * @param writer true to attach the writer, false to attach the reader
+   * @return The channel
+   */
+  public static ArrowMemoryChannel attach(String name, int capacity, boolean writer) {
+    synchronized (CHANNELS) {
+      ArrowMemoryChannel channel = CHANNELS.get(name);
+      if (channel == null
+          || channel.readerClosed
+          || (writer ? channel.writerAttached : channel.readerAttached)) {
+        // The previous channel stays with the writer and reader which are attached to it
+        //
+        channel = new ArrowMemoryChannel(name, Math.max(1, capacity));
+        CHANNELS.put(name, channel);
+      }
+      channel.references++;
+      if (writer) {
+        channel.writerAttached = true;
+      } else {
+        channel.readerAttached = true;
+      }
+      return channel;
+    }
+  }
+
+  /**
+   * @param name The name of a data stream
+   * @return true if a channel exists for the data stream
+   */
+  static boolean exists(String name) {
+    synchronized (CHANNELS) {
+      return CHANNELS.containsKey(name);
+    }
+  }
+
+  /**
+   * @param name The name of the writer or reader
+   * @return A new allocator sharing the root of the channels
+   */
+  public static BufferAllocator newAllocator(String name) {
+    return ROOT_ALLOCATOR.newChildAllocator(name, 0, Long.MAX_VALUE);
+  }
+
+  /**
+   * @return true if the reader stopped reading from this channel
+   */
+  public boolean isReaderClosed() {
+    return readerClosed;
+  }
+
+  /**
+   * @return The allocator which owns the batches in this channel
+   */
+  public BufferAllocator getAllocator() {
+    return allocator;
+  }
+
+  /**
+   * Called by the writer before the first batch.
+   *
+   * @param schema The schema of the batches
+   */
+  public void open(Schema schema) {
+    this.schema.complete(schema);
+  }
+
+  /**
+   * Wait until the writer has opened the channel.
+   *
+   * @param timeoutMs The maximum time to wait in milliseconds
+   * @return The schema of the batches
+   * @throws InterruptedException In case the wait was interrupted
+   * @throws ExecutionException In case the schema wasn't set correctly
+   * @throws TimeoutException In case no writer opened the channel in time
+   */
+  public Schema waitForSchema(long timeoutMs)
+      throws InterruptedException, ExecutionException, TimeoutException {
+    return schema.get(timeoutMs, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Hand over a batch allocated by the allocator of this channel. This blocks while the maximum
+   * number of batches is waiting to be read.
+   *
+   * @param batch The batch, owned by the reader from now on
+   * @param stopped Returns true once the writer was stopped
+   * @throws InterruptedException In case the wait was interrupted
+   * @throws IllegalStateException In case the reader was closed or the writer was stopped, the
+   *     batch is released
+   */
+  public void put(VectorSchemaRoot batch, BooleanSupplier stopped) throws InterruptedException {
+    if (offer(batch, stopped)) {
+      return;
+    }
+    batch.close();
+    if (readerClosed) {
+      throw new IllegalStateException(
+          "The reader of in-memory data stream " + name + " was closed");
+    }
+    throw new IllegalStateException("The writer of in-memory data stream " + name + " was stopped");
+  }
+
+  /**
+   * Let the reader know there are no more batches.
+   *
+   * @param stopped Returns true once the writer was stopped
+   * @return false if the reader was closed or the writer was stopped before the end was handed over
+   * @throws InterruptedException In case the wait was interrupted
+   */
+  public boolean end(BooleanSupplier stopped) throws InterruptedException {
+    return offer(END, stopped);
+  }
+
+  /**
+   * Let the reader know the writer failed or was stopped before it wrote all batches. The batches
+   * which weren't read yet are released, the reader gets an error instead of the end of the
+   * batches.
+   */
+  public void abort() {
+    schema.completeExceptionally(
+        new IllegalStateException(
+            "The writer of in-memory data stream " + name + " stopped before writing any rows"));
+    if (readerClosed) {
+      return;
+    }
+    // Only the writer puts batches in the queue, after this there is room for the marker
+    //
+    releaseBatches();
+    batches.offer(ERROR);
+  }
+
+  /** Wait for room in the queue as long as the reader is open and the writer isn't stopped */
+  private boolean offer(VectorSchemaRoot batch, BooleanSupplier stopped)
+      throws InterruptedException {
+    while (!readerClosed && !stopped.getAsBoolean()) {
+      if (batches.offer(batch, PUT_WAIT_MS, TimeUnit.MILLISECONDS)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Wait for the next batch. The reader needs to close the batch when it's done with it.
+   *
+   * @return The next batch or null if there are no more batches.
+   * @throws InterruptedException In case the wait was interrupted
+   * @throws IllegalStateException In case the writer failed or was stopped before the end
+   */
+  public VectorSchemaRoot take() throws InterruptedException {
+    VectorSchemaRoot batch = batches.take();
+    if (batch == ERROR) {
+      // Every following read fails as well
+      //
+      batches.offer(ERROR);
+      throw new IllegalStateException(
+          "The writer of in-memory data stream "
+              + name
+              + " failed or was stopped before it wrote all rows");
+    }
+    return batch == END ? null : batch;
+  }
+
+  /**
+   * Close the writer end of the channel. If no reader attached yet the channel is kept for the
+   * given time so a reader can still read the batches.
+   *
+   * @param keepMs The time in milliseconds to wait for a reader
+   */
+  public void closeWriter(long keepMs) {
+    boolean waitForReader;
+    synchronized (CHANNELS) {
+      waitForReader = !readerAttached;
+    }
+    if (waitForReader) {
+      CompletableFuture.delayedExecutor(keepMs, TimeUnit.MILLISECONDS).execute(this::release);
+    } else {
+      release();
+    }
+  }
+
+  /** Close the reader end of the channel and release the batches which weren't read. */
+  public void closeReader() {
+    readerClosed = true;
+    releaseBatches();
+    release();
+  }
+
+  /** Release the channel and its allocator once the writer and the reader are both closed. */
+  private void release() {
+    synchronized (CHANNELS) {
+      if (--references > 0) {
+        return;
+      }
+      CHANNELS.remove(name, this);
+    }
+    releaseBatches();
+    allocator.close();
+  }
+
+  private void releaseBatches() {
+    VectorSchemaRoot batch = batches.poll();
+    while (batch != null) {
+      batch.close();
+      batch = batches.poll();
+    }
+  }
+}
@@ -0,0 +1,279 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.hop.arrow.datastream.memory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.apache.arrow.vector.util.TransferPair;
+import org.apache.hop.arrow.datastream.shared.ArrowBaseDataStream;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.gui.plugin.GuiElementType;
+import org.apache.hop.core.gui.plugin.GuiPlugin;
+import org.apache.hop.core.gui.plugin.GuiWidgetElement;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.datastream.metadata.DataStreamMeta;
+import org.apache.hop.datastream.plugin.DataStreamPlugin;
+import org.apache.hop.metadata.api.HopMetadataProperty;
+import org.apache.hop.metadata.api.IHopMetadataProvider;
+
+@GuiPlugin
+@DataStreamPlugin(
+    id = "ArrowMemoryStream",
+    name = "Apache Arrow in-memory stream",
+    description =
+        "Hand over batches of Apache Arrow vectors to a pipeline running in the same JVM, without"
+            + " serialization")
+@Getter
+@Setter
+public class ArrowMemoryDataStream extends ArrowBaseDataStream {
+  public static final int MAX_WAIT_FOR_WRITER_MS = 60000;
+
+  /** How long the batches of a writer which finished before a reader started are kept */
+  public static final int MAX_WAIT_FOR_READER_MS = 60000;
+
+  @GuiWidgetElement(
+      order = "20000-arrow-memory-data-stream-batch-size",
+      parentId = DataStreamMeta.GUI_WIDGETS_PARENT_ID,
+      type = GuiElementType.TEXT,
+      label = "i18n::ArrowMemoryDataStream.BatchSize.Label",
+      toolTip = "i18n::ArrowMemoryDataStream.BatchSize.Tooltip")
+  @HopMetadataProperty
+  protected String batchSize;
+
+  @GuiWidgetElement(
+      order = "20100-arrow-memory-data-stream-batches-in-flight",
+      parentId = DataStreamMeta.GUI_WIDGETS_PARENT_ID,
+      type = GuiElementType.TEXT,
+      label = "i18n::ArrowMemoryDataStream.BatchesInFlight.Label",
+      toolTip = "i18n::ArrowMemoryDataStream.BatchesInFlight.Tooltip")
+  @HopMetadataProperty
+  protected String batchesInFlight;
+
+  protected int realBatchSize;
+  protected int realBatchesInFlight;
+
+  private ArrowMemoryChannel channel;
+  private boolean ended;
+
+  public ArrowMemoryDataStream() {
+    DataStreamPlugin annotation = getClass().getAnnotation(DataStreamPlugin.class);
+    this.pluginId = annotation.id();
+    this.pluginName = annotation.name();
+    rowBuffer = new ArrayList<>();
+    batchSize = "10000";
+    batchesInFlight = "4";
+  }
+
+  @SuppressWarnings("CopyConstructorMissesField")
+  public ArrowMemoryDataStream(ArrowMemoryDataStream s) {
+    this();
+    this.batchSize = s.batchSize;
+    this.batchesInFlight = s.batchesInFlight;
+  }
+
+  @Override
+  public ArrowMemoryDataStream clone() {
+    return new ArrowMemoryDataStream(this);
+  }
+
+  @Override
+  public void initialize(
+      IVariables variables,
+      IHopMetadataProvider metadataProvider,
+      boolean writing,
+      DataStreamMeta dataStreamMeta)
+      throws HopException {
+    super.initialize(variables, metadataProvider, writing, dataStreamMeta);
+    realBatchSize = Const.toInt(variables.resolve(batchSize), 10000);
+    realBatchesInFlight = Const.toInt(variables.resolve(batchesInFlight), 4);
+    channel = ArrowMemoryChannel.attach(dataStreamMeta.getName(), realBatchesInFlight, writing);
+    ended = false;
+  }
+
+  /** The vectors need to share the root allocator of the channel to hand over their buffers */
+  @Override
+  protected BufferAllocator createAllocator() {
+    return ArrowMemoryChannel.newAllocator(
+        (writing ? "writer-" : "reader-") + dataStreamMeta.getName());
+  }
+
+  @Override
+  public void setRowMeta(IRowMeta rowMeta) throws HopException {
+    if (!writing) {
+      return;
+    }
+    this.rowMeta = rowMeta;
+
+    Schema writeSchema = buildSchema(rowMeta);
+    vectorSchemaRoot = VectorSchemaRoot.create(writeSchema, rootAllocator);
+    channel.open(writeSchema);
+  }
+
+  @Override
+  public IRowMeta getRowMeta() throws HopException {
+    if (writing) {
+      return rowMeta;
+    }
+    try {
+      this.rowMeta = buildRowMeta(channel.waitForSchema(MAX_WAIT_FOR_WRITER_MS));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new HopException("Interrupted while waiting for a writer on data stream", e);
+    } catch (ExecutionException e) {
+      throw new HopException(
+          "Error reading the row metadata of in-memory data stream " + dataStreamMeta.getName(),
+          e.getCause());
+    } catch (Exception e) {
+      throw new HopException(
+          "No rows were written to in-memory data stream "
+              + dataStreamMeta.getName()
+              + " within "
+              + (MAX_WAIT_FOR_WRITER_MS / 1000)
+              + " seconds",
+          e);
+    }
+    return this.rowMeta;
+  }
+
+  @Override
+  public void writeRow(Object[] rowData) throws HopException {
+    rowBuffer.add(rowData);
+    if (rowBuffer.size() >= realBatchSize) {
+      emptyBuffer();
+    }
+  }
+
+  @Override
+  protected void emptyBuffer() throws HopException {
+    try {
+      // The previous vectors were handed over, allocate new ones for the rows in the buffer
+      //
+      allocateFieldVectorsSpace(vectorSchemaRoot, rowMeta, rowBuffer.size());
+      convertHopRowsToFieldVectors(vectorSchemaRoot, rowMeta, rowBuffer);
+      writeVectorSchemaRoot();
+    } catch (HopException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new HopException(
+          "Error writing rows to in-memory data stream " + dataStreamMeta.getName(), e);
+    } finally {
+      rowBuffer.clear();
+    }
+  }
+
+  /** Move the buffers of the vectors to a new batch owned by the channel and hand it over */
+  @Override
+  protected void writeVectorSchemaRoot() throws InterruptedException {
+    if (channel.isReaderClosed()) {
+      throw new IllegalStateException(
+          "The reader of in-memory data stream " + dataStreamMeta.getName() + " was closed");
+    }
+    List<FieldVector> vectors = new ArrayList<>();
+    for (FieldVector vector : vectorSchemaRoot.getFieldVectors()) {
+      TransferPair transferPair = vector.getTransferPair(channel.getAllocator());
+      transferPair.transfer();
+      vectors.add((FieldVector) transferPair.getTo());
+    }
+    VectorSchemaRoot batch =
+        new VectorSchemaRoot(
+            vectorSchemaRoot.getSchema().getFields(), vectors, vectorSchemaRoot.getRowCount());
+    try {
+      channel.put(batch, stopCheck);
+    } catch (InterruptedException e) {
+      batch.close();
+      Thread.currentThread().interrupt();
+      throw e;
+    }
+  }
+
+  @Override
+  public void setOutputDone() throws HopException {
+    if (!rowBuffer.isEmpty()) {
+      emptyBuffer();
+    }
+    endChannel();
+  }
+
+  private void endChannel() throws HopException {
+    if (ended) {
+      return;
+    }
+    try {
+      ended = channel.end(stopCheck);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new HopException("Interrupted while ending in-memory data stream", e);
+    }
+  }
+
+  /** Release the batch which was read, the channel now hands ownership of the next one */
+  @Override
+  protected boolean readNextBatch() throws InterruptedException {
+    if (readRoot != null) {
+      readRoot.close();
+      readRoot = null;
+    }
+    readRowIndex = 0;
+    VectorSchemaRoot batch = channel.take();
+    if (batch == null) {
+      return false;
+    }
+    readRoot = batch;
+    readFieldVectors = batch.getFieldVectors();
+    return true;
+  }
+
+  @Override
+  public void close() throws HopException {
+    if (writing) {
+      // Only setOutputDone() ends the batches, a writer closed before that failed or was stopped
+      //
+      if (channel != null && !ended) {
+        channel.abort();
+      }
+      if (vectorSchemaRoot != null) {
+        vectorSchemaRoot.close();
+      }
+      if (channel != null) {
+        channel.closeWriter(MAX_WAIT_FOR_READER_MS);
+        channel = null;
+      }
+    } else {
+      if (readRoot != null) {
+        readRoot.close();
+        readRoot = null;
+      }
+      if (channel != null) {
+        channel.closeReader();
+        channel = null;
+      }
+    }
+    if (rootAllocator != null) {
+      rootAllocator.close();
+    }
+  }
+}
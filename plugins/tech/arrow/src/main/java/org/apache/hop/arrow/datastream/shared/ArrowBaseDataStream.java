@@ -24,6 +24,7 @@ import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.function.BooleanSupplier;
 import lombok.Getter;
 import lombok.Setter;
 import org.apache.arrow.memory.BufferAllocator;
@@ -37,7 +38,10 @@ import org.apache.arrow.vector.FloatingPointVector;
 import org.apache.arrow.vector.TimeStampMilliTZVector;
 import org.apache.arrow.vector.TimeStampVector;
 import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorLoader;
 import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.VectorUnloader;
+import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
 import org.apache.arrow.vector.types.FloatingPointPrecision;
 import org.apache.arrow.vector.types.TimeUnit;
 import org.apache.arrow.vector.types.pojo.ArrowType;
@@ -74,10 +78,20 @@ public abstract class ArrowBaseDataStream implements IDataStream {
   protected IRowMeta rowMeta;
   protected List<Object[]> rowBuffer;
 
+  /** Returns true once the transform using this data stream was stopped */
+  protected BooleanSupplier stopCheck = () -> false;
+
   protected FileOutputStream fileOutputStream;
   protected FileInputStream fileInputStream;
   protected DataStreamMeta dataStreamMeta;
 
+  /** The batch being read, set by {@link #readNextBatch()} */
+  protected VectorSchemaRoot readRoot;
+
+  protected List<FieldVector> readFieldVectors;
+  protected int readRowIndex;
+  protected boolean readDone;
+
   protected ArrowBaseDataStream() {
     // Empty
   }
@@ -97,7 +111,14 @@ public abstract class ArrowBaseDataStream implements IDataStream {
     this.dataStreamMeta = dataStreamMeta;
 
     rowBuffer = new ArrayList<>();
-    rootAllocator = new RootAllocator();
+    rootAllocator = createAllocator();
+  }
+
+  /**
+   * @return The allocator for the vectors of this data stream
+   */
+  protected BufferAllocator createAllocator() {
+    return new RootAllocator();
   }
 
   public IRowMeta getRowMeta() throws HopException {
@@ -109,6 +130,152 @@ public abstract class ArrowBaseDataStream implements IDataStream {
     // To be implemented
   }
 
+  /**
+   * Write the vectors of {@link #vectorSchemaRoot} to the data stream as a batch.
+   *
+   * @throws Exception In case there was an error writing the batch
+   */
+  protected abstract void writeVectorSchemaRoot() throws Exception;
+
+  /**
+   * @return The number of rows written per batch
+   */
+  public abstract int getRealBatchSize();
+
+  /**
+   * Write the rows in the row buffer to the data stream as a batch and clear the buffer.
+   *
+   * @throws HopException In case there was an error writing the batch
+   */
+  protected abstract void emptyBuffer() throws HopException;
+
+  /**
+   * Load the next batch to read in {@link #readRoot} and {@link #readFieldVectors} and reset the
+   * read row index.
+   *
+   * @return true if a batch was loaded, false if there are no more batches
+   * @throws Exception In case there was an error reading the batch
+   */
+  protected abstract boolean readNextBatch() throws Exception;
+
+  /**
+   * Write a batch of Apache Arrow vectors to the data stream, without converting the values to Hop
+   * rows. Rows written earlier are written first. The vectors need to have the schema built from
+   * the row metadata of this data stream. The buffers of the batch aren't copied, so the batch
+   * shouldn't be changed afterwards.
+   *
+   * @param batch The batch to write
+   * @throws HopException In case there was an error writing the batch
+   */
+  public void writeBatch(VectorSchemaRoot batch) throws HopException {
+    if (!writing) {
+      throw new HopException("When reading data you can't write to the same data stream.");
+    }
+    if (vectorSchemaRoot == null) {
+      throw new HopException("The row metadata needs to be set before writing a batch.");
+    }
+    if (!batch.getSchema().equals(vectorSchemaRoot.getSchema())) {
+      throw new HopException(
+          "The schema of the batch doesn't match the schema of data stream "
+              + dataStreamMeta.getName()
+              + ": "
+              + batch.getSchema());
+    }
+    if (!rowBuffer.isEmpty()) {
+      emptyBuffer();
+    }
+    try (ArrowRecordBatch recordBatch = new VectorUnloader(batch).getRecordBatch()) {
+      new VectorLoader(vectorSchemaRoot).load(recordBatch);
+      writeVectorSchemaRoot();
+    } catch (Exception e) {
+      throw new HopException("Error writing a batch to data stream " + dataStreamMeta.getName(), e);
+    } finally {
+      // Stop sharing the buffers of the batch, make room for the next rows
+      //
+      allocateFieldVectorsSpace(vectorSchemaRoot, rowMeta, getRealBatchSize());
+    }
+  }
+
+  /**
+   * Read the next batch of Apache Arrow vectors from the data stream, without converting the values
+   * to Hop rows. The batch is owned by the data stream and is valid until the next read.
+   *
+   * @return The next batch or null if no more rows are to be received.
+   * @throws HopException In case there was an error reading the batch or if only a part of the
+   *     current batch was read as rows.
+   */
+  public VectorSchemaRoot readBatch() throws HopException {
+    validateReading();
+    if (readRowIndex > 0 && readRowIndex < readRoot.getRowCount()) {
+      throw new HopException(
+          "The rest of the current batch needs to be read as rows from data stream "
+              + dataStreamMeta.getName());
+    }
+    if (!hasRowsToRead()) {
+      return null;
+    }
+    readRowIndex = readRoot.getRowCount();
+    return readRoot;
+  }
+
+  @Override
+  public Object[] readRow() throws HopException {
+    validateReading();
+    if (!hasRowsToRead()) {
+      return null;
+    }
+    return convertFieldVectorsToHopRow(readFieldVectors, rowMeta, readRowIndex++);
+  }
+
+  /**
+   * Read the rows of the current batch, converting the values a field vector at a time.
+   *
+   * @param maxRows The maximum number of rows to read
+   * @return The rows or null if no more rows are to be received.
+   * @throws HopException In case there was an error reading the rows.
+   */
+  @Override
+  public List<Object[]> readRows(int maxRows) throws HopException {
+    validateReading();
+    if (!hasRowsToRead()) {
+      return null;
+    }
+    int nrRows = Math.min(maxRows, readRoot.getRowCount() - readRowIndex);
+    List<Object[]> rows = convertFieldVectorsToHopRows(readRoot, rowMeta, readRowIndex, nrRows);
+    readRowIndex += nrRows;
+    return rows;
+  }
+
+  private void validateReading() throws HopException {
+    if (writing) {
+      throw new HopException("When writing data you can't read rows from the same data stream.");
+    }
+  }
+
+  /** Load the next batch if all rows of the current batch are read */
+  private boolean hasRowsToRead() throws HopException {
+    if (readDone) {
+      return false;
+    }
+    if (readRoot != null && readRowIndex < readRoot.getRowCount()) {
+      return true;
+    }
+    try {
+      // Skip the rare batches without rows
+      //
+      while (readNextBatch()) {
+        if (readRoot.getRowCount() > 0) {
+          return true;
+        }
+      }
+    } catch (Exception e) {
+      throw new HopException(
+          "Error while reading a batch of rows from data stream " + dataStreamMeta.getName(), e);
+    }
+    readDone = true;
+    return false;
+  }
+
   /**
    * Create an Arrow Schema using the given Hop row metadata
    *
@@ -190,6 +357,28 @@ public abstract class ArrowBaseDataStream implements IDataStream {
     }
   }
 
+  /**
+   * Set the values of the rows in the field vectors a field at a time and set the row count.
+   *
+   * @param vectorSchemaRoot The vectors to fill, with enough space allocated
+   * @param rowMeta The row metadata of the rows
+   * @param rows The rows
+   * @throws HopException In case a value can't be converted
+   */
+  public static void convertHopRowsToFieldVectors(
+      VectorSchemaRoot vectorSchemaRoot, IRowMeta rowMeta, List<Object[]> rows)
+      throws HopException {
+    vectorSchemaRoot.setRowCount(rows.size());
+    for (int fieldIndex = 0; fieldIndex < rowMeta.size(); fieldIndex++) {
+      IValueMeta valueMeta = rowMeta.getValueMeta(fieldIndex);
+      FieldVector fieldVector = vectorSchemaRoot.getVector(fieldIndex);
+      for (int rowIndex = 0; rowIndex < rows.size(); rowIndex++) {
+        setFieldVectorValueWithHopValue(
+            valueMeta, rowIndex, fieldVector, rows.get(rowIndex)[fieldIndex]);
+      }
+    }
+  }
+
   public static void convertHopRowToFieldVectorIndex(
       VectorSchemaRoot vectorSchemaRoot, IRowMeta rowMeta, int rowIndex, Object[] rowData)
       throws HopException {
@@ -302,6 +491,34 @@ public abstract class ArrowBaseDataStream implements IDataStream {
     return rowData;
   }
 
+  /**
+   * Convert a range of rows of the field vectors to Hop rows, a field vector at a time.
+   *
+   * @param vectorSchemaRoot The vectors to read
+   * @param rowMeta The row metadata of the rows
+   * @param fromRow The index of the first row to convert
+   * @param nrRows The number of rows to convert
+   * @return The Hop rows
+   * @throws HopException In case a value can't be converted
+   */
+  public static List<Object[]> convertFieldVectorsToHopRows(
+      VectorSchemaRoot vectorSchemaRoot, IRowMeta rowMeta, int fromRow, int nrRows)
+      throws HopException {
+    List<Object[]> rows = new ArrayList<>(nrRows);
+    for (int i = 0; i < nrRows; i++) {
+      rows.add(RowDataUtil.allocateRowData(rowMeta.size()));
+    }
+    for (int fieldIndex = 0; fieldIndex < rowMeta.size(); fieldIndex++) {
+      IValueMeta valueMeta = rowMeta.getValueMeta(fieldIndex);
+      FieldVector fieldVector = vectorSchemaRoot.getVector(fieldIndex);
+      for (int i = 0; i < nrRows; i++) {
+        rows.get(i)[fieldIndex] =
+            getHopValueFromFieldVector(fromRow + i, fieldVector, valueMeta, fieldIndex);
+      }
+    }
+    return rows;
+  }
+
   public static @Nullable Object getHopValueFromFieldVector(
       int rowIndex, FieldVector fieldVector, IValueMeta valueMeta, int fieldIndex)
       throws HopException {
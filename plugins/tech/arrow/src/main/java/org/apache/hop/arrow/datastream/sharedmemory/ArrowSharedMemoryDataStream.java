@@ -0,0 +1,244 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.arrow.datastream.sharedmemory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.hop.arrow.datastream.shared.ArrowBaseDataStream;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.gui.plugin.GuiElementType;
+import org.apache.hop.core.gui.plugin.GuiPlugin;
+import org.apache.hop.core.gui.plugin.GuiWidgetElement;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.datastream.metadata.DataStreamMeta;
+import org.apache.hop.datastream.plugin.DataStreamPlugin;
+import org.apache.hop.metadata.api.HopMetadataProperty;
+import org.apache.hop.metadata.api.IHopMetadataProvider;
+
+@GuiPlugin
+@DataStreamPlugin(
+    id = "ArrowSharedMemory",
+    name = "Apache Arrow shared memory",
+    description =
+        "Exchange batches of rows with a Hop process on the same host through a memory-mapped"
+            + " ring file")
+@Getter
+@Setter
+public class ArrowSharedMemoryDataStream extends ArrowBaseDataStream {
+  public static final int MAX_WAIT_FOR_WRITER_MS = 60000;
+  public static final int DEFAULT_RING_SIZE = 64 * 1024 * 1024;
+
+  @GuiWidgetElement(
+      order = "20000-arrow-shared-memory-data-stream-filename",
+      parentId = DataStreamMeta.GUI_WIDGETS_PARENT_ID,
+      type = GuiElementType.FILENAME,
+      label = "i18n::ArrowSharedMemoryDataStream.Filename.Label",
+      toolTip = "i18n::ArrowSharedMemoryDataStream.Filename.Tooltip")
+  @HopMetadataProperty
+  protected String filename;
+
+  @GuiWidgetElement(
+      order = "20100-arrow-shared-memory-data-stream-ring-size",
+      parentId = DataStreamMeta.GUI_WIDGETS_PARENT_ID,
+      type = GuiElementType.TEXT,
+      label = "i18n::ArrowSharedMemoryDataStream.RingSize.Label",
+      toolTip = "i18n::ArrowSharedMemoryDataStream.RingSize.Tooltip")
+  @HopMetadataProperty
+  protected String ringSize;
+
+  @GuiWidgetElement(
+      order = "20200-arrow-shared-memory-data-stream-batch-size",
+      parentId = DataStreamMeta.GUI_WIDGETS_PARENT_ID,
+      type = GuiElementType.TEXT,
+      label = "i18n::ArrowSharedMemoryDataStream.BatchSize.Label",
+      toolTip = "i18n::ArrowSharedMemoryDataStream.BatchSize.Tooltip")
+  @HopMetadataProperty
+  protected String batchSize;
+
+  protected String realFilename;
+  protected int realRingSize;
+  protected int realBatchSize;
+
+  private SharedMemoryRing ring;
+  private ArrowStreamWriter arrowStreamWriter;
+  private ArrowStreamReader arrowStreamReader;
+  private boolean ended;
+
+  public ArrowSharedMemoryDataStream() {
+    DataStreamPlugin annotation = getClass().getAnnotation(DataStreamPlugin.class);
+    this.pluginId = annotation.id();
+    this.pluginName = annotation.name();
+    rowBuffer = new ArrayList<>();
+    filename = "/dev/shm/hop-data-stream.ring";
+    ringSize = "64m";
+    batchSize = "10000";
+  }
+
+  @SuppressWarnings("CopyConstructorMissesField")
+  public ArrowSharedMemoryDataStream(ArrowSharedMemoryDataStream s) {
+    this();
+    this.filename = s.filename;
+    this.ringSize = s.ringSize;
+    this.batchSize = s.batchSize;
+  }
+
+  @Override
+  public ArrowSharedMemoryDataStream clone() {
+    return new ArrowSharedMemoryDataStream(this);
+  }
+
+  @Override
+  public void initialize(
+      IVariables variables,
+      IHopMetadataProvider metadataProvider,
+      boolean writing,
+      DataStreamMeta dataStreamMeta)
+      throws HopException {
+    super.initialize(variables, metadataProvider, writing, dataStreamMeta);
+    realFilename = variables.resolve(filename);
+    realRingSize = Const.toIntExpanded(variables.resolve(ringSize), DEFAULT_RING_SIZE);
+    realBatchSize = Const.toInt(variables.resolve(batchSize), 10000);
+    ended = false;
+  }
+
+  @Override
+  public void setRowMeta(IRowMeta rowMeta) throws HopException {
+    if (!writing) {
+      return;
+    }
+    this.rowMeta = rowMeta;
+
+    vectorSchemaRoot = VectorSchemaRoot.create(buildSchema(rowMeta), rootAllocator);
+    allocateFieldVectorsSpace(vectorSchemaRoot, rowMeta, realBatchSize);
+    try {
+      ring = SharedMemoryRing.create(Path.of(realFilename), realRingSize);
+      arrowStreamWriter = new ArrowStreamWriter(vectorSchemaRoot, null, ring);
+      arrowStreamWriter.start();
+    } catch (Exception e) {
+      throw new HopException("Error creating shared memory ring file " + realFilename, e);
+    }
+  }
+
+  @Override
+  public IRowMeta getRowMeta() throws HopException {
+    if (writing) {
+      return rowMeta;
+    }
+    try {
+      ring = SharedMemoryRing.open(Path.of(realFilename), MAX_WAIT_FOR_WRITER_MS);
+      arrowStreamReader = new ArrowStreamReader(ring, rootAllocator);
+      readRoot = arrowStreamReader.getVectorSchemaRoot();
+      this.rowMeta = buildRowMeta(readRoot.getSchema());
+    } catch (Exception e) {
+      throw new HopException(
+          "Error reading row metadata from shared memory ring file " + realFilename, e);
+    }
+    return this.rowMeta;
+  }
+
+  @Override
+  public void writeRow(Object[] rowData) throws HopException {
+    rowBuffer.add(rowData);
+    if (rowBuffer.size() >= realBatchSize) {
+      emptyBuffer();
+    }
+  }
+
+  @Override
+  protected void emptyBuffer() throws HopException {
+    try {
+      convertHopRowsToFieldVectors(vectorSchemaRoot, rowMeta, rowBuffer);
+      writeVectorSchemaRoot();
+    } catch (Exception e) {
+      throw new HopException("Error writing rows to shared memory ring file " + realFilename, e);
+    } finally {
+      rowBuffer.clear();
+    }
+  }
+
+  /** Serializes the batch straight into the ring, waiting for the reader while it's full */
+  @Override
+  protected void writeVectorSchemaRoot() throws IOException {
+    arrowStreamWriter.writeBatch();
+  }
+
+  @Override
+  public void setOutputDone() throws HopException {
+    if (!rowBuffer.isEmpty()) {
+      emptyBuffer();
+    }
+    try {
+      arrowStreamWriter.end();
+      ring.close();
+      ended = true;
+    } catch (Exception e) {
+      throw new HopException("Error ending shared memory ring file " + realFilename, e);
+    }
+  }
+
+  @Override
+  protected boolean readNextBatch() throws IOException {
+    boolean readNext = arrowStreamReader.loadNextBatch();
+    readRoot = arrowStreamReader.getVectorSchemaRoot();
+    readFieldVectors = readRoot.getFieldVectors();
+    readRowIndex = 0;
+    return readNext;
+  }
+
+  @Override
+  public void close() {
+    if (arrowStreamReader != null) {
+      try {
+        arrowStreamReader.close();
+      } catch (IOException e) {
+        // Ignore
+      }
+    }
+    if (ring != null) {
+      try {
+        if (writing && !ended) {
+          // Without setOutputDone() the rows are incomplete: the writer failed or was stopped.
+          // Writing the end of the Arrow stream would make the reader take them as complete.
+          //
+          ring.abort();
+        } else {
+          ring.close();
+        }
+      } catch (IOException e) {
+        // Ignore
+      }
+    }
+    if (arrowStreamWriter != null && ended) {
+      arrowStreamWriter.close();
+    }
+    if (vectorSchemaRoot != null) {
+      vectorSchemaRoot.close();
+    }
+    if (rootAllocator != null) {
+      rootAllocator.close();
+    }
+  }
+}
@@ -0,0 +1,405 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.arrow.datastream.sharedmemory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ByteChannel;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A single producer, single consumer ring buffer in a memory-mapped file, to exchange bytes between
+ * two processes on the same host. Put the file in a memory file system like <code>/dev/shm</code>
+ * to keep it out of the page cache write-back.
+ *
+ * <p>The file starts with a header, followed by the ring of bytes:
+ *
+ * <pre>
+ *   0  magic (int), version (int), capacity of the ring (long),
+ *      writer process id (long), writer process start time (long)
+ *  64  write position (long), writer done flag (long), writer aborted flag (long)
+ * 128  read position (long), reader closed flag (long),
+ *      reader process id (long), reader process start time (long)
+ * 192  the ring
+ * </pre>
+ *
+ * The positions count all the bytes written and read so far, the writer and reader each update
+ * their own position on its own cache line. The writer waits while the ring is full and the reader
+ * waits while it is empty: they spin for a short while and then park for a moment. While they are
+ * parked they regularly check if the process on the other side is still alive, so a crashed writer
+ * or reader is reported with an error instead of a wait that never ends.
+ *
+ * <p>The writer creates the file and marks it as done when it is closed. A writer which fails or is
+ * stopped marks it as aborted instead, the reader then gets an error rather than the end of the
+ * bytes. The reader waits for the file to appear and deletes it when it is closed. A file left
+ * behind by a writer which crashed in an earlier run is skipped: the reader waits for the writer of
+ * this run to replace it.
+ */
+public class SharedMemoryRing implements ByteChannel {
+  public static final int MAGIC = 0x484F5052;
+  public static final int VERSION = 3;
+
+  private static final int OFFSET_MAGIC = 0;
+  private static final int OFFSET_VERSION = 4;
+  private static final int OFFSET_CAPACITY = 8;
+  static final int OFFSET_WRITER_PID = 16;
+  private static final int OFFSET_WRITER_START = 24;
+  private static final int OFFSET_WRITE_POSITION = 64;
+  private static final int OFFSET_WRITER_DONE = 72;
+  private static final int OFFSET_WRITER_ABORTED = 80;
+  private static final int OFFSET_READ_POSITION = 128;
+  private static final int OFFSET_READER_CLOSED = 136;
+  static final int OFFSET_READER_PID = 144;
+  private static final int OFFSET_READER_START = 152;
+  public static final int HEADER_SIZE = 192;
+
+  private static final int SPIN_WAITS = 1000;
+  private static final int YIELD_WAITS = 100;
+  private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+  /** How often a parked writer or reader checks if the other side is still alive */
+  private static final long ALIVE_CHECK_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+
+  private static final VarHandle INT =
+      MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+  private static final VarHandle LONG =
+      MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+  private final Path path;
+  private final boolean writer;
+  private final MappedByteBuffer buffer;
+  private final ByteBuffer ring;
+  private final int capacity;
+
+  /** The write position for the writer, the read position for the reader */
+  private long position;
+
+  private boolean closed;
+
+  /** When the process on the other side was last found to be alive */
+  private long lastAliveCheck;
+
+  private SharedMemoryRing(Path path, boolean writer, MappedByteBuffer buffer, int capacity) {
+    this.path = path;
+    this.writer = writer;
+    this.buffer = buffer;
+    this.capacity = capacity;
+    this.ring = buffer.slice(HEADER_SIZE, capacity);
+  }
+
+  /**
+   * Create a new ring file to write to. An existing file is replaced.
+   *
+   * @param path the file to create
+   * @param capacity the size of the ring in bytes
+   * @return the ring to write to
+   * @throws IOException in case the file can't be created
+   */
+  public static SharedMemoryRing create(Path path, int capacity) throws IOException {
+    if (capacity <= 0 || capacity > Integer.MAX_VALUE - HEADER_SIZE) {
+      throw new IOException("Invalid shared memory ring size: " + capacity);
+    }
+    Files.deleteIfExists(path);
+    MappedByteBuffer buffer;
+    try (FileChannel channel =
+        FileChannel.open(
+            path,
+            StandardOpenOption.CREATE_NEW,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE)) {
+      buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) HEADER_SIZE + capacity);
+    }
+    buffer.putInt(OFFSET_VERSION, VERSION);
+    buffer.putLong(OFFSET_CAPACITY, capacity);
+    LONG.set(buffer, OFFSET_WRITER_PID, ProcessHandle.current().pid());
+    buffer.putLong(OFFSET_WRITER_START, startTime(ProcessHandle.current()));
+
+    // Publish the header last, the reader waits for the magic number
+    //
+    INT.setRelease(buffer, OFFSET_MAGIC, MAGIC);
+    return new SharedMemoryRing(path, true, buffer, capacity);
+  }
+
+  /**
+   * Open a ring file to read from, waiting for the writer to create it. A file of which the writer
+   * process is no longer alive is left over from an earlier run, the reader waits for it to be
+   * replaced.
+   *
+   * @param path the file to read
+   * @param timeoutMs the maximum time to wait for the file in milliseconds
+   * @return the ring to read from
+   * @throws IOException in case the file doesn't appear in time or isn't a ring file
+   */
+  public static SharedMemoryRing open(Path path, long timeoutMs) throws IOException {
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+    while (true) {
+      MappedByteBuffer header = mapHeader(path);
+      if (header != null && (int) INT.getAcquire(header, OFFSET_MAGIC) == MAGIC) {
+        int version = header.getInt(OFFSET_VERSION);
+        if (version != VERSION) {
+          throw new IOException(
+              "Unsupported shared memory ring version " + version + " in file " + path);
+        }
+        if (isAlive(header, OFFSET_WRITER_PID, OFFSET_WRITER_START)) {
+          int capacity = (int) header.getLong(OFFSET_CAPACITY);
+          MappedByteBuffer buffer;
+          try (FileChannel channel =
+              FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) HEADER_SIZE + capacity);
+          }
+          buffer.putLong(OFFSET_READER_START, startTime(ProcessHandle.current()));
+          LONG.setRelease(buffer, OFFSET_READER_PID, ProcessHandle.current().pid());
+          return new SharedMemoryRing(path, false, buffer, capacity);
+        }
+      }
+      if (System.nanoTime() - deadline > 0) {
+        throw new IOException(
+            "No shared memory ring file of a running writer was created at "
+                + path
+                + " within "
+                + timeoutMs
+                + "ms");
+      }
+      sleep(TimeUnit.MILLISECONDS.toNanos(10));
+    }
+  }
+
+  private static MappedByteBuffer mapHeader(Path path) throws IOException {
+    try (FileChannel channel =
+        FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      if (channel.size() < HEADER_SIZE) {
+        return null;
+      }
+      return channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+    } catch (NoSuchFileException e) {
+      return null;
+    }
+  }
+
+  private static long startTime(ProcessHandle process) {
+    return process.info().startInstant().map(Instant::toEpochMilli).orElse(0L);
+  }
+
+  /**
+   * @return true if the process with the id and start time stored in the header is alive
+   */
+  private static boolean isAlive(ByteBuffer header, int pidOffset, int startOffset) {
+    long pid = (long) LONG.getAcquire(header, pidOffset);
+    Optional<ProcessHandle> process = ProcessHandle.of(pid);
+    if (process.isEmpty() || !process.get().isAlive()) {
+      return false;
+    }
+    // The start time tells a process apart from a later one which got the same id
+    //
+    long start = header.getLong(startOffset);
+    long actualStart = startTime(process.get());
+    return start == 0 || actualStart == 0 || start == actualStart;
+  }
+
+  /**
+   * Wait for the other side while it is parked, checking regularly if that process is still alive.
+   *
+   * @param waits the number of times waited so far
+   * @param pidOffset the offset of the process id of the other side, 0 means it's not known yet
+   * @param startOffset the offset of the start time of the other side
+   * @return the number of times waited
+   * @throws IOException in case the other side is gone or the thread was interrupted
+   */
+  private int await(int waits, int pidOffset, int startOffset) throws IOException {
+    if (waits == 0) {
+      lastAliveCheck = System.nanoTime();
+    } else if (waits > SPIN_WAITS + YIELD_WAITS
+        && System.nanoTime() - lastAliveCheck > ALIVE_CHECK_NANOS) {
+      lastAliveCheck = System.nanoTime();
+      if ((long) LONG.getAcquire(buffer, pidOffset) != 0
+          && !isAlive(buffer, pidOffset, startOffset)) {
+        throw new IOException(
+            "The "
+                + (writer ? "reader" : "writer")
+                + " process of shared memory ring "
+                + path
+                + " is no longer running");
+      }
+    }
+    return idle(waits);
+  }
+
+  /**
+   * Write all the bytes of the buffer to the ring, waiting for the reader while the ring is full.
+   *
+   * @param src the bytes to write
+   * @return the number of bytes written
+   * @throws IOException in case the reader was closed or stopped running or the thread was
+   *     interrupted
+   */
+  @Override
+  public int write(ByteBuffer src) throws IOException {
+    checkOpen(true);
+    int written = 0;
+    int waits = 0;
+    while (src.hasRemaining()) {
+      long free = capacity - (position - (long) LONG.getAcquire(buffer, OFFSET_READ_POSITION));
+      if (free == 0) {
+        if ((long) LONG.getAcquire(buffer, OFFSET_READER_CLOSED) != 0) {
+          throw new IOException("The reader of shared memory ring " + path + " was closed");
+        }
+        waits = await(waits, OFFSET_READER_PID, OFFSET_READER_START);
+        continue;
+      }
+      waits = 0;
+      int offset = (int) (position % capacity);
+      int length = (int) Math.min(Math.min(free, capacity - offset), src.remaining());
+      ring.put(offset, src, src.position(), length);
+      src.position(src.position() + length);
+      position += length;
+      LONG.setRelease(buffer, OFFSET_WRITE_POSITION, position);
+      written += length;
+    }
+    return written;
+  }
+
+  /**
+   * Read bytes from the ring, waiting for the writer while the ring is empty.
+   *
+   * @param dst the buffer to read into
+   * @return the number of bytes read or -1 if the writer is done and all bytes are read
+   * @throws IOException in case the writer aborted or stopped running or the thread was interrupted
+   */
+  @Override
+  public int read(ByteBuffer dst) throws IOException {
+    checkOpen(false);
+    if (!dst.hasRemaining()) {
+      return 0;
+    }
+    int waits = 0;
+    long available;
+    while ((available = (long) LONG.getAcquire(buffer, OFFSET_WRITE_POSITION) - position) == 0) {
+      if ((long) LONG.getAcquire(buffer, OFFSET_WRITER_DONE) != 0) {
+        if ((long) LONG.getAcquire(buffer, OFFSET_WRITER_ABORTED) != 0) {
+          throw new IOException(
+              "The writer of shared memory ring "
+                  + path
+                  + " failed or was stopped before it wrote all data");
+        }
+        // The writer publishes its position before it is done, look once more
+        //
+        if ((long) LONG.getAcquire(buffer, OFFSET_WRITE_POSITION) == position) {
+          return -1;
+        }
+        continue;
+      }
+      waits = await(waits, OFFSET_WRITER_PID, OFFSET_WRITER_START);
+    }
+    int offset = (int) (position % capacity);
+    int length = (int) Math.min(Math.min(available, capacity - offset), dst.remaining());
+    dst.put(dst.position(), ring, offset, length);
+    dst.position(dst.position() + length);
+    position += length;
+    LONG.setRelease(buffer, OFFSET_READ_POSITION, position);
+    return length;
+  }
+
+  private void checkOpen(boolean writing) throws IOException {
+    if (closed) {
+      throw new ClosedChannelException();
+    }
+    if (writing != writer) {
+      throw new IOException(
+          "Shared memory ring " + path + " is opened for " + (writer ? "writing" : "reading"));
+    }
+  }
+
+  private static int idle(int waits) throws InterruptedIOException {
+    if (waits < SPIN_WAITS) {
+      Thread.onSpinWait();
+    } else if (waits < SPIN_WAITS + YIELD_WAITS) {
+      Thread.yield();
+    } else {
+      sleep(PARK_NANOS);
+    }
+    return waits + 1;
+  }
+
+  private static void sleep(long nanos) throws InterruptedIOException {
+    LockSupport.parkNanos(nanos);
+    if (Thread.interrupted()) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting on a shared memory ring");
+    }
+  }
+
+  @Override
+  public boolean isOpen() {
+    return !closed;
+  }
+
+  /**
+   * Close the writer end of the ring because the writer failed or was stopped. The reader gets an
+   * error once it read the bytes which were written, instead of the end of the bytes.
+   *
+   * @throws IOException in case the ring can't be closed
+   */
+  public void abort() throws IOException {
+    if (writer && !closed) {
+      // Set before the done flag, the reader sees both
+      //
+      LONG.setRelease(buffer, OFFSET_WRITER_ABORTED, 1L);
+    }
+    close();
+  }
+
+  /**
+   * The writer marks the ring as done, the reader can still read the remaining bytes. The reader
+   * lets the writer know it stopped reading and deletes the file.
+   */
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    if (writer) {
+      LONG.setRelease(buffer, OFFSET_WRITER_DONE, 1L);
+    } else {
+      LONG.setRelease(buffer, OFFSET_READER_CLOSED, 1L);
+      Files.deleteIfExists(path);
+    }
+  }
+
+  public Path getPath() {
+    return path;
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+}
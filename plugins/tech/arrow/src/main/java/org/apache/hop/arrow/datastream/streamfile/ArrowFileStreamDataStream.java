@@ -23,10 +23,8 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.List;
 import lombok.Getter;
 import lombok.Setter;
-import org.apache.arrow.vector.FieldVector;
 import org.apache.arrow.vector.VectorSchemaRoot;
 import org.apache.arrow.vector.ipc.ArrowStreamReader;
 import org.apache.arrow.vector.ipc.ArrowStreamWriter;
@@ -75,10 +73,7 @@ public class ArrowFileStreamDataStream extends ArrowBaseDataStream {
 
   private ArrowStreamWriter arrowStreamWriter;
   private ArrowStreamReader arrowStreamReader;
-  private VectorSchemaRoot readRootSchema;
   private Schema readSchema;
-  private int readRowIndex;
-  private List<FieldVector> readFieldVectors;
   private int batchReads;
 
   public ArrowFileStreamDataStream() {
@@ -220,8 +215,8 @@ public class ArrowFileStreamDataStream extends ArrowBaseDataStream {
 
     fileInputStream = new FileInputStream(realFilename);
     arrowStreamReader = new ArrowStreamReader(fileInputStream, rootAllocator);
-    readRootSchema = arrowStreamReader.getVectorSchemaRoot();
-    readSchema = readRootSchema.getSchema();
+    readRoot = arrowStreamReader.getVectorSchemaRoot();
+    readSchema = readRoot.getSchema();
 
     this.rowMeta = buildRowMeta(readSchema);
   }
@@ -234,19 +229,16 @@ public class ArrowFileStreamDataStream extends ArrowBaseDataStream {
     }
   }
 
-  private void emptyBuffer() throws HopException {
+  @Override
+  protected void emptyBuffer() throws HopException {
     try {
-      vectorSchemaRoot.setRowCount(rowBuffer.size());
-
       // Set the data in the field vectors for the rows in the buffer
       //
-      for (int rowIndex = 0; rowIndex < rowBuffer.size(); rowIndex++) {
-        convertHopRowToFieldVectorIndex(
-            vectorSchemaRoot, rowMeta, rowIndex, rowBuffer.get(rowIndex));
-      }
+      convertHopRowsToFieldVectors(vectorSchemaRoot, rowMeta, rowBuffer);
+
       // With values set on all field vectors, we can now write the batch.
       //
-      arrowStreamWriter.writeBatch();
+      writeVectorSchemaRoot();
     } catch (Exception e) {
       throw new HopException("Error writing row to Apache Arrow stream file " + filename, e);
     } finally {
@@ -256,43 +248,16 @@ public class ArrowFileStreamDataStream extends ArrowBaseDataStream {
   }
 
   @Override
-  public Object[] readRow() throws HopException {
-    if (writing) {
-      throw new HopException("When writing data you can't read rows from the same data stream.");
-    }
-
-    try {
-      // See if there are more rows to populate.
-      //
-      int schemaBatchSize = readRootSchema.getRowCount();
-
-      // If needed, read another batch
-      //
-      if (readRowIndex < schemaBatchSize || readNextBatch()) {
-        return convertFieldVectorsToHopRow(readFieldVectors, rowMeta, readRowIndex++);
-      } else {
-        // No more data to be expected
-        return null;
-      }
-    } catch (Exception e) {
-      throw new HopException(
-          "Error while reading a batch of rows from an Apache Arrow file stream", e);
-    }
+  protected void writeVectorSchemaRoot() throws IOException {
+    arrowStreamWriter.writeBatch();
   }
 
+  @Override
   protected boolean readNextBatch() throws IOException {
     boolean readNext = arrowStreamReader.loadNextBatch();
     batchReads++;
-    readRootSchema = arrowStreamReader.getVectorSchemaRoot();
-
-    // This loop is for the rare cases where the batches contain 0 rows each.
-    //
-    while (readRootSchema.getRowCount() == 0 && readNext) {
-      readNext = arrowStreamReader.loadNextBatch();
-      batchReads++;
-      readRootSchema = arrowStreamReader.getVectorSchemaRoot();
-    }
-    readFieldVectors = readRootSchema.getFieldVectors();
+    readRoot = arrowStreamReader.getVectorSchemaRoot();
+    readFieldVectors = readRoot.getFieldVectors();
     readRowIndex = 0;
 
     return readNext;
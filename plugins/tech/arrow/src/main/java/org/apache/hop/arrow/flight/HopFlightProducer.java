@@ -35,7 +35,6 @@ import org.apache.arrow.flight.NoOpFlightProducer;
 import org.apache.arrow.flight.PutResult;
 import org.apache.arrow.flight.Ticket;
 import org.apache.arrow.memory.RootAllocator;
-import org.apache.arrow.vector.FieldVector;
 import org.apache.arrow.vector.VectorSchemaRoot;
 import org.apache.arrow.vector.types.pojo.Schema;
 import org.apache.hop.arrow.datastream.flight.ArrowFlightDataStream;
@@ -99,17 +98,18 @@ public class HopFlightProducer extends NoOpFlightProducer {
       int bufferSize = streamBuffer.bufferSize();
       while (flightStream.next()) {
         VectorSchemaRoot vectorSchemaRoot = flightStream.getRoot();
-        List<FieldVector> fieldVectors = vectorSchemaRoot.getFieldVectors();
 
         int batchRowCount = vectorSchemaRoot.getRowCount();
 
         if (batchRowCount == 0) continue;
 
-        // Convert Arrow vectorSchemaRoot → Hop rows and push into RowSet
+        // Convert Arrow vectorSchemaRoot → Hop rows, a field vector at a time, and push them into
+        // the RowSet
         //
-        for (int rowIndex = 0; rowIndex < batchRowCount; rowIndex++) {
-          Object[] rowData =
-              ArrowBaseDataStream.convertFieldVectorsToHopRow(fieldVectors, rowMeta, rowIndex);
+        List<Object[]> rows =
+            ArrowBaseDataStream.convertFieldVectorsToHopRows(
+                vectorSchemaRoot, rowMeta, 0, batchRowCount);
+        for (Object[] rowData : rows) {
           rowSet.putRow(rowMeta, rowData);
 
           // If too many rows are kept in memory, throw an error!
@@ -249,12 +249,7 @@ public class HopFlightProducer extends NoOpFlightProducer {
   private void fillBatch(
       List<Object[]> rowBuffer, IRowMeta rowMeta, VectorSchemaRoot vectorSchemaRoot)
       throws HopException {
-    vectorSchemaRoot.setRowCount(rowBuffer.size());
-    for (int rowIndex = 0; rowIndex < rowBuffer.size(); rowIndex++) {
-      Object[] rowData = rowBuffer.get(rowIndex);
-      ArrowBaseDataStream.convertHopRowToFieldVectorIndex(
-          vectorSchemaRoot, rowMeta, rowIndex, rowData);
-    }
+    ArrowBaseDataStream.convertHopRowsToFieldVectors(vectorSchemaRoot, rowMeta, rowBuffer);
     // The data is transferred, we can clear the buffer.
     rowBuffer.clear();
   }
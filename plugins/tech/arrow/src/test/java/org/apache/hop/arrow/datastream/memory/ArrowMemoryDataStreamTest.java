@@ -0,0 +1,335 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.arrow.datastream.memory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.hop.arrow.datastream.shared.ArrowBaseDataStream;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.core.variables.Variables;
+import org.apache.hop.datastream.metadata.DataStreamMeta;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** Unit test for {@link ArrowMemoryDataStream} and {@link ArrowMemoryChannel} */
+class ArrowMemoryDataStreamTest {
+
+  private IRowMeta rowMeta;
+
+  @BeforeEach
+  void setUp() {
+    rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("name"));
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+  }
+
+  @Test
+  void testEmptyInput() throws Exception {
+    ArrowMemoryDataStream writer = open("empty", true);
+    writer.setRowMeta(rowMeta);
+    writer.setOutputDone();
+    writer.close();
+
+    ArrowMemoryDataStream reader = open("empty", false);
+    assertEquals(2, reader.getRowMeta().size());
+    assertNull(reader.readRow());
+    assertNull(reader.readRows(10));
+    assertNull(reader.readBatch());
+    reader.close();
+  }
+
+  @Test
+  void testSeveralBatches() throws Exception {
+    ArrowMemoryDataStream writer = open("batches", true);
+    ArrowMemoryDataStream reader = open("batches", false);
+
+    CompletableFuture<List<Object[]>> read =
+        CompletableFuture.supplyAsync(
+            () -> {
+              try {
+                List<Object[]> rows = new ArrayList<>();
+                reader.getRowMeta();
+                Object[] first = reader.readRow();
+                rows.add(first);
+                List<Object[]> batch;
+                while ((batch = reader.readRows(2)) != null) {
+                  assertTrue(batch.size() <= 2);
+                  rows.addAll(batch);
+                }
+                return rows;
+              } catch (HopException e) {
+                throw new IllegalStateException(e);
+              }
+            });
+
+    writer.setRowMeta(rowMeta);
+    for (int i = 0; i < 4; i++) {
+      writer.writeRow(row(i));
+    }
+    writer.writeRows(List.of(row(4), row(5), row(6), row(7), row(8), row(9)));
+    writer.setOutputDone();
+    writer.close();
+
+    List<Object[]> rows = read.get(30, TimeUnit.SECONDS);
+    assertEquals(10, rows.size());
+    for (int i = 0; i < rows.size(); i++) {
+      assertRow(i, rows.get(i));
+    }
+    reader.close();
+    assertFalse(ArrowMemoryChannel.exists("batches"));
+  }
+
+  @Test
+  void testWriteAndReadBatches() throws Exception {
+    // Room for all the batches, the reader only starts after the writer is done
+    //
+    ArrowMemoryDataStream writer = open("vectors", true, "10");
+    ArrowMemoryDataStream reader = open("vectors", false, "10");
+
+    writer.setRowMeta(rowMeta);
+    for (int i = 0; i < 5; i++) {
+      writer.writeRow(row(i));
+    }
+    try (BufferAllocator allocator = ArrowMemoryChannel.newAllocator("test");
+        VectorSchemaRoot batch =
+            VectorSchemaRoot.create(ArrowBaseDataStream.buildSchema(rowMeta), allocator)) {
+      VarCharVector names = (VarCharVector) batch.getVector(0);
+      BigIntVector ids = (BigIntVector) batch.getVector(1);
+      names.allocateNew();
+      ids.allocateNew();
+      for (int i = 0; i < 2; i++) {
+        names.setSafe(i, ("name-" + (5 + i)).getBytes(StandardCharsets.UTF_8));
+        ids.setSafe(i, 5L + i);
+      }
+      batch.setRowCount(2);
+      writer.writeBatch(batch);
+    }
+    writer.setOutputDone();
+    writer.close();
+
+    // Batch size 3: the first 3 rows, the 2 rows before the written batch and the batch itself
+    //
+    reader.getRowMeta();
+    assertEquals(3, reader.readBatch().getRowCount());
+    assertRow(3, reader.readRow());
+    assertThrows(HopException.class, reader::readBatch);
+    assertRow(4, reader.readRow());
+    VectorSchemaRoot batch = reader.readBatch();
+    assertEquals(2, batch.getRowCount());
+    assertEquals(6L, ((BigIntVector) batch.getVector(1)).get(1));
+    assertNull(reader.readBatch());
+    reader.close();
+  }
+
+  @Test
+  void testReaderStartsAfterWriterFinished() throws Exception {
+    ArrowMemoryDataStream writer = open("late", true);
+    writer.setRowMeta(rowMeta);
+    writer.writeRow(row(0));
+    writer.writeRow(row(1));
+    writer.setOutputDone();
+    writer.close();
+    assertTrue(ArrowMemoryChannel.exists("late"));
+
+    ArrowMemoryDataStream reader = open("late", false);
+    assertEquals(2, reader.getRowMeta().size());
+    assertRow(0, reader.readRow());
+    assertRow(1, reader.readRow());
+    assertNull(reader.readRow());
+    reader.close();
+  }
+
+  @Test
+  void testCloseWhileWriterIsTransferring() throws Exception {
+    ArrowMemoryDataStream writer = open("closed", true);
+    ArrowMemoryDataStream reader = open("closed", false);
+
+    CompletableFuture<Exception> written =
+        CompletableFuture.supplyAsync(
+            () -> {
+              try {
+                writer.setRowMeta(rowMeta);
+                for (int i = 0; ; i++) {
+                  writer.writeRow(row(i));
+                }
+              } catch (HopException e) {
+                return e;
+              } finally {
+                try {
+                  writer.close();
+                } catch (HopException e) {
+                  throw new IllegalStateException(e);
+                }
+              }
+            });
+
+    reader.getRowMeta();
+    assertRow(0, reader.readRow());
+    reader.close();
+
+    // The writer fails instead of waiting for room, closing it releases all the memory
+    //
+    assertTrue(written.get(30, TimeUnit.SECONDS) instanceof HopException);
+    assertFalse(ArrowMemoryChannel.exists("closed"));
+  }
+
+  @Test
+  void testWriterClosedBeforeTheEndFailsTheReader() throws Exception {
+    ArrowMemoryDataStream writer = open("aborted", true);
+    ArrowMemoryDataStream reader = open("aborted", false);
+    writer.setRowMeta(rowMeta);
+    for (int i = 0; i < 4; i++) {
+      writer.writeRow(row(i));
+    }
+
+    // The transform failed or was stopped: dispose() closes without setOutputDone()
+    //
+    writer.close();
+
+    assertEquals(2, reader.getRowMeta().size());
+    assertThrows(HopException.class, reader::readRow);
+    assertThrows(HopException.class, reader::readRow);
+    reader.close();
+    assertFalse(ArrowMemoryChannel.exists("aborted"));
+  }
+
+  @Test
+  void testWriterClosedBeforeTheFirstRowFailsTheReader() throws Exception {
+    ArrowMemoryDataStream writer = open("aborted-early", true);
+    ArrowMemoryDataStream reader = open("aborted-early", false);
+    writer.close();
+
+    // No need to wait for the schema of a writer which is gone
+    //
+    CompletableFuture<Exception> rowMeta =
+        CompletableFuture.supplyAsync(() -> assertThrows(HopException.class, reader::getRowMeta));
+    assertTrue(rowMeta.get(10, TimeUnit.SECONDS) instanceof HopException);
+    reader.close();
+  }
+
+  @Test
+  void testStoppedWriterStopsWaitingForRoom() throws Exception {
+    // Nobody reads, the writer fills the queue and waits until the transform is stopped
+    //
+    ArrowMemoryDataStream writer = open("unread", true, "1");
+    AtomicBoolean stopped = new AtomicBoolean();
+    writer.setStopCheck(stopped::get);
+
+    CompletableFuture<Exception> written =
+        CompletableFuture.supplyAsync(
+            () -> {
+              try {
+                writer.setRowMeta(rowMeta);
+                for (int i = 0; ; i++) {
+                  writer.writeRow(row(i));
+                }
+              } catch (HopException e) {
+                return e;
+              }
+            });
+
+    Thread.sleep(300);
+    assertFalse(written.isDone());
+    stopped.set(true);
+    assertTrue(written.get(10, TimeUnit.SECONDS) instanceof HopException);
+    writer.close();
+  }
+
+  @Test
+  void testChannelWithoutReaderIsReleased() throws Exception {
+    ArrowMemoryChannel channel = ArrowMemoryChannel.attach("abandoned", 2, true);
+    channel.open(ArrowBaseDataStream.buildSchema(rowMeta));
+    assertTrue(channel.end(() -> false));
+    channel.closeWriter(500);
+    assertTrue(ArrowMemoryChannel.exists("abandoned"));
+
+    long deadline = System.currentTimeMillis() + 10000;
+    while (ArrowMemoryChannel.exists("abandoned") && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertFalse(ArrowMemoryChannel.exists("abandoned"));
+  }
+
+  @Test
+  void testOneWriterAndReaderPerChannel() {
+    ArrowMemoryChannel writer = ArrowMemoryChannel.attach("pairs", 2, true);
+    ArrowMemoryChannel reader = ArrowMemoryChannel.attach("pairs", 2, false);
+    assertSame(writer, reader);
+
+    // The next run gets a channel of its own
+    //
+    ArrowMemoryChannel nextWriter = ArrowMemoryChannel.attach("pairs", 2, true);
+    assertNotSame(writer, nextWriter);
+    assertSame(nextWriter, ArrowMemoryChannel.attach("pairs", 2, false));
+
+    writer.closeReader();
+    writer.closeWriter(0);
+    nextWriter.closeReader();
+    nextWriter.closeWriter(0);
+    assertFalse(ArrowMemoryChannel.exists("pairs"));
+  }
+
+  private ArrowMemoryDataStream open(String name, boolean writing) throws HopException {
+    return open(name, writing, "2");
+  }
+
+  private ArrowMemoryDataStream open(String name, boolean writing, String batchesInFlight)
+      throws HopException {
+    ArrowMemoryDataStream dataStream = new ArrowMemoryDataStream();
+    dataStream.setBatchSize("3");
+    dataStream.setBatchesInFlight(batchesInFlight);
+    dataStream.initialize(new Variables(), null, writing, dataStreamMeta(name));
+    return dataStream;
+  }
+
+  private static DataStreamMeta dataStreamMeta(String name) {
+    DataStreamMeta dataStreamMeta = new DataStreamMeta();
+    dataStreamMeta.setName(name);
+    return dataStreamMeta;
+  }
+
+  private static Object[] row(int i) {
+    return new Object[] {"name-" + i, (long) i};
+  }
+
+  /** The rows which are read have room for extra values, only compare the values of the fields */
+  private static void assertRow(int i, Object[] actual) {
+    assertEquals("name-" + i, actual[0]);
+    assertEquals((long) i, actual[1]);
+  }
+}
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.arrow.datastream.sharedmemory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.core.variables.Variables;
+import org.apache.hop.datastream.metadata.DataStreamMeta;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Unit test for {@link ArrowSharedMemoryDataStream}, writer and reader in the same process */
+class ArrowSharedMemoryDataStreamTest {
+
+  @TempDir Path folder;
+
+  private IRowMeta rowMeta;
+
+  @BeforeEach
+  void setUp() {
+    rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("name"));
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+  }
+
+  @Test
+  void testWriteAndReadBack() throws Exception {
+    Path file = folder.resolve("rows.ring");
+    ArrowSharedMemoryDataStream writer = open(file, true);
+    ArrowSharedMemoryDataStream reader = open(file, false);
+
+    // The small ring makes the writer wait for the reader
+    //
+    CompletableFuture<List<Object[]>> read =
+        CompletableFuture.supplyAsync(
+            () -> {
+              try {
+                List<Object[]> rows = new ArrayList<>();
+                assertEquals(2, reader.getRowMeta().size());
+                Object[] row;
+                while ((row = reader.readRow()) != null) {
+                  rows.add(row);
+                }
+                return rows;
+              } catch (HopException e) {
+                throw new IllegalStateException(e);
+              }
+            });
+
+    writer.setRowMeta(rowMeta);
+    for (int i = 0; i < 1000; i++) {
+      writer.writeRow(row(i));
+    }
+    writer.setOutputDone();
+    writer.close();
+
+    List<Object[]> rows = read.get(30, TimeUnit.SECONDS);
+    assertEquals(1000, rows.size());
+    for (int i = 0; i < rows.size(); i++) {
+      assertRow(i, rows.get(i));
+    }
+    assertNull(reader.readRow());
+    reader.close();
+    assertFalse(Files.exists(file));
+  }
+
+  @Test
+  void testWriterClosedBeforeTheEndFailsTheReader() throws Exception {
+    Path file = folder.resolve("aborted.ring");
+    ArrowSharedMemoryDataStream writer = open(file, true);
+    writer.setRowMeta(rowMeta);
+    for (int i = 0; i < 4; i++) {
+      writer.writeRow(row(i));
+    }
+
+    // The transform failed or was stopped: dispose() closes without setOutputDone()
+    //
+    writer.close();
+
+    // The batch which was written can still be read, the missing end is an error
+    //
+    ArrowSharedMemoryDataStream reader = open(file, false);
+    assertEquals(2, reader.getRowMeta().size());
+    for (int i = 0; i < 3; i++) {
+      assertRow(i, reader.readRow());
+    }
+    assertThrows(HopException.class, reader::readRow);
+    reader.close();
+    assertFalse(Files.exists(file));
+  }
+
+  private static ArrowSharedMemoryDataStream open(Path file, boolean writing) throws HopException {
+    ArrowSharedMemoryDataStream dataStream = new ArrowSharedMemoryDataStream();
+    dataStream.setFilename(file.toString());
+    dataStream.setRingSize("4096");
+    dataStream.setBatchSize("3");
+    DataStreamMeta dataStreamMeta = new DataStreamMeta();
+    dataStreamMeta.setName(file.getFileName().toString());
+    dataStream.initialize(new Variables(), null, writing, dataStreamMeta);
+    return dataStream;
+  }
+
+  private static Object[] row(int i) {
+    return new Object[] {"name-" + i, (long) i};
+  }
+
+  /** The rows which are read have room for extra values, only compare the values of the fields */
+  private static void assertRow(int i, Object[] actual) {
+    assertEquals("name-" + i, actual[0]);
+    assertEquals((long) i, actual[1]);
+  }
+}
@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.arrow.datastream.sharedmemory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Unit test for {@link SharedMemoryRing} */
+class SharedMemoryRingTest {
+
+  /** A process id which isn't in use, higher than the maximum on any common system */
+  private static final long NOT_RUNNING_PID = Integer.MAX_VALUE;
+
+  @TempDir Path folder;
+
+  @Test
+  void testWrapAroundWithBackpressure() throws Exception {
+    Path file = folder.resolve("test.ring");
+    int size = 1_000_000;
+
+    // The reader waits for the file, the writer waits while the small ring is full
+    //
+    CompletableFuture<long[]> reader =
+        CompletableFuture.supplyAsync(
+            () -> {
+              try (SharedMemoryRing ring = SharedMemoryRing.open(file, 10000)) {
+                ByteBuffer buffer = ByteBuffer.allocate(777);
+                long count = 0;
+                long errors = 0;
+                int read;
+                while ((read = ring.read(buffer.clear())) >= 0) {
+                  for (int i = 0; i < read; i++) {
+                    if (buffer.get(i) != (byte) (count++ % 251)) {
+                      errors++;
+                    }
+                  }
+                }
+                return new long[] {count, errors};
+              } catch (IOException e) {
+                throw new IllegalStateException(e);
+              }
+            });
+
+    try (SharedMemoryRing ring = SharedMemoryRing.create(file, 4096)) {
+      byte[] chunk = new byte[1000];
+      for (int written = 0; written < size; written += chunk.length) {
+        for (int i = 0; i < chunk.length; i++) {
+          chunk[i] = (byte) ((written + i) % 251);
+        }
+        assertEquals(chunk.length, ring.write(ByteBuffer.wrap(chunk)));
+      }
+    }
+
+    long[] result = reader.get(30, TimeUnit.SECONDS);
+    assertEquals(size, result[0]);
+    assertEquals(0, result[1]);
+    assertFalse(Files.exists(file));
+  }
+
+  @Test
+  void testWriterFailsWhenReaderIsClosed() throws Exception {
+    Path file = folder.resolve("closed.ring");
+    try (SharedMemoryRing writer = SharedMemoryRing.create(file, 64)) {
+      SharedMemoryRing reader = SharedMemoryRing.open(file, 1000);
+      reader.close();
+      assertFalse(reader.isOpen());
+
+      assertThrows(IOException.class, () -> writer.write(ByteBuffer.allocate(100)));
+    }
+  }
+
+  @Test
+  void testReaderFailsAfterTheBytesOfAnAbortedWriter() throws Exception {
+    Path file = folder.resolve("aborted.ring");
+    SharedMemoryRing writer = SharedMemoryRing.create(file, 64);
+    writer.write(ByteBuffer.wrap(new byte[] {1, 2, 3}));
+    writer.abort();
+    assertFalse(writer.isOpen());
+
+    try (SharedMemoryRing reader = SharedMemoryRing.open(file, 1000)) {
+      assertEquals(3, reader.read(ByteBuffer.allocate(10)));
+      assertThrows(IOException.class, () -> reader.read(ByteBuffer.allocate(10)));
+    }
+  }
+
+  @Test
+  void testReaderTimesOutWithoutWriter() {
+    assertThrows(
+        IOException.class, () -> SharedMemoryRing.open(folder.resolve("missing.ring"), 50));
+  }
+
+  @Test
+  void testReaderFailsWhenWriterIsGone() throws Exception {
+    Path file = folder.resolve("gone.ring");
+    try (SharedMemoryRing writer = SharedMemoryRing.create(file, 64);
+        SharedMemoryRing reader = SharedMemoryRing.open(file, 1000)) {
+      writer.write(ByteBuffer.wrap(new byte[] {1, 2, 3}));
+      assertEquals(3, reader.read(ByteBuffer.allocate(10)));
+
+      // The writer process crashes without closing the ring
+      //
+      setProcessId(file, SharedMemoryRing.OFFSET_WRITER_PID, NOT_RUNNING_PID);
+      assertThrows(IOException.class, () -> reader.read(ByteBuffer.allocate(10)));
+    }
+  }
+
+  @Test
+  void testWriterFailsWhenReaderIsGone() throws Exception {
+    Path file = folder.resolve("gone-reader.ring");
+    try (SharedMemoryRing writer = SharedMemoryRing.create(file, 64);
+        SharedMemoryRing reader = SharedMemoryRing.open(file, 1000)) {
+      setProcessId(file, SharedMemoryRing.OFFSET_READER_PID, NOT_RUNNING_PID);
+      assertThrows(IOException.class, () -> writer.write(ByteBuffer.allocate(100)));
+      assertTrue(reader.isOpen());
+    }
+  }
+
+  @Test
+  void testFileOfAnEarlierRunIsSkipped() throws Exception {
+    Path file = folder.resolve("stale.ring");
+    SharedMemoryRing stale = SharedMemoryRing.create(file, 64);
+    stale.write(ByteBuffer.wrap(new byte[] {9, 9, 9}));
+    setProcessId(file, SharedMemoryRing.OFFSET_WRITER_PID, NOT_RUNNING_PID);
+
+    CompletableFuture<Integer> reader =
+        CompletableFuture.supplyAsync(
+            () -> {
+              try (SharedMemoryRing ring = SharedMemoryRing.open(file, 10000)) {
+                ByteBuffer buffer = ByteBuffer.allocate(10);
+                int read = ring.read(buffer);
+                assertEquals(1, read);
+                return (int) buffer.get(0);
+              } catch (IOException e) {
+                throw new IllegalStateException(e);
+              }
+            });
+
+    Thread.sleep(200);
+    assertFalse(reader.isDone());
+    try (SharedMemoryRing writer = SharedMemoryRing.create(file, 64)) {
+      writer.write(ByteBuffer.wrap(new byte[] {1}));
+    }
+    assertEquals(1, reader.get(30, TimeUnit.SECONDS));
+  }
+
+  private static void setProcessId(Path file, int offset, long pid) throws IOException {
+    try (FileChannel channel =
+        FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      channel
+          .map(FileChannel.MapMode.READ_WRITE, 0, SharedMemoryRing.HEADER_SIZE)
+          .order(ByteOrder.nativeOrder())
+          .putLong(offset, pid);
+    }
+  }
+
+  @Test
+  void testRolesAreChecked() throws Exception {
+    Path file = folder.resolve("roles.ring");
+    try (SharedMemoryRing writer = SharedMemoryRing.create(file, 64)) {
+      assertTrue(writer.isOpen());
+      assertThrows(IOException.class, () -> writer.read(ByteBuffer.allocate(1)));
+    }
+  }
+}
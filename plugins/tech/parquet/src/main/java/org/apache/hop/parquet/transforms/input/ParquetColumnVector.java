@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.parquet.transforms.input;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.ColumnReader;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.PrimitiveConverter;
+import org.apache.parquet.schema.PrimitiveComparator;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+
+/**
+ * The decoded values of a batch of rows of one flat column. The values are kept in a primitive
+ * array per physical type: integers in longs, floating point values in doubles, booleans and
+ * binaries, plus a null flag per row.
+ */
+public class ParquetColumnVector {
+
+  @Getter private final ColumnDescriptor descriptor;
+  private final PrimitiveTypeName typeName;
+  private final PrimitiveComparator<Binary> comparator;
+  private final int maxDefinitionLevel;
+
+  private final boolean[] nulls;
+  private long[] longs;
+  private double[] doubles;
+  private boolean[] booleans;
+  private Binary[] binaries;
+
+  /** The reader of the column in the current row group */
+  @Setter private ColumnReader reader;
+
+  /**
+   * @param descriptor the column to read, a column without repetition
+   * @param capacity the maximum number of rows in a batch
+   */
+  public ParquetColumnVector(ColumnDescriptor descriptor, int capacity) {
+    this.descriptor = descriptor;
+    this.typeName = descriptor.getPrimitiveType().getPrimitiveTypeName();
+    this.comparator = descriptor.getPrimitiveType().comparator();
+    this.maxDefinitionLevel = descriptor.getMaxDefinitionLevel();
+    this.nulls = new boolean[capacity];
+    switch (typeName) {
+      case INT32, INT64 -> longs = new long[capacity];
+      case FLOAT, DOUBLE -> doubles = new double[capacity];
+      case BOOLEAN -> booleans = new boolean[capacity];
+      default -> binaries = new Binary[capacity];
+    }
+  }
+
+  /**
+   * Decode the values of the next rows of the column.
+   *
+   * @param count the number of rows to read
+   */
+  public void read(int count) {
+    switch (typeName) {
+      case INT32:
+        for (int i = 0; i < count; i++) {
+          if (!readNull(i)) {
+            longs[i] = reader.getInteger();
+          }
+          reader.consume();
+        }
+        break;
+      case INT64:
+        for (int i = 0; i < count; i++) {
+          if (!readNull(i)) {
+            longs[i] = reader.getLong();
+          }
+          reader.consume();
+        }
+        break;
+      case FLOAT:
+        for (int i = 0; i < count; i++) {
+          if (!readNull(i)) {
+            doubles[i] = reader.getFloat();
+          }
+          reader.consume();
+        }
+        break;
+      case DOUBLE:
+        for (int i = 0; i < count; i++) {
+          if (!readNull(i)) {
+            doubles[i] = reader.getDouble();
+          }
+          reader.consume();
+        }
+        break;
+      case BOOLEAN:
+        for (int i = 0; i < count; i++) {
+          if (!readNull(i)) {
+            booleans[i] = reader.getBoolean();
+          }
+          reader.consume();
+        }
+        break;
+      default:
+        for (int i = 0; i < count; i++) {
+          binaries[i] = readNull(i) ? null : reader.getBinary();
+          reader.consume();
+        }
+        break;
+    }
+  }
+
+  private boolean readNull(int i) {
+    nulls[i] = reader.getCurrentDefinitionLevel() < maxDefinitionLevel;
+    return nulls[i];
+  }
+
+  public boolean isNull(int row) {
+    return nulls[row];
+  }
+
+  /**
+   * Compare a value with a value of the type of the column, the way Parquet compares the values in
+   * the statistics of the column.
+   *
+   * @param row the row of the value in this vector
+   * @param value an Integer, Long, Float, Double, Boolean or Binary depending on the column type
+   * @return a negative number, zero or a positive number if the value of the row is less than,
+   *     equal to or greater than the given value
+   */
+  public int compare(int row, Object value) {
+    return switch (typeName) {
+      case INT32 -> comparator.compare((int) longs[row], ((Integer) value).intValue());
+      case INT64 -> comparator.compare(longs[row], ((Long) value).longValue());
+      case FLOAT -> comparator.compare((float) doubles[row], ((Float) value).floatValue());
+      case DOUBLE -> comparator.compare(doubles[row], ((Double) value).doubleValue());
+      case BOOLEAN -> comparator.compare(booleans[row], ((Boolean) value).booleanValue());
+      default -> comparator.compare(binaries[row], (Binary) value);
+    };
+  }
+
+  /**
+   * Pass the value of a row to a converter, the same way the record reader does.
+   *
+   * @param row the row of the value in this vector, which is not null
+   * @param converter the converter to the Hop value
+   */
+  public void convert(int row, PrimitiveConverter converter) {
+    switch (typeName) {
+      case INT32 -> converter.addInt((int) longs[row]);
+      case INT64 -> converter.addLong(longs[row]);
+      case FLOAT -> converter.addFloat((float) doubles[row]);
+      case DOUBLE -> converter.addDouble(doubles[row]);
+      case BOOLEAN -> converter.addBoolean(booleans[row]);
+      default -> converter.addBinary(binaries[row]);
+    }
+  }
+}
@@ -0,0 +1,267 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.parquet.transforms.input;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.hop.core.RowMetaAndData;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowDataUtil;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.parquet.ParquetReadOptions;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.impl.ColumnReadStoreImpl;
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.io.InputFile;
+import org.apache.parquet.io.api.Converter;
+import org.apache.parquet.io.api.GroupConverter;
+import org.apache.parquet.io.api.PrimitiveConverter;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.Type;
+
+/**
+ * Reads the rows of a Parquet file a column at a time, without assembling records. For every row
+ * group the pages of the requested columns are decoded in batches into primitive arrays, the filter
+ * is evaluated on those arrays and only the matching rows are converted to Hop values.
+ *
+ * <p>Only the requested columns and the columns of the filter are read. Row groups and pages which
+ * can't match the filter are skipped by Parquet using their statistics, dictionaries and column
+ * indexes. This reader supports top level columns without repetition, other schemas are read with
+ * the record reader.
+ */
+public class ParquetColumnarReader implements Closeable {
+
+  /** The number of rows decoded per column in one go */
+  public static final int BATCH_SIZE = 4096;
+
+  /** Column readers need a converter but the values are read directly from the readers */
+  private static final GroupConverter NO_CONVERTER =
+      new GroupConverter() {
+        private final PrimitiveConverter primitiveConverter = new PrimitiveConverter() {};
+
+        @Override
+        public Converter getConverter(int fieldIndex) {
+          return primitiveConverter;
+        }
+
+        @Override
+        public void start() {
+          // Not used
+        }
+
+        @Override
+        public void end() {
+          // Not used
+        }
+      };
+
+  private final ParquetFileReader fileReader;
+  private final MessageType requestedSchema;
+  private final String createdBy;
+  private final ParquetFilterExpression filter;
+
+  private final IRowMeta rowMeta;
+  private final RowMetaAndData group;
+  private final ParquetColumnVector[] vectors;
+  private final ParquetColumnVector[] fieldVectors;
+  private final ParquetValueConverter[] converters;
+  private final ParquetColumnVector[] filterVectors;
+  private final int[] selection = new int[BATCH_SIZE];
+
+  /** The number of rows of the current row group which are not read yet */
+  private long rowsLeft;
+
+  private ParquetColumnarReader(
+      ParquetFileReader fileReader,
+      MessageType requestedSchema,
+      List<ParquetField> fields,
+      ParquetFilterExpression filter)
+      throws HopException {
+    this.fileReader = fileReader;
+    this.requestedSchema = requestedSchema;
+    this.createdBy = fileReader.getFileMetaData().getCreatedBy();
+    this.filter = filter;
+
+    Map<String, ParquetColumnVector> columnVectors = new LinkedHashMap<>();
+    for (ColumnDescriptor column : requestedSchema.getColumns()) {
+      columnVectors.put(column.getPath()[0], new ParquetColumnVector(column, BATCH_SIZE));
+    }
+    this.vectors = columnVectors.values().toArray(new ParquetColumnVector[0]);
+
+    rowMeta = new RowMeta();
+    for (ParquetField field : fields) {
+      rowMeta.addValueMeta(field.createValueMeta());
+    }
+    group = new RowMetaAndData(rowMeta, null);
+    fieldVectors = new ParquetColumnVector[fields.size()];
+    converters = new ParquetValueConverter[fields.size()];
+    for (int i = 0; i < fields.size(); i++) {
+      fieldVectors[i] = columnVectors.get(fields.get(i).getSourceField());
+      converters[i] =
+          new ParquetValueConverter(
+              group,
+              i,
+              fieldVectors[i].getDescriptor().getPrimitiveType().getLogicalTypeAnnotation());
+    }
+
+    if (filter == null) {
+      filterVectors = null;
+    } else {
+      filterVectors = new ParquetColumnVector[filter.getColumns().size()];
+      for (int i = 0; i < filterVectors.length; i++) {
+        filterVectors[i] = columnVectors.get(filter.getColumns().get(i));
+      }
+    }
+  }
+
+  /**
+   * Open a file for reading with column vectors.
+   *
+   * @param inputFile the file to read
+   * @param options the read options, with the filter and range of the file to read, if any
+   * @param fields the fields to read
+   * @param filter the filter bound to the schema of the file or null
+   * @return the reader or null if the file needs to be read with the record reader
+   * @throws IOException in case the file can't be opened
+   * @throws HopException in case a field isn't found in the file
+   */
+  public static ParquetColumnarReader open(
+      InputFile inputFile,
+      ParquetReadOptions options,
+      List<ParquetField> fields,
+      ParquetFilterExpression filter)
+      throws IOException, HopException {
+    if (fields.isEmpty()) {
+      return null;
+    }
+    ParquetFileReader fileReader = ParquetFileReader.open(inputFile, options);
+    try {
+      MessageType schema = fileReader.getFileMetaData().getSchema();
+
+      // The columns to read: the fields and the columns of the filter, in the order of the file
+      //
+      List<String> names = new ArrayList<>();
+      for (ParquetField field : fields) {
+        names.add(field.getSourceField());
+      }
+      if (filter != null) {
+        names.addAll(filter.getColumns());
+      }
+      for (String name : names) {
+        if (!schema.containsField(name)) {
+          throw new HopException("Error finding source field '" + name + "' in the input file");
+        }
+        Type type = schema.getType(name);
+        if (!type.isPrimitive() || type.isRepetition(Type.Repetition.REPEATED)) {
+          fileReader.close();
+          return null;
+        }
+      }
+      List<Type> projection = new ArrayList<>();
+      for (Type type : schema.getFields()) {
+        if (names.contains(type.getName())) {
+          projection.add(type);
+        }
+      }
+      MessageType requestedSchema = new MessageType(schema.getName(), projection);
+      fileReader.setRequestedSchema(requestedSchema);
+
+      return new ParquetColumnarReader(fileReader, requestedSchema, fields, filter);
+    } catch (IOException | HopException | RuntimeException e) {
+      fileReader.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Read the next batch of rows which match the filter.
+   *
+   * @return the values of the fields of the rows or null if there are no more rows
+   * @throws IOException in case of an error reading the file
+   */
+  public Object[][] nextBatch() throws IOException {
+    while (true) {
+      if (rowsLeft == 0 && !nextRowGroup()) {
+        return null;
+      }
+      int count = (int) Math.min(rowsLeft, BATCH_SIZE);
+      for (ParquetColumnVector vector : vectors) {
+        vector.read(count);
+      }
+      rowsLeft -= count;
+
+      int selected = 0;
+      for (int row = 0; row < count; row++) {
+        if (filter == null || filter.matches(filterVectors, row)) {
+          selection[selected++] = row;
+        }
+      }
+      if (selected == 0) {
+        continue;
+      }
+
+      Object[][] rows = new Object[selected][];
+      for (int i = 0; i < selected; i++) {
+        rows[i] = RowDataUtil.allocateRowData(rowMeta.size());
+      }
+
+      // Convert a column at a time
+      //
+      for (int f = 0; f < fieldVectors.length; f++) {
+        ParquetColumnVector vector = fieldVectors[f];
+        ParquetValueConverter converter = converters[f];
+        for (int i = 0; i < selected; i++) {
+          int row = selection[i];
+          if (!vector.isNull(row)) {
+            group.setData(rows[i]);
+            vector.convert(row, converter);
+          }
+        }
+      }
+      return rows;
+    }
+  }
+
+  private boolean nextRowGroup() throws IOException {
+    PageReadStore pages = fileReader.readNextFilteredRowGroup();
+    while (pages != null && pages.getRowCount() == 0) {
+      pages = fileReader.readNextFilteredRowGroup();
+    }
+    if (pages == null) {
+      return false;
+    }
+    ColumnReadStoreImpl columnReadStore =
+        new ColumnReadStoreImpl(pages, NO_CONVERTER, requestedSchema, createdBy);
+    for (ParquetColumnVector vector : vectors) {
+      vector.setReader(columnReadStore.getColumnReader(vector.getDescriptor()));
+    }
+    rowsLeft = pages.getRowCount();
+    return true;
+  }
+
+  @Override
+  public void close() throws IOException {
+    fileReader.close();
+  }
+}
@@ -0,0 +1,531 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.parquet.transforms.input;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.hop.core.exception.HopException;
+import org.apache.parquet.filter2.predicate.FilterApi;
+import org.apache.parquet.filter2.predicate.FilterPredicate;
+import org.apache.parquet.filter2.predicate.Operators.BooleanColumn;
+import org.apache.parquet.filter2.predicate.Operators.Column;
+import org.apache.parquet.filter2.predicate.Operators.SupportsLtGt;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.schema.LogicalTypeAnnotation.DateLogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.Type;
+
+/**
+ * A simple filter on the columns of a Parquet file, like <code>
+ * country = 'BE' AND (amount &gt;= 100 OR vip IS NOT NULL)</code>.
+ *
+ * <p>Conditions compare a top level column with a number, a 'string' or true/false, or test it with
+ * IS [NOT] NULL. They can be combined with AND, OR, NOT and parentheses. The filter is pushed down
+ * to Parquet to skip the row groups and pages which can't match using their statistics, and it can
+ * be evaluated on the decoded column vectors to select the matching rows.
+ *
+ * <p>Like in Parquet a null value doesn't match any comparison, except &lt;&gt;. Values are
+ * compared with the values stored in the file. A date column can be compared with a date like
+ * '2024-12-31'.
+ */
+public class ParquetFilterExpression {
+
+  public enum Operator {
+    EQUAL,
+    NOT_EQUAL,
+    LESS,
+    LESS_OR_EQUAL,
+    GREATER,
+    GREATER_OR_EQUAL;
+
+    /** The operator giving the opposite result for values which are not null */
+    Operator invert() {
+      return switch (this) {
+        case EQUAL -> NOT_EQUAL;
+        case NOT_EQUAL -> EQUAL;
+        case LESS -> GREATER_OR_EQUAL;
+        case LESS_OR_EQUAL -> GREATER;
+        case GREATER -> LESS_OR_EQUAL;
+        case GREATER_OR_EQUAL -> LESS;
+      };
+    }
+  }
+
+  private final String expression;
+  private final Node root;
+  private final List<String> columns;
+
+  private ParquetFilterExpression(String expression, Node root, List<String> columns) {
+    this.expression = expression;
+    this.root = root;
+    this.columns = columns;
+  }
+
+  /**
+   * Parse a filter expression.
+   *
+   * @param expression the expression to parse
+   * @return the parsed filter
+   * @throws HopException in case the expression is not valid
+   */
+  public static ParquetFilterExpression parse(String expression) throws HopException {
+    Parser parser = new Parser(expression);
+    Node root = parser.parseOr();
+    if (parser.peek() != null) {
+      throw parser.error("Unexpected '" + parser.peek().text() + "'");
+    }
+    return new ParquetFilterExpression(expression, root, parser.columns);
+  }
+
+  /**
+   * @return the names of the columns used in the filter, in the order of the column vectors passed
+   *     to {@link #matches(ParquetColumnVector[], int)}
+   */
+  public List<String> getColumns() {
+    return columns;
+  }
+
+  /**
+   * Bind the filter to the schema of a file: the values are converted to the types of the columns.
+   * This needs to be done for every file before rows are evaluated.
+   *
+   * @param schema the schema of the file
+   * @return the filter as a Parquet predicate
+   * @throws HopException in case a column isn't found or can't be compared with its value
+   */
+  public FilterPredicate bind(MessageType schema) throws HopException {
+    return root.bind(schema);
+  }
+
+  /**
+   * See if a row matches the filter.
+   *
+   * @param vectors the vectors of the columns of the filter, see {@link #getColumns()}
+   * @param row the index of the row in the vectors
+   * @return true if the row matches the filter
+   */
+  public boolean matches(ParquetColumnVector[] vectors, int row) {
+    return root.matches(vectors, row);
+  }
+
+  @Override
+  public String toString() {
+    return expression;
+  }
+
+  private interface Node {
+    FilterPredicate bind(MessageType schema) throws HopException;
+
+    boolean matches(ParquetColumnVector[] vectors, int row);
+
+    /**
+     * NOT is pushed down to the comparisons, the way Parquet does it, so that rows with null values
+     * are evaluated the same way as in the row group and page filters.
+     */
+    Node invert();
+  }
+
+  private record And(Node left, Node right) implements Node {
+    @Override
+    public FilterPredicate bind(MessageType schema) throws HopException {
+      return FilterApi.and(left.bind(schema), right.bind(schema));
+    }
+
+    @Override
+    public boolean matches(ParquetColumnVector[] vectors, int row) {
+      return left.matches(vectors, row) && right.matches(vectors, row);
+    }
+
+    @Override
+    public Node invert() {
+      return new Or(left.invert(), right.invert());
+    }
+  }
+
+  private record Or(Node left, Node right) implements Node {
+    @Override
+    public FilterPredicate bind(MessageType schema) throws HopException {
+      return FilterApi.or(left.bind(schema), right.bind(schema));
+    }
+
+    @Override
+    public boolean matches(ParquetColumnVector[] vectors, int row) {
+      return left.matches(vectors, row) || right.matches(vectors, row);
+    }
+
+    @Override
+    public Node invert() {
+      return new And(left.invert(), right.invert());
+    }
+  }
+
+  /** A column compared with a value. A null value is used for IS NULL and IS NOT NULL. */
+  private static final class Comparison implements Node {
+    private final String column;
+    private final int columnIndex;
+    private final Operator operator;
+    private final String literal;
+    private final boolean quoted;
+
+    /** The literal converted to the type of the column by bind() */
+    private Object value;
+
+    private Comparison(
+        String column, int columnIndex, Operator operator, String literal, boolean quoted) {
+      this.column = column;
+      this.columnIndex = columnIndex;
+      this.operator = operator;
+      this.literal = literal;
+      this.quoted = quoted;
+    }
+
+    @Override
+    public Node invert() {
+      return new Comparison(column, columnIndex, operator.invert(), literal, quoted);
+    }
+
+    @Override
+    public boolean matches(ParquetColumnVector[] vectors, int row) {
+      ParquetColumnVector vector = vectors[columnIndex];
+      if (value == null) {
+        return vector.isNull(row) == (operator == Operator.EQUAL);
+      }
+      if (vector.isNull(row)) {
+        return operator == Operator.NOT_EQUAL;
+      }
+      int compare = vector.compare(row, value);
+      return switch (operator) {
+        case EQUAL -> compare == 0;
+        case NOT_EQUAL -> compare != 0;
+        case LESS -> compare < 0;
+        case LESS_OR_EQUAL -> compare <= 0;
+        case GREATER -> compare > 0;
+        case GREATER_OR_EQUAL -> compare >= 0;
+      };
+    }
+
+    @Override
+    public FilterPredicate bind(MessageType schema) throws HopException {
+      Type type = schema.containsField(column) ? schema.getType(column) : null;
+      if (type == null) {
+        throw new HopException("Unable to find filter column '" + column + "' in the file");
+      }
+      if (!type.isPrimitive() || type.isRepetition(Type.Repetition.REPEATED)) {
+        throw new HopException(
+            "Filter column '" + column + "' is not a simple column and can't be filtered on");
+      }
+      PrimitiveType primitiveType = type.asPrimitiveType();
+      value = literal == null ? null : convert(primitiveType);
+
+      return switch (primitiveType.getPrimitiveTypeName()) {
+        case INT32 -> predicate(FilterApi.intColumn(column), (Integer) value);
+        case INT64 -> predicate(FilterApi.longColumn(column), (Long) value);
+        case FLOAT -> predicate(FilterApi.floatColumn(column), (Float) value);
+        case DOUBLE -> predicate(FilterApi.doubleColumn(column), (Double) value);
+        case BOOLEAN -> predicate(FilterApi.booleanColumn(column), (Boolean) value);
+        default -> predicate(FilterApi.binaryColumn(column), (Binary) value);
+      };
+    }
+
+    private Object convert(PrimitiveType type) throws HopException {
+      try {
+        return switch (type.getPrimitiveTypeName()) {
+          case INT32 -> {
+            if (quoted && type.getLogicalTypeAnnotation() instanceof DateLogicalTypeAnnotation) {
+              yield Integer.valueOf((int) LocalDate.parse(literal).toEpochDay());
+            }
+            yield Integer.valueOf(literal);
+          }
+          case INT64 -> Long.valueOf(literal);
+          case FLOAT -> Float.valueOf(literal);
+          case DOUBLE -> Double.valueOf(literal);
+          case BOOLEAN -> {
+            if (!"true".equalsIgnoreCase(literal) && !"false".equalsIgnoreCase(literal)) {
+              throw new NumberFormatException("Not a boolean: " + literal);
+            }
+            yield Boolean.valueOf(literal);
+          }
+          case BINARY, FIXED_LEN_BYTE_ARRAY -> Binary.fromString(literal);
+          default ->
+              throw new HopException(
+                  "Filter column '" + column + "' of type INT96 can't be filtered on");
+        };
+      } catch (NumberFormatException | DateTimeParseException e) {
+        throw new HopException(
+            "Unable to compare filter column '" + column + "' with value '" + literal + "'", e);
+      }
+    }
+
+    private <T extends Comparable<T>, C extends Column<T> & SupportsLtGt> FilterPredicate predicate(
+        C filterColumn, T filterValue) {
+      return switch (operator) {
+        case EQUAL -> FilterApi.eq(filterColumn, filterValue);
+        case NOT_EQUAL -> FilterApi.notEq(filterColumn, filterValue);
+        case LESS -> FilterApi.lt(filterColumn, filterValue);
+        case LESS_OR_EQUAL -> FilterApi.ltEq(filterColumn, filterValue);
+        case GREATER -> FilterApi.gt(filterColumn, filterValue);
+        case GREATER_OR_EQUAL -> FilterApi.gtEq(filterColumn, filterValue);
+      };
+    }
+
+    private FilterPredicate predicate(BooleanColumn filterColumn, Boolean filterValue)
+        throws HopException {
+      return switch (operator) {
+        case EQUAL -> FilterApi.eq(filterColumn, filterValue);
+        case NOT_EQUAL -> FilterApi.notEq(filterColumn, filterValue);
+        default ->
+            throw new HopException(
+                "Boolean filter column '" + column + "' can only be compared with = or <>");
+      };
+    }
+  }
+
+  private enum TokenType {
+    WORD,
+    QUOTED_NAME,
+    STRING,
+    NUMBER,
+    OPERATOR,
+    OPEN,
+    CLOSE
+  }
+
+  private record Token(TokenType type, String text, int position) {
+    boolean isKeyword(String keyword) {
+      return type == TokenType.WORD && text.equalsIgnoreCase(keyword);
+    }
+  }
+
+  /** A recursive descent parser: OR binds weaker than AND, AND binds weaker than NOT. */
+  private static final class Parser {
+    private final String expression;
+    private final List<Token> tokens;
+    private final List<String> columns = new ArrayList<>();
+    private int index;
+
+    Parser(String expression) throws HopException {
+      this.expression = expression;
+      this.tokens = tokenize(expression);
+    }
+
+    Token peek() {
+      return index < tokens.size() ? tokens.get(index) : null;
+    }
+
+    Token next() throws HopException {
+      Token token = peek();
+      if (token == null) {
+        throw error("Unexpected end of the expression");
+      }
+      index++;
+      return token;
+    }
+
+    boolean accept(String keyword) {
+      Token token = peek();
+      if (token != null && token.isKeyword(keyword)) {
+        index++;
+        return true;
+      }
+      return false;
+    }
+
+    HopException error(String message) {
+      Token token = peek();
+      int position = token == null ? expression.length() : token.position();
+      return new HopException(
+          message + " at position " + (position + 1) + " of filter '" + expression + "'");
+    }
+
+    Node parseOr() throws HopException {
+      Node node = parseAnd();
+      while (accept("OR")) {
+        node = new Or(node, parseAnd());
+      }
+      return node;
+    }
+
+    Node parseAnd() throws HopException {
+      Node node = parseNot();
+      while (accept("AND")) {
+        node = new And(node, parseNot());
+      }
+      return node;
+    }
+
+    Node parseNot() throws HopException {
+      if (accept("NOT")) {
+        return parseNot().invert();
+      }
+      Token token = peek();
+      if (token != null && token.type() == TokenType.OPEN) {
+        index++;
+        Node node = parseOr();
+        if (peek() == null || next().type() != TokenType.CLOSE) {
+          throw error("Expected ')'");
+        }
+        return node;
+      }
+      return parseComparison();
+    }
+
+    Node parseComparison() throws HopException {
+      Token name = next();
+      if (name.type() != TokenType.QUOTED_NAME
+          && (name.type() != TokenType.WORD || isReserved(name.text()))) {
+        index--;
+        throw error("Expected a column name");
+      }
+      String column = name.text();
+      int columnIndex = columns.indexOf(column);
+      if (columnIndex < 0) {
+        columnIndex = columns.size();
+        columns.add(column);
+      }
+
+      if (accept("IS")) {
+        boolean not = accept("NOT");
+        if (!accept("NULL")) {
+          throw error("Expected NULL");
+        }
+        Operator operator = not ? Operator.NOT_EQUAL : Operator.EQUAL;
+        return new Comparison(column, columnIndex, operator, null, false);
+      }
+
+      Token operatorToken = next();
+      if (operatorToken.type() != TokenType.OPERATOR) {
+        index--;
+        throw error("Expected a comparison operator");
+      }
+      Operator operator =
+          switch (operatorToken.text()) {
+            case "=" -> Operator.EQUAL;
+            case "<>", "!=" -> Operator.NOT_EQUAL;
+            case "<" -> Operator.LESS;
+            case "<=" -> Operator.LESS_OR_EQUAL;
+            case ">" -> Operator.GREATER;
+            default -> Operator.GREATER_OR_EQUAL;
+          };
+
+      Token value = next();
+      boolean valid =
+          switch (value.type()) {
+            case STRING, NUMBER -> true;
+            case WORD -> value.isKeyword("TRUE") || value.isKeyword("FALSE");
+            default -> false;
+          };
+      if (!valid) {
+        index--;
+        throw error("Expected a value");
+      }
+      return new Comparison(
+          column, columnIndex, operator, value.text(), value.type() == TokenType.STRING);
+    }
+
+    private static boolean isReserved(String word) {
+      for (String keyword : new String[] {"AND", "OR", "NOT", "IS", "NULL", "TRUE", "FALSE"}) {
+        if (keyword.equalsIgnoreCase(word)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private static List<Token> tokenize(String expression) throws HopException {
+      List<Token> tokens = new ArrayList<>();
+      int i = 0;
+      while (i < expression.length()) {
+        char c = expression.charAt(i);
+        int start = i;
+        if (Character.isWhitespace(c)) {
+          i++;
+        } else if (c == '(' || c == ')') {
+          tokens.add(new Token(c == '(' ? TokenType.OPEN : TokenType.CLOSE, "" + c, start));
+          i++;
+        } else if (c == '=' || c == '<' || c == '>' || c == '!') {
+          i++;
+          if (i < expression.length()
+              && (expression.charAt(i) == '=' || (c == '<' && expression.charAt(i) == '>'))) {
+            i++;
+          }
+          String operator = expression.substring(start, i);
+          if (operator.equals("!")) {
+            throw new HopException(
+                "Unexpected '!' at position " + (start + 1) + " of filter '" + expression + "'");
+          }
+          tokens.add(new Token(TokenType.OPERATOR, operator, start));
+        } else if (c == '\'' || c == '"') {
+          // Quotes are escaped by doubling them
+          //
+          StringBuilder text = new StringBuilder();
+          i++;
+          while (true) {
+            if (i >= expression.length()) {
+              throw new HopException(
+                  "Unterminated quote at position "
+                      + (start + 1)
+                      + " of filter '"
+                      + expression
+                      + "'");
+            }
+            char q = expression.charAt(i++);
+            if (q == c) {
+              if (i < expression.length() && expression.charAt(i) == c) {
+                i++;
+              } else {
+                break;
+              }
+            }
+            text.append(q);
+          }
+          TokenType type = c == '\'' ? TokenType.STRING : TokenType.QUOTED_NAME;
+          tokens.add(new Token(type, text.toString(), start));
+        } else if (Character.isDigit(c) || c == '-' || c == '+' || c == '.') {
+          i++;
+          while (i < expression.length()
+              && (Character.isLetterOrDigit(expression.charAt(i))
+                  || expression.charAt(i) == '.'
+                  || ((expression.charAt(i) == '-' || expression.charAt(i) == '+')
+                      && Character.toLowerCase(expression.charAt(i - 1)) == 'e'))) {
+            i++;
+          }
+          tokens.add(new Token(TokenType.NUMBER, expression.substring(start, i), start));
+        } else if (Character.isLetter(c) || c == '_') {
+          while (i < expression.length()
+              && (Character.isLetterOrDigit(expression.charAt(i)) || expression.charAt(i) == '_')) {
+            i++;
+          }
+          tokens.add(new Token(TokenType.WORD, expression.substring(start, i), start));
+        } else {
+          throw new HopException(
+              "Unexpected '"
+                  + c
+                  + "' at position "
+                  + (start + 1)
+                  + " of filter '"
+                  + expression
+                  + "'");
+        }
+      }
+      return tokens;
+    }
+  }
+}
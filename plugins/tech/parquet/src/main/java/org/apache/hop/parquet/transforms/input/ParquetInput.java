@@ -20,6 +20,7 @@ package org.apache.hop.parquet.transforms.input;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.exception.HopException;
@@ -33,6 +34,13 @@ import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
 import org.apache.hop.pipeline.transform.BaseTransform;
 import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.parquet.ParquetReadOptions;
+import org.apache.parquet.filter2.compat.FilterCompat;
+import org.apache.parquet.filter2.predicate.FilterPredicate;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.ParquetReader;
+import org.apache.parquet.io.InputFile;
+import org.apache.parquet.schema.MessageType;
 
 public class ParquetInput extends BaseTransform<ParquetInputMeta, ParquetInputData> {
   public ParquetInput(
@@ -74,6 +82,12 @@ public class ParquetInput extends BaseTransform<ParquetInputMeta, ParquetInputDa
 
       data.outputRowMeta = getInputRowMeta().clone();
       meta.getFields(data.outputRowMeta, getTransformName(), null, null, this, metadataProvider);
+
+      String filterExpression = resolve(meta.getFilterExpression());
+      if (StringUtils.isNotEmpty(filterExpression)) {
+        data.filter = ParquetFilterExpression.parse(filterExpression);
+      }
+      data.nrCopies = meta.isRunningInParallel() ? getTransformMeta().getCopies(this) : 1;
     }
 
     // Skip null values for file names
@@ -119,8 +133,64 @@ public class ParquetInput extends BaseTransform<ParquetInputMeta, ParquetInputDa
 
       ParquetStream inputFile = new ParquetStream(fileObject, filename);
 
-      ParquetReadSupport readSupport = new ParquetReadSupport(fields);
-      data.reader = new ParquetReaderBuilder<>(readSupport, inputFile).build();
+      // When running in parallel, every copy reads the row groups with their middle in its part
+      // of the file
+      //
+      long start = size * getCopyNr() / data.nrCopies;
+      long end = size * (getCopyNr() + 1) / data.nrCopies;
+
+      // The filter is pushed down to skip row groups and pages using their statistics
+      //
+      FilterPredicate predicate = null;
+      if (data.filter != null) {
+        predicate = data.filter.bind(readSchema(inputFile));
+      }
+
+      if (meta.isColumnarReader()) {
+        ParquetReadOptions.Builder options = ParquetReadOptions.builder();
+        if (data.nrCopies > 1) {
+          options.withRange(start, end);
+        }
+        if (predicate != null) {
+          options.withRecordFilter(FilterCompat.get(predicate));
+        }
+        data.columnarReader =
+            ParquetColumnarReader.open(inputFile, options.build(), fields, data.filter);
+        if (data.columnarReader == null && isDetailed()) {
+          logDetailed("Reading nested or repeated columns of file " + filename + " as records");
+        }
+      }
+
+      if (data.columnarReader != null) {
+        try {
+          Object[][] rows = data.columnarReader.nextBatch();
+          while (rows != null && !isStopped()) {
+            for (Object[] r : rows) {
+              incrementLinesInput();
+              Object[] outputRow = RowDataUtil.addRowData(row, getInputRowMeta().size(), r);
+              putRow(data.outputRowMeta, outputRow);
+            }
+            rows = data.columnarReader.nextBatch();
+          }
+        } finally {
+          data.columnarReader.close();
+          data.columnarReader = null;
+        }
+        return true;
+      }
+
+      List<String> filterColumns =
+          data.filter == null ? new ArrayList<>() : data.filter.getColumns();
+      ParquetReadSupport readSupport = new ParquetReadSupport(fields, filterColumns);
+      ParquetReader.Builder<RowMetaAndData> builder =
+          new ParquetReaderBuilder<>(readSupport, inputFile);
+      if (data.nrCopies > 1) {
+        builder.withFileRange(start, end);
+      }
+      if (predicate != null) {
+        builder.withFilter(FilterCompat.get(predicate));
+      }
+      data.reader = builder.build();
 
       RowMetaAndData r = data.reader.read();
       while (r != null && !isStopped()) {
@@ -138,7 +208,22 @@ public class ParquetInput extends BaseTransform<ParquetInputMeta, ParquetInputDa
     return true;
   }
 
+  /** Read the schema from the footer of a file */
+  private static MessageType readSchema(InputFile inputFile) throws IOException {
+    try (ParquetFileReader fileReader = ParquetFileReader.open(inputFile)) {
+      return fileReader.getFileMetaData().getSchema();
+    }
+  }
+
   public void closeFile() {
+    if (data.columnarReader != null) {
+      try {
+        data.columnarReader.close();
+      } catch (IOException e) {
+        logError("Unable to properly close parquet reader!");
+      }
+      data.columnarReader = null;
+    }
     if (!data.readerClosed && data.reader != null) {
       try {
         data.reader.close();
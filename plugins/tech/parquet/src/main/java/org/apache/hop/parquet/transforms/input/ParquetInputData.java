@@ -31,6 +31,9 @@ public class ParquetInputData extends BaseTransformData implements ITransformDat
   public ParquetReader<RowMetaAndData> reader;
   public ParquetStream parquetStream;
   public boolean readerClosed = false;
+  public ParquetColumnarReader columnarReader;
+  public ParquetFilterExpression filter;
+  public int nrCopies;
 
   public ParquetInputData() {
     super();
@@ -49,6 +49,9 @@ public class ParquetInputDialog extends BaseTransformDialog {
   private Combo wFilenameField;
   private TextVar wMetaFilename;
   private Button wNullWhenEmpty;
+  private Button wColumnarReader;
+  private TextVar wFilterExpression;
+  private Button wRunningInParallel;
   private TableView wFields;
 
   private String returnValue;
@@ -121,6 +124,72 @@ public class ParquetInputDialog extends BaseTransformDialog {
     wNullWhenEmpty.setLayoutData(fdNullWhenEmpty);
     lastControl = wNullWhenEmpty;
 
+    Label wlColumnarReader = new Label(shell, SWT.RIGHT);
+    wlColumnarReader.setText(
+        BaseMessages.getString(PKG, "ParquetInputDialog.ColumnarReader.Label"));
+    wlColumnarReader.setToolTipText(
+        BaseMessages.getString(PKG, "ParquetInputDialog.ColumnarReader.Tooltip"));
+    PropsUi.setLook(wlColumnarReader);
+    FormData fdlColumnarReader = new FormData();
+    fdlColumnarReader.left = new FormAttachment(0, 0);
+    fdlColumnarReader.right = new FormAttachment(middle, -margin);
+    fdlColumnarReader.top = new FormAttachment(lastControl, margin);
+    wlColumnarReader.setLayoutData(fdlColumnarReader);
+    wColumnarReader = new Button(shell, SWT.CHECK);
+    wColumnarReader.setToolTipText(
+        BaseMessages.getString(PKG, "ParquetInputDialog.ColumnarReader.Tooltip"));
+    PropsUi.setLook(wColumnarReader);
+    FormData fdColumnarReader = new FormData();
+    fdColumnarReader.left = new FormAttachment(middle, 0);
+    fdColumnarReader.top = new FormAttachment(wlColumnarReader, 0, SWT.CENTER);
+    fdColumnarReader.right = new FormAttachment(100, 0);
+    wColumnarReader.setLayoutData(fdColumnarReader);
+    lastControl = wColumnarReader;
+
+    Label wlFilterExpression = new Label(shell, SWT.RIGHT);
+    wlFilterExpression.setText(
+        BaseMessages.getString(PKG, "ParquetInputDialog.FilterExpression.Label"));
+    wlFilterExpression.setToolTipText(
+        BaseMessages.getString(PKG, "ParquetInputDialog.FilterExpression.Tooltip"));
+    PropsUi.setLook(wlFilterExpression);
+    FormData fdlFilterExpression = new FormData();
+    fdlFilterExpression.left = new FormAttachment(0, 0);
+    fdlFilterExpression.right = new FormAttachment(middle, -margin);
+    fdlFilterExpression.top = new FormAttachment(lastControl, margin);
+    wlFilterExpression.setLayoutData(fdlFilterExpression);
+    wFilterExpression = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    wFilterExpression.setToolTipText(
+        BaseMessages.getString(PKG, "ParquetInputDialog.FilterExpression.Tooltip"));
+    PropsUi.setLook(wFilterExpression);
+    FormData fdFilterExpression = new FormData();
+    fdFilterExpression.left = new FormAttachment(middle, 0);
+    fdFilterExpression.top = new FormAttachment(wlFilterExpression, 0, SWT.CENTER);
+    fdFilterExpression.right = new FormAttachment(100, 0);
+    wFilterExpression.setLayoutData(fdFilterExpression);
+    lastControl = wFilterExpression;
+
+    Label wlRunningInParallel = new Label(shell, SWT.RIGHT);
+    wlRunningInParallel.setText(
+        BaseMessages.getString(PKG, "ParquetInputDialog.RunningInParallel.Label"));
+    wlRunningInParallel.setToolTipText(
+        BaseMessages.getString(PKG, "ParquetInputDialog.RunningInParallel.Tooltip"));
+    PropsUi.setLook(wlRunningInParallel);
+    FormData fdlRunningInParallel = new FormData();
+    fdlRunningInParallel.left = new FormAttachment(0, 0);
+    fdlRunningInParallel.right = new FormAttachment(middle, -margin);
+    fdlRunningInParallel.top = new FormAttachment(lastControl, margin);
+    wlRunningInParallel.setLayoutData(fdlRunningInParallel);
+    wRunningInParallel = new Button(shell, SWT.CHECK);
+    wRunningInParallel.setToolTipText(
+        BaseMessages.getString(PKG, "ParquetInputDialog.RunningInParallel.Tooltip"));
+    PropsUi.setLook(wRunningInParallel);
+    FormData fdRunningInParallel = new FormData();
+    fdRunningInParallel.left = new FormAttachment(middle, 0);
+    fdRunningInParallel.top = new FormAttachment(wlRunningInParallel, 0, SWT.CENTER);
+    fdRunningInParallel.right = new FormAttachment(100, 0);
+    wRunningInParallel.setLayoutData(fdRunningInParallel);
+    lastControl = wRunningInParallel;
+
     Label wlFields = new Label(shell, SWT.LEFT);
     wlFields.setText(BaseMessages.getString(PKG, "ParquetInputDialog.Fields.Label"));
     PropsUi.setLook(wlFields);
@@ -209,6 +278,9 @@ public class ParquetInputDialog extends BaseTransformDialog {
     wFilenameField.setText(Const.NVL(input.getFilenameField(), ""));
     wMetaFilename.setText(Const.NVL(input.getMetadataFilename(), ""));
     wNullWhenEmpty.setSelection(input.isSendingNullsRowWhenEmpty());
+    wColumnarReader.setSelection(input.isColumnarReader());
+    wFilterExpression.setText(Const.NVL(input.getFilterExpression(), ""));
+    wRunningInParallel.setSelection(input.isRunningInParallel());
     for (int i = 0; i < input.getFields().size(); i++) {
       ParquetField field = input.getFields().get(i);
       TableItem item = wFields.table.getItem(i);
@@ -234,6 +306,9 @@ public class ParquetInputDialog extends BaseTransformDialog {
     meta.setFilenameField(wFilenameField.getText());
     meta.setMetadataFilename(wMetaFilename.getText());
     meta.setSendingNullsRowWhenEmpty(wNullWhenEmpty.getSelection());
+    meta.setColumnarReader(wColumnarReader.getSelection());
+    meta.setFilterExpression(wFilterExpression.getText());
+    meta.setRunningInParallel(wRunningInParallel.getSelection());
     meta.getFields().clear();
     for (TableItem item : wFields.getNonEmptyItems()) {
       int index = 1;
@@ -70,6 +70,18 @@ public class ParquetInputMeta extends BaseTransformMeta<ParquetInput, ParquetInp
   @HopMetadataProperty(key = "nulls_when_empty")
   private boolean sendingNullsRowWhenEmpty;
 
+  /** Read the files a column at a time instead of assembling records */
+  @HopMetadataProperty(key = "columnar_reader")
+  private boolean columnarReader;
+
+  /** Only read the rows matching this filter, see {@link ParquetFilterExpression} */
+  @HopMetadataProperty(key = "filter_expression")
+  private String filterExpression;
+
+  /** Divide the row groups of every file over the copies of the transform */
+  @HopMetadataProperty(key = "running_in_parallel")
+  private boolean runningInParallel;
+
   @HopMetadataProperty(groupKey = "fields", key = "field")
   private List<ParquetField> fields;
 
@@ -17,6 +17,7 @@
 
 package org.apache.hop.parquet.transforms.input;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -27,13 +28,24 @@ import org.apache.parquet.hadoop.api.InitContext;
 import org.apache.parquet.hadoop.api.ReadSupport;
 import org.apache.parquet.io.api.RecordMaterializer;
 import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.Type;
 
 public class ParquetReadSupport extends ReadSupport<RowMetaAndData> {
 
   private List<ParquetField> fields;
+  private List<String> filterColumns;
 
   public ParquetReadSupport(List<ParquetField> fields) {
+    this(fields, new ArrayList<>());
+  }
+
+  /**
+   * @param fields the fields to read, all columns are read if there are none
+   * @param filterColumns the columns needed to filter the rows
+   */
+  public ParquetReadSupport(List<ParquetField> fields, List<String> filterColumns) {
     this.fields = fields;
+    this.filterColumns = filterColumns;
   }
 
   @Getter private MessageType messageType;
@@ -41,7 +53,25 @@ public class ParquetReadSupport extends ReadSupport<RowMetaAndData> {
   @Override
   public ReadContext init(InitContext context) {
     this.messageType = context.getFileSchema();
-    return new ReadContext(messageType, new HashMap<>());
+    return new ReadContext(getRequestedSchema(), new HashMap<>());
+  }
+
+  /** Only read the columns of the fields and the filter */
+  private MessageType getRequestedSchema() {
+    if (fields.isEmpty()) {
+      return messageType;
+    }
+    List<Type> projection = new ArrayList<>();
+    for (Type type : messageType.getFields()) {
+      boolean requested = filterColumns.contains(type.getName());
+      for (ParquetField field : fields) {
+        requested |= type.getName().equals(field.getSourceField());
+      }
+      if (requested) {
+        projection.add(type);
+      }
+    }
+    return new MessageType(messageType.getName(), projection);
   }
 
   @Override
@@ -50,6 +80,6 @@ public class ParquetReadSupport extends ReadSupport<RowMetaAndData> {
       Map<String, String> keyValueMetaData,
       MessageType messageType,
       ReadContext readContext) {
-    return new ParquetRecordMaterializer(messageType, fields);
+    return new ParquetRecordMaterializer(readContext.getRequestedSchema(), fields);
   }
 }
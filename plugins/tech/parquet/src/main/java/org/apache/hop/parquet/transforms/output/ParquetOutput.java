@@ -22,13 +22,13 @@ import java.text.DecimalFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import org.apache.avro.LogicalTypes;
 import org.apache.avro.Schema;
 import org.apache.avro.SchemaBuilder;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hop.core.Const;
-import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.io.CountingOutputStream;
 import org.apache.hop.core.row.IRowMeta;
@@ -49,6 +49,9 @@ import org.apache.parquet.schema.MessageType;
 
 public class ParquetOutput extends BaseTransform<ParquetOutputMeta, ParquetOutputData> {
 
+  /** The number of rolled over files which can be finishing in the background */
+  private static final int MAX_FILES_FINISHING = 2;
+
   public ParquetOutput(
       TransformMeta transformMeta,
       ParquetOutputMeta meta,
@@ -73,6 +76,7 @@ public class ParquetOutput extends BaseTransform<ParquetOutputMeta, ParquetOutpu
         Const.toIntExpanded(
             resolve(meta.getRowGroupSize()), ParquetProperties.DEFAULT_PAGE_ROW_COUNT_LIMIT);
     data.maxSplitSizeRows = Const.toLongExpanded(resolve(meta.getFileSplitSize()), -1);
+    data.maxSplitSizeBytes = Const.toLongExpanded(resolve(meta.getFileSplitBytes()), -1);
 
     return super.init();
   }
@@ -95,37 +99,23 @@ public class ParquetOutput extends BaseTransform<ParquetOutputMeta, ParquetOutpu
     if (first) {
       first = false;
       resolveOutputFields();
+      data.parquetRowMeta = buildParquetRowMeta(getInputRowMeta(), data.sourceFieldIndexes);
       openNewFile();
     }
 
     // See if we don't need to create a new file split into parts...
     //
-    if (meta.isFilenameIncludingSplitNr()
-        && data.maxSplitSizeRows > 0
-        && data.splitRowCount >= data.maxSplitSizeRows) {
-      // Close file and start a new one...
+    if (meta.isFilenameIncludingSplitNr() && isSplitSizeReached()) {
+      // Let the file finish and start a new one...
       //
-      closeFile();
+      rollFile();
       openNewFile();
     }
 
     // Write the row, handled by class ParquetWriteSupport
     //
     try {
-      IRowMeta parquetRowMeta = getInputRowMeta().clone();
-
-      // convert date/timestamp => long
-      for (int i = 0; i < data.sourceFieldIndexes.size(); i++) {
-        int idx = data.sourceFieldIndexes.get(i);
-        IValueMeta valueMeta = parquetRowMeta.getValueMeta(idx);
-        if (valueMeta.getType() == IValueMeta.TYPE_TIMESTAMP) {
-          // Update of type meta
-          IValueMeta longMeta = new ValueMetaInteger(valueMeta.getName());
-          longMeta.setConversionMask(valueMeta.getConversionMask());
-          longMeta.setLength(valueMeta.getLength(), valueMeta.getPrecision());
-          parquetRowMeta.setValueMeta(idx, longMeta);
-        }
-      }
+      IRowMeta parquetRowMeta = data.parquetRowMeta;
 
       // Clone Rows and convert Date & Timetims to Long
       Object[] parquetRow = row.clone();
@@ -145,7 +135,7 @@ public class ParquetOutput extends BaseTransform<ParquetOutputMeta, ParquetOutpu
         }
       }
 
-      data.writer.write(new RowMetaAndData(parquetRowMeta, parquetRow));
+      data.rowWriter.write(parquetRow);
       incrementLinesOutput();
       data.splitRowCount++;
     } catch (Exception e) {
@@ -156,6 +146,29 @@ public class ParquetOutput extends BaseTransform<ParquetOutputMeta, ParquetOutpu
     return true;
   }
 
+  /** The layout of the rows handed to the writer: timestamps are converted to long */
+  static IRowMeta buildParquetRowMeta(IRowMeta inputRowMeta, List<Integer> sourceFieldIndexes) {
+    IRowMeta parquetRowMeta = inputRowMeta.clone();
+    for (int i : sourceFieldIndexes) {
+      IValueMeta valueMeta = parquetRowMeta.getValueMeta(i);
+      if (valueMeta.getType() == IValueMeta.TYPE_TIMESTAMP) {
+        // Update of type meta
+        IValueMeta longMeta = new ValueMetaInteger(valueMeta.getName());
+        longMeta.setConversionMask(valueMeta.getConversionMask());
+        longMeta.setLength(valueMeta.getLength(), valueMeta.getPrecision());
+        parquetRowMeta.setValueMeta(i, longMeta);
+      }
+    }
+    return parquetRowMeta;
+  }
+
+  private boolean isSplitSizeReached() {
+    if (data.maxSplitSizeRows > 0 && data.splitRowCount >= data.maxSplitSizeRows) {
+      return true;
+    }
+    return data.maxSplitSizeBytes > 0 && data.rowWriter.getDataSize() >= data.maxSplitSizeBytes;
+  }
+
   private void openNewFile() throws HopException {
     data.splitRowCount = 0;
     data.split++;
@@ -249,7 +262,7 @@ public class ParquetOutput extends BaseTransform<ParquetOutputMeta, ParquetOutpu
       data.countingStream = new CountingOutputStream(data.outputStream);
       data.outputFile = new ParquetOutputFile(data.countingStream);
 
-      data.writer =
+      ParquetWriterBuilder writerBuilder =
           new ParquetWriterBuilder(
                   messageType,
                   data.avroSchema,
@@ -262,8 +275,27 @@ public class ParquetOutput extends BaseTransform<ParquetOutputMeta, ParquetOutpu
               .withCompressionCodec(meta.getCompressionCodec())
               .withRowGroupSize(data.rowGroupSize)
               .withWriterVersion(data.props.getWriterVersion())
-              .withWriteMode(ParquetFileWriter.Mode.CREATE)
-              .build();
+              .withWriteMode(ParquetFileWriter.Mode.CREATE);
+
+      // Dictionary encoding and bloom filters per column
+      //
+      for (ParquetField field : data.outputFields) {
+        String column = field.getTargetFieldName();
+        if (field.isDictionaryDisabled()) {
+          writerBuilder = writerBuilder.withDictionaryEncoding(column, false);
+        }
+        if (field.isBloomFilter()) {
+          writerBuilder = writerBuilder.withBloomFilterEnabled(column, true);
+          long ndv = Const.toLongExpanded(resolve(field.getBloomFilterNdv()), -1);
+          if (ndv > 0) {
+            writerBuilder = writerBuilder.withBloomFilterNDV(column, ndv);
+          }
+        }
+      }
+      data.writer = writerBuilder.build();
+      data.rowWriter =
+          new ParquetRowWriter(
+              data.writer, data.parquetRowMeta, data.countingStream, meta.isWritingInBackground());
 
     } catch (Exception e) {
       throw new HopException("Unable to create output file '" + data.filename + "'", e);
@@ -289,8 +321,10 @@ public class ParquetOutput extends BaseTransform<ParquetOutputMeta, ParquetOutpu
       if (index < 0) {
         throw new HopException("Unable to find source field '" + field.getSourceFieldName() + "'");
       }
-      String targetFieldName = Const.NVL(field.getTargetFieldName(), field.getSourceFieldName());
-      data.outputFields.add(new ParquetField(field.getSourceFieldName(), targetFieldName));
+      ParquetField outputField = new ParquetField(field);
+      outputField.setTargetFieldName(
+          Const.NVL(field.getTargetFieldName(), field.getSourceFieldName()));
+      data.outputFields.add(outputField);
       data.sourceFieldIndexes.add(index);
     }
   }
@@ -330,15 +364,47 @@ public class ParquetOutput extends BaseTransform<ParquetOutputMeta, ParquetOutpu
     return filename;
   }
 
+  /**
+   * Let the current file finish, in the background if possible. To limit the memory used, this
+   * waits for the oldest files when too many are finishing.
+   */
+  private void rollFile() throws HopException {
+    try {
+      data.rowWriter.finish();
+      data.finishingFiles.add(
+          new ParquetOutputData.FinishingFile(data.rowWriter, data.countingStream, data.filename));
+      data.rowWriter = null;
+    } catch (Exception e) {
+      throw new HopException("Error closing file " + data.filename, e);
+    }
+    while (data.finishingFiles.size() > MAX_FILES_FINISHING) {
+      finishFile(data.finishingFiles.get(0));
+      data.finishingFiles.remove(0);
+    }
+  }
+
   private void closeFile() throws HopException {
+    if (data.rowWriter != null) {
+      rollFile();
+    }
+    while (!data.finishingFiles.isEmpty()) {
+      finishFile(data.finishingFiles.get(0));
+      data.finishingFiles.remove(0);
+    }
+  }
+
+  /**
+   * A file which fails to finish stays in the list, to be deleted when the transform is disposed
+   */
+  private void finishFile(ParquetOutputData.FinishingFile file) throws HopException {
     try {
-      data.writer.close();
-      if (data.countingStream != null) {
-        long written = data.countingStream.getCount();
+      ParquetRowWriter.waitFor(file.writer().finish());
+      if (file.countingStream() != null) {
+        long written = file.countingStream().getCount();
         dataVolumeOut = (dataVolumeOut != null ? dataVolumeOut : 0L) + written;
-        if (!data.isBeamContext() && written > 0 && data.filename != null) {
+        if (!data.isBeamContext() && written > 0 && file.filename() != null) {
           try {
-            FileObject outFile = HopVfs.getFileObject(data.filename, variables);
+            FileObject outFile = HopVfs.getFileObject(file.filename(), variables);
             LineageFileIoEmitter.emitTransformFileIo(
                 this, FileIoOperation.WRITE, null, outFile, written, true, null);
           } catch (Exception ignored) {
@@ -347,7 +413,7 @@ public class ParquetOutput extends BaseTransform<ParquetOutputMeta, ParquetOutpu
         }
       }
     } catch (Exception e) {
-      throw new HopException("Error closing file " + data.filename, e);
+      throw new HopException("Error closing file " + file.filename(), e);
     }
   }
 
@@ -369,4 +435,30 @@ public class ParquetOutput extends BaseTransform<ParquetOutputMeta, ParquetOutpu
   public void finishBundle() throws HopException {
     closeFile();
   }
+
+  @Override
+  public void dispose() {
+    // Files which are still open after an error or a stop are incomplete
+    //
+    if (data.rowWriter != null && data.rowWriter.abort()) {
+      deleteIncompleteFile(data.filename);
+    }
+    data.rowWriter = null;
+    for (ParquetOutputData.FinishingFile file : data.finishingFiles) {
+      if (file.writer().abort()) {
+        deleteIncompleteFile(file.filename());
+      }
+    }
+    data.finishingFiles.clear();
+    super.dispose();
+  }
+
+  private void deleteIncompleteFile(String filename) {
+    try {
+      HopVfs.getFileObject(filename, variables).delete();
+      logBasic("Deleted incomplete file " + filename);
+    } catch (Exception e) {
+      logError("Unable to delete incomplete file " + filename, e);
+    }
+  }
 }
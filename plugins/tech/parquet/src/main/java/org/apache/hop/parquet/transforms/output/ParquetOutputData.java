@@ -18,11 +18,13 @@
 package org.apache.hop.parquet.transforms.output;
 
 import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.List;
 import org.apache.avro.Schema;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.io.CountingOutputStream;
+import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
 import org.apache.parquet.column.ParquetProperties;
@@ -39,9 +41,13 @@ public class ParquetOutputData extends BaseTransformData implements ITransformDa
   public CountingOutputStream countingStream;
   public ParquetOutputFile outputFile;
   public ParquetWriter<RowMetaAndData> writer;
+  public ParquetRowWriter rowWriter;
+  public IRowMeta parquetRowMeta;
+  public List<FinishingFile> finishingFiles = new ArrayList<>();
   public int split = 0;
   public long splitRowCount;
   public long maxSplitSizeRows;
+  public long maxSplitSizeBytes;
   public int rowGroupSize;
   public int pageSize;
   public int dictionaryPageSize;
@@ -50,4 +56,14 @@ public class ParquetOutputData extends BaseTransformData implements ITransformDa
   public ParquetOutputData() {
     super();
   }
+
+  /**
+   * A file which is being finished in the background
+   *
+   * @param writer the writer finishing the file
+   * @param countingStream the stream counting the bytes written to the file
+   * @param filename the name of the file
+   */
+  public record FinishingFile(
+      ParquetRowWriter writer, CountingOutputStream countingStream, String filename) {}
 }
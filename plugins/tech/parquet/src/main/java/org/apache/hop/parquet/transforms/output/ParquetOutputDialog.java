@@ -47,6 +47,11 @@ import org.eclipse.swt.widgets.TableItem;
 public class ParquetOutputDialog extends BaseTransformDialog {
 
   public static final Class<?> PKG = ParquetOutputMeta.class;
+  private static final String[] YES_NO_COMBO =
+      new String[] {
+        BaseMessages.getString(PKG, "System.Combo.No"),
+        BaseMessages.getString(PKG, "System.Combo.Yes")
+      };
 
   protected ParquetOutputMeta input;
 
@@ -61,6 +66,8 @@ public class ParquetOutputDialog extends BaseTransformDialog {
   private Button wFilenameIncludeSplitNr;
   private Label wlFilenameSplitSize;
   private TextVar wFilenameSplitSize;
+  private Label wlFilenameSplitBytes;
+  private TextVar wFilenameSplitBytes;
   private Button wFilenameCreateFolders;
   private Button wFilenameCompressionBeforeExtension;
   private Combo wCompressionCodec;
@@ -68,6 +75,7 @@ public class ParquetOutputDialog extends BaseTransformDialog {
   private TextVar wRowGroupSize;
   private TextVar wDataPageSize;
   private TextVar wDictionaryPageSize;
+  private Button wWriteInBackground;
   private TableView wFields;
 
   private String returnValue;
@@ -287,6 +295,27 @@ public class ParquetOutputDialog extends BaseTransformDialog {
     wFilenameSplitSize.setLayoutData(fdFilenameSplitSize);
     lastControl = wFilenameSplitSize;
 
+    wlFilenameSplitBytes = new Label(wFileGroup, SWT.RIGHT);
+    wlFilenameSplitBytes.setText(
+        BaseMessages.getString(PKG, "ParquetOutputDialog.FilenameSplitBytes.Label"));
+    wlFilenameSplitBytes.setToolTipText(
+        BaseMessages.getString(PKG, "ParquetOutputDialog.FilenameSplitBytes.Tooltip"));
+    PropsUi.setLook(wlFilenameSplitBytes);
+    FormData fdlFilenameSplitBytes = new FormData();
+    fdlFilenameSplitBytes.left = new FormAttachment(0, 0);
+    fdlFilenameSplitBytes.right = new FormAttachment(middle, -margin);
+    fdlFilenameSplitBytes.top = new FormAttachment(lastControl, margin);
+    wlFilenameSplitBytes.setLayoutData(fdlFilenameSplitBytes);
+    wFilenameSplitBytes = new TextVar(variables, wFileGroup, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    wFilenameSplitBytes.enableExpandedInteger();
+    PropsUi.setLook(wFilenameSplitBytes);
+    FormData fdFilenameSplitBytes = new FormData();
+    fdFilenameSplitBytes.left = new FormAttachment(middle, 0);
+    fdFilenameSplitBytes.top = new FormAttachment(wlFilenameSplitBytes, 0, SWT.CENTER);
+    fdFilenameSplitBytes.right = new FormAttachment(100, 0);
+    wFilenameSplitBytes.setLayoutData(fdFilenameSplitBytes);
+    lastControl = wFilenameSplitBytes;
+
     Label wlFilenameCreateFolders = new Label(wFileGroup, SWT.RIGHT);
     wlFilenameCreateFolders.setText(
         BaseMessages.getString(PKG, "ParquetOutputDialog.FilenameCreateFolders.Label"));
@@ -424,6 +453,26 @@ public class ParquetOutputDialog extends BaseTransformDialog {
     wDictionaryPageSize.setLayoutData(fdDictionaryPageSize);
     lastControl = wDictionaryPageSize;
 
+    Label wlWriteInBackground = new Label(shell, SWT.RIGHT);
+    wlWriteInBackground.setText(
+        BaseMessages.getString(PKG, "ParquetOutputDialog.WriteInBackground.Label"));
+    wlWriteInBackground.setToolTipText(
+        BaseMessages.getString(PKG, "ParquetOutputDialog.WriteInBackground.Tooltip"));
+    PropsUi.setLook(wlWriteInBackground);
+    FormData fdlWriteInBackground = new FormData();
+    fdlWriteInBackground.left = new FormAttachment(0, 0);
+    fdlWriteInBackground.right = new FormAttachment(middle, -margin);
+    fdlWriteInBackground.top = new FormAttachment(lastControl, margin);
+    wlWriteInBackground.setLayoutData(fdlWriteInBackground);
+    wWriteInBackground = new Button(shell, SWT.CHECK);
+    PropsUi.setLook(wWriteInBackground);
+    FormData fdWriteInBackground = new FormData();
+    fdWriteInBackground.left = new FormAttachment(middle, 0);
+    fdWriteInBackground.top = new FormAttachment(wlWriteInBackground, 0, SWT.CENTER);
+    fdWriteInBackground.right = new FormAttachment(100, 0);
+    wWriteInBackground.setLayoutData(fdWriteInBackground);
+    lastControl = wlWriteInBackground;
+
     Label wlFields = new Label(shell, SWT.LEFT);
     wlFields.setText(BaseMessages.getString(PKG, "ParquetOutputDialog.Fields.Label"));
     PropsUi.setLook(wlFields);
@@ -444,7 +493,26 @@ public class ParquetOutputDialog extends BaseTransformDialog {
               ColumnInfo.COLUMN_TYPE_TEXT,
               false,
               false),
+          new ColumnInfo(
+              BaseMessages.getString(
+                  PKG, "ParquetOutputDialog.FieldsColumn.DictionaryDisabled.Label"),
+              ColumnInfo.COLUMN_TYPE_CCOMBO,
+              YES_NO_COMBO),
+          new ColumnInfo(
+              BaseMessages.getString(PKG, "ParquetOutputDialog.FieldsColumn.BloomFilter.Label"),
+              ColumnInfo.COLUMN_TYPE_CCOMBO,
+              YES_NO_COMBO),
+          new ColumnInfo(
+              BaseMessages.getString(PKG, "ParquetOutputDialog.FieldsColumn.BloomFilterNdv.Label"),
+              ColumnInfo.COLUMN_TYPE_TEXT,
+              false,
+              false),
         };
+    columns[2].setToolTip(
+        BaseMessages.getString(PKG, "ParquetOutputDialog.FieldsColumn.DictionaryDisabled.Tooltip"));
+    columns[4].setToolTip(
+        BaseMessages.getString(PKG, "ParquetOutputDialog.FieldsColumn.BloomFilterNdv.Tooltip"));
+    columns[4].setUsingVariables(true);
     wFields =
         new TableView(
             variables, shell, SWT.BORDER, columns, input.getFields().size(), false, null, props);
@@ -468,6 +536,8 @@ public class ParquetOutputDialog extends BaseTransformDialog {
 
     wlFilenameSplitSize.setEnabled(wFilenameIncludeSplitNr.getSelection());
     wFilenameSplitSize.setEnabled(wFilenameIncludeSplitNr.getSelection());
+    wlFilenameSplitBytes.setEnabled(wFilenameIncludeSplitNr.getSelection());
+    wFilenameSplitBytes.setEnabled(wFilenameIncludeSplitNr.getSelection());
   }
 
   private void getFields() {
@@ -498,6 +568,7 @@ public class ParquetOutputDialog extends BaseTransformDialog {
     wFilenameIncludeCopyNr.setSelection(input.isFilenameIncludingCopyNr());
     wFilenameIncludeSplitNr.setSelection(input.isFilenameIncludingSplitNr());
     wFilenameSplitSize.setText(Const.NVL(input.getFileSplitSize(), ""));
+    wFilenameSplitBytes.setText(Const.NVL(input.getFileSplitBytes(), ""));
     wFilenameCreateFolders.setSelection(input.isFilenameCreatingParentFolders());
     wFilenameCompressionBeforeExtension.setSelection(input.isFilenameCompressionBeforeExtension());
     wCompressionCodec.setText(input.getCompressionCodec().name());
@@ -505,11 +576,15 @@ public class ParquetOutputDialog extends BaseTransformDialog {
     wRowGroupSize.setText(Const.NVL(input.getRowGroupSize(), ""));
     wDataPageSize.setText(Const.NVL(input.getDataPageSize(), ""));
     wDictionaryPageSize.setText(Const.NVL(input.getDictionaryPageSize(), ""));
+    wWriteInBackground.setSelection(input.isWritingInBackground());
     for (int i = 0; i < input.getFields().size(); i++) {
       ParquetField field = input.getFields().get(i);
       TableItem item = wFields.table.getItem(i);
       item.setText(1, Const.NVL(field.getSourceFieldName(), ""));
       item.setText(2, Const.NVL(field.getTargetFieldName(), ""));
+      item.setText(3, YES_NO_COMBO[field.isDictionaryDisabled() ? 1 : 0]);
+      item.setText(4, YES_NO_COMBO[field.isBloomFilter() ? 1 : 0]);
+      item.setText(5, Const.NVL(field.getBloomFilterNdv(), ""));
     }
     wFields.optimizeTableView();
     enableFields();
@@ -527,6 +602,7 @@ public class ParquetOutputDialog extends BaseTransformDialog {
     input.setFilenameIncludingCopyNr(wFilenameIncludeCopyNr.getSelection());
     input.setFilenameIncludingSplitNr(wFilenameIncludeSplitNr.getSelection());
     input.setFileSplitSize(wFilenameSplitSize.getText());
+    input.setFileSplitBytes(wFilenameSplitBytes.getText());
     input.setFilenameCreatingParentFolders(wFilenameCreateFolders.getSelection());
     input.setFilenameCompressionBeforeExtension(wFilenameCompressionBeforeExtension.getSelection());
 
@@ -542,9 +618,14 @@ public class ParquetOutputDialog extends BaseTransformDialog {
     input.setRowGroupSize(wRowGroupSize.getText());
     input.setDataPageSize(wDataPageSize.getText());
     input.setDictionaryPageSize(wDictionaryPageSize.getText());
+    input.setWritingInBackground(wWriteInBackground.getSelection());
     input.getFields().clear();
     for (TableItem item : wFields.getNonEmptyItems()) {
-      input.getFields().add(new ParquetField(item.getText(1), item.getText(2)));
+      ParquetField field = new ParquetField(item.getText(1), item.getText(2));
+      field.setDictionaryDisabled(YES_NO_COMBO[1].equalsIgnoreCase(item.getText(3)));
+      field.setBloomFilter(YES_NO_COMBO[1].equalsIgnoreCase(item.getText(4)));
+      field.setBloomFilterNdv(item.getText(5));
+      input.getFields().add(field);
     }
     input.setChanged();
     dispose();
@@ -62,6 +62,10 @@ public class ParquetOutputMeta extends BaseTransformMeta<ParquetOutput, ParquetO
   @HopMetadataProperty(key = "filename_split_size")
   private String fileSplitSize;
 
+  /** Also start a new part when the file reaches this size in bytes */
+  @HopMetadataProperty(key = "filename_split_bytes")
+  private String fileSplitBytes;
+
   @HopMetadataProperty(key = "filename_create_parent_folders")
   private boolean filenameCreatingParentFolders;
 
@@ -89,6 +93,10 @@ public class ParquetOutputMeta extends BaseTransformMeta<ParquetOutput, ParquetO
   @HopMetadataProperty(key = "dictionary_page_size")
   private String dictionaryPageSize;
 
+  /** Encode, compress and write the rows on a background thread */
+  @HopMetadataProperty(key = "write_in_background")
+  private boolean writingInBackground;
+
   @HopMetadataProperty(groupKey = "fields", key = "field")
   private List<ParquetField> fields;
 
@@ -117,6 +125,7 @@ public class ParquetOutputMeta extends BaseTransformMeta<ParquetOutput, ParquetO
     this.filenameIncludingCopyNr = m.filenameIncludingCopyNr;
     this.filenameIncludingSplitNr = m.filenameIncludingSplitNr;
     this.fileSplitSize = m.fileSplitSize;
+    this.fileSplitBytes = m.fileSplitBytes;
     this.filenameCreatingParentFolders = m.filenameCreatingParentFolders;
     this.filenameCompressionBeforeExtension = m.filenameCompressionBeforeExtension;
     this.compressionCodec = m.compressionCodec;
@@ -124,6 +133,7 @@ public class ParquetOutputMeta extends BaseTransformMeta<ParquetOutput, ParquetO
     this.rowGroupSize = m.rowGroupSize;
     this.dataPageSize = m.dataPageSize;
     this.dictionaryPageSize = m.dictionaryPageSize;
+    this.writingInBackground = m.writingInBackground;
     this.fields = m.fields;
   }
 
@@ -271,6 +281,22 @@ public class ParquetOutputMeta extends BaseTransformMeta<ParquetOutput, ParquetO
     this.fileSplitSize = fileSplitSize;
   }
 
+  /**
+   * Gets fileSplitBytes
+   *
+   * @return value of fileSplitBytes
+   */
+  public String getFileSplitBytes() {
+    return fileSplitBytes;
+  }
+
+  /**
+   * @param fileSplitBytes The fileSplitBytes to set
+   */
+  public void setFileSplitBytes(String fileSplitBytes) {
+    this.fileSplitBytes = fileSplitBytes;
+  }
+
   /**
    * Gets filenameCreatingParentFolders
    *
@@ -383,6 +409,22 @@ public class ParquetOutputMeta extends BaseTransformMeta<ParquetOutput, ParquetO
     this.dictionaryPageSize = dictionaryPageSize;
   }
 
+  /**
+   * Gets writingInBackground
+   *
+   * @return value of writingInBackground
+   */
+  public boolean isWritingInBackground() {
+    return writingInBackground;
+  }
+
+  /**
+   * @param writingInBackground The writingInBackground to set
+   */
+  public void setWritingInBackground(boolean writingInBackground) {
+    this.writingInBackground = writingInBackground;
+  }
+
   /**
    * Gets fields
    *
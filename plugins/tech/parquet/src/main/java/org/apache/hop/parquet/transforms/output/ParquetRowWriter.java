@@ -0,0 +1,263 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.parquet.transforms.output;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.apache.hop.core.RowMetaAndData;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.util.ExecutorUtil;
+import org.apache.parquet.hadoop.ParquetWriter;
+
+/**
+ * Writes rows to a Parquet file, on the calling thread or in the background.
+ *
+ * <p>In the background the rows are handed over in batches to a task which encodes, compresses and
+ * writes them, while the transform continues with the next rows. A few batches can be waiting to be
+ * written, after that the transform waits. Finishing a file can happen in the background as well,
+ * so that the next file can be started in the meantime.
+ *
+ * <p>After an error the file is aborted: the Parquet footer isn't written, so that a partial file
+ * can't be mistaken for a complete one, and the file is closed so that it can be deleted.
+ */
+public class ParquetRowWriter implements Closeable {
+
+  /** The number of rows handed over to the background task at once */
+  public static final int BATCH_SIZE = 1000;
+
+  /** The number of batches which can be waiting to be written */
+  public static final int BATCHES_IN_FLIGHT = 4;
+
+  private static final Object[][] END = new Object[0][];
+  private static final Object[][] ABORT = new Object[0][];
+
+  private final ParquetWriter<RowMetaAndData> writer;
+  private final IRowMeta rowMeta;
+  private final Closeable output;
+  private final BlockingQueue<Object[][]> queue;
+  private final Future<Void> task;
+
+  private Object[][] batch;
+  private int count;
+  private Future<Void> finished;
+
+  /** The size of the file so far, including the row group in memory */
+  private volatile long dataSize;
+
+  private volatile boolean aborted;
+
+  /**
+   * @param writer the Parquet writer, closed when this writer is finished
+   * @param rowMeta the layout of the rows to write
+   * @param output the stream the Parquet writer writes to, closed instead of the Parquet writer
+   *     when the file is aborted
+   * @param background true to write in the background
+   */
+  public ParquetRowWriter(
+      ParquetWriter<RowMetaAndData> writer,
+      IRowMeta rowMeta,
+      Closeable output,
+      boolean background) {
+    this.writer = writer;
+    this.rowMeta = rowMeta;
+    this.output = output;
+    if (background) {
+      queue = new ArrayBlockingQueue<>(BATCHES_IN_FLIGHT);
+      batch = new Object[BATCH_SIZE][];
+      task = ExecutorUtil.getExecutor().submit(this::writeBatches);
+    } else {
+      queue = null;
+      task = null;
+    }
+  }
+
+  /**
+   * Write a row. In the background the row is written later, so it shouldn't be changed anymore.
+   *
+   * @param row the row to write
+   * @throws IOException in case of an error writing this row or a previous row
+   */
+  public void write(Object[] row) throws IOException {
+    if (task == null) {
+      writer.write(new RowMetaAndData(rowMeta, row));
+      dataSize = writer.getDataSize();
+      return;
+    }
+    batch[count++] = row;
+    if (count == batch.length) {
+      handOver(batch);
+      batch = new Object[BATCH_SIZE][];
+      count = 0;
+    }
+  }
+
+  /**
+   * @return the size of the file written so far, including the rows buffered in memory
+   */
+  public long getDataSize() {
+    return dataSize;
+  }
+
+  /** Runs in the background until the end of the rows is handed over or the file is aborted */
+  private Void writeBatches() throws Exception {
+    try {
+      Object[][] rows;
+      while ((rows = queue.take()) != END) {
+        for (Object[] row : rows) {
+          checkAborted();
+          writer.write(new RowMetaAndData(rowMeta, row));
+        }
+        checkAborted();
+        dataSize = writer.getDataSize();
+      }
+      checkAborted();
+    } catch (Exception e) {
+      try {
+        output.close();
+      } catch (IOException closeException) {
+        e.addSuppressed(closeException);
+      }
+      throw e;
+    }
+    writer.close();
+    return null;
+  }
+
+  private void checkAborted() throws InterruptedIOException {
+    if (aborted) {
+      throw new InterruptedIOException("Writing the Parquet file was aborted");
+    }
+  }
+
+  private void handOver(Object[][] rows) throws IOException {
+    try {
+      while (!queue.offer(rows, 100, TimeUnit.MILLISECONDS)) {
+        if (task.isDone()) {
+          waitFor(task);
+          throw new IOException("The background writer stopped unexpectedly");
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while handing over rows to write");
+    }
+    if (task.isDone()) {
+      // Report errors as soon as possible
+      //
+      waitFor(task);
+    }
+  }
+
+  /**
+   * Start finishing the file: the remaining rows are written and the file is closed. In the
+   * background this doesn't wait until the file is closed.
+   *
+   * @return the result of finishing the file, to wait for with {@link #waitFor(Future)}
+   * @throws IOException in case of an error writing the rows or closing the file
+   */
+  public Future<Void> finish() throws IOException {
+    if (finished != null) {
+      return finished;
+    }
+    if (task == null) {
+      writer.close();
+      finished = CompletableFuture.completedFuture(null);
+      return finished;
+    }
+    if (count > 0) {
+      Object[][] rows = new Object[count][];
+      System.arraycopy(batch, 0, rows, 0, count);
+      handOver(rows);
+    }
+    batch = null;
+    handOver(END);
+    finished = task;
+    return finished;
+  }
+
+  /**
+   * Finish the file and wait until it is closed.
+   *
+   * @throws IOException in case of an error writing the rows or closing the file
+   */
+  @Override
+  public void close() throws IOException {
+    waitFor(finish());
+  }
+
+  /**
+   * Stop writing without finishing the file, after an error. This waits until the file is closed. A
+   * file which was already completely written is left as it is.
+   *
+   * @return true if the file is incomplete and should be deleted
+   */
+  public boolean abort() {
+    if (task == null) {
+      if (finished == null && !aborted) {
+        aborted = true;
+        try {
+          output.close();
+        } catch (IOException e) {
+          // The incomplete file is deleted anyway
+        }
+      }
+      return aborted;
+    }
+    aborted = true;
+    // The batches which are still waiting are never written, wake up the background task
+    //
+    queue.clear();
+    queue.offer(ABORT);
+    try {
+      task.get();
+      return false;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return true;
+    } catch (ExecutionException e) {
+      return true;
+    }
+  }
+
+  /**
+   * Wait for the background writing to end and pass on its error, if any.
+   *
+   * @param future the result of {@link #finish()}
+   * @throws IOException in case of an error writing the rows or closing the file
+   */
+  public static void waitFor(Future<Void> future) throws IOException {
+    try {
+      future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for rows to be written");
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException ioException) {
+        throw ioException;
+      }
+      throw new IOException("Error writing rows to the Parquet file", e.getCause());
+    }
+  }
+}
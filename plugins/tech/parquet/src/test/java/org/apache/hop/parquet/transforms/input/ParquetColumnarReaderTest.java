@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.parquet.transforms.input;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironmentExtension;
+import org.apache.parquet.ParquetReadOptions;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.filter2.compat.FilterCompat;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
+import org.apache.parquet.io.InputFile;
+import org.apache.parquet.io.LocalInputFile;
+import org.apache.parquet.io.LocalOutputFile;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.MessageTypeParser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Unit test for {@link ParquetColumnarReader} */
+@ExtendWith(RestoreHopEngineEnvironmentExtension.class)
+class ParquetColumnarReaderTest {
+
+  private static final int ROWS = 20_000;
+
+  private static final MessageType SCHEMA =
+      MessageTypeParser.parseMessageType(
+          "message test { required int64 id; optional binary name (STRING); "
+              + "optional double amount; optional int32 count; }");
+
+  @TempDir Path folder;
+
+  private InputFile inputFile;
+
+  /** Write a file with several row groups, every tenth name is null */
+  @BeforeEach
+  void setUp() throws Exception {
+    Path file = folder.resolve("test.parquet");
+    SimpleGroupFactory factory = new SimpleGroupFactory(SCHEMA);
+    try (ParquetWriter<Group> writer =
+        ExampleParquetWriter.builder(new LocalOutputFile(file))
+            .withType(SCHEMA)
+            .withRowGroupSize(32 * 1024L)
+            .withPageSize(4 * 1024)
+            .build()) {
+      for (int i = 0; i < ROWS; i++) {
+        Group group = factory.newGroup().append("id", (long) i);
+        if (i % 10 != 0) {
+          group.append("name", "name-" + i);
+        }
+        group.append("amount", i * 1.5).append("count", i % 7);
+        writer.write(group);
+      }
+    }
+    inputFile = new LocalInputFile(file);
+  }
+
+  private static List<ParquetField> fields() {
+    return List.of(
+        new ParquetField("name", "name", "String", "", "", ""),
+        new ParquetField("id", "id", "Integer", "", "", ""),
+        new ParquetField("amount", "amount", "Number", "", "", ""));
+  }
+
+  private static List<Object[]> readAll(ParquetColumnarReader reader) throws Exception {
+    List<Object[]> rows = new ArrayList<>();
+    try (reader) {
+      Object[][] batch = reader.nextBatch();
+      while (batch != null) {
+        rows.addAll(List.of(batch));
+        batch = reader.nextBatch();
+      }
+    }
+    return rows;
+  }
+
+  @Test
+  void testReadAllRows() throws Exception {
+    ParquetColumnarReader reader =
+        ParquetColumnarReader.open(inputFile, ParquetReadOptions.builder().build(), fields(), null);
+    assertNotNull(reader);
+
+    List<Object[]> rows = readAll(reader);
+    assertEquals(ROWS, rows.size());
+    for (int i = 0; i < ROWS; i++) {
+      Object[] row = rows.get(i);
+      assertEquals(i % 10 == 0 ? null : "name-" + i, row[0]);
+      assertEquals((long) i, row[1]);
+      assertEquals(i * 1.5, row[2]);
+    }
+  }
+
+  @Test
+  void testFilter() throws Exception {
+    ParquetFilterExpression filter =
+        ParquetFilterExpression.parse("id >= 15000 AND name IS NOT NULL AND count <> 3");
+    ParquetReadOptions options =
+        ParquetReadOptions.builder()
+            .withRecordFilter(FilterCompat.get(filter.bind(SCHEMA)))
+            .build();
+    ParquetColumnarReader reader = ParquetColumnarReader.open(inputFile, options, fields(), filter);
+
+    List<Object[]> rows = readAll(reader);
+    int expected = 0;
+    for (int i = 15_000; i < ROWS; i++) {
+      if (i % 10 != 0 && i % 7 != 3) {
+        assertEquals((long) i, rows.get(expected)[1]);
+        expected++;
+      }
+    }
+    assertEquals(expected, rows.size());
+  }
+
+  @Test
+  void testRangesDivideTheRowGroups() throws Exception {
+    long length = inputFile.getLength();
+    Set<Object> ids = new HashSet<>();
+    int count = 0;
+    for (int copy = 0; copy < 3; copy++) {
+      ParquetReadOptions options =
+          ParquetReadOptions.builder()
+              .withRange(length * copy / 3, length * (copy + 1) / 3)
+              .build();
+      for (Object[] row : readAll(ParquetColumnarReader.open(inputFile, options, fields(), null))) {
+        ids.add(row[1]);
+        count++;
+      }
+    }
+    assertEquals(ROWS, count);
+    assertEquals(ROWS, ids.size());
+  }
+
+  @Test
+  void testNestedColumnsAreReadAsRecords() throws Exception {
+    Path file = folder.resolve("nested.parquet");
+    MessageType schema =
+        MessageTypeParser.parseMessageType(
+            "message test { required int64 id; repeated binary tags (STRING); }");
+    try (ParquetWriter<Group> writer =
+        ExampleParquetWriter.builder(new LocalOutputFile(file)).withType(schema).build()) {
+      writer.write(new SimpleGroupFactory(schema).newGroup().append("id", 1L).append("tags", "a"));
+    }
+
+    List<ParquetField> fields =
+        List.of(
+            new ParquetField("id", "id", "Integer", "", "", ""),
+            new ParquetField("tags", "tags", "String", "", "", ""));
+    assertNull(
+        ParquetColumnarReader.open(
+            new LocalInputFile(file), ParquetReadOptions.builder().build(), fields, null));
+    try (ParquetColumnarReader reader =
+        ParquetColumnarReader.open(
+            new LocalInputFile(file),
+            ParquetReadOptions.builder().build(),
+            List.of(fields.get(0)),
+            null)) {
+      assertNotNull(reader);
+    }
+  }
+}
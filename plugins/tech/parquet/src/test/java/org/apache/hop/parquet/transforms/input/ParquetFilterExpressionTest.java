@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.parquet.transforms.input;
+
+import static org.apache.parquet.filter2.predicate.FilterApi.and;
+import static org.apache.parquet.filter2.predicate.FilterApi.binaryColumn;
+import static org.apache.parquet.filter2.predicate.FilterApi.booleanColumn;
+import static org.apache.parquet.filter2.predicate.FilterApi.doubleColumn;
+import static org.apache.parquet.filter2.predicate.FilterApi.eq;
+import static org.apache.parquet.filter2.predicate.FilterApi.gtEq;
+import static org.apache.parquet.filter2.predicate.FilterApi.intColumn;
+import static org.apache.parquet.filter2.predicate.FilterApi.longColumn;
+import static org.apache.parquet.filter2.predicate.FilterApi.lt;
+import static org.apache.parquet.filter2.predicate.FilterApi.notEq;
+import static org.apache.parquet.filter2.predicate.FilterApi.or;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import org.apache.hop.core.exception.HopException;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.MessageTypeParser;
+import org.junit.jupiter.api.Test;
+
+/** Unit test for {@link ParquetFilterExpression} */
+class ParquetFilterExpressionTest {
+
+  private static final MessageType SCHEMA =
+      MessageTypeParser.parseMessageType(
+          "message test { required int64 id; optional binary name (STRING); "
+              + "optional double amount; optional int32 day (DATE); optional boolean vip; "
+              + "optional group address { optional binary city (STRING); } }");
+
+  @Test
+  void testComparisons() throws HopException {
+    ParquetFilterExpression filter =
+        ParquetFilterExpression.parse("id >= 100 AND (name = 'it''s' OR amount < 1.5e2)");
+
+    assertEquals(List.of("id", "name", "amount"), filter.getColumns());
+    assertEquals(
+        and(
+            gtEq(longColumn("id"), 100L),
+            or(
+                eq(binaryColumn("name"), Binary.fromString("it's")),
+                lt(doubleColumn("amount"), 150.0))),
+        filter.bind(SCHEMA));
+  }
+
+  @Test
+  void testNotIsPushedDown() throws HopException {
+    ParquetFilterExpression filter =
+        ParquetFilterExpression.parse("not (id < 5 or \"name\" is null) and vip != true");
+
+    assertEquals(List.of("id", "name", "vip"), filter.getColumns());
+    assertEquals(
+        and(
+            and(gtEq(longColumn("id"), 5L), notEq(binaryColumn("name"), null)),
+            notEq(booleanColumn("vip"), true)),
+        filter.bind(SCHEMA));
+  }
+
+  @Test
+  void testDates() throws HopException {
+    ParquetFilterExpression filter = ParquetFilterExpression.parse("day = '1970-01-11'");
+    assertEquals(eq(intColumn("day"), 10), filter.bind(SCHEMA));
+  }
+
+  @Test
+  void testInvalidExpressions() {
+    assertThrows(HopException.class, () -> ParquetFilterExpression.parse("id >"));
+    assertThrows(HopException.class, () -> ParquetFilterExpression.parse("id = 1 name = 2"));
+    assertThrows(HopException.class, () -> ParquetFilterExpression.parse("(id = 1"));
+    assertThrows(HopException.class, () -> ParquetFilterExpression.parse("id = 'open"));
+    assertThrows(HopException.class, () -> ParquetFilterExpression.parse("id ! 1"));
+    assertThrows(HopException.class, () -> ParquetFilterExpression.parse("and = 1"));
+  }
+
+  @Test
+  void testInvalidColumns() throws HopException {
+    assertThrows(
+        HopException.class, () -> ParquetFilterExpression.parse("unknown = 1").bind(SCHEMA));
+    assertThrows(
+        HopException.class, () -> ParquetFilterExpression.parse("address = 'x'").bind(SCHEMA));
+    assertThrows(HopException.class, () -> ParquetFilterExpression.parse("id = 'x'").bind(SCHEMA));
+    assertThrows(HopException.class, () -> ParquetFilterExpression.parse("vip < 1").bind(SCHEMA));
+  }
+}
@@ -19,6 +19,7 @@ package org.apache.hop.parquet.transforms.output;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.junit.jupiter.api.Test;
 
@@ -42,9 +43,15 @@ class ParquetFieldTest {
   @Test
   void testCopyConstructor() {
     ParquetField original = new ParquetField("source", "target");
+    original.setDictionaryDisabled(true);
+    original.setBloomFilter(true);
+    original.setBloomFilterNdv("10000");
     ParquetField copy = new ParquetField(original);
     assertEquals("source", copy.getSourceFieldName());
     assertEquals("target", copy.getTargetFieldName());
+    assertTrue(copy.isDictionaryDisabled());
+    assertTrue(copy.isBloomFilter());
+    assertEquals("10000", copy.getBloomFilterNdv());
   }
 
   @Test
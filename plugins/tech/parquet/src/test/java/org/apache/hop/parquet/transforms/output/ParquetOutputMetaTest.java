@@ -89,6 +89,7 @@ class ParquetOutputMetaTest {
     meta.setFilenameIncludingCopyNr(false);
     meta.setFilenameIncludingSplitNr(false);
     meta.setFileSplitSize("500");
+    meta.setFileSplitBytes("128m");
     meta.setFilenameCreatingParentFolders(false);
     meta.setFilenameCompressionBeforeExtension(true);
     meta.setCompressionCodec(CompressionCodecName.GZIP);
@@ -96,8 +97,12 @@ class ParquetOutputMetaTest {
     meta.setRowGroupSize("1024");
     meta.setDataPageSize("512");
     meta.setDictionaryPageSize("256");
+    meta.setWritingInBackground(true);
     meta.getFields().add(new ParquetField("id", "id"));
+    meta.getFields().get(0).setDictionaryDisabled(true);
     meta.getFields().add(new ParquetField("name", "name"));
+    meta.getFields().get(1).setBloomFilter(true);
+    meta.getFields().get(1).setBloomFilterNdv("5000");
 
     String xml =
         XmlHandler.openTag(TransformMeta.XML_TAG)
@@ -124,6 +129,7 @@ class ParquetOutputMetaTest {
     assertEquals(expected.isFilenameIncludingCopyNr(), actual.isFilenameIncludingCopyNr());
     assertEquals(expected.isFilenameIncludingSplitNr(), actual.isFilenameIncludingSplitNr());
     assertEquals(expected.getFileSplitSize(), actual.getFileSplitSize());
+    assertEquals(expected.getFileSplitBytes(), actual.getFileSplitBytes());
     assertEquals(
         expected.isFilenameCreatingParentFolders(), actual.isFilenameCreatingParentFolders());
     assertEquals(
@@ -134,6 +140,7 @@ class ParquetOutputMetaTest {
     assertEquals(expected.getRowGroupSize(), actual.getRowGroupSize());
     assertEquals(expected.getDataPageSize(), actual.getDataPageSize());
     assertEquals(expected.getDictionaryPageSize(), actual.getDictionaryPageSize());
+    assertEquals(expected.isWritingInBackground(), actual.isWritingInBackground());
     assertEquals(expected.getFields().size(), actual.getFields().size());
     for (int i = 0; i < expected.getFields().size(); i++) {
       assertEquals(
@@ -142,6 +149,14 @@ class ParquetOutputMetaTest {
       assertEquals(
           expected.getFields().get(i).getTargetFieldName(),
           actual.getFields().get(i).getTargetFieldName());
+      assertEquals(
+          expected.getFields().get(i).isDictionaryDisabled(),
+          actual.getFields().get(i).isDictionaryDisabled());
+      assertEquals(
+          expected.getFields().get(i).isBloomFilter(), actual.getFields().get(i).isBloomFilter());
+      assertEquals(
+          expected.getFields().get(i).getBloomFilterNdv(),
+          actual.getFields().get(i).getBloomFilterNdv());
     }
   }
 }
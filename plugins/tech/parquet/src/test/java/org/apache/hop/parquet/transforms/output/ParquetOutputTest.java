@@ -147,6 +147,7 @@ class ParquetOutputTest {
     assertEquals("id", data.outputFields.get(0).getTargetFieldName());
     assertEquals("name", data.outputFields.get(1).getSourceFieldName());
     assertEquals("name", data.outputFields.get(1).getTargetFieldName());
+    assertTrue(data.outputFields.get(1).isBloomFilter());
     assertEquals(0, data.sourceFieldIndexes.get(0));
     assertEquals(1, data.sourceFieldIndexes.get(1));
   }
@@ -156,6 +157,7 @@ class ParquetOutputTest {
     ParquetOutputMeta meta = new ParquetOutputMeta();
     meta.getFields().add(new ParquetField("id", "identifier"));
     meta.getFields().add(new ParquetField("name", ""));
+    meta.getFields().get(1).setBloomFilter(true);
 
     ParquetOutputData data = new ParquetOutputData();
     ParquetOutput output = createTransform(meta, data);
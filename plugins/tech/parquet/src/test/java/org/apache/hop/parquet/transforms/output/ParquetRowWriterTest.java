@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.parquet.transforms.output;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.hop.core.RowMetaAndData;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironmentExtension;
+import org.apache.parquet.avro.AvroSchemaConverter;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Unit test for {@link ParquetRowWriter} */
+@ExtendWith(RestoreHopEngineEnvironmentExtension.class)
+class ParquetRowWriterTest {
+
+  private static final int ROWS = 5_500;
+
+  @TempDir Path folder;
+
+  private static IRowMeta rowMeta() {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    rowMeta.addValueMeta(new ValueMetaString("name"));
+    return rowMeta;
+  }
+
+  private static ParquetWriter<RowMetaAndData> createWriter(OutputStream outputStream)
+      throws IOException {
+    Schema avroSchema =
+        SchemaBuilder.record("ApacheHopParquetSchema")
+            .fields()
+            .optionalLong("id")
+            .optionalString("name")
+            .endRecord();
+    List<ParquetField> fields =
+        List.of(new ParquetField("id", "id"), new ParquetField("name", "name"));
+    return new ParquetWriterBuilder(
+            new AvroSchemaConverter().convert(avroSchema),
+            avroSchema,
+            new ParquetOutputFile(outputStream),
+            List.of(0, 1),
+            fields)
+        .withDictionaryEncoding("id", false)
+        .withBloomFilterEnabled("name", true)
+        .build();
+  }
+
+  private void writeAndRead(boolean background) throws Exception {
+    String filename = folder.resolve("rows-" + background + ".parquet").toString();
+    OutputStream outputStream = new FileOutputStream(filename);
+    try (ParquetRowWriter writer =
+        new ParquetRowWriter(createWriter(outputStream), rowMeta(), outputStream, background)) {
+      for (long i = 0; i < ROWS; i++) {
+        writer.write(new Object[] {i, i % 3 == 0 ? null : "name-" + i});
+      }
+      assertTrue(writer.getDataSize() >= 0);
+    }
+
+    List<RowMetaAndData> rows =
+        ParquetTestUtil.readAllRows(
+            filename, ParquetTestUtil.fieldsFromRowMeta(ParquetTestUtil.readSchema(filename)));
+    assertEquals(ROWS, rows.size());
+    for (int i = 0; i < ROWS; i++) {
+      assertEquals((long) i, rows.get(i).getInteger("id"));
+      assertEquals(i % 3 == 0 ? null : "name-" + i, rows.get(i).getString("name", null));
+    }
+  }
+
+  @Test
+  void testWriteOnCallingThread() throws Exception {
+    writeAndRead(false);
+  }
+
+  @Test
+  void testWriteInBackground() throws Exception {
+    writeAndRead(true);
+  }
+
+  @Test
+  void testErrorInBackgroundIsReported() throws Exception {
+    OutputStream failing =
+        new OutputStream() {
+          @Override
+          public void write(int b) {
+            // Ignore
+          }
+
+          @Override
+          public void close() throws IOException {
+            throw new IOException("Disk full");
+          }
+        };
+    ParquetRowWriter writer = new ParquetRowWriter(createWriter(failing), rowMeta(), failing, true);
+    writer.write(new Object[] {1L, "one"});
+
+    IOException e = assertThrows(IOException.class, writer::close);
+    assertEquals("Disk full", e.getMessage());
+  }
+
+  private void abortWithoutFooter(boolean background) throws Exception {
+    Path file = folder.resolve("aborted-" + background + ".parquet");
+    AtomicBoolean closed = new AtomicBoolean();
+    OutputStream outputStream =
+        new FilterOutputStream(new FileOutputStream(file.toFile())) {
+          @Override
+          public void close() throws IOException {
+            closed.set(true);
+            super.close();
+          }
+        };
+    ParquetRowWriter writer =
+        new ParquetRowWriter(createWriter(outputStream), rowMeta(), outputStream, background);
+    for (long i = 0; i < ROWS; i++) {
+      writer.write(new Object[] {i, "name-" + i});
+    }
+
+    assertTrue(writer.abort());
+    assertTrue(closed.get());
+
+    // Without the footer the file can't be read
+    //
+    assertThrows(Exception.class, () -> ParquetTestUtil.readSchema(file.toString()));
+  }
+
+  @Test
+  void testAbortOnCallingThreadWritesNoFooter() throws Exception {
+    abortWithoutFooter(false);
+  }
+
+  @Test
+  void testAbortInBackgroundWritesNoFooter() throws Exception {
+    abortWithoutFooter(true);
+  }
+
+  @Test
+  void testAbortAfterFinishKeepsTheFile() throws Exception {
+    String filename = folder.resolve("finished.parquet").toString();
+    OutputStream outputStream = new FileOutputStream(filename);
+    ParquetRowWriter writer =
+        new ParquetRowWriter(createWriter(outputStream), rowMeta(), outputStream, true);
+    writer.write(new Object[] {1L, "one"});
+    ParquetRowWriter.waitFor(writer.finish());
+
+    assertFalse(writer.abort());
+    assertEquals(
+        1,
+        ParquetTestUtil.readAllRows(
+                filename, ParquetTestUtil.fieldsFromRowMeta(ParquetTestUtil.readSchema(filename)))
+            .size());
+  }
+}
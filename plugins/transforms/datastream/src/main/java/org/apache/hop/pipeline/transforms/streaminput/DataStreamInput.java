@@ -25,6 +25,10 @@ import org.apache.hop.pipeline.transform.BaseTransform;
 import org.apache.hop.pipeline.transform.TransformMeta;
 
 public class DataStreamInput extends BaseTransform<DataStreamInputMeta, DataStreamInputData> {
+
+  /** The maximum number of rows to read from the data stream at once */
+  public static final int ROWS_PER_READ = 1000;
+
   /**
    * This is the base transform that forms that basis for all transforms. You can derive from this
    * class to implement your own transforms.
@@ -57,6 +61,7 @@ public class DataStreamInput extends BaseTransform<DataStreamInputMeta, DataStre
       data.dataStreamMeta =
           DataStreamInputMeta.getAndValidateDataStream(metadataProvider, data.dataStreamName);
       data.dataStream = data.dataStreamMeta.getDataStream();
+      data.dataStream.setStopCheck(this::isStopped);
       data.dataStream.initialize(variables, metadataProvider, false, data.dataStreamMeta);
       data.streamRowMeta = data.dataStream.getRowMeta();
     } catch (Exception e) {
@@ -69,11 +74,15 @@ public class DataStreamInput extends BaseTransform<DataStreamInputMeta, DataStre
   @Override
   public boolean processRow() throws HopException {
     try {
-      Object[] row = data.dataStream.readRow();
-      if (row == null) {
-        setOutputDone();
-        return false;
+      if (data.rows == null || data.rowIndex >= data.rows.size()) {
+        data.rows = data.dataStream.readRows(ROWS_PER_READ);
+        data.rowIndex = 0;
+        if (data.rows == null) {
+          setOutputDone();
+          return false;
+        }
       }
+      Object[] row = data.rows.get(data.rowIndex++);
       incrementLinesInput();
       putRow(data.streamRowMeta, row);
       return true;
@@ -18,6 +18,7 @@
 
 package org.apache.hop.pipeline.transforms.streaminput;
 
+import java.util.List;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.datastream.metadata.DataStreamMeta;
 import org.apache.hop.datastream.plugin.IDataStream;
@@ -29,4 +30,6 @@ public class DataStreamInputData extends BaseTransformData {
   public @NonNull DataStreamMeta dataStreamMeta;
   public @NonNull IDataStream dataStream;
   public IRowMeta streamRowMeta;
+  public List<Object[]> rows;
+  public int rowIndex;
 }
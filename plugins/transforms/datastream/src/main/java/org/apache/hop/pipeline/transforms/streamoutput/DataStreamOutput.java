@@ -18,6 +18,7 @@
 
 package org.apache.hop.pipeline.transforms.streamoutput;
 
+import java.util.ArrayList;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
@@ -27,6 +28,9 @@ import org.apache.hop.pipeline.transforms.streaminput.DataStreamInputMeta;
 
 public class DataStreamOutput extends BaseTransform<DataStreamOutputMeta, DataStreamOutputData> {
 
+  /** The number of rows handed to the data stream at once */
+  public static final int ROWS_PER_WRITE = 1000;
+
   /**
    * This is the base transform that forms that basis for all transforms. You can derive from this
    * class to implement your own transforms.
@@ -59,6 +63,7 @@ public class DataStreamOutput extends BaseTransform<DataStreamOutputMeta, DataSt
       data.dataStreamMeta =
           DataStreamInputMeta.getAndValidateDataStream(metadataProvider, data.dataStreamName);
       data.dataStream = data.dataStreamMeta.getDataStream();
+      data.dataStream.setStopCheck(this::isStopped);
       data.dataStream.initialize(variables, metadataProvider, true, data.dataStreamMeta);
     } catch (Exception e) {
       getLogChannel().logError("Error initializing data stream", e);
@@ -71,6 +76,7 @@ public class DataStreamOutput extends BaseTransform<DataStreamOutputMeta, DataSt
   public boolean processRow() throws HopException {
     Object[] row = getRow();
     if (row == null) {
+      writeBufferedRows();
       data.dataStream.setOutputDone();
       setOutputDone();
       return false;
@@ -83,14 +89,24 @@ public class DataStreamOutput extends BaseTransform<DataStreamOutputMeta, DataSt
       data.dataStream.setRowMeta(getInputRowMeta().clone());
     }
 
-    // Write a row to the data stream
+    // Write the rows to the data stream in batches
     //
-    data.dataStream.writeRow(row);
+    data.rowBuffer.add(row);
+    if (data.rowBuffer.size() >= ROWS_PER_WRITE) {
+      writeBufferedRows();
+    }
     incrementLinesOutput();
 
     return true;
   }
 
+  private void writeBufferedRows() throws HopException {
+    if (!data.rowBuffer.isEmpty()) {
+      data.dataStream.writeRows(data.rowBuffer);
+      data.rowBuffer = new ArrayList<>();
+    }
+  }
+
   @Override
   public void dispose() {
     try {
@@ -18,6 +18,8 @@
 
 package org.apache.hop.pipeline.transforms.streamoutput;
 
+import java.util.ArrayList;
+import java.util.List;
 import org.apache.hop.datastream.metadata.DataStreamMeta;
 import org.apache.hop.datastream.plugin.IDataStream;
 import org.apache.hop.pipeline.transform.BaseTransformData;
@@ -27,4 +29,5 @@ public class DataStreamOutputData extends BaseTransformData {
   public String dataStreamName;
   public @NonNull DataStreamMeta dataStreamMeta;
   public @NonNull IDataStream dataStream;
+  public List<Object[]> rowBuffer = new ArrayList<>();
 }
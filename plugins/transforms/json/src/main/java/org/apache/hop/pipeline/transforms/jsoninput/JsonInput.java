@@ -32,6 +32,7 @@ import org.apache.commons.vfs2.FileSystemException;
 import org.apache.hop.core.QueueRowSet;
 import org.apache.hop.core.ResultFile;
 import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopRuntimeException;
 import org.apache.hop.core.exception.HopTransformException;
 import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.io.CountingInputStream;
@@ -57,6 +58,7 @@ import org.apache.hop.pipeline.transforms.jsoninput.exception.JsonInputException
 import org.apache.hop.pipeline.transforms.jsoninput.reader.FastJsonReader;
 import org.apache.hop.pipeline.transforms.jsoninput.reader.InputsReader;
 import org.apache.hop.pipeline.transforms.jsoninput.reader.RowOutputConverter;
+import org.apache.hop.pipeline.transforms.jsoninput.reader.StreamingJsonReader;
 
 /**
  * Read Json files, parse them and convert them to rows and writes these to one or more output
@@ -314,9 +316,11 @@ public class JsonInput extends BaseFileInputTransform<JsonInputMeta, JsonInputDa
   }
 
   private void parseNextInputToRowSet(InputStream input) throws HopException {
-    // Large pushback buffer: some streams pre-read; avoids buffer overflow on unread(1).
-    try (PushbackInputStream pb = new PushbackInputStream(input, 8192)) {
+    // The input is closed by the caller, a streaming reader still reads it after this returns
+    try {
       if (meta.isIgnoringEmptyFile()) {
+        // Large pushback buffer: some streams pre-read; avoids buffer overflow on unread(1).
+        PushbackInputStream pb = new PushbackInputStream(input, 8192);
         int first = pb.read();
         if (first < 0) {
           data.readerRowSet = data.jsonReader.emptyFieldRowSet();
@@ -451,32 +455,27 @@ public class JsonInput extends BaseFileInputTransform<JsonInputMeta, JsonInputDa
         }
       }
     } else {
-      while ((rawReaderRow = data.readerRowSet.getRow()) == null) {
+      while ((rawReaderRow = getReaderRow()) == null) {
+        closeStreamedInput();
         if (data.inputs.hasNext() && data.readerRowSet.isDone()) {
           InputStream nextIn = data.inputs.next();
           if (nextIn != null) {
             CountingInputStream countingIn = new CountingInputStream(nextIn);
-            try (countingIn) {
-              parseNextInputToRowSet(countingIn);
-            } finally {
-              long bytesRead = countingIn.getCount();
-              dataVolumeIn = (dataVolumeIn != null ? dataVolumeIn : 0L) + bytesRead;
-              if (data.file != null && bytesRead > 0) {
-                try {
-                  LineageFileIoEmitter.emitTransformFileIo(
-                      this,
-                      FileIoOperation.READ,
-                      data.file,
-                      null,
-                      bytesRead,
-                      true,
-                      null,
-                      jsonFileReadContentSchema());
-                } catch (Exception ignored) {
-                  // optional lineage
-                }
+            if (data.jsonReader.isStreaming()) {
+              // The rows are read from the input while they are fetched, close it afterwards
+              data.streamedInput = countingIn;
+              try {
+                parseNextInputToRowSet(countingIn);
+              } catch (HopException e) {
+                closeStreamedInput();
+                throw e;
+              }
+            } else {
+              try (countingIn) {
+                parseNextInputToRowSet(countingIn);
+              } finally {
+                closeInput(countingIn);
               }
-              BaseTransform.closeQuietly(countingIn);
             }
           } else {
             // Null stream (e.g. null field, iterator error path): do not parse "{}" when ignoring
@@ -500,6 +499,55 @@ public class JsonInput extends BaseFileInputTransform<JsonInputMeta, JsonInputDa
     return outputRow;
   }
 
+  /**
+   * Get the next row of the reader. A streaming reader parses the input while the rows are fetched
+   * so errors are reported here like the errors of a reader parsing the whole input.
+   */
+  private Object[] getReaderRow() throws HopException {
+    try {
+      return data.readerRowSet.getRow();
+    } catch (HopRuntimeException e) {
+      Exception cause = e.getCause() instanceof Exception exception ? exception : e;
+      closeStreamedInput();
+      if (cause instanceof HopException hopException) {
+        logInputError(hopException);
+      } else {
+        logInputError(cause);
+      }
+      throw new JsonInputException(cause);
+    }
+  }
+
+  /** Close the input a streaming reader was reading from, if any. */
+  private void closeStreamedInput() {
+    if (data.streamedInput != null) {
+      closeInput(data.streamedInput);
+      data.streamedInput = null;
+    }
+  }
+
+  /** Count the bytes read from an input, report the read to lineage and close it. */
+  private void closeInput(CountingInputStream countingIn) {
+    long bytesRead = countingIn.getCount();
+    dataVolumeIn = (dataVolumeIn != null ? dataVolumeIn : 0L) + bytesRead;
+    if (data.file != null && bytesRead > 0) {
+      try {
+        LineageFileIoEmitter.emitTransformFileIo(
+            this,
+            FileIoOperation.READ,
+            data.file,
+            null,
+            bytesRead,
+            true,
+            null,
+            jsonFileReadContentSchema());
+      } catch (Exception ignored) {
+        // optional lineage
+      }
+    }
+    BaseTransform.closeQuietly(countingIn);
+  }
+
   private void sendErrorRow(String errorMsg) {
     try {
       // same error as before
@@ -600,13 +648,29 @@ public class JsonInput extends BaseFileInputTransform<JsonInputMeta, JsonInputDa
       inputFields[i] = field;
     }
     // Instead of putting in the meta.inputFields, we put in our json path resolved input fields
-    data.jsonReader =
-        new FastJsonReader(inputFields, meta.isDefaultPathLeafToNull(), getLogChannel());
+    if (meta.isStreamingParser()) {
+      // Missing values are always null on a token stream
+      if (meta.isDefaultPathLeafToNull()) {
+        data.jsonReader = StreamingJsonReader.create(inputFields, getLogChannel());
+      }
+      if (data.jsonReader != null) {
+        if (isDetailed()) {
+          logDetailed(BaseMessages.getString(PKG, "JsonInput.Log.StreamingParser.Activated"));
+        }
+      } else {
+        logBasic(BaseMessages.getString(PKG, "JsonInput.Log.StreamingParser.NotPossible"));
+      }
+    }
+    if (data.jsonReader == null) {
+      data.jsonReader =
+          new FastJsonReader(inputFields, meta.isDefaultPathLeafToNull(), getLogChannel());
+    }
     data.jsonReader.setIgnoreMissingPath(meta.isIgnoringMissingPath());
   }
 
   @Override
   public void dispose() {
+    closeStreamedInput();
     if (data.file != null) {
       closeQuietly(data.file);
     }
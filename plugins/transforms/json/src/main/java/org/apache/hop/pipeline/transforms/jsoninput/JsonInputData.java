@@ -22,6 +22,7 @@ import java.io.InputStream;
 import java.util.BitSet;
 import java.util.Iterator;
 import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.io.CountingInputStream;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.pipeline.transform.ITransformData;
 import org.apache.hop.pipeline.transforms.file.BaseFileInputTransformData;
@@ -55,6 +56,10 @@ public class JsonInputData extends BaseFileInputTransformData implements ITransf
 
   public IJsonReader jsonReader;
   public IRowSet readerRowSet;
+
+  /** The input a streaming reader is reading its rows from */
+  public CountingInputStream streamedInput;
+
   public BitSet repeatedFields;
 
   /**
@@ -143,6 +143,8 @@ public class JsonInputDialog extends BaseTransformDialog {
 
   private Button wDefaultPathLeafToNull;
 
+  private Button wStreamingParser;
+
   private Button wDoNotFailIfNoFile;
 
   private TextVar wShortFileFieldName;
@@ -578,12 +580,38 @@ public class JsonInputDialog extends BaseTransformDialog {
     wDefaultPathLeafToNull.setLayoutData(fdDefaultPathLeafToNull);
     // default path leaf to null - end
 
+    // Streaming parser
+    //
+    Label wlStreamingParser = new Label(wConf, SWT.RIGHT);
+    wlStreamingParser.setText(BaseMessages.getString(PKG, "JsonInputDialog.StreamingParser.Label"));
+    PropsUi.setLook(wlStreamingParser);
+    FormData fdlStreamingParser = new FormData();
+    fdlStreamingParser.left = new FormAttachment(0, 0);
+    fdlStreamingParser.top = new FormAttachment(wlDefaultPathLeafToNull, margin);
+    fdlStreamingParser.right = new FormAttachment(middle, -margin);
+    wlStreamingParser.setLayoutData(fdlStreamingParser);
+    wStreamingParser = new Button(wConf, SWT.CHECK);
+    PropsUi.setLook(wStreamingParser);
+    wStreamingParser.addSelectionListener(
+        new SelectionAdapter() {
+          @Override
+          public void widgetSelected(SelectionEvent e) {
+            input.setChanged();
+          }
+        });
+    wStreamingParser.setToolTipText(
+        BaseMessages.getString(PKG, "JsonInputDialog.StreamingParser.Tooltip"));
+    FormData fdStreamingParser = new FormData();
+    fdStreamingParser.left = new FormAttachment(middle, 0);
+    fdStreamingParser.top = new FormAttachment(wlStreamingParser, 0, SWT.CENTER);
+    wStreamingParser.setLayoutData(fdStreamingParser);
+
     wlLimit = new Label(wConf, SWT.RIGHT);
     wlLimit.setText(BaseMessages.getString(PKG, "JsonInputDialog.Limit.Label"));
     PropsUi.setLook(wlLimit);
     FormData fdlLimit = new FormData();
     fdlLimit.left = new FormAttachment(0, 0);
-    fdlLimit.top = new FormAttachment(wlDefaultPathLeafToNull, margin);
+    fdlLimit.top = new FormAttachment(wlStreamingParser, margin);
     fdlLimit.right = new FormAttachment(middle, -margin);
     wlLimit.setLayoutData(fdlLimit);
     wLimit = new Text(wConf, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
@@ -591,7 +619,7 @@ public class JsonInputDialog extends BaseTransformDialog {
     wLimit.addModifyListener(lsMod);
     FormData fdLimit = new FormData();
     fdLimit.left = new FormAttachment(middle, 0);
-    fdLimit.top = new FormAttachment(wlDefaultPathLeafToNull, margin);
+    fdLimit.top = new FormAttachment(wlStreamingParser, margin);
     fdLimit.right = new FormAttachment(100, 0);
     wLimit.setLayoutData(fdLimit);
 
@@ -1216,6 +1244,7 @@ public class JsonInputDialog extends BaseTransformDialog {
     wDoNotFailIfNoFile.setSelection(in.isDoNotFailIfNoFile());
     wIgnoreMissingPath.setSelection(in.isIgnoringMissingPath());
     wDefaultPathLeafToNull.setSelection(in.isDefaultPathLeafToNull());
+    wStreamingParser.setSelection(in.isStreamingParser());
     wRemoveSourceField.setSelection(in.isRemoveSourceField());
     wSourceStreamField.setSelection(in.isInFields());
     wSourceIsAFile.setSelection(in.getIsAFile());
@@ -1304,6 +1333,7 @@ public class JsonInputDialog extends BaseTransformDialog {
     in.setDoNotFailIfNoFile(wDoNotFailIfNoFile.getSelection());
     in.setIgnoringMissingPath(wIgnoreMissingPath.getSelection());
     in.setDefaultPathLeafToNull(wDefaultPathLeafToNull.getSelection());
+    in.setStreamingParser(wStreamingParser.getSelection());
     in.setRemoveSourceField(wRemoveSourceField.getSelection());
     in.setInFields(wSourceStreamField.getSelection());
     in.setIsAFile(wSourceIsAFile.getSelection());
@@ -176,6 +176,13 @@ public class JsonInputMeta extends BaseFileInputMeta<JsonInput, JsonInputData, B
       injectionKeyDescription = "JsonInput.Injection.DEFAULT_PATH_LEAF_TO_NULL")
   private boolean defaultPathLeafToNull;
 
+  /** Flag : read the rows with a token stream instead of building the whole document */
+  @HopMetadataProperty(
+      key = "streamingParser",
+      injectionKey = "STREAMING_PARSER",
+      injectionKeyDescription = "JsonInput.Injection.STREAMING_PARSER")
+  private boolean streamingParser;
+
   @HopMetadataProperty(inline = true)
   protected BaseFileInputAdditionalFields additionalOutputFields;
 
@@ -206,6 +213,7 @@ public class JsonInputMeta extends BaseFileInputMeta<JsonInput, JsonInputData, B
     ignoringEmptyFile = false;
     ignoringMissingPath = true;
     defaultPathLeafToNull = true;
+    streamingParser = false;
     doNotFailIfNoFile = true;
     includeFilename = false;
     filenameField = "";
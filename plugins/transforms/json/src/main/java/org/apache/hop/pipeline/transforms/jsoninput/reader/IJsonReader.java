@@ -42,6 +42,14 @@ public interface IJsonReader {
   /** parse incoming JsonNode fields into a rowset */
   public IRowSet parseJsonNodeValue(com.fasterxml.jackson.databind.JsonNode in) throws HopException;
 
+  /**
+   * @return true if the row set of {@link #parseStringValue(InputStream)} reads the input stream
+   *     while its rows are fetched. The stream is then only closed after the last row.
+   */
+  default boolean isStreaming() {
+    return false;
+  }
+
   /**
    * One logical output row with a null for each configured field, without reading a JSON document
    * or evaluating JSON paths (used when input is an empty stream and empty files are ignored).
@@ -0,0 +1,435 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.jsoninput.reader;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.SingleRowRowSet;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopRuntimeException;
+import org.apache.hop.core.logging.ILogChannel;
+import org.apache.hop.i18n.BaseMessages;
+import org.apache.hop.pipeline.transforms.jsoninput.JsonInputField;
+import org.apache.hop.pipeline.transforms.jsoninput.JsonInputMeta;
+import org.apache.hop.pipeline.transforms.jsoninput.exception.JsonInputException;
+
+/**
+ * Reads the rows of a JSON document with a Jackson token stream instead of building the whole
+ * document in memory. Every field path has to select the elements of the same array (or the values
+ * of the same object) with a single wildcard, like <code>$.data[*].name</code>. Each element is
+ * read and converted to a row on its own, so the memory use depends on the size of an element and
+ * not on the size of the document.
+ *
+ * <p>Before the wildcard a path can only use property names and array indexes, after the wildcard
+ * it can only use property names and array indexes relative to the element. Missing values are
+ * returned as null, like the "default path leaf to null" option does.
+ *
+ * <p>Incoming JSON values are already parsed, they are read with a {@link FastJsonReader}.
+ */
+public class StreamingJsonReader implements IJsonReader {
+  private static final Class<?> PKG = JsonInputMeta.class;
+
+  /** The input stream is closed by the transform, after the last row is read */
+  private static final JsonMapper MAPPER =
+      JsonMapper.builder().disable(StreamReadFeature.AUTO_CLOSE_SOURCE).build();
+
+  /** Marks the [*] step of a path */
+  private static final Object WILDCARD = new Object();
+
+  private final ILogChannel log;
+  private final FastJsonReader jsonNodeReader;
+  private JsonInputField[] fields;
+  private boolean ignoreMissingPath;
+
+  /** The property names and array indexes leading to the rows */
+  private List<Object> rowPath;
+
+  /** For every field, the property names and array indexes in a row */
+  private List<List<Object>> fieldPaths;
+
+  private StreamingJsonReader(JsonInputField[] fields, ILogChannel log) throws HopException {
+    this.log = log;
+    this.jsonNodeReader = new FastJsonReader(fields, log);
+  }
+
+  /**
+   * Create a streaming reader for the fields if their paths can be streamed.
+   *
+   * @param fields the fields with their resolved JSON paths
+   * @param log the log channel
+   * @return the reader or null if the paths can't be evaluated on a token stream
+   * @throws HopException in case a path can't be compiled
+   */
+  public static StreamingJsonReader create(JsonInputField[] fields, ILogChannel log)
+      throws HopException {
+    if (compileRowPath(fields) == null) {
+      return null;
+    }
+    StreamingJsonReader reader = new StreamingJsonReader(fields, log);
+    reader.setFields(fields);
+    return reader;
+  }
+
+  /**
+   * @return the common path up to the wildcard or null if the fields can't be streamed
+   */
+  private static List<Object> compileRowPath(JsonInputField[] fields) {
+    if (fields.length == 0) {
+      return null;
+    }
+    List<Object> rowPath = null;
+    for (JsonInputField field : fields) {
+      List<Object> steps = compile(field.getPath());
+      if (steps == null || steps.indexOf(WILDCARD) < 0) {
+        return null;
+      }
+      int wildcard = steps.indexOf(WILDCARD);
+      if (steps.lastIndexOf(WILDCARD) != wildcard) {
+        return null;
+      }
+      List<Object> prefix = steps.subList(0, wildcard);
+      if (rowPath == null) {
+        rowPath = new ArrayList<>(prefix);
+      } else if (!rowPath.equals(prefix)) {
+        return null;
+      }
+    }
+    return rowPath;
+  }
+
+  /**
+   * Compile a path like <code>$.a['b'][0][*].c</code> or <code>$.[*].c</code> into property names
+   * (String), array indexes (Integer) and wildcards.
+   *
+   * @return the steps or null if the path uses anything else
+   */
+  static List<Object> compile(String path) {
+    if (path == null || !path.trim().startsWith("$")) {
+      return null;
+    }
+    String p = path.trim();
+    List<Object> steps = new ArrayList<>();
+    int i = 1;
+    while (i < p.length()) {
+      char c = p.charAt(i);
+      if (c == '.' && p.startsWith(".[", i)) {
+        // $.[*] and $.['name'] are the same as $[*] and $['name']
+        i++;
+      } else if (c == '.') {
+        int end = i + 1;
+        while (end < p.length() && p.charAt(end) != '.' && p.charAt(end) != '[') {
+          end++;
+        }
+        String name = p.substring(i + 1, end);
+        if (name.equals("*")) {
+          steps.add(WILDCARD);
+        } else if (isName(name)) {
+          steps.add(name);
+        } else {
+          return null;
+        }
+        i = end;
+      } else if (c == '[') {
+        int close = p.indexOf(']', i);
+        if (close < 0) {
+          return null;
+        }
+        Object step = compileBracket(p.substring(i + 1, close).trim());
+        if (step == null) {
+          return null;
+        }
+        steps.add(step);
+        i = close + 1;
+      } else {
+        return null;
+      }
+    }
+    return steps;
+  }
+
+  /** Compile the content of [...]: *, an index or a quoted property name */
+  private static Object compileBracket(String content) {
+    if (content.equals("*")) {
+      return WILDCARD;
+    }
+    if (content.length() >= 2
+        && (content.charAt(0) == '\'' || content.charAt(0) == '"')
+        && content.charAt(content.length() - 1) == content.charAt(0)) {
+      String name = content.substring(1, content.length() - 1);
+      return name.indexOf(content.charAt(0)) < 0 && name.indexOf('\\') < 0 ? name : null;
+    }
+    if (!content.isEmpty() && content.chars().allMatch(Character::isDigit)) {
+      try {
+        return Integer.valueOf(content);
+      } catch (NumberFormatException e) {
+        return null;
+      }
+    }
+    return null;
+  }
+
+  private static boolean isName(String name) {
+    if (name.isEmpty()) {
+      return false;
+    }
+    for (int i = 0; i < name.length(); i++) {
+      char c = name.charAt(i);
+      if (!Character.isLetterOrDigit(c) && c != '_' && c != '-' && c != '$') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void setFields(JsonInputField[] fields) throws HopException {
+    List<Object> compiledRowPath = compileRowPath(fields);
+    if (compiledRowPath == null) {
+      throw new HopException(
+          BaseMessages.getString(PKG, "JsonInput.Log.StreamingParser.NotPossible"));
+    }
+    this.fields = fields;
+    this.rowPath = compiledRowPath;
+    this.fieldPaths = new ArrayList<>();
+    for (JsonInputField field : fields) {
+      List<Object> steps = compile(field.getPath());
+      fieldPaths.add(new ArrayList<>(steps.subList(steps.indexOf(WILDCARD) + 1, steps.size())));
+    }
+    jsonNodeReader.setFields(fields);
+  }
+
+  @Override
+  public boolean isIgnoreMissingPath() {
+    return ignoreMissingPath;
+  }
+
+  @Override
+  public void setIgnoreMissingPath(boolean value) {
+    this.ignoreMissingPath = value;
+    jsonNodeReader.setIgnoreMissingPath(value);
+  }
+
+  @Override
+  public boolean isStreaming() {
+    return true;
+  }
+
+  /**
+   * Start reading the rows of a document. A missing array or object of rows is reported right away
+   * when missing paths aren't ignored. A field which isn't found in any of the rows can only be
+   * reported after the last row was read, unlike with a {@link FastJsonReader} the rows before it
+   * are already passed on by then.
+   */
+  @Override
+  public IRowSet parseStringValue(InputStream in) throws HopException {
+    try {
+      JsonParser parser = MAPPER.createParser(in);
+      JsonToken rowsToken = moveToRows(parser);
+      if (rowsToken == null && !ignoreMissingPath) {
+        throw new JsonInputException(
+            BaseMessages.getString(PKG, "JsonReader.Error.CanNotFindPath", fields[0].getPath()));
+      }
+      return new StreamedRowSet(parser, rowsToken);
+    } catch (IOException e) {
+      throw new JsonInputException(e);
+    }
+  }
+
+  @Override
+  public IRowSet parseJsonNodeValue(JsonNode node) throws HopException {
+    return jsonNodeReader.parseJsonNodeValue(node);
+  }
+
+  @Override
+  public IRowSet emptyFieldRowSet() {
+    return jsonNodeReader.emptyFieldRowSet();
+  }
+
+  /**
+   * Follow the row path from the root of the document.
+   *
+   * @return the start token of the array or object holding the rows or null if it isn't there
+   */
+  private JsonToken moveToRows(JsonParser parser) throws IOException {
+    JsonToken token = parser.nextToken();
+    for (Object step : rowPath) {
+      if (!moveToChild(parser, token, step)) {
+        return null;
+      }
+      token = parser.currentToken();
+    }
+    return token == JsonToken.START_ARRAY || token == JsonToken.START_OBJECT ? token : null;
+  }
+
+  /** Move from the start of a container to the value of one of its properties or elements */
+  private static boolean moveToChild(JsonParser parser, JsonToken token, Object step)
+      throws IOException {
+    if (step instanceof String name) {
+      if (token != JsonToken.START_OBJECT) {
+        return false;
+      }
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        boolean found = name.equals(parser.currentName());
+        parser.nextToken();
+        if (found) {
+          return true;
+        }
+        parser.skipChildren();
+      }
+      return false;
+    }
+    if (token != JsonToken.START_ARRAY) {
+      return false;
+    }
+    int index = (Integer) step;
+    for (int i = 0; ; i++) {
+      JsonToken element = parser.nextToken();
+      if (element == null || element == JsonToken.END_ARRAY) {
+        return false;
+      }
+      if (i == index) {
+        return true;
+      }
+      parser.skipChildren();
+    }
+  }
+
+  /** Get the value of a field from a row, null if it is missing */
+  private static Object getValue(JsonNode element, List<Object> path) {
+    JsonNode node = element;
+    for (Object step : path) {
+      node = step instanceof String name ? node.path(name) : node.path((Integer) step);
+    }
+    if (node.isMissingNode() || node.isNull()) {
+      return null;
+    }
+    if (node.isTextual()) {
+      return node.textValue();
+    }
+    if (node.isNumber()) {
+      return node.numberValue();
+    }
+    if (node.isBoolean()) {
+      return node.booleanValue();
+    }
+    return node;
+  }
+
+  /** Reads a row every time one is asked for, until the rows array or object ends. */
+  private class StreamedRowSet extends SingleRowRowSet {
+    private final JsonParser parser;
+    private final boolean rowsInObject;
+    private final boolean[] found;
+    private boolean finished;
+    private long rowCount;
+
+    private final boolean includeNulls =
+        "Y"
+            .equalsIgnoreCase(
+                System.getProperty(
+                    Const.HOP_JSON_INPUT_INCLUDE_NULLS, Const.JSON_INPUT_INCLUDE_NULLS));
+
+    StreamedRowSet(JsonParser parser, JsonToken rowsToken) {
+      this.parser = parser;
+      this.rowsInObject = rowsToken == JsonToken.START_OBJECT;
+      this.found = new boolean[fields.length];
+      this.finished = rowsToken == null;
+    }
+
+    @Override
+    public Object[] getRow() {
+      try {
+        while (!finished) {
+          JsonToken token = parser.nextToken();
+          if (rowsInObject && token == JsonToken.FIELD_NAME) {
+            token = parser.nextToken();
+          }
+          if (token == null || token == JsonToken.END_ARRAY || token == JsonToken.END_OBJECT) {
+            finished = true;
+            break;
+          }
+          JsonNode element = MAPPER.readTree(parser);
+          Object[] row = new Object[fields.length];
+          boolean allNulls = true;
+          for (int i = 0; i < row.length; i++) {
+            row[i] = getValue(element, fieldPaths.get(i));
+            found[i] |= row[i] != null;
+            allNulls &= row[i] == null;
+          }
+          if (allNulls && !includeNulls) {
+            continue;
+          }
+          rowCount++;
+          return row;
+        }
+        return lastRow();
+      } catch (IOException | HopException e) {
+        finished = true;
+        rowCount = -1;
+        throw new HopRuntimeException(e);
+      }
+    }
+
+    /** After the last element: check the paths and return a row of nulls if there were no rows */
+    private Object[] lastRow() throws HopException {
+      if (rowCount < 0) {
+        return null;
+      }
+      if (log.isDetailed()) {
+        log.logDetailed(BaseMessages.getString(PKG, "JsonInput.Log.NrRecords", rowCount));
+      }
+      boolean empty = rowCount == 0;
+      rowCount = -1;
+      if (!ignoreMissingPath) {
+        for (int i = 0; i < found.length; i++) {
+          if (!found[i]) {
+            throw new JsonInputException(
+                BaseMessages.getString(
+                    PKG, "JsonReader.Error.CanNotFindPath", fields[i].getPath()));
+          }
+        }
+      }
+      return empty ? new Object[fields.length] : null;
+    }
+
+    @Override
+    public int size() {
+      return finished ? 0 : 1;
+    }
+
+    @Override
+    public boolean isDone() {
+      return true;
+    }
+
+    @Override
+    public void clear() {
+      finished = true;
+      rowCount = -1;
+    }
+  }
+}
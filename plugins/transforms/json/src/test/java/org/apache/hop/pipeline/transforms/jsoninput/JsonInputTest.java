@@ -964,6 +964,120 @@ class JsonInputTest {
     }
   }
 
+  @Test
+  void testStreamingParserFileList() throws Exception {
+    ByteArrayOutputStream err = new ByteArrayOutputStream();
+    helper.redirectLog(err, LogLevel.ERROR);
+
+    final String input1 = getBasicTestJson();
+    final String input2 = "{ \"store\": { \"book\": [ { \"price\": 9.99 } ] } }";
+    try (FileObject fileObj1 = HopVfs.getFileObject(BASE_RAM_DIR + "test1.json");
+        FileObject fileObj2 = HopVfs.getFileObject(BASE_RAM_DIR + "test2.json")) {
+      try (OutputStream out = fileObj1.getContent().getOutputStream()) {
+        out.write(input1.getBytes());
+      }
+      try (OutputStream out = fileObj2.getContent().getOutputStream()) {
+        out.write(input2.getBytes());
+      }
+      JsonInputField price = new JsonInputField();
+      price.setName("price");
+      price.setType(IValueMeta.TYPE_NUMBER);
+      price.setPath("$.store.book[*].price");
+      JsonInputField isbn = new JsonInputField();
+      isbn.setName("isbn");
+      isbn.setType(IValueMeta.TYPE_STRING);
+      isbn.setPath("$.['store']['book'][*]['isbn']");
+      List<FileObject> fileList = Arrays.asList(fileObj1, fileObj2);
+      JsonInputMeta meta = createFileListMeta(fileList);
+      meta.getInputFields().add(price);
+      meta.getInputFields().add(isbn);
+      meta.setIgnoringMissingPath(true);
+      meta.setStreamingParser(true);
+
+      meta.setShortFileNameField("fname");
+
+      JsonInput jsonInput = createJsonInput(meta);
+      RowComparatorListener rowComparator =
+          new RowComparatorListener(
+              new Object[] {8.95d, null, "test1.json"},
+              new Object[] {12.99d, null, "test1.json"},
+              new Object[] {8.99d, "0-553-21311-3", "test1.json"},
+              new Object[] {22.99d, "0-395-19395-8", "test1.json"},
+              new Object[] {9.99d, null, "test2.json"});
+      jsonInput.addRowListener(rowComparator);
+
+      processRows(jsonInput, 6);
+      disposeJsonInput(jsonInput);
+      assertEquals(0, jsonInput.getErrors(), err.toString());
+      assertEquals(5, jsonInput.getLinesWritten(), "rows written");
+    } finally {
+      deleteFiles();
+    }
+  }
+
+  @Test
+  void testStreamingParserObjectsAndArrays() throws Exception {
+    JsonInputField name = new JsonInputField("name");
+    name.setPath("$.[*].name");
+    name.setType(IValueMeta.TYPE_STRING);
+    JsonInputField tags = new JsonInputField("tags");
+    tags.setPath("$.[*].tags");
+    tags.setType(IValueMeta.TYPE_STRING);
+    JsonInputField firstTag = new JsonInputField("first tag");
+    firstTag.setPath("$.[*].tags[0]");
+    firstTag.setType(IValueMeta.TYPE_STRING);
+
+    final String input =
+        "[ { \"name\": \"a\", \"tags\": [\"x\", \"y\"] }, { \"name\": \"b\", \"tags\": [] } ]";
+    JsonInputMeta meta = createSimpleMeta("json", name, tags, firstTag);
+    meta.setRemoveSourceField(true);
+    meta.setStreamingParser(true);
+    JsonInput jsonInput = createJsonInput("json", meta, new Object[] {input});
+    RowComparatorListener rowComparator =
+        new RowComparatorListener(
+            new Object[] {"a", "[\"x\",\"y\"]", "x"}, new Object[] {"b", "[]", null});
+    rowComparator.setComparator(1, new JsonComparison());
+    jsonInput.addRowListener(rowComparator);
+
+    processRows(jsonInput, 3);
+    assertEquals(0, jsonInput.getErrors(), "errors");
+    assertEquals(2, jsonInput.getLinesWritten(), "rows written");
+  }
+
+  @Test
+  void testStreamingParserErrorRedirect() throws Exception {
+    JsonInputField field = new JsonInputField("value");
+    field.setPath("$.values[*]");
+    field.setType(IValueMeta.TYPE_STRING);
+
+    String input1 = "{ \"values\": [ \"first\", { ";
+    String input2 = "{ \"values\": [ \"ok\" ] }";
+
+    JsonInputMeta meta = createSimpleMeta("json", field);
+    meta.setRemoveSourceField(true);
+    meta.setStreamingParser(true);
+    when(helper.transformMeta.isDoingErrorHandling()).thenReturn(true);
+    JsonInput jsonInput =
+        createJsonInput("json", meta, new Object[] {input1}, new Object[] {input2});
+    TransformErrorMeta errMeta = new TransformErrorMeta(helper.transformMeta);
+    errMeta.setEnabled(true);
+    errMeta.setErrorFieldsValueName("err field");
+    when(helper.transformMeta.getTransformErrorMeta()).thenReturn(errMeta);
+    final List<Object[]> errorLines = new ArrayList<>();
+    jsonInput.addRowListener(
+        new RowComparatorListener(new Object[] {"first"}) {
+          @Override
+          public void errorRowWrittenEvent(IRowMeta rowMeta, Object[] row) {
+            errorLines.add(row);
+          }
+        });
+    processRows(jsonInput, 3);
+    // The rows before the error are already passed on
+    assertEquals(1, errorLines.size(), "fwd error");
+    assertEquals(input1, errorLines.getFirst()[0], "input in err line");
+    assertEquals(1, jsonInput.getLinesWritten(), "rows written");
+  }
+
   @Test
   void testNoFilesInListError() throws Exception {
     ByteArrayOutputStream err = new ByteArrayOutputStream();
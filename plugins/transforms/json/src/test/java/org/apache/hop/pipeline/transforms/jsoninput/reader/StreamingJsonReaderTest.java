@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.jsoninput.reader;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopRuntimeException;
+import org.apache.hop.core.logging.ILogChannel;
+import org.apache.hop.pipeline.transforms.jsoninput.JsonInputField;
+import org.apache.hop.pipeline.transforms.jsoninput.exception.JsonInputException;
+import org.junit.jupiter.api.Test;
+
+class StreamingJsonReaderTest {
+  private final ILogChannel logMock = mock(ILogChannel.class);
+
+  private static JsonInputField[] fields(String... paths) {
+    JsonInputField[] fields = new JsonInputField[paths.length];
+    for (int i = 0; i < paths.length; i++) {
+      fields[i] = new JsonInputField("f" + i);
+      fields[i].setPath(paths[i]);
+    }
+    return fields;
+  }
+
+  private List<Object[]> read(StreamingJsonReader reader, String json) throws HopException {
+    IRowSet rowSet =
+        reader.parseStringValue(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    List<Object[]> rows = new ArrayList<>();
+    Object[] row;
+    while ((row = rowSet.getRow()) != null) {
+      rows.add(row);
+    }
+    return rows;
+  }
+
+  @Test
+  void testOnlyPathsOnTheSameArrayAreStreamed() throws HopException {
+    assertNotNull(StreamingJsonReader.create(fields("$[*]"), logMock));
+    assertNotNull(StreamingJsonReader.create(fields("$.[*].a", "$.[*]['b']"), logMock));
+    assertNotNull(StreamingJsonReader.create(fields("$.a.b[*].c", "$['a'].b[*][0]"), logMock));
+    assertNotNull(StreamingJsonReader.create(fields("$.a[2].*.c"), logMock));
+
+    assertNull(StreamingJsonReader.create(fields("$.a.b"), logMock));
+    assertNull(StreamingJsonReader.create(fields("$.a[*].b", "$.c[*].b"), logMock));
+    assertNull(StreamingJsonReader.create(fields("$.a[*].b[*]"), logMock));
+    assertNull(StreamingJsonReader.create(fields("$..a[*]"), logMock));
+    assertNull(StreamingJsonReader.create(fields("$.a[?(@.b)].c"), logMock));
+    assertNull(StreamingJsonReader.create(fields("$.a[0:2].c"), logMock));
+    assertNull(StreamingJsonReader.create(fields("a[*].b"), logMock));
+  }
+
+  @Test
+  void testRowsAreReadFromTheSelectedArray() throws HopException {
+    StreamingJsonReader reader =
+        StreamingJsonReader.create(
+            fields("$.data[1].rows[*].id", "$.data[1].rows[*].v.x"), logMock);
+    reader.setIgnoreMissingPath(true);
+
+    List<Object[]> rows =
+        read(
+            reader,
+            "{ \"skip\": {\"rows\": [1]}, \"data\": [ {\"rows\": [9]},"
+                + " {\"rows\": [ {\"id\": 1, \"v\": {\"x\": \"a\"}}, {\"id\": 2}, {\"id\": 3.5,"
+                + " \"v\": {\"x\": true}} ]} ] }");
+
+    assertEquals(3, rows.size());
+    assertArrayEquals(new Object[] {1, "a"}, rows.get(0));
+    assertArrayEquals(new Object[] {2, null}, rows.get(1));
+    assertArrayEquals(new Object[] {3.5, true}, rows.get(2));
+  }
+
+  @Test
+  void testObjectValuesAreRows() throws HopException {
+    StreamingJsonReader reader = StreamingJsonReader.create(fields("$.byId.*.name"), logMock);
+
+    List<Object[]> rows =
+        read(reader, "{\"byId\": {\"a\": {\"name\": \"x\"}, \"b\": {\"name\": \"y\"}}}");
+
+    assertEquals(2, rows.size());
+    assertArrayEquals(new Object[] {"x"}, rows.get(0));
+    assertArrayEquals(new Object[] {"y"}, rows.get(1));
+  }
+
+  @Test
+  void testMissingRowsGiveOneEmptyRow() throws HopException {
+    StreamingJsonReader reader = StreamingJsonReader.create(fields("$.data[*].id"), logMock);
+    reader.setIgnoreMissingPath(true);
+
+    List<Object[]> rows = read(reader, "{\"other\": []}");
+
+    assertEquals(1, rows.size());
+    assertArrayEquals(new Object[] {null}, rows.get(0));
+  }
+
+  @Test
+  void testMissingRowsAreAnErrorBeforeTheFirstRow() throws HopException {
+    StreamingJsonReader reader = StreamingJsonReader.create(fields("$.data[*].id"), logMock);
+    reader.setIgnoreMissingPath(false);
+
+    assertThrows(
+        JsonInputException.class,
+        () ->
+            reader.parseStringValue(
+                new ByteArrayInputStream("{\"other\": []}".getBytes(StandardCharsets.UTF_8))));
+  }
+
+  /** A field which is missing in every row is only known after the last row */
+  @Test
+  void testMissingPathIsAnError() throws HopException {
+    StreamingJsonReader reader = StreamingJsonReader.create(fields("$.data[*].id"), logMock);
+    reader.setIgnoreMissingPath(false);
+
+    IRowSet rowSet =
+        reader.parseStringValue(
+            new ByteArrayInputStream(
+                "{\"data\": [{\"name\": 1}]}".getBytes(StandardCharsets.UTF_8)));
+    assertArrayEquals(new Object[] {null}, rowSet.getRow());
+    HopRuntimeException e = assertThrows(HopRuntimeException.class, rowSet::getRow);
+    assertTrue(e.getCause() instanceof JsonInputException);
+  }
+}
@@ -0,0 +1,330 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.kafka.consumer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILogChannel;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+
+/**
+ * Polls a Kafka consumer on a thread of its own so the next batch is fetched while the transform
+ * processes the current one. The consumer is only used on the fetch thread once it's started: the
+ * transform takes batches from a small queue and hands back the offsets of the batches it
+ * processed, which the fetch thread commits asynchronously. The offsets of a batch are only
+ * committed after the batch is processed and every batch is committed once, a failed commit is
+ * covered by the commit of a later batch.
+ *
+ * <p>When the queue is full the assigned partitions are paused, polling continues so the consumer
+ * stays in the group. When partitions are revoked the processed offsets are committed right away
+ * and the batches which are still queued are dropped, the partitions which stay assigned are
+ * rewound to the first dropped record. An optional listener is told about revoked and assigned
+ * partitions after that, on the fetch thread.
+ */
+public class KafkaConsumerFetcher implements Runnable {
+
+  /** The number of batches which are fetched ahead of the transform */
+  public static final int QUEUED_BATCHES = 2;
+
+  private static final Duration POLL_TIMEOUT = Duration.ofMillis(100);
+
+  private final Consumer<Object, Object> consumer;
+  private final ILogChannel log;
+  private final BlockingQueue<ConsumerRecords<Object, Object>> batches;
+  private final Queue<Map<TopicPartition, OffsetAndMetadata>> processedOffsets;
+  private final Map<TopicPartition, OffsetAndMetadata> pendingOffsets;
+  private final ConsumerRebalanceListener rebalanceListener;
+
+  private Thread thread;
+  private boolean paused;
+  private volatile boolean running;
+  private volatile boolean assigned;
+  private volatile Throwable error;
+  private volatile long failedCommits;
+
+  public KafkaConsumerFetcher(Consumer<Object, Object> consumer, ILogChannel log) {
+    this(consumer, log, null);
+  }
+
+  /**
+   * @param consumer the consumer to poll
+   * @param log the log channel
+   * @param rebalanceListener told about revoked and assigned partitions, can be null
+   */
+  public KafkaConsumerFetcher(
+      Consumer<Object, Object> consumer,
+      ILogChannel log,
+      ConsumerRebalanceListener rebalanceListener) {
+    this.consumer = consumer;
+    this.log = log;
+    this.rebalanceListener = rebalanceListener;
+    this.batches = new ArrayBlockingQueue<>(QUEUED_BATCHES);
+    this.processedOffsets = new ConcurrentLinkedQueue<>();
+    this.pendingOffsets = new HashMap<>();
+  }
+
+  /**
+   * Subscribe to the topics and start fetching.
+   *
+   * @param topics the topics to subscribe to
+   * @param threadName the name of the fetch thread
+   */
+  public void start(Collection<String> topics, String threadName) {
+    consumer.subscribe(topics, new RebalanceListener());
+    running = true;
+    thread = new Thread(this, threadName);
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  @Override
+  public void run() {
+    try {
+      while (running) {
+        commitProcessedOffsets(false);
+        pauseWhenQueueIsFull();
+
+        ConsumerRecords<Object, Object> records = consumer.poll(POLL_TIMEOUT);
+        assigned = !consumer.assignment().isEmpty();
+        if (!records.isEmpty()) {
+          // There's room: the partitions are paused when the queue is full
+          //
+          while (running && !batches.offer(records, 100, TimeUnit.MILLISECONDS)) {
+            // Wait for the transform to take a batch
+          }
+        }
+      }
+    } catch (WakeupException e) {
+      // Woken up to stop
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (Throwable e) {
+      error = e;
+    } finally {
+      running = false;
+    }
+  }
+
+  /**
+   * Get the next batch of records.
+   *
+   * @param timeout how long to wait for a batch
+   * @return the next batch or an empty batch if none arrived in time
+   * @throws WakeupException when fetching stopped
+   * @throws HopException when fetching failed
+   */
+  public ConsumerRecords<Object, Object> nextBatch(Duration timeout) throws HopException {
+    long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeout.toMillis());
+    long deadline = System.nanoTime() + Math.min(timeoutNanos, Long.MAX_VALUE / 2);
+    try {
+      while (true) {
+        if (error != null) {
+          throw new HopException("Error fetching records from Kafka", error);
+        }
+        long remaining = deadline - System.nanoTime();
+        ConsumerRecords<Object, Object> records =
+            batches.poll(
+                Math.max(0L, Math.min(remaining, POLL_TIMEOUT.toNanos())), TimeUnit.NANOSECONDS);
+        if (records != null) {
+          return records;
+        }
+        if (!running && error == null) {
+          throw new WakeupException();
+        }
+        if (deadline - System.nanoTime() <= 0) {
+          return ConsumerRecords.empty();
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new WakeupException();
+    }
+  }
+
+  /**
+   * Hand back a processed batch, its offsets are committed by the fetch thread.
+   *
+   * @param records the batch which was processed
+   */
+  public void batchProcessed(ConsumerRecords<Object, Object> records) {
+    Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+    for (TopicPartition partition : records.partitions()) {
+      List<ConsumerRecord<Object, Object>> partitionRecords = records.records(partition);
+      long lastOffset = partitionRecords.get(partitionRecords.size() - 1).offset();
+      offsets.put(partition, new OffsetAndMetadata(lastOffset + 1));
+    }
+    if (!offsets.isEmpty()) {
+      processedOffsets.add(offsets);
+    }
+  }
+
+  /**
+   * Stop fetching and commit the offsets of the processed batches. The consumer can be closed
+   * afterwards.
+   */
+  public void stop() {
+    running = false;
+    if (thread == null) {
+      return;
+    }
+    if (thread.isAlive()) {
+      consumer.wakeup();
+    }
+    try {
+      thread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
+    }
+    thread = null;
+
+    // The fetch thread is gone, the last processed batches are committed here.
+    // A wakeup which the fetch thread didn't see anymore fails the first attempt.
+    //
+    try {
+      try {
+        commitProcessedOffsets(true);
+      } catch (WakeupException e) {
+        commitProcessedOffsets(true);
+      }
+    } catch (Exception e) {
+      log.logError("Unable to commit the offsets of the processed Kafka records", e);
+    }
+  }
+
+  /**
+   * Gets assigned
+   *
+   * @return true if the consumer has partitions assigned after the last poll
+   */
+  public boolean isAssigned() {
+    return assigned;
+  }
+
+  /**
+   * Gets failedCommits
+   *
+   * @return the number of asynchronous commits which failed
+   */
+  public long getFailedCommits() {
+    return failedCommits;
+  }
+
+  private void pauseWhenQueueIsFull() {
+    if (batches.remainingCapacity() == 0) {
+      // Also pauses partitions which were assigned since the last time
+      //
+      consumer.pause(consumer.assignment());
+      paused = true;
+    } else if (paused) {
+      consumer.resume(consumer.paused());
+      paused = false;
+    }
+  }
+
+  /**
+   * Commit the offsets of all processed batches at once. Later batches come after earlier ones in
+   * every partition so the last offsets of a partition win. Partitions which are no longer assigned
+   * are left alone, the consumer which owns them now continues from the last commit. The offsets
+   * stay pending when the commit can't be started.
+   */
+  private void commitProcessedOffsets(boolean synchronous) {
+    Map<TopicPartition, OffsetAndMetadata> batchOffsets;
+    while ((batchOffsets = processedOffsets.poll()) != null) {
+      pendingOffsets.putAll(batchOffsets);
+    }
+    pendingOffsets.keySet().retainAll(consumer.assignment());
+    if (pendingOffsets.isEmpty()) {
+      return;
+    }
+    Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>(pendingOffsets);
+    if (synchronous) {
+      consumer.commitSync(offsets);
+    } else {
+      consumer.commitAsync(
+          offsets,
+          (committed, exception) -> {
+            if (exception != null) {
+              failedCommits++;
+              log.logError("Unable to commit Kafka offsets " + committed, exception);
+            }
+          });
+    }
+    pendingOffsets.clear();
+  }
+
+  private class RebalanceListener implements ConsumerRebalanceListener {
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+      try {
+        commitProcessedOffsets(true);
+      } catch (Exception e) {
+        log.logError("Unable to commit the offsets of revoked Kafka partitions", e);
+      }
+
+      // Drop the batches nobody took yet, the partitions we keep are read again
+      //
+      List<ConsumerRecords<Object, Object>> queued = new ArrayList<>();
+      batches.drainTo(queued);
+      Set<TopicPartition> revoked = new HashSet<>(partitions);
+      Map<TopicPartition, Long> rewindOffsets = new HashMap<>();
+      for (ConsumerRecords<Object, Object> records : queued) {
+        for (TopicPartition partition : records.partitions()) {
+          if (!revoked.contains(partition)) {
+            rewindOffsets.merge(partition, records.records(partition).get(0).offset(), Math::min);
+          }
+        }
+      }
+      rewindOffsets.forEach(consumer::seek);
+      if (paused) {
+        consumer.resume(consumer.paused());
+        paused = false;
+      }
+      if (rebalanceListener != null) {
+        rebalanceListener.onPartitionsRevoked(partitions);
+      }
+    }
+
+    @Override
+    public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+      // New partitions start from their committed offsets unless the listener seeks
+      //
+      if (rebalanceListener != null) {
+        rebalanceListener.onPartitionsAssigned(partitions);
+      }
+    }
+  }
+}
@@ -19,8 +19,13 @@ package org.apache.hop.pipeline.transforms.kafka.consumer;
 
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.hop.core.Const;
@@ -38,18 +43,22 @@ import org.apache.hop.pipeline.config.PipelineRunConfiguration;
 import org.apache.hop.pipeline.engines.local.LocalPipelineEngine;
 import org.apache.hop.pipeline.engines.local.LocalPipelineRunConfiguration;
 import org.apache.hop.pipeline.transform.BaseTransform;
+import org.apache.hop.pipeline.transform.IStatefulTransform;
 import org.apache.hop.pipeline.transform.ITransform;
 import org.apache.hop.pipeline.transform.ITransformMeta;
 import org.apache.hop.pipeline.transform.RowAdapter;
 import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transform.TransformMetaDataCombi;
 import org.apache.hop.pipeline.transforms.injector.InjectorMeta;
 import org.apache.hop.pipeline.transforms.kafka.shared.KafkaHeaders;
 import org.apache.hop.pipeline.transforms.kafka.shared.KafkaOption;
 import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.errors.WakeupException;
 
 /** Consume messages from a Kafka topic */
@@ -58,6 +67,9 @@ public class KafkaConsumerInput
 
   private static final Class<?> PKG = KafkaConsumerInputMeta.class;
 
+  /** The prefix of the checkpoint metadata with the next offset of a topic partition */
+  public static final String CHECKPOINT_OFFSET_PREFIX = "kafka.offset.";
+
   public KafkaConsumerInput(
       TransformMeta transformMeta,
       KafkaConsumerInputMeta meta,
@@ -93,9 +105,12 @@ public class KafkaConsumerInput
     data.consumer = buildKafkaConsumer(this, meta);
 
     // Subscribe to the topics...
+    // When polling while processing, the fetcher subscribes once the sub-pipeline is ready.
     //
     Set<String> topics = meta.getTopics().stream().map(this::resolve).collect(Collectors.toSet());
-    data.consumer.subscribe(topics);
+    if (!meta.isPollWhileProcessing()) {
+      data.consumer.subscribe(topics, new CheckpointRebalanceListener());
+    }
 
     // Load and start the single threader transformation
     //
@@ -108,6 +123,13 @@ public class KafkaConsumerInput
 
     // Set Kafka consumer is closing flag to false
     data.isKafkaConsumerClosing = false;
+
+    if (meta.isPollWhileProcessing()) {
+      data.fetcher =
+          new KafkaConsumerFetcher(
+              data.consumer, getLogChannel(), new CheckpointRebalanceListener());
+      data.fetcher.start(topics, "Kafka consumer " + getTransformName() + "." + getCopy());
+    }
     return true;
   }
 
@@ -204,6 +226,18 @@ public class KafkaConsumerInput
         throw new HopException("Initialization of sub-pipeline failed");
       }
 
+      // Transforms which keep their state are checkpointed together with the offsets
+      //
+      data.statefulTransforms = new ArrayList<>();
+      for (TransformMetaDataCombi combi : kafkaPipeline.getTransforms()) {
+        if (combi.transform instanceof IStatefulTransform stateful && stateful.isStateful()) {
+          data.statefulTransforms.add(stateful);
+        }
+      }
+      if (data.checkpointOffsets == null) {
+        data.checkpointOffsets = readCheckpointOffsets(data.statefulTransforms);
+      }
+
       getPipeline().addActiveSubPipeline(getTransformName(), kafkaPipeline);
     } catch (Exception e) {
       throw new HopException("Unable to load and initialize sub pipeline", e);
@@ -212,6 +246,11 @@ public class KafkaConsumerInput
 
   @Override
   public void dispose() {
+    // Stop fetching first, the consumer is only used on this thread after that
+    //
+    if (data.fetcher != null) {
+      data.fetcher.stop();
+    }
     if (data.consumer != null) {
       data.consumer.unsubscribe();
       data.consumer.close();
@@ -242,7 +281,11 @@ public class KafkaConsumerInput
     config.put(
         ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG,
         variables.resolve(meta.getDirectBootstrapServers()));
-    config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, meta.isAutoCommit());
+    // Auto commit would commit records which are fetched ahead before they are processed
+    //
+    config.put(
+        ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG,
+        meta.isAutoCommit() && !meta.isPollWhileProcessing());
 
     // Timeout : max batch wait
     //
@@ -289,7 +332,8 @@ public class KafkaConsumerInput
       long pollMs =
           data.stopWhenIdle ? 100L : (data.batchDuration > 0 ? data.batchDuration : Long.MAX_VALUE);
       Duration duration = Duration.ofMillis(pollMs);
-      ConsumerRecords<Object, Object> records = data.consumer.poll(duration);
+      ConsumerRecords<Object, Object> records =
+          data.fetcher == null ? data.consumer.poll(duration) : data.fetcher.nextBatch(duration);
 
       if (!data.isKafkaConsumerClosing) {
         if (records.isEmpty()) {
@@ -298,7 +342,7 @@ public class KafkaConsumerInput
           // longer than maxIdleTimeMs and would otherwise stop before any poll can succeed.
           //
           if (data.stopWhenIdle) {
-            if (data.consumer.assignment() == null || data.consumer.assignment().isEmpty()) {
+            if (!hasAssignedPartitions()) {
               data.lastRecordTime = System.currentTimeMillis();
             } else if ((System.currentTimeMillis() - data.lastRecordTime) >= data.maxIdleTimeMs) {
               logBasic(
@@ -362,11 +406,22 @@ public class KafkaConsumerInput
             }
           }
 
+          // The state of the batch is made durable before its offsets are committed
+          //
+          rememberOffsets(records);
+          if (data.executor.getErrors() == 0) {
+            checkpointState();
+          }
+
           // Confirm everything is processed. In case error handling is enabled, this is valid too
           // because it helps in
           // "removing" failing items from the kafka queue
           //
-          data.consumer.commitAsync();
+          if (data.fetcher == null) {
+            data.consumer.commitAsync();
+          } else {
+            data.fetcher.batchProcessed(records);
+          }
           data.executor.buildExecutionSummary();
           if (errorHandlingConditionIsSatisfied()) {
             data.incomingRowsBuffer.clear();
@@ -401,6 +456,92 @@ public class KafkaConsumerInput
     return true;
   }
 
+  /**
+   * The offsets to continue from according to the last checkpoint of the stateful transforms. When
+   * the transforms don't agree, for example after a failed checkpoint, the lowest offset is used.
+   */
+  private Map<TopicPartition, Long> readCheckpointOffsets(List<IStatefulTransform> transforms) {
+    Map<TopicPartition, Long> offsets = new ConcurrentHashMap<>();
+    boolean first = true;
+    for (IStatefulTransform transform : transforms) {
+      Map<TopicPartition, Long> transformOffsets = new HashMap<>();
+      for (Map.Entry<String, String> entry : transform.getCheckpointMetadata().entrySet()) {
+        String key = entry.getKey();
+        int separator = key.lastIndexOf(':');
+        if (!key.startsWith(CHECKPOINT_OFFSET_PREFIX) || separator < 0) {
+          continue;
+        }
+        TopicPartition partition =
+            new TopicPartition(
+                key.substring(CHECKPOINT_OFFSET_PREFIX.length(), separator),
+                Const.toInt(key.substring(separator + 1), 0));
+        transformOffsets.put(partition, Const.toLong(entry.getValue(), 0L));
+      }
+      if (!first && !transformOffsets.equals(offsets)) {
+        logBasic(
+            "The checkpoints of the transforms in the Kafka pipeline don't match, continuing from the lowest offsets");
+      }
+      transformOffsets.forEach((partition, offset) -> offsets.merge(partition, offset, Math::min));
+      first = false;
+    }
+    return offsets;
+  }
+
+  private void rememberOffsets(ConsumerRecords<Object, Object> records) {
+    for (TopicPartition partition : records.partitions()) {
+      List<ConsumerRecord<Object, Object>> partitionRecords = records.records(partition);
+      data.checkpointOffsets.put(
+          partition, partitionRecords.get(partitionRecords.size() - 1).offset() + 1);
+    }
+  }
+
+  private void checkpointState() throws HopException {
+    if (data.statefulTransforms.isEmpty()) {
+      return;
+    }
+    Map<String, String> metadata = new HashMap<>();
+    data.checkpointOffsets.forEach(
+        (partition, offset) ->
+            metadata.put(
+                CHECKPOINT_OFFSET_PREFIX + partition.topic() + ":" + partition.partition(),
+                Long.toString(offset)));
+    for (IStatefulTransform transform : data.statefulTransforms) {
+      transform.checkpoint(metadata);
+    }
+  }
+
+  /**
+   * Partitions continue from the offsets of the last checkpoint of the state when the state is
+   * ahead of the last commit, for example when the transform stopped between the two. The consumer
+   * never seeks back, records which are being processed during a rebalance aren't read twice.
+   */
+  private class CheckpointRebalanceListener implements ConsumerRebalanceListener {
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+      // Nothing to do, the state of processed batches is checkpointed
+    }
+
+    @Override
+    public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+      if (data.checkpointOffsets == null) {
+        return;
+      }
+      for (TopicPartition partition : partitions) {
+        Long offset = data.checkpointOffsets.get(partition);
+        if (offset != null && offset > data.consumer.position(partition)) {
+          data.consumer.seek(partition, offset);
+        }
+      }
+    }
+  }
+
+  private boolean hasAssignedPartitions() {
+    if (data.fetcher != null) {
+      return data.fetcher.isAssigned();
+    }
+    return data.consumer.assignment() != null && !data.consumer.assignment().isEmpty();
+  }
+
   private boolean errorHandlingConditionIsSatisfied() {
     // Added a check to be sure that lines collecting for error handling is limited
     // to the case of batchSize = 1.
@@ -18,17 +18,21 @@
 package org.apache.hop.pipeline.transforms.kafka.consumer;
 
 import java.util.List;
+import java.util.Map;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.pipeline.RowProducer;
 import org.apache.hop.pipeline.SingleThreadedPipelineExecutor;
 import org.apache.hop.pipeline.transform.BaseTransformData;
+import org.apache.hop.pipeline.transform.IStatefulTransform;
 import org.apache.hop.pipeline.transform.ITransformData;
 import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
 
 @SuppressWarnings("java:S1104")
 public class KafkaConsumerInputData extends BaseTransformData implements ITransformData {
   public IRowMeta outputRowMeta;
   public Consumer<Object, Object> consumer;
+  public KafkaConsumerFetcher fetcher;
   public int batchDuration;
   public int batchSize;
   public boolean stopWhenIdle;
@@ -39,6 +43,12 @@ public class KafkaConsumerInputData extends BaseTransformData implements ITransf
   public boolean isKafkaConsumerClosing;
   public List<Object[]> incomingRowsBuffer;
 
+  /** The transforms of the sub-pipeline which keep their state, checkpointed after every batch */
+  public List<IStatefulTransform> statefulTransforms;
+
+  /** The next offset to read per partition, as far as the state is concerned */
+  public Map<TopicPartition, Long> checkpointOffsets;
+
   /** */
   public KafkaConsumerInputData() {
     super();
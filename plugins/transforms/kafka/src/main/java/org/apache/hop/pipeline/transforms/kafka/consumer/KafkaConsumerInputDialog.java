@@ -109,6 +109,7 @@ public class KafkaConsumerInputDialog extends BaseTransformDialog {
   protected Button wStopWhenIdle;
   protected Label wlMaxIdleTimeMs;
   protected TextVar wMaxIdleTimeMs;
+  protected Button wPollWhileProcessing;
 
   protected CTabFolder wTabFolder;
   protected CTabItem wSetupTab;
@@ -304,6 +305,7 @@ public class KafkaConsumerInputDialog extends BaseTransformDialog {
     m.setBatchDuration(wBatchDuration.getText());
     m.setStopWhenIdle(wStopWhenIdle.getSelection());
     m.setMaxIdleTimeMs(wMaxIdleTimeMs.getText());
+    m.setPollWhileProcessing(wPollWhileProcessing.getSelection());
     m.setSubTransform(wSubTransform.getText());
     setTopicsFromTable();
 
@@ -334,7 +336,7 @@ public class KafkaConsumerInputDialog extends BaseTransformDialog {
     wOffsetGroup.setLayout(flOffsetGroup);
 
     FormData fdOffsetGroup = new FormData();
-    fdOffsetGroup.top = new FormAttachment(wMaxIdleTimeMs, 15);
+    fdOffsetGroup.top = new FormAttachment(wPollWhileProcessing, 15);
     fdOffsetGroup.left = new FormAttachment(0, 0);
     fdOffsetGroup.right = new FormAttachment(100, 0);
     wOffsetGroup.setLayoutData(fdOffsetGroup);
@@ -650,6 +652,19 @@ public class KafkaConsumerInputDialog extends BaseTransformDialog {
     fdMaxIdleTimeMs.top = new FormAttachment(wlMaxIdleTimeMs, 0, SWT.CENTER);
     wMaxIdleTimeMs.setLayoutData(fdMaxIdleTimeMs);
 
+    wPollWhileProcessing = new Button(wBatchComp, SWT.CHECK);
+    PropsUi.setLook(wPollWhileProcessing);
+    wPollWhileProcessing.setText(
+        BaseMessages.getString(PKG, "KafkaConsumerInputDialog.PollWhileProcessing"));
+    wPollWhileProcessing.setToolTipText(
+        BaseMessages.getString(PKG, "KafkaConsumerInputDialog.PollWhileProcessing.Tooltip"));
+    wPollWhileProcessing.addListener(SWT.Selection, e -> meta.setChanged());
+    FormData fdPollWhileProcessing = new FormData();
+    fdPollWhileProcessing.left = new FormAttachment(middle, 0);
+    fdPollWhileProcessing.top = new FormAttachment(wMaxIdleTimeMs, margin);
+    fdPollWhileProcessing.right = new FormAttachment(100, 0);
+    wPollWhileProcessing.setLayoutData(fdPollWhileProcessing);
+
     wBatchComp.layout();
     wBatchTab.setControl(wBatchComp);
   }
@@ -865,6 +880,7 @@ public class KafkaConsumerInputDialog extends BaseTransformDialog {
     wBatchDuration.setText(Const.NVL(meta.getBatchDuration(), ""));
     wStopWhenIdle.setSelection(meta.isStopWhenIdle());
     wMaxIdleTimeMs.setText(Const.NVL(meta.getMaxIdleTimeMs(), "500"));
+    wPollWhileProcessing.setSelection(meta.isPollWhileProcessing());
 
     wbAutoCommit.setSelection(meta.isAutoCommit());
     wbManualCommit.setSelection(!meta.isAutoCommit());
@@ -181,6 +181,12 @@ public class KafkaConsumerInputMeta
       injectionKeyDescription = "KafkaConsumerInputMeta.Injection.MAX_IDLE_TIME_MS")
   private String maxIdleTimeMs;
 
+  @HopMetadataProperty(
+      key = "pollWhileProcessing",
+      injectionKey = "POLL_WHILE_PROCESSING",
+      injectionKeyDescription = "KafkaConsumerInputMeta.Injection.POLL_WHILE_PROCESSING")
+  private boolean pollWhileProcessing = false;
+
   @HopMetadataProperty(
       groupKey = "options",
       key = "option",
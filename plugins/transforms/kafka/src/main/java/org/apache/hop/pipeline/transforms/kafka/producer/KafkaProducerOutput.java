@@ -17,17 +17,28 @@
 
 package org.apache.hop.pipeline.transforms.kafka.producer;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.hop.core.Const;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.engine.EngineMetric;
+import org.apache.hop.pipeline.engine.IEngineMetric;
 import org.apache.hop.pipeline.transform.BaseTransform;
 import org.apache.hop.pipeline.transform.TransformMeta;
 import org.apache.hop.pipeline.transforms.kafka.consumer.KafkaConsumerField;
 import org.apache.hop.pipeline.transforms.kafka.shared.KafkaFactory;
 import org.apache.hop.pipeline.transforms.kafka.shared.KafkaHeaders;
+import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
 import org.apache.kafka.common.header.Header;
 
 public class KafkaProducerOutput
@@ -35,6 +46,64 @@ public class KafkaProducerOutput
 
   private static final Class<?> PKG = KafkaProducerOutputMeta.class;
 
+  public static final IEngineMetric METRIC_IN_FLIGHT =
+      new EngineMetric(
+          "kafka_in_flight",
+          "In flight",
+          "The number of records sent to Kafka which are not acknowledged yet",
+          "120",
+          true);
+  public static final IEngineMetric METRIC_FAILED_SENDS =
+      new EngineMetric(
+          "kafka_failed_sends",
+          "Failed sends",
+          "The number of records Kafka failed to store",
+          "121",
+          true);
+  public static final IEngineMetric METRIC_SEND_RATE =
+      new EngineMetric(
+          "kafka_send_rate",
+          "Send rate",
+          "The average number of records sent to Kafka per second",
+          "122",
+          true);
+  public static final IEngineMetric METRIC_BATCH_BYTES =
+      new EngineMetric(
+          "kafka_batch_bytes",
+          "Batch bytes",
+          "The average size in bytes of the batches sent to Kafka",
+          "123",
+          true);
+  public static final IEngineMetric METRIC_COMPRESSION =
+      new EngineMetric(
+          "kafka_compression",
+          "Compressed %",
+          "The average compressed size of the batches as a percentage of their original size",
+          "124",
+          true);
+  public static final IEngineMetric METRIC_REQUEST_LATENCY =
+      new EngineMetric(
+          "kafka_request_latency",
+          "Latency (ms)",
+          "The average time in milliseconds a produce request takes",
+          "125",
+          true);
+
+  private static final String PRODUCER_METRICS_GROUP = "producer-metrics";
+
+  /** The producer metrics which are reported by name, with the factor to apply to their value */
+  private static final Map<String, ProducerMetric> PRODUCER_METRICS =
+      Map.of(
+          "record-send-rate", new ProducerMetric(METRIC_SEND_RATE, 1),
+          "batch-size-avg", new ProducerMetric(METRIC_BATCH_BYTES, 1),
+          "compression-rate-avg", new ProducerMetric(METRIC_COMPRESSION, 100),
+          "request-latency-avg", new ProducerMetric(METRIC_REQUEST_LATENCY, 1));
+
+  /** The outcome of a send, reported by the producer on its own thread */
+  record SendResult(Object[] row, String topic, Exception exception) {}
+
+  private record ProducerMetric(IEngineMetric metric, double factor) {}
+
   private KafkaFactory kafkaFactory;
 
   public KafkaProducerOutput(
@@ -57,10 +126,21 @@ public class KafkaProducerOutput
     Object[] r = getRow(); // get row, set busy!
     if (r == null) {
       // no more input to be expected...
-      setOutputDone();
       if (data.kafkaProducer != null) {
-        data.kafkaProducer.close();
+        try {
+          if (data.isOpen) {
+            // Wait for the last sends, their rows are passed on before the output is done
+            //
+            data.kafkaProducer.flush();
+            handleSendResults();
+          }
+        } finally {
+          data.isOpen = false;
+          data.producerMetrics = readProducerMetrics(data.kafkaProducer);
+          data.kafkaProducer.close();
+        }
       }
+      setOutputDone();
       return false;
     }
     if (first) {
@@ -104,12 +184,18 @@ public class KafkaProducerOutput
               KafkaConsumerField.Type.fromValueMeta(data.keyValueMeta),
               KafkaConsumerField.Type.fromValueMeta(data.msgValueMeta));
 
+      int maxRecordsInFlight = Const.toInt(resolve(meta.getMaxRecordsInFlight()), 0);
+      data.inFlightPermits = maxRecordsInFlight > 0 ? new Semaphore(maxRecordsInFlight) : null;
+      data.passRowsOnAck = getTransformMeta().isDoingErrorHandling();
+      data.sendResults = new ConcurrentLinkedQueue<>();
+
       data.isOpen = true;
 
       first = false;
     }
 
-    if (!data.isOpen) {
+    handleSendResults();
+    if (!data.isOpen || !acquireInFlightPermit()) {
       return false;
     }
     String topic = resolveTopic(r);
@@ -142,10 +228,12 @@ public class KafkaProducerOutput
               headers);
     }
 
-    data.kafkaProducer.send(producerRecord);
+    send(producerRecord, r);
     incrementLinesOutput();
 
-    putRow(getInputRowMeta(), r); // copy row to possible alternate rowset(s).
+    if (!data.passRowsOnAck) {
+      putRow(getInputRowMeta(), r); // copy row to possible alternate rowset(s).
+    }
 
     if (checkFeedback(getLinesRead()) && isBasic()) {
       logBasic(BaseMessages.getString(PKG, "KafkaConsumerOutput.Log.LineNumber") + getLinesRead());
@@ -201,11 +289,133 @@ public class KafkaProducerOutput
     return KafkaHeaders.fromJson(json);
   }
 
+  /**
+   * Sends a record without waiting for Kafka. The producer reports the outcome through a callback
+   * which is handled on the transform thread by {@link #handleSendResults()}.
+   *
+   * @param producerRecord the record to send
+   * @param row the input row of the record
+   */
+  private void send(ProducerRecord<Object, Object> producerRecord, Object[] row) {
+    String topic = producerRecord.topic();
+    data.recordsInFlight.incrementAndGet();
+    try {
+      data.kafkaProducer.send(
+          producerRecord, (metadata, exception) -> sendCompleted(row, topic, exception));
+    } catch (RuntimeException e) {
+      // Serialization errors, a closed producer and other errors before the record is queued,
+      // no callback follows
+      //
+      sendCompleted(row, topic, e);
+    }
+  }
+
+  private void sendCompleted(Object[] row, String topic, Exception exception) {
+    data.recordsInFlight.decrementAndGet();
+    if (data.inFlightPermits != null) {
+      data.inFlightPermits.release();
+    }
+    if (exception != null) {
+      data.failedSends.incrementAndGet();
+    }
+    if (exception != null || data.passRowsOnAck) {
+      data.sendResults.add(new SendResult(row, topic, exception));
+    }
+  }
+
+  /**
+   * Handles the sends Kafka completed since the last call. With error handling the acknowledged
+   * rows are passed on and the failed ones go to the error hop, otherwise a failed send stops the
+   * transform.
+   *
+   * @throws HopException if a send failed and there's no error handling
+   */
+  private void handleSendResults() throws HopException {
+    SendResult result;
+    while ((result = data.sendResults.poll()) != null) {
+      if (result.exception() == null) {
+        putRow(getInputRowMeta(), result.row());
+        continue;
+      }
+      String message =
+          BaseMessages.getString(PKG, "KafkaProducerOutput.Error.SendFailed", result.topic());
+      if (!data.passRowsOnAck) {
+        throw new HopException(message, result.exception());
+      }
+      putError(
+          getInputRowMeta(),
+          result.row(),
+          1,
+          message + Const.CR + result.exception().getMessage(),
+          null,
+          "KafkaProducerOutput001");
+    }
+  }
+
+  /**
+   * Waits until fewer records than the maximum are in flight. Acknowledged rows are passed on while
+   * waiting.
+   *
+   * @return false if the transform stopped while waiting
+   * @throws HopException if a send failed and there's no error handling
+   */
+  private boolean acquireInFlightPermit() throws HopException {
+    if (data.inFlightPermits == null) {
+      return true;
+    }
+    try {
+      while (!data.inFlightPermits.tryAcquire(100, TimeUnit.MILLISECONDS)) {
+        handleSendResults();
+        if (isStopped() || !data.isOpen) {
+          return false;
+        }
+      }
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  @Override
+  public Map<IEngineMetric, Long> getTransformMetrics() {
+    Map<IEngineMetric, Long> metrics = new LinkedHashMap<>();
+    metrics.put(METRIC_IN_FLIGHT, data.recordsInFlight.get());
+    metrics.put(METRIC_FAILED_SENDS, data.failedSends.get());
+    Producer<Object, Object> producer = data.kafkaProducer;
+    if (producer != null && data.isOpen) {
+      data.producerMetrics = readProducerMetrics(producer);
+    }
+    if (data.producerMetrics != null) {
+      metrics.putAll(data.producerMetrics);
+    }
+    return metrics;
+  }
+
+  /** Reads the averages of the producer, metrics without samples yet are left out. */
+  private static Map<IEngineMetric, Long> readProducerMetrics(Producer<Object, Object> producer) {
+    Map<IEngineMetric, Long> metrics = new LinkedHashMap<>();
+    for (Map.Entry<MetricName, ? extends Metric> entry : producer.metrics().entrySet()) {
+      MetricName name = entry.getKey();
+      ProducerMetric producerMetric = PRODUCER_METRICS.get(name.name());
+      if (producerMetric == null || !PRODUCER_METRICS_GROUP.equals(name.group())) {
+        continue;
+      }
+      if (entry.getValue().metricValue() instanceof Number value
+          && Double.isFinite(value.doubleValue())) {
+        metrics.put(
+            producerMetric.metric(), Math.round(value.doubleValue() * producerMetric.factor()));
+      }
+    }
+    return metrics;
+  }
+
   @Override
   public void stopRunning() {
     if (data.kafkaProducer != null && data.isOpen) {
       data.isOpen = false;
       data.kafkaProducer.flush();
+      data.producerMetrics = readProducerMetrics(data.kafkaProducer);
       data.kafkaProducer.close();
     }
   }
@@ -17,7 +17,12 @@
 
 package org.apache.hop.pipeline.transforms.kafka.producer;
 
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
 import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.pipeline.engine.IEngineMetric;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
 import org.apache.kafka.clients.producer.Producer;
@@ -34,6 +39,21 @@ public class KafkaProducerOutputData extends BaseTransformData implements ITrans
   public String topic;
   public boolean isOpen;
 
+  /** Limits the records which are sent but not acknowledged yet, null when there's no limit */
+  public Semaphore inFlightPermits;
+
+  /** Rows are only passed on once Kafka acknowledged them, failed rows go to the error hop */
+  public boolean passRowsOnAck;
+
+  /** Results of sends reported by the producer, handled on the transform thread */
+  public Queue<KafkaProducerOutput.SendResult> sendResults;
+
+  public final AtomicLong recordsInFlight = new AtomicLong();
+  public final AtomicLong failedSends = new AtomicLong();
+
+  /** The last producer metrics, kept when the producer is closed */
+  public volatile Map<IEngineMetric, Long> producerMetrics;
+
   public KafkaProducerOutputData() {
     super();
   }
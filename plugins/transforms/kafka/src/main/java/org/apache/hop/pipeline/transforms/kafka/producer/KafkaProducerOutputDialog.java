@@ -62,6 +62,7 @@ public class KafkaProducerOutputDialog extends BaseTransformDialog {
 
   private static final ImmutableMap<String, String> DEFAULT_OPTION_VALUES =
       ImmutableMap.of(ProducerConfig.COMPRESSION_TYPE_CONFIG, "none");
+  private static final String[] COMPRESSION_TYPES = {"none", "gzip", "snappy", "lz4", "zstd"};
   public static final String CONST_KAFKA_PRODUCER_OUTPUT_DIALOG_FIELD_NOT_EXISTS_TITLE =
       "KafkaProducerOutputDialog.FieldNotExists.Title";
 
@@ -78,6 +79,11 @@ public class KafkaProducerOutputDialog extends BaseTransformDialog {
   private ComboVar wKeyField;
   private ComboVar wMessageField;
   private ComboVar wHeadersField;
+  private TextVar wLingerMs;
+  private TextVar wBatchSize;
+  private ComboVar wCompressionType;
+  private Button wIdempotent;
+  private TextVar wMaxRecordsInFlight;
   private TableView optionsTable;
   private CTabFolder wTabFolder;
 
@@ -114,6 +120,7 @@ public class KafkaProducerOutputDialog extends BaseTransformDialog {
     wTabFolder.setLayoutData(fdTabFolder);
 
     buildSetupTab();
+    buildBatchingTab();
     buildOptionsTab();
 
     getData();
@@ -336,6 +343,131 @@ public class KafkaProducerOutputDialog extends BaseTransformDialog {
     wSetupTab.setControl(wSetupComp);
   }
 
+  private void buildBatchingTab() {
+    CTabItem wBatchingTab = new CTabItem(wTabFolder, SWT.NONE);
+    wBatchingTab.setFont(GuiResource.getInstance().getFontDefault());
+    wBatchingTab.setText(BaseMessages.getString(PKG, "KafkaProducerOutputDialog.BatchingTab"));
+
+    Composite wBatchingComp = new Composite(wTabFolder, SWT.NONE);
+    PropsUi.setLook(wBatchingComp);
+    FormLayout batchingLayout = new FormLayout();
+    batchingLayout.marginHeight = 15;
+    batchingLayout.marginWidth = 15;
+    wBatchingComp.setLayout(batchingLayout);
+
+    Label wlLingerMs = new Label(wBatchingComp, SWT.RIGHT);
+    PropsUi.setLook(wlLingerMs);
+    wlLingerMs.setText(BaseMessages.getString(PKG, "KafkaProducerOutputDialog.LingerMs"));
+    FormData fdlLingerMs = new FormData();
+    fdlLingerMs.left = new FormAttachment(0, 0);
+    fdlLingerMs.top = new FormAttachment(0, 0);
+    fdlLingerMs.right = new FormAttachment(middle, -margin);
+    wlLingerMs.setLayoutData(fdlLingerMs);
+
+    wLingerMs = new TextVar(variables, wBatchingComp, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wLingerMs);
+    wLingerMs.addModifyListener(lsMod);
+    wLingerMs.setToolTipText(
+        BaseMessages.getString(PKG, "KafkaProducerOutputDialog.LingerMs.Tooltip"));
+    FormData fdLingerMs = new FormData();
+    fdLingerMs.left = new FormAttachment(wlLingerMs, margin);
+    fdLingerMs.top = new FormAttachment(wlLingerMs, 0, SWT.CENTER);
+    fdLingerMs.right = new FormAttachment(100, 0);
+    wLingerMs.setLayoutData(fdLingerMs);
+
+    Label wlBatchSize = new Label(wBatchingComp, SWT.RIGHT);
+    PropsUi.setLook(wlBatchSize);
+    wlBatchSize.setText(BaseMessages.getString(PKG, "KafkaProducerOutputDialog.BatchSize"));
+    FormData fdlBatchSize = new FormData();
+    fdlBatchSize.left = new FormAttachment(0, 0);
+    fdlBatchSize.top = new FormAttachment(wLingerMs, margin);
+    fdlBatchSize.right = new FormAttachment(middle, -margin);
+    wlBatchSize.setLayoutData(fdlBatchSize);
+
+    wBatchSize = new TextVar(variables, wBatchingComp, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wBatchSize);
+    wBatchSize.addModifyListener(lsMod);
+    wBatchSize.setToolTipText(
+        BaseMessages.getString(PKG, "KafkaProducerOutputDialog.BatchSize.Tooltip"));
+    FormData fdBatchSize = new FormData();
+    fdBatchSize.left = new FormAttachment(wlBatchSize, margin);
+    fdBatchSize.top = new FormAttachment(wlBatchSize, 0, SWT.CENTER);
+    fdBatchSize.right = new FormAttachment(100, 0);
+    wBatchSize.setLayoutData(fdBatchSize);
+
+    Label wlCompressionType = new Label(wBatchingComp, SWT.RIGHT);
+    PropsUi.setLook(wlCompressionType);
+    wlCompressionType.setText(
+        BaseMessages.getString(PKG, "KafkaProducerOutputDialog.CompressionType"));
+    FormData fdlCompressionType = new FormData();
+    fdlCompressionType.left = new FormAttachment(0, 0);
+    fdlCompressionType.top = new FormAttachment(wBatchSize, margin);
+    fdlCompressionType.right = new FormAttachment(middle, -margin);
+    wlCompressionType.setLayoutData(fdlCompressionType);
+
+    wCompressionType = new ComboVar(variables, wBatchingComp, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wCompressionType);
+    wCompressionType.setItems(COMPRESSION_TYPES);
+    wCompressionType.addModifyListener(lsMod);
+    wCompressionType.setToolTipText(
+        BaseMessages.getString(PKG, "KafkaProducerOutputDialog.CompressionType.Tooltip"));
+    FormData fdCompressionType = new FormData();
+    fdCompressionType.left = new FormAttachment(wlCompressionType, margin);
+    fdCompressionType.top = new FormAttachment(wlCompressionType, 0, SWT.CENTER);
+    fdCompressionType.right = new FormAttachment(100, 0);
+    wCompressionType.setLayoutData(fdCompressionType);
+
+    Label wlIdempotent = new Label(wBatchingComp, SWT.RIGHT);
+    PropsUi.setLook(wlIdempotent);
+    wlIdempotent.setText(BaseMessages.getString(PKG, "KafkaProducerOutputDialog.Idempotent"));
+    FormData fdlIdempotent = new FormData();
+    fdlIdempotent.left = new FormAttachment(0, 0);
+    fdlIdempotent.top = new FormAttachment(wCompressionType, margin);
+    fdlIdempotent.right = new FormAttachment(middle, -margin);
+    wlIdempotent.setLayoutData(fdlIdempotent);
+
+    wIdempotent = new Button(wBatchingComp, SWT.CHECK);
+    PropsUi.setLook(wIdempotent);
+    wIdempotent.setToolTipText(
+        BaseMessages.getString(PKG, "KafkaProducerOutputDialog.Idempotent.Tooltip"));
+    FormData fdIdempotent = new FormData();
+    fdIdempotent.left = new FormAttachment(wlIdempotent, margin);
+    fdIdempotent.top = new FormAttachment(wlIdempotent, 0, SWT.CENTER);
+    fdIdempotent.right = new FormAttachment(100, 0);
+    wIdempotent.setLayoutData(fdIdempotent);
+    wIdempotent.addListener(SWT.Selection, e -> meta.setChanged());
+
+    Label wlMaxRecordsInFlight = new Label(wBatchingComp, SWT.RIGHT);
+    PropsUi.setLook(wlMaxRecordsInFlight);
+    wlMaxRecordsInFlight.setText(
+        BaseMessages.getString(PKG, "KafkaProducerOutputDialog.MaxRecordsInFlight"));
+    FormData fdlMaxRecordsInFlight = new FormData();
+    fdlMaxRecordsInFlight.left = new FormAttachment(0, 0);
+    fdlMaxRecordsInFlight.top = new FormAttachment(wIdempotent, margin);
+    fdlMaxRecordsInFlight.right = new FormAttachment(middle, -margin);
+    wlMaxRecordsInFlight.setLayoutData(fdlMaxRecordsInFlight);
+
+    wMaxRecordsInFlight = new TextVar(variables, wBatchingComp, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wMaxRecordsInFlight);
+    wMaxRecordsInFlight.addModifyListener(lsMod);
+    wMaxRecordsInFlight.setToolTipText(
+        BaseMessages.getString(PKG, "KafkaProducerOutputDialog.MaxRecordsInFlight.Tooltip"));
+    FormData fdMaxRecordsInFlight = new FormData();
+    fdMaxRecordsInFlight.left = new FormAttachment(wlMaxRecordsInFlight, margin);
+    fdMaxRecordsInFlight.top = new FormAttachment(wlMaxRecordsInFlight, 0, SWT.CENTER);
+    fdMaxRecordsInFlight.right = new FormAttachment(100, 0);
+    wMaxRecordsInFlight.setLayoutData(fdMaxRecordsInFlight);
+
+    FormData fdBatchingComp = new FormData();
+    fdBatchingComp.left = new FormAttachment(0, 0);
+    fdBatchingComp.top = new FormAttachment(0, 0);
+    fdBatchingComp.right = new FormAttachment(100, 0);
+    fdBatchingComp.bottom = new FormAttachment(100, 0);
+    wBatchingComp.setLayoutData(fdBatchingComp);
+    wBatchingComp.layout();
+    wBatchingTab.setControl(wBatchingComp);
+  }
+
   private void buildOptionsTab() {
     CTabItem wOptionsTab = new CTabItem(wTabFolder, SWT.NONE);
     wOptionsTab.setFont(GuiResource.getInstance().getFontDefault());
@@ -445,6 +577,11 @@ public class KafkaProducerOutputDialog extends BaseTransformDialog {
     wKeyField.setText(Const.NVL(meta.getKeyField(), ""));
     wMessageField.setText(Const.NVL(meta.getMessageField(), ""));
     wHeadersField.setText(Const.NVL(meta.getHeadersField(), ""));
+    wLingerMs.setText(Const.NVL(meta.getLingerMs(), ""));
+    wBatchSize.setText(Const.NVL(meta.getBatchSize(), ""));
+    wCompressionType.setText(Const.NVL(meta.getCompressionType(), ""));
+    wIdempotent.setSelection(meta.isIdempotent());
+    wMaxRecordsInFlight.setText(Const.NVL(meta.getMaxRecordsInFlight(), ""));
 
     populateOptionsData();
     enableFields();
@@ -582,6 +719,11 @@ public class KafkaProducerOutputDialog extends BaseTransformDialog {
     }
 
     meta.setHeadersField(wHeadersField.getText());
+    meta.setLingerMs(wLingerMs.getText());
+    meta.setBatchSize(wBatchSize.getText());
+    meta.setCompressionType(wCompressionType.getText());
+    meta.setIdempotent(wIdempotent.getSelection());
+    meta.setMaxRecordsInFlight(wMaxRecordsInFlight.getText());
     meta.setOptions(KafkaDialogHelper.getConfig(optionsTable));
 
     transformName = wTransformName.getText();
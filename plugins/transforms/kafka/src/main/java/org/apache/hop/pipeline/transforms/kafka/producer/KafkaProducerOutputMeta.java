@@ -99,6 +99,36 @@ public class KafkaProducerOutputMeta
       injectionKeyDescription = "KafkaProducerOutputMeta.Injection.MESSAGE_FIELD")
   private String messageField;
 
+  @HopMetadataProperty(
+      key = "lingerMs",
+      injectionKey = "LINGER_MS",
+      injectionKeyDescription = "KafkaProducerOutputMeta.Injection.LINGER_MS")
+  private String lingerMs;
+
+  @HopMetadataProperty(
+      key = "batchSize",
+      injectionKey = "BATCH_SIZE",
+      injectionKeyDescription = "KafkaProducerOutputMeta.Injection.BATCH_SIZE")
+  private String batchSize;
+
+  @HopMetadataProperty(
+      key = "compressionType",
+      injectionKey = "COMPRESSION_TYPE",
+      injectionKeyDescription = "KafkaProducerOutputMeta.Injection.COMPRESSION_TYPE")
+  private String compressionType;
+
+  @HopMetadataProperty(
+      key = "idempotent",
+      injectionKey = "IDEMPOTENT",
+      injectionKeyDescription = "KafkaProducerOutputMeta.Injection.IDEMPOTENT")
+  private boolean idempotent;
+
+  @HopMetadataProperty(
+      key = "maxRecordsInFlight",
+      injectionKey = "MAX_RECORDS_IN_FLIGHT",
+      injectionKeyDescription = "KafkaProducerOutputMeta.Injection.MAX_RECORDS_IN_FLIGHT")
+  private String maxRecordsInFlight;
+
   @HopMetadataProperty(
       groupKey = "options",
       key = "option",
@@ -121,6 +151,11 @@ public class KafkaProducerOutputMeta
     this.headersField = m.headersField;
     this.keyField = m.keyField;
     this.messageField = m.messageField;
+    this.lingerMs = m.lingerMs;
+    this.batchSize = m.batchSize;
+    this.compressionType = m.compressionType;
+    this.idempotent = m.idempotent;
+    this.maxRecordsInFlight = m.maxRecordsInFlight;
     m.options.forEach(option -> this.options.add(new KafkaOption(option)));
   }
 
@@ -135,6 +170,11 @@ public class KafkaProducerOutputMeta
     // Default: nothing changes to rowMeta
   }
 
+  @Override
+  public boolean supportsErrorHandling() {
+    return true;
+  }
+
   @Override
   public void convertLegacyXml(Node transformNode) {
     // Read the old options format:
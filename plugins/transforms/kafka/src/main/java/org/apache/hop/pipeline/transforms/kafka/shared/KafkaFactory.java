@@ -109,9 +109,30 @@ public class KafkaFactory {
             (entry ->
                 kafkaConfig.put(entry.getProperty(), variableNonNull.apply(entry.getValue()))));
 
+    // The batching settings of the transform win over the same properties in the options
+    //
+    putIfNotEmpty(
+        kafkaConfig, ProducerConfig.LINGER_MS_CONFIG, variableNonNull.apply(meta.getLingerMs()));
+    putIfNotEmpty(
+        kafkaConfig, ProducerConfig.BATCH_SIZE_CONFIG, variableNonNull.apply(meta.getBatchSize()));
+    putIfNotEmpty(
+        kafkaConfig,
+        ProducerConfig.COMPRESSION_TYPE_CONFIG,
+        variableNonNull.apply(meta.getCompressionType()));
+    if (meta.isIdempotent()) {
+      kafkaConfig.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+      kafkaConfig.put(ProducerConfig.ACKS_CONFIG, "all");
+    }
+
     return producerFunction.apply(kafkaConfig);
   }
 
+  private static void putIfNotEmpty(Map<String, Object> config, String key, String value) {
+    if (!value.isBlank()) {
+      config.put(key, value.trim());
+    }
+  }
+
   private static String nullToEmpty(String value) {
     return value == null ? "" : value;
   }
@@ -0,0 +1,278 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.kafka.consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILogChannel;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetCommitCallback;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for {@link KafkaConsumerFetcher}. The records are added in tasks which the mock
+ * consumer runs at the start of a poll, on the fetch thread, so every poll returns the records of
+ * one task as a batch.
+ */
+class KafkaConsumerFetcherTest {
+
+  private static final String TOPIC = "topic";
+  private static final TopicPartition TP0 = new TopicPartition(TOPIC, 0);
+  private static final TopicPartition TP1 = new TopicPartition(TOPIC, 1);
+  private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+  private RecordingConsumer consumer;
+  private KafkaConsumerFetcher fetcher;
+
+  @BeforeEach
+  void setUp() {
+    consumer = new RecordingConsumer();
+    fetcher = new KafkaConsumerFetcher(consumer, mock(ILogChannel.class));
+  }
+
+  @AfterEach
+  void tearDown() {
+    fetcher.stop();
+  }
+
+  @Test
+  void testBatchesQueueUpAndPartitionsArePausedWhenTheQueueIsFull() throws Exception {
+    int queued = KafkaConsumerFetcher.QUEUED_BATCHES;
+    consumer.schedulePollTask(
+        () -> {
+          assign(TP0);
+          consumer.addRecord(record(TP0, 0));
+        });
+    for (int offset = 1; offset < queued + 2; offset++) {
+      ConsumerRecord<Object, Object> record = record(TP0, offset);
+      consumer.schedulePollTask(() -> consumer.addRecord(record));
+    }
+    fetcher.start(List.of(TOPIC), "fetcher");
+
+    waitFor(() -> consumer.paused().contains(TP0));
+    assertTrue(fetcher.isAssigned());
+
+    // Only the batches which fit in the queue were fetched, one poll each
+    //
+    for (long offset = 0; offset < queued; offset++) {
+      assertEquals(List.of(offset), offsets(fetcher.nextBatch(TIMEOUT), TP0));
+    }
+
+    // The records which arrived while the partition was paused follow
+    //
+    List<Long> offsets = new ArrayList<>();
+    while (offsets.size() < 2) {
+      offsets.addAll(offsets(fetcher.nextBatch(TIMEOUT), TP0));
+    }
+    assertEquals(List.of((long) queued, queued + 1L), offsets);
+    waitFor(() -> consumer.paused().isEmpty());
+  }
+
+  @Test
+  void testProcessedOffsetsAreCommittedForAssignedPartitionsOnly() throws Exception {
+    consumer.schedulePollTask(
+        () -> {
+          assign(TP0, TP1);
+          consumer.addRecord(record(TP0, 5));
+          consumer.addRecord(record(TP1, 7));
+        });
+    fetcher.start(List.of(TOPIC), "fetcher");
+
+    ConsumerRecords<Object, Object> batch = fetcher.nextBatch(TIMEOUT);
+    assertEquals(2, batch.count());
+
+    // Partition 1 moves to another consumer before the batch is processed
+    //
+    consumer.schedulePollTask(() -> consumer.rebalance(List.of(TP0)));
+    waitFor(() -> consumer.assignment().equals(Set.of(TP0)));
+    fetcher.batchProcessed(batch);
+
+    waitFor(() -> !consumer.allCommits().isEmpty());
+    for (Map<TopicPartition, OffsetAndMetadata> commit : consumer.allCommits()) {
+      assertFalse(commit.containsKey(TP1));
+    }
+    assertEquals(6L, consumer.allCommits().get(0).get(TP0).offset());
+  }
+
+  @Test
+  void testQueuedBatchesAreDroppedAndRewoundWhenPartitionsAreRevoked() throws Exception {
+    consumer.schedulePollTask(
+        () -> {
+          assign(TP0, TP1);
+          consumer.addRecord(record(TP0, 0));
+          consumer.addRecord(record(TP1, 0));
+        });
+    consumer.schedulePollTask(
+        () -> {
+          consumer.addRecord(record(TP0, 1));
+          consumer.addRecord(record(TP1, 1));
+        });
+    fetcher.start(List.of(TOPIC), "fetcher");
+    waitFor(() -> !consumer.paused().isEmpty());
+
+    // Both batches are queued, nothing was processed. Partition 1 is revoked and the records of
+    // partition 0 are delivered again by the broker once the consumer seeks back.
+    //
+    consumer.schedulePollTask(
+        () -> {
+          consumer.rebalance(List.of(TP0));
+          assertEquals(0L, consumer.position(TP0));
+          consumer.addRecord(record(TP0, 0));
+          consumer.addRecord(record(TP0, 1));
+        });
+
+    List<Long> offsets = new ArrayList<>();
+    while (offsets.size() < 2) {
+      ConsumerRecords<Object, Object> batch = fetcher.nextBatch(TIMEOUT);
+      assertTrue(batch.records(TP1).isEmpty());
+      offsets.addAll(offsets(batch, TP0));
+    }
+    assertEquals(List.of(0L, 1L), offsets);
+    assertTrue(consumer.paused().isEmpty());
+  }
+
+  @Test
+  void testStopCommitsTheLastProcessedBatchSynchronously() throws Exception {
+    consumer.schedulePollTask(
+        () -> {
+          assign(TP0);
+          consumer.addRecord(record(TP0, 3));
+        });
+    fetcher.start(List.of(TOPIC), "fetcher");
+    ConsumerRecords<Object, Object> batch = fetcher.nextBatch(TIMEOUT);
+
+    // The fetch thread stops before it gets to commit the processed batch
+    //
+    consumer.schedulePollTask(
+        () -> {
+          fetcher.batchProcessed(batch);
+          consumer.wakeup();
+        });
+    waitFor(
+        () -> {
+          try {
+            fetcher.nextBatch(Duration.ofMillis(10));
+            return false;
+          } catch (Exception e) {
+            return true;
+          }
+        });
+
+    fetcher.stop();
+
+    assertTrue(consumer.asyncCommits.isEmpty());
+    assertEquals(List.of(Map.of(TP0, new OffsetAndMetadata(4L))), consumer.syncCommits);
+  }
+
+  @Test
+  void testFetchErrorIsThrownByNextBatch() {
+    KafkaException failure = new KafkaException("Broker gone");
+    consumer.setPollException(failure);
+    fetcher.start(List.of(TOPIC), "fetcher");
+
+    HopException e = assertThrows(HopException.class, () -> fetcher.nextBatch(TIMEOUT));
+    assertSame(failure, e.getCause());
+  }
+
+  private void assign(TopicPartition... partitions) {
+    consumer.rebalance(List.of(partitions));
+    Map<TopicPartition, Long> beginningOffsets = new HashMap<>();
+    for (TopicPartition partition : partitions) {
+      beginningOffsets.put(partition, 0L);
+    }
+    consumer.updateBeginningOffsets(beginningOffsets);
+  }
+
+  private static ConsumerRecord<Object, Object> record(TopicPartition partition, long offset) {
+    return new ConsumerRecord<>(
+        partition.topic(), partition.partition(), offset, "key-" + offset, "value-" + offset);
+  }
+
+  private static List<Long> offsets(ConsumerRecords<Object, Object> batch, TopicPartition tp) {
+    List<Long> offsets = new ArrayList<>();
+    for (ConsumerRecord<Object, Object> record : batch.records(tp)) {
+      offsets.add(record.offset());
+    }
+    return offsets;
+  }
+
+  private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + TIMEOUT.toMillis();
+    while (!condition.getAsBoolean()) {
+      assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting for the fetcher");
+      Thread.sleep(10);
+    }
+  }
+
+  /** Keeps track of the synchronous and asynchronous commits */
+  private static class RecordingConsumer extends MockConsumer<Object, Object> {
+    private final List<Map<TopicPartition, OffsetAndMetadata>> syncCommits =
+        new CopyOnWriteArrayList<>();
+    private final List<Map<TopicPartition, OffsetAndMetadata>> asyncCommits =
+        new CopyOnWriteArrayList<>();
+
+    RecordingConsumer() {
+      super(OffsetResetStrategy.EARLIEST);
+    }
+
+    @Override
+    public synchronized void commitSync(Map<TopicPartition, OffsetAndMetadata> offsets) {
+      syncCommits.add(new HashMap<>(offsets));
+      super.commitSync(offsets);
+    }
+
+    @Override
+    public synchronized void commitAsync(
+        Map<TopicPartition, OffsetAndMetadata> offsets, OffsetCommitCallback callback) {
+      // The mock commits synchronously through here without a callback
+      //
+      if (callback != null) {
+        asyncCommits.add(new HashMap<>(offsets));
+      }
+      super.commitAsync(offsets, callback);
+    }
+
+    List<Map<TopicPartition, OffsetAndMetadata>> allCommits() {
+      List<Map<TopicPartition, OffsetAndMetadata>> commits = new ArrayList<>(syncCommits);
+      commits.addAll(asyncCommits);
+      return commits;
+    }
+  }
+}
@@ -106,6 +106,7 @@ class KafkaConsumerInputMetaTest {
     meta.setAutoCommit(true);
     meta.setStopWhenIdle(true);
     meta.setMaxIdleTimeMs("1500");
+    meta.setPollWhileProcessing(true);
     meta.getOptions().clear();
     meta.getOptions().add(new KafkaOption("auto.offset.reset", "latest"));
     meta.getOptions().add(new KafkaOption("ssl.key.password", ""));
@@ -147,6 +148,7 @@ class KafkaConsumerInputMetaTest {
     assertEquals("222", copy.getBatchDuration());
     assertTrue(copy.isStopWhenIdle());
     assertEquals("1500", copy.getMaxIdleTimeMs());
+    assertTrue(copy.isPollWhileProcessing());
     assertTrue(copy.getTopics().contains("topic1"));
     assertTrue(copy.getTopics().contains("topic2"));
 
@@ -200,6 +202,7 @@ class KafkaConsumerInputMetaTest {
     // Legacy XML without the new fields keeps defaults
     assertFalse(meta.isStopWhenIdle());
     assertEquals("500", meta.getMaxIdleTimeMs());
+    assertFalse(meta.isPollWhileProcessing());
 
     assertEquals(6, meta.getOptions().size());
     assertEquals("auto.offset.reset", meta.getOptions().getFirst().getProperty());
@@ -254,6 +257,16 @@ class KafkaConsumerInputMetaTest {
     assertEquals("2500", copy.getMaxIdleTimeMs());
   }
 
+  @Test
+  void testPollWhileProcessingClone() {
+    KafkaConsumerInputMeta meta = new KafkaConsumerInputMeta();
+    assertFalse(meta.isPollWhileProcessing());
+    meta.setPollWhileProcessing(true);
+
+    KafkaConsumerInputMeta copy = (KafkaConsumerInputMeta) meta.clone();
+    assertTrue(copy.isPollWhileProcessing());
+  }
+
   /**
    * On resource export {@code TransformWithMappingMeta.exportResources} bundles the sub-pipeline
    * and rewrites the reference through {@code replaceFileName(...)}. The sub-pipeline path is
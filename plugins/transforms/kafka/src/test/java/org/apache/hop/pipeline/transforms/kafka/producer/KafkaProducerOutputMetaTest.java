@@ -43,6 +43,11 @@ class KafkaProducerOutputMetaTest {
     assertEquals("compression.type", meta.getOptions().getFirst().getProperty());
     assertEquals("none", meta.getOptions().getFirst().getValue());
     assertEquals("ssl.truststore.password", meta.getOptions().getLast().getProperty());
+    // Legacy XML without the batching settings keeps the Kafka defaults
+    assertNull(meta.getLingerMs());
+    assertNull(meta.getCompressionType());
+    assertFalse(meta.isIdempotent());
+    assertNull(meta.getMaxRecordsInFlight());
   }
 
   @Test
@@ -68,4 +73,22 @@ class KafkaProducerOutputMetaTest {
     assertTrue(copy.isTopicInField());
     assertEquals("topic", copy.getTopicField());
   }
+
+  @Test
+  void testCopyConstructorCopiesBatchingSettings() {
+    KafkaProducerOutputMeta meta = new KafkaProducerOutputMeta();
+    meta.setLingerMs("20");
+    meta.setBatchSize("65536");
+    meta.setCompressionType("zstd");
+    meta.setIdempotent(true);
+    meta.setMaxRecordsInFlight("10000");
+
+    KafkaProducerOutputMeta copy = new KafkaProducerOutputMeta(meta);
+
+    assertEquals("20", copy.getLingerMs());
+    assertEquals("65536", copy.getBatchSize());
+    assertEquals("zstd", copy.getCompressionType());
+    assertTrue(copy.isIdempotent());
+    assertEquals("10000", copy.getMaxRecordsInFlight());
+  }
 }
@@ -0,0 +1,220 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.kafka.producer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.apache.hop.core.HopClientEnvironment;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironmentExtension;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.engines.local.LocalPipelineEngine;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transforms.kafka.shared.KafkaFactory;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.serialization.Serializer;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+/** Unit test for the sends of {@link KafkaProducerOutput}, against a mock producer */
+class KafkaProducerOutputTest {
+  @RegisterExtension
+  static RestoreHopEngineEnvironmentExtension env = new RestoreHopEngineEnvironmentExtension();
+
+  private static final String TRANSFORM_NAME = "Kafka Producer";
+  private static final String ERROR_CODE = "KafkaProducerOutput001";
+
+  private final Object[] row1 = new Object[] {"k1", "message 1"};
+  private final Object[] row2 = new Object[] {"k2", "message 2"};
+  private final Object[] row3 = new Object[] {"k3", "message 3"};
+
+  private IRowMeta rowMeta;
+  private KafkaProducerOutputMeta meta;
+  private KafkaProducerOutputData data;
+  private MockProducer<Object, Object> producer;
+
+  @BeforeAll
+  static void setUpBeforeClass() throws HopException {
+    HopClientEnvironment.init();
+  }
+
+  @BeforeEach
+  void setUp() {
+    rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("key"));
+    rowMeta.addValueMeta(new ValueMetaString("message"));
+
+    meta = new KafkaProducerOutputMeta();
+    meta.setTopic("topic");
+    meta.setKeyField("key");
+    meta.setMessageField("message");
+    data = new KafkaProducerOutputData();
+
+    // Sends only complete when the test says so
+    //
+    Serializer<Object> serializer =
+        (topic, value) -> value == null ? null : value.toString().getBytes(StandardCharsets.UTF_8);
+    producer = new MockProducer<>(false, serializer, serializer);
+  }
+
+  @Test
+  void testFailedSendsGoToTheErrorHop() throws Exception {
+    KafkaProducerOutput transform = createTransform(true);
+
+    process(transform, row1);
+    assertTrue(producer.errorNext(new KafkaException("Not stored")));
+    process(transform, row2);
+
+    verify(transform)
+        .putError(eq(rowMeta), eq(row1), eq(1L), anyString(), isNull(), eq(ERROR_CODE));
+    verify(transform, never()).putRow(any(IRowMeta.class), eq(row1));
+    assertEquals(1L, data.failedSends.get());
+  }
+
+  @Test
+  void testRowsArePassedOnWhenAcknowledged() throws Exception {
+    KafkaProducerOutput transform = createTransform(true);
+
+    process(transform, row1);
+    verify(transform, never()).putRow(any(IRowMeta.class), any(Object[].class));
+
+    assertTrue(producer.completeNext());
+    process(transform, row2);
+    verify(transform).putRow(rowMeta, row1);
+    verify(transform, never()).putRow(rowMeta, row2);
+
+    // The end of the input waits for the last sends
+    //
+    doReturn(null).when(transform).getRow();
+    assertFalse(transform.processRow());
+    verify(transform).putRow(rowMeta, row2);
+    assertEquals(0L, data.recordsInFlight.get());
+    assertTrue(producer.closed());
+  }
+
+  @Test
+  void testSendsWaitForRoomWhenTheMaximumIsInFlight() throws Exception {
+    meta.setMaxRecordsInFlight("1");
+    KafkaProducerOutput transform = createTransform(true);
+    process(transform, row1);
+
+    doReturn(row2).when(transform).getRow();
+    CompletableFuture<Boolean> processed =
+        CompletableFuture.supplyAsync(
+            () -> {
+              try {
+                return transform.processRow();
+              } catch (HopException e) {
+                throw new IllegalStateException(e);
+              }
+            });
+
+    Thread.sleep(300);
+    assertFalse(processed.isDone());
+    assertEquals(1, producer.history().size());
+
+    assertTrue(producer.completeNext());
+    assertTrue(processed.get(10, TimeUnit.SECONDS));
+    assertEquals(2, producer.history().size());
+    assertEquals(1L, data.recordsInFlight.get());
+  }
+
+  @Test
+  void testFailedSendStopsTheTransformWithoutErrorHandling() throws Exception {
+    KafkaProducerOutput transform = createTransform(false);
+
+    process(transform, row1);
+    verify(transform).putRow(rowMeta, row1);
+    assertTrue(producer.errorNext(new KafkaException("Not stored")));
+
+    doReturn(row2).when(transform).getRow();
+    assertThrows(HopException.class, transform::processRow);
+    verify(transform, never()).putError(any(), any(), anyLong(), anyString(), any(), anyString());
+  }
+
+  @Test
+  void testSendOnAClosedProducerReleasesItsPermit() throws Exception {
+    meta.setMaxRecordsInFlight("2");
+    KafkaProducerOutput transform = createTransform(false);
+
+    process(transform, row1);
+    producer.close();
+
+    // The producer throws instead of calling back, the record isn't in flight anymore
+    //
+    process(transform, row2);
+    assertEquals(1L, data.recordsInFlight.get());
+    assertEquals(1, data.inFlightPermits.availablePermits());
+    assertEquals(1L, data.failedSends.get());
+
+    doReturn(row3).when(transform).getRow();
+    assertThrows(HopException.class, transform::processRow);
+  }
+
+  private KafkaProducerOutput createTransform(boolean errorHandling) throws HopException {
+    KafkaFactory factory = mock(KafkaFactory.class);
+    when(factory.producer(any(), any(), any(), any())).thenReturn(producer);
+
+    TransformMeta transformMeta = spy(new TransformMeta(TRANSFORM_NAME, meta));
+    doReturn(errorHandling).when(transformMeta).isDoingErrorHandling();
+    PipelineMeta pipelineMeta = mock(PipelineMeta.class);
+    when(pipelineMeta.findTransform(TRANSFORM_NAME)).thenReturn(transformMeta);
+
+    KafkaProducerOutput transform =
+        spy(
+            new KafkaProducerOutput(
+                transformMeta, meta, data, 0, pipelineMeta, spy(new LocalPipelineEngine())));
+    transform.setKafkaFactory(factory);
+    doNothing().when(transform).putRow(any(IRowMeta.class), any(Object[].class));
+    doNothing()
+        .when(transform)
+        .putError(any(IRowMeta.class), any(Object[].class), anyLong(), any(), any(), any());
+    doNothing().when(transform).setOutputDone();
+    doReturn(rowMeta).when(transform).getInputRowMeta();
+    return transform;
+  }
+
+  private static void process(KafkaProducerOutput transform, Object[] row) throws HopException {
+    doReturn(row).when(transform).getRow();
+    assertTrue(transform.processRow());
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.kafka.shared;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+import org.apache.hop.pipeline.transforms.kafka.producer.KafkaProducerOutputMeta;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.junit.jupiter.api.Test;
+
+class KafkaFactoryTest {
+
+  private final Map<String, Object> producerConfig = new HashMap<>();
+  private final KafkaFactory factory =
+      new KafkaFactory(
+          config -> null,
+          config -> {
+            producerConfig.putAll(config);
+            return null;
+          });
+
+  @Test
+  void testBatchingSettingsWinOverOptions() {
+    KafkaProducerOutputMeta meta = new KafkaProducerOutputMeta();
+    meta.getOptions().add(new KafkaOption(ProducerConfig.COMPRESSION_TYPE_CONFIG, "none"));
+    meta.getOptions().add(new KafkaOption(ProducerConfig.LINGER_MS_CONFIG, "5"));
+    meta.setCompressionType("${COMPRESSION}");
+    meta.setLingerMs("20");
+    meta.setBatchSize("65536");
+    meta.setIdempotent(true);
+
+    factory.producer(meta, value -> "${COMPRESSION}".equals(value) ? "lz4" : value);
+
+    assertEquals("lz4", producerConfig.get(ProducerConfig.COMPRESSION_TYPE_CONFIG));
+    assertEquals("20", producerConfig.get(ProducerConfig.LINGER_MS_CONFIG));
+    assertEquals("65536", producerConfig.get(ProducerConfig.BATCH_SIZE_CONFIG));
+    assertEquals(true, producerConfig.get(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG));
+    assertEquals("all", producerConfig.get(ProducerConfig.ACKS_CONFIG));
+  }
+
+  @Test
+  void testEmptyBatchingSettingsKeepOptions() {
+    KafkaProducerOutputMeta meta = new KafkaProducerOutputMeta();
+    meta.getOptions().add(new KafkaOption(ProducerConfig.COMPRESSION_TYPE_CONFIG, "gzip"));
+    meta.setLingerMs(" ");
+
+    factory.producer(meta, Function.identity());
+
+    assertEquals("gzip", producerConfig.get(ProducerConfig.COMPRESSION_TYPE_CONFIG));
+    assertFalse(producerConfig.containsKey(ProducerConfig.LINGER_MS_CONFIG));
+    assertFalse(producerConfig.containsKey(ProducerConfig.BATCH_SIZE_CONFIG));
+    assertFalse(producerConfig.containsKey(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG));
+    assertFalse(producerConfig.containsKey(ProducerConfig.ACKS_CONFIG));
+  }
+}
@@ -19,6 +19,7 @@ package org.apache.hop.pipeline.transforms.mapping;
 
 import java.util.List;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.hop.base.MetaFileCache;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.i18n.BaseMessages;
@@ -134,7 +135,8 @@ public class SimpleMapping extends BaseTransform<SimpleMappingMeta, SimpleMappin
     // advance
     if (simpleMappingData.mappingPipelineMeta == null) {
       simpleMappingData.mappingPipelineMeta =
-          new PipelineMeta(variables.resolve(meta.getFilename()), metadataProvider, variables);
+          MetaFileCache.loadPipelineMeta(
+              variables.resolve(meta.getFilename()), metadataProvider, variables);
       simpleMappingData.mappingPipelineMeta.clearChanged();
     }
 
@@ -22,6 +22,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.hop.base.MetaFileCache;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.IRowSet;
 import org.apache.hop.core.exception.HopException;
@@ -338,7 +339,8 @@ public class MultiMapping extends BaseTransform<MultiMappingMeta, MultiMappingDa
   public void prepareMappingExecution() throws HopException {
     if (data.mappingPipelineMeta == null) {
       data.mappingPipelineMeta =
-          new PipelineMeta(variables.resolve(meta.getFilename()), metadataProvider, variables);
+          MetaFileCache.loadPipelineMeta(
+              variables.resolve(meta.getFilename()), metadataProvider, variables);
       data.mappingPipelineMeta.clearChanged();
     }
 
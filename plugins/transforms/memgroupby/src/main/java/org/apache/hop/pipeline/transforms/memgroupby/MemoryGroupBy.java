@@ -17,14 +17,27 @@
 
 package org.apache.hop.pipeline.transforms.memgroupby;
 
+import static org.apache.hop.pipeline.transforms.memgroupby.MemoryGroupByMeta.GroupType.ConcatComma;
+import static org.apache.hop.pipeline.transforms.memgroupby.MemoryGroupByMeta.GroupType.ConcatDistinct;
+import static org.apache.hop.pipeline.transforms.memgroupby.MemoryGroupByMeta.GroupType.ConcatString;
 import static org.apache.hop.pipeline.transforms.memgroupby.MemoryGroupByMeta.GroupType.CountAll;
 import static org.apache.hop.pipeline.transforms.memgroupby.MemoryGroupByMeta.GroupType.CountAny;
 import static org.apache.hop.pipeline.transforms.memgroupby.MemoryGroupByMeta.GroupType.CountDistinct;
+import static org.apache.hop.pipeline.transforms.memgroupby.MemoryGroupByMeta.GroupType.Median;
 import static org.apache.hop.pipeline.transforms.memgroupby.MemoryGroupByMeta.GroupType.Percentile;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.net.SocketTimeoutException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.StringJoiner;
@@ -42,18 +55,29 @@ import org.apache.hop.core.row.value.ValueMetaBase;
 import org.apache.hop.core.row.value.ValueMetaInteger;
 import org.apache.hop.core.row.value.ValueMetaNumber;
 import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.core.state.StateStore;
 import org.apache.hop.core.util.Utils;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
 import org.apache.hop.pipeline.transform.BaseTransform;
+import org.apache.hop.pipeline.transform.IStatefulTransform;
 import org.apache.hop.pipeline.transform.TransformMeta;
 import org.apache.hop.pipeline.transforms.memgroupby.MemoryGroupByData.HashEntry;
+import org.apache.hop.pipeline.transforms.memgroupby.MemoryGroupByMeta.GroupType;
 
 /** Groups information based on aggregation rules. (sum, count, ...) */
-public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupByData> {
+public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupByData>
+    implements IStatefulTransform {
   private static final Class<?> PKG = MemoryGroupByMeta.class;
 
+  /** These aggregations keep all values of a group, they can't be kept in a state store */
+  private static final Set<GroupType> STATELESS_TYPES =
+      EnumSet.of(Median, Percentile, CountDistinct, ConcatDistinct);
+
+  /** The state of a copy is kept in this sub directory, followed by the copy number */
+  static final String STATE_COPY_DIRECTORY_PREFIX = "copy-";
+
   private boolean allNullsAreZero = false;
   private boolean minNullIsValued = false;
 
@@ -160,6 +184,10 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
       data.groupAggMeta = new RowMeta();
       data.groupAggMeta.addRowMeta(data.groupMeta);
       data.groupAggMeta.addRowMeta(data.aggMeta);
+
+      if (data.stateStore != null) {
+        initStateRowMeta();
+      }
     }
 
     // Here is where we start to do the real work...
@@ -167,6 +195,13 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
     if (r == null) { // no more input to be expected... (or none received in the first place)
       handleLastOfGroup();
 
+      // Without a transform which checkpoints the state together with the position of its
+      // input, everything which was processed is kept.
+      //
+      if (data.stateStore != null && !data.checkpointedExternally) {
+        data.stateStore.checkpoint(data.stateStore.getCheckpointMetadata());
+      }
+
       setOutputDone();
       return false;
     }
@@ -203,6 +238,10 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
             data.aggMeta.getValueMeta(i).convertToNormalStorageType(aggregateResult[i]);
       }
       putRow(data.outputRowMeta, outputRowData);
+
+      if (data.stateStore != null) {
+        saveState(entry.getGroupData(), aggregate);
+      }
     }
 
     // What if we always need to give back one row?
@@ -249,6 +288,12 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
       aggregate = new Aggregate();
       newAggregate(r, aggregate);
 
+      // Continue from the aggregate of earlier batches
+      //
+      if (data.stateStore != null) {
+        loadState(groupData, aggregate);
+      }
+
       // Store it in the map!
       //
       data.map.put(entry, aggregate);
@@ -474,6 +519,75 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
 
       IValueMeta normalMeta = valueMeta.clone();
       normalMeta.setStorageType(IValueMeta.STORAGE_TYPE_NORMAL);
+      data.entryMeta.addValueMeta(normalMeta);
+    }
+  }
+
+  /** Per aggregation the value in normal storage, the count and the mean. */
+  private void initStateRowMeta() {
+    data.stateRowMeta = new RowMeta();
+    for (int i = 0; i < data.aggMeta.size(); i++) {
+      IValueMeta valueMeta = data.aggMeta.getValueMeta(i).clone();
+      valueMeta.setStorageType(IValueMeta.STORAGE_TYPE_NORMAL);
+      data.stateRowMeta.addValueMeta(valueMeta);
+      data.stateRowMeta.addValueMeta(new ValueMetaInteger("count" + i));
+      data.stateRowMeta.addValueMeta(new ValueMetaNumber("mean" + i));
+    }
+  }
+
+  /** The group values in normal storage, equal groups give equal keys. */
+  private byte[] getStateKey(Object[] groupData) throws HopException {
+    Object[] normalData = new Object[data.groupMeta.size()];
+    for (int i = 0; i < normalData.length; i++) {
+      normalData[i] = data.groupMeta.getValueMeta(i).convertToNormalStorageType(groupData[i]);
+    }
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    data.entryMeta.writeData(new DataOutputStream(bytes), normalData);
+    return bytes.toByteArray();
+  }
+
+  private void saveState(Object[] groupData, Aggregate aggregate) throws HopException {
+    Object[] stateData = new Object[data.stateRowMeta.size()];
+    int index = 0;
+    for (int i = 0; i < data.aggMeta.size(); i++) {
+      Object value = aggregate.agg[i];
+      if (value instanceof StringBuilder builder) {
+        value = builder.toString();
+      }
+      stateData[index++] = data.aggMeta.getValueMeta(i).convertToNormalStorageType(value);
+      stateData[index++] = aggregate.counts[i];
+      stateData[index++] = aggregate.mean[i];
+    }
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    data.stateRowMeta.writeData(new DataOutputStream(bytes), stateData);
+    data.stateStore.put(getStateKey(groupData), bytes.toByteArray());
+  }
+
+  private void loadState(Object[] groupData, Aggregate aggregate) throws HopException {
+    byte[] state = data.stateStore.get(getStateKey(groupData));
+    if (state == null) {
+      return;
+    }
+    Object[] stateData;
+    try {
+      stateData = data.stateRowMeta.readData(new DataInputStream(new ByteArrayInputStream(state)));
+    } catch (SocketTimeoutException e) {
+      // Not a socket
+      throw new HopException(e);
+    }
+    int index = 0;
+    for (int i = 0; i < data.aggMeta.size(); i++) {
+      IValueMeta valueMeta = data.aggMeta.getValueMeta(i);
+      Object value = stateData[index++];
+      GroupType type = meta.getAggregates().get(i).getType();
+      if (type == ConcatComma || type == ConcatString) {
+        value = new StringBuilder(value == null ? "" : (String) value);
+      } else if (value != null && valueMeta.isStorageBinaryString()) {
+        value = valueMeta.convertNormalStorageTypeToBinaryString(value);
+      }
+      aggregate.agg[i] = value;
+      aggregate.counts[i] = (Long) stateData[index++];
+      aggregate.mean[i] = (Double) stateData[index++];
     }
   }
 
@@ -555,17 +669,96 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
 
     if (super.init()) {
       data.map = HashMap.newHashMap(5000);
+
+      String stateDirectory = resolve(meta.getStateDirectory());
+      if (!Utils.isEmpty(stateDirectory)) {
+        for (GAggregate aggregate : meta.getAggregates()) {
+          if (STATELESS_TYPES.contains(aggregate.getType())) {
+            logError(
+                BaseMessages.getString(
+                    PKG,
+                    "MemoryGroupBy.Log.AggregateTypeWithoutState",
+                    aggregate.getField(),
+                    aggregate.getType().getDescription()));
+            return false;
+          }
+        }
+        Path directory = getStateStoreDirectory(stateDirectory);
+        try {
+          data.stateStore = new StateStore(directory);
+        } catch (HopException e) {
+          logError(
+              BaseMessages.getString(
+                  PKG, "MemoryGroupBy.Log.UnableToOpenStateStore", directory.toString()),
+              e);
+          return false;
+        }
+      }
       return true;
     }
     return false;
   }
 
+  /**
+   * Every copy of the transform groups the rows it receives, a store can only be used by one copy.
+   * When the transform runs in several copies every copy keeps its state in a sub directory named
+   * after the copy number.
+   *
+   * @param stateDirectory the resolved state directory
+   * @return the directory of the store of this copy
+   */
+  Path getStateStoreDirectory(String stateDirectory) {
+    Path directory = Paths.get(stateDirectory);
+    if (getTransformMeta().getCopies(this) > 1) {
+      directory = directory.resolve(STATE_COPY_DIRECTORY_PREFIX + getCopy());
+    }
+    return directory;
+  }
+
   @Override
   public void dispose() {
+    // Changes after the last checkpoint are dropped
+    //
+    if (data.stateStore != null) {
+      try {
+        data.stateStore.close();
+      } catch (HopException e) {
+        logError(
+            BaseMessages.getString(
+                PKG, "MemoryGroupBy.Log.UnableToCloseStateStore", data.stateStore.getDirectory()),
+            e);
+      }
+      data.stateStore = null;
+    }
     super.dispose();
     ((MemoryGroupByData) data).clear();
   }
 
+  @Override
+  public boolean isStateful() {
+    return data.stateStore != null;
+  }
+
+  @Override
+  public Map<String, String> getCheckpointMetadata() {
+    return data.stateStore == null ? Map.of() : data.stateStore.getCheckpointMetadata();
+  }
+
+  @Override
+  public void checkpoint(Map<String, String> metadata) throws HopException {
+    if (data.stateStore == null) {
+      return;
+    }
+    data.checkpointedExternally = true;
+
+    // Aggregates of a batch which isn't complete yet
+    //
+    for (Map.Entry<HashEntry, Aggregate> entry : data.map.entrySet()) {
+      saveState(entry.getKey().getGroupData(), entry.getValue());
+    }
+    data.stateStore.checkpoint(metadata);
+  }
+
   @Override
   public void batchComplete() throws HopException {
     // Empty the hash table
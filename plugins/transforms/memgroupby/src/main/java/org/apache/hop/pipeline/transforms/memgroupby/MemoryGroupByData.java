@@ -22,6 +22,7 @@ import org.apache.hop.core.exception.HopRuntimeException;
 import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.state.StateStore;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
 
@@ -90,6 +91,14 @@ public class MemoryGroupByData extends BaseTransformData implements ITransformDa
 
   public boolean newBatch;
 
+  /** Keeps the aggregates across batches and runs, null when no state directory is set */
+  public StateStore stateStore;
+
+  /** The layout of an aggregate in the state store: value, count and mean per aggregation */
+  public IRowMeta stateRowMeta;
+
+  public boolean checkpointedExternally;
+
   public MemoryGroupByData() {
     super();
   }
@@ -33,6 +33,7 @@ import org.apache.hop.ui.core.dialog.BaseDialog;
 import org.apache.hop.ui.core.dialog.ErrorDialog;
 import org.apache.hop.ui.core.widget.ColumnInfo;
 import org.apache.hop.ui.core.widget.TableView;
+import org.apache.hop.ui.core.widget.TextVar;
 import org.apache.hop.ui.pipeline.transform.BaseTransformDialog;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.events.ModifyListener;
@@ -56,6 +57,8 @@ public class MemoryGroupByDialog extends BaseTransformDialog {
 
   private Button wAlwaysAddResult;
 
+  private TextVar wStateDirectory;
+
   private final MemoryGroupByMeta input;
 
   private ColumnInfo[] ciKey;
@@ -114,12 +117,47 @@ public class MemoryGroupByDialog extends BaseTransformDialog {
     wAlwaysAddResult.setLayoutData(fdAlwaysAddResult);
     wAlwaysAddResult.addSelectionListener(lsSel);
 
+    // Keep the aggregates in a state store across batches and runs
+    //
+    Label wlStateDirectory = new Label(shell, SWT.RIGHT);
+    wlStateDirectory.setText(
+        BaseMessages.getString(PKG, "MemoryGroupByDialog.StateDirectory.Label"));
+    wlStateDirectory.setToolTipText(
+        BaseMessages.getString(PKG, "MemoryGroupByDialog.StateDirectory.ToolTip"));
+    PropsUi.setLook(wlStateDirectory);
+    FormData fdlStateDirectory = new FormData();
+    fdlStateDirectory.left = new FormAttachment(0, 0);
+    fdlStateDirectory.top = new FormAttachment(wAlwaysAddResult, margin);
+    fdlStateDirectory.right = new FormAttachment(middle, -margin);
+    wlStateDirectory.setLayoutData(fdlStateDirectory);
+
+    Button wbStateDirectory = new Button(shell, SWT.PUSH | SWT.CENTER);
+    PropsUi.setLook(wbStateDirectory);
+    wbStateDirectory.setText(BaseMessages.getString(PKG, "System.Button.Browse"));
+    FormData fdbStateDirectory = new FormData();
+    fdbStateDirectory.right = new FormAttachment(100, 0);
+    fdbStateDirectory.top = new FormAttachment(wAlwaysAddResult, margin);
+    wbStateDirectory.setLayoutData(fdbStateDirectory);
+    wbStateDirectory.addListener(
+        SWT.Selection, e -> BaseDialog.presentDirectoryDialog(shell, wStateDirectory, variables));
+
+    wStateDirectory = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    wStateDirectory.setToolTipText(
+        BaseMessages.getString(PKG, "MemoryGroupByDialog.StateDirectory.ToolTip"));
+    PropsUi.setLook(wStateDirectory);
+    wStateDirectory.addModifyListener(lsMod);
+    FormData fdStateDirectory = new FormData();
+    fdStateDirectory.left = new FormAttachment(middle, 0);
+    fdStateDirectory.top = new FormAttachment(wAlwaysAddResult, margin);
+    fdStateDirectory.right = new FormAttachment(wbStateDirectory, -margin);
+    wStateDirectory.setLayoutData(fdStateDirectory);
+
     Label wlGroup = new Label(shell, SWT.NONE);
     wlGroup.setText(BaseMessages.getString(PKG, "MemoryGroupByDialog.Group.Label"));
     PropsUi.setLook(wlGroup);
     FormData fdlGroup = new FormData();
     fdlGroup.left = new FormAttachment(0, 0);
-    fdlGroup.top = new FormAttachment(wlAlwaysAddResult, margin);
+    fdlGroup.top = new FormAttachment(wStateDirectory, margin);
     wlGroup.setLayoutData(fdlGroup);
 
     int groupCols = 1;
@@ -266,6 +304,7 @@ public class MemoryGroupByDialog extends BaseTransformDialog {
     logDebug(BaseMessages.getString(PKG, "MemoryGroupByDialog.Log.GettingKeyInfo"));
 
     wAlwaysAddResult.setSelection(input.isAlwaysGivingBackOneRow());
+    wStateDirectory.setText(Const.NVL(input.getStateDirectory(), ""));
 
     for (int i = 0; i < input.getGroups().size(); i++) {
       TableItem item = wGroup.table.getItem(i);
@@ -299,6 +338,7 @@ public class MemoryGroupByDialog extends BaseTransformDialog {
     }
 
     input.setAlwaysGivingBackOneRow(wAlwaysAddResult.getSelection());
+    input.setStateDirectory(wStateDirectory.getText());
 
     input.getGroups().clear();
     for (TableItem item : wGroup.getNonEmptyItems()) {
@@ -69,6 +69,13 @@ public class MemoryGroupByMeta extends BaseTransformMeta<MemoryGroupBy, MemoryGr
       injectionKeyDescription = "MemoryGroupBy.Injection.ALWAYSGIVINGBACKONEROW")
   private boolean alwaysGivingBackOneRow;
 
+  /** The directory where the aggregates are kept across batches and runs, none when empty */
+  @HopMetadataProperty(
+      key = "state_directory",
+      injectionKey = "STATE_DIRECTORY",
+      injectionKeyDescription = "MemoryGroupBy.Injection.STATE_DIRECTORY")
+  private String stateDirectory;
+
   public MemoryGroupByMeta() {
     this.groups = new ArrayList<>();
     this.aggregates = new ArrayList<>();
@@ -347,6 +354,24 @@ public class MemoryGroupByMeta extends BaseTransformMeta<MemoryGroupBy, MemoryGr
     this.alwaysGivingBackOneRow = alwaysGivingBackOneRow;
   }
 
+  /**
+   * Gets stateDirectory
+   *
+   * @return value of stateDirectory
+   */
+  public String getStateDirectory() {
+    return stateDirectory;
+  }
+
+  /**
+   * Sets stateDirectory
+   *
+   * @param stateDirectory value of stateDirectory
+   */
+  public void setStateDirectory(String stateDirectory) {
+    this.stateDirectory = stateDirectory;
+  }
+
   @Override
   public boolean supportsMultiCopyExecution() {
     return false;
@@ -0,0 +1,229 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.memgroupby;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.spy;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.hop.core.HopClientEnvironment;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.core.state.StateStore;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironmentExtension;
+import org.apache.hop.pipeline.Pipeline;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.engines.local.LocalPipelineEngine;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+
+class MemoryGroupByStateTest {
+  @RegisterExtension
+  static RestoreHopEngineEnvironmentExtension env = new RestoreHopEngineEnvironmentExtension();
+
+  private static final String TRANSFORM_NAME = "testTransform";
+
+  @TempDir Path stateDirectory;
+
+  private RowMeta rowMeta;
+  private MemoryGroupByMeta meta;
+  private List<Map<String, Object>> output;
+
+  @BeforeAll
+  static void setUpBeforeClass() throws HopException {
+    HopClientEnvironment.init();
+  }
+
+  @BeforeEach
+  void setUp() {
+    rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("key"));
+    rowMeta.addValueMeta(new ValueMetaInteger("value"));
+
+    meta = new MemoryGroupByMeta();
+    meta.getGroups().add(new GGroup("key"));
+    addAggregate("sum", MemoryGroupByMeta.GroupType.Sum);
+    addAggregate("count", MemoryGroupByMeta.GroupType.CountAll);
+    addAggregate("ave", MemoryGroupByMeta.GroupType.Average);
+    addAggregate("max", MemoryGroupByMeta.GroupType.Maximum);
+    addAggregate("std_dev", MemoryGroupByMeta.GroupType.StandardDeviation);
+    addAggregate("concat", MemoryGroupByMeta.GroupType.ConcatComma);
+  }
+
+  @Test
+  void testAggregatesContinueInNextRun() throws Exception {
+    MemoryGroupBy transform = createTransform();
+    process(transform, new Object[] {"a", 1L}, new Object[] {"a", 2L}, new Object[] {"b", 5L});
+    finish(transform);
+    assertEquals(2, output.size());
+
+    transform = createTransform();
+    process(transform, new Object[] {"a", 6L});
+    finish(transform);
+
+    // Only the group which received rows is updated
+    //
+    assertEquals(1, output.size());
+    Map<String, Object> a = outputRow("a");
+    assertEquals(9L, a.get("value_sum"));
+    assertEquals(3L, a.get("value_count"));
+    assertEquals(3L, a.get("value_ave"));
+    assertEquals(6L, a.get("value_max"));
+    assertEquals(Math.sqrt(14.0 / 3), (Double) a.get("value_std_dev"), 0.000001);
+    assertEquals("1, 2, 6", a.get("value_concat"));
+  }
+
+  @Test
+  void testChangesAfterCheckpointAreDropped() throws Exception {
+    MemoryGroupBy transform = createTransform();
+    assertTrue(transform.isStateful());
+    process(transform, new Object[] {"a", 1L});
+    transform.batchComplete();
+    transform.checkpoint(Map.of("offset", "1"));
+
+    process(transform, new Object[] {"a", 2L}, new Object[] {"b", 5L});
+    transform.batchComplete();
+    assertEquals(3L, outputRow("a").get("value_sum"));
+
+    // Stopped without a checkpoint: the end of the input doesn't checkpoint either
+    //
+    finish(transform);
+
+    transform = createTransform();
+    assertEquals(Map.of("offset", "1"), transform.getCheckpointMetadata());
+    process(transform, new Object[] {"a", 10L}, new Object[] {"b", 1L});
+    finish(transform);
+
+    assertEquals(11L, outputRow("a").get("value_sum"));
+    assertEquals(1L, outputRow("b").get("value_sum"));
+  }
+
+  @Test
+  void testWithoutStateStore() throws Exception {
+    MemoryGroupBy transform = createTransform();
+    transform.dispose();
+    assertFalse(transform.isStateful());
+    assertTrue(transform.getCheckpointMetadata().isEmpty());
+  }
+
+  @Test
+  void testEveryCopyHasAStateDirectoryOfItsOwn() throws Exception {
+    MemoryGroupBy transform = createTransform();
+    transform.dispose();
+    assertEquals(stateDirectory, transform.getStateStoreDirectory(stateDirectory.toString()));
+
+    TransformMeta transformMeta = new TransformMeta(TRANSFORM_NAME, meta);
+    transformMeta.setCopiesString("3");
+    PipelineMeta pipelineMeta = Mockito.mock(PipelineMeta.class);
+    Mockito.when(pipelineMeta.findTransform(TRANSFORM_NAME)).thenReturn(transformMeta);
+    MemoryGroupBy copy =
+        new MemoryGroupBy(
+            transformMeta,
+            meta,
+            new MemoryGroupByData(),
+            2,
+            pipelineMeta,
+            new LocalPipelineEngine());
+
+    assertEquals(
+        stateDirectory.resolve("copy-2"), copy.getStateStoreDirectory(stateDirectory.toString()));
+  }
+
+  private void addAggregate(String suffix, MemoryGroupByMeta.GroupType type) {
+    GAggregate aggregate = new GAggregate();
+    aggregate.setField("value_" + suffix);
+    aggregate.setSubject("value");
+    aggregate.setType(type);
+    meta.getAggregates().add(aggregate);
+  }
+
+  private MemoryGroupBy createTransform() throws HopException {
+    output = new ArrayList<>();
+
+    MemoryGroupByData data = new MemoryGroupByData();
+    data.map = new HashMap<>();
+    data.stateStore = new StateStore(stateDirectory);
+
+    TransformMeta transformMeta = new TransformMeta(TRANSFORM_NAME, meta);
+    PipelineMeta pipelineMeta = Mockito.mock(PipelineMeta.class);
+    Pipeline pipeline = Mockito.spy(new LocalPipelineEngine());
+    Mockito.when(pipelineMeta.findTransform(TRANSFORM_NAME)).thenReturn(transformMeta);
+
+    MemoryGroupBy transform =
+        spy(new MemoryGroupBy(transformMeta, meta, data, 0, pipelineMeta, pipeline));
+    doAnswer(
+            invocation -> {
+              IRowMeta outputRowMeta = invocation.getArgument(0);
+              Object[] row = invocation.getArgument(1);
+              Map<String, Object> values = new HashMap<>();
+              for (int i = 0; i < outputRowMeta.size(); i++) {
+                values.put(outputRowMeta.getValueMeta(i).getName(), row[i]);
+              }
+              output.add(values);
+              return null;
+            })
+        .when(transform)
+        .putRow(any(IRowMeta.class), any(Object[].class));
+    doNothing().when(transform).setOutputDone();
+    doReturn(rowMeta).when(transform).getInputRowMeta();
+    return transform;
+  }
+
+  private void process(MemoryGroupBy transform, Object[]... rows) throws HopException {
+    output.clear();
+    for (Object[] row : rows) {
+      doReturn(row).when(transform).getRow();
+      assertTrue(transform.processRow());
+    }
+  }
+
+  private void finish(MemoryGroupBy transform) throws HopException {
+    doReturn(null).when(transform).getRow();
+    while (transform.processRow()) {
+      // Run transform
+    }
+    transform.dispose();
+  }
+
+  private Map<String, Object> outputRow(String key) {
+    for (Map<String, Object> values : output) {
+      if (key.equals(values.get("key"))) {
+        return values;
+      }
+    }
+    throw new AssertionError("No output for group " + key);
+  }
+}
@@ -22,6 +22,7 @@ import java.util.List;
 import java.util.Map;
 import lombok.Getter;
 import lombok.Setter;
+import org.apache.hop.base.MetaFileCache;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.annotations.ActionTransformType;
 import org.apache.hop.core.annotations.Transform;
@@ -176,7 +177,8 @@ public class MetaInjectMeta extends BaseTransformMeta<MetaInject, MetaInjectData
     try {
       // Load the meta-data from file.
       //
-      mappingPipelineMeta = new PipelineMeta(realFilename, metadataProvider, tmpSpace);
+      mappingPipelineMeta =
+          MetaFileCache.loadPipelineMeta(realFilename, metadataProvider, tmpSpace);
       LogChannel.GENERAL.logDetailed(
           "Loading Mapping from repository",
           "Mapping transformation was loaded from XML file [" + realFilename + "]");
@@ -17,8 +17,6 @@
 
 package org.apache.hop.pipeline.transforms.streamlookup;
 
-import java.math.BigDecimal;
-import java.text.DateFormat;
 import java.util.Collections;
 import org.apache.hop.core.IRowSet;
 import org.apache.hop.core.RowMetaAndData;
@@ -32,10 +30,10 @@ import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.row.RowDataUtil;
 import org.apache.hop.core.row.RowMeta;
 import org.apache.hop.core.row.value.ValueMetaFactory;
-import org.apache.hop.core.util.Utils;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.engine.StreamLookupRules;
 import org.apache.hop.pipeline.transform.BaseTransform;
 import org.apache.hop.pipeline.transform.TransformMeta;
 
@@ -65,63 +63,15 @@ public class StreamLookup extends BaseTransform<StreamLookupMeta, StreamLookupDa
       if (returnValue.getValueDefaultType() < 0) {
         returnValue.setValueDefaultType(IValueMeta.TYPE_STRING);
       }
-      data.nullIf[i] = null;
-      switch (returnValue.getValueDefaultType()) {
-        case IValueMeta.TYPE_STRING:
-          if (Utils.isEmpty(data.valueDefault[i])) {
-            data.nullIf[i] = null;
-          } else {
-            data.nullIf[i] = data.valueDefault[i];
-          }
-          break;
-        case IValueMeta.TYPE_DATE:
-          try {
-            data.nullIf[i] = DateFormat.getInstance().parse(data.valueDefault[i]);
-          } catch (Exception e) {
-            // Ignore errors
-          }
-          break;
-        case IValueMeta.TYPE_NUMBER:
-          try {
-            data.nullIf[i] = Double.parseDouble(data.valueDefault[i]);
-          } catch (Exception e) {
-            // Ignore errors
-          }
-          break;
-        case IValueMeta.TYPE_INTEGER:
-          try {
-            data.nullIf[i] = Long.parseLong(data.valueDefault[i]);
-          } catch (Exception e) {
-            // Ignore errors
-          }
-          break;
-        case IValueMeta.TYPE_BOOLEAN:
-          if ("TRUE".equalsIgnoreCase(data.valueDefault[i])
-              || "Y".equalsIgnoreCase(data.valueDefault[i])) {
-            data.nullIf[i] = Boolean.TRUE;
-          } else {
-            data.nullIf[i] = Boolean.FALSE;
-          }
-          break;
-        case IValueMeta.TYPE_BIGNUMBER:
-          try {
-            data.nullIf[i] = new BigDecimal(data.valueDefault[i]);
-          } catch (Exception e) {
-            // Ignore errors
-          }
-          break;
-        default:
-          // if a default value is given and no conversion is implemented throw an error
-          if (data.valueDefault[i] != null && !data.valueDefault[i].trim().isEmpty()) {
-            throw new HopRuntimeException(
-                BaseMessages.getString(PKG, "StreamLookup.Exception.ConversionNotImplemented")
-                    + " "
-                    + ValueMetaFactory.getValueMetaName(returnValue.getValueDefaultType()));
-          } else {
-            // no default value given: just set it to null
-            data.nullIf[i] = null;
-            break;
-          }
+      try {
+        data.nullIf[i] =
+            StreamLookupRules.parseDefault(data.valueDefault[i], returnValue.getValueDefaultType());
+      } catch (HopException e) {
+        // if a default value is given and no conversion is implemented throw an error
+        throw new HopRuntimeException(
+            BaseMessages.getString(PKG, "StreamLookup.Exception.ConversionNotImplemented")
+                + " "
+                + ValueMetaFactory.getValueMetaName(returnValue.getValueDefaultType()));
       }
     }
   }
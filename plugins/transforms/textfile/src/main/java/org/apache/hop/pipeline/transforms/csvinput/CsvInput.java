@@ -303,6 +303,10 @@ public class CsvInput extends BaseTransform<CsvInputMeta, CsvInputData> {
 
   @Override
   public void dispose() {
+    if (data.tokenizer != null) {
+      data.tokenizer.close();
+      data.tokenizer = null;
+    }
     try {
       // Close the previous file...
       //
@@ -374,12 +378,16 @@ public class CsvInput extends BaseTransform<CsvInputMeta, CsvInputData> {
       }
 
       data.fc = data.fis.getChannel();
-      data.bb = ByteBuffer.allocateDirect(data.preferredBufferSize);
+      if (data.memoryMapped) {
+        openMappedFile(bomSize);
+      } else {
+        data.bb = ByteBuffer.allocateDirect(data.preferredBufferSize);
+      }
 
       // If we are running in parallel and we need to skip bytes in the first file, let's do so
       // here.
       //
-      if (data.parallel && data.bytesToSkipInFirstFile > 0) {
+      if (!data.memoryMapped && data.parallel && data.bytesToSkipInFirstFile > 0) {
         data.fc.position(data.bytesToSkipInFirstFile);
 
         // evaluate whether there is a need to skip a row
@@ -554,6 +562,25 @@ public class CsvInput extends BaseTransform<CsvInputMeta, CsvInputData> {
     }
   }
 
+  /**
+   * Start reading the file which was just opened with a memory mapped tokenizer. When running in
+   * parallel, skip to the first row starting in the block of this transform copy.
+   */
+  private void openMappedFile(int bomSize) throws IOException {
+    boolean skipToBlock = data.parallel && data.bytesToSkipInFirstFile > 0;
+    data.tokenizer =
+        new MappedCsvTokenizer(
+            data.fc,
+            skipToBlock ? data.bytesToSkipInFirstFile : bomSize,
+            data.delimiter,
+            data.enclosure,
+            meta.getInputFields().size(),
+            MappedCsvTokenizer.DEFAULT_WINDOW_SIZE);
+    if (skipToBlock) {
+      data.totalBytesRead += data.tokenizer.skipPartialRow();
+    }
+  }
+
   /**
    * We need to skip row only if a line, that we are currently on is read by the previous transform
    * <b>partly</b>. In other words, we DON'T skip a line if we are just beginning to read it from
@@ -611,6 +638,9 @@ public class CsvInput extends BaseTransform<CsvInputMeta, CsvInputData> {
    * @throws HopException
    */
   private Object[] readOneRow(boolean skipRow, boolean ignoreEnclosures) throws HopException {
+    if (data.tokenizer != null) {
+      return readMappedRow(skipRow, ignoreEnclosures);
+    }
 
     try {
 
@@ -902,6 +932,83 @@ public class CsvInput extends BaseTransform<CsvInputMeta, CsvInputData> {
     }
   }
 
+  /**
+   * Read a single row of data from a memory mapped file. Only the fields which end up in the output
+   * row are copied out of the file.
+   *
+   * @param skipRow if the row should be skipped, for example the header row
+   * @param ignoreEnclosures if enclosures should be read like any other byte of a field
+   * @return a row of data or null if there are no more rows in the file
+   * @throws HopException in case of an I/O or conversion error
+   */
+  private Object[] readMappedRow(boolean skipRow, boolean ignoreEnclosures) throws HopException {
+    MappedCsvTokenizer tokenizer = data.tokenizer;
+    try {
+      long rowStart = tokenizer.getPosition();
+      if (!tokenizer.nextRow(ignoreEnclosures)) {
+        return null;
+      }
+      data.totalBytesRead += tokenizer.getPosition() - rowStart;
+    } catch (IOException e) {
+      throw new HopFileException("Exception reading line from a memory mapped file", e);
+    }
+
+    Object[] outputRowData = RowDataUtil.allocateRowData(data.outputRowMeta.size());
+    List<Exception> conversionExceptions = null;
+    List<IValueMeta> exceptionFields = null;
+
+    if (!skipRow) {
+      int nrFields = Math.min(tokenizer.getNrFields(), meta.getInputFields().size());
+      for (int i = 0; i < nrFields; i++) {
+        byte[] field = tokenizer.getField(i);
+        if (meta.isLazyConversionActive()) {
+          outputRowData[i] = field;
+        } else {
+          IValueMeta sourceValueMeta = data.convertRowMeta.getValueMeta(i);
+          try {
+            outputRowData[i] = sourceValueMeta.convertBinaryStringToNativeType(field);
+          } catch (HopValueException e) {
+            if (conversionExceptions == null) {
+              conversionExceptions = new ArrayList<>();
+              exceptionFields = new ArrayList<>();
+            }
+            conversionExceptions.add(e);
+            exceptionFields.add(sourceValueMeta);
+          }
+        }
+      }
+    }
+
+    // Optionally add the current filename to the mix as well...
+    //
+    if (meta.isIncludingFilename() && !Utils.isEmpty(meta.getFilenameField())) {
+      if (meta.isLazyConversionActive()) {
+        outputRowData[data.filenameFieldIndex] = data.binaryFilename;
+      } else {
+        outputRowData[data.filenameFieldIndex] = data.filenames[data.filenr - 1];
+      }
+    }
+
+    if (data.isAddingRowNumber) {
+      outputRowData[data.rownumFieldIndex] = data.rowNumber++;
+    }
+
+    incrementLinesInput();
+
+    if (!Utils.isEmpty(conversionExceptions)) {
+      throw new HopConversionException(
+          "There were "
+              + conversionExceptions.size()
+              + " conversion errors on line "
+              + getLinesInput(),
+          conversionExceptions,
+          exceptionFields,
+          outputRowData);
+    }
+
+    return outputRowData;
+  }
+
   private void emitCsvFileReadLineage(String sourceUri, long bytesRead) {
     LineageFileIoEmitter.emitTransformFileIo(
         this,
@@ -1034,6 +1141,16 @@ public class CsvInput extends BaseTransform<CsvInputMeta, CsvInputData> {
           break;
       }
 
+      // Memory mapping needs single byte characters and fields without unenclosed new lines
+      //
+      data.memoryMapped =
+          meta.isMemoryMapped()
+              && !meta.isNewlinePossibleInFields()
+              && MappedCsvTokenizer.isSupported(data.encodingType, data.delimiter, data.enclosure);
+      if (meta.isMemoryMapped() && !data.memoryMapped) {
+        logBasic(BaseMessages.getString(PKG, "CsvInput.Log.MemoryMappingNotPossible"));
+      }
+
       return true;
     }
     return false;
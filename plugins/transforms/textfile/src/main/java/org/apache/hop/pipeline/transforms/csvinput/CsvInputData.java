@@ -86,6 +86,12 @@ public class CsvInputData extends BaseTransformData implements ITransformData {
 
   public IFieldsMapping fieldsMapping;
 
+  /** True if the files are read with a {@link MappedCsvTokenizer} */
+  public boolean memoryMapped;
+
+  /** Splits the rows of the current file into fields when the file is memory mapped */
+  public MappedCsvTokenizer tokenizer;
+
   /**
    * Data class for CsvInput transform
    *
@@ -273,6 +279,10 @@ public class CsvInputData extends BaseTransformData implements ITransformData {
   }
 
   void closeFile() throws HopException {
+    if (tokenizer != null) {
+      tokenizer.close();
+      tokenizer = null;
+    }
     try {
       if (fc != null) {
         fc.close();
@@ -151,6 +151,12 @@ public class CsvInputMeta extends BaseTransformMeta<CsvInput, CsvInputData>
       injectionKeyDescription = "CsvInputMeta.Injection.FILE_ENCODING")
   private String encoding;
 
+  @HopMetadataProperty(
+      key = "memory_mapped",
+      injectionKey = "MEMORY_MAPPED",
+      injectionKeyDescription = "CsvInputMeta.Injection.MEMORY_MAPPED")
+  private boolean memoryMapped;
+
   @Injection(name = "NEWLINES_IN_FIELDS")
   @HopMetadataProperty(
       key = "newline_possible",
@@ -0,0 +1,450 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.csvinput;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import org.apache.hop.core.file.EncodingType;
+
+/**
+ * Splits the rows of a local file into fields by mapping the file in memory.
+ *
+ * <p>The delimiters, enclosures and line ends are located 8 bytes at a time: every long read from
+ * the mapped window is compared with all the special bytes at once. A row is only kept as the
+ * offsets of its fields in the window. The bytes of a field are copied when the field is asked for,
+ * so fields, rows and files which are skipped are never copied.
+ *
+ * <p>Large files are mapped in windows. When a row runs past the end of a window, the next window
+ * is mapped starting at the row. A row longer than a window doubles the window size.
+ *
+ * <p>Only single byte encodings with a single byte delimiter and enclosure are supported. A line
+ * ends with a carriage return or a line feed, optionally followed by another one, just like {@link
+ * CsvInput} reads it. Line ends inside an enclosed field are part of the field.
+ *
+ * <p>A window is unmapped as soon as the next one is mapped or the tokenizer is closed, the fields
+ * of the last row can't be read after that.
+ */
+public class MappedCsvTokenizer {
+
+  /** The default size of the part of the file which is mapped at once: 256MB */
+  public static final int DEFAULT_WINDOW_SIZE = 256 * 1024 * 1024;
+
+  private static final long ONES = 0x0101010101010101L;
+  private static final long HIGH_BITS = 0x8080808080808080L;
+  private static final byte CR = '\r';
+  private static final byte LF = '\n';
+  private static final long CR_PATTERN = pattern(CR);
+  private static final long LF_PATTERN = pattern(LF);
+
+  /** Unmaps a window right away instead of when it is garbage collected, null if not available */
+  private static final MethodHandle UNMAPPER = lookupUnmapper();
+
+  private final FileChannel channel;
+  private final long fileSize;
+  private final int maxNrFields;
+
+  private final byte delimiter;
+  private final long delimiterPattern;
+  private final boolean enclosed;
+  private final byte enclosure;
+  private final long enclosurePattern;
+
+  private int windowSize;
+  private MappedByteBuffer window;
+  private long windowStart;
+  private int windowLength;
+
+  /** The file position of the next row to read */
+  private long position;
+
+  private int nrFields;
+  private final int[] fieldStarts;
+  private final int[] fieldEnds;
+  private final int[] fieldEscapes;
+
+  /**
+   * @param channel the channel of the file to read
+   * @param startPosition the position in the file to start reading from
+   * @param delimiter the single byte delimiter
+   * @param enclosure the single byte enclosure or null if fields are not enclosed
+   * @param maxNrFields the number of fields to keep of every row
+   * @param windowSize the size of the part of the file to map at once
+   * @throws IOException in case the size of the file can't be determined
+   */
+  public MappedCsvTokenizer(
+      FileChannel channel,
+      long startPosition,
+      byte[] delimiter,
+      byte[] enclosure,
+      int maxNrFields,
+      int windowSize)
+      throws IOException {
+    this.channel = channel;
+    this.fileSize = channel.size();
+    this.position = startPosition;
+    this.maxNrFields = Math.max(maxNrFields, 1);
+    this.windowSize = Math.max(windowSize, 64);
+
+    this.delimiter = delimiter[0];
+    this.delimiterPattern = pattern(this.delimiter);
+    this.enclosed = enclosure != null && enclosure.length > 0;
+    this.enclosure = enclosed ? enclosure[0] : 0;
+    this.enclosurePattern = pattern(this.enclosure);
+
+    this.fieldStarts = new int[this.maxNrFields];
+    this.fieldEnds = new int[this.maxNrFields];
+    this.fieldEscapes = new int[this.maxNrFields];
+  }
+
+  /**
+   * See if files with the given encoding, delimiter and enclosure can be read by this tokenizer.
+   *
+   * @param encodingType the encoding type of the file
+   * @param delimiter the delimiter bytes
+   * @param enclosure the enclosure bytes or null if there is no enclosure
+   * @return true if the tokenizer can read the file
+   */
+  public static boolean isSupported(EncodingType encodingType, byte[] delimiter, byte[] enclosure) {
+    return encodingType == EncodingType.SINGLE
+        && delimiter != null
+        && delimiter.length == 1
+        && (enclosure == null || enclosure.length <= 1);
+  }
+
+  /**
+   * Skip the rest of the row the start position points into. This is used when a file is read by
+   * several transform copies: the row the start position points into belongs to the previous copy,
+   * unless it starts exactly at the start position.
+   *
+   * @return the number of bytes skipped
+   * @throws IOException in case of an error mapping the file
+   */
+  public long skipPartialRow() throws IOException {
+    long start = position;
+    if (start == 0 || start >= fileSize) {
+      return 0;
+    }
+    if (isLineEnd(byteAt(start - 1)) && !isLineEnd(byteAt(start))) {
+      return 0;
+    }
+    while (position < fileSize && !isLineEnd(byteAt(position))) {
+      position++;
+    }
+    skipLineEnd();
+    return position - start;
+  }
+
+  /**
+   * Split the next row into fields.
+   *
+   * @return true if a row was read, false at the end of the file
+   * @throws IOException in case of an error mapping the file
+   */
+  public boolean nextRow() throws IOException {
+    return nextRow(false);
+  }
+
+  /**
+   * Split the next row into fields.
+   *
+   * @param ignoreEnclosures true to read enclosures like any other byte of a field
+   * @return true if a row was read, false at the end of the file
+   * @throws IOException in case of an error mapping the file
+   */
+  public boolean nextRow(boolean ignoreEnclosures) throws IOException {
+    if (position >= fileSize) {
+      return false;
+    }
+    if (window == null || position < windowStart || position >= windowStart + windowLength) {
+      map(position);
+    }
+    while (!tokenizeRow(ignoreEnclosures)) {
+      // The row doesn't end in this window: map the next one, starting at the row
+      //
+      if (windowStart == position) {
+        windowSize = (int) Math.min((long) windowSize * 2, Integer.MAX_VALUE - 8);
+      }
+      map(position);
+    }
+    return true;
+  }
+
+  /**
+   * @return the number of fields found in the last row, at most the maximum number of fields
+   */
+  public int getNrFields() {
+    return nrFields;
+  }
+
+  /**
+   * Copy the bytes of a field of the last row. Enclosures around the field are removed and escaped
+   * enclosures are unescaped.
+   *
+   * @param index the index of the field
+   * @return the bytes of the field
+   */
+  public byte[] getField(int index) {
+    int start = fieldStarts[index];
+    int end = fieldEnds[index];
+    int escapes = fieldEscapes[index];
+    if (escapes == 0) {
+      byte[] field = new byte[end - start];
+      window.get(start, field);
+      return field;
+    }
+    byte[] field = new byte[end - start - escapes];
+    int target = 0;
+    for (int i = start; i < end; i++) {
+      byte b = window.get(i);
+      field[target++] = b;
+      if (b == enclosure && i + 1 < end && window.get(i + 1) == enclosure) {
+        i++;
+      }
+    }
+    return target == field.length ? field : Arrays.copyOf(field, target);
+  }
+
+  /**
+   * @return the file position of the next row
+   */
+  public long getPosition() {
+    return position;
+  }
+
+  /** Unmap the current window. The channel of the file isn't closed, it belongs to the caller. */
+  public void close() {
+    unmap();
+  }
+
+  /**
+   * Split the row at the current position into fields.
+   *
+   * @param ignoreEnclosures true to read enclosures like any other byte of a field
+   * @return false if the row runs past the end of a window which doesn't end at the end of the file
+   */
+  private boolean tokenizeRow(boolean ignoreEnclosures) {
+    boolean lastWindow = windowStart + windowLength >= fileSize;
+    int i = (int) (position - windowStart);
+    nrFields = 0;
+
+    while (true) {
+      int fieldStart = i;
+      int contentStart = i;
+      int escapes = 0;
+      boolean enclosedField = false;
+
+      if (enclosed && !ignoreEnclosures && i < windowLength && window.get(i) == enclosure) {
+        // Look for the closing enclosure, a doubled enclosure is an escaped one.
+        //
+        int j = i + 1;
+        while (true) {
+          j = indexOfEnclosure(j);
+          if (j < 0 || (j + 1 >= windowLength && !lastWindow)) {
+            if (!lastWindow) {
+              return false;
+            }
+            break; // No closing enclosure: read the field as it is
+          }
+          if (j + 1 < windowLength && window.get(j + 1) == enclosure) {
+            escapes++;
+            j += 2;
+          } else {
+            enclosedField = true;
+            contentStart = i + 1;
+            i = j + 1;
+            break;
+          }
+        }
+        if (!enclosedField) {
+          escapes = 0;
+        }
+      }
+
+      int end = indexOfDelimiterOrLineEnd(i);
+      if (end < 0) {
+        if (!lastWindow) {
+          return false;
+        }
+        end = windowLength;
+      }
+
+      int contentEnd = end;
+      if (enclosedField) {
+        contentEnd = Math.max(contentStart, end - 1);
+      }
+      addField(enclosedField ? contentStart : fieldStart, contentEnd, escapes);
+
+      if (end < windowLength && window.get(end) == delimiter) {
+        i = end + 1;
+        continue;
+      }
+
+      // The end of the line or the end of the file
+      //
+      int next = end;
+      if (next < windowLength) {
+        next++;
+        if (next < windowLength) {
+          if (isLineEnd(window.get(next))) {
+            next++;
+          }
+        } else if (!lastWindow) {
+          return false;
+        }
+      }
+      position = windowStart + next;
+      return true;
+    }
+  }
+
+  private void addField(int start, int end, int escapes) {
+    if (nrFields < maxNrFields) {
+      fieldStarts[nrFields] = start;
+      fieldEnds[nrFields] = end;
+      fieldEscapes[nrFields] = escapes;
+    }
+    nrFields = Math.min(nrFields + 1, maxNrFields);
+  }
+
+  /**
+   * Find the first delimiter, carriage return or line feed in the window, 8 bytes at a time.
+   *
+   * @param from the index in the window to start from
+   * @return the index of the byte found or -1 if there is none until the end of the window
+   */
+  int indexOfDelimiterOrLineEnd(int from) {
+    int i = from;
+    for (; i + Long.BYTES <= windowLength; i += Long.BYTES) {
+      long word = window.getLong(i);
+      long found = matches(word, delimiterPattern) | matches(word, LF_PATTERN);
+      found |= matches(word, CR_PATTERN);
+      if (found != 0) {
+        return i + (Long.numberOfTrailingZeros(found) >>> 3);
+      }
+    }
+    for (; i < windowLength; i++) {
+      byte b = window.get(i);
+      if (b == delimiter || b == LF || b == CR) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Find the first enclosure in the window, 8 bytes at a time.
+   *
+   * @param from the index in the window to start from
+   * @return the index of the enclosure or -1 if there is none until the end of the window
+   */
+  int indexOfEnclosure(int from) {
+    int i = from;
+    for (; i + Long.BYTES <= windowLength; i += Long.BYTES) {
+      long found = matches(window.getLong(i), enclosurePattern);
+      if (found != 0) {
+        return i + (Long.numberOfTrailingZeros(found) >>> 3);
+      }
+    }
+    for (; i < windowLength; i++) {
+      if (window.get(i) == enclosure) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /** Repeat a byte in all 8 bytes of a long */
+  private static long pattern(byte b) {
+    return (b & 0xFFL) * ONES;
+  }
+
+  /**
+   * Flag the bytes of a word which are equal to the byte of the pattern: the high bit of every
+   * matching byte is set. Bytes above a match can be flagged as well, but the lowest flagged byte
+   * is always a match.
+   */
+  private static long matches(long word, long pattern) {
+    long x = word ^ pattern;
+    return (x - ONES) & ~x & HIGH_BITS;
+  }
+
+  private static boolean isLineEnd(byte b) {
+    return b == CR || b == LF;
+  }
+
+  private void skipLineEnd() throws IOException {
+    if (position < fileSize && isLineEnd(byteAt(position))) {
+      position++;
+      if (position < fileSize && isLineEnd(byteAt(position))) {
+        position++;
+      }
+    }
+  }
+
+  private byte byteAt(long filePosition) throws IOException {
+    if (window == null
+        || filePosition < windowStart
+        || filePosition >= windowStart + windowLength) {
+      map(filePosition);
+    }
+    return window.get((int) (filePosition - windowStart));
+  }
+
+  private void map(long start) throws IOException {
+    unmap();
+    windowStart = start;
+    windowLength = (int) Math.min(windowSize, fileSize - start);
+    window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowLength);
+    window.order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  private void unmap() {
+    MappedByteBuffer mapped = window;
+    window = null;
+    windowLength = 0;
+    if (mapped != null && UNMAPPER != null) {
+      try {
+        UNMAPPER.invokeExact((ByteBuffer) mapped);
+      } catch (Throwable e) {
+        // The window is unmapped when it is garbage collected
+      }
+    }
+  }
+
+  private static MethodHandle lookupUnmapper() {
+    try {
+      Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+      Field field = unsafeClass.getDeclaredField("theUnsafe");
+      field.setAccessible(true);
+      return MethodHandles.lookup()
+          .findVirtual(
+              unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+          .bindTo(field.get(null));
+    } catch (Exception e) {
+      return null;
+    }
+  }
+}
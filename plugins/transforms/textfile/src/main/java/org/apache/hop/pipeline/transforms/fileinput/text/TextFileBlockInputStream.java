@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.fileinput.text;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads the lines of a file which start in a block of bytes.
+ *
+ * <p>A line starting before the start of the block belongs to the previous block, so the stream
+ * skips to the first line starting at or after the start of the block. A line starting before the
+ * end of the block is read completely, even if it runs past the end of the block. That way every
+ * line of the file is read by exactly one block.
+ *
+ * <p>A line starts at the start of the file and after a line feed. With the UNIX file format a
+ * carriage return ends a line as well. Only single byte encodings can be read this way.
+ */
+public class TextFileBlockInputStream extends InputStream {
+  private static final int BUFFER_SIZE = 8192;
+
+  private final InputStream in;
+  private final long end;
+  private final boolean carriageReturnEndsLine;
+
+  /** The position in the file of the next byte to read */
+  private long position;
+
+  /** The last byte read or -1 if nothing was read yet */
+  private int previous = -1;
+
+  private boolean done;
+
+  /**
+   * @param in the stream of the complete file, positioned at the start of the file
+   * @param start the position of the first byte of the block
+   * @param end the position after the last byte of the block
+   * @param carriageReturnEndsLine true if a carriage return ends a line, like in the UNIX format
+   * @throws IOException in case of an error skipping to the start of the block
+   */
+  public TextFileBlockInputStream(
+      InputStream in, long start, long end, boolean carriageReturnEndsLine) throws IOException {
+    this.in = new BufferedInputStream(in, BUFFER_SIZE);
+    this.end = end;
+    this.carriageReturnEndsLine = carriageReturnEndsLine;
+
+    if (start > 0) {
+      // Look at the byte before the block to see if a line starts at the start of the block
+      //
+      try {
+        this.in.skipNBytes(start - 1);
+      } catch (EOFException e) {
+        done = true;
+        return;
+      }
+      previous = this.in.read();
+      position = start;
+      while (previous >= 0 && !isLineStart()) {
+        previous = this.in.read();
+        position++;
+      }
+      done = previous < 0;
+    }
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (done || (position >= end && isLineStart())) {
+      done = true;
+      return -1;
+    }
+    int b = in.read();
+    if (b < 0) {
+      done = true;
+      return -1;
+    }
+    previous = b;
+    position++;
+    return b;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+    if (done) {
+      return -1;
+    }
+    if (position < end) {
+      // Everything before the end of the block is read as it is
+      //
+      int n = in.read(b, off, (int) Math.min(len, end - position));
+      if (n < 0) {
+        done = true;
+        return -1;
+      }
+      position += n;
+      previous = b[off + n - 1] & 0xFF;
+      return n;
+    }
+
+    // Past the end of the block: read the rest of the last line byte by byte
+    //
+    int n = 0;
+    while (n < len) {
+      int c = read();
+      if (c < 0) {
+        break;
+      }
+      b[off + n++] = (byte) c;
+    }
+    return n == 0 ? -1 : n;
+  }
+
+  @Override
+  public void close() throws IOException {
+    in.close();
+  }
+
+  private boolean isLineStart() {
+    return position == 0 || previous == '\n' || (carriageReturnEndsLine && previous == '\r');
+  }
+}
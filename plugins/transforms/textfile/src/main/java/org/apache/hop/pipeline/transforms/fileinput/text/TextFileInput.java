@@ -22,11 +22,14 @@ import java.util.List;
 import java.util.Map;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.FileType;
 import org.apache.hop.core.Result;
 import org.apache.hop.core.ResultFile;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopPluginException;
 import org.apache.hop.core.exception.HopTransformException;
+import org.apache.hop.core.file.EncodingType;
 import org.apache.hop.core.file.TextFileInputField;
 import org.apache.hop.core.playlist.FilePlayListAll;
 import org.apache.hop.core.row.IRowMeta;
@@ -56,6 +59,9 @@ public class TextFileInput extends BaseFileInputTransform<TextFileInputMeta, Tex
 
   private static final Class<?> PKG = TextFileInputMeta.class;
 
+  /** Files are only split when every copy gets a block of at least this size: 1MB */
+  static final long MINIMUM_BLOCK_SIZE = 1024L * 1024L;
+
   public TextFileInput(
       TransformMeta transformMeta,
       TextFileInputMeta meta,
@@ -197,6 +203,16 @@ public class TextFileInput extends BaseFileInputTransform<TextFileInputMeta, Tex
         }
       }
 
+      if (meta.getContent().isRunningInParallel()) {
+        int nrCopies = getTransformMeta().getCopies(this);
+        if (nrCopies > 1) {
+          data.blocks =
+              TextFileInputBlock.getBlocks(
+                  getFileSizes(), getCopyNr(), nrCopies, MINIMUM_BLOCK_SIZE);
+          data.currentBlockIndex = 0;
+        }
+      }
+
       if (!openNextFile(
           meta.getErrorHandling().isErrorIgnored(), meta.getErrorHandling().isSkipBadFiles())) {
         setOutputDone(); // signal end to receiver(s)
@@ -229,6 +245,70 @@ public class TextFileInput extends BaseFileInputTransform<TextFileInputMeta, Tex
     return false;
   }
 
+  /**
+   * When running in parallel, open the file of the next block of this copy. Otherwise open the next
+   * file.
+   */
+  @Override
+  protected boolean openNextFile(boolean errorIgnored, boolean skipBadFiles) {
+    if (data.blocks == null) {
+      return super.openNextFile(errorIgnored, skipBadFiles);
+    }
+    if (data.currentBlockIndex >= data.blocks.size()) {
+      return false;
+    }
+    data.block = data.blocks.get(data.currentBlockIndex++);
+    data.currentFileIndex = data.block.getFileIndex();
+    if (isDetailed() && !data.block.isWholeFile()) {
+      logDetailed(
+          BaseMessages.getString(
+              PKG,
+              "TextFileInput.Log.ReadingBlock",
+              data.files.getFile(data.currentFileIndex).getName().getFriendlyURI(),
+              Long.toString(data.block.getStart()),
+              data.block.getEnd() < 0 ? "end" : Long.toString(data.block.getEnd())));
+    }
+    return super.openNextFile(errorIgnored, skipBadFiles);
+  }
+
+  /**
+   * Get the sizes of the input files which can be split in blocks. A line can only be found at any
+   * position in a plain file with a single byte encoding, where every line is a row on its own.
+   *
+   * @return the file sizes, -1 for the files which can't be split
+   */
+  private long[] getFileSizes() {
+    TextFileInputMeta.Content content = meta.getContent();
+    boolean splittable =
+        (Utils.isEmpty(content.getFileCompression())
+                || "None".equalsIgnoreCase(content.getFileCompression()))
+            && EncodingType.guessEncodingType(meta.getEncoding()) == EncodingType.SINGLE
+            && !content.isBreakInEnclosureAllowed()
+            && !content.isLayoutPaged()
+            && !content.isLineWrapped()
+            && !content.isFooter()
+            && !(content.isIncludeRowNumber() && content.isRowNumberByFile())
+            && data.nr_repeats == 0
+            && meta.getErrorHandling().getLineNumberFilesDestinationDirectory() == null;
+
+    long[] sizes = new long[data.files.nrOfFiles()];
+    for (int i = 0; i < sizes.length; i++) {
+      sizes[i] = -1;
+      if (splittable) {
+        FileObject file = data.files.getFile(i);
+        try {
+          if (file.getType() == FileType.FILE) {
+            sizes[i] = file.getContent().getSize();
+          }
+        } catch (FileSystemException e) {
+          // The file is read as a whole: a missing file is handled when it's opened
+          logDebug("Unable to determine the size of file " + file, e);
+        }
+      }
+    }
+    return sizes;
+  }
+
   /** Dispose transform. */
   @Override
   public void dispose() {
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.fileinput.text;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * The part of an input file one copy of a Text File Input transform reads when running in parallel.
+ */
+@Getter
+@AllArgsConstructor
+public class TextFileInputBlock {
+
+  /** The index of the file in the list of input files */
+  private final int fileIndex;
+
+  /** The position of the first byte of the block */
+  private final long start;
+
+  /** The position after the last byte of the block or -1 to read until the end of the file */
+  private final long end;
+
+  /**
+   * @return true if the complete file is read
+   */
+  public boolean isWholeFile() {
+    return start == 0 && end < 0;
+  }
+
+  /**
+   * Determine the blocks of the input files one transform copy reads. A file which can be split is
+   * divided in one block per copy. The other files are given to the copies in turn.
+   *
+   * @param fileSizes the sizes of the input files or -1 for a file which can't be split
+   * @param copyNr the number of the transform copy
+   * @param nrCopies the number of transform copies
+   * @param minimumBlockSize the minimum size of a block: smaller files are read as a whole
+   * @return the blocks to read, in the order of the files
+   */
+  public static List<TextFileInputBlock> getBlocks(
+      long[] fileSizes, int copyNr, int nrCopies, long minimumBlockSize) {
+    List<TextFileInputBlock> blocks = new ArrayList<>();
+    int wholeFileNr = 0;
+    for (int i = 0; i < fileSizes.length; i++) {
+      long size = fileSizes[i];
+      if (size >= 0 && size / nrCopies >= Math.max(minimumBlockSize, 1)) {
+        long start = size * copyNr / nrCopies;
+        long end = copyNr == nrCopies - 1 ? -1 : size * (copyNr + 1) / nrCopies;
+        blocks.add(new TextFileInputBlock(i, start, end));
+      } else if (wholeFileNr++ % nrCopies == copyNr) {
+        blocks.add(new TextFileInputBlock(i, 0, -1));
+      }
+    }
+    return blocks;
+  }
+}
@@ -61,6 +61,14 @@ public class TextFileInputData extends BaseFileInputTransformData {
 
   public EncodingType encodingType;
 
+  /** The blocks of the input files this copy reads when running in parallel, null otherwise */
+  public List<TextFileInputBlock> blocks;
+
+  public int currentBlockIndex;
+
+  /** The block of the file being read or null if the complete file is read */
+  public TextFileInputBlock block;
+
   public TextFileInputData() {
     // linked list is better, as usually .remove(0) is applied to this list
     lineBuffer = new LinkedList<>();
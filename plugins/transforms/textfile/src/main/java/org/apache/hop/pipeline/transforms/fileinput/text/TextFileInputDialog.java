@@ -224,6 +224,8 @@ public class TextFileInputDialog extends BaseTransformDialog
 
   private Text wLimit;
 
+  private Button wRunningInParallel;
+
   private Button wDateLenient;
 
   private CCombo wDateLocale;
@@ -1410,13 +1412,32 @@ public class TextFileInputDialog extends BaseTransformDialog
     fdLimit.right = new FormAttachment(100, 0);
     wLimit.setLayoutData(fdLimit);
 
+    // Running in parallel checkbox
+    Label wlRunningInParallel = new Label(wContentComp, SWT.RIGHT);
+    wlRunningInParallel.setText(
+        BaseMessages.getString(PKG, "TextFileInputDialog.RunningInParallel.Label"));
+    PropsUi.setLook(wlRunningInParallel);
+    FormData fdlRunningInParallel = new FormData();
+    fdlRunningInParallel.left = new FormAttachment(0, 0);
+    fdlRunningInParallel.top = new FormAttachment(wLimit, margin);
+    fdlRunningInParallel.right = new FormAttachment(middle, -margin);
+    wlRunningInParallel.setLayoutData(fdlRunningInParallel);
+    wRunningInParallel = new Button(wContentComp, SWT.CHECK);
+    wRunningInParallel.setToolTipText(
+        BaseMessages.getString(PKG, "TextFileInputDialog.RunningInParallel.Tooltip"));
+    PropsUi.setLook(wRunningInParallel);
+    FormData fdRunningInParallel = new FormData();
+    fdRunningInParallel.left = new FormAttachment(middle, 0);
+    fdRunningInParallel.top = new FormAttachment(wlRunningInParallel, 0, SWT.CENTER);
+    wRunningInParallel.setLayoutData(fdRunningInParallel);
+
     // Date Lenient checkbox
     Label wlDateLenient = new Label(wContentComp, SWT.RIGHT);
     wlDateLenient.setText(BaseMessages.getString(PKG, "TextFileInputDialog.DateLenient.Label"));
     PropsUi.setLook(wlDateLenient);
     FormData fdlDateLenient = new FormData();
     fdlDateLenient.left = new FormAttachment(0, 0);
-    fdlDateLenient.top = new FormAttachment(wLimit, margin);
+    fdlDateLenient.top = new FormAttachment(wRunningInParallel, margin);
     fdlDateLenient.right = new FormAttachment(middle, -margin);
     wlDateLenient.setLayoutData(fdlDateLenient);
     wDateLenient = new Button(wContentComp, SWT.CHECK);
@@ -2362,6 +2383,7 @@ public class TextFileInputDialog extends BaseTransformDialog
     wFormat.setText(Const.NVL(meta.getContent().getFileFormat(), ""));
     wLength.setText(Const.NVL(meta.getContent().getLength(), ""));
     wLimit.setText("" + meta.getContent().getRowLimit());
+    wRunningInParallel.setSelection(meta.getContent().isRunningInParallel());
 
     logDebug("getting fields info...");
     // Only populate fields from metadata if NOT ignoring fields (will be filled from schema
@@ -2549,6 +2571,7 @@ public class TextFileInputDialog extends BaseTransformDialog
     meta.getContent().setBreakInEnclosureAllowed(wEnclBreaks.getSelection());
     meta.getContent().setNullIfNotEnclosed(wNullIfNotEnclosed.getSelection());
     meta.getContent().setRowLimit(Const.toLongExpanded(wLimit.getText(), 0L));
+    meta.getContent().setRunningInParallel(wRunningInParallel.getSelection());
     meta.getContent().setFilenameField(wInclFilenameField.getText());
     meta.getContent().setRowNumberField(wInclRownumField.getText());
     meta.getFileInput().setAddingResult(wAddResult.getSelection());
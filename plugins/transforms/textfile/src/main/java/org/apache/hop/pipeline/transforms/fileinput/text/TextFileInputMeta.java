@@ -305,6 +305,16 @@ public class TextFileInputMeta
         injectionKeyDescription = "TextFileInput.Injection.LENGTH")
     private String length;
 
+    /**
+     * Flag indicating that the copies of the transform share the files to read: the files are
+     * divided over the copies and large files are split in a block per copy.
+     */
+    @HopMetadataProperty(
+        key = "parallel",
+        injectionKey = "RUNNING_IN_PARALLEL",
+        injectionKeyDescription = "TextFileInput.Injection.RUNNING_IN_PARALLEL")
+    private boolean runningInParallel;
+
     public Content() {}
 
     public Content(Content c) {
@@ -337,6 +347,7 @@ public class TextFileInputMeta
       this.rowLimit = c.rowLimit;
       this.rowNumberByFile = c.rowNumberByFile;
       this.rowNumberField = c.rowNumberField;
+      this.runningInParallel = c.runningInParallel;
       this.separator = c.separator;
     }
   }
@@ -18,11 +18,14 @@
 package org.apache.hop.pipeline.transforms.fileinput.text;
 
 import java.io.BufferedInputStream;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.hop.core.compress.CompressionInputStream;
 import org.apache.hop.core.compress.CompressionProviderFactory;
 import org.apache.hop.core.compress.ICompressionProvider;
+import org.apache.hop.core.compress.NoneCompressionProvider;
+import org.apache.hop.core.compress.ReadAheadInputStream;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopFileException;
 import org.apache.hop.core.file.EncodingType;
@@ -47,10 +50,16 @@ public class TextFileInputReader implements IBaseFileInputReader {
 
   private final CompressionInputStream in;
 
+  /** The decompressed stream: a read-ahead stream on top of the compression stream */
+  private final InputStream decompressedStream;
+
   private final CountingInputStream countingInputStream;
 
   private final InputStreamReader isr;
 
+  /** False when a block is read which doesn't start at the start of the file */
+  private final boolean headerPresent;
+
   protected long lineInFile;
 
   private boolean first;
@@ -80,12 +89,33 @@ public class TextFileInputReader implements IBaseFileInputReader {
           "This is a compressed file being handled by the " + provider.getName() + " provider");
     }
 
-    countingInputStream = new CountingInputStream(HopVfs.getInputStream(file));
+    InputStream fileInputStream = HopVfs.getInputStream(file);
+    TextFileInputBlock block = data.block;
+    if (block != null && !block.isWholeFile()) {
+      fileInputStream =
+          new TextFileBlockInputStream(
+              fileInputStream,
+              block.getStart(),
+              block.getEnd() < 0 ? Long.MAX_VALUE : block.getEnd(),
+              data.fileFormatType == TextFileLineUtil.FILE_FORMAT_UNIX);
+    }
+    headerPresent = meta.getContent().isHeader() && (block == null || block.getStart() == 0);
+
+    countingInputStream = new CountingInputStream(fileInputStream);
     in = provider.createInputStream(countingInputStream);
 
     in.nextEntry();
 
-    BufferedInputStream inStream = new BufferedInputStream(in, BUFFER_SIZE_INPUT_STREAM);
+    // Decompress on a background thread while the lines decompressed so far are parsed
+    //
+    if (provider instanceof NoneCompressionProvider) {
+      decompressedStream = in;
+    } else {
+      decompressedStream = new ReadAheadInputStream(in);
+    }
+
+    BufferedInputStream inStream =
+        new BufferedInputStream(decompressedStream, BUFFER_SIZE_INPUT_STREAM);
     BOMDetector bom = new BOMDetector(inStream);
 
     if (bom.bomExist()) {
@@ -104,7 +134,7 @@ public class TextFileInputReader implements IBaseFileInputReader {
   }
 
   protected void readInitial() throws Exception {
-    data.doneWithHeader = !meta.getContent().isHeader();
+    data.doneWithHeader = !headerPresent;
     // /////////////////////////////////////////////////////////////////////////////
     // Read the first lines...
 
@@ -117,7 +147,7 @@ public class TextFileInputReader implements IBaseFileInputReader {
      * OK, read a number of lines in the buffer: The header rows The nr rows in the page : optional The footer rows
      */
     int bufferSize = 1;
-    bufferSize += meta.getContent().isHeader() ? meta.getContent().getNrHeaderLines() : 0;
+    bufferSize += headerPresent ? meta.getContent().getNrHeaderLines() : 0;
     bufferSize +=
         meta.getContent().isLayoutPaged()
             ? meta.getContent().getNrLinesPerPage()
@@ -150,7 +180,7 @@ public class TextFileInputReader implements IBaseFileInputReader {
 
     for (int i = 0; i < bufferSize && !data.doneReading; i++) {
       boolean wasNotFiltered =
-          tryToReadLine(!meta.getContent().isHeader() || i >= meta.getContent().getNrHeaderLines());
+          tryToReadLine(!headerPresent || i >= meta.getContent().getNrHeaderLines());
       if (!wasNotFiltered) {
         // grab another line, this one got filtered
         bufferSize++;
@@ -454,7 +484,7 @@ public class TextFileInputReader implements IBaseFileInputReader {
         transform.incrementLinesUpdated();
         if (in != null) {
           reportDataVolumeIn();
-          BaseTransform.closeQuietly(in);
+          BaseTransform.closeQuietly(decompressedStream);
         }
         isr.close();
         data.filename = null; // send it down the next time.
@@ -21,6 +21,7 @@ import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
@@ -30,6 +31,8 @@ import org.apache.hop.core.ResultFile;
 import org.apache.hop.core.compress.CompressionOutputStream;
 import org.apache.hop.core.compress.CompressionProviderFactory;
 import org.apache.hop.core.compress.ICompressionProvider;
+import org.apache.hop.core.compress.NoneCompressionProvider;
+import org.apache.hop.core.compress.WriteBehindOutputStream;
 import org.apache.hop.core.compress.zip.ZipCompressionProvider;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopFileException;
@@ -204,7 +207,7 @@ public class TextFileOutput extends BaseTransform<TextFileOutputMeta, TextFileOu
           }
 
           BufferedOutputStream bufferedOutputStream =
-              new BufferedOutputStream(compressionOutputStream, 5000);
+              createBufferedOutputStream(compressionOutputStream, compressionProvider);
 
           fileStreams =
               data.new FileStream(fileOutputStream, compressionOutputStream, bufferedOutputStream);
@@ -230,7 +233,7 @@ public class TextFileOutput extends BaseTransform<TextFileOutputMeta, TextFileOu
           compressionOutputStream.addEntry(
               filename, resolve(meta.getFileSettings().getExtension()));
           BufferedOutputStream bufferedOutputStream =
-              new BufferedOutputStream(compressionOutputStream, 5000);
+              createBufferedOutputStream(compressionOutputStream, compressionProvider);
 
           fileStreams.setFileOutputStream(fileOutputStream);
           fileStreams.setCompressedOutputStream(compressionOutputStream);
@@ -256,6 +259,27 @@ public class TextFileOutput extends BaseTransform<TextFileOutputMeta, TextFileOu
     }
   }
 
+  /**
+   * Collect the lines in a buffer of the configured size. Compressed files can optionally be
+   * compressed on a background thread while the next lines are formatted.
+   */
+  private BufferedOutputStream createBufferedOutputStream(
+      CompressionOutputStream compressionOutputStream, ICompressionProvider compressionProvider) {
+    int bufferSize = meta.getBufferSize(this);
+    if (bufferSize <= 0) {
+      bufferSize = TextFileOutputMeta.DEFAULT_BUFFER_SIZE;
+    }
+    OutputStream outputStream = compressionOutputStream;
+    if (meta.getFileSettings().isCompressingInBackground()
+        && !(compressionProvider instanceof NoneCompressionProvider)) {
+      if (isDetailed()) {
+        logDetailed("Compressing the output on a background thread");
+      }
+      outputStream = new WriteBehindOutputStream(compressionOutputStream, bufferSize);
+    }
+    return new BufferedOutputStream(outputStream, bufferSize);
+  }
+
   public String getOutputFileName(Object[] row) throws HopException {
     String filename = null;
     if (row == null) {
@@ -575,36 +599,22 @@ public class TextFileOutput extends BaseTransform<TextFileOutputMeta, TextFileOu
       }
     } else {
       byte[] text;
-      if (Utils.isEmpty(meta.getEncoding())) {
-        text = string.getBytes();
-      } else {
-        try {
-          text = string.getBytes(meta.getEncoding());
-        } catch (UnsupportedEncodingException e) {
-          throw new HopValueException(
-              "Unable to convert String to Binary with specified string encoding ["
-                  + v.getStringEncoding()
-                  + "]",
-              e);
-        }
+      try {
+        text = string.getBytes(getCharset());
+      } catch (Exception e) {
+        throw new HopValueException(
+            "Unable to convert String to Binary with specified string encoding ["
+                + meta.getEncoding()
+                + "]",
+            e);
       }
       if (length > string.length()) {
         // we need to pad this
 
         // not all encoding use single characters, so we need to cope
         // with this.
-        int size = 0;
-        byte[] filler = null;
-        try {
-          if (!Utils.isEmpty(meta.getEncoding())) {
-            filler = " ".getBytes(meta.getEncoding());
-          } else {
-            filler = " ".getBytes();
-          }
-          size = text.length + filler.length * (length - string.length());
-        } catch (UnsupportedEncodingException uee) {
-          throw new HopValueException(uee);
-        }
+        byte[] filler = data.binaryFiller;
+        int size = text.length + filler.length * (length - string.length());
         byte[] bytes = new byte[size];
         System.arraycopy(text, 0, bytes, 0, text.length);
         if (filler.length == 1) {
@@ -627,16 +637,28 @@ public class TextFileOutput extends BaseTransform<TextFileOutputMeta, TextFileOu
 
   private byte[] getBinaryString(String string) throws HopTransformException {
     try {
-      if (data.hasEncoding) {
-        return string.getBytes(meta.getEncoding());
-      } else {
-        return string.getBytes();
-      }
+      return string.getBytes(getCharset());
     } catch (Exception e) {
       throw new HopTransformException(e);
     }
   }
 
+  /**
+   * The character set of the output file is looked up once instead of by name for every value.
+   *
+   * @return the character set to encode the values with
+   */
+  private Charset getCharset() {
+    if (data.charset == null) {
+      data.charset =
+          Utils.isEmpty(meta.getEncoding())
+              ? Charset.defaultCharset()
+              : Charset.forName(meta.getEncoding());
+      data.binaryFiller = " ".getBytes(data.charset);
+    }
+    return data.charset;
+  }
+
   private void writeField(IValueMeta v, Object valueData, byte[] nullString)
       throws HopTransformException {
     try {
@@ -660,7 +682,6 @@ public class TextFileOutput extends BaseTransform<TextFileOutputMeta, TextFileOu
       }
 
       if (str != null && str.length > 0) {
-        List<Integer> enclosures = null;
         boolean writeEnclosures = false;
 
         if (v.isString()) {
@@ -674,26 +695,10 @@ public class TextFileOutput extends BaseTransform<TextFileOutputMeta, TextFileOu
 
         if (writeEnclosures) {
           data.writer.write(data.binaryEnclosure);
-          enclosures = getEnclosurePositions(str);
-        }
-
-        if (enclosures == null) {
-          data.writer.write(str);
-        } else {
-          // Skip the enclosures, double them instead...
-          int from = 0;
-          for (int position : enclosures) {
-            data.writer.write(str, from, position + data.binaryEnclosure.length - from);
-            data.writer.write(data.binaryEnclosure); // write enclosure a second time
-            from = position + data.binaryEnclosure.length;
-          }
-          if (from < str.length) {
-            data.writer.write(str, from, str.length - from);
-          }
-        }
-
-        if (writeEnclosures) {
+          writeDoublingEnclosures(str);
           data.writer.write(data.binaryEnclosure);
+        } else {
+          data.writer.write(str);
         }
       }
     } catch (Exception e) {
@@ -701,28 +706,35 @@ public class TextFileOutput extends BaseTransform<TextFileOutputMeta, TextFileOu
     }
   }
 
-  private List<Integer> getEnclosurePositions(byte[] str) {
-    List<Integer> positions = null;
-    if (data.binaryEnclosure != null && data.binaryEnclosure.length > 0) {
+  /**
+   * Write a value, doubling the enclosures in it. The enclosures are found and written in one pass
+   * over the value, without collecting their positions first.
+   */
+  private void writeDoublingEnclosures(byte[] str) throws IOException {
+    byte[] enclosure = data.binaryEnclosure;
+    int from = 0;
+    if (enclosure != null && enclosure.length > 0) {
       // +1 because otherwise we will not find it at the end
-      for (int i = 0, len = str.length - data.binaryEnclosure.length + 1; i < len; i++) {
+      for (int i = 0, len = str.length - enclosure.length + 1; i < len; i++) {
         // verify if on position i there is an enclosure
         //
         boolean found = true;
-        for (int x = 0; found && x < data.binaryEnclosure.length; x++) {
-          if (str[i + x] != data.binaryEnclosure[x]) {
+        for (int x = 0; found && x < enclosure.length; x++) {
+          if (str[i + x] != enclosure[x]) {
             found = false;
           }
         }
         if (found) {
-          if (positions == null) {
-            positions = new ArrayList<>();
-          }
-          positions.add(i);
+          // Skip the enclosure, double it instead...
+          data.writer.write(str, from, i + enclosure.length - from);
+          data.writer.write(enclosure); // write enclosure a second time
+          from = i + enclosure.length;
         }
       }
     }
-    return positions;
+    if (from < str.length) {
+      data.writer.write(str, from, str.length - from);
+    }
   }
 
   protected boolean writeEndedLine() {
@@ -1056,6 +1068,8 @@ public class TextFileOutput extends BaseTransform<TextFileOutputMeta, TextFileOu
   protected void initBinaryDataFields() throws HopException {
     try {
       data.hasEncoding = !Utils.isEmpty(meta.getEncoding());
+      data.charset = null;
+      getCharset();
       data.binarySeparator = new byte[] {};
       data.binaryEnclosure = new byte[] {};
       data.binaryNewline = new byte[] {};
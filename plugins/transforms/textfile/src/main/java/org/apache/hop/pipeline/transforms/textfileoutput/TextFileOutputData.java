@@ -20,6 +20,7 @@ package org.apache.hop.pipeline.transforms.textfileoutput;
 import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.charset.Charset;
 import java.text.DateFormatSymbols;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
@@ -133,6 +134,10 @@ public class TextFileOutputData extends BaseTransformData implements ITransformD
     }
 
     public void close() throws IOException {
+      if (bufferedOutputStream != null) {
+        // Pass on what is still buffered, also when it is written in the background
+        bufferedOutputStream.flush();
+      }
       setBufferedOutputStream(null);
       getCompressedOutputStream().close();
       setCompressedOutputStream(null);
@@ -469,6 +474,11 @@ public class TextFileOutputData extends BaseTransformData implements ITransformD
 
   public boolean hasEncoding;
 
+  /** The character set of the output file and a space in it, used to pad values */
+  public Charset charset;
+
+  public byte[] binaryFiller;
+
   public byte[][] binaryNullValue;
 
   public boolean oneFileOpened;
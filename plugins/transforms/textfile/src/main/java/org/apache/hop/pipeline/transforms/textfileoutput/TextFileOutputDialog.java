@@ -132,6 +132,10 @@ public class TextFileOutputDialog extends BaseTransformDialog {
   private Label wlSplitEvery;
   private TextVar wSplitEvery;
 
+  private TextVar wBufferSize;
+
+  private Button wCompressInBackground;
+
   private TableView wFields;
 
   protected TextFileOutputMeta input;
@@ -942,6 +946,51 @@ public class TextFileOutputDialog extends BaseTransformDialog {
     fdEndedLine.right = new FormAttachment(100, 0);
     wEndedLine.setLayoutData(fdEndedLine);
 
+    Label wlBufferSize = new Label(wContentComp, SWT.RIGHT);
+    wlBufferSize.setText(BaseMessages.getString(PKG, "TextFileOutputDialog.BufferSize.Label"));
+    PropsUi.setLook(wlBufferSize);
+    FormData fdlBufferSize = new FormData();
+    fdlBufferSize.left = new FormAttachment(0, 0);
+    fdlBufferSize.top = new FormAttachment(wEndedLine, margin);
+    fdlBufferSize.right = new FormAttachment(middle, -margin);
+    wlBufferSize.setLayoutData(fdlBufferSize);
+    wBufferSize = new TextVar(variables, wContentComp, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    wBufferSize.setToolTipText(
+        BaseMessages.getString(PKG, "TextFileOutputDialog.BufferSize.Tooltip"));
+    PropsUi.setLook(wBufferSize);
+    wBufferSize.addModifyListener(lsMod);
+    FormData fdBufferSize = new FormData();
+    fdBufferSize.left = new FormAttachment(middle, 0);
+    fdBufferSize.top = new FormAttachment(wEndedLine, margin);
+    fdBufferSize.right = new FormAttachment(100, 0);
+    wBufferSize.setLayoutData(fdBufferSize);
+
+    Label wlCompressInBackground = new Label(wContentComp, SWT.RIGHT);
+    wlCompressInBackground.setText(
+        BaseMessages.getString(PKG, "TextFileOutputDialog.CompressInBackground.Label"));
+    PropsUi.setLook(wlCompressInBackground);
+    FormData fdlCompressInBackground = new FormData();
+    fdlCompressInBackground.left = new FormAttachment(0, 0);
+    fdlCompressInBackground.top = new FormAttachment(wBufferSize, margin);
+    fdlCompressInBackground.right = new FormAttachment(middle, -margin);
+    wlCompressInBackground.setLayoutData(fdlCompressInBackground);
+    wCompressInBackground = new Button(wContentComp, SWT.CHECK);
+    wCompressInBackground.setToolTipText(
+        BaseMessages.getString(PKG, "TextFileOutputDialog.CompressInBackground.Tooltip"));
+    PropsUi.setLook(wCompressInBackground);
+    FormData fdCompressInBackground = new FormData();
+    fdCompressInBackground.left = new FormAttachment(middle, 0);
+    fdCompressInBackground.top = new FormAttachment(wlCompressInBackground, 0, SWT.CENTER);
+    fdCompressInBackground.right = new FormAttachment(100, 0);
+    wCompressInBackground.setLayoutData(fdCompressInBackground);
+    wCompressInBackground.addSelectionListener(
+        new SelectionAdapter() {
+          @Override
+          public void widgetSelected(SelectionEvent e) {
+            input.setChanged();
+          }
+        });
+
     FormData fdContentComp = new FormData();
     fdContentComp.left = new FormAttachment(0, 0);
     fdContentComp.top = new FormAttachment(0, 0);
@@ -1420,6 +1469,8 @@ public class TextFileOutputDialog extends BaseTransformDialog {
     wFileNameInField.setSelection(input.isFileNameInField());
     wFileNameField.setText(Const.NVL(input.getFileNameField(), ""));
     wSplitEvery.setText(Const.NVL(input.getFileSettings().getSplitEveryRows(), ""));
+    wBufferSize.setText(Const.NVL(input.getFileSettings().getBufferSize(), ""));
+    wCompressInBackground.setSelection(input.getFileSettings().isCompressingInBackground());
     wEnclForced.setSelection(input.isEnclosureForced());
     wDisableEnclosureFix.setSelection(input.isEnclosureFixDisabled());
     wHeader.setSelection(input.isHeaderEnabled());
@@ -1487,6 +1538,8 @@ public class TextFileOutputDialog extends BaseTransformDialog {
     tfoi.setEnclosure(wEnclosure.getText());
     tfoi.getFileSettings().setExtension(wExtension.getText());
     tfoi.getFileSettings().setSplitEveryRows(wSplitEvery.getText());
+    tfoi.getFileSettings().setBufferSize(wBufferSize.getText());
+    tfoi.getFileSettings().setCompressingInBackground(wCompressInBackground.getSelection());
     tfoi.setEndedLine(wEndedLine.getText());
 
     tfoi.setFileNameField(wFileNameField.getText());
@@ -69,6 +69,9 @@ public class TextFileOutputMeta extends BaseTransformMeta<TextFileOutput, TextFi
 
   protected static final String[] fileCompressionTypeCodes = new String[] {"None", "Zip"};
 
+  /** The default size of the output buffer: 64kB */
+  public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
   protected static final String[] formatMapperLineTerminator =
       new String[] {"DOS", "UNIX", "CR", "None"};
 
@@ -176,6 +179,20 @@ public class TextFileOutputMeta extends BaseTransformMeta<TextFileOutput, TextFi
         injectionKeyDescription = "TextFileOutput.Injection.SPLIT_EVERY")
     private String splitEveryRows;
 
+    /** The size of the buffer in which the lines are collected before they are written */
+    @HopMetadataProperty(
+        key = "buffer_size",
+        injectionKey = "BUFFER_SIZE",
+        injectionKeyDescription = "TextFileOutput.Injection.BUFFER_SIZE")
+    private String bufferSize;
+
+    /** Flag: compress the file on a background thread while the next lines are formatted */
+    @HopMetadataProperty(
+        key = "compress_in_background",
+        injectionKey = "COMPRESS_IN_BACKGROUND",
+        injectionKeyDescription = "TextFileOutput.Injection.COMPRESS_IN_BACKGROUND")
+    private boolean compressingInBackground;
+
     public FileSettings() {
       setSpecifyingFormat(false);
       setDateTimeFormat(null);
@@ -206,6 +223,8 @@ public class TextFileOutputMeta extends BaseTransformMeta<TextFileOutput, TextFi
       this.partNrInFilename = f.partNrInFilename;
       this.specifyingFormat = f.specifyingFormat;
       this.splitEveryRows = f.splitEveryRows;
+      this.bufferSize = f.bufferSize;
+      this.compressingInBackground = f.compressingInBackground;
       this.timeInFilename = f.timeInFilename;
       this.transformNrInFilename = f.transformNrInFilename;
     }
@@ -368,6 +387,18 @@ public class TextFileOutputMeta extends BaseTransformMeta<TextFileOutput, TextFi
         0);
   }
 
+  /**
+   * @param varSpace for variable substitution
+   * @return The size of the output buffer in bytes.
+   */
+  public int getBufferSize(IVariables varSpace) {
+    int size =
+        Const.toInt(
+            varSpace == null ? fileSettings.bufferSize : varSpace.resolve(fileSettings.bufferSize),
+            DEFAULT_BUFFER_SIZE);
+    return size > 0 ? size : DEFAULT_BUFFER_SIZE;
+  }
+
   /**
    * @return <i>1</i> if <i>isFooterEnabled()</i> and <i>0</i> otherwise
    */
@@ -47,6 +47,21 @@ class CsvInputContentParsingTest extends BaseCsvParsingTest {
     check(new Object[][] {{"first", "1", "1.1"}, {"second", "2", "2.2"}, {"third", "3", "3.3"}});
   }
 
+  @Test
+  void testDefaultOptionsMemoryMapped() throws Exception {
+    meta.setMemoryMapped(true);
+    init("default.csv");
+
+    setFields(
+        new CsvInputField("Field 1", -1, -1),
+        new CsvInputField("Field 2", -1, -1),
+        new CsvInputField("Field 3", -1, -1));
+
+    process();
+
+    check(new Object[][] {{"first", "1", "1.1"}, {"second", "2", "2.2"}, {"third", "3", "3.3"}});
+  }
+
   @Test
   void testColumnNameWithSpaces() throws Exception {
     init("column_name_with_spaces.csv");
@@ -105,6 +120,16 @@ class CsvInputContentParsingTest extends BaseCsvParsingTest {
 
   @Test
   void testMixFileFormat() throws Exception {
+    checkMixFileFormat();
+  }
+
+  @Test
+  void testMixFileFormatMemoryMapped() throws Exception {
+    meta.setMemoryMapped(true);
+    checkMixFileFormat();
+  }
+
+  private void checkMixFileFormat() throws Exception {
     String data =
         "データ1,データ2,データ3,データ4\n"
             + "111,\"a\n"
@@ -21,8 +21,10 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import java.io.File;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 import org.apache.hop.core.exception.HopTransformException;
+import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.junit.rules.RestoreHopEngineEnvironmentExtension;
 import org.apache.hop.pipeline.transform.RowAdapter;
@@ -57,6 +59,8 @@ import org.junit.jupiter.api.extension.RegisterExtension;
  */
 class CsvProcessRowInParallelTest extends CsvInputUnitTestBase {
   private TransformMockHelper<CsvInputMeta, CsvInputData> transformMockHelper;
+  private boolean memoryMapped;
+  private final List<String> readRows = new ArrayList<>();
 
   @RegisterExtension
   static RestoreHopEngineEnvironmentExtension env = new RestoreHopEngineEnvironmentExtension();
@@ -242,6 +246,89 @@ class CsvProcessRowInParallelTest extends CsvInputUnitTestBase {
     assertEquals(11, t1 + t2 + t3 + t4);
   }
 
+  @Test
+  void memoryMapped_mixedByteNewLineIndicator_NoNewLineAtTheEnd_3Threads() throws Exception {
+    memoryMapped = true;
+    final int totalNumberOfTransforms = 3;
+
+    final String fileContent =
+        "ab;111\r\n"
+            + "bc;222\r\n"
+            + "cd;333\r\n"
+            + "de;444\r\n"
+            + "ef;555\r"
+            + "fg;666\r\n"
+            + "gh;777\n"
+            + "hi;888\r\n"
+            + "ij;999\r"
+            + "jk;000";
+
+    File sharedFile = createTestFile(StandardCharsets.UTF_8, fileContent);
+
+    int t1 = createAndRunOneTransform(sharedFile, 0, totalNumberOfTransforms);
+    int t2 = createAndRunOneTransform(sharedFile, 1, totalNumberOfTransforms);
+    int t3 = createAndRunOneTransform(sharedFile, 2, totalNumberOfTransforms);
+
+    assertEquals(10, t1 + t2 + t3);
+    assertEquals(4, t1);
+  }
+
+  @Test
+  void memoryMapped_enclosedFields_3Threads() throws Exception {
+    final String fileContent =
+        "\"a;b\";111\r\n"
+            + "\"say \"\"hi\"\"\";222\r\n"
+            + "cd;\"3;3\"\n"
+            + "\"\";444\r\n"
+            + "\"e\"\"f;g\";555\r"
+            + "\";fg;\";666\r\n"
+            + "gh;\"\"\n"
+            + "\"hi\";888\r\n";
+
+    File sharedFile = createTestFile(StandardCharsets.UTF_8, fileContent);
+    List<String> expected = readAllRows(sharedFile);
+    assertEquals(8, expected.size());
+    assertEquals("[a;b], [111]", expected.get(0));
+    assertEquals("[say \"hi\"], [222]", expected.get(1));
+    assertEquals("[e\"f;g], [555]", expected.get(4));
+
+    memoryMapped = true;
+    readRows.clear();
+    int t1 = createAndRunOneTransform(sharedFile, 0, 3);
+    int t2 = createAndRunOneTransform(sharedFile, 1, 3);
+    int t3 = createAndRunOneTransform(sharedFile, 2, 3);
+
+    assertEquals(8, t1 + t2 + t3);
+    assertEquals(expected, readRows);
+  }
+
+  @Test
+  void memoryMapped_blankLines_sameRowsAsNotMapped_2Threads() throws Exception {
+    final String fileContent =
+        "ab;111\n" + "\n" + "\n" + "bc;222\r\n" + "\r\n" + "cd;333\r" + "\r" + "\r" + "de;444\n";
+
+    File sharedFile = createTestFile(StandardCharsets.UTF_8, fileContent);
+    List<String> expected = readAllRows(sharedFile);
+
+    memoryMapped = true;
+    readRows.clear();
+    int t1 = createAndRunOneTransform(sharedFile, 0, 2);
+    int t2 = createAndRunOneTransform(sharedFile, 1, 2);
+
+    assertEquals(expected.size(), t1 + t2);
+    assertEquals(expected, readRows);
+  }
+
+  /** Read all the rows of a file with a single transform which doesn't map the file in memory */
+  private List<String> readAllRows(File file) throws Exception {
+    boolean mapped = memoryMapped;
+    memoryMapped = false;
+    readRows.clear();
+    createAndRunOneTransform(file, 0, 1);
+    memoryMapped = mapped;
+    return new ArrayList<>(readRows);
+  }
+
   /**
    * So as not to heap up list of taken parameters, we are passing combi, but we expect to see
    * CsvInput class instances in it's content.
@@ -259,6 +346,11 @@ class CsvProcessRowInParallelTest extends CsvInputUnitTestBase {
           @Override
           public void rowWrittenEvent(IRowMeta rowMeta, Object[] row) throws HopTransformException {
             writtenRows[0]++;
+            try {
+              readRows.add(rowMeta.getString(row));
+            } catch (HopValueException e) {
+              throw new HopTransformException(e);
+            }
           }
         });
 
@@ -334,6 +426,7 @@ class CsvProcessRowInParallelTest extends CsvInputUnitTestBase {
 
     meta.setHeaderPresent(headerPresent);
     meta.setRunningInParallel(true);
+    meta.setMemoryMapped(memoryMapped);
 
     return meta;
   }
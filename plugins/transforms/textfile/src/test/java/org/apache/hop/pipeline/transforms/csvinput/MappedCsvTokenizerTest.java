@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.csvinput;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.hop.core.file.EncodingType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MappedCsvTokenizerTest {
+
+  private static final byte[] DELIMITER = {','};
+  private static final byte[] ENCLOSURE = {'"'};
+
+  @TempDir Path folder;
+
+  @Test
+  void rowsAreSplitIntoFields() throws Exception {
+    String content =
+        "a,bb,ccc\n" + "\"x,y\",\"say \"\"hi\"\"\",\n" + "\"multi\nline\",2\r\n" + "\n" + "last";
+
+    List<List<String>> rows = readAll(write(content), 0, 3, 1024);
+
+    assertEquals(
+        List.of(
+            List.of("a", "bb", "ccc"),
+            List.of("x,y", "say \"hi\"", ""),
+            List.of("multi\nline", "2"),
+            List.of(""),
+            List.of("last")),
+        rows);
+  }
+
+  @Test
+  void fieldsAfterTheMaximumAreSkipped() throws Exception {
+    List<List<String>> rows = readAll(write("1,2,3,4\n5,6,7,8\n"), 0, 2, 1024);
+
+    assertEquals(List.of(List.of("1", "2"), List.of("5", "6")), rows);
+  }
+
+  /** Rows of every length end up on every offset in a word and run over the window boundaries. */
+  @Test
+  void rowsCrossingWindowsAreReadCompletely() throws Exception {
+    List<List<String>> expected = new ArrayList<>();
+    StringBuilder content = new StringBuilder();
+    for (int i = 0; i < 500; i++) {
+      String first = "f".repeat(i % 17);
+      String second = "\"s" + ",".repeat(i % 5) + "\"";
+      content.append(first).append(',').append(second).append(i % 3 == 0 ? "\r\n" : "\n");
+      expected.add(List.of(first, "s" + ",".repeat(i % 5)));
+    }
+
+    assertEquals(expected, readAll(write(content.toString()), 0, 2, 64));
+  }
+
+  @Test
+  void rowsLongerThanTheWindowAreRead() throws Exception {
+    String longField = "x".repeat(1000);
+
+    List<List<String>> rows = readAll(write("a,b\n" + longField + ",c\nd,e"), 0, 2, 64);
+
+    assertEquals(List.of(List.of("a", "b"), List.of(longField, "c"), List.of("d", "e")), rows);
+  }
+
+  /** Two readers splitting a file at any position read every row exactly once. */
+  @Test
+  void readersSplittingAFileReadEveryRowOnce() throws Exception {
+    String content = "ab,111\r\nbc,222\r\ncd,333\rde,444\nef,555\r\nfg,666";
+    Path file = write(content);
+    List<List<String>> all = readAll(file, 0, 2, 1024);
+
+    for (int split = 1; split < content.length(); split++) {
+      List<List<String>> rows = new ArrayList<>();
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+        MappedCsvTokenizer first = tokenizer(channel, 0, 2, 1024);
+        while (first.getPosition() < split && first.nextRow()) {
+          rows.add(fields(first));
+        }
+        MappedCsvTokenizer second = tokenizer(channel, split, 2, 1024);
+        second.skipPartialRow();
+        while (second.nextRow()) {
+          rows.add(fields(second));
+        }
+      }
+      assertEquals(all, rows, "Split at " + split);
+    }
+  }
+
+  @Test
+  void enclosuresAreIgnoredOnRequest() throws Exception {
+    try (FileChannel channel =
+        FileChannel.open(write("\"a,b\",c\n\"d\"\n"), StandardOpenOption.READ)) {
+      MappedCsvTokenizer tokenizer = tokenizer(channel, 0, 3, 1024);
+      assertTrue(tokenizer.nextRow(true));
+      assertEquals(List.of("\"a", "b\"", "c"), fields(tokenizer));
+      assertTrue(tokenizer.nextRow(false));
+      assertEquals(List.of("d"), fields(tokenizer));
+      assertFalse(tokenizer.nextRow(true));
+      tokenizer.close();
+    }
+  }
+
+  /** Closing the tokenizer unmaps the window, reading maps the file again where it left off. */
+  @Test
+  void readingContinuesAfterClose() throws Exception {
+    try (FileChannel channel = FileChannel.open(write("a,b\nc,d\n"), StandardOpenOption.READ)) {
+      MappedCsvTokenizer tokenizer = tokenizer(channel, 0, 2, 1024);
+      assertTrue(tokenizer.nextRow());
+      tokenizer.close();
+      tokenizer.close();
+      assertTrue(tokenizer.nextRow());
+      assertEquals(List.of("c", "d"), fields(tokenizer));
+      assertFalse(tokenizer.nextRow());
+    }
+  }
+
+  @Test
+  void onlySingleByteEncodingsAndDelimitersAreSupported() {
+    assertTrue(MappedCsvTokenizer.isSupported(EncodingType.SINGLE, DELIMITER, ENCLOSURE));
+    assertTrue(MappedCsvTokenizer.isSupported(EncodingType.SINGLE, DELIMITER, null));
+    assertFalse(MappedCsvTokenizer.isSupported(EncodingType.SINGLE, new byte[] {'|', '|'}, null));
+    assertFalse(
+        MappedCsvTokenizer.isSupported(EncodingType.DOUBLE_LITTLE_ENDIAN, DELIMITER, ENCLOSURE));
+  }
+
+  private Path write(String content) throws IOException {
+    Path file = folder.resolve("test.csv");
+    Files.writeString(file, content, StandardCharsets.UTF_8);
+    return file;
+  }
+
+  private static List<List<String>> readAll(Path file, long start, int maxNrFields, int windowSize)
+      throws IOException {
+    List<List<String>> rows = new ArrayList<>();
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      MappedCsvTokenizer tokenizer = tokenizer(channel, start, maxNrFields, windowSize);
+      while (tokenizer.nextRow()) {
+        rows.add(fields(tokenizer));
+      }
+    }
+    return rows;
+  }
+
+  private static MappedCsvTokenizer tokenizer(
+      FileChannel channel, long start, int maxNrFields, int windowSize) throws IOException {
+    return new MappedCsvTokenizer(channel, start, DELIMITER, ENCLOSURE, maxNrFields, windowSize);
+  }
+
+  private static List<String> fields(MappedCsvTokenizer tokenizer) {
+    List<String> fields = new ArrayList<>();
+    for (int i = 0; i < tokenizer.getNrFields(); i++) {
+      fields.add(new String(tokenizer.getField(i), StandardCharsets.UTF_8));
+    }
+    return fields;
+  }
+}
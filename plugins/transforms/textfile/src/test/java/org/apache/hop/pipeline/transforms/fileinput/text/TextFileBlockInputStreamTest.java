@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.fileinput.text;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class TextFileBlockInputStreamTest {
+
+  private static final String CONTENT = "ab;111\r\nbc;222\n\ncd;333\rde;444\r\n\r\nef;555\nfg;666";
+
+  /** Two blocks splitting the content at any position read every line exactly once. */
+  @Test
+  void blocksReadEveryLineOnce() throws Exception {
+    for (boolean carriageReturnEndsLine : List.of(false, true)) {
+      for (int split = 0; split <= CONTENT.length(); split++) {
+        String first = read(0, split, carriageReturnEndsLine);
+        String second = read(split, Long.MAX_VALUE, carriageReturnEndsLine);
+        String message = "Split at " + split + ", CR ends line: " + carriageReturnEndsLine;
+
+        assertEquals(CONTENT, first + second, message);
+        assertTrue(first.isEmpty() || isLineEnd(first, carriageReturnEndsLine), message);
+      }
+    }
+  }
+
+  @Test
+  void lineStartingAtTheStartOfTheBlockIsRead() throws Exception {
+    assertEquals("bc;222\n", read(8, 10, false));
+    assertEquals("cd;333\rde;444\r\n", read(16, 17, false));
+    assertEquals("cd;333\r", read(16, 17, true));
+  }
+
+  @Test
+  void blockAfterTheEndOfTheFileIsEmpty() throws Exception {
+    assertEquals("", read(CONTENT.length() + 10, Long.MAX_VALUE, false));
+  }
+
+  private static boolean isLineEnd(String block, boolean carriageReturnEndsLine) {
+    char last = block.charAt(block.length() - 1);
+    return last == '\n' || (carriageReturnEndsLine && last == '\r') || block.equals(CONTENT);
+  }
+
+  private static String read(long start, long end, boolean carriageReturnEndsLine)
+      throws IOException {
+    try (TextFileBlockInputStream in =
+        new TextFileBlockInputStream(
+            new ByteArrayInputStream(CONTENT.getBytes(StandardCharsets.UTF_8)),
+            start,
+            end,
+            carriageReturnEndsLine)) {
+      return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    }
+  }
+}
@@ -19,6 +19,8 @@ package org.apache.hop.pipeline.transforms.fileinput.text;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -37,6 +39,7 @@ import org.apache.commons.vfs2.FileContent;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.hop.core.HopEnvironment;
 import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.QueueRowSet;
 import org.apache.hop.core.exception.HopFileException;
 import org.apache.hop.core.file.TextFileInputField;
 import org.apache.hop.core.fileinput.FileInputList;
@@ -57,6 +60,7 @@ import org.apache.hop.pipeline.transform.errorhandling.AbstractFileErrorHandler;
 import org.apache.hop.pipeline.transform.errorhandling.IFileErrorHandler;
 import org.apache.hop.pipeline.transforms.file.IBaseFileInputReader;
 import org.apache.hop.pipeline.transforms.file.IBaseFileInputTransformControl;
+import org.apache.hop.pipeline.transforms.mock.TransformMockHelper;
 import org.apache.hop.ui.pipeline.transform.common.TextFileLineUtil;
 import org.apache.hop.utils.TestUtils;
 import org.junit.jupiter.api.BeforeAll;
@@ -320,6 +324,50 @@ class TextFileInputTest {
     deleteVfsFile(virtualFile);
   }
 
+  @Test
+  void readFileSplitOverTwoCopies() throws Exception {
+    StringBuilder content = new StringBuilder("id;name\n");
+    int nrRows = 0;
+    while (content.length() < 3 * TextFileInput.MINIMUM_BLOCK_SIZE) {
+      content.append(nrRows).append(";row ").append(nrRows).append('\n');
+      nrRows++;
+    }
+    final String virtualFile = createVirtualFile("parallel.txt", content.toString());
+
+    List<Object[]> output = new ArrayList<>();
+    for (int copyNr = 0; copyNr < 2; copyNr++) {
+      TextFileInputMeta meta = createMetaObject(field("id"), field("name"));
+      meta.getContent().setHeader(true);
+      meta.getContent().setNrHeaderLines(1);
+      meta.getContent().setRunningInParallel(true);
+      TextFileInputData data = createDataObject(virtualFile, ";", "id", "name");
+
+      List<Object[]> copyOutput = executeCopy(meta, data, copyNr, 2);
+      assertTrue(copyOutput.size() > nrRows / 4, "Rows read by copy " + copyNr);
+      output.addAll(copyOutput);
+    }
+
+    assertEquals(nrRows, output.size());
+    for (int i = 0; i < nrRows; i++) {
+      PipelineTestingUtil.assertResult(
+          new Object[] {Integer.toString(i), "row " + i}, output.get(i));
+    }
+
+    deleteVfsFile(virtualFile);
+  }
+
+  @Test
+  void filesAreDividedOverTheCopies() {
+    // Files of 100 and 50 bytes are split, the others are read as a whole
+    long[] sizes = {100, -1, 10, 50, -1};
+
+    List<TextFileInputBlock> first = TextFileInputBlock.getBlocks(sizes, 0, 2, 20);
+    List<TextFileInputBlock> second = TextFileInputBlock.getBlocks(sizes, 1, 2, 20);
+
+    assertEquals(List.of("0:0-50", "1:0--1", "3:0-25", "4:0--1"), describe(first));
+    assertEquals(List.of("0:50--1", "2:0--1", "3:25--1"), describe(second));
+  }
+
   @Test
   void readInputWithMissedValues() throws Exception {
     final String virtualFile = createVirtualFile("pdi-14172.txt", "1,1,1\n", "2,,2\n");
@@ -553,6 +601,46 @@ class TextFileInputTest {
     assertEquals(0, mockTFID.lineBuffer.size());
   }
 
+  private static List<Object[]> executeCopy(
+      TextFileInputMeta meta, TextFileInputData data, int copyNr, int nrCopies) throws Exception {
+    TransformMockHelper<TextFileInputMeta, TextFileInputData> transformMockHelper =
+        TransformMockUtil.getTransformMockHelper(
+            TextFileInputMeta.class, TextFileInputData.class, "test");
+    when(transformMockHelper.transformMeta.getCopies(any())).thenReturn(nrCopies);
+    try {
+      TextFileInput input =
+          new TextFileInput(
+              transformMockHelper.transformMeta,
+              meta,
+              data,
+              copyNr,
+              transformMockHelper.pipelineMeta,
+              transformMockHelper.pipeline);
+      IRowSet output = new QueueRowSet();
+      input.setOutputRowSets(List.of(output));
+
+      List<Object[]> rows = new ArrayList<>();
+      boolean running = true;
+      while (running) {
+        running = input.processRow();
+        for (Object[] row = output.getRowImmediate(); row != null; row = output.getRowImmediate()) {
+          rows.add(row);
+        }
+      }
+      return rows;
+    } finally {
+      transformMockHelper.cleanUp();
+    }
+  }
+
+  private static List<String> describe(List<TextFileInputBlock> blocks) {
+    List<String> descriptions = new ArrayList<>();
+    for (TextFileInputBlock block : blocks) {
+      descriptions.add(block.getFileIndex() + ":" + block.getStart() + "-" + block.getEnd());
+    }
+    return descriptions;
+  }
+
   private TextFileInputMeta createMetaObject(TextFileInputField... fields) {
     TextFileInputMeta meta = new TextFileInputMeta();
     meta.getContent().setFileCompression("None");
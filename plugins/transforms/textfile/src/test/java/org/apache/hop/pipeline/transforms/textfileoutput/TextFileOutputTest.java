@@ -32,6 +32,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.hop.core.Const;
@@ -561,6 +562,77 @@ class TextFileOutputTest {
     assertEquals("this is the end", baos.toString(StandardCharsets.UTF_8));
   }
 
+  @Test
+  void testEnclosuresAreDoubledInPaddedValues() throws Exception {
+    TextFileOutputMeta meta = new TextFileOutputMeta();
+    meta.setEncoding(Const.UTF_8);
+    meta.setSeparator(",");
+    meta.setFileFormat("UNIX");
+
+    TextFileOutputData data = new TextFileOutputData();
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    data.writer = baos;
+
+    TextFileOutput textFileOutput =
+        new TextFileOutputTestHandler(
+            transformMockHelper.transformMeta,
+            meta,
+            data,
+            0,
+            transformMockHelper.pipelineMeta,
+            transformMockHelper.pipeline);
+    textFileOutput.initBinaryDataFields();
+
+    RowMeta rowMeta = new RowMeta();
+    ValueMetaString name = new ValueMetaString("name");
+    name.setLength(8);
+    rowMeta.addValueMeta(name);
+    rowMeta.addValueMeta(new ValueMetaString("quotes"));
+    textFileOutput.writeRow(rowMeta, new Object[] {"a\"b", "\"\"x\""});
+
+    assertEquals("\"a\"\"b     \",\"\"\"\"\"x\"\"\"\n", baos.toString(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void testCompressInBackground() throws Exception {
+    String filename = createTemplateFile().toString();
+
+    TextFileOutputMeta meta = new TextFileOutputMeta();
+    meta.setEncoding(Const.UTF_8);
+    meta.setFileFormat("UNIX");
+    meta.setFileCompression("GZip");
+    meta.getFileSettings().setFileName(filename);
+    meta.getFileSettings().setBufferSize("100");
+    meta.getFileSettings().setCompressingInBackground(true);
+
+    TextFileOutputData data = new TextFileOutputData();
+    TextFileOutput textFileOutput =
+        new TextFileOutputTestHandler(
+            transformMockHelper.transformMeta,
+            meta,
+            data,
+            0,
+            transformMockHelper.pipelineMeta,
+            transformMockHelper.pipeline);
+    textFileOutput.initBinaryDataFields();
+    textFileOutput.initFileStreamWriter(filename);
+
+    RowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("name"));
+    StringBuilder expected = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      textFileOutput.writeRow(rowMeta, new Object[] {"row " + i});
+      expected.append("row ").append(i).append('\n');
+    }
+    textFileOutput.flushOpenFiles(true);
+
+    try (GZIPInputStream in =
+        new GZIPInputStream(
+            TestUtils.getFileObject(filename, new Variables()).getContent().getInputStream())) {
+      assertEquals(expected.toString(), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+    }
+  }
+
   private void assertNotInvokedTwice(TextFileField field) {
 
     TextFileOutputMeta meta = new TextFileOutputMeta();
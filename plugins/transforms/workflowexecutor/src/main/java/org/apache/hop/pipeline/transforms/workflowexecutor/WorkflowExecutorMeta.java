@@ -23,6 +23,7 @@ import java.util.Map;
 import lombok.Getter;
 import lombok.Setter;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.hop.base.MetaFileCache;
 import org.apache.hop.core.CheckResult;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.ICheckResult;
@@ -482,7 +483,8 @@ public class WorkflowExecutorMeta
     //
     // Don't set internal variables: they belong to the parent thread!
     //
-    WorkflowMeta mappingWorkflowMeta = new WorkflowMeta(variables, realFilename, metadataProvider);
+    WorkflowMeta mappingWorkflowMeta =
+        MetaFileCache.loadWorkflowMeta(realFilename, metadataProvider, variables);
     LogChannel.GENERAL.logDetailed(
         "Loaded workflow", "Workflow was loaded from XML file [" + realFilename + "]");
 
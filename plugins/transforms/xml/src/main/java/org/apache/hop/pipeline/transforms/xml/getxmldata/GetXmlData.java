@@ -277,23 +277,7 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> {
         try {
           reader.setEncoding(encoding);
           data.document = reader.read(countingIs);
-          long bytesRead = countingIs.getCount();
-          dataVolumeIn = (dataVolumeIn != null ? dataVolumeIn : 0L) + bytesRead;
-          if (file != null && bytesRead > 0) {
-            try {
-              LineageFileIoEmitter.emitTransformFileIo(
-                  this,
-                  FileIoOperation.READ,
-                  file,
-                  null,
-                  bytesRead,
-                  true,
-                  null,
-                  xmlFileReadContentSchema());
-            } catch (Exception ignored) {
-              // optional lineage
-            }
-          }
+          addFileRead(file, countingIs.getCount());
         } finally {
           BaseTransform.closeQuietly(countingIs);
         }
@@ -313,6 +297,92 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> {
     return true;
   }
 
+  /** Count the bytes read from a file and report the read to lineage. */
+  private void addFileRead(FileObject file, long bytesRead) {
+    dataVolumeIn = (dataVolumeIn != null ? dataVolumeIn : 0L) + bytesRead;
+    if (file != null && bytesRead > 0) {
+      try {
+        LineageFileIoEmitter.emitTransformFileIo(
+            this,
+            FileIoOperation.READ,
+            file,
+            null,
+            bytesRead,
+            true,
+            null,
+            xmlFileReadContentSchema());
+      } catch (Exception ignored) {
+        // optional lineage
+      }
+    }
+  }
+
+  /**
+   * Start reading a file with the StAX stream reader instead of building a document.
+   *
+   * @param file the file to read
+   */
+  private void openStream(FileObject file) throws HopException, FileSystemException {
+    String encoding = Const.UTF_8;
+    if (!Utils.isEmpty(meta.getEncoding())) {
+      encoding = meta.getEncoding();
+    }
+    data.streamInputStream = new CountingInputStream(HopVfs.getInputStream(file));
+    data.streamReader.open(data.streamInputStream, encoding);
+  }
+
+  /** Stop reading the current file with the StAX stream reader. */
+  private void closeStream() {
+    data.streamReader.close();
+    if (data.streamInputStream != null) {
+      addFileRead(data.file, data.streamInputStream.getCount());
+      data.streamInputStream = null;
+    }
+  }
+
+  /**
+   * Read the next row with the StAX stream reader, opening the next file when needed.
+   *
+   * @return the next row or null when all files are read
+   */
+  private Object[] getStreamedXmlRow() throws HopException {
+    data.errorInRowButContinue = false;
+    while (true) {
+      String[] values;
+      try {
+        values = data.streamReader.next();
+      } catch (HopException e) {
+        if (!getTransformMeta().isDoingErrorHandling()) {
+          throw e;
+        }
+        // The rows before the error are already passed on, send the rest of the file to error
+        // handling like a file which can't be parsed at all.
+        //
+        String message =
+            BaseMessages.getString(
+                PKG,
+                "GetXMLData.Log.UnableToOpenFile",
+                "" + data.filenr,
+                data.file.toString(),
+                e.toString());
+        logBasic(message);
+        putError(data.outputRowMeta, buildEmptyRow(), 1, message, null, "GetXMLData002");
+        values = null;
+      }
+      if (values != null) {
+        try {
+          return processPutRow(null, values);
+        } catch (Exception e) {
+          throw new HopException(BaseMessages.getString(PKG, "GetXMLData.Error.UnableReadFile"), e);
+        }
+      }
+      closeStream();
+      if (!openNextFile()) {
+        return null;
+      }
+    }
+  }
+
   /**
    * Process chunk of data in streaming mode. Called only by the handler when pruning is true. Not
    * allowed in combination with meta.getIsInFields(), but could be redesigned later on.
@@ -763,7 +833,9 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> {
         }
 
         // Open the XML document
-        if (!setDocument(null, data.file, false, false)) {
+        if (data.streamReader != null) {
+          openStream(data.file);
+        } else if (!setDocument(null, data.file, false, false)) {
           if (data.stopPruning) {
             return false; // ignore error when stopped while pruning
           }
@@ -773,6 +845,7 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> {
 
         // Apply XPath and set node list
         if (data.prunePath == null
+            && data.streamReader == null
             && !applyXPath()) { // this was already done in processStreaming()
           throw new HopException(
               BaseMessages.getString(PKG, CONST_GET_XMLDATA_LOG_UNABLE_APPLY_XPATH));
@@ -878,6 +951,9 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> {
 
   private Object[] getXmlRow() throws HopException {
 
+    if (data.streamReader != null) {
+      return getStreamedXmlRow();
+    }
     if (!meta.isInFields()) {
       while ((data.nodenr >= data.nodesize || data.file == null)) {
         if (!openNextFile()) {
@@ -905,7 +981,7 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> {
         }
       }
 
-      r = processPutRow(data.an.get(data.nodenr));
+      r = processPutRow(data.an.get(data.nodenr), null);
     } catch (Exception e) {
       throw new HopException(BaseMessages.getString(PKG, "GetXMLData.Error.UnableReadFile"), e);
     }
@@ -913,7 +989,11 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> {
     return r;
   }
 
-  private Object[] processPutRow(Node node) throws HopException {
+  /**
+   * @param node the loop node to evaluate the field XPaths on
+   * @param streamedValues the values of the fields read by the stream reader, null to use the node
+   */
+  private Object[] processPutRow(Node node, String[] streamedValues) throws HopException {
     // Create new row...
     Object[] outputRowData = buildEmptyRow();
 
@@ -945,8 +1025,10 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> {
         // Get node value
         String nodevalue;
 
-        // Handle namespaces
-        if (meta.isNameSpaceAware()) {
+        if (streamedValues != null) {
+          nodevalue = streamedValues[i];
+        } else if (meta.isNameSpaceAware()) {
+          // Handle namespaces
           XPath xpathField = node.createXPath(addNSPrefix(xPathValue, data.PathValue));
           xpathField.setNamespaceURIs(data.NAMESPACE);
           if (xmlDataField
@@ -1217,13 +1299,49 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> {
         }
       }
 
+      if (meta.isStaxStreaming()) {
+        data.streamReader = createStreamReader();
+        if (data.streamReader != null) {
+          if (isDetailed()) {
+            logDetailed(BaseMessages.getString(PKG, "GetXMLData.Log.StaxStreaming.Activated"));
+          }
+        } else {
+          logBasic(BaseMessages.getString(PKG, "GetXMLData.Log.StaxStreaming.NotPossible"));
+        }
+      }
+
       return true;
     }
     return false;
   }
 
+  /**
+   * Only the files are streamed, with the common subset of XPath supported by {@link
+   * XmlStreamPath}. Everything else needs a document.
+   *
+   * @return the stream reader or null if the files can't be read without a document
+   */
+  private GetXmlDataStreamReader createStreamReader() {
+    if (meta.isInFields() || meta.isNameSpaceAware() || meta.isValidating() || meta.isUseToken()) {
+      return null;
+    }
+    List<String> fieldPaths = new ArrayList<>();
+    for (GetXmlDataField field : meta.getInputFields()) {
+      if (GetXmlDataField.getResultTypeByCode(field.getResultType())
+          != GetXmlDataField.RESULT_TYPE_VALUE_OF) {
+        return null;
+      }
+      fieldPaths.add(field.getResolvedXPath());
+    }
+    return GetXmlDataStreamReader.compile(data.PathValue, fieldPaths);
+  }
+
   @Override
   public void dispose() {
+    if (data.streamReader != null) {
+      data.streamReader.close();
+      data.streamReader = null;
+    }
     if (data.file != null) {
       try {
         data.file.close();
@@ -31,6 +31,7 @@ import java.util.List;
 import java.util.Map;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.hop.core.fileinput.FileInputList;
+import org.apache.hop.core.io.CountingInputStream;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
@@ -60,6 +61,11 @@ public class GetXmlDataData extends BaseTransformData implements ITransformData
       prunePath; // identical to meta.getPrunePath() with some conditions set at init(), null when
   // no pruning
   public boolean stopPruning; // used for a trick to stop the reader in pruning mode
+
+  /** Reads the files without building a document, null when the paths can't be streamed */
+  public GetXmlDataStreamReader streamReader;
+
+  public CountingInputStream streamInputStream;
   public boolean
       errorInRowButContinue; // true when actual row has an error and error handling is active:
   // means
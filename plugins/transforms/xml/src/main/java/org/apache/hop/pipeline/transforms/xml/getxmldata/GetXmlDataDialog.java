@@ -149,6 +149,9 @@ public class GetXmlDataDialog extends BaseTransformDialog {
   private Label wlPrunePath;
   private TextVar wPrunePath;
 
+  private Label wlStaxStreaming;
+  private Button wStaxStreaming;
+
   private Label wlEncoding;
   private CCombo wEncoding;
 
@@ -776,6 +779,24 @@ public class GetXmlDataDialog extends BaseTransformDialog {
     fdPrunePath.right = new FormAttachment(100, 0);
     wPrunePath.setLayoutData(fdPrunePath);
 
+    // Read the files without building a document
+    wlStaxStreaming = new Label(wXmlConf, SWT.RIGHT);
+    wlStaxStreaming.setText(BaseMessages.getString(PKG, "GetXMLDataDialog.StaxStreaming.Label"));
+    PropsUi.setLook(wlStaxStreaming);
+    FormData fdlStaxStreaming = new FormData();
+    fdlStaxStreaming.left = new FormAttachment(0, 0);
+    fdlStaxStreaming.top = new FormAttachment(wPrunePath, margin);
+    fdlStaxStreaming.right = new FormAttachment(middle, -margin);
+    wlStaxStreaming.setLayoutData(fdlStaxStreaming);
+    wStaxStreaming = new Button(wXmlConf, SWT.CHECK);
+    PropsUi.setLook(wStaxStreaming);
+    wStaxStreaming.setToolTipText(
+        BaseMessages.getString(PKG, "GetXMLDataDialog.StaxStreaming.Tooltip"));
+    FormData fdStaxStreaming = new FormData();
+    fdStaxStreaming.left = new FormAttachment(middle, 0);
+    fdStaxStreaming.top = new FormAttachment(wlStaxStreaming, 0, SWT.CENTER);
+    wStaxStreaming.setLayoutData(fdStaxStreaming);
+
     FormData fdXmlConf = new FormData();
     fdXmlConf.left = new FormAttachment(0, margin);
     fdXmlConf.top = new FormAttachment(0, margin);
@@ -1359,6 +1380,8 @@ public class GetXmlDataDialog extends BaseTransformDialog {
     wPreview.setEnabled(!wXMLStreamField.getSelection());
     wPrunePath.setEnabled(!wXMLStreamField.getSelection());
     wlPrunePath.setEnabled(!wXMLStreamField.getSelection());
+    wStaxStreaming.setEnabled(!wXMLStreamField.getSelection());
+    wlStaxStreaming.setEnabled(!wXMLStreamField.getSelection());
     wlShortFileFieldName.setEnabled(!wXMLStreamField.getSelection());
     wShortFileFieldName.setEnabled(!wXMLStreamField.getSelection());
     wlPathFieldName.setEnabled(!wXMLStreamField.getSelection());
@@ -1661,6 +1684,7 @@ public class GetXmlDataDialog extends BaseTransformDialog {
     if (in.getPrunePath() != null) {
       wPrunePath.setText(in.getPrunePath());
     }
+    wStaxStreaming.setSelection(in.isStaxStreaming());
     if (in.getLoopXPath() != null) {
       wLoopXPath.setText(in.getLoopXPath());
     }
@@ -1796,6 +1820,7 @@ public class GetXmlDataDialog extends BaseTransformDialog {
     // copy info to TextFileInputMeta class (input)
     in.setRowLimit(Const.toLongExpanded(wLimit.getText(), 0L));
     in.setPrunePath(wPrunePath.getText());
+    in.setStaxStreaming(wStaxStreaming.getSelection());
     in.setLoopXPath(wLoopXPath.getText());
     in.setEncoding(wEncoding.getText());
     in.setFilenameField(wInclFilenameField.getText());
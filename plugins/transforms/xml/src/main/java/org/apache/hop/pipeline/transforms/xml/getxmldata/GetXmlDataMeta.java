@@ -201,6 +201,12 @@ public class GetXmlDataMeta extends BaseTransformMeta<GetXmlData, GetXmlDataData
   @HopMetadataProperty(injectionKeyDescription = "GetXmlDataMeta.Injection.PrunePath")
   private String prunePath;
 
+  /** Flag: read the files with a StAX parser, without building a document */
+  @HopMetadataProperty(
+      key = "stax_streaming",
+      injectionKeyDescription = "GetXmlDataMeta.Injection.StaxStreaming")
+  private boolean staxStreaming;
+
   /** Additional fields * */
   @HopMetadataProperty(
       injectionKeyDescription = "GetXmlDataMeta.Injection.PrunePath",
@@ -310,6 +316,7 @@ public class GetXmlDataMeta extends BaseTransformMeta<GetXmlData, GetXmlDataData
     ignoreComments = false;
     readUrl = false;
     validating = false;
+    staxStreaming = false;
     loopXPath = "";
 
     // init files, inputFields list
@@ -0,0 +1,278 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.xml.getxmldata;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.pipeline.transforms.xml.getxmldata.XmlStreamPath.XmlStreamElement;
+
+/**
+ * Reads the rows of an XML file with a StAX parser, without building a document. The loop path and
+ * field paths are matched against the open elements while the file is parsed, so the memory use
+ * doesn't depend on the size of the file.
+ *
+ * <p>Like XPath, a field gets the value of the first node it selects in document order: the text of
+ * an element, including the text of its children, or the value of an attribute. A loop element
+ * inside another loop element is read as part of the outer one.
+ */
+public class GetXmlDataStreamReader implements AutoCloseable {
+
+  private static final XMLInputFactory FACTORY = createFactory();
+
+  private final XmlStreamPath loopPath;
+  private final XmlStreamPath[] fieldPaths;
+  private final boolean keepAttributes;
+
+  private XMLStreamReader reader;
+  private InputStream inputStream;
+  private final List<XmlStreamElement> stack = new ArrayList<>();
+
+  /** The level of the loop element being read or -1 */
+  private int rowLevel;
+
+  private String[] values;
+  private StringBuilder[] texts;
+  private int[] textLevels;
+
+  /**
+   * @param loopPath the compiled loop path
+   * @param fieldPaths the compiled field paths
+   */
+  public GetXmlDataStreamReader(XmlStreamPath loopPath, XmlStreamPath[] fieldPaths) {
+    this.loopPath = loopPath;
+    this.fieldPaths = fieldPaths;
+    boolean predicates = loopPath.hasPredicates();
+    for (XmlStreamPath fieldPath : fieldPaths) {
+      predicates |= fieldPath.hasPredicates();
+    }
+    this.keepAttributes = predicates;
+  }
+
+  /**
+   * Compile the loop path and the field paths for streaming.
+   *
+   * @param loopPath the loop XPath
+   * @param fieldPaths the field XPaths
+   * @return a reader or null if one of the paths can not be streamed
+   */
+  public static GetXmlDataStreamReader compile(String loopPath, List<String> fieldPaths) {
+    XmlStreamPath loop = XmlStreamPath.compileLoopPath(loopPath);
+    if (loop == null) {
+      return null;
+    }
+    XmlStreamPath[] fields = new XmlStreamPath[fieldPaths.size()];
+    for (int i = 0; i < fields.length; i++) {
+      fields[i] = XmlStreamPath.compileFieldPath(fieldPaths.get(i));
+      if (fields[i] == null) {
+        return null;
+      }
+    }
+    return new GetXmlDataStreamReader(loop, fields);
+  }
+
+  private static XMLInputFactory createFactory() {
+    XMLInputFactory factory = XMLInputFactory.newInstance();
+    factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+    factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    // Ignore external DTD declarations, like IgnoreDtdEntityResolver does for the document reader
+    //
+    factory.setXMLResolver(
+        (publicId, systemId, baseUri, namespace) -> new ByteArrayInputStream(new byte[0]));
+    return factory;
+  }
+
+  /**
+   * Start reading a file.
+   *
+   * @param inputStream the file to read, closed when this reader is closed
+   * @param encoding the encoding of the file
+   * @throws HopException in case the file can't be parsed
+   */
+  public void open(InputStream inputStream, String encoding) throws HopException {
+    close();
+    this.inputStream = inputStream;
+    try {
+      reader = FACTORY.createXMLStreamReader(inputStream, encoding);
+    } catch (XMLStreamException e) {
+      throw new HopException("Unable to start reading the XML stream", e);
+    }
+    stack.clear();
+    rowLevel = -1;
+  }
+
+  /**
+   * Read up to the end of the next loop element.
+   *
+   * @return the values of the fields or null at the end of the file
+   * @throws HopException in case the file can't be parsed
+   */
+  public String[] next() throws HopException {
+    if (reader == null) {
+      return null;
+    }
+    try {
+      while (reader.hasNext()) {
+        switch (reader.next()) {
+          case XMLStreamConstants.START_ELEMENT:
+            startElement();
+            break;
+          case XMLStreamConstants.CHARACTERS,
+              XMLStreamConstants.CDATA,
+              XMLStreamConstants.SPACE,
+              XMLStreamConstants.ENTITY_REFERENCE:
+            appendText();
+            break;
+          case XMLStreamConstants.END_ELEMENT:
+            if (endElement()) {
+              return values;
+            }
+            break;
+          default:
+            break;
+        }
+      }
+    } catch (XMLStreamException e) {
+      throw new HopException("Error reading the XML stream", e);
+    }
+    return null;
+  }
+
+  private void startElement() {
+    Map<String, String> attributes = null;
+    if (keepAttributes) {
+      attributes = new HashMap<>();
+      for (int i = 0; i < reader.getAttributeCount(); i++) {
+        if (isEmpty(reader.getAttributeNamespace(i))) {
+          attributes.put(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+        }
+      }
+    }
+    stack.add(new XmlStreamElement(reader.getLocalName(), reader.getNamespaceURI(), attributes));
+    int level = stack.size() - 1;
+
+    if (rowLevel < 0) {
+      if (loopPath.matches(stack, -1)) {
+        startRow(level);
+        selectFields(level);
+      }
+    } else {
+      selectFields(level);
+    }
+  }
+
+  private void startRow(int level) {
+    rowLevel = level;
+    values = new String[fieldPaths.length];
+    texts = new StringBuilder[fieldPaths.length];
+    textLevels = new int[fieldPaths.length];
+  }
+
+  /** Select the values of the fields which are not known yet and match the new element */
+  private void selectFields(int level) {
+    for (int i = 0; i < fieldPaths.length; i++) {
+      if (values[i] != null || texts[i] != null || !fieldPaths[i].matches(stack, rowLevel)) {
+        continue;
+      }
+      String attribute = fieldPaths[i].getAttribute();
+      if (attribute != null) {
+        values[i] = reader.getAttributeValue(null, attribute);
+      } else {
+        texts[i] = new StringBuilder();
+        textLevels[i] = level;
+      }
+    }
+  }
+
+  private void appendText() {
+    if (rowLevel < 0) {
+      return;
+    }
+    boolean entity = reader.getEventType() == XMLStreamConstants.ENTITY_REFERENCE;
+    for (StringBuilder text : texts) {
+      if (text == null) {
+        continue;
+      }
+      if (entity) {
+        text.append(reader.getText());
+      } else {
+        text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+      }
+    }
+  }
+
+  /**
+   * @return true if the loop element ended
+   */
+  private boolean endElement() {
+    int level = stack.size() - 1;
+    stack.remove(level);
+    if (rowLevel < 0) {
+      return false;
+    }
+    for (int i = 0; i < texts.length; i++) {
+      if (texts[i] != null && textLevels[i] == level) {
+        values[i] = texts[i].toString();
+        texts[i] = null;
+      }
+    }
+    if (level != rowLevel) {
+      return false;
+    }
+    for (int i = 0; i < values.length; i++) {
+      if (values[i] == null) {
+        values[i] = "";
+      }
+    }
+    rowLevel = -1;
+    return true;
+  }
+
+  private static boolean isEmpty(String string) {
+    return string == null || string.isEmpty();
+  }
+
+  @Override
+  public void close() {
+    if (reader != null) {
+      try {
+        reader.close();
+      } catch (XMLStreamException e) {
+        // Ignore close errors
+      }
+      reader = null;
+    }
+    if (inputStream != null) {
+      try {
+        inputStream.close();
+      } catch (Exception e) {
+        // Ignore close errors
+      }
+      inputStream = null;
+    }
+  }
+}
@@ -0,0 +1,277 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.xml.getxmldata;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import lombok.Getter;
+
+/**
+ * The subset of XPath which can be evaluated while an XML file is streamed, without building a
+ * document: element steps separated by / (child) or // (descendant), the * wildcard, attribute
+ * predicates like [@type='a'] or [@type] and an optional attribute at the end of the path.
+ *
+ * <p>A loop path is absolute, a field path is relative to the loop element. A field path of "." or
+ * "@name" selects the loop element itself or one of its attributes. Anything else, like axes,
+ * functions, positions or namespace prefixes, can not be streamed.
+ */
+@Getter
+public class XmlStreamPath {
+
+  /** One element step of the path */
+  @Getter
+  public static class Step {
+    /** true if the step is preceded by // */
+    private final boolean descendant;
+
+    /** The local name of the element or null for * */
+    private final String name;
+
+    /** The attributes the element needs to have, with their value or null for any value */
+    private final List<String[]> predicates;
+
+    Step(boolean descendant, String name, List<String[]> predicates) {
+      this.descendant = descendant;
+      this.name = name;
+      this.predicates = predicates;
+    }
+
+    /**
+     * @param localName the local name of the element
+     * @param namespace the namespace URI of the element, null or empty for no namespace
+     * @param attributes the attributes of the element, only used if there are predicates
+     * @return true if the element matches this step
+     */
+    public boolean matches(String localName, String namespace, Map<String, String> attributes) {
+      if (name != null
+          && (!name.equals(localName) || (namespace != null && !namespace.isEmpty()))) {
+        return false;
+      }
+      for (String[] predicate : predicates) {
+        String value = attributes == null ? null : attributes.get(predicate[0]);
+        if (value == null || (predicate[1] != null && !predicate[1].equals(value))) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  private final List<Step> steps;
+
+  /** The attribute selected at the end of the path, null to select the element */
+  private final String attribute;
+
+  private XmlStreamPath(List<Step> steps, String attribute) {
+    this.steps = steps;
+    this.attribute = attribute;
+  }
+
+  /**
+   * @return true if one of the steps has a predicate
+   */
+  public boolean hasPredicates() {
+    for (Step step : steps) {
+      if (!step.predicates.isEmpty()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Compile an absolute loop path.
+   *
+   * @param path the loop XPath
+   * @return the compiled path or null if it can not be streamed
+   */
+  public static XmlStreamPath compileLoopPath(String path) {
+    if (path == null || !path.startsWith(GetXmlDataMeta.N0DE_SEPARATOR)) {
+      return null;
+    }
+    XmlStreamPath compiled = compile(path);
+    if (compiled == null || compiled.steps.isEmpty() || compiled.attribute != null) {
+      return null;
+    }
+    return compiled;
+  }
+
+  /**
+   * Compile a field path, relative to the loop element.
+   *
+   * @param path the field XPath
+   * @return the compiled path or null if it can not be streamed
+   */
+  public static XmlStreamPath compileFieldPath(String path) {
+    if (path == null) {
+      return null;
+    }
+    String relative = path.trim();
+    if (relative.equals(".")) {
+      return new XmlStreamPath(List.of(), null);
+    }
+    if (relative.startsWith("./")) {
+      relative = relative.substring(1);
+    } else if (relative.startsWith(GetXmlDataMeta.N0DE_SEPARATOR)) {
+      // Absolute paths are evaluated from the root of the document, not the loop element
+      //
+      return null;
+    } else {
+      relative = GetXmlDataMeta.N0DE_SEPARATOR + relative;
+    }
+    return compile(relative);
+  }
+
+  /** Compile a path starting with a / */
+  private static XmlStreamPath compile(String path) {
+    List<Step> steps = new ArrayList<>();
+    String attribute = null;
+    int i = 0;
+    while (i < path.length()) {
+      if (attribute != null || path.charAt(i) != '/') {
+        return null;
+      }
+      boolean descendant = path.startsWith("//", i);
+      i += descendant ? 2 : 1;
+
+      int end = i;
+      while (end < path.length() && path.charAt(end) != '/' && path.charAt(end) != '[') {
+        end++;
+      }
+      String name = path.substring(i, end).trim();
+      i = end;
+
+      if (name.startsWith(GetXmlDataMeta.AT)) {
+        attribute = name.substring(1);
+        if (descendant || !isName(attribute)) {
+          return null;
+        }
+        continue;
+      }
+      if (!name.equals("*") && !isName(name)) {
+        return null;
+      }
+
+      List<String[]> predicates = new ArrayList<>();
+      while (i < path.length() && path.charAt(i) == '[') {
+        int close = path.indexOf(']', i);
+        if (close < 0) {
+          return null;
+        }
+        String[] predicate = parsePredicate(path.substring(i + 1, close).trim());
+        if (predicate == null) {
+          return null;
+        }
+        predicates.add(predicate);
+        i = close + 1;
+      }
+      steps.add(new Step(descendant, name.equals("*") ? null : name, predicates));
+    }
+    return new XmlStreamPath(steps, attribute);
+  }
+
+  /**
+   * Parse a predicate like @name or @name='value'
+   *
+   * @return the name and value (null for any value) or null if the predicate is not supported
+   */
+  private static String[] parsePredicate(String predicate) {
+    if (!predicate.startsWith(GetXmlDataMeta.AT)) {
+      return null;
+    }
+    int equals = predicate.indexOf('=');
+    if (equals < 0) {
+      String name = predicate.substring(1).trim();
+      return isName(name) ? new String[] {name, null} : null;
+    }
+    String name = predicate.substring(1, equals).trim();
+    String value = predicate.substring(equals + 1).trim();
+    if (!isName(name) || value.length() < 2) {
+      return null;
+    }
+    char quote = value.charAt(0);
+    if ((quote != '\'' && quote != '"')
+        || value.charAt(value.length() - 1) != quote
+        || value.indexOf(quote, 1) != value.length() - 1) {
+      return null;
+    }
+    return new String[] {name, value.substring(1, value.length() - 1)};
+  }
+
+  /** A local name without namespace prefix, axis, function call or other XPath syntax */
+  private static boolean isName(String name) {
+    if (name.isEmpty() || !Character.isLetter(name.charAt(0)) && name.charAt(0) != '_') {
+      return false;
+    }
+    for (int i = 1; i < name.length(); i++) {
+      char c = name.charAt(i);
+      if (!Character.isLetterOrDigit(c) && c != '_' && c != '-' && c != '.') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * See if the path matches the element at the top of a stack of elements.
+   *
+   * @param stack the local name, namespace and attributes of the open elements, the root first
+   * @param contextLevel the level of the element the path is relative to, -1 for the document
+   * @return true if the last element on the stack is selected by the path
+   */
+  public boolean matches(List<XmlStreamElement> stack, int contextLevel) {
+    if (steps.isEmpty()) {
+      return stack.size() - 1 == contextLevel;
+    }
+    return matches(stack, steps.size() - 1, stack.size() - 1, contextLevel);
+  }
+
+  private boolean matches(List<XmlStreamElement> stack, int stepIndex, int level, int context) {
+    if (level <= context) {
+      return false;
+    }
+    Step step = steps.get(stepIndex);
+    XmlStreamElement element = stack.get(level);
+    if (!step.matches(element.localName(), element.namespace(), element.attributes())) {
+      return false;
+    }
+    if (stepIndex == 0) {
+      return step.descendant || level == context + 1;
+    }
+    if (!step.descendant) {
+      return matches(stack, stepIndex - 1, level - 1, context);
+    }
+    for (int parent = level - 1; parent > context; parent--) {
+      if (matches(stack, stepIndex - 1, parent, context)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * An open element while streaming
+   *
+   * @param localName the local name
+   * @param namespace the namespace URI or null
+   * @param attributes the attributes, only kept when a path has predicates
+   */
+  public record XmlStreamElement(
+      String localName, String namespace, Map<String, String> attributes) {}
+}
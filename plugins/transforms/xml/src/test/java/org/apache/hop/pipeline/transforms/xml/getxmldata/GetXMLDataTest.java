@@ -647,4 +647,81 @@ class GetXMLDataTest {
     // The unreadable file produces exactly one error row.
     assertEquals(1, errorCollector.getRowsError().size(), "bad file goes to error handling");
   }
+
+  /**
+   * Reading files without building a document gives the same rows as reading them with a document,
+   * and a file which can't be parsed still goes to error handling.
+   */
+  @Test
+  void testStaxStreamingReadsTheSameRows(@TempDir Path tempDir) throws Exception {
+    Files.writeString(tempDir.resolve("1-good.xml"), getXML1());
+    Files.writeString(tempDir.resolve("2-bad.xml"), "<Level1><Level2><Props>");
+    Files.writeString(tempDir.resolve("3-good.xml"), getXML2());
+
+    RowTransformCollector document = readFolder(tempDir, false);
+    RowTransformCollector streamed = readFolder(tempDir, true);
+
+    assertEquals(3, streamed.getRowsWritten().size());
+    for (int i = 0; i < 3; i++) {
+      RowMetaAndData expected = document.getRowsWritten().get(i);
+      RowMetaAndData actual = streamed.getRowsWritten().get(i);
+      for (int f = 0; f < expected.size(); f++) {
+        assertEquals(expected.getString(f, null), actual.getString(f, null));
+      }
+    }
+    assertEquals(1, streamed.getRowsError().size(), "bad file goes to error handling");
+  }
+
+  /** Read all the .xml files in a folder with error handling and collect the rows. */
+  private RowTransformCollector readFolder(Path folder, boolean staxStreaming) throws Exception {
+    PipelineMeta pipelineMeta = new PipelineMeta();
+    pipelineMeta.setName("getxmldata-stax-streaming");
+
+    PluginRegistry registry = PluginRegistry.getInstance();
+
+    String getXMLDataName = "get xml data transform";
+    GetXmlDataMeta gxdm = new GetXmlDataMeta();
+    gxdm.setEncoding(Const.UTF_8);
+    gxdm.setAFile(false);
+    gxdm.setInFields(false);
+    gxdm.setStaxStreaming(staxStreaming);
+    gxdm.setLoopXPath("Level1/Level2/Props");
+    gxdm.setInputFields(java.util.Arrays.asList(createXmlDataFields()));
+    gxdm.setFilesList(
+        Collections.singletonList(
+            new GetXmlFileItem(folder.toString(), ".*\\.xml$", "", "N", "N")));
+    String getXMLDataPid = registry.getPluginId(TransformPluginType.class, gxdm);
+    TransformMeta getXMLDataTransform = new TransformMeta(getXMLDataPid, getXMLDataName, gxdm);
+    pipelineMeta.addTransform(getXMLDataTransform);
+
+    String dummyMainName = "dummy main";
+    DummyMeta dmMain = new DummyMeta();
+    String dummyMainPid = registry.getPluginId(TransformPluginType.class, dmMain);
+    TransformMeta dummyMain = new TransformMeta(dummyMainPid, dummyMainName, dmMain);
+    pipelineMeta.addTransform(dummyMain);
+    pipelineMeta.addPipelineHop(new PipelineHopMeta(getXMLDataTransform, dummyMain));
+
+    String dummyErrorName = "dummy error";
+    DummyMeta dmError = new DummyMeta();
+    String dummyErrorPid = registry.getPluginId(TransformPluginType.class, dmError);
+    TransformMeta dummyError = new TransformMeta(dummyErrorPid, dummyErrorName, dmError);
+    pipelineMeta.addTransform(dummyError);
+    pipelineMeta.addPipelineHop(new PipelineHopMeta(getXMLDataTransform, dummyError));
+
+    TransformErrorMeta errorMeta = new TransformErrorMeta(getXMLDataTransform, dummyError);
+    errorMeta.setEnabled(true);
+    getXMLDataTransform.setTransformErrorMeta(errorMeta);
+
+    Pipeline pipeline = new LocalPipelineEngine(pipelineMeta);
+    pipeline.prepareExecution();
+
+    RowTransformCollector collector = new RowTransformCollector();
+    pipeline.getTransform(getXMLDataName, 0).addRowListener(collector);
+
+    pipeline.startThreads();
+    pipeline.waitUntilFinished();
+
+    assertEquals(0, pipeline.getResult().getNrErrors());
+    return collector;
+  }
 }
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.xml.getxmldata;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class GetXmlDataStreamReaderTest {
+
+  private static final String XML =
+      "<?xml version=\"1.0\"?>"
+          + "<orders>"
+          + " <order id=\"1\" type=\"web\">"
+          + "  <customer><name>Ann</name><city>Ghent</city></customer>"
+          + "  <line sku=\"a\">2</line><line sku=\"b\">3</line>"
+          + "  <note>first <b>rush</b> &amp; wrap</note>"
+          + " </order>"
+          + " <order id=\"2\" type=\"shop\">"
+          + "  <customer><name>Bob</name></customer>"
+          + "  <line sku=\"c\">7</line>"
+          + " </order>"
+          + " <archive><order id=\"3\" type=\"web\"><customer><name>Cy</name></customer></order>"
+          + " </archive>"
+          + "</orders>";
+
+  private static List<String[]> read(String loopPath, String... fieldPaths) throws Exception {
+    GetXmlDataStreamReader reader = GetXmlDataStreamReader.compile(loopPath, List.of(fieldPaths));
+    assertNotNull(reader);
+    List<String[]> rows = new ArrayList<>();
+    reader.open(new ByteArrayInputStream(XML.getBytes(StandardCharsets.UTF_8)), "UTF-8");
+    String[] row;
+    while ((row = reader.next()) != null) {
+      rows.add(row);
+    }
+    reader.close();
+    return rows;
+  }
+
+  @Test
+  void childStepsAndAttributes() throws Exception {
+    List<String[]> rows = read("/orders/order", "@id", "customer/name", "line/@sku", "city");
+
+    assertArrayEquals(new String[] {"1", "Ann", "a", ""}, rows.get(0));
+    assertArrayEquals(new String[] {"2", "Bob", "c", ""}, rows.get(1));
+    assertEquals(2, rows.size());
+  }
+
+  @Test
+  void descendantStepsAndPredicates() throws Exception {
+    List<String[]> rows = read("//order[@type='web']", "@id", ".//city", "line[@sku='b']");
+
+    assertArrayEquals(new String[] {"1", "Ghent", "3"}, rows.get(0));
+    assertArrayEquals(new String[] {"3", "", ""}, rows.get(1));
+    assertEquals(2, rows.size());
+  }
+
+  @Test
+  void textIncludesChildrenAndEntities() throws Exception {
+    List<String[]> rows = read("/orders/*[@id='1']/note", ".");
+
+    assertArrayEquals(new String[] {"first rush & wrap"}, rows.get(0));
+  }
+
+  @Test
+  void unsupportedPathsAreNotCompiled() {
+    assertNull(GetXmlDataStreamReader.compile("orders/order", List.of("@id")));
+    assertNull(GetXmlDataStreamReader.compile("/orders/order[1]", List.of("@id")));
+    assertNull(GetXmlDataStreamReader.compile("/orders/order", List.of("../name")));
+    assertNull(GetXmlDataStreamReader.compile("/orders/order", List.of("count(line)")));
+    assertNull(GetXmlDataStreamReader.compile("/orders/order", List.of("line/text()")));
+    assertNull(GetXmlDataStreamReader.compile("/a:orders/order", List.of("@id")));
+    assertNull(GetXmlDataStreamReader.compile("/orders/order", List.of("/orders/@id")));
+    assertNull(GetXmlDataStreamReader.compile("/orders/order/@id", List.of(".")));
+  }
+}
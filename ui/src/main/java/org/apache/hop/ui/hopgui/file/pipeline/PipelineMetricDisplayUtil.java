@@ -78,7 +78,8 @@ public final class PipelineMetricDisplayUtil {
               Pipeline.METRIC_NAME_REJECTED,
               Pipeline.METRIC_NAME_ERROR,
               Pipeline.METRIC_NAME_BUFFER_IN,
-              Pipeline.METRIC_NAME_BUFFER_OUT ->
+              Pipeline.METRIC_NAME_BUFFER_OUT,
+              Pipeline.METRIC_NAME_BATCH_SIZE ->
           "rows";
       case Pipeline.METRIC_NAME_INIT -> "runs";
       case Pipeline.METRIC_NAME_FLUSH_BUFFER -> "flushes";
@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.ui.pipeline.transforms.socketreader;
+
+import org.apache.hop.core.Const;
+import org.apache.hop.core.util.Utils;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.i18n.BaseMessages;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.transforms.socketreader.SocketReaderMeta;
+import org.apache.hop.ui.core.PropsUi;
+import org.apache.hop.ui.core.dialog.BaseDialog;
+import org.apache.hop.ui.core.widget.PasswordTextVar;
+import org.apache.hop.ui.core.widget.TextVar;
+import org.apache.hop.ui.pipeline.transform.BaseTransformDialog;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.events.ModifyListener;
+import org.eclipse.swt.layout.FormAttachment;
+import org.eclipse.swt.layout.FormData;
+import org.eclipse.swt.widgets.Label;
+import org.eclipse.swt.widgets.Shell;
+
+public class SocketReaderDialog extends BaseTransformDialog {
+  private static final Class<?> PKG = SocketReaderMeta.class;
+
+  private final SocketReaderMeta input;
+
+  private TextVar wHostname;
+  private TextVar wPort;
+  private TextVar wToken;
+  private TextVar wAcceptTimeout;
+
+  public SocketReaderDialog(
+      Shell parent,
+      IVariables variables,
+      SocketReaderMeta transformMeta,
+      PipelineMeta pipelineMeta) {
+    super(parent, variables, transformMeta, pipelineMeta);
+    input = transformMeta;
+  }
+
+  @Override
+  public String open() {
+    createShell(BaseMessages.getString(PKG, "SocketReaderDialog.Shell.Title"));
+    changed = input.hasChanged();
+
+    buildButtonBar().ok(e -> ok()).cancel(e -> cancel()).build();
+
+    ModifyListener lsMod = e -> input.setChanged();
+
+    Label wlHostname = new Label(shell, SWT.RIGHT);
+    wlHostname.setText(BaseMessages.getString(PKG, "SocketReaderDialog.Hostname.Label"));
+    PropsUi.setLook(wlHostname);
+    FormData fdlHostname = new FormData();
+    fdlHostname.left = new FormAttachment(0, 0);
+    fdlHostname.right = new FormAttachment(middle, -margin);
+    fdlHostname.top = new FormAttachment(wSpacer, margin);
+    wlHostname.setLayoutData(fdlHostname);
+    wHostname = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wHostname);
+    wHostname.addModifyListener(lsMod);
+    FormData fdHostname = new FormData();
+    fdHostname.left = new FormAttachment(middle, 0);
+    fdHostname.right = new FormAttachment(100, 0);
+    fdHostname.top = new FormAttachment(wSpacer, margin);
+    wHostname.setLayoutData(fdHostname);
+
+    Label wlPort = new Label(shell, SWT.RIGHT);
+    wlPort.setText(BaseMessages.getString(PKG, "SocketReaderDialog.Port.Label"));
+    PropsUi.setLook(wlPort);
+    FormData fdlPort = new FormData();
+    fdlPort.left = new FormAttachment(0, 0);
+    fdlPort.right = new FormAttachment(middle, -margin);
+    fdlPort.top = new FormAttachment(wHostname, margin);
+    wlPort.setLayoutData(fdlPort);
+    wPort = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wPort);
+    wPort.addModifyListener(lsMod);
+    FormData fdPort = new FormData();
+    fdPort.left = new FormAttachment(middle, 0);
+    fdPort.right = new FormAttachment(100, 0);
+    fdPort.top = new FormAttachment(wHostname, margin);
+    wPort.setLayoutData(fdPort);
+
+    Label wlToken = new Label(shell, SWT.RIGHT);
+    wlToken.setText(BaseMessages.getString(PKG, "SocketReaderDialog.Token.Label"));
+    PropsUi.setLook(wlToken);
+    FormData fdlToken = new FormData();
+    fdlToken.left = new FormAttachment(0, 0);
+    fdlToken.right = new FormAttachment(middle, -margin);
+    fdlToken.top = new FormAttachment(wPort, margin);
+    wlToken.setLayoutData(fdlToken);
+    wToken = new PasswordTextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wToken);
+    wToken.addModifyListener(lsMod);
+    FormData fdToken = new FormData();
+    fdToken.left = new FormAttachment(middle, 0);
+    fdToken.right = new FormAttachment(100, 0);
+    fdToken.top = new FormAttachment(wPort, margin);
+    wToken.setLayoutData(fdToken);
+
+    Label wlAcceptTimeout = new Label(shell, SWT.RIGHT);
+    wlAcceptTimeout.setText(BaseMessages.getString(PKG, "SocketReaderDialog.AcceptTimeout.Label"));
+    PropsUi.setLook(wlAcceptTimeout);
+    FormData fdlAcceptTimeout = new FormData();
+    fdlAcceptTimeout.left = new FormAttachment(0, 0);
+    fdlAcceptTimeout.right = new FormAttachment(middle, -margin);
+    fdlAcceptTimeout.top = new FormAttachment(wToken, margin);
+    wlAcceptTimeout.setLayoutData(fdlAcceptTimeout);
+    wAcceptTimeout = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wAcceptTimeout);
+    wAcceptTimeout.addModifyListener(lsMod);
+    FormData fdAcceptTimeout = new FormData();
+    fdAcceptTimeout.left = new FormAttachment(middle, 0);
+    fdAcceptTimeout.right = new FormAttachment(100, 0);
+    fdAcceptTimeout.top = new FormAttachment(wToken, margin);
+    wAcceptTimeout.setLayoutData(fdAcceptTimeout);
+
+    getData();
+    input.setChanged(changed);
+    focusTransformName();
+    BaseDialog.defaultShellHandling(shell, c -> ok(), c -> cancel());
+
+    return transformName;
+  }
+
+  /** Copy information from the meta-data input to the dialog fields. */
+  public void getData() {
+    wHostname.setText(Const.NVL(input.getHostname(), ""));
+    wPort.setText(Const.NVL(input.getPort(), ""));
+    wToken.setText(Const.NVL(input.getToken(), ""));
+    wAcceptTimeout.setText(Const.NVL(input.getAcceptTimeout(), ""));
+  }
+
+  private void cancel() {
+    transformName = null;
+    input.setChanged(changed);
+    dispose();
+  }
+
+  private void ok() {
+    if (Utils.isEmpty(wTransformName.getText())) {
+      return;
+    }
+
+    transformName = wTransformName.getText(); // return value
+    input.setHostname(wHostname.getText());
+    input.setPort(wPort.getText());
+    input.setToken(wToken.getText());
+    input.setAcceptTimeout(wAcceptTimeout.getText());
+    input.setChanged();
+
+    dispose();
+  }
+}
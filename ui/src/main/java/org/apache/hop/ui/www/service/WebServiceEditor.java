@@ -71,6 +71,8 @@ public class WebServiceEditor extends MetadataEditor<WebService> {
   private Button wListStatus;
   private TextVar wBodyContentVariable;
   private TextVar wHeaderContentVariable;
+  private Button wPooled;
+  private TextVar wPoolSize;
 
   public WebServiceEditor(HopGui hopGui, MetadataManager<WebService> manager, WebService metadata) {
     super(hopGui, manager, metadata);
@@ -346,6 +348,49 @@ public class WebServiceEditor extends MetadataEditor<WebService> {
     wHeaderContentVariable.setLayoutData(fdHeaderContentVariable);
     lastControl = wlHeaderContentVariable;
 
+    // Pooled?
+    //
+    Label wlPooled = new Label(parent, SWT.RIGHT);
+    PropsUi.setLook(wlPooled);
+    wlPooled.setText(BaseMessages.getString(PKG, "WebServiceEditor.Pooled.Label"));
+    wlPooled.setToolTipText(BaseMessages.getString(PKG, "WebServiceEditor.Pooled.Tooltip"));
+    FormData fdlPooled = new FormData();
+    fdlPooled.left = new FormAttachment(0, 0);
+    fdlPooled.right = new FormAttachment(middle, -margin);
+    fdlPooled.top = new FormAttachment(lastControl, 2 * margin);
+    wlPooled.setLayoutData(fdlPooled);
+    wPooled = new Button(parent, SWT.CHECK | SWT.LEFT);
+    wPooled.setToolTipText(BaseMessages.getString(PKG, "WebServiceEditor.Pooled.Tooltip"));
+    PropsUi.setLook(wPooled);
+    FormData fdPooled = new FormData();
+    fdPooled.left = new FormAttachment(middle, 0);
+    fdPooled.right = new FormAttachment(100, 0);
+    fdPooled.top = new FormAttachment(wlPooled, 0, SWT.CENTER);
+    wPooled.setLayoutData(fdPooled);
+    wPooled.addListener(SWT.Selection, e -> enableFields());
+    lastControl = wlPooled;
+
+    // The number of prepared pipelines in the pool
+    //
+    Label wlPoolSize = new Label(parent, SWT.RIGHT);
+    PropsUi.setLook(wlPoolSize);
+    wlPoolSize.setText(BaseMessages.getString(PKG, "WebServiceEditor.PoolSize.Label"));
+    wlPoolSize.setToolTipText(BaseMessages.getString(PKG, "WebServiceEditor.PoolSize.Tooltip"));
+    FormData fdlPoolSize = new FormData();
+    fdlPoolSize.left = new FormAttachment(0, 0);
+    fdlPoolSize.right = new FormAttachment(middle, -margin);
+    fdlPoolSize.top = new FormAttachment(lastControl, 2 * margin);
+    wlPoolSize.setLayoutData(fdlPoolSize);
+    wPoolSize = new TextVar(manager.getVariables(), parent, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    wPoolSize.setToolTipText(BaseMessages.getString(PKG, "WebServiceEditor.PoolSize.Tooltip"));
+    PropsUi.setLook(wPoolSize);
+    FormData fdPoolSize = new FormData();
+    fdPoolSize.left = new FormAttachment(middle, 0);
+    fdPoolSize.right = new FormAttachment(100, 0);
+    fdPoolSize.top = new FormAttachment(wlPoolSize, 0, SWT.CENTER);
+    wPoolSize.setLayoutData(fdPoolSize);
+    lastControl = wlPoolSize;
+
     setWidgetsContent();
 
     // Add listener to detect change after loading data
@@ -360,6 +405,8 @@ public class WebServiceEditor extends MetadataEditor<WebService> {
     wListStatus.addListener(SWT.Selection, modifyListener);
     wBodyContentVariable.addListener(SWT.Modify, modifyListener);
     wHeaderContentVariable.addListener(SWT.Modify, modifyListener);
+    wPooled.addListener(SWT.Selection, modifyListener);
+    wPoolSize.addListener(SWT.Modify, modifyListener);
     wRunConfiguration.addListener(SWT.Selection, modifyListener);
   }
 
@@ -464,12 +511,19 @@ public class WebServiceEditor extends MetadataEditor<WebService> {
     wListStatus.setSelection(ws.isListingStatus());
     wBodyContentVariable.setText(Const.NVL(ws.getBodyContentVariable(), ""));
     wHeaderContentVariable.setText(Const.NVL(ws.getHeaderContentVariable(), ""));
+    wPooled.setSelection(ws.isPooled());
+    wPoolSize.setText(Const.NVL(ws.getPoolSize(), ""));
     try {
       wRunConfiguration.fillItems();
       wRunConfiguration.setText(Const.NVL(ws.getRunConfigurationName(), ""));
     } catch (Exception e) {
       LogChannel.UI.logError("Error getting workflow run configurations", e);
     }
+    enableFields();
+  }
+
+  private void enableFields() {
+    wPoolSize.setEnabled(wPooled.getSelection());
   }
 
   @Override
@@ -484,6 +538,8 @@ public class WebServiceEditor extends MetadataEditor<WebService> {
     ws.setListingStatus(wListStatus.getSelection());
     ws.setBodyContentVariable(wBodyContentVariable.getText());
     ws.setHeaderContentVariable(wHeaderContentVariable.getText());
+    ws.setPooled(wPooled.getSelection());
+    ws.setPoolSize(wPoolSize.getText());
     ws.setRunConfigurationName(wRunConfiguration.getText());
   }
 